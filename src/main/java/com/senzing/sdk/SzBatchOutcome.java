@@ -0,0 +1,74 @@
+package com.senzing.sdk;
+
+/**
+ * Describes the outcome of a single item from a batch operation such as
+ * {@link SzEngine#deleteRecords(java.util.Collection, java.util.Set)} as a
+ * Java record class containing the key identifying the item, the INFO
+ * response (if requested) and the failure (if any).
+ *
+ * @param <K> The type of key that identifies the item (e.g.: {@link
+ *            SzRecordKey} or {@link Long} entity ID).
+ *
+ * @param key The non-null key identifying the item of the batch.
+ *
+ * @param info The JSON {@link String} INFO response for the item if it
+ *             was requested and the operation succeeded, otherwise
+ *             <code>null</code>.
+ *
+ * @param failure The {@link SzException} that occurred if the operation
+ *                failed for this item, or <code>null</code> if the
+ *                operation succeeded.
+ *
+ * @since 4.4.0
+ */
+public record SzBatchOutcome<K>(K key, String info, SzException failure)
+{
+    /**
+     * Creates a new successful {@link SzBatchOutcome} for the specified
+     * key with the specified (optionally <code>null</code>) INFO response.
+     *
+     * @param <K> The type of key that identifies the item.
+     *
+     * @param key The non-null key identifying the item of the batch.
+     *
+     * @param info The JSON {@link String} INFO response for the item, or
+     *             <code>null</code> if no INFO response was requested.
+     *
+     * @return The newly created {@link SzBatchOutcome}.
+     *
+     * @since 4.4.0
+     */
+    public static <K> SzBatchOutcome<K> success(K key, String info) {
+        return new SzBatchOutcome<>(key, info, null);
+    }
+
+    /**
+     * Creates a new failed {@link SzBatchOutcome} for the specified key
+     * with the specified {@link SzException} describing the failure.
+     *
+     * @param <K> The type of key that identifies the item.
+     *
+     * @param key The non-null key identifying the item of the batch.
+     *
+     * @param failure The non-null {@link SzException} describing the failure.
+     *
+     * @return The newly created {@link SzBatchOutcome}.
+     *
+     * @since 4.4.0
+     */
+    public static <K> SzBatchOutcome<K> failure(K key, SzException failure) {
+        return new SzBatchOutcome<>(key, null, failure);
+    }
+
+    /**
+     * Checks if the operation for this item succeeded.
+     *
+     * @return <code>true</code> if the operation for this item succeeded,
+     *         otherwise <code>false</code>.
+     *
+     * @since 4.4.0
+     */
+    public boolean isSuccess() {
+        return (this.failure == null);
+    }
+}
@@ -0,0 +1,322 @@
+package com.senzing.sdk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Describes the result of a batch operation such as {@link
+ * SzEngine#deleteRecords(java.util.Collection, Set)}, {@link
+ * SzEngine#reevaluateRecords(java.util.Collection, Set)} or {@link
+ * SzEngine#reevaluateEntities(long[], Set)}.  This provides the
+ * per-item {@linkplain SzBatchOutcome outcomes} in the order the items
+ * were specified as well as the aggregate {@linkplain SzEntityIds
+ * affected entity ID's} when an INFO response was requested.
+ *
+ * @param <K> The type of key that identifies the items of the batch.
+ *
+ * @since 4.4.0
+ */
+public final class SzBatchResult<K> {
+    /**
+     * Provides a builder class for creating instances of
+     * {@link SzBatchResult}.  This is typically used by implementations
+     * of {@link SzEngine} when implementing the batch operations.
+     *
+     * @param <K> The type of key that identifies the items of the batch.
+     *
+     * @since 4.4.0
+     */
+    public static final class Builder<K> {
+        /**
+         * The {@link List} of {@link SzBatchOutcome} instances.
+         */
+        private List<SzBatchOutcome<K>> outcomes = null;
+
+        /**
+         * The {@link Set} of affected entity ID's, or <code>null</code>
+         * if INFO responses were not requested.
+         */
+        private Set<Long> affectedEntityIds = null;
+
+        /**
+         * The reusable {@link SzInfoExtractor} for extracting the affected
+         * entity ID's, or <code>null</code> if INFO responses were not
+         * requested.
+         */
+        private SzInfoExtractor extractor = null;
+
+        /**
+         * The number of failed outcomes.
+         */
+        private int failureCount = 0;
+
+        /**
+         * Private constructor.
+         *
+         * @param withInfo <code>true</code> if INFO responses were requested
+         *                 and the affected entity ID's should be aggregated,
+         *                 otherwise <code>false</code>.
+         *
+         * @param expectedCount The expected number of outcomes.
+         */
+        private Builder(boolean withInfo, int expectedCount) {
+            this.outcomes = new ArrayList<>(expectedCount);
+            this.affectedEntityIds = (withInfo) ? new TreeSet<>() : null;
+            this.extractor = (withInfo) ? new SzInfoExtractor() : null;
+        }
+
+        /**
+         * Adds the specified {@link SzBatchOutcome} to this {@link Builder}.
+         * If the outcome is successful and has an INFO response then the
+         * affected entity ID's are extracted via {@link SzInfoExtractor}
+         * and aggregated.
+         *
+         * @param outcome The non-null {@link SzBatchOutcome} to add.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @throws IllegalStateException If this builder has already had
+         *                               its {@link #build()} method called.
+         *
+         * @throws IllegalArgumentException If the INFO response of the
+         *                                  outcome is not a valid JSON object.
+         *
+         * @since 4.4.0
+         */
+        public Builder<K> outcome(SzBatchOutcome<K> outcome)
+            throws NullPointerException, IllegalStateException,
+                   IllegalArgumentException
+        {
+            if (this.outcomes == null) {
+                throw new IllegalStateException(
+                    "This builder has already built an SzBatchResult");
+            }
+            if (outcome == null) {
+                throw new NullPointerException(
+                    "The specified outcome cannot be null");
+            }
+            this.outcomes.add(outcome);
+            if (!outcome.isSuccess()) {
+                this.failureCount++;
+            } else if (this.affectedEntityIds != null && outcome.info() != null) {
+                int count = this.extractor.extract(outcome.info());
+                for (int index = 0; index < count; index++) {
+                    this.affectedEntityIds.add(
+                        this.extractor.getAffectedEntityId(index));
+                }
+                this.extractor.reset();
+            }
+            return this;
+        }
+
+        /**
+         * Convenience method for adding a successful outcome for the
+         * specified key and optional INFO response.
+         *
+         * @param key The non-null key identifying the item.
+         *
+         * @param info The INFO response, or <code>null</code> if none.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalStateException If this builder has already had
+         *                               its {@link #build()} method called.
+         *
+         * @since 4.4.0
+         */
+        public Builder<K> success(K key, String info)
+            throws IllegalStateException
+        {
+            return this.outcome(SzBatchOutcome.success(key, info));
+        }
+
+        /**
+         * Convenience method for adding a failed outcome for the
+         * specified key and {@link SzException}.
+         *
+         * @param key The non-null key identifying the item.
+         *
+         * @param failure The non-null {@link SzException} describing
+         *                the failure.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalStateException If this builder has already had
+         *                               its {@link #build()} method called.
+         *
+         * @since 4.4.0
+         */
+        public Builder<K> failure(K key, SzException failure)
+            throws IllegalStateException
+        {
+            return this.outcome(SzBatchOutcome.failure(key, failure));
+        }
+
+        /**
+         * Builds a new instance of {@link SzBatchResult} using the
+         * {@link SzBatchOutcome} instances that were added to this
+         * builder instance.
+         *
+         * @return The newly constructed instance of {@link SzBatchResult}.
+         *
+         * @throws IllegalStateException If this builder has already had
+         *                               its {@link #build()} method called.
+         *
+         * @since 4.4.0
+         */
+        public SzBatchResult<K> build() throws IllegalStateException {
+            if (this.outcomes == null) {
+                throw new IllegalStateException(
+                    "This builder has already built an SzBatchResult");
+            }
+            SzBatchResult<K> result = new SzBatchResult<>(this);
+            this.outcomes = null;
+            this.affectedEntityIds = null;
+            this.extractor = null;
+            return result;
+        }
+    }
+
+    /**
+     * Creates a new instance of {@link Builder} for building an
+     * {@link SzBatchResult}.
+     *
+     * @param <K> The type of key that identifies the items of the batch.
+     *
+     * @param withInfo <code>true</code> if INFO responses were requested
+     *                 and the affected entity ID's should be aggregated,
+     *                 otherwise <code>false</code>.
+     *
+     * @param expectedCount The expected number of outcomes to size the
+     *                      builder's internal storage.
+     *
+     * @return The new {@link Builder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static <K> Builder<K> newBuilder(boolean withInfo, int expectedCount) {
+        return new Builder<>(withInfo, Math.max(0, expectedCount));
+    }
+
+    /**
+     * The <b>unmodifiable</b> {@link List} of {@link SzBatchOutcome}
+     * instances.
+     */
+    private List<SzBatchOutcome<K>> outcomes;
+
+    /**
+     * The {@link SzEntityIds} describing the affected entity ID's, or
+     * <code>null</code> if INFO was not requested.
+     */
+    private SzEntityIds affectedEntityIds;
+
+    /**
+     * The number of failed outcomes.
+     */
+    private int failureCount;
+
+    /**
+     * Private constructor for creating a new instance with a
+     * {@link Builder} instance.
+     *
+     * @param builder The {@link Builder} from which to construct.
+     */
+    private SzBatchResult(Builder<K> builder) {
+        this.outcomes = Collections.unmodifiableList(builder.outcomes);
+        this.failureCount = builder.failureCount;
+        this.affectedEntityIds = (builder.affectedEntityIds == null)
+            ? null : new SzEntityIds(builder.affectedEntityIds);
+    }
+
+    /**
+     * Gets the <b>unmodifiable</b> {@link List} of {@link SzBatchOutcome}
+     * instances in the same order as the items were specified to the batch
+     * operation.
+     *
+     * @return The <b>unmodifiable</b> {@link List} of {@link SzBatchOutcome}
+     *         instances.
+     *
+     * @since 4.4.0
+     */
+    public List<SzBatchOutcome<K>> getOutcomes() {
+        return this.outcomes;
+    }
+
+    /**
+     * Gets the {@link List} of {@link SzBatchOutcome} instances that
+     * describe failures.  This returns an empty {@link List} if all
+     * operations in the batch succeeded.
+     *
+     * @return The {@link List} of failed {@link SzBatchOutcome} instances.
+     *
+     * @since 4.4.0
+     */
+    public List<SzBatchOutcome<K>> getFailures() {
+        if (this.failureCount == 0) {
+            return List.of();
+        }
+        List<SzBatchOutcome<K>> failures = new ArrayList<>(this.failureCount);
+        for (SzBatchOutcome<K> outcome : this.outcomes) {
+            if (!outcome.isSuccess()) {
+                failures.add(outcome);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Gets the number of items in the batch that succeeded.
+     *
+     * @return The number of items in the batch that succeeded.
+     *
+     * @since 4.4.0
+     */
+    public int getSuccessCount() {
+        return this.outcomes.size() - this.failureCount;
+    }
+
+    /**
+     * Gets the number of items in the batch that failed.
+     *
+     * @return The number of items in the batch that failed.
+     *
+     * @since 4.4.0
+     */
+    public int getFailureCount() {
+        return this.failureCount;
+    }
+
+    /**
+     * Gets the aggregate {@link SzEntityIds} describing the entity ID's
+     * affected by the successful operations in the batch.  This returns
+     * <code>null</code> if INFO responses were not requested via
+     * {@link SzFlag#SZ_WITH_INFO}.
+     *
+     * @return The {@link SzEntityIds} describing the affected entity ID's,
+     *         or <code>null</code> if INFO responses were not requested.
+     *
+     * @since 4.4.0
+     */
+    public SzEntityIds getAffectedEntityIds() {
+        return this.affectedEntityIds;
+    }
+
+    /**
+     * Returns a brief {@link String} describing the success and failure
+     * counts for this instance.
+     *
+     * @return A brief {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzBatchResult{ successCount=[ " + this.getSuccessCount()
+            + " ], failureCount=[ " + this.failureCount
+            + " ], affectedEntityIds=[ " + this.affectedEntityIds + " ] }";
+    }
+}
@@ -2,6 +2,8 @@ package com.senzing.sdk;
 
 import static com.senzing.sdk.SzFlag.*;
 
+import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -207,6 +209,118 @@ public interface SzEngine {
         return this.addRecord(recordKey, recordDefinition, SZ_ADD_RECORD_DEFAULT_FLAGS);
     }
 
+    /**
+     * Convenience method for calling {@link #addRecord(SzRecordKey, String, Set)}
+     * with a record definition held in a {@link CharSequence} (e.g.: a reused
+     * {@link StringBuilder}).  See the {@link #addRecord(SzRecordKey, String, Set)}
+     * documentation for details.
+     * 
+     * <p>
+     * If the specified {@link CharSequence} is a {@link String} then it is
+     * passed through as-is, otherwise it is converted to a {@link String}
+     * exactly once.  This spares callers from creating their own copy when
+     * the record definition was assembled in a mutable buffer.
+     * </p>
+     * 
+     * @param recordKey The non-null {@link SzRecordKey} that specifies the
+     *                  data source code and record ID of the record being added.
+     * 
+     * @param recordDefinition The {@link CharSequence} that defines the record,
+     *                         typically in JSON format.
+     * 
+     * @param flags The optional {@link Set} of {@link SzFlag} instances belonging
+     *              to the {@link SzFlagUsageGroup#SZ_ADD_RECORD_FLAGS} group to
+     *              control how the operation is performed and the content of the
+     *              response, or <code>null</code> to default to {@link
+     *              SzFlag#SZ_NO_FLAGS} or {@link SzFlag#SZ_WITH_INFO_FLAGS}
+     *              for an INFO response.  {@link SzFlag#SZ_ADD_RECORD_DEFAULT_FLAGS}
+     *              is also available if you desire to use recommended defaults.
+     * 
+     * @return The JSON {@link String} result produced by adding the record to the
+     *         repository, or <code>null</code> if the specified flags do not 
+     *         indicate that an INFO message should be returned.
+     * 
+     * @throws SzUnknownDataSourceException If an unrecognized data source
+     *                                      code is specified.
+     * 
+     * @throws SzBadInputException If the specified record definition has a data source
+     *                             or record ID value that conflicts with the specified
+     *                             data source code and/or record ID values.
+     * 
+     * @throws SzException If a failure occurs.
+     * 
+     * @see #addRecord(SzRecordKey, String, Set)
+     * @see #addRecordUtf8(SzRecordKey, ByteBuffer, Set)
+     * 
+     * @since 4.4.0
+     */
+    @SzConfigRetryable
+    default String addRecord(SzRecordKey        recordKey,
+                             CharSequence       recordDefinition,
+                             Set<SzFlag>        flags)
+        throws SzUnknownDataSourceException, SzBadInputException, SzException
+    {
+        return this.addRecord(recordKey,
+                              (recordDefinition == null) ? null : recordDefinition.toString(),
+                              flags);
+    }
+
+    /**
+     * Convenience method for calling {@link #addRecord(SzRecordKey, String, Set)}
+     * with a UTF-8 encoded record definition held in a {@link ByteBuffer}
+     * (e.g.: the payload of a message or a slice of a memory-mapped file).
+     * See the {@link #addRecord(SzRecordKey, String, Set)} documentation for
+     * details.
+     * 
+     * <p>
+     * The remaining bytes of the specified buffer are decoded directly to a
+     * single {@link String} without an intermediate {@link java.nio.CharBuffer},
+     * and the position of the buffer is <b>not</b> changed.  Malformed UTF-8
+     * sequences are replaced with the Unicode replacement character.
+     * </p>
+     * 
+     * @param recordKey The non-null {@link SzRecordKey} that specifies the
+     *                  data source code and record ID of the record being added.
+     * 
+     * @param recordDefinition The {@link ByteBuffer} whose remaining bytes are
+     *                         the UTF-8 encoded record definition, typically in
+     *                         JSON format.
+     * 
+     * @param flags The optional {@link Set} of {@link SzFlag} instances belonging
+     *              to the {@link SzFlagUsageGroup#SZ_ADD_RECORD_FLAGS} group to
+     *              control how the operation is performed and the content of the
+     *              response, or <code>null</code> to default to {@link
+     *              SzFlag#SZ_NO_FLAGS} or {@link SzFlag#SZ_WITH_INFO_FLAGS}
+     *              for an INFO response.  {@link SzFlag#SZ_ADD_RECORD_DEFAULT_FLAGS}
+     *              is also available if you desire to use recommended defaults.
+     * 
+     * @return The JSON {@link String} result produced by adding the record to the
+     *         repository, or <code>null</code> if the specified flags do not 
+     *         indicate that an INFO message should be returned.
+     * 
+     * @throws SzUnknownDataSourceException If an unrecognized data source
+     *                                      code is specified.
+     * 
+     * @throws SzBadInputException If the specified record definition has a data source
+     *                             or record ID value that conflicts with the specified
+     *                             data source code and/or record ID values.
+     * 
+     * @throws SzException If a failure occurs.
+     * 
+     * @see #addRecord(SzRecordKey, String, Set)
+     * @see #addRecord(SzRecordKey, CharSequence, Set)
+     * 
+     * @since 4.4.0
+     */
+    @SzConfigRetryable
+    default String addRecordUtf8(SzRecordKey        recordKey,
+                                 ByteBuffer         recordDefinition,
+                                 Set<SzFlag>        flags)
+        throws SzUnknownDataSourceException, SzBadInputException, SzException
+    {
+        return this.addRecord(recordKey, Utilities.decodeUtf8(recordDefinition), flags);
+    }
+
     /**
      * Describes the features resulting from the hypothetical load of a record.
      * 
@@ -296,6 +410,82 @@ public interface SzEngine {
         return this.getRecordPreview(recordDefinition, SZ_RECORD_PREVIEW_DEFAULT_FLAGS);
     }
 
+    /**
+     * Convenience method for calling {@link #getRecordPreview(String, Set)}
+     * with a record definition held in a {@link CharSequence} (e.g.: a reused
+     * {@link StringBuilder}).  If the specified {@link CharSequence} is a
+     * {@link String} then it is passed through as-is, otherwise it is
+     * converted to a {@link String} exactly once.  See the {@link
+     * #getRecordPreview(String, Set)} documentation for details.
+     * 
+     * @param recordDefinition The {@link CharSequence} that defines the record,
+     *                         typically in JSON format.
+     * 
+     * @param flags The optional {@link Set} of {@link SzFlag} instances belonging
+     *              to the {@link SzFlagUsageGroup#SZ_RECORD_PREVIEW_FLAGS} group
+     *              to control how the operation is performed and the content of the
+     *              response, or <code>null</code> to default to {@link 
+     *              SzFlag#SZ_NO_FLAGS} or {@link SzFlag#SZ_RECORD_PREVIEW_DEFAULT_FLAGS} 
+     *              for the default recommended flags.
+     * 
+     * @return The JSON {@link String} record preview (depending on the specified flags).
+     * 
+     * @throws SzUnknownDataSourceException If the specified record includes an
+     *                                      an unrecognized data source code.
+     * 
+     * @throws SzException If a failure occurs.
+     * 
+     * @see #getRecordPreview(String, Set)
+     * @see #getRecordPreviewUtf8(ByteBuffer, Set)
+     * 
+     * @since 4.4.0
+     */
+    @SzConfigRetryable
+    default String getRecordPreview(CharSequence recordDefinition, Set<SzFlag> flags)
+        throws SzUnknownDataSourceException, SzException
+    {
+        return this.getRecordPreview(
+            (recordDefinition == null) ? null : recordDefinition.toString(), flags);
+    }
+
+    /**
+     * Convenience method for calling {@link #getRecordPreview(String, Set)}
+     * with a UTF-8 encoded record definition held in a {@link ByteBuffer}.
+     * The remaining bytes of the specified buffer are decoded directly to a
+     * single {@link String} without an intermediate {@link java.nio.CharBuffer},
+     * and the position of the buffer is <b>not</b> changed.  See the {@link
+     * #getRecordPreview(String, Set)} documentation for details.
+     * 
+     * @param recordDefinition The {@link ByteBuffer} whose remaining bytes are
+     *                         the UTF-8 encoded record definition, typically in
+     *                         JSON format.
+     * 
+     * @param flags The optional {@link Set} of {@link SzFlag} instances belonging
+     *              to the {@link SzFlagUsageGroup#SZ_RECORD_PREVIEW_FLAGS} group
+     *              to control how the operation is performed and the content of the
+     *              response, or <code>null</code> to default to {@link 
+     *              SzFlag#SZ_NO_FLAGS} or {@link SzFlag#SZ_RECORD_PREVIEW_DEFAULT_FLAGS} 
+     *              for the default recommended flags.
+     * 
+     * @return The JSON {@link String} record preview (depending on the specified flags).
+     * 
+     * @throws SzUnknownDataSourceException If the specified record includes an
+     *                                      an unrecognized data source code.
+     * 
+     * @throws SzException If a failure occurs.
+     * 
+     * @see #getRecordPreview(String, Set)
+     * @see #getRecordPreview(CharSequence, Set)
+     * 
+     * @since 4.4.0
+     */
+    @SzConfigRetryable
+    default String getRecordPreviewUtf8(ByteBuffer recordDefinition, Set<SzFlag> flags)
+        throws SzUnknownDataSourceException, SzException
+    {
+        return this.getRecordPreview(Utilities.decodeUtf8(recordDefinition), flags);
+    }
+
     /**
      * Deletes a record from the repository and performs entity resolution.
      * 
@@ -602,6 +792,183 @@ public interface SzEngine {
         return this.reevaluateEntity(entityId, SZ_REEVALUATE_ENTITY_DEFAULT_FLAGS);
     }
 
+    /**
+     * Deletes the records identified by the specified {@link Collection} of
+     * {@link SzRecordKey} instances from the repository and performs entity
+     * resolution for each.
+     * 
+     * <p>
+     * The outcome of each individual delete operation is reported via the
+     * returned {@link SzBatchResult} in the same order as the specified record
+     * keys.  A failure to delete one record does <b>not</b> prevent the others
+     * from being deleted.  If {@link SzFlag#SZ_WITH_INFO} is specified, then
+     * each successful {@link SzBatchOutcome} will contain its INFO response and
+     * the {@link SzBatchResult#getAffectedEntityIds()} will provide the 
+     * aggregate of the affected entity ID's across all the operations.
+     * </p>
+     * 
+     * <p>
+     * The default implementation of this method sequentially calls {@link
+     * #deleteRecord(SzRecordKey, Set)} for each record key.  Implementations
+     * are encouraged to override this method to execute the operations
+     * concurrently.
+     * </p>
+     * 
+     * @param recordKeys The non-null {@link Collection} of non-null {@link
+     *                   SzRecordKey} instances identifying the records to delete.
+     * 
+     * @param flags The optional {@link Set} of {@link SzFlag} instances belonging
+     *              to the {@link SzFlagUsageGroup#SZ_DELETE_RECORD_FLAGS} group to
+     *              control how each operation is performed and the content of the
+     *              responses, or <code>null</code> to default to {@link
+     *              SzFlag#SZ_NO_FLAGS} or {@link SzFlag#SZ_WITH_INFO_FLAGS}
+     *              for INFO responses.
+     * 
+     * @return The {@link SzBatchResult} describing the outcome for each record key.
+     * 
+     * @throws SzException If a failure occurs that is not specific to an
+     *                     individual record.
+     * 
+     * @see #deleteRecord(SzRecordKey, Set)
+     * @see SzFlagUsageGroup#SZ_DELETE_RECORD_FLAGS
+     * 
+     * @since 4.4.0
+     */
+    default SzBatchResult<SzRecordKey> deleteRecords(
+            Collection<SzRecordKey> recordKeys, Set<SzFlag> flags)
+        throws SzException
+    {
+        boolean withInfo = (flags != null && flags.contains(SZ_WITH_INFO));
+        SzBatchResult.Builder<SzRecordKey> builder
+            = SzBatchResult.newBuilder(withInfo, recordKeys.size());
+        for (SzRecordKey recordKey : recordKeys) {
+            try {
+                builder.success(recordKey, this.deleteRecord(recordKey, flags));
+            } catch (SzException e) {
+                builder.failure(recordKey, e);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reevaluates the records identified by the specified {@link Collection} 
+     * of {@link SzRecordKey} instances.
+     * 
+     * <p>
+     * The outcome of each individual reevaluation is reported via the returned
+     * {@link SzBatchResult} in the same order as the specified record keys.
+     * A failure to reevaluate one record does <b>not</b> prevent the others
+     * from being reevaluated.  If {@link SzFlag#SZ_WITH_INFO} is specified,
+     * then each successful {@link SzBatchOutcome} will contain its INFO 
+     * response and the {@link SzBatchResult#getAffectedEntityIds()} will
+     * provide the aggregate of the affected entity ID's across all the
+     * operations.
+     * </p>
+     * 
+     * <p>
+     * The default implementation of this method sequentially calls {@link
+     * #reevaluateRecord(SzRecordKey, Set)} for each record key.  
+     * Implementations are encouraged to override this method to execute
+     * the operations concurrently.
+     * </p>
+     * 
+     * @param recordKeys The non-null {@link Collection} of non-null {@link
+     *                   SzRecordKey} instances identifying the records to
+     *                   reevaluate.
+     * 
+     * @param flags The optional {@link Set} of {@link SzFlag} instances belonging
+     *              to the {@link SzFlagUsageGroup#SZ_REEVALUATE_RECORD_FLAGS} group
+     *              to control how each operation is performed and the content of 
+     *              the responses, or <code>null</code> to default to {@link
+     *              SzFlag#SZ_NO_FLAGS} or {@link SzFlag#SZ_WITH_INFO_FLAGS}
+     *              for INFO responses.
+     * 
+     * @return The {@link SzBatchResult} describing the outcome for each record key.
+     * 
+     * @throws SzException If a failure occurs that is not specific to an
+     *                     individual record.
+     * 
+     * @see #reevaluateRecord(SzRecordKey, Set)
+     * @see SzFlagUsageGroup#SZ_REEVALUATE_RECORD_FLAGS
+     * 
+     * @since 4.4.0
+     */
+    default SzBatchResult<SzRecordKey> reevaluateRecords(
+            Collection<SzRecordKey> recordKeys, Set<SzFlag> flags)
+        throws SzException
+    {
+        boolean withInfo = (flags != null && flags.contains(SZ_WITH_INFO));
+        SzBatchResult.Builder<SzRecordKey> builder
+            = SzBatchResult.newBuilder(withInfo, recordKeys.size());
+        for (SzRecordKey recordKey : recordKeys) {
+            try {
+                builder.success(recordKey, this.reevaluateRecord(recordKey, flags));
+            } catch (SzException e) {
+                builder.failure(recordKey, e);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reevaluates the entities identified by the specified array of entity
+     * ID's.
+     * 
+     * <p>
+     * The outcome of each individual reevaluation is reported via the returned
+     * {@link SzBatchResult} in the same order as the specified entity ID's.
+     * A failure to reevaluate one entity does <b>not</b> prevent the others
+     * from being reevaluated.  If {@link SzFlag#SZ_WITH_INFO} is specified,
+     * then each successful {@link SzBatchOutcome} will contain its INFO 
+     * response and the {@link SzBatchResult#getAffectedEntityIds()} will
+     * provide the aggregate of the affected entity ID's across all the
+     * operations.
+     * </p>
+     * 
+     * <p>
+     * The default implementation of this method sequentially calls {@link
+     * #reevaluateEntity(long, Set)} for each entity ID.  Implementations
+     * are encouraged to override this method to execute the operations
+     * concurrently.
+     * </p>
+     * 
+     * @param entityIds The non-null array of entity ID's identifying the 
+     *                  entities to reevaluate.
+     * 
+     * @param flags The optional {@link Set} of {@link SzFlag} instances belonging
+     *              to the {@link SzFlagUsageGroup#SZ_REEVALUATE_ENTITY_FLAGS} group
+     *              to control how each operation is performed and the content of
+     *              the responses, or <code>null</code> to default to {@link
+     *              SzFlag#SZ_NO_FLAGS} or {@link SzFlag#SZ_WITH_INFO_FLAGS}
+     *              for INFO responses.
+     * 
+     * @return The {@link SzBatchResult} describing the outcome for each entity ID.
+     * 
+     * @throws SzException If a failure occurs that is not specific to an
+     *                     individual entity.
+     * 
+     * @see #reevaluateEntity(long, Set)
+     * @see SzFlagUsageGroup#SZ_REEVALUATE_ENTITY_FLAGS
+     * 
+     * @since 4.4.0
+     */
+    default SzBatchResult<Long> reevaluateEntities(long[] entityIds, Set<SzFlag> flags)
+        throws SzException
+    {
+        boolean withInfo = (flags != null && flags.contains(SZ_WITH_INFO));
+        SzBatchResult.Builder<Long> builder
+            = SzBatchResult.newBuilder(withInfo, entityIds.length);
+        for (long entityId : entityIds) {
+            try {
+                builder.success(entityId, this.reevaluateEntity(entityId, flags));
+            } catch (SzException e) {
+                builder.failure(entityId, e);
+            }
+        }
+        return builder.build();
+    }
+
     /**
      * Searches for entities that match or relate to the provided attributes.
      * 
@@ -0,0 +1,732 @@
+package com.senzing.sdk;
+
+import java.util.Arrays;
+
+/**
+ * Provides an allocation-light extractor for the INFO responses returned
+ * by write operations invoked with {@link SzFlag#SZ_WITH_INFO}.  Rather
+ * than parsing the entire JSON document into a tree, this class scans the
+ * text once and captures only the <code>"ENTITY_ID"</code> values of the
+ * <code>"AFFECTED_ENTITIES"</code> array as primitive <code>long</code>
+ * values, and the offsets of the <code>"DATA_SOURCE"</code> and
+ * <code>"RECORD_ID"</code> values that echo the {@link SzRecordKey}.
+ *
+ * <p>
+ * Instances are designed to be reused: each call to {@link
+ * #extract(CharSequence)} resets the state of the instance and reuses the
+ * internal entity ID buffer, so a single instance per thread can process
+ * any number of INFO responses without per-response garbage.  The echoed
+ * data source code and record ID are only materialized as {@link String}
+ * instances if requested.  Any {@link CharSequence} may be specified, so
+ * the {@link StringBuffer} populated by a native call may be scanned
+ * directly without first converting it to a {@link String}.
+ * </p>
+ *
+ * <p>
+ * <b>NOTE:</b> Instances of this class are <b>not</b> thread-safe.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzInfoExtractor {
+    /**
+     * The JSON property name for the data source code.
+     */
+    private static final String DATA_SOURCE_KEY = "DATA_SOURCE";
+
+    /**
+     * The JSON property name for the record ID.
+     */
+    private static final String RECORD_ID_KEY = "RECORD_ID";
+
+    /**
+     * The JSON property name for the affected entities array.
+     */
+    private static final String AFFECTED_ENTITIES_KEY = "AFFECTED_ENTITIES";
+
+    /**
+     * The JSON property name for the entity ID of an affected entity.
+     */
+    private static final String ENTITY_ID_KEY = "ENTITY_ID";
+
+    /**
+     * The initial capacity for the entity ID buffer.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The radix for parsing decimal digits.
+     */
+    private static final int DECIMAL_RADIX = 10;
+
+    /**
+     * The number of hex digits in a JSON unicode escape sequence.
+     */
+    private static final int UNICODE_ESCAPE_LENGTH = 4;
+
+    /**
+     * The radix for parsing hexadecimal digits.
+     */
+    private static final int HEX_RADIX = 16;
+
+    /**
+     * The text currently being scanned.
+     */
+    private CharSequence text = null;
+
+    /**
+     * The current index into the text being scanned.
+     */
+    private int index = 0;
+
+    /**
+     * The reusable buffer of affected entity ID's.
+     */
+    private long[] entityIds = new long[INITIAL_CAPACITY];
+
+    /**
+     * The number of affected entity ID's in the buffer.
+     */
+    private int entityCount = 0;
+
+    /**
+     * The starting offset (inclusive) of the data source code value
+     * (excluding the quotes), or negative one (-1) if not found.
+     */
+    private int dataSourceStart = -1;
+
+    /**
+     * The ending offset (exclusive) of the data source code value
+     * (excluding the quotes).
+     */
+    private int dataSourceEnd = -1;
+
+    /**
+     * The starting offset (inclusive) of the record ID value (excluding
+     * the quotes), or negative one (-1) if not found.
+     */
+    private int recordIdStart = -1;
+
+    /**
+     * The ending offset (exclusive) of the record ID value (excluding the
+     * quotes).
+     */
+    private int recordIdEnd = -1;
+
+    /**
+     * The lazily-materialized data source code.
+     */
+    private String dataSourceCode = null;
+
+    /**
+     * The lazily-materialized record ID.
+     */
+    private String recordId = null;
+
+    /**
+     * Default constructor.
+     */
+    public SzInfoExtractor() {
+        // do nothing
+    }
+
+    /**
+     * Convenience method to extract the affected entity ID's from the
+     * specified INFO response using a new {@link SzInfoExtractor}.  Use
+     * a reusable instance when processing many INFO responses.
+     *
+     * @param info The {@link CharSequence} INFO response to scan, or
+     *             <code>null</code> if none.
+     *
+     * @return The array of affected entity ID's in the order they appear,
+     *         which is empty if <code>null</code> was specified.
+     *
+     * @throws IllegalArgumentException If the specified text is not a
+     *                                  valid JSON object.
+     *
+     * @since 4.4.0
+     */
+    public static long[] extractAffectedEntityIds(CharSequence info)
+        throws IllegalArgumentException
+    {
+        SzInfoExtractor extractor = new SzInfoExtractor();
+        extractor.extract(info);
+        return extractor.getAffectedEntityIds();
+    }
+
+    /**
+     * Scans the specified INFO response, replacing any previously extracted
+     * state of this instance.  If the specified parameter is <code>null</code>
+     * (as is returned when INFO was not requested) or an empty JSON object
+     * then this instance is reset with no affected entities and no record
+     * key.
+     *
+     * <p>
+     * The specified {@link CharSequence} is referenced (not copied) until
+     * the next call to this method or to {@link #reset()} so that the record
+     * key can be lazily materialized.  Mutable instances (e.g.: {@link
+     * StringBuffer}) should therefore not be modified until the record key
+     * has been obtained, if needed.
+     * </p>
+     *
+     * @param info The {@link CharSequence} INFO response to scan, or
+     *             <code>null</code> if none.
+     *
+     * @return The number of affected entity ID's that were extracted.
+     *
+     * @throws IllegalArgumentException If the specified text is not a
+     *                                  valid JSON object.
+     *
+     * @since 4.4.0
+     */
+    public int extract(CharSequence info) throws IllegalArgumentException {
+        this.reset();
+        if (info == null) {
+            return 0;
+        }
+        this.text = info;
+        try {
+            this.scanRoot();
+        } catch (IllegalArgumentException e) {
+            this.reset();
+            throw e;
+        }
+        return this.entityCount;
+    }
+
+    /**
+     * Resets this instance so that it holds no state and no longer
+     * references the most recently scanned text.
+     *
+     * @since 4.4.0
+     */
+    public void reset() {
+        this.text               = null;
+        this.index              = 0;
+        this.entityCount        = 0;
+        this.dataSourceStart    = -1;
+        this.dataSourceEnd      = -1;
+        this.recordIdStart      = -1;
+        this.recordIdEnd        = -1;
+        this.dataSourceCode     = null;
+        this.recordId           = null;
+    }
+
+    /**
+     * Gets the number of affected entity ID's extracted by the most recent
+     * call to {@link #extract(CharSequence)}.
+     *
+     * @return The number of affected entity ID's.
+     *
+     * @since 4.4.0
+     */
+    public int getAffectedEntityCount() {
+        return this.entityCount;
+    }
+
+    /**
+     * Gets the affected entity ID at the specified index without allocation.
+     *
+     * @param index The zero-based index of the affected entity ID.
+     *
+     * @return The affected entity ID at the specified index.
+     *
+     * @throws IndexOutOfBoundsException If the specified index is negative
+     *                                   or not less than {@link
+     *                                   #getAffectedEntityCount()}.
+     *
+     * @since 4.4.0
+     */
+    public long getAffectedEntityId(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= this.entityCount) {
+            throw new IndexOutOfBoundsException(
+                "Index out of bounds: index=[ " + index + " ], count=[ "
+                + this.entityCount + " ]");
+        }
+        return this.entityIds[index];
+    }
+
+    /**
+     * Returns a newly allocated array containing the affected entity ID's
+     * in the order they appear in the INFO response.
+     *
+     * @return A new array of the affected entity ID's.
+     *
+     * @since 4.4.0
+     */
+    public long[] getAffectedEntityIds() {
+        return Arrays.copyOf(this.entityIds, this.entityCount);
+    }
+
+    /**
+     * Copies the affected entity ID's into the specified array at the
+     * specified offset to avoid allocation.  The specified array must
+     * have room for {@link #getAffectedEntityCount()} values.
+     *
+     * @param target The array to copy the entity ID's into.
+     *
+     * @param offset The offset in the target array at which to start.
+     *
+     * @return The number of entity ID's that were copied.
+     *
+     * @throws IndexOutOfBoundsException If the target array is too small.
+     *
+     * @since 4.4.0
+     */
+    public int copyAffectedEntityIds(long[] target, int offset)
+        throws IndexOutOfBoundsException
+    {
+        System.arraycopy(this.entityIds, 0, target, offset, this.entityCount);
+        return this.entityCount;
+    }
+
+    /**
+     * Gets the data source code echoed in the INFO response, or
+     * <code>null</code> if absent.
+     *
+     * @return The data source code echoed in the INFO response, or
+     *         <code>null</code> if absent.
+     *
+     * @since 4.4.0
+     */
+    public String getDataSourceCode() {
+        if (this.dataSourceCode == null && this.dataSourceStart >= 0) {
+            this.dataSourceCode = this.decodeString(
+                this.dataSourceStart, this.dataSourceEnd);
+        }
+        return this.dataSourceCode;
+    }
+
+    /**
+     * Gets the record ID echoed in the INFO response, or <code>null</code>
+     * if absent.
+     *
+     * @return The record ID echoed in the INFO response, or
+     *         <code>null</code> if absent.
+     *
+     * @since 4.4.0
+     */
+    public String getRecordId() {
+        if (this.recordId == null && this.recordIdStart >= 0) {
+            this.recordId = this.decodeString(
+                this.recordIdStart, this.recordIdEnd);
+        }
+        return this.recordId;
+    }
+
+    /**
+     * Gets the {@link SzRecordKey} echoed in the INFO response.  This
+     * returns <code>null</code> if the INFO response does not contain both
+     * a non-blank data source code and record ID (e.g.: for an INFO response
+     * from reevaluating an entity).
+     *
+     * @return The {@link SzRecordKey} echoed in the INFO response, or
+     *         <code>null</code> if absent.
+     *
+     * @since 4.4.0
+     */
+    public SzRecordKey getRecordKey() {
+        String dataSource   = this.getDataSourceCode();
+        String recordID     = this.getRecordId();
+        if (dataSource == null || recordID == null
+            || dataSource.isBlank() || recordID.isBlank())
+        {
+            return null;
+        }
+        return SzRecordKey.of(dataSource, recordID);
+    }
+
+    /**
+     * Scans the root JSON object.
+     */
+    private void scanRoot() {
+        this.skipWhitespace();
+        if (this.index >= this.text.length()) {
+            return;
+        }
+        this.expect('{');
+        if (this.tryConsume('}')) {
+            this.ensureTrailingWhitespace();
+            return;
+        }
+        do {
+            this.skipWhitespace();
+            this.expect('"');
+            int keyStart = this.index;
+            int keyEnd = this.scanStringEnd();
+            this.skipWhitespace();
+            this.expect(':');
+            this.skipWhitespace();
+
+            if (this.keyEquals(keyStart, keyEnd, AFFECTED_ENTITIES_KEY)
+                && this.peek() == '[')
+            {
+                this.scanAffectedEntities();
+
+            } else if (this.keyEquals(keyStart, keyEnd, DATA_SOURCE_KEY)
+                       && this.peek() == '"')
+            {
+                this.index++;
+                this.dataSourceStart    = this.index;
+                this.dataSourceEnd      = this.scanStringEnd();
+
+            } else if (this.keyEquals(keyStart, keyEnd, RECORD_ID_KEY)
+                       && this.peek() == '"')
+            {
+                this.index++;
+                this.recordIdStart  = this.index;
+                this.recordIdEnd    = this.scanStringEnd();
+
+            } else {
+                this.skipValue();
+            }
+            this.skipWhitespace();
+        } while (this.tryConsume(','));
+
+        this.expect('}');
+        this.ensureTrailingWhitespace();
+    }
+
+    /**
+     * Scans the <code>"AFFECTED_ENTITIES"</code> array starting at the
+     * opening bracket.
+     */
+    private void scanAffectedEntities() {
+        this.expect('[');
+        this.skipWhitespace();
+        if (this.tryConsume(']')) {
+            return;
+        }
+        do {
+            this.skipWhitespace();
+            if (this.peek() != '{') {
+                this.skipValue();
+                this.skipWhitespace();
+                continue;
+            }
+            this.index++;
+            this.skipWhitespace();
+            if (!this.tryConsume('}')) {
+                do {
+                    this.skipWhitespace();
+                    this.expect('"');
+                    int keyStart = this.index;
+                    int keyEnd = this.scanStringEnd();
+                    this.skipWhitespace();
+                    this.expect(':');
+                    this.skipWhitespace();
+                    if (this.keyEquals(keyStart, keyEnd, ENTITY_ID_KEY)
+                        && this.isNumberStart(this.peek()))
+                    {
+                        this.addEntityId(this.scanLong());
+                    } else {
+                        this.skipValue();
+                    }
+                    this.skipWhitespace();
+                } while (this.tryConsume(','));
+                this.expect('}');
+            }
+            this.skipWhitespace();
+        } while (this.tryConsume(','));
+        this.expect(']');
+    }
+
+    /**
+     * Adds the specified entity ID to the buffer, growing it if needed.
+     *
+     * @param entityId The entity ID to add.
+     */
+    private void addEntityId(long entityId) {
+        if (this.entityCount == this.entityIds.length) {
+            this.entityIds = Arrays.copyOf(this.entityIds, this.entityCount * 2);
+        }
+        this.entityIds[this.entityCount++] = entityId;
+    }
+
+    /**
+     * Skips any JSON value starting at the current index.
+     */
+    private void skipValue() {
+        char c = this.peek();
+        switch (c) {
+            case '"':
+                this.index++;
+                this.scanStringEnd();
+                break;
+            case '{':
+            case '[':
+                this.skipContainer();
+                break;
+            default:
+                int start = this.index;
+                int length = this.text.length();
+                while (this.index < length) {
+                    char v = this.text.charAt(this.index);
+                    if (v == ',' || v == '}' || v == ']' || Character.isWhitespace(v)) {
+                        break;
+                    }
+                    this.index++;
+                }
+                if (this.index == start) {
+                    throw this.unexpected();
+                }
+        }
+    }
+
+    /**
+     * Skips a JSON object or array starting at the current index by
+     * tracking the nesting depth while respecting string values.
+     */
+    private void skipContainer() {
+        int depth = 0;
+        int length = this.text.length();
+        while (this.index < length) {
+            char c = this.text.charAt(this.index++);
+            switch (c) {
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    if (--depth == 0) {
+                        return;
+                    }
+                    break;
+                case '"':
+                    this.scanStringEnd();
+                    break;
+                default:
+                    // skip the character
+                    break;
+            }
+        }
+        throw this.unexpected();
+    }
+
+    /**
+     * Scans to the end of a JSON string whose opening quote has already
+     * been consumed, leaving the index after the closing quote.
+     *
+     * @return The offset of the closing quote.
+     */
+    private int scanStringEnd() {
+        int length = this.text.length();
+        while (this.index < length) {
+            char c = this.text.charAt(this.index);
+            if (c == '"') {
+                return this.index++;
+            }
+            this.index += (c == '\\') ? 2 : 1;
+        }
+        throw this.unexpected();
+    }
+
+    /**
+     * Scans a JSON integer value as a primitive <code>long</code>.  Any
+     * fractional or exponent part is rejected since entity ID's are
+     * integers.
+     *
+     * @return The parsed <code>long</code> value.
+     */
+    private long scanLong() {
+        boolean negative = this.tryConsume('-');
+        int     length   = this.text.length();
+        int     start    = this.index;
+        long    value    = 0L;
+        while (this.index < length) {
+            int digit = Character.digit(this.text.charAt(this.index), DECIMAL_RADIX);
+            if (digit < 0) {
+                break;
+            }
+            value = (value * DECIMAL_RADIX) + digit;
+            this.index++;
+        }
+        if (this.index == start) {
+            throw this.unexpected();
+        }
+        if (this.index < length) {
+            char c = this.text.charAt(this.index);
+            if (c == '.' || c == 'e' || c == 'E') {
+                throw this.unexpected();
+            }
+        }
+        return (negative) ? -value : value;
+    }
+
+    /**
+     * Checks if the specified character can start a JSON number.
+     *
+     * @param c The character to check.
+     *
+     * @return <code>true</code> if the character can start a number,
+     *         otherwise <code>false</code>.
+     */
+    private boolean isNumberStart(char c) {
+        return (c == '-' || (c >= '0' && c <= '9'));
+    }
+
+    /**
+     * Checks if the raw key text between the specified offsets equals the
+     * specified key without allocating.
+     *
+     * @param start The starting offset (inclusive).
+     * @param end The ending offset (exclusive).
+     * @param key The key to compare against.
+     *
+     * @return <code>true</code> if equal, otherwise <code>false</code>.
+     */
+    private boolean keyEquals(int start, int end, String key) {
+        if (end - start != key.length()) {
+            return false;
+        }
+        for (int index = 0; index < key.length(); index++) {
+            if (this.text.charAt(start + index) != key.charAt(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the raw JSON string text between the specified offsets,
+     * handling any escape sequences.
+     *
+     * @param start The starting offset (inclusive).
+     * @param end The ending offset (exclusive).
+     *
+     * @return The decoded {@link String}.
+     */
+    private String decodeString(int start, int end) {
+        // check for the common case of no escapes
+        int escape = -1;
+        for (int index = start; index < end; index++) {
+            if (this.text.charAt(index) == '\\') {
+                escape = index;
+                break;
+            }
+        }
+        if (escape < 0) {
+            return this.text.subSequence(start, end).toString();
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        sb.append(this.text, start, escape);
+        for (int index = escape; index < end; index++) {
+            char c = this.text.charAt(index);
+            if (c != '\\' || index + 1 >= end) {
+                sb.append(c);
+                continue;
+            }
+            char e = this.text.charAt(++index);
+            switch (e) {
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    if (index + UNICODE_ESCAPE_LENGTH < end) {
+                        int code = 0;
+                        for (int hex = 1; hex <= UNICODE_ESCAPE_LENGTH; hex++) {
+                            code = (code * HEX_RADIX)
+                                + Character.digit(this.text.charAt(index + hex), HEX_RADIX);
+                        }
+                        sb.append((char) code);
+                        index += UNICODE_ESCAPE_LENGTH;
+                    } else {
+                        sb.append(e);
+                    }
+                    break;
+                default:
+                    sb.append(e);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Skips any whitespace at the current index.
+     */
+    private void skipWhitespace() {
+        int length = this.text.length();
+        while (this.index < length
+               && Character.isWhitespace(this.text.charAt(this.index)))
+        {
+            this.index++;
+        }
+    }
+
+    /**
+     * Ensures only whitespace remains after the current index.
+     */
+    private void ensureTrailingWhitespace() {
+        this.skipWhitespace();
+        if (this.index < this.text.length()) {
+            throw this.unexpected();
+        }
+    }
+
+    /**
+     * Peeks at the character at the current index.
+     *
+     * @return The character at the current index.
+     */
+    private char peek() {
+        if (this.index >= this.text.length()) {
+            throw this.unexpected();
+        }
+        return this.text.charAt(this.index);
+    }
+
+    /**
+     * Consumes the specified character if it is at the current index.
+     *
+     * @param c The expected character.
+     *
+     * @return <code>true</code> if consumed, otherwise <code>false</code>.
+     */
+    private boolean tryConsume(char c) {
+        if (this.index < this.text.length() && this.text.charAt(this.index) == c) {
+            this.index++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consumes the specified character or throws an exception if it is
+     * not at the current index.
+     *
+     * @param c The expected character.
+     */
+    private void expect(char c) {
+        if (!this.tryConsume(c)) {
+            throw this.unexpected();
+        }
+    }
+
+    /**
+     * Creates an {@link IllegalArgumentException} describing unexpected
+     * text at the current index.
+     *
+     * @return The {@link IllegalArgumentException} to throw.
+     */
+    private IllegalArgumentException unexpected() {
+        return (this.index >= this.text.length())
+            ? new IllegalArgumentException(
+                "Unexpected end of INFO text at index: " + this.index)
+            : new IllegalArgumentException(
+                "Unexpected character in INFO text at index " + this.index
+                + ": " + this.text.charAt(this.index));
+    }
+}
@@ -0,0 +1,492 @@
+package com.senzing.sdk;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Provides a reusable, allocation-light writer for the JSON record
+ * definitions passed to {@link SzEngine#addRecord(SzRecordKey, CharSequence,
+ * Set)}.  The JSON text is appended directly to an internal buffer that is
+ * reused from one record to the next, so constructing a record does not
+ * require an intermediate map or tree of values, nor {@link String}
+ * concatenation.  Values are escaped with the same rules as the SDK uses
+ * elsewhere for JSON strings.
+ *
+ * <p>
+ * A record is started with {@link #begin(String, String)} (which writes
+ * the <code>DATA_SOURCE</code> and <code>RECORD_ID</code> properties),
+ * followed by any number of {@linkplain #add(String, CharSequence) feature
+ * attributes} and {@linkplain #beginGroup(String) repeated feature groups},
+ * for example:
+ * </p>
+ *
+ * <pre>
+ *   SzRecordBuilder builder = SzRecordBuilder.forCurrentThread();
+ *   builder.begin("CUSTOMERS", "1001")
+ *          .add("NAME_FULL", "Joe Schmoe")
+ *          .beginGroup("ADDRESSES")
+ *              .beginEntry().add("ADDR_TYPE", "HOME").add("ADDR_FULL", home).endEntry()
+ *              .beginEntry().add("ADDR_TYPE", "MAIL").add("ADDR_FULL", mail).endEntry()
+ *          .endGroup()
+ *          .addRecord(engine, SZ_ADD_RECORD_DEFAULT_FLAGS);
+ * </pre>
+ *
+ * <p>
+ * Attributes with <code>null</code> values are omitted.  {@link #finish()}
+ * closes any open groups and the record, after which {@link #getJson()}
+ * provides the JSON text without copying it.
+ * </p>
+ *
+ * <p>
+ * Instances of this class are <b>not</b> thread-safe.  Use {@link
+ * #forCurrentThread()} to obtain the instance reserved for the current
+ * thread, or {@link #newBuilder()} to create a dedicated instance.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzRecordBuilder {
+    /**
+     * The JSON property name for the data source code.
+     */
+    private static final String DATA_SOURCE_PROPERTY = "DATA_SOURCE";
+
+    /**
+     * The JSON property name for the record ID.
+     */
+    private static final String RECORD_ID_PROPERTY = "RECORD_ID";
+
+    /**
+     * The initial capacity of the buffer.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The maximum capacity of the buffer that is retained when beginning
+     * the next record.
+     */
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    /**
+     * The per-thread instances.
+     */
+    private static final ThreadLocal<SzRecordBuilder> THREAD_BUILDERS
+        = ThreadLocal.withInitial(SzRecordBuilder::new);
+
+    /**
+     * Enumerates the states of the builder.
+     */
+    private enum State {
+        /**
+         * No record has been begun.
+         */
+        IDLE,
+
+        /**
+         * Writing the top-level properties of the record.
+         */
+        RECORD,
+
+        /**
+         * Within a repeated feature group, between entries.
+         */
+        GROUP,
+
+        /**
+         * Writing the properties of an entry of a feature group.
+         */
+        ENTRY,
+
+        /**
+         * The record has been finished.
+         */
+        COMPLETE;
+    }
+
+    /**
+     * The buffer for the JSON text.
+     */
+    private StringBuilder buffer = new StringBuilder(INITIAL_CAPACITY);
+
+    /**
+     * The current {@link State}.
+     */
+    private State state = State.IDLE;
+
+    /**
+     * Whether or not the next member of the current JSON object or array
+     * is the first (and should not be preceded by a comma).
+     */
+    private boolean first = true;
+
+    /**
+     * The {@link SzRecordKey} for the current record.
+     */
+    private SzRecordKey recordKey = null;
+
+    /**
+     * Private default constructor.
+     */
+    private SzRecordBuilder() {
+        // do nothing
+    }
+
+    /**
+     * Creates a new dedicated instance of {@link SzRecordBuilder}.
+     *
+     * @return The new {@link SzRecordBuilder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static SzRecordBuilder newBuilder() {
+        return new SzRecordBuilder();
+    }
+
+    /**
+     * Gets the {@link SzRecordBuilder} reserved for the current thread.
+     * The same instance is returned on each call from the same thread, so
+     * it must not be retained across calls that might also use it.
+     *
+     * @return The {@link SzRecordBuilder} for the current thread.
+     *
+     * @since 4.4.0
+     */
+    public static SzRecordBuilder forCurrentThread() {
+        return THREAD_BUILDERS.get();
+    }
+
+    /**
+     * Begins a new record with the specified {@link SzRecordKey}, discarding
+     * any content from a previous record, and writes the
+     * <code>DATA_SOURCE</code> and <code>RECORD_ID</code> properties.
+     *
+     * @param recordKey The non-null {@link SzRecordKey} for the record.
+     *
+     * @return A reference to this instance.
+     *
+     * @throws NullPointerException If the specified parameter is
+     *                              <code>null</code>.
+     *
+     * @since 4.4.0
+     */
+    public SzRecordBuilder begin(SzRecordKey recordKey) throws NullPointerException {
+        Objects.requireNonNull(recordKey, "The record key cannot be null");
+        if (this.buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            this.buffer = new StringBuilder(INITIAL_CAPACITY);
+        }
+        this.buffer.setLength(0);
+        this.recordKey  = recordKey;
+        this.state      = State.RECORD;
+        this.first      = true;
+        this.buffer.append('{');
+        this.add(DATA_SOURCE_PROPERTY, recordKey.dataSourceCode());
+        this.add(RECORD_ID_PROPERTY, recordKey.recordId());
+        return this;
+    }
+
+    /**
+     * Begins a new record with the specified data source code and record
+     * ID.  This is equivalent to calling {@link #begin(SzRecordKey)} with
+     * {@link SzRecordKey#of(String, String)}.
+     *
+     * @param dataSourceCode The non-null data source code for the record.
+     * @param recordId The non-null record ID for the record.
+     *
+     * @return A reference to this instance.
+     *
+     * @throws NullPointerException If either parameter is <code>null</code>.
+     *
+     * @throws IllegalArgumentException If either parameter is empty or only
+     *                                  contains whitespace.
+     *
+     * @since 4.4.0
+     */
+    public SzRecordBuilder begin(String dataSourceCode, String recordId)
+        throws NullPointerException, IllegalArgumentException
+    {
+        return this.begin(SzRecordKey.of(dataSourceCode, recordId));
+    }
+
+    /**
+     * Adds the feature attribute with the specified name and value to the
+     * record, or to the current entry of a feature group if one has been
+     * {@linkplain #beginEntry() begun}.  If the value is <code>null</code>
+     * then the attribute is omitted.
+     *
+     * @param attribute The non-null attribute name (e.g.:
+     *                  <code>"NAME_FULL"</code>).
+     * @param value The attribute value, or <code>null</code> to omit it.
+     *
+     * @return A reference to this instance.
+     *
+     * @throws NullPointerException If the attribute name is <code>null</code>.
+     *
+     * @throws IllegalStateException If a record has not been begun, the
+     *                               record has been finished or a group has
+     *                               been begun without beginning an entry.
+     *
+     * @since 4.4.0
+     */
+    public SzRecordBuilder add(String attribute, CharSequence value)
+        throws NullPointerException, IllegalStateException
+    {
+        Objects.requireNonNull(attribute, "The attribute cannot be null");
+        this.requireObject();
+        if (value == null) {
+            return this;
+        }
+        this.appendName(attribute);
+        Utilities.jsonEscape(value, this.buffer);
+        return this;
+    }
+
+    /**
+     * Adds the feature attribute with the specified name and integer value
+     * to the record, or to the current entry of a feature group if one has
+     * been {@linkplain #beginEntry() begun}.  The value is written as a
+     * JSON string since Senzing attribute values are strings.
+     *
+     * @param attribute The non-null attribute name.
+     * @param value The attribute value.
+     *
+     * @return A reference to this instance.
+     *
+     * @throws NullPointerException If the attribute name is <code>null</code>.
+     *
+     * @throws IllegalStateException If a record has not been begun, the
+     *                               record has been finished or a group has
+     *                               been begun without beginning an entry.
+     *
+     * @since 4.4.0
+     */
+    public SzRecordBuilder add(String attribute, long value)
+        throws NullPointerException, IllegalStateException
+    {
+        Objects.requireNonNull(attribute, "The attribute cannot be null");
+        this.requireObject();
+        this.appendName(attribute);
+        this.buffer.append('"').append(value).append('"');
+        return this;
+    }
+
+    /**
+     * Begins a repeated feature group (a JSON array of objects) with the
+     * specified name in the record.  Use {@link #beginEntry()} and {@link
+     * #endEntry()} to write each entry of the group and {@link #endGroup()}
+     * to complete it.
+     *
+     * @param name The non-null name of the group (e.g.:
+     *             <code>"ADDRESSES"</code>).
+     *
+     * @return A reference to this instance.
+     *
+     * @throws NullPointerException If the name is <code>null</code>.
+     *
+     * @throws IllegalStateException If not writing the top-level properties
+     *                               of a record.
+     *
+     * @since 4.4.0
+     */
+    public SzRecordBuilder beginGroup(String name)
+        throws NullPointerException, IllegalStateException
+    {
+        Objects.requireNonNull(name, "The group name cannot be null");
+        this.requireState(State.RECORD);
+        this.appendName(name);
+        this.buffer.append('[');
+        this.state = State.GROUP;
+        this.first = true;
+        return this;
+    }
+
+    /**
+     * Begins a new entry in the current feature group.
+     *
+     * @return A reference to this instance.
+     *
+     * @throws IllegalStateException If a group has not been begun or an
+     *                               entry is already in progress.
+     *
+     * @since 4.4.0
+     */
+    public SzRecordBuilder beginEntry() throws IllegalStateException {
+        this.requireState(State.GROUP);
+        if (!this.first) {
+            this.buffer.append(',');
+        }
+        this.buffer.append('{');
+        this.state = State.ENTRY;
+        this.first = true;
+        return this;
+    }
+
+    /**
+     * Ends the current entry of the current feature group.
+     *
+     * @return A reference to this instance.
+     *
+     * @throws IllegalStateException If an entry has not been begun.
+     *
+     * @since 4.4.0
+     */
+    public SzRecordBuilder endEntry() throws IllegalStateException {
+        this.requireState(State.ENTRY);
+        this.buffer.append('}');
+        this.state = State.GROUP;
+        this.first = false;
+        return this;
+    }
+
+    /**
+     * Ends the current feature group, ending its current entry if one is
+     * in progress.
+     *
+     * @return A reference to this instance.
+     *
+     * @throws IllegalStateException If a group has not been begun.
+     *
+     * @since 4.4.0
+     */
+    public SzRecordBuilder endGroup() throws IllegalStateException {
+        if (this.state == State.ENTRY) {
+            this.endEntry();
+        }
+        this.requireState(State.GROUP);
+        this.buffer.append(']');
+        this.state = State.RECORD;
+        this.first = false;
+        return this;
+    }
+
+    /**
+     * Finishes the current record, ending any group or entry that is in
+     * progress.  Calling this method again before beginning another record
+     * has no effect.
+     *
+     * @return A reference to this instance.
+     *
+     * @throws IllegalStateException If a record has not been begun.
+     *
+     * @since 4.4.0
+     */
+    public SzRecordBuilder finish() throws IllegalStateException {
+        if (this.state == State.COMPLETE) {
+            return this;
+        }
+        if (this.state == State.ENTRY || this.state == State.GROUP) {
+            this.endGroup();
+        }
+        this.requireState(State.RECORD);
+        this.buffer.append('}');
+        this.state = State.COMPLETE;
+        return this;
+    }
+
+    /**
+     * Gets the {@link SzRecordKey} of the current record.
+     *
+     * @return The {@link SzRecordKey} of the current record, or
+     *         <code>null</code> if no record has been begun.
+     *
+     * @since 4.4.0
+     */
+    public SzRecordKey getRecordKey() {
+        return this.recordKey;
+    }
+
+    /**
+     * {@linkplain #finish() Finishes} the current record and returns its
+     * JSON text.  The returned {@link CharSequence} is a view of the
+     * internal buffer (no copy is made) and is only valid until the next
+     * record is begun.
+     *
+     * @return The JSON text of the finished record.
+     *
+     * @throws IllegalStateException If a record has not been begun.
+     *
+     * @since 4.4.0
+     */
+    public CharSequence getJson() throws IllegalStateException {
+        this.finish();
+        return this.buffer;
+    }
+
+    /**
+     * {@linkplain #finish() Finishes} the current record and adds it using
+     * {@link SzEngine#addRecord(SzRecordKey, CharSequence, Set)}.
+     *
+     * @param engine The non-null {@link SzEngine} with which to add the
+     *               record.
+     * @param flags The optional {@link Set} of {@link SzFlag} instances
+     *              belonging to the {@link SzFlagUsageGroup#SZ_ADD_RECORD_FLAGS}
+     *              group, or <code>null</code> for the default.
+     *
+     * @return The result from {@link SzEngine#addRecord(SzRecordKey,
+     *         CharSequence, Set)}.
+     *
+     * @throws IllegalStateException If a record has not been begun.
+     *
+     * @throws SzException If a failure occurs adding the record.
+     *
+     * @since 4.4.0
+     */
+    public String addRecord(SzEngine engine, Set<SzFlag> flags)
+        throws IllegalStateException, SzException
+    {
+        Objects.requireNonNull(engine, "The engine cannot be null");
+        return engine.addRecord(this.recordKey, this.getJson(), flags);
+    }
+
+    /**
+     * Returns the JSON text written so far for the current record (which is
+     * only complete once the record is {@linkplain #finish() finished}).
+     *
+     * @return The JSON text written so far for the current record.
+     */
+    @Override
+    public String toString() {
+        return this.buffer.toString();
+    }
+
+    /**
+     * Appends the specified property name (preceded by a comma if needed)
+     * and the name separator.
+     *
+     * @param name The property name.
+     */
+    private void appendName(String name) {
+        if (!this.first) {
+            this.buffer.append(',');
+        }
+        this.first = false;
+        Utilities.jsonEscape(name, this.buffer).append(':');
+    }
+
+    /**
+     * Ensures the builder is writing the properties of the record or of an
+     * entry of a feature group.
+     *
+     * @throws IllegalStateException If not writing the properties of an
+     *                               object.
+     */
+    private void requireObject() throws IllegalStateException {
+        if (this.state != State.RECORD && this.state != State.ENTRY) {
+            throw new IllegalStateException(
+                "Cannot add an attribute in the " + this.state + " state");
+        }
+    }
+
+    /**
+     * Ensures the builder is in the specified {@link State}.
+     *
+     * @param required The required {@link State}.
+     *
+     * @throws IllegalStateException If not in the specified {@link State}.
+     */
+    private void requireState(State required) throws IllegalStateException {
+        if (this.state != required) {
+            throw new IllegalStateException(
+                "Expected the " + required + " state, but was " + this.state);
+        }
+    }
+}
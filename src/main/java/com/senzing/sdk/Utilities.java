@@ -1,5 +1,8 @@
 package com.senzing.sdk;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 final class Utilities {
     /**
      * The default buffer size for hex formatting.
@@ -51,6 +54,25 @@ final class Utilities {
      */
     private static final int JSON_ESCAPE_CONTROL_COUNT = 6;
 
+    /**
+     * The initial size of the per-thread scratch buffer used to decode
+     * direct {@link ByteBuffer} instances.
+     */
+    private static final int DECODE_BUFFER_SIZE = 8192;
+
+    /**
+     * The maximum size of the per-thread scratch buffer that is retained
+     * between calls to decode direct {@link ByteBuffer} instances.
+     */
+    private static final int MAX_DECODE_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * The per-thread scratch buffer for copying the content of direct
+     * {@link ByteBuffer} instances before decoding.
+     */
+    private static final ThreadLocal<byte[]> DECODE_BUFFER
+        = ThreadLocal.withInitial(() -> new byte[DECODE_BUFFER_SIZE]);
+
     /**
      * Private default constructor.
      */
@@ -115,13 +137,43 @@ final class Utilities {
             return "\"" + string + "\"";
         }
         StringBuilder sb = new StringBuilder(string.length() + escapeCount + 2);
+        jsonEscape(string, sb);
+
+        // return the escaped string
+        return sb.toString();
+    }
+
+    /**
+     * Appends the specified {@link CharSequence} to the specified {@link
+     * StringBuilder} as a JSON string with the surrounding double quotes,
+     * escaping characters as {@link #jsonEscape(String)} does but without
+     * creating an intermediate {@link String}.  Runs of characters that do
+     * not require escaping are appended in bulk.  If the specified {@link
+     * CharSequence} is <code>null</code> then <code>null</code> is appended.
+     *
+     * @param text The {@link CharSequence} to escape for JSON.
+     * @param sb The {@link StringBuilder} to append to.
+     *
+     * @return The specified {@link StringBuilder}.
+     */
+    public static StringBuilder jsonEscape(CharSequence text, StringBuilder sb) {
+        if (text == null) {
+            return sb.append("null");
+        }
         sb.append('"');
-        for (int index = 0; index < string.length(); index++) {
-            char c = string.charAt(index);
+        int length  = text.length();
+        int start   = 0;
+        for (int index = 0; index < length; index++) {
+            char c = text.charAt(index);
+            if (c >= ' ' && c != '"' && c != '\\') {
+                continue;
+            }
+            sb.append(text, start, index);
+            start = index + 1;
             switch (c) {
                 case '"', '\\':
                     sb.append('\\').append(c);
-                    break;    
+                    break;
                 case '\b':
                     sb.append("\\b");
                     break;
@@ -138,21 +190,52 @@ final class Utilities {
                     sb.append("\\t");
                     break;
                 default:
-                    if (c >= ' ') {
-                        sb.append(c);
-                    } else {
-                        sb.append("\\u00");
-                        String hex = Integer.toHexString(c);
-                        if (hex.length() == 1) {
-                            sb.append("0"); // one more zero if single-digit hex
-                        }
-                        sb.append(hex);
+                    sb.append("\\u00");
+                    String hex = Integer.toHexString(c);
+                    if (hex.length() == 1) {
+                        sb.append("0"); // one more zero if single-digit hex
                     }
+                    sb.append(hex);
             }
         }
-        sb.append('"');
+        sb.append(text, start, length);
+        return sb.append('"');
+    }
 
-        // return the escaped string
-        return sb.toString();
+    /**
+     * Decodes the remaining bytes of the specified {@link ByteBuffer} as
+     * UTF-8 directly to a {@link String} <b>without</b> changing the
+     * position of the buffer.  Unlike {@link
+     * java.nio.charset.Charset#decode(ByteBuffer)}, this does not allocate an
+     * intermediate {@link java.nio.CharBuffer}, and when the content is
+     * ASCII (as is typical of JSON) the bytes are copied once into a compact
+     * {@link String}.  The content of direct buffers is first copied to a
+     * reusable per-thread scratch array.  Malformed input is replaced with
+     * the Unicode replacement character.
+     *
+     * @param buffer The {@link ByteBuffer} to decode, or <code>null</code>.
+     *
+     * @return The decoded {@link String}, or <code>null</code> if the
+     *         specified parameter is <code>null</code>.
+     */
+    public static String decodeUtf8(ByteBuffer buffer) {
+        if (buffer == null) {
+            return null;
+        }
+        int position    = buffer.position();
+        int length      = buffer.remaining();
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + position,
+                              length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = DECODE_BUFFER.get();
+        if (bytes.length < length) {
+            bytes = new byte[Math.max(length, bytes.length * 2)];
+            if (bytes.length <= MAX_DECODE_BUFFER_SIZE) {
+                DECODE_BUFFER.set(bytes);
+            }
+        }
+        buffer.get(position, bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
     }
 }
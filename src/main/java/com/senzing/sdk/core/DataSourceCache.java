@@ -0,0 +1,283 @@
+package com.senzing.sdk.core;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzUnknownDataSourceException;
+
+/**
+ * Caches the data source codes registered in the active configuration of
+ * an {@link SzCoreEnvironment} so that record keys can be validated before
+ * an engine call is made, failing fast with an {@link
+ * SzUnknownDataSourceException} for unknown data sources without a native
+ * call and without waiting on the environment.
+ *
+ * <p>
+ * The registry is obtained lazily from {@link
+ * com.senzing.sdk.SzConfig#getDataSourceRegistry()} for the {@linkplain
+ * SzCoreEnvironment#getActiveConfigId() active configuration ID} and is
+ * {@linkplain #invalidate() invalidated} when the environment is
+ * reinitialized so that it is reloaded on the next validation.  If the
+ * registry cannot be interpreted then every data source code is allowed
+ * so that the native engine remains the authority.
+ * </p>
+ */
+final class DataSourceCache {
+    /**
+     * The error code for an unknown data source, which matches the code
+     * produced by the native engine.
+     */
+    static final int UNKNOWN_DATA_SOURCE_ERROR_CODE = 2207;
+
+    /**
+     * The key for the data source code in the registry JSON.
+     */
+    private static final String DSRC_CODE_KEY = "\"DSRC_CODE\"";
+
+    /**
+     * The key for the data source array in the registry JSON.
+     */
+    private static final String DATA_SOURCES_KEY = "\"DATA_SOURCES\"";
+
+    /**
+     * The radix for parsing unicode escape sequences.
+     */
+    private static final int HEX_RADIX = 16;
+
+    /**
+     * The number of hex digits in a unicode escape sequence.
+     */
+    private static final int UNICODE_ESCAPE_LENGTH = 4;
+
+    /**
+     * The sentinel {@link Set} that is cached (and compared by identity)
+     * when the registry could not be interpreted.
+     */
+    private static final Set<String> UNINTERPRETED
+        = Collections.unmodifiableSet(new HashSet<>());
+
+    /**
+     * The {@link SzCoreEnvironment} from which to obtain the registry.
+     */
+    private final SzCoreEnvironment env;
+
+    /**
+     * The cached {@link Set} of upper-case data source codes, {@link
+     * #UNINTERPRETED} if the registry could not be interpreted, or
+     * <code>null</code> if not loaded.
+     */
+    private volatile Set<String> dataSourceCodes = null;
+
+    /**
+     * The number of times the cache has been invalidated, used to discard
+     * registries loaded for a superseded configuration.
+     */
+    private long generation = 0L;
+
+    /**
+     * Internal object for instance-wide synchronized locking.
+     */
+    private final Object monitor = new Object();
+
+    /**
+     * Constructs with the specified {@link SzCoreEnvironment}.
+     *
+     * @param env The {@link SzCoreEnvironment} from which to obtain the
+     *            data source registry.
+     */
+    DataSourceCache(SzCoreEnvironment env) {
+        this.env = env;
+    }
+
+    /**
+     * Validates the specified data source code against the cached
+     * registry, loading the registry if it is not already loaded.  A
+     * <code>null</code> data source code is allowed so the native engine
+     * reports the failure.
+     *
+     * @param dataSourceCode The data source code to validate.
+     *
+     * @throws SzUnknownDataSourceException If the data source code is not
+     *                                      registered in the active
+     *                                      configuration.
+     *
+     * @throws SzException If a failure occurs loading the registry.
+     */
+    void validate(String dataSourceCode)
+        throws SzUnknownDataSourceException, SzException
+    {
+        if (dataSourceCode == null) {
+            return;
+        }
+        Set<String> codes = this.dataSourceCodes;
+        if (codes == null) {
+            codes = this.load();
+        }
+        if (codes == UNINTERPRETED) {
+            return;
+        }
+        String normalized = dataSourceCode.trim().toUpperCase(Locale.ROOT);
+        if (!codes.contains(normalized)) {
+            throw new SzUnknownDataSourceException(
+                UNKNOWN_DATA_SOURCE_ERROR_CODE,
+                "Data source code [" + normalized + "] does not exist.");
+        }
+    }
+
+    /**
+     * Invalidates the cached registry so it is reloaded for the active
+     * configuration on the next validation.
+     */
+    void invalidate() {
+        synchronized (this.monitor) {
+            this.generation++;
+            this.dataSourceCodes = null;
+        }
+    }
+
+    /**
+     * Loads the registry for the active configuration and caches it unless
+     * the cache was invalidated while loading.
+     *
+     * @return The {@link Set} of upper-case data source codes that were
+     *         loaded, or {@link #UNINTERPRETED} if the registry could not be
+     *         interpreted.
+     *
+     * @throws SzException If a failure occurs loading the registry.
+     */
+    private Set<String> load() throws SzException {
+        long loadGeneration;
+        synchronized (this.monitor) {
+            Set<String> codes = this.dataSourceCodes;
+            if (codes != null) {
+                return codes;
+            }
+            loadGeneration = this.generation;
+        }
+
+        long configId = this.env.getActiveConfigId();
+        String registry = this.env.getConfigManager()
+            .createConfig(configId).getDataSourceRegistry();
+        Set<String> parsed = parseDataSourceCodes(registry);
+
+        synchronized (this.monitor) {
+            Set<String> codes = (parsed == null) ? UNINTERPRETED : parsed;
+            if (this.generation == loadGeneration) {
+                this.dataSourceCodes = codes;
+            }
+            return codes;
+        }
+    }
+
+    /**
+     * Parses the upper-case data source codes from the specified data
+     * source registry JSON as returned from {@link
+     * com.senzing.sdk.SzConfig#getDataSourceRegistry()}, which is
+     * formatted as:
+     * <pre>
+     *   {
+     *     "DATA_SOURCES": [
+     *        { "DSRC_ID": 1, "DSRC_CODE": "TEST" },
+     *        { "DSRC_ID": 2, "DSRC_CODE": "SEARCH" }
+     *     ]
+     *   }
+     * </pre>
+     *
+     * @param registry The data source registry JSON text.
+     *
+     * @return The unmodifiable {@link Set} of upper-case data source codes,
+     *         or <code>null</code> if the registry could not be interpreted.
+     */
+    static Set<String> parseDataSourceCodes(String registry) {
+        if (registry == null) {
+            return null;
+        }
+        int index = registry.indexOf(DATA_SOURCES_KEY);
+        if (index < 0) {
+            return null;
+        }
+        Set<String> codes = new HashSet<>();
+        int length = registry.length();
+        index = registry.indexOf(DSRC_CODE_KEY, index);
+        while (index >= 0) {
+            index = skipWhiteSpace(registry, index + DSRC_CODE_KEY.length());
+
+            // check for the colon and the opening quote
+            if (index >= length || registry.charAt(index++) != ':') {
+                return null;
+            }
+            index = skipWhiteSpace(registry, index);
+            if (index >= length || registry.charAt(index++) != '"') {
+                return null;
+            }
+
+            // read the string value, decoding any escape sequences
+            StringBuilder sb = new StringBuilder();
+            while (index < length && registry.charAt(index) != '"') {
+                char c = registry.charAt(index++);
+                if (c == '\\' && index < length) {
+                    char escaped = registry.charAt(index++);
+                    switch (escaped) {
+                        case 'u':
+                            if (index + UNICODE_ESCAPE_LENGTH > length) {
+                                return null;
+                            }
+                            try {
+                                c = (char) Integer.parseInt(registry.substring(
+                                    index, index + UNICODE_ESCAPE_LENGTH), HEX_RADIX);
+                            } catch (NumberFormatException e) {
+                                return null;
+                            }
+                            index += UNICODE_ESCAPE_LENGTH;
+                            break;
+                        case 'b':
+                            c = '\b';
+                            break;
+                        case 'f':
+                            c = '\f';
+                            break;
+                        case 'n':
+                            c = '\n';
+                            break;
+                        case 'r':
+                            c = '\r';
+                            break;
+                        case 't':
+                            c = '\t';
+                            break;
+                        default:
+                            c = escaped;
+                    }
+                }
+                sb.append(c);
+            }
+            if (index >= length) {
+                return null;
+            }
+            codes.add(sb.toString().trim().toUpperCase(Locale.ROOT));
+            index = registry.indexOf(DSRC_CODE_KEY, index + 1);
+        }
+        return Collections.unmodifiableSet(codes);
+    }
+
+    /**
+     * Finds the index of the first non-whitespace character at or after the
+     * specified index in the specified text.
+     *
+     * @param text The text to search.
+     * @param fromIndex The starting index.
+     *
+     * @return The index of the first non-whitespace character, or the length
+     *         of the text if there is none.
+     */
+    private static int skipWhiteSpace(String text, int fromIndex) {
+        int index = fromIndex;
+        while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -1,7 +1,18 @@
 package com.senzing.sdk.core;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.senzing.sdk.SzBatchOutcome;
+import com.senzing.sdk.SzBatchResult;
 import com.senzing.sdk.SzEngine;
 import com.senzing.sdk.SzFlag;
 import com.senzing.sdk.SzFlags;
@@ -26,6 +37,20 @@ class SzCoreEngine implements SzEngine {
      */
     static final long SDK_FLAG_MASK = ~(SzFlags.SZ_WITH_INFO);
 
+    /**
+     * The maximum capacity of a {@link StringBuffer} that is retained for
+     * reuse by {@link #fetchNext(long)}, beyond which it is discarded so
+     * that a single large export chunk is not retained.
+     */
+    private static final int MAX_FETCH_BUFFER_CAPACITY = 1 << 20;
+
+    /**
+     * The per-thread {@link StringBuffer} reused by {@link #fetchNext(long)}
+     * so that its capacity is not regrown for each export chunk.
+     */
+    private static final ThreadLocal<StringBuffer> FETCH_BUFFER
+        = ThreadLocal.withInitial(StringBuffer::new);
+
     /**
      * The {@link SzCoreEnvironment} that constructed this instance.
      */
@@ -136,6 +161,9 @@ class SzCoreEngine implements SzEngine {
                SzBadInputException, 
                SzException
     {
+        // fail fast on an unknown data source if validating locally
+        this.env.validateDataSource(recordKey);
+
         return this.env.execute(() -> {
             // clear out the SDK-specific flags
             long downstreamFlags = SzFlag.toLong(flags) & SDK_FLAG_MASK;
@@ -248,6 +276,9 @@ class SzCoreEngine implements SzEngine {
     public String deleteRecord(SzRecordKey recordKey, Set<SzFlag> flags)
             throws SzUnknownDataSourceException, SzException 
     {
+        // fail fast on an unknown data source if validating locally
+        this.env.validateDataSource(recordKey);
+
         return this.env.execute(() -> {
             // clear out the SDK-specific flags
             long downstreamFlags = SzFlag.toLong(flags) & SDK_FLAG_MASK;
@@ -344,17 +375,20 @@ class SzCoreEngine implements SzEngine {
     @Override
     public String fetchNext(long exportHandle) throws SzException {
         return this.env.execute(() -> {
-            StringBuffer sb = new StringBuffer();
+            StringBuffer sb = FETCH_BUFFER.get();
+            sb.setLength(0);
 
             int returnCode = this.nativeApi.fetchNext(exportHandle, sb);
 
+            // discard an oversized buffer rather than retaining it
+            if (sb.capacity() > MAX_FETCH_BUFFER_CAPACITY) {
+                FETCH_BUFFER.remove();
+            }
+
             this.env.handleReturnCode(returnCode, this.nativeApi);
 
             // get the result
-            String result = sb.toString();
-            if (result.length() == 0) {
-                result = null;
-            }
+            String result = (sb.length() == 0) ? null : sb.toString();
 
             // return the next export chunk
             return result;
@@ -1017,6 +1051,9 @@ class SzCoreEngine implements SzEngine {
     public String reevaluateRecord(SzRecordKey recordKey, Set<SzFlag> flags)
             throws SzUnknownDataSourceException, SzException 
     {
+        // fail fast on an unknown data source if validating locally
+        this.env.validateDataSource(recordKey);
+
         return this.env.execute(() -> {
             // clear out the SDK-specific flags
             long downstreamFlags = SzFlag.toLong(flags) & SDK_FLAG_MASK;
@@ -1053,6 +1090,220 @@ class SzCoreEngine implements SzEngine {
         });
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Implemented to call {@link #deleteRecord(SzRecordKey, Set)} for each
+     * record key concurrently using the worker pool of the associated
+     * {@link SzCoreEnvironment}.
+     */
+    @Override
+    public SzBatchResult<SzRecordKey> deleteRecords(
+            Collection<SzRecordKey> recordKeys, Set<SzFlag> flags)
+        throws SzException
+    {
+        return this.executeBatch(new ArrayList<>(recordKeys), flags,
+            (recordKey) -> this.deleteRecord(recordKey, flags));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Implemented to call {@link #reevaluateRecord(SzRecordKey, Set)} for 
+     * each record key concurrently using the worker pool of the associated
+     * {@link SzCoreEnvironment}.
+     */
+    @Override
+    public SzBatchResult<SzRecordKey> reevaluateRecords(
+            Collection<SzRecordKey> recordKeys, Set<SzFlag> flags)
+        throws SzException
+    {
+        return this.executeBatch(new ArrayList<>(recordKeys), flags,
+            (recordKey) -> this.reevaluateRecord(recordKey, flags));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Implemented to call {@link #reevaluateEntity(long, Set)} for each
+     * entity ID concurrently using the worker pool of the associated
+     * {@link SzCoreEnvironment}.
+     */
+    @Override
+    public SzBatchResult<Long> reevaluateEntities(long[] entityIds, Set<SzFlag> flags)
+        throws SzException
+    {
+        List<Long> keys = new ArrayList<>(entityIds.length);
+        for (long entityId : entityIds) {
+            keys.add(entityId);
+        }
+        return this.executeBatch(keys, flags,
+            (entityId) -> this.reevaluateEntity(entityId, flags));
+    }
+
+    /**
+     * Functional interface for a single operation of a batch that is
+     * identified by a key and produces an optional INFO response.
+     *
+     * @param <K> The type of key for the operation.
+     */
+    @FunctionalInterface
+    interface BatchOperation<K> {
+        /**
+         * Executes the operation for the specified key.
+         * 
+         * @param key The key identifying the item to operate on.
+         * 
+         * @return The INFO response for the operation, or <code>null</code>
+         *         if no INFO response was requested.
+         * 
+         * @throws SzException If a failure occurs.
+         */
+        String execute(K key) throws SzException;
+    }
+
+    /**
+     * Executes the specified {@link BatchOperation} for each of the keys
+     * in the specified {@link List} concurrently using the worker pool of
+     * the associated {@link SzCoreEnvironment}.  The calling thread also
+     * participates in executing the operations so that progress is made
+     * even if the worker pool is saturated (e.g.: when called from a 
+     * worker thread).  Failures of individual operations are recorded as
+     * failed {@link SzBatchOutcome} instances while any {@link 
+     * RuntimeException} (e.g.: {@link 
+     * com.senzing.sdk.SzEnvironmentDestroyedException}) aborts the batch
+     * and is rethrown.
+     * 
+     * @param <K> The type of key for the operations.
+     * @param keys The {@link List} of keys for the operations.
+     * @param flags The {@link Set} of {@link SzFlag} for the operations.
+     * @param operation The {@link BatchOperation} to execute for each key.
+     * 
+     * @return The {@link SzBatchResult} describing the outcomes.
+     * 
+     * @throws SzException If a failure occurs.
+     */
+    <K> SzBatchResult<K> executeBatch(List<K>            keys,
+                                      Set<SzFlag>        flags,
+                                      BatchOperation<K>  operation)
+        throws SzException
+    {
+        final int count = keys.size();
+
+        List<SzBatchOutcome<K>> outcomes = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            outcomes.add(null);
+        }
+
+        AtomicInteger                       cursor  = new AtomicInteger(0);
+        AtomicReference<RuntimeException>   abort   = new AtomicReference<>();
+
+        Runnable worker = () -> {
+            for (int index = cursor.getAndIncrement();
+                 index < count && abort.get() == null;
+                 index = cursor.getAndIncrement())
+            {
+                K key = keys.get(index);
+                SzBatchOutcome<K> outcome = null;
+                try {
+                    outcome = SzBatchOutcome.success(key, operation.execute(key));
+
+                } catch (SzException e) {
+                    outcome = SzBatchOutcome.failure(key, e);
+
+                } catch (RuntimeException e) {
+                    abort.compareAndSet(null, e);
+                    return;
+                }
+                synchronized (outcomes) {
+                    outcomes.set(index, outcome);
+                }
+            }
+        };
+
+        // submit the workers (the calling thread will be one of them), each
+        // claiming its start flag so a task that never started can be told
+        // apart from one that is running (both are cancellable)
+        int taskCount = Math.max(0, Math.min(count, this.env.getWorkerThreadCount()) - 1);
+        List<Future<?>>     futures = new ArrayList<>(taskCount);
+        List<AtomicBoolean> started = new ArrayList<>(taskCount);
+        if (taskCount > 0) {
+            ExecutorService pool = this.env.getWorkerPool();
+            for (int index = 0; index < taskCount; index++) {
+                AtomicBoolean flag = new AtomicBoolean(false);
+                started.add(flag);
+                futures.add(pool.submit(() -> {
+                    if (flag.compareAndSet(false, true)) {
+                        worker.run();
+                    }
+                }));
+            }
+        }
+
+        // participate in the work from the calling thread
+        worker.run();
+
+        // skip the tasks that never started and wait for the others
+        for (int index = 0; index < taskCount; index++) {
+            Future<?> future = futures.get(index);
+            if (started.get(index).compareAndSet(false, true)) {
+                future.cancel(false);
+                continue;
+            }
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                abort.compareAndSet(null, new IllegalStateException(
+                    "Interrupted while waiting for batch operations", e));
+                cancelAll(futures);
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                abort.compareAndSet(null, new IllegalStateException(
+                    "Batch operation failed", e.getCause()));
+                cancelAll(futures);
+                Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof SzException) {
+                    throw (SzException) cause;
+                }
+                throw new SzException(cause);
+            }
+        }
+
+        // check if aborted
+        if (abort.get() != null) {
+            throw abort.get();
+        }
+
+        // build the result
+        boolean withInfo = (flags != null && flags.contains(SZ_WITH_INFO));
+        SzBatchResult.Builder<K> builder = SzBatchResult.newBuilder(withInfo, count);
+        synchronized (outcomes) {
+            for (SzBatchOutcome<K> outcome : outcomes) {
+                builder.outcome(outcome);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Cancels each of the specified {@link Future} instances, interrupting
+     * those that are running.
+     * 
+     * @param futures The {@link List} of {@link Future} instances to cancel.
+     */
+    private static void cancelAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
     /**
      * {@inheritDoc}
      * <p>
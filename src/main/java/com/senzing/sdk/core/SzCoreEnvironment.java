@@ -2,6 +2,9 @@ package com.senzing.sdk.core;
 
 import java.net.URL;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.Lock;
@@ -13,6 +16,8 @@ import com.senzing.sdk.SzProduct;
 import com.senzing.sdk.SzConfigManager;
 import com.senzing.sdk.SzEngine;
 import com.senzing.sdk.SzDiagnostic;
+import com.senzing.sdk.SzRecordKey;
+import com.senzing.sdk.SzUnknownDataSourceException;
 
 import static com.senzing.sdk.core.SzCoreUtilities.createSzException;
 
@@ -81,6 +86,21 @@ public class SzCoreEnvironment implements SzEnvironment {
      */
     public static final String DEFAULT_SETTINGS = "{ }";
 
+    /**
+     * The default number of worker threads for the worker pool used to
+     * execute batch operations concurrently when an explicit value has not
+     * been provided via {@link Builder#workerThreadCount(Integer)}.  This
+     * is the number of available processors as reported by {@link
+     * Runtime#availableProcessors()}.
+     * 
+     * @see #newBuilder()
+     * @see Builder#workerThreadCount(Integer)
+     * 
+     * @since 4.4.0
+     */
+    public static final int DEFAULT_WORKER_THREAD_COUNT
+        = Runtime.getRuntime().availableProcessors();
+
     /**
      * The number of milliseconds to delay (if not notified) until checking
      * if we are destroyed.
@@ -200,6 +220,23 @@ public class SzCoreEnvironment implements SzEnvironment {
      */
     private Long configId = null;
 
+    /**
+     * The number of threads for the worker pool.
+     */
+    private int workerThreadCount = DEFAULT_WORKER_THREAD_COUNT;
+
+    /**
+     * The lazily-created {@link ExecutorService} worker pool used to
+     * execute batch operations concurrently.
+     */
+    private ExecutorService workerPool = null;
+
+    /**
+     * The {@link DataSourceCache} for validating data source codes, or
+     * <code>null</code> if data source codes are not validated.
+     */
+    private final DataSourceCache dataSourceCache;
+
     /**
      * The {@link SzCoreProduct} singleton instance to use.
      */
@@ -258,6 +295,13 @@ public class SzCoreEnvironment implements SzEnvironment {
         this.verboseLogging = initializer.isVerboseLogging();
         this.configId       = initializer.getConfigId();
 
+        Integer threadCount = initializer.getWorkerThreadCount();
+        this.workerThreadCount = (threadCount == null)
+            ? DEFAULT_WORKER_THREAD_COUNT : threadCount;
+
+        this.dataSourceCache = (initializer.isValidatingDataSources())
+            ? new DataSourceCache(this) : null;
+
         synchronized (CLASS_MONITOR) {
             SzCoreEnvironment activeEnvironment = getActiveInstance();
             if (activeEnvironment != null) {
@@ -339,6 +383,83 @@ public class SzCoreEnvironment implements SzEnvironment {
         return this.configId;
     }
     
+    /**
+     * Gets the number of threads in the worker pool used to execute batch
+     * operations concurrently.
+     * 
+     * @return The number of threads in the worker pool.
+     */
+    int getWorkerThreadCount() {
+        return this.workerThreadCount;
+    }
+
+    /**
+     * Checks if the data source codes of record keys are validated against
+     * a locally cached data source registry before calling the engine.
+     * 
+     * @return <code>true</code> if data source codes are validated,
+     *         otherwise <code>false</code>.
+     */
+    boolean isValidatingDataSources() {
+        return this.dataSourceCache != null;
+    }
+
+    /**
+     * Validates the data source code of the specified {@link SzRecordKey}
+     * against the locally cached data source registry of the active
+     * configuration if {@linkplain Builder#validateDataSources(boolean)
+     * enabled}, otherwise does nothing.  This is called before {@link
+     * #execute(Callable)} so that records with an unknown data source fail
+     * fast without a native call.  The registry is loaded on first use and
+     * reloaded after the environment is {@linkplain #reinitialize(long)
+     * reinitialized}.
+     * 
+     * @param recordKey The {@link SzRecordKey} to validate, which may be
+     *                  <code>null</code> to defer to the native engine.
+     * 
+     * @throws SzUnknownDataSourceException If the data source code is not
+     *                                      registered in the active
+     *                                      configuration.
+     * 
+     * @throws SzException If a failure occurs loading the registry.
+     */
+    void validateDataSource(SzRecordKey recordKey)
+        throws SzUnknownDataSourceException, SzException
+    {
+        if (this.dataSourceCache != null && recordKey != null) {
+            this.dataSourceCache.validate(recordKey.dataSourceCode());
+        }
+    }
+
+    /**
+     * Gets the {@link ExecutorService} worker pool used to execute batch
+     * operations concurrently, creating it if it has not yet been created.
+     * The worker pool is shutdown when this instance is {@linkplain 
+     * #destroy() destroyed}.
+     * 
+     * @return The {@link ExecutorService} worker pool for this instance.
+     * 
+     * @throws SzEnvironmentDestroyedException If this instance has already
+     *                                         been destroyed.
+     */
+    ExecutorService getWorkerPool() throws SzEnvironmentDestroyedException {
+        synchronized (this.monitor) {
+            this.ensureActive();
+            if (this.workerPool == null) {
+                AtomicInteger threadIndex = new AtomicInteger(0);
+                this.workerPool = Executors.newFixedThreadPool(
+                    this.workerThreadCount, (runnable) -> {
+                        Thread thread = new Thread(
+                            runnable, 
+                            "SzCoreEnvironment-worker-" + threadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            }
+            return this.workerPool;
+        }
+    }
+
     /**
      * Executes the specified {@link Callable} task via {@link #doExecute(Callable)} 
      * after ensuring that this instance is not {@linkplain #destroy() destroyed} 
@@ -649,6 +770,10 @@ public class SzCoreEnvironment implements SzEnvironment {
             }
 
             // once we get here we can really shut things down
+            if (this.workerPool != null) {
+                this.workerPool.shutdown();
+                this.workerPool = null;
+            }
             if (this.coreEngine != null) {
                 this.coreEngine.destroy();
                 this.coreEngine = null;
@@ -835,6 +960,11 @@ public class SzCoreEnvironment implements SzEnvironment {
                     this.getEngine();
                 }
             }
+
+            // reload the data source registry for the new configuration
+            if (this.dataSourceCache != null) {
+                this.dataSourceCache.invalidate();
+            }
         } finally {
             lock = this.releaseLock(lock);
         }
@@ -905,6 +1035,43 @@ public class SzCoreEnvironment implements SzEnvironment {
          * @since 4.1.0
          */
         Long getConfigId();
+
+        /**
+         * Gets the number of threads for the worker pool used to execute
+         * batch operations concurrently.  This returns <code>null</code> if
+         * {@link SzCoreEnvironment#DEFAULT_WORKER_THREAD_COUNT} should be used.
+         * 
+         * <p>
+         * The default implementation of this method returns <code>null</code>.
+         * </p>
+         * 
+         * @return The number of threads for the worker pool, or 
+         *         <code>null</code> if the default should be used.
+         * 
+         * @since 4.4.0
+         */
+        default Integer getWorkerThreadCount() {
+            return null;
+        }
+
+        /**
+         * Checks if the data source codes of record keys should be validated
+         * against a locally cached data source registry before records are
+         * written, failing fast with an {@link SzUnknownDataSourceException}
+         * without a native call.
+         * 
+         * <p>
+         * The default implementation of this method returns <code>false</code>.
+         * </p>
+         * 
+         * @return <code>true</code> if data source codes should be validated,
+         *         otherwise <code>false</code>.
+         * 
+         * @since 4.4.0
+         */
+        default boolean isValidatingDataSources() {
+            return false;
+        }
     }
     
     /**
@@ -959,6 +1126,18 @@ public class SzCoreEnvironment implements SzEnvironment {
          */
         private Long configId = null;
 
+        /**
+         * The number of threads for the worker pool, or <code>null</code>
+         * if the default should be used.
+         */
+        private Integer workerThreadCount = null;
+
+        /**
+         * Whether or not data source codes are validated locally, which
+         * defaults to <code>false</code>.
+         */
+        private boolean validateDataSources = false;
+
         /**
          * Default constructor.
          * 
@@ -969,6 +1148,8 @@ public class SzCoreEnvironment implements SzEnvironment {
             this.instanceName   = DEFAULT_INSTANCE_NAME;
             this.verboseLogging = false;
             this.configId       = null;
+            this.workerThreadCount = null;
+            this.validateDataSources = false;
         }
 
         /**
@@ -1118,6 +1299,98 @@ public class SzCoreEnvironment implements SzEnvironment {
             return this.configId;
         }
 
+        /**
+         * Sets the number of threads for the worker pool used to execute
+         * batch operations (e.g.: {@link SzEngine#deleteRecords(
+         * java.util.Collection, java.util.Set)}) concurrently.  If not
+         * specified then {@link SzCoreEnvironment#DEFAULT_WORKER_THREAD_COUNT}
+         * is used.
+         * 
+         * @param threadCount The positive number of threads for the worker 
+         *                    pool, or <code>null</code> to restore the default.
+         * 
+         * @return A reference to this instance.
+         * 
+         * @throws IllegalArgumentException If the specified thread count is
+         *                                  not positive.
+         * 
+         * @see SzCoreEnvironment#DEFAULT_WORKER_THREAD_COUNT
+         * 
+         * @since 4.4.0
+         */
+        @SuppressWarnings("unchecked")
+        public B workerThreadCount(Integer threadCount) 
+            throws IllegalArgumentException
+        {
+            if (threadCount != null && threadCount <= 0) {
+                throw new IllegalArgumentException(
+                    "The worker thread count must be positive: " + threadCount);
+            }
+            this.workerThreadCount = threadCount;
+            return ((B) this);
+        }
+
+        /**
+         * Gets the number of threads for the worker pool used to execute
+         * batch operations concurrently.  This returns <code>null</code> if
+         * {@link SzCoreEnvironment#DEFAULT_WORKER_THREAD_COUNT} should be used.
+         * 
+         * @return The number of threads for the worker pool, or 
+         *         <code>null</code> if the default should be used.
+         * 
+         * @since 4.4.0
+         */
+        @Override
+        public Integer getWorkerThreadCount() {
+            return this.workerThreadCount;
+        }
+
+        /**
+         * Sets whether or not the data source codes of record keys are
+         * validated against a locally cached data source registry before
+         * records are added, deleted or reevaluated.  When enabled, the
+         * registry is obtained via {@link
+         * com.senzing.sdk.SzConfig#getDataSourceRegistry()} for the active
+         * configuration on first use and reloaded after {@link
+         * SzCoreEnvironment#reinitialize(long)}, and a record with an unknown
+         * data source fails with an {@link SzUnknownDataSourceException}
+         * without a native call or waiting on the environment.  If not called, the default value is
+         * <code>false</code>.
+         * 
+         * <p>
+         * <b>NOTE:</b> Data sources registered in a new configuration are only
+         * recognized once the environment is reinitialized with it, which is
+         * also when the native engine recognizes them.
+         * </p>
+         * 
+         * @param validate <code>true</code> if data source codes should be
+         *                 validated locally, otherwise <code>false</code>.
+         * 
+         * @return A reference to this instance.
+         * 
+         * @since 4.4.0
+         */
+        @SuppressWarnings("unchecked")
+        public B validateDataSources(boolean validate) {
+            this.validateDataSources = validate;
+            return ((B) this);
+        }
+
+        /**
+         * Checks if the data source codes of record keys should be validated
+         * against a locally cached data source registry before records are
+         * written.
+         * 
+         * @return <code>true</code> if data source codes should be validated,
+         *         otherwise <code>false</code>.
+         * 
+         * @since 4.4.0
+         */
+        @Override
+        public boolean isValidatingDataSources() {
+            return this.validateDataSources;
+        }
+
         /**
          * Implement this method to create a new {@link SzCoreEnvironment}
          * instance of type <code>E</code> based on this builder instance.
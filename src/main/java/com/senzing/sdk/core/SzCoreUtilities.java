@@ -5,10 +5,13 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
 
 import com.senzing.sdk.SzConfig;
 import com.senzing.sdk.SzEnvironmentDestroyedException;
 import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzRetryableException;
+import com.senzing.sdk.SzUnrecoverableException;
 
 /**
  * Provides utility functions that are useful when implementing
@@ -63,6 +66,33 @@ public final class SzCoreUtilities {
         EXCEPTION_MAP = Collections.unmodifiableMap(result);
     }
 
+    /**
+     * Enumerates the ways in which a failed operation should be handled, as
+     * determined by {@link #classifyFailure(Class, int, int)}.
+     *
+     * @since 4.4.0
+     */
+    public enum FailureAction {
+        /**
+         * The failure is retryable and retries remain, so the operation
+         * should be retried (typically after a {@linkplain
+         * #backoffDelay(int, long, long) backoff delay}).
+         */
+        RETRY,
+
+        /**
+         * The operation failed, but the failure does not prevent other
+         * operations from proceeding.
+         */
+        FAIL,
+
+        /**
+         * The failure is unrecoverable and all further operations should
+         * be stopped.
+         */
+        STOP;
+    }
+
     /**
      * Private default constructor.
      */
@@ -70,6 +100,187 @@ public final class SzCoreUtilities {
         // do nothing
     }
 
+    /**
+     * Gets the {@link SzException} class (or derived class) that is
+     * associated with the specified Senzing error code.  This is the class
+     * that {@link #createSzException(int, String)} would instantiate for
+     * the error code and is useful for classifying a failure (e.g.: as
+     * bad input versus retryable) by its error code alone.
+     *
+     * @param errorCode The error code for which the exception class is
+     *                  being requested.
+     *
+     * @return The {@link SzException} class (or derived class) associated
+     *         with the specified error code, which is {@link SzException}
+     *         itself if the error code is not otherwise mapped.
+     *
+     * @since 4.4.0
+     */
+    public static Class<? extends SzException> getExceptionClass(int errorCode) {
+        Class<? extends SzException> exceptionClass = EXCEPTION_MAP.get(errorCode);
+        return (exceptionClass == null) ? SzException.class : exceptionClass;
+    }
+
+    /**
+     * Resolves the {@link SzException} class that describes the specified
+     * failure.  If the failure has an error code then the class that is
+     * {@linkplain #getExceptionClass(int) mapped} to the error code is used,
+     * unless the class of the specified exception is more specific.
+     * Otherwise the class of the specified exception is returned.
+     *
+     * @param failure The {@link SzException} describing the failure.
+     *
+     * @return The {@link SzException} class that describes the failure.
+     *
+     * @since 4.4.0
+     */
+    public static Class<? extends SzException> resolveExceptionClass(SzException failure) {
+        Class<? extends SzException> actualClass = failure.getClass();
+        Integer errorCode = failure.getErrorCode();
+        if (errorCode == null) {
+            return actualClass;
+        }
+        Class<? extends SzException> mappedClass = getExceptionClass(errorCode);
+        return (mappedClass.isAssignableFrom(actualClass)) ? actualClass : mappedClass;
+    }
+
+    /**
+     * Determines how to handle a failed attempt of an operation with the
+     * specified {@linkplain #resolveExceptionClass(SzException) resolved
+     * exception class}.  An {@link SzRetryableException} is retried as long
+     * as the attempt number does not exceed the maximum number of retries,
+     * an {@link SzUnrecoverableException} stops all operations and any
+     * other failure fails only the operation.
+     *
+     * @param exceptionClass The {@link SzException} class resolved for the
+     *                       failure.
+     * @param attempt The one-based attempt number that failed, or zero (0)
+     *                if the operation was never attempted and should not
+     *                be retried.
+     * @param maxRetries The maximum number of retries.
+     *
+     * @return The {@link FailureAction} describing how to handle the
+     *         failure.
+     *
+     * @since 4.4.0
+     */
+    public static FailureAction classifyFailure(Class<? extends SzException> exceptionClass,
+                                                int                          attempt,
+                                                int                          maxRetries)
+    {
+        if (SzUnrecoverableException.class.isAssignableFrom(exceptionClass)) {
+            return FailureAction.STOP;
+        }
+        if (SzRetryableException.class.isAssignableFrom(exceptionClass)
+            && attempt > 0 && attempt <= maxRetries)
+        {
+            return FailureAction.RETRY;
+        }
+        return FailureAction.FAIL;
+    }
+
+    /**
+     * Checks if the specified failure is {@linkplain
+     * #resolveExceptionClass(SzException) resolved} to an {@link
+     * SzUnrecoverableException}.
+     *
+     * @param failure The {@link SzException} describing the failure.
+     *
+     * @return <code>true</code> if the failure is unrecoverable, otherwise
+     *         <code>false</code>.
+     *
+     * @since 4.4.0
+     */
+    public static boolean isUnrecoverable(SzException failure) {
+        return SzUnrecoverableException.class.isAssignableFrom(
+            resolveExceptionClass(failure));
+    }
+
+    /**
+     * Computes the randomized exponential backoff delay for retrying an
+     * operation after the specified failed attempt.  The delay doubles with
+     * each attempt up to the specified maximum and is then randomized
+     * between half and all of that value so that operations failing together
+     * are not retried together.
+     *
+     * @param attempt The one-based attempt number that failed.
+     * @param initialDelayMillis The delay in milliseconds after the first
+     *                           failed attempt.
+     * @param maxDelayMillis The maximum delay in milliseconds.
+     *
+     * @return The number of milliseconds to delay before the retry.
+     *
+     * @since 4.4.0
+     */
+    public static long backoffDelay(int attempt, long initialDelayMillis, long maxDelayMillis) {
+        int shift = Math.min(Math.max(attempt - 1, 0),
+                             Long.numberOfLeadingZeros(initialDelayMillis) - 1);
+        long delay = Math.min(initialDelayMillis << shift, maxDelayMillis);
+        long half = delay / 2L;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1L);
+    }
+
+    /**
+     * Appends the specified {@link CharSequence} to the specified {@link
+     * StringBuilder} as a JSON string with the surrounding double quotes
+     * without creating an intermediate {@link String}.  Runs of characters
+     * that do not require escaping are appended in bulk.  If the specified
+     * {@link CharSequence} is <code>null</code> then <code>null</code> is
+     * appended.
+     *
+     * @param text The {@link CharSequence} to escape for JSON.
+     * @param sb The {@link StringBuilder} to append to.
+     *
+     * @return The specified {@link StringBuilder}.
+     *
+     * @since 4.4.0
+     */
+    public static StringBuilder jsonEscape(CharSequence text, StringBuilder sb) {
+        if (text == null) {
+            return sb.append("null");
+        }
+        sb.append('"');
+        int length  = text.length();
+        int start   = 0;
+        for (int index = 0; index < length; index++) {
+            char c = text.charAt(index);
+            if (c >= ' ' && c != '"' && c != '\\') {
+                continue;
+            }
+            sb.append(text, start, index);
+            start = index + 1;
+            switch (c) {
+                case '"', '\\':
+                    sb.append('\\').append(c);
+                    break;
+                case '\b':
+                    sb.append("\\b");
+                    break;
+                case '\f':
+                    sb.append("\\f");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    sb.append("\\u00");
+                    String hex = Integer.toHexString(c);
+                    if (hex.length() == 1) {
+                        sb.append("0"); // one more zero if single-digit hex
+                    }
+                    sb.append(hex);
+            }
+        }
+        sb.append(text, start, length);
+        return sb.append('"');
+    }
+
     /**
      * Creates the appropriate {@link SzException} instance for the specified
      * error code.
@@ -91,11 +302,8 @@ public final class SzCoreUtilities {
     public static SzException createSzException(int errorCode, String message)
     {
         // get the exception class
-        Class<? extends SzException> exceptionClass 
-            = EXCEPTION_MAP.containsKey(errorCode)
-            ? EXCEPTION_MAP.get(errorCode)
-            : SzException.class;
-        
+        Class<? extends SzException> exceptionClass = getExceptionClass(errorCode);
+
         try {
             return exceptionClass.getConstructor(Integer.TYPE, String.class)
                                  .newInstance(errorCode, message);
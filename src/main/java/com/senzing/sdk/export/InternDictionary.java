@@ -0,0 +1,124 @@
+package com.senzing.sdk.export;
+
+/**
+ * Provides a bounded dictionary of {@link String} instances that can be
+ * looked up by a range of a character array without allocating, so that
+ * repeated low-cardinality values (e.g.: data source codes) decode to the
+ * same {@link String} instance.  Once the dictionary is full, values that
+ * are not already in it are returned as new {@link String} instances.
+ *
+ * <p>
+ * Instances are <b>not</b> thread-safe.
+ * </p>
+ */
+final class InternDictionary {
+    /**
+     * The multiplier for the polynomial hash, matching {@link
+     * String#hashCode()}.
+     */
+    private static final int HASH_MULTIPLIER = 31;
+
+    /**
+     * The open-addressed table of interned values.
+     */
+    private final String[] values;
+
+    /**
+     * The hash codes of the interned values.
+     */
+    private final int[] hashes;
+
+    /**
+     * The mask for computing a table index.
+     */
+    private final int mask;
+
+    /**
+     * The maximum number of values.
+     */
+    private final int maxSize;
+
+    /**
+     * The number of interned values.
+     */
+    private int size = 0;
+
+    /**
+     * Constructs with the maximum number of values to intern.
+     *
+     * @param maxSize The maximum number of values to intern.
+     */
+    InternDictionary(int maxSize) {
+        // keep the load factor at or below one half
+        int capacity = Integer.highestOneBit(Math.max(1, maxSize)) << 2;
+        this.values     = new String[capacity];
+        this.hashes     = new int[capacity];
+        this.mask       = capacity - 1;
+        this.maxSize    = maxSize;
+    }
+
+    /**
+     * Gets the number of interned values.
+     *
+     * @return The number of interned values.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the interned {@link String} with the characters in the
+     * specified range of the specified array, adding it if it is not yet
+     * interned and the dictionary is not full.
+     *
+     * @param chars The character array.
+     * @param start The starting index (inclusive) of the characters.
+     * @param end The ending index (exclusive) of the characters.
+     *
+     * @return The interned {@link String}, or a new {@link String} if the
+     *         value is not interned and the dictionary is full.
+     */
+    String intern(char[] chars, int start, int end) {
+        int hash = 0;
+        for (int index = start; index < end; index++) {
+            hash = HASH_MULTIPLIER * hash + chars[index];
+        }
+        int slot = (hash ^ (hash >>> (Integer.SIZE / 2))) & this.mask;
+        for (String value = this.values[slot]; value != null; value = this.values[slot]) {
+            if (this.hashes[slot] == hash && equals(value, chars, start, end)) {
+                return value;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        String value = new String(chars, start, end - start);
+        if (this.size < this.maxSize) {
+            this.values[slot] = value;
+            this.hashes[slot] = hash;
+            this.size++;
+        }
+        return value;
+    }
+
+    /**
+     * Checks if the specified {@link String} has the same characters as the
+     * specified range of the specified array.
+     *
+     * @param value The {@link String} to compare.
+     * @param chars The character array.
+     * @param start The starting index (inclusive) in the array.
+     * @param end The ending index (exclusive) in the array.
+     *
+     * @return <code>true</code> if equal, otherwise <code>false</code>.
+     */
+    private static boolean equals(String value, char[] chars, int start, int end) {
+        if (value.length() != end - start) {
+            return false;
+        }
+        for (int index = start; index < end; index++) {
+            if (value.charAt(index - start) != chars[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
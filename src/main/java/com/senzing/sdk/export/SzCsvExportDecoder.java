@@ -0,0 +1,830 @@
+package com.senzing.sdk.export;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import com.senzing.sdk.SzEngine;
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzFlag;
+
+import static com.senzing.sdk.SzFlag.SZ_EXPORT_DEFAULT_FLAGS;
+
+/**
+ * Provides an {@link AutoCloseable} decoder of a {@linkplain
+ * SzEngine#exportCsvEntityReport(String, Set) CSV entity export} that
+ * decodes the rows into a reusable {@link SzCsvExportRow} with typed
+ * accessors rather than into a {@link String} per field.
+ *
+ * <p>
+ * The export is started when the decoder is {@linkplain Builder#build()
+ * built} and the export chunks are fetched ahead by an {@link
+ * SzExportCursor}.  Each row is copied from the chunks into the buffer of
+ * the {@link SzCsvExportRow} and only the boundaries of the {@linkplain
+ * Builder#columns(String...) projected columns} are recorded, with the
+ * fields that follow the last projected column skipped entirely.  The
+ * values are decoded on request: entity ID's as <code>long</code>, match
+ * levels as <code>int</code> and low-cardinality values such as data source
+ * codes as {@link String} instances interned in a dictionary so that they
+ * are only allocated the first time they occur.  Quoted fields (including
+ * those containing line breaks) are supported.
+ * </p>
+ *
+ * <p>
+ * <b>NOTE:</b> Instances are <b>not</b> thread-safe, though a decoder may
+ * be closed from any thread.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzCsvExportDecoder implements AutoCloseable {
+    /**
+     * The name of the column for the resolved entity ID.
+     */
+    public static final String RESOLVED_ENTITY_ID = "RESOLVED_ENTITY_ID";
+
+    /**
+     * The name of the column for the related entity ID.
+     */
+    public static final String RELATED_ENTITY_ID = "RELATED_ENTITY_ID";
+
+    /**
+     * The name of the column for the match level.
+     */
+    public static final String MATCH_LEVEL = "MATCH_LEVEL";
+
+    /**
+     * The name of the column for the match key.
+     */
+    public static final String MATCH_KEY = "MATCH_KEY";
+
+    /**
+     * The name of the column for the data source code.
+     */
+    public static final String DATA_SOURCE = "DATA_SOURCE";
+
+    /**
+     * The name of the column for the record ID.
+     */
+    public static final String RECORD_ID = "RECORD_ID";
+
+    /**
+     * The default CSV column list, which is the empty {@link String} that
+     * requests the standard columns.
+     */
+    public static final String DEFAULT_CSV_COLUMN_LIST = "";
+
+    /**
+     * The default maximum number of distinct values in the dictionary of
+     * interned values.
+     */
+    public static final int DEFAULT_MAX_DICTIONARY_SIZE = 1 << 14;
+
+    /**
+     * Provides a builder class for creating instances of {@link
+     * SzCsvExportDecoder}.
+     *
+     * @since 4.4.0
+     */
+    public static final class Builder {
+        /**
+         * The {@link SzEngine} for the export.
+         */
+        private SzEngine engine = null;
+
+        /**
+         * The {@link Set} of {@link SzFlag} instances for the export.
+         */
+        private Set<SzFlag> flags = SZ_EXPORT_DEFAULT_FLAGS;
+
+        /**
+         * The CSV column list for the export.
+         */
+        private String csvColumnList = DEFAULT_CSV_COLUMN_LIST;
+
+        /**
+         * The names of the projected columns, or <code>null</code> for all
+         * columns.
+         */
+        private List<String> columns = null;
+
+        /**
+         * The number of export chunks to fetch ahead.
+         */
+        private int prefetchDepth = SzExportCursor.DEFAULT_PREFETCH_DEPTH;
+
+        /**
+         * The maximum number of distinct interned values.
+         */
+        private int maxDictionarySize = DEFAULT_MAX_DICTIONARY_SIZE;
+
+        /**
+         * Private default constructor.
+         */
+        private Builder() {
+            // do nothing
+        }
+
+        /**
+         * Sets the {@link SzEngine} with which to export.  This is required.
+         *
+         * @param engine The {@link SzEngine} to use.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder engine(SzEngine engine) throws NullPointerException {
+            this.engine = Objects.requireNonNull(engine, "The engine cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the {@link Set} of {@link SzFlag} instances for the export.
+         * The default is {@link SzFlag#SZ_EXPORT_DEFAULT_FLAGS}.
+         *
+         * @param flags The {@link Set} of {@link SzFlag} instances, or
+         *              <code>null</code> for no flags.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder flags(Set<SzFlag> flags) {
+            this.flags = flags;
+            return this;
+        }
+
+        /**
+         * Sets the CSV column list for the export as described for {@link
+         * SzEngine#exportCsvEntityReport(String, Set)}.  The default is
+         * {@link #DEFAULT_CSV_COLUMN_LIST} for the standard columns.
+         *
+         * @param csvColumnList The non-null CSV column list.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder csvColumnList(String csvColumnList) throws NullPointerException {
+            this.csvColumnList = Objects.requireNonNull(
+                csvColumnList, "The CSV column list cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the names of the columns to decode, in the order they are
+         * to be indexed in the {@link SzCsvExportRow}.  The names are
+         * matched to the CSV header without regard to case.  The other
+         * columns of the export are skipped.  By default all columns of
+         * the export are decoded in the order of the CSV header.
+         *
+         * @param columns The names of the columns to decode, or
+         *                <code>null</code> to decode all columns.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If no column names are specified
+         *                                  or a column name is repeated.
+         *
+         * @throws NullPointerException If a column name is <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder columns(String... columns)
+            throws IllegalArgumentException, NullPointerException
+        {
+            if (columns == null) {
+                this.columns = null;
+                return this;
+            }
+            if (columns.length == 0) {
+                throw new IllegalArgumentException("At least one column is required");
+            }
+            List<String> list = new ArrayList<>(columns.length);
+            for (String column : columns) {
+                Objects.requireNonNull(column, "The column name cannot be null");
+                for (String other : list) {
+                    if (other.equalsIgnoreCase(column)) {
+                        throw new IllegalArgumentException("Repeated column: " + column);
+                    }
+                }
+                list.add(column);
+            }
+            this.columns = list;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of export chunks that are fetched ahead.
+         * The default is {@link SzExportCursor#DEFAULT_PREFETCH_DEPTH}.
+         *
+         * @param depth The positive prefetch depth.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified depth is not
+         *                                  positive.
+         *
+         * @see SzExportCursor.Builder#prefetchDepth(int)
+         *
+         * @since 4.4.0
+         */
+        public Builder prefetchDepth(int depth) throws IllegalArgumentException {
+            if (depth <= 0) {
+                throw new IllegalArgumentException(
+                    "The prefetch depth must be positive: " + depth);
+            }
+            this.prefetchDepth = depth;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of distinct values that are {@linkplain
+         * SzCsvExportRow#getInterned(int) interned}, after which values not
+         * already interned are allocated each time they are decoded.  The
+         * default is {@link #DEFAULT_MAX_DICTIONARY_SIZE}.
+         *
+         * @param size The positive maximum dictionary size.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified size is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxDictionarySize(int size) throws IllegalArgumentException {
+            if (size <= 0) {
+                throw new IllegalArgumentException(
+                    "The maximum dictionary size must be positive: " + size);
+            }
+            this.maxDictionarySize = size;
+            return this;
+        }
+
+        /**
+         * Starts the export, reads the CSV header and builds a new {@link
+         * SzCsvExportDecoder} over it.
+         *
+         * @return The newly constructed {@link SzCsvExportDecoder}.
+         *
+         * @throws IllegalStateException If the engine has not been set.
+         *
+         * @throws IllegalArgumentException If a projected column is not in
+         *                                  the CSV header of the export.
+         *
+         * @throws SzException If the export could not be started or its
+         *                     header could not be fetched.
+         *
+         * @since 4.4.0
+         */
+        public SzCsvExportDecoder build()
+            throws IllegalStateException, IllegalArgumentException, SzException
+        {
+            if (this.engine == null) {
+                throw new IllegalStateException("The engine is required");
+            }
+            return new SzCsvExportDecoder(this);
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for building an {@link
+     * SzCsvExportDecoder}.
+     *
+     * @return The new {@link Builder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * The {@link SzExportCursor} supplying the export chunks.
+     */
+    private final SzExportCursor cursor;
+
+    /**
+     * The unmodifiable {@link List} of the names of the columns in the CSV
+     * header.
+     */
+    private final List<String> headerNames;
+
+    /**
+     * The unmodifiable {@link List} of the names of the projected columns.
+     */
+    private final List<String> columnNames;
+
+    /**
+     * The projected column index for each column of the CSV header, or
+     * negative one (-1) if the header column is not projected.
+     */
+    private final int[] projection;
+
+    /**
+     * The number of header columns to parse, which is one more than the
+     * header index of the last projected column.
+     */
+    private final int parsedColumnCount;
+
+    /**
+     * The {@link InternDictionary} for interned values.
+     */
+    private final InternDictionary dictionary;
+
+    /**
+     * The projected index of the {@link #RESOLVED_ENTITY_ID} column, or
+     * negative one (-1) if not projected.
+     */
+    final int entityIdColumn;
+
+    /**
+     * The projected index of the {@link #RELATED_ENTITY_ID} column, or
+     * negative one (-1) if not projected.
+     */
+    final int relatedEntityIdColumn;
+
+    /**
+     * The projected index of the {@link #MATCH_LEVEL} column, or negative
+     * one (-1) if not projected.
+     */
+    final int matchLevelColumn;
+
+    /**
+     * The projected index of the {@link #MATCH_KEY} column, or negative one
+     * (-1) if not projected.
+     */
+    final int matchKeyColumn;
+
+    /**
+     * The projected index of the {@link #DATA_SOURCE} column, or negative
+     * one (-1) if not projected.
+     */
+    final int dataSourceColumn;
+
+    /**
+     * The projected index of the {@link #RECORD_ID} column, or negative one
+     * (-1) if not projected.
+     */
+    final int recordIdColumn;
+
+    /**
+     * The chunk currently being decoded, or <code>null</code> if none.
+     */
+    private String chunk = null;
+
+    /**
+     * The index of the next character of the current chunk to decode.
+     */
+    private int chunkIndex = 0;
+
+    /**
+     * Whether or not the end of the export has been reached.
+     */
+    private boolean exhausted = false;
+
+    /**
+     * The number of rows decoded, excluding the header.
+     */
+    private long rowCount = 0L;
+
+    /**
+     * Private constructor for constructing with a {@link Builder}, which
+     * starts the export and reads the CSV header.
+     *
+     * @param builder The {@link Builder} from which to construct.
+     *
+     * @throws IllegalArgumentException If a projected column is not in the
+     *                                  CSV header.
+     *
+     * @throws SzException If the export could not be started or its header
+     *                     could not be fetched.
+     */
+    private SzCsvExportDecoder(Builder builder)
+        throws IllegalArgumentException, SzException
+    {
+        this.dictionary = new InternDictionary(builder.maxDictionarySize);
+        this.cursor = SzExportCursor.newBuilder()
+            .engine(builder.engine)
+            .flags(builder.flags)
+            .csvColumnList(builder.csvColumnList)
+            .prefetchDepth(builder.prefetchDepth)
+            .build();
+        try {
+            this.headerNames = this.readHeader();
+            List<String> projected = (builder.columns == null)
+                ? this.headerNames : builder.columns;
+
+            this.projection = new int[this.headerNames.size()];
+            Arrays.fill(this.projection, -1);
+            int parsedCount = 0;
+            for (int column = 0; column < projected.size(); column++) {
+                int index = indexOf(this.headerNames, projected.get(column));
+                if (index < 0 && !this.headerNames.isEmpty()) {
+                    throw new IllegalArgumentException(
+                        "The column is not in the export: " + projected.get(column));
+                }
+                if (index >= 0) {
+                    this.projection[index] = column;
+                    parsedCount = Math.max(parsedCount, index + 1);
+                }
+            }
+            this.parsedColumnCount  = parsedCount;
+            this.columnNames        = Collections.unmodifiableList(new ArrayList<>(projected));
+
+        } catch (SzException | RuntimeException e) {
+            this.cursor.close();
+            throw e;
+        }
+        this.entityIdColumn         = this.getColumnIndex(RESOLVED_ENTITY_ID);
+        this.relatedEntityIdColumn  = this.getColumnIndex(RELATED_ENTITY_ID);
+        this.matchLevelColumn       = this.getColumnIndex(MATCH_LEVEL);
+        this.matchKeyColumn         = this.getColumnIndex(MATCH_KEY);
+        this.dataSourceColumn       = this.getColumnIndex(DATA_SOURCE);
+        this.recordIdColumn         = this.getColumnIndex(RECORD_ID);
+    }
+
+    /**
+     * Gets the unmodifiable {@link List} of the names of all columns in the
+     * CSV header of the export.
+     *
+     * @return The unmodifiable {@link List} of header column names, which
+     *         is empty if the export was empty.
+     *
+     * @since 4.4.0
+     */
+    public List<String> getHeaderNames() {
+        return this.headerNames;
+    }
+
+    /**
+     * Gets the unmodifiable {@link List} of the names of the projected
+     * columns in the order they are indexed in the {@link SzCsvExportRow}.
+     *
+     * @return The unmodifiable {@link List} of projected column names.
+     *
+     * @since 4.4.0
+     */
+    public List<String> getColumnNames() {
+        return this.columnNames;
+    }
+
+    /**
+     * Gets the number of projected columns.
+     *
+     * @return The number of projected columns.
+     *
+     * @since 4.4.0
+     */
+    public int getColumnCount() {
+        return this.columnNames.size();
+    }
+
+    /**
+     * Gets the zero-based index of the projected column with the specified
+     * name, matched without regard to case.
+     *
+     * @param name The name of the column.
+     *
+     * @return The zero-based index of the projected column, or negative one
+     *         (-1) if the column is not projected.
+     *
+     * @since 4.4.0
+     */
+    public int getColumnIndex(String name) {
+        return indexOf(this.columnNames, name);
+    }
+
+    /**
+     * Gets the number of rows that have been decoded, excluding the header.
+     *
+     * @return The number of rows that have been decoded.
+     *
+     * @since 4.4.0
+     */
+    public long getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * Gets the number of distinct values that have been {@linkplain
+     * SzCsvExportRow#getInterned(int) interned}.
+     *
+     * @return The number of distinct interned values.
+     *
+     * @since 4.4.0
+     */
+    public int getDictionarySize() {
+        return this.dictionary.size();
+    }
+
+    /**
+     * Creates a new {@link SzCsvExportRow} that can be populated by this
+     * decoder and reused for every row.
+     *
+     * @return The new {@link SzCsvExportRow}.
+     *
+     * @since 4.4.0
+     */
+    public SzCsvExportRow newRow() {
+        return new SzCsvExportRow(this);
+    }
+
+    /**
+     * Decodes the next row of the export into the specified {@link
+     * SzCsvExportRow}.  Empty lines are skipped.
+     *
+     * @param row The {@link SzCsvExportRow} created by {@link #newRow()}
+     *            to populate.
+     *
+     * @return <code>true</code> if the row was populated, or
+     *         <code>false</code> if the end of the export has been reached.
+     *
+     * @throws IllegalArgumentException If the specified row was not created
+     *                                  by this decoder.
+     *
+     * @throws IllegalStateException If this instance has been closed.
+     *
+     * @throws SzException If the export chunks could not be fetched.
+     *
+     * @since 4.4.0
+     */
+    public boolean next(SzCsvExportRow row)
+        throws IllegalArgumentException, IllegalStateException, SzException
+    {
+        if (row.getDecoder() != this) {
+            throw new IllegalArgumentException("The row was not created by this decoder");
+        }
+        do {
+            if (!this.readRow(row)) {
+                return false;
+            }
+        } while (row.length == 0);
+        this.parse(row);
+        row.rowNumber = ++this.rowCount;
+        return true;
+    }
+
+    /**
+     * Stops fetching and closes the export handle.  This method is
+     * idempotent.
+     *
+     * @throws SzException If the export handle could not be closed.
+     *
+     * @since 4.4.0
+     */
+    @Override
+    public void close() throws SzException {
+        this.chunk = null;
+        this.cursor.close();
+    }
+
+    /**
+     * Gets the interned {@link String} with the characters in the
+     * specified range of the specified array.
+     *
+     * @param chars The character array.
+     * @param start The starting index (inclusive) of the characters.
+     * @param end The ending index (exclusive) of the characters.
+     *
+     * @return The interned {@link String}.
+     */
+    String intern(char[] chars, int start, int end) {
+        return this.dictionary.intern(chars, start, end);
+    }
+
+    /**
+     * Checks that the specified well-known column is projected.
+     *
+     * @param name The name of the column.
+     * @param column The projected index of the column, or negative one (-1)
+     *               if not projected.
+     *
+     * @return The specified projected index.
+     *
+     * @throws IllegalStateException If the column is not projected.
+     */
+    int requireColumn(String name, int column) throws IllegalStateException {
+        if (column < 0) {
+            throw new IllegalStateException("The " + name + " column is not decoded");
+        }
+        return column;
+    }
+
+    /**
+     * Reads and splits the CSV header of the export.
+     *
+     * @return The {@link List} of the names of the header columns, which is
+     *         empty if the export is empty.
+     *
+     * @throws SzException If the export chunks could not be fetched.
+     */
+    private List<String> readHeader() throws SzException {
+        // the header is read into a row buffer before the columns are known
+        SzCsvExportRow header = new SzCsvExportRow(this, 0);
+        do {
+            if (!this.readRow(header)) {
+                return List.of();
+            }
+        } while (header.length == 0);
+        List<String> names = new ArrayList<>();
+        int index = 0;
+        while (true) {
+            int end = skipField(header.chars, index, header.length);
+            String name = new String(header.chars, index, end - index).trim();
+            if (name.length() >= 2 && name.startsWith("\"") && name.endsWith("\"")) {
+                name = name.substring(1, name.length() - 1).replace("\"\"", "\"");
+            }
+            names.add(name);
+            if (end >= header.length) {
+                break;
+            }
+            index = end + 1;
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Copies the characters of the next CSV row (which may span chunks and
+     * contain quoted line breaks) into the buffer of the specified row,
+     * excluding the line terminator.
+     *
+     * @param row The {@link SzCsvExportRow} whose buffer to fill.
+     *
+     * @return <code>true</code> if a row was read, or <code>false</code> if
+     *         the end of the export has been reached.
+     *
+     * @throws SzException If the export chunks could not be fetched.
+     */
+    private boolean readRow(SzCsvExportRow row) throws SzException {
+        row.length = 0;
+        boolean quoted = false;
+        while (true) {
+            if (this.chunk == null) {
+                if (this.exhausted) {
+                    return false;
+                }
+                this.chunk = this.cursor.nextChunk();
+                this.chunkIndex = 0;
+                if (this.chunk == null) {
+                    // the final row may not be terminated
+                    this.exhausted = true;
+                    this.trimReturn(row);
+                    return row.length > 0;
+                }
+            }
+            String text = this.chunk;
+            int length = text.length();
+            int index = this.chunkIndex;
+            while (index < length) {
+                char c = text.charAt(index);
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == '\n' && !quoted) {
+                    break;
+                }
+                index++;
+            }
+            row.append(text, this.chunkIndex, index);
+            if (index < length) {
+                this.chunkIndex = index + 1;
+                this.trimReturn(row);
+                return true;
+            }
+            this.chunk = null;
+        }
+    }
+
+    /**
+     * Removes a trailing carriage return from the buffer of the specified
+     * row.
+     *
+     * @param row The {@link SzCsvExportRow} to trim.
+     */
+    private void trimReturn(SzCsvExportRow row) {
+        if (row.length > 0 && row.chars[row.length - 1] == '\r') {
+            row.length--;
+        }
+    }
+
+    /**
+     * Records the boundaries of the projected columns of the row in the
+     * buffer of the specified {@link SzCsvExportRow}, without decoding the
+     * fields that follow the last projected column.  A quoted field that
+     * is not properly closed extends to the end of the row, and any text
+     * following the closing quote of a field is ignored.
+     *
+     * @param row The {@link SzCsvExportRow} to parse.
+     */
+    private void parse(SzCsvExportRow row) {
+        row.clearColumns();
+        char[] chars = row.chars;
+        int end = row.length;
+        int index = 0;
+        for (int field = 0; field < this.parsedColumnCount; field++) {
+            int column = this.projection[field];
+            boolean escaped = false;
+            int valueStart;
+            int valueEnd;
+            if (index < end && chars[index] == '"') {
+                valueStart = ++index;
+                while (index < end) {
+                    if (chars[index] != '"') {
+                        index++;
+                    } else if (index + 1 < end && chars[index + 1] == '"') {
+                        escaped = true;
+                        index += 2;
+                    } else {
+                        break;
+                    }
+                }
+                valueEnd = Math.min(index, end);
+                while (index < end && chars[index] != ',') {
+                    index++;
+                }
+            } else {
+                valueStart = index;
+                while (index < end && chars[index] != ',') {
+                    index++;
+                }
+                valueEnd = index;
+            }
+            if (column >= 0) {
+                row.starts[column]  = valueStart;
+                row.ends[column]    = valueEnd;
+                row.escaped[column] = escaped;
+            }
+            if (index >= end) {
+                break;
+            }
+            index++; // skip the delimiter
+        }
+    }
+
+    /**
+     * Gets the index of the end of the CSV field starting at the specified
+     * index of the specified characters.
+     *
+     * @param chars The character array.
+     * @param start The index at which the field starts.
+     * @param end The end of the characters of the row.
+     *
+     * @return The index of the comma that ends the field, or the end of the
+     *         row if it is the last field.
+     */
+    private static int skipField(char[] chars, int start, int end) {
+        boolean quoted = false;
+        for (int index = start; index < end; index++) {
+            char c = chars[index];
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                return index;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Finds the index of the specified name in the specified {@link List},
+     * matched without regard to case.
+     *
+     * @param names The {@link List} of names.
+     * @param name The name to find.
+     *
+     * @return The index of the name, or negative one (-1) if not found.
+     */
+    private static int indexOf(List<String> names, String name) {
+        for (int index = 0; index < names.size(); index++) {
+            if (names.get(index).equalsIgnoreCase(name)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzCsvExportDecoder{ columnNames=[ " + this.columnNames
+            + " ], headerNames=[ " + this.headerNames
+            + " ], rowCount=[ " + this.rowCount
+            + " ], dictionarySize=[ " + this.dictionary.size()
+            + " ], cursor=[ " + this.cursor + " ] }";
+    }
+}
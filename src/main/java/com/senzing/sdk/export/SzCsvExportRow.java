@@ -0,0 +1,442 @@
+package com.senzing.sdk.export;
+
+import java.util.Arrays;
+
+/**
+ * Provides a reusable row of a CSV entity export that is populated by
+ * {@link SzCsvExportDecoder#next(SzCsvExportRow)}.  The characters of the
+ * row are held in a reusable buffer and only the boundaries of the
+ * {@linkplain SzCsvExportDecoder.Builder#columns(String...) projected
+ * columns} are recorded, so decoding a row allocates nothing once the
+ * buffer has grown to fit the rows.  The values are decoded on request by
+ * the typed accessors, which also do not allocate (except as noted).
+ *
+ * <p>
+ * The columns of a row are identified by their zero-based index in the
+ * {@linkplain SzCsvExportDecoder#getColumnNames() projected columns}.  A
+ * column that is missing from a row (because the row has too few fields)
+ * is treated as empty.  Instances are <b>not</b> thread-safe and their
+ * values are only valid until the row is passed to {@link
+ * SzCsvExportDecoder#next(SzCsvExportRow)} again.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzCsvExportRow {
+    /**
+     * The initial capacity of the character buffer.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The radix for decoding integers.
+     */
+    private static final int RADIX = 10;
+
+    /**
+     * The {@link SzCsvExportDecoder} that populates this row.
+     */
+    private final SzCsvExportDecoder decoder;
+
+    /**
+     * The buffer of characters of the row.
+     */
+    char[] chars = new char[INITIAL_CAPACITY];
+
+    /**
+     * The number of characters of the row in the buffer.
+     */
+    int length = 0;
+
+    /**
+     * The starting offsets (inclusive) of the projected columns.
+     */
+    final int[] starts;
+
+    /**
+     * The ending offsets (exclusive) of the projected columns.
+     */
+    final int[] ends;
+
+    /**
+     * Flags indicating which columns contain doubled quote characters that
+     * must be collapsed when materializing the value.
+     */
+    final boolean[] escaped;
+
+    /**
+     * The one-based number of the row within the export (excluding the
+     * header), or zero (0) if not yet populated.
+     */
+    long rowNumber = 0L;
+
+    /**
+     * Constructs for the specified {@link SzCsvExportDecoder}.
+     *
+     * @param decoder The {@link SzCsvExportDecoder} that populates the row.
+     */
+    SzCsvExportRow(SzCsvExportDecoder decoder) {
+        this(decoder, decoder.getColumnCount());
+    }
+
+    /**
+     * Constructs for the specified {@link SzCsvExportDecoder} with the
+     * specified number of columns.
+     *
+     * @param decoder The {@link SzCsvExportDecoder} that populates the row.
+     * @param columnCount The number of columns.
+     */
+    SzCsvExportRow(SzCsvExportDecoder decoder, int columnCount) {
+        this.decoder    = decoder;
+        this.starts     = new int[columnCount];
+        this.ends       = new int[columnCount];
+        this.escaped    = new boolean[columnCount];
+    }
+
+    /**
+     * Appends the specified range of characters to the buffer, growing it
+     * if necessary.
+     *
+     * @param text The {@link String} containing the characters.
+     * @param start The starting index (inclusive) of the characters.
+     * @param end The ending index (exclusive) of the characters.
+     */
+    void append(String text, int start, int end) {
+        int count = end - start;
+        if (this.length + count > this.chars.length) {
+            this.chars = Arrays.copyOf(
+                this.chars, Math.max(this.length + count, this.chars.length * 2));
+        }
+        text.getChars(start, end, this.chars, this.length);
+        this.length += count;
+    }
+
+    /**
+     * Resets the boundaries of all columns so that they are empty.
+     */
+    void clearColumns() {
+        Arrays.fill(this.starts, 0);
+        Arrays.fill(this.ends, 0);
+        Arrays.fill(this.escaped, false);
+    }
+
+    /**
+     * Gets the {@link SzCsvExportDecoder} that populates this row.
+     *
+     * @return The {@link SzCsvExportDecoder} that populates this row.
+     *
+     * @since 4.4.0
+     */
+    public SzCsvExportDecoder getDecoder() {
+        return this.decoder;
+    }
+
+    /**
+     * Gets the one-based number of the row within the export, excluding the
+     * header.
+     *
+     * @return The one-based row number, or zero (0) if the row has not been
+     *         populated.
+     *
+     * @since 4.4.0
+     */
+    public long getRowNumber() {
+        return this.rowNumber;
+    }
+
+    /**
+     * Checks if the value of the specified projected column is empty.
+     *
+     * @param column The zero-based index of the projected column.
+     *
+     * @return <code>true</code> if the value is empty or missing, otherwise
+     *         <code>false</code>.
+     *
+     * @throws IndexOutOfBoundsException If the column index is out of
+     *                                   range.
+     *
+     * @since 4.4.0
+     */
+    public boolean isEmpty(int column) throws IndexOutOfBoundsException {
+        return this.starts[column] == this.ends[column];
+    }
+
+    /**
+     * Decodes the value of the specified projected column as a decimal
+     * <code>long</code>.
+     *
+     * @param column The zero-based index of the projected column.
+     *
+     * @return The decoded value, or zero (0) if the value is empty.
+     *
+     * @throws IndexOutOfBoundsException If the column index is out of
+     *                                   range.
+     *
+     * @throws NumberFormatException If the value is not a decimal
+     *                               <code>long</code>.
+     *
+     * @since 4.4.0
+     */
+    public long getLong(int column)
+        throws IndexOutOfBoundsException, NumberFormatException
+    {
+        int start   = this.starts[column];
+        int end     = this.ends[column];
+        if (start == end) {
+            return 0L;
+        }
+        boolean negative = this.chars[start] == '-';
+        int index = (negative || this.chars[start] == '+') ? start + 1 : start;
+        if (index == end) {
+            throw this.numberFormatException(column);
+        }
+        // accumulate negatively so that Long.MIN_VALUE can be decoded
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long value = 0L;
+        for (; index < end; index++) {
+            int digit = Character.digit(this.chars[index], RADIX);
+            if (digit < 0 || value < (limit + digit) / RADIX) {
+                throw this.numberFormatException(column);
+            }
+            value = value * RADIX - digit;
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Decodes the value of the specified projected column as a decimal
+     * <code>int</code>.
+     *
+     * @param column The zero-based index of the projected column.
+     *
+     * @return The decoded value, or zero (0) if the value is empty.
+     *
+     * @throws IndexOutOfBoundsException If the column index is out of
+     *                                   range.
+     *
+     * @throws NumberFormatException If the value is not a decimal
+     *                               <code>int</code>.
+     *
+     * @since 4.4.0
+     */
+    public int getInt(int column)
+        throws IndexOutOfBoundsException, NumberFormatException
+    {
+        long value = this.getLong(column);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw this.numberFormatException(column);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Gets the value of the specified projected column as a {@link String}
+     * from the {@linkplain SzCsvExportDecoder.Builder#maxDictionarySize(int)
+     * dictionary} of the decoder, so that repeated values are the same
+     * instance and are only allocated the first time they occur.  This is
+     * intended for low-cardinality columns such as data source codes.
+     *
+     * @param column The zero-based index of the projected column.
+     *
+     * @return The interned value, which is an empty {@link String} if the
+     *         value is empty.
+     *
+     * @throws IndexOutOfBoundsException If the column index is out of
+     *                                   range.
+     *
+     * @since 4.4.0
+     */
+    public String getInterned(int column) throws IndexOutOfBoundsException {
+        if (this.escaped[column]) {
+            // rare enough that the collapsed value is not interned
+            return this.getString(column);
+        }
+        return this.decoder.intern(this.chars, this.starts[column], this.ends[column]);
+    }
+
+    /**
+     * Gets the value of the specified projected column as a newly allocated
+     * {@link String}.  Use {@link #getInterned(int)} for low-cardinality
+     * columns or {@link #appendValue(int, StringBuilder)} to avoid the
+     * allocation.
+     *
+     * @param column The zero-based index of the projected column.
+     *
+     * @return The value as a new {@link String}, which is empty if the
+     *         value is empty.
+     *
+     * @throws IndexOutOfBoundsException If the column index is out of
+     *                                   range.
+     *
+     * @since 4.4.0
+     */
+    public String getString(int column) throws IndexOutOfBoundsException {
+        int start   = this.starts[column];
+        int end     = this.ends[column];
+        if (!this.escaped[column]) {
+            return new String(this.chars, start, end - start);
+        }
+        return this.appendValue(column, new StringBuilder(end - start)).toString();
+    }
+
+    /**
+     * Appends the value of the specified projected column to the specified
+     * {@link StringBuilder}.
+     *
+     * @param column The zero-based index of the projected column.
+     * @param sb The {@link StringBuilder} to append to.
+     *
+     * @return The specified {@link StringBuilder}.
+     *
+     * @throws IndexOutOfBoundsException If the column index is out of
+     *                                   range.
+     *
+     * @since 4.4.0
+     */
+    public StringBuilder appendValue(int column, StringBuilder sb)
+        throws IndexOutOfBoundsException
+    {
+        int start   = this.starts[column];
+        int end     = this.ends[column];
+        if (!this.escaped[column]) {
+            return sb.append(this.chars, start, end - start);
+        }
+        for (int offset = start; offset < end; offset++) {
+            char c = this.chars[offset];
+            sb.append(c);
+            if (c == '"') {
+                offset++; // skip the doubled quote
+            }
+        }
+        return sb;
+    }
+
+    /**
+     * Gets the resolved entity ID of the row from the
+     * <code>RESOLVED_ENTITY_ID</code> column.
+     *
+     * @return The resolved entity ID.
+     *
+     * @throws IllegalStateException If the column is not projected.
+     *
+     * @throws NumberFormatException If the value is not a valid entity ID.
+     *
+     * @since 4.4.0
+     */
+    public long getEntityId() throws IllegalStateException, NumberFormatException {
+        return this.getLong(this.decoder.requireColumn(
+            SzCsvExportDecoder.RESOLVED_ENTITY_ID, this.decoder.entityIdColumn));
+    }
+
+    /**
+     * Gets the related entity ID of the row from the
+     * <code>RELATED_ENTITY_ID</code> column, which is zero (0) for the rows
+     * describing the records of the resolved entity itself.
+     *
+     * @return The related entity ID, or zero (0) if none.
+     *
+     * @throws IllegalStateException If the column is not projected.
+     *
+     * @throws NumberFormatException If the value is not a valid entity ID.
+     *
+     * @since 4.4.0
+     */
+    public long getRelatedEntityId() throws IllegalStateException, NumberFormatException {
+        return this.getLong(this.decoder.requireColumn(
+            SzCsvExportDecoder.RELATED_ENTITY_ID, this.decoder.relatedEntityIdColumn));
+    }
+
+    /**
+     * Gets the match level of the row from the <code>MATCH_LEVEL</code>
+     * column.
+     *
+     * @return The match level, or zero (0) if empty.
+     *
+     * @throws IllegalStateException If the column is not projected.
+     *
+     * @throws NumberFormatException If the value is not a valid match level.
+     *
+     * @since 4.4.0
+     */
+    public int getMatchLevel() throws IllegalStateException, NumberFormatException {
+        return this.getInt(this.decoder.requireColumn(
+            SzCsvExportDecoder.MATCH_LEVEL, this.decoder.matchLevelColumn));
+    }
+
+    /**
+     * Gets the {@linkplain #getInterned(int) interned} data source code of
+     * the row from the <code>DATA_SOURCE</code> column.
+     *
+     * @return The interned data source code.
+     *
+     * @throws IllegalStateException If the column is not projected.
+     *
+     * @since 4.4.0
+     */
+    public String getDataSource() throws IllegalStateException {
+        return this.getInterned(this.decoder.requireColumn(
+            SzCsvExportDecoder.DATA_SOURCE, this.decoder.dataSourceColumn));
+    }
+
+    /**
+     * Gets the {@linkplain #getInterned(int) interned} match key of the row
+     * from the <code>MATCH_KEY</code> column.
+     *
+     * @return The interned match key.
+     *
+     * @throws IllegalStateException If the column is not projected.
+     *
+     * @since 4.4.0
+     */
+    public String getMatchKey() throws IllegalStateException {
+        return this.getInterned(this.decoder.requireColumn(
+            SzCsvExportDecoder.MATCH_KEY, this.decoder.matchKeyColumn));
+    }
+
+    /**
+     * Gets the record ID of the row from the <code>RECORD_ID</code> column
+     * as a newly allocated {@link String}.
+     *
+     * @return The record ID.
+     *
+     * @throws IllegalStateException If the column is not projected.
+     *
+     * @see #getString(int)
+     *
+     * @since 4.4.0
+     */
+    public String getRecordId() throws IllegalStateException {
+        return this.getString(this.decoder.requireColumn(
+            SzCsvExportDecoder.RECORD_ID, this.decoder.recordIdColumn));
+    }
+
+    /**
+     * Creates the {@link NumberFormatException} for the value of the
+     * specified column.
+     *
+     * @param column The zero-based index of the projected column.
+     *
+     * @return The {@link NumberFormatException}.
+     */
+    private NumberFormatException numberFormatException(int column) {
+        return new NumberFormatException(
+            "Invalid " + this.decoder.getColumnNames().get(column) + " value in row "
+            + this.rowNumber + ": " + this.getString(column));
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("SzCsvExportRow{ rowNumber=[ ");
+        sb.append(this.rowNumber).append(" ]");
+        for (int column = 0; column < this.starts.length; column++) {
+            sb.append(", ").append(this.decoder.getColumnNames().get(column)).append("=[ ");
+            this.appendValue(column, sb).append(" ]");
+        }
+        return sb.append(" }").toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.senzing.sdk.export;
+
+/**
+ * Enumerates the compression formats with which the {@link SzExportWriter}
+ * can write the export files.
+ *
+ * @since 4.4.0
+ */
+public enum SzExportCompression {
+    /**
+     * The export files are written uncompressed.
+     *
+     * @since 4.4.0
+     */
+    NONE(""),
+
+    /**
+     * The export files are written in the gzip format (RFC 1952) with the
+     * <code>".gz"</code> file extension, readable by <code>gunzip</code>
+     * and {@link java.util.zip.GZIPInputStream}.
+     *
+     * @since 4.4.0
+     */
+    GZIP(".gz"),
+
+    /**
+     * The export files are written as a deflate stream in the zlib format
+     * (RFC 1950) with the <code>".zz"</code> file extension, readable by
+     * <code>pigz -dz</code> and {@link java.util.zip.InflaterInputStream}.
+     *
+     * @since 4.4.0
+     */
+    DEFLATE(".zz");
+
+    /**
+     * The file extension for the compression format.
+     */
+    private final String fileExtension;
+
+    /**
+     * Constructs with the file extension.
+     *
+     * @param fileExtension The file extension for the compression format.
+     */
+    SzExportCompression(String fileExtension) {
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * Gets the file extension (including the leading period) that is
+     * appended to the names of the files written in this compression
+     * format.  This is an empty {@link String} for {@link #NONE}.
+     *
+     * @return The file extension for the compression format.
+     *
+     * @since 4.4.0
+     */
+    public String getFileExtension() {
+        return this.fileExtension;
+    }
+}
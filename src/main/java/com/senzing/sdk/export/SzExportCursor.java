@@ -0,0 +1,728 @@
+package com.senzing.sdk.export;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.senzing.sdk.SzEngine;
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzFlag;
+
+import static com.senzing.sdk.SzFlag.SZ_EXPORT_DEFAULT_FLAGS;
+
+/**
+ * Provides an {@link AutoCloseable} cursor over an entity export report that
+ * manages the export handle.  The export is started when the cursor is
+ * {@linkplain Builder#build() built} and a background fetcher thread
+ * repeatedly {@linkplain SzEngine#fetchNext(long) fetches} the export
+ * chunks ahead into a bounded queue of the {@linkplain
+ * Builder#prefetchDepth(int) prefetch depth}, so that fetching the next
+ * chunk overlaps with the downstream processing of the previous ones.
+ *
+ * <p>
+ * An export chunk may contain any number of lines, including a partial
+ * line that is completed by the next chunk, so the chunks are split into
+ * complete lines (without their line terminators) that are returned by
+ * {@link #nextLine()} or as a {@link Stream} by {@link #lines()}.  If the
+ * export is a {@linkplain Builder#csvColumnList(String) CSV export} then
+ * the first line is the CSV header.  Empty lines are skipped.
+ * </p>
+ *
+ * <p>
+ * {@linkplain #close() Closing} the cursor (or the {@link Stream} returned
+ * by {@link #lines()}) stops the fetcher and {@linkplain
+ * SzEngine#closeExportReport(long) closes} the export handle, whether or
+ * not the export was read to the end, so using the cursor in a
+ * try-with-resources block ensures the native resources of the export are
+ * never leaked.
+ * </p>
+ *
+ * <p>
+ * <b>NOTE:</b> The lines of a cursor must be consumed by one thread at a
+ * time, though the cursor may be closed from any thread.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzExportCursor implements AutoCloseable {
+    /**
+     * The default number of export chunks that the fetcher gets ahead of
+     * the consumer.
+     */
+    public static final int DEFAULT_PREFETCH_DEPTH = 4;
+
+    /**
+     * The number of milliseconds a thread waits on the prefetch queue
+     * before checking if it should stop.
+     */
+    private static final long QUEUE_WAIT_MILLIS = 50L;
+
+    /**
+     * The number of nanoseconds in a millisecond.
+     */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * The {@link System.Logger} for logging an interrupted fetcher.
+     */
+    private static final Logger LOGGER = System.getLogger(SzExportCursor.class.getName());
+
+    /**
+     * Provides a builder class for creating instances of {@link
+     * SzExportCursor}.
+     *
+     * @since 4.4.0
+     */
+    public static final class Builder {
+        /**
+         * The {@link SzEngine} for the export.
+         */
+        private SzEngine engine = null;
+
+        /**
+         * The {@link Set} of {@link SzFlag} instances for the export.
+         */
+        private Set<SzFlag> flags = SZ_EXPORT_DEFAULT_FLAGS;
+
+        /**
+         * The CSV column list, or <code>null</code> for a JSON export.
+         */
+        private String csvColumnList = null;
+
+        /**
+         * The number of chunks to fetch ahead.
+         */
+        private int prefetchDepth = DEFAULT_PREFETCH_DEPTH;
+
+        /**
+         * Private default constructor.
+         */
+        private Builder() {
+            // do nothing
+        }
+
+        /**
+         * Sets the {@link SzEngine} with which to export.  This is required.
+         *
+         * @param engine The {@link SzEngine} to use.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder engine(SzEngine engine) throws NullPointerException {
+            this.engine = Objects.requireNonNull(engine, "The engine cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the {@link Set} of {@link SzFlag} instances for the export.
+         * The default is {@link SzFlag#SZ_EXPORT_DEFAULT_FLAGS}.
+         *
+         * @param flags The {@link Set} of {@link SzFlag} instances, or
+         *              <code>null</code> for no flags.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder flags(Set<SzFlag> flags) {
+            this.flags = flags;
+            return this;
+        }
+
+        /**
+         * Sets the CSV column list for a {@linkplain
+         * SzEngine#exportCsvEntityReport(String, Set) CSV export}.  The
+         * default is <code>null</code>, in which case the export is a
+         * {@linkplain SzEngine#exportJsonEntityReport(Set) JSON export}.
+         *
+         * @param csvColumnList The CSV column list as described for {@link
+         *                      SzEngine#exportCsvEntityReport(String, Set)},
+         *                      or <code>null</code> for a JSON export.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder csvColumnList(String csvColumnList) {
+            this.csvColumnList = csvColumnList;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of export chunks that the fetcher gets
+         * ahead of the consumer.  The default is {@link
+         * #DEFAULT_PREFETCH_DEPTH}.
+         *
+         * @param depth The positive capacity of the prefetch queue.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified depth is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder prefetchDepth(int depth) throws IllegalArgumentException {
+            if (depth <= 0) {
+                throw new IllegalArgumentException(
+                    "The prefetch depth must be positive: " + depth);
+            }
+            this.prefetchDepth = depth;
+            return this;
+        }
+
+        /**
+         * Starts the export and builds a new {@link SzExportCursor} over
+         * it, which starts fetching the export chunks.
+         *
+         * @return The newly constructed {@link SzExportCursor}.
+         *
+         * @throws IllegalStateException If the engine has not been set.
+         *
+         * @throws SzException If the export could not be started.
+         *
+         * @since 4.4.0
+         */
+        public SzExportCursor build() throws IllegalStateException, SzException {
+            if (this.engine == null) {
+                throw new IllegalStateException("The engine is required");
+            }
+            return new SzExportCursor(this);
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for building an {@link SzExportCursor}.
+     *
+     * @return The new {@link Builder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * The {@link SzEngine} for the export.
+     */
+    private final SzEngine engine;
+
+    /**
+     * The {@link Set} of {@link SzFlag} instances for the export.
+     */
+    private final Set<SzFlag> flags;
+
+    /**
+     * The CSV column list, or <code>null</code> for a JSON export.
+     */
+    private final String csvColumnList;
+
+    /**
+     * The number of chunks to fetch ahead.
+     */
+    private final int prefetchDepth;
+
+    /**
+     * The export handle.
+     */
+    private final long exportHandle;
+
+    /**
+     * The bounded {@link BlockingQueue} of chunks that have been fetched
+     * but not yet consumed.
+     */
+    private final BlockingQueue<String> prefetchQueue;
+
+    /**
+     * The fetcher thread.
+     */
+    private final Thread fetcher;
+
+    /**
+     * Whether or not the fetcher may still add chunks to the prefetch
+     * queue.
+     */
+    private volatile boolean fetching = true;
+
+    /**
+     * Whether or not this instance has been closed.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Whether or not the export handle has been closed (guarded by {@link
+     * #monitor}).
+     */
+    private boolean handleClosed = false;
+
+    /**
+     * The failure that stopped the fetcher, if any.
+     */
+    private volatile SzException failure = null;
+
+    /**
+     * Whether or not the consumer has reached the end of the export.
+     */
+    private boolean exhausted = false;
+
+    /**
+     * The chunk currently being split into lines, or <code>null</code> if
+     * none.
+     */
+    private String chunk = null;
+
+    /**
+     * The index of the next character of the current chunk to split.
+     */
+    private int chunkIndex = 0;
+
+    /**
+     * The partial line carried over from the previous chunks.
+     */
+    private final StringBuilder carry = new StringBuilder();
+
+    /**
+     * The number of chunks that were fetched.
+     */
+    private final LongAdder chunkCount = new LongAdder();
+
+    /**
+     * The number of lines that were returned.
+     */
+    private long lineCount = 0L;
+
+    /**
+     * The total nanoseconds spent fetching chunks.
+     */
+    private final LongAdder fetchNanos = new LongAdder();
+
+    /**
+     * The total nanoseconds the consumer spent waiting for chunks.
+     */
+    private final LongAdder waitNanos = new LongAdder();
+
+    /**
+     * Internal object for instance-wide synchronized locking.
+     */
+    private final Object monitor = new Object();
+
+    /**
+     * Private constructor for constructing with a {@link Builder}, which
+     * starts the export and the fetcher thread.
+     *
+     * @param builder The {@link Builder} from which to construct.
+     *
+     * @throws SzException If the export could not be started.
+     */
+    private SzExportCursor(Builder builder) throws SzException {
+        this.engine         = builder.engine;
+        this.flags          = builder.flags;
+        this.csvColumnList  = builder.csvColumnList;
+        this.prefetchDepth  = builder.prefetchDepth;
+        this.prefetchQueue  = new ArrayBlockingQueue<>(this.prefetchDepth);
+        this.exportHandle   = (this.csvColumnList == null)
+            ? this.engine.exportJsonEntityReport(this.flags)
+            : this.engine.exportCsvEntityReport(this.csvColumnList, this.flags);
+        this.fetcher        = new Thread(this::fetch, "SzExportCursor-fetcher");
+        this.fetcher.setDaemon(true);
+        this.fetcher.start();
+    }
+
+    /**
+     * Gets the {@link SzEngine} for the export.
+     *
+     * @return The {@link SzEngine} for the export.
+     *
+     * @since 4.4.0
+     */
+    public SzEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * Gets the {@link Set} of {@link SzFlag} instances for the export.
+     *
+     * @return The {@link Set} of {@link SzFlag} instances, or
+     *         <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public Set<SzFlag> getFlags() {
+        return this.flags;
+    }
+
+    /**
+     * Gets the CSV column list for a CSV export.
+     *
+     * @return The CSV column list, or <code>null</code> for a JSON export.
+     *
+     * @since 4.4.0
+     */
+    public String getCsvColumnList() {
+        return this.csvColumnList;
+    }
+
+    /**
+     * Checks if the export is a CSV export, in which case the first line
+     * is the CSV header.
+     *
+     * @return <code>true</code> if a CSV export, or <code>false</code> if
+     *         a JSON export.
+     *
+     * @since 4.4.0
+     */
+    public boolean isCsv() {
+        return this.csvColumnList != null;
+    }
+
+    /**
+     * Gets the maximum number of export chunks that the fetcher gets ahead
+     * of the consumer.
+     *
+     * @return The capacity of the prefetch queue.
+     *
+     * @since 4.4.0
+     */
+    public int getPrefetchDepth() {
+        return this.prefetchDepth;
+    }
+
+    /**
+     * Gets the number of export chunks that have been fetched.
+     *
+     * @return The number of export chunks that have been fetched.
+     *
+     * @since 4.4.0
+     */
+    public long getChunkCount() {
+        return this.chunkCount.sum();
+    }
+
+    /**
+     * Gets the number of lines that have been returned to the consumer.
+     *
+     * @return The number of lines that have been returned.
+     *
+     * @since 4.4.0
+     */
+    public long getLineCount() {
+        return this.lineCount;
+    }
+
+    /**
+     * Gets the total number of milliseconds the fetcher has spent in
+     * {@link SzEngine#fetchNext(long)}.
+     *
+     * @return The total fetch time in milliseconds.
+     *
+     * @since 4.4.0
+     */
+    public long getFetchMillis() {
+        return this.fetchNanos.sum() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Gets the total number of milliseconds the consumer has spent waiting
+     * for the fetcher.  A low wait time relative to the {@linkplain
+     * #getFetchMillis() fetch time} indicates that fetching is overlapped
+     * with the downstream processing.
+     *
+     * @return The total consumer wait time in milliseconds.
+     *
+     * @since 4.4.0
+     */
+    public long getWaitMillis() {
+        return this.waitNanos.sum() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Gets the next complete line of the export, without its line
+     * terminator.
+     *
+     * @return The next line of the export, or <code>null</code> if the end
+     *         of the export has been reached.
+     *
+     * @throws IllegalStateException If this instance has been closed.
+     *
+     * @throws SzException If the export chunks could not be fetched.
+     *
+     * @since 4.4.0
+     */
+    public String nextLine() throws IllegalStateException, SzException {
+        while (true) {
+            if (this.chunk == null) {
+                this.chunk = this.nextChunk();
+                this.chunkIndex = 0;
+                if (this.chunk == null) {
+                    // the final line may not be terminated
+                    String line = this.takeCarry();
+                    if (line != null) {
+                        this.lineCount++;
+                    }
+                    return line;
+                }
+            }
+            int end = this.chunk.indexOf('\n', this.chunkIndex);
+            if (end < 0) {
+                // carry the partial line over to the next chunk
+                this.carry.append(this.chunk, this.chunkIndex, this.chunk.length());
+                this.chunk = null;
+                continue;
+            }
+            int start = this.chunkIndex;
+            this.chunkIndex = end + 1;
+            String line;
+            if (this.carry.length() == 0) {
+                if (end > start && this.chunk.charAt(end - 1) == '\r') {
+                    end--;
+                }
+                line = this.chunk.substring(start, end);
+            } else {
+                this.carry.append(this.chunk, start, end);
+                line = this.takeCarry();
+            }
+            if (line != null && !line.isEmpty()) {
+                this.lineCount++;
+                return line;
+            }
+        }
+    }
+
+    /**
+     * Returns a sequential {@link Stream} of the remaining lines of the
+     * export, which closes this instance when it is closed.  A failure to
+     * fetch the export chunks is thrown from the terminal operation of the
+     * stream as an {@link SzExportException}.
+     *
+     * @return The {@link Stream} of the remaining lines.
+     *
+     * @since 4.4.0
+     */
+    public Stream<String> lines() {
+        Iterator<String> iter = new Iterator<>() {
+            private String next = null;
+
+            @Override
+            public boolean hasNext() {
+                if (this.next == null) {
+                    try {
+                        this.next = SzExportCursor.this.nextLine();
+                    } catch (SzException e) {
+                        throw new SzExportException(e);
+                    }
+                }
+                return this.next != null;
+            }
+
+            @Override
+            public String next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String line = this.next;
+                this.next = null;
+                return line;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+            iter, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(() -> {
+                try {
+                    this.close();
+                } catch (SzException e) {
+                    throw new SzExportException(e);
+                }
+            });
+    }
+
+    /**
+     * Gets the next export chunk from the prefetch queue, waiting for the
+     * fetcher if necessary.
+     *
+     * @return The next export chunk, or <code>null</code> if the end of the
+     *         export has been reached.
+     *
+     * @throws IllegalStateException If this instance has been closed.
+     *
+     * @throws SzException If the export chunks could not be fetched.
+     */
+    String nextChunk() throws IllegalStateException, SzException {
+        if (this.closed) {
+            throw new IllegalStateException("Already closed");
+        }
+        if (this.exhausted) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            while (true) {
+                // check if fetching before polling so no chunk is missed
+                boolean done = !this.fetching;
+                String next = this.prefetchQueue.poll(QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                if (next != null) {
+                    return next;
+                }
+                if (done) {
+                    this.exhausted = true;
+                    if (this.failure != null) {
+                        throw this.failure;
+                    }
+                    return null;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SzException("Interrupted while waiting for the export", e);
+        } finally {
+            this.waitNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Stops the fetcher and closes the export handle.  This method is
+     * idempotent.
+     *
+     * @throws SzException If the export handle could not be closed.
+     *
+     * @since 4.4.0
+     */
+    @Override
+    public void close() throws SzException {
+        this.closed = true;
+        boolean interrupted = false;
+        while (this.fetcher.isAlive()) {
+            try {
+                this.fetcher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        try {
+            synchronized (this.monitor) {
+                if (this.handleClosed) {
+                    return;
+                }
+                this.handleClosed = true;
+            }
+            this.engine.closeExportReport(this.exportHandle);
+        } finally {
+            this.prefetchQueue.clear();
+            this.chunk = null;
+            this.carry.setLength(0);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * The main loop of the fetcher thread, which fetches the export chunks
+     * into the prefetch queue until the end of the export, a failure or
+     * this instance is closed.
+     */
+    private void fetch() {
+        try {
+            while (!this.closed) {
+                String next;
+                long start = System.nanoTime();
+                try {
+                    next = this.engine.fetchNext(this.exportHandle);
+                } finally {
+                    this.fetchNanos.add(System.nanoTime() - start);
+                }
+                if (next == null) {
+                    break;
+                }
+                this.chunkCount.increment();
+                if (!this.handOff(next)) {
+                    return;
+                }
+            }
+        } catch (SzException e) {
+            this.failure = e;
+
+        } catch (RuntimeException e) {
+            this.failure = new SzException("Failed to fetch the export", e);
+
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.WARNING, "Export fetcher interrupted", e);
+            this.failure = new SzException("Export fetcher interrupted", e);
+            Thread.currentThread().interrupt();
+
+        } finally {
+            this.fetching = false;
+        }
+    }
+
+    /**
+     * Adds the specified chunk to the prefetch queue, waiting for space as
+     * long as this instance has not been closed.
+     *
+     * @param next The chunk to add.
+     *
+     * @return <code>true</code> if added, or <code>false</code> if this
+     *         instance has been closed.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private boolean handOff(String next) throws InterruptedException {
+        while (!this.prefetchQueue.offer(next, QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (this.closed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes the partial line carried over from previous chunks, without
+     * any trailing carriage return.
+     *
+     * @return The carried over text, or <code>null</code> if none.
+     */
+    private String takeCarry() {
+        int length = this.carry.length();
+        if (length > 0 && this.carry.charAt(length - 1) == '\r') {
+            length--;
+        }
+        if (length == 0) {
+            this.carry.setLength(0);
+            return null;
+        }
+        String line = this.carry.substring(0, length);
+        this.carry.setLength(0);
+        return line;
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzExportCursor{ flags=[ " + SzFlag.toString(this.flags)
+            + " ], csvColumnList=[ " + this.csvColumnList
+            + " ], prefetchDepth=[ " + this.prefetchDepth
+            + " ], chunkCount=[ " + this.getChunkCount()
+            + " ], lineCount=[ " + this.lineCount
+            + " ], fetchMillis=[ " + this.getFetchMillis()
+            + " ], waitMillis=[ " + this.getWaitMillis() + " ] }";
+    }
+}
@@ -0,0 +1,58 @@
+package com.senzing.sdk.export;
+
+import java.util.Objects;
+
+import com.senzing.sdk.SzException;
+
+/**
+ * Wraps an {@link SzException} with an unchecked exception so that it can
+ * be thrown from a {@link java.util.stream.Stream} or {@link
+ * java.util.Iterator} of exported lines, in the same manner as {@link
+ * java.io.UncheckedIOException} wraps an {@link java.io.IOException}.
+ *
+ * @since 4.4.0
+ */
+public class SzExportException extends RuntimeException {
+    /**
+     * Constructs with the specified {@link SzException} cause.
+     *
+     * @param cause The {@link SzException} that is wrapped.
+     *
+     * @throws NullPointerException If the specified cause is
+     *                              <code>null</code>.
+     *
+     * @since 4.4.0
+     */
+    public SzExportException(SzException cause) throws NullPointerException {
+        super(Objects.requireNonNull(cause, "The cause cannot be null"));
+    }
+
+    /**
+     * Constructs with the specified message and {@link SzException} cause.
+     *
+     * @param message The message describing the failure.
+     * @param cause The {@link SzException} that is wrapped.
+     *
+     * @throws NullPointerException If the specified cause is
+     *                              <code>null</code>.
+     *
+     * @since 4.4.0
+     */
+    public SzExportException(String message, SzException cause)
+        throws NullPointerException
+    {
+        super(message, Objects.requireNonNull(cause, "The cause cannot be null"));
+    }
+
+    /**
+     * Gets the wrapped {@link SzException}.
+     *
+     * @return The wrapped {@link SzException}.
+     *
+     * @since 4.4.0
+     */
+    @Override
+    public synchronized SzException getCause() {
+        return (SzException) super.getCause();
+    }
+}
@@ -0,0 +1,182 @@
+package com.senzing.sdk.export;
+
+import java.nio.file.Path;
+
+import static com.senzing.sdk.core.SzCoreUtilities.jsonEscape;
+
+/**
+ * Describes a single file written by an {@link SzExportWriter} as listed
+ * in the {@link SzExportManifest}.
+ *
+ * @since 4.4.0
+ */
+public final class SzExportFile {
+    /**
+     * The {@link Path} of the file.
+     */
+    private final Path path;
+
+    /**
+     * The number of entities in the file.
+     */
+    private final long entityCount;
+
+    /**
+     * The number of exported lines in the file, excluding any CSV header.
+     */
+    private final long lineCount;
+
+    /**
+     * The number of uncompressed bytes written to the file.
+     */
+    private final long byteCount;
+
+    /**
+     * The size of the file in bytes.
+     */
+    private final long fileByteCount;
+
+    /**
+     * The hex-encoded SHA-256 digest of the file.
+     */
+    private final String sha256;
+
+    /**
+     * Constructs with the specified parameters.
+     *
+     * @param path The {@link Path} of the file.
+     * @param entityCount The number of entities in the file.
+     * @param lineCount The number of exported lines in the file, excluding
+     *                  any CSV header.
+     * @param byteCount The number of uncompressed bytes.
+     * @param fileByteCount The size of the file in bytes.
+     * @param sha256 The hex-encoded SHA-256 digest of the file.
+     */
+    SzExportFile(Path   path,
+                 long   entityCount,
+                 long   lineCount,
+                 long   byteCount,
+                 long   fileByteCount,
+                 String sha256)
+    {
+        this.path           = path;
+        this.entityCount    = entityCount;
+        this.lineCount      = lineCount;
+        this.byteCount      = byteCount;
+        this.fileByteCount  = fileByteCount;
+        this.sha256         = sha256;
+    }
+
+    /**
+     * Gets the {@link Path} of the file.
+     *
+     * @return The {@link Path} of the file.
+     *
+     * @since 4.4.0
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Gets the number of entities in the file.  An entity is never split
+     * across files.
+     *
+     * @return The number of entities in the file.
+     *
+     * @since 4.4.0
+     */
+    public long getEntityCount() {
+        return this.entityCount;
+    }
+
+    /**
+     * Gets the number of exported lines in the file, excluding any CSV
+     * header.  For a JSON export this is the same as the {@linkplain
+     * #getEntityCount() entity count}.
+     *
+     * @return The number of exported lines in the file.
+     *
+     * @since 4.4.0
+     */
+    public long getLineCount() {
+        return this.lineCount;
+    }
+
+    /**
+     * Gets the number of uncompressed bytes that were written to the file,
+     * including line terminators and any CSV header.
+     *
+     * @return The number of uncompressed bytes.
+     *
+     * @since 4.4.0
+     */
+    public long getByteCount() {
+        return this.byteCount;
+    }
+
+    /**
+     * Gets the size of the file in bytes, which is less than the
+     * {@linkplain #getByteCount() uncompressed byte count} if the file is
+     * compressed.
+     *
+     * @return The size of the file in bytes.
+     *
+     * @since 4.4.0
+     */
+    public long getFileByteCount() {
+        return this.fileByteCount;
+    }
+
+    /**
+     * Gets the lower-case hex-encoded SHA-256 digest of the file contents
+     * (as written, i.e.: after compression).
+     *
+     * @return The hex-encoded SHA-256 digest of the file.
+     *
+     * @since 4.4.0
+     */
+    public String getSha256() {
+        return this.sha256;
+    }
+
+    /**
+     * Appends the JSON representation of this instance to the specified
+     * {@link StringBuilder}.  The name of the file is included rather than
+     * its full path since the files reside in the same directory as the
+     * manifest.
+     *
+     * @param sb The {@link StringBuilder} to append to.
+     *
+     * @return The specified {@link StringBuilder}.
+     *
+     * @since 4.4.0
+     */
+    public StringBuilder appendJson(StringBuilder sb) {
+        sb.append("{\"FILE_NAME\":");
+        jsonEscape(this.path.getFileName().toString(), sb);
+        sb.append(",\"ENTITY_COUNT\":").append(this.entityCount);
+        sb.append(",\"LINE_COUNT\":").append(this.lineCount);
+        sb.append(",\"BYTE_COUNT\":").append(this.byteCount);
+        sb.append(",\"FILE_BYTE_COUNT\":").append(this.fileByteCount);
+        sb.append(",\"SHA256\":");
+        jsonEscape(this.sha256, sb);
+        sb.append('}');
+        return sb;
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzExportFile{ path=[ " + this.path
+            + " ], entityCount=[ " + this.entityCount
+            + " ], lineCount=[ " + this.lineCount
+            + " ], byteCount=[ " + this.byteCount
+            + " ], fileByteCount=[ " + this.fileByteCount
+            + " ], sha256=[ " + this.sha256 + " ] }";
+    }
+}
@@ -0,0 +1,318 @@
+package com.senzing.sdk.export;
+
+import java.util.List;
+import java.util.Set;
+
+import com.senzing.sdk.SzFlag;
+
+import static com.senzing.sdk.core.SzCoreUtilities.jsonEscape;
+
+/**
+ * Describes a completed {@linkplain SzExportWriter#write(java.nio.file.Path)
+ * export} and the files that were written for it.  The JSON representation
+ * of this instance is written to the export directory as the final step of
+ * a successful export, so the presence of the manifest file indicates that
+ * the files it lists are complete.
+ *
+ * @since 4.4.0
+ */
+public final class SzExportManifest {
+    /**
+     * The CSV column list, or <code>null</code> for a JSON export.
+     */
+    private final String csvColumnList;
+
+    /**
+     * The {@link Set} of {@link SzFlag} instances for the export.
+     */
+    private final Set<SzFlag> flags;
+
+    /**
+     * The {@link SzExportCompression} of the files.
+     */
+    private final SzExportCompression compression;
+
+    /**
+     * The compression level of the files.
+     */
+    private final int compressionLevel;
+
+    /**
+     * The unmodifiable {@link List} of {@link SzExportFile} instances.
+     */
+    private final List<SzExportFile> files;
+
+    /**
+     * The elapsed time of the export in milliseconds.
+     */
+    private final long elapsedMillis;
+
+    /**
+     * The total number of entities.
+     */
+    private final long entityCount;
+
+    /**
+     * The total number of exported lines.
+     */
+    private final long lineCount;
+
+    /**
+     * The total number of uncompressed bytes.
+     */
+    private final long byteCount;
+
+    /**
+     * The total size of the files in bytes.
+     */
+    private final long fileByteCount;
+
+    /**
+     * Constructs with the specified parameters.
+     *
+     * @param csvColumnList The CSV column list, or <code>null</code> for a
+     *                      JSON export.
+     * @param flags The {@link Set} of {@link SzFlag} instances for the
+     *              export.
+     * @param compression The {@link SzExportCompression} of the files.
+     * @param compressionLevel The compression level of the files.
+     * @param files The {@link List} of {@link SzExportFile} instances in the
+     *              order they were written.
+     * @param elapsedMillis The elapsed time of the export in milliseconds.
+     */
+    SzExportManifest(String              csvColumnList,
+                     Set<SzFlag>         flags,
+                     SzExportCompression compression,
+                     int                 compressionLevel,
+                     List<SzExportFile>  files,
+                     long                elapsedMillis)
+    {
+        this.csvColumnList      = csvColumnList;
+        this.flags              = flags;
+        this.compression        = compression;
+        this.compressionLevel   = compressionLevel;
+        this.files              = List.copyOf(files);
+        this.elapsedMillis      = elapsedMillis;
+
+        long entities   = 0L;
+        long lines      = 0L;
+        long bytes      = 0L;
+        long fileBytes  = 0L;
+        for (SzExportFile file : this.files) {
+            entities    += file.getEntityCount();
+            lines       += file.getLineCount();
+            bytes       += file.getByteCount();
+            fileBytes   += file.getFileByteCount();
+        }
+        this.entityCount    = entities;
+        this.lineCount      = lines;
+        this.byteCount      = bytes;
+        this.fileByteCount  = fileBytes;
+    }
+
+    /**
+     * Checks if the export is a CSV export, in which case each file
+     * begins with the CSV header.
+     *
+     * @return <code>true</code> if a CSV export, or <code>false</code> if
+     *         a JSON export written as newline-delimited JSON.
+     *
+     * @since 4.4.0
+     */
+    public boolean isCsv() {
+        return this.csvColumnList != null;
+    }
+
+    /**
+     * Gets the CSV column list for a CSV export.
+     *
+     * @return The CSV column list, or <code>null</code> for a JSON export.
+     *
+     * @since 4.4.0
+     */
+    public String getCsvColumnList() {
+        return this.csvColumnList;
+    }
+
+    /**
+     * Gets the {@link Set} of {@link SzFlag} instances for the export.
+     *
+     * @return The {@link Set} of {@link SzFlag} instances, or
+     *         <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public Set<SzFlag> getFlags() {
+        return this.flags;
+    }
+
+    /**
+     * Gets the {@link SzExportCompression} with which the files were
+     * written.
+     *
+     * @return The {@link SzExportCompression} of the files.
+     *
+     * @since 4.4.0
+     */
+    public SzExportCompression getCompression() {
+        return this.compression;
+    }
+
+    /**
+     * Gets the compression level with which the files were written.
+     *
+     * @return The compression level of the files.
+     *
+     * @see SzExportWriter.Builder#compressionLevel(int)
+     *
+     * @since 4.4.0
+     */
+    public int getCompressionLevel() {
+        return this.compressionLevel;
+    }
+
+    /**
+     * Gets the unmodifiable {@link List} of {@link SzExportFile} instances
+     * describing the files in the order the entities were exported.  This
+     * is empty if the export contained no entities.
+     *
+     * @return The unmodifiable {@link List} of {@link SzExportFile}
+     *         instances.
+     *
+     * @since 4.4.0
+     */
+    public List<SzExportFile> getFiles() {
+        return this.files;
+    }
+
+    /**
+     * Gets the elapsed time of the export in milliseconds.
+     *
+     * @return The elapsed time of the export in milliseconds.
+     *
+     * @since 4.4.0
+     */
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    /**
+     * Gets the total number of entities across all files.
+     *
+     * @return The total number of entities.
+     *
+     * @since 4.4.0
+     */
+    public long getEntityCount() {
+        return this.entityCount;
+    }
+
+    /**
+     * Gets the total number of exported lines across all files, excluding
+     * the CSV headers.
+     *
+     * @return The total number of exported lines.
+     *
+     * @since 4.4.0
+     */
+    public long getLineCount() {
+        return this.lineCount;
+    }
+
+    /**
+     * Gets the total number of uncompressed bytes across all files.
+     *
+     * @return The total number of uncompressed bytes.
+     *
+     * @since 4.4.0
+     */
+    public long getByteCount() {
+        return this.byteCount;
+    }
+
+    /**
+     * Gets the total size of all files in bytes.
+     *
+     * @return The total size of all files in bytes.
+     *
+     * @since 4.4.0
+     */
+    public long getFileByteCount() {
+        return this.fileByteCount;
+    }
+
+    /**
+     * Appends the JSON representation of this instance to the specified
+     * {@link StringBuilder}.
+     *
+     * @param sb The {@link StringBuilder} to append to.
+     *
+     * @return The specified {@link StringBuilder}.
+     *
+     * @since 4.4.0
+     */
+    public StringBuilder appendJson(StringBuilder sb) {
+        sb.append("{\"FORMAT\":").append(this.isCsv() ? "\"CSV\"" : "\"NDJSON\"");
+        sb.append(",\"CSV_COLUMN_LIST\":");
+        jsonEscape(this.csvColumnList, sb);
+        sb.append(",\"FLAGS\":[");
+        if (this.flags != null) {
+            String prefix = "";
+            for (SzFlag flag : this.flags) {
+                sb.append(prefix);
+                jsonEscape(flag.name(), sb);
+                prefix = ",";
+            }
+        }
+        sb.append("],\"COMPRESSION\":");
+        jsonEscape(this.compression.name(), sb);
+        sb.append(",\"COMPRESSION_LEVEL\":").append(this.compressionLevel);
+        sb.append(",\"ENTITY_COUNT\":").append(this.entityCount);
+        sb.append(",\"LINE_COUNT\":").append(this.lineCount);
+        sb.append(",\"BYTE_COUNT\":").append(this.byteCount);
+        sb.append(",\"FILE_BYTE_COUNT\":").append(this.fileByteCount);
+        sb.append(",\"ELAPSED_MILLIS\":").append(this.elapsedMillis);
+        sb.append(",\"FILES\":[");
+        String prefix = "";
+        for (SzExportFile file : this.files) {
+            sb.append(prefix);
+            file.appendJson(sb);
+            prefix = ",";
+        }
+        sb.append("]}");
+        return sb;
+    }
+
+    /**
+     * Returns the JSON representation of this instance as written to the
+     * manifest file.
+     *
+     * @return The JSON representation of this instance.
+     *
+     * @see #appendJson(StringBuilder)
+     *
+     * @since 4.4.0
+     */
+    public String toJson() {
+        return this.appendJson(new StringBuilder()).toString();
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzExportManifest{ csvColumnList=[ " + this.csvColumnList
+            + " ], flags=[ " + SzFlag.toString(this.flags)
+            + " ], compression=[ " + this.compression
+            + " ], compressionLevel=[ " + this.compressionLevel
+            + " ], fileCount=[ " + this.files.size()
+            + " ], entityCount=[ " + this.entityCount
+            + " ], lineCount=[ " + this.lineCount
+            + " ], byteCount=[ " + this.byteCount
+            + " ], fileByteCount=[ " + this.fileByteCount
+            + " ], elapsedMillis=[ " + this.elapsedMillis + " ] }";
+    }
+}
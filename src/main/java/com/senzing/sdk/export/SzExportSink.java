@@ -0,0 +1,684 @@
+package com.senzing.sdk.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Set;
+
+import com.senzing.sdk.SzEngine;
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzFlag;
+
+import static com.senzing.sdk.SzFlag.SZ_EXPORT_DEFAULT_FLAGS;
+
+/**
+ * Provides a means of writing an entity export straight to a {@link
+ * Writer} or {@link WritableByteChannel} without creating a {@link String}
+ * per exported line.
+ *
+ * <p>
+ * The export chunks are fetched ahead by an {@link SzExportCursor} and the
+ * lines are delimited in place within each chunk: runs of complete and
+ * partial lines are written directly from the chunk, so a line spanning
+ * two chunks is simply written in two pieces.  The output is the exported
+ * lines each terminated by a single line feed, with carriage returns
+ * before line feeds and empty lines removed, which is the same text as the
+ * lines returned by {@link SzExportCursor#nextLine()}.  When writing to a
+ * {@link WritableByteChannel} the chunks are encoded as UTF-8 by a single
+ * reusable {@link CharsetEncoder} into a reusable direct {@link ByteBuffer}
+ * of the {@linkplain Builder#bufferSize(int) buffer size}.
+ * </p>
+ *
+ * <p>
+ * The same instance may be used for any number of exports, including
+ * concurrently from multiple threads since each export uses its own
+ * encoder and buffer.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzExportSink {
+    /**
+     * The default size in bytes of the direct buffer into which the export
+     * is encoded when writing to a {@link WritableByteChannel}.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The minimum size of the encoding buffer, which must hold the longest
+     * UTF-8 encoding of a character.
+     */
+    private static final int MIN_BUFFER_SIZE = 4;
+
+    /**
+     * Provides a builder class for creating instances of {@link
+     * SzExportSink}.
+     *
+     * @since 4.4.0
+     */
+    public static final class Builder {
+        /**
+         * The {@link SzEngine} for the export.
+         */
+        private SzEngine engine = null;
+
+        /**
+         * The {@link Set} of {@link SzFlag} instances for the export.
+         */
+        private Set<SzFlag> flags = SZ_EXPORT_DEFAULT_FLAGS;
+
+        /**
+         * The CSV column list, or <code>null</code> for a JSON export.
+         */
+        private String csvColumnList = null;
+
+        /**
+         * The number of export chunks to fetch ahead.
+         */
+        private int prefetchDepth = SzExportCursor.DEFAULT_PREFETCH_DEPTH;
+
+        /**
+         * The size in bytes of the encoding buffer.
+         */
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+        /**
+         * Private default constructor.
+         */
+        private Builder() {
+            // do nothing
+        }
+
+        /**
+         * Sets the {@link SzEngine} with which to export.  This is required.
+         *
+         * @param engine The {@link SzEngine} to use.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder engine(SzEngine engine) throws NullPointerException {
+            this.engine = Objects.requireNonNull(engine, "The engine cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the {@link Set} of {@link SzFlag} instances for the export.
+         * The default is {@link SzFlag#SZ_EXPORT_DEFAULT_FLAGS}.
+         *
+         * @param flags The {@link Set} of {@link SzFlag} instances, or
+         *              <code>null</code> for no flags.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder flags(Set<SzFlag> flags) {
+            this.flags = flags;
+            return this;
+        }
+
+        /**
+         * Sets the CSV column list for a {@linkplain
+         * SzEngine#exportCsvEntityReport(String, Set) CSV export}.  The
+         * default is <code>null</code>, in which case the export is a
+         * {@linkplain SzEngine#exportJsonEntityReport(Set) JSON export}.
+         *
+         * @param csvColumnList The CSV column list as described for {@link
+         *                      SzEngine#exportCsvEntityReport(String, Set)},
+         *                      or <code>null</code> for a JSON export.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder csvColumnList(String csvColumnList) {
+            this.csvColumnList = csvColumnList;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of export chunks that are fetched ahead.
+         * The default is {@link SzExportCursor#DEFAULT_PREFETCH_DEPTH}.
+         *
+         * @param depth The positive prefetch depth.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified depth is not
+         *                                  positive.
+         *
+         * @see SzExportCursor.Builder#prefetchDepth(int)
+         *
+         * @since 4.4.0
+         */
+        public Builder prefetchDepth(int depth) throws IllegalArgumentException {
+            if (depth <= 0) {
+                throw new IllegalArgumentException(
+                    "The prefetch depth must be positive: " + depth);
+            }
+            this.prefetchDepth = depth;
+            return this;
+        }
+
+        /**
+         * Sets the size in bytes of the direct buffer into which the export
+         * is encoded when writing to a {@link WritableByteChannel}.  The
+         * default is {@link #DEFAULT_BUFFER_SIZE}.
+         *
+         * @param size The buffer size in bytes, which must be at least four
+         *             (4).
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified size is less
+         *                                  than four (4).
+         *
+         * @since 4.4.0
+         */
+        public Builder bufferSize(int size) throws IllegalArgumentException {
+            if (size < MIN_BUFFER_SIZE) {
+                throw new IllegalArgumentException(
+                    "The buffer size must be at least " + MIN_BUFFER_SIZE + ": " + size);
+            }
+            this.bufferSize = size;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link SzExportSink} with the configured options.
+         *
+         * @return The newly constructed {@link SzExportSink}.
+         *
+         * @throws IllegalStateException If the engine has not been set.
+         *
+         * @since 4.4.0
+         */
+        public SzExportSink build() throws IllegalStateException {
+            if (this.engine == null) {
+                throw new IllegalStateException("The engine is required");
+            }
+            return new SzExportSink(this);
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for building an {@link SzExportSink}.
+     *
+     * @return The new {@link Builder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * The {@link SzEngine} for the export.
+     */
+    private final SzEngine engine;
+
+    /**
+     * The {@link Set} of {@link SzFlag} instances for the export.
+     */
+    private final Set<SzFlag> flags;
+
+    /**
+     * The CSV column list, or <code>null</code> for a JSON export.
+     */
+    private final String csvColumnList;
+
+    /**
+     * The number of export chunks to fetch ahead.
+     */
+    private final int prefetchDepth;
+
+    /**
+     * The size in bytes of the encoding buffer.
+     */
+    private final int bufferSize;
+
+    /**
+     * Private constructor for constructing with a {@link Builder}.
+     *
+     * @param builder The {@link Builder} from which to construct.
+     */
+    private SzExportSink(Builder builder) {
+        this.engine         = builder.engine;
+        this.flags          = builder.flags;
+        this.csvColumnList  = builder.csvColumnList;
+        this.prefetchDepth  = builder.prefetchDepth;
+        this.bufferSize     = builder.bufferSize;
+    }
+
+    /**
+     * Gets the {@link SzEngine} with which to export.
+     *
+     * @return The {@link SzEngine} with which to export.
+     *
+     * @since 4.4.0
+     */
+    public SzEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * Gets the {@link Set} of {@link SzFlag} instances for the export.
+     *
+     * @return The {@link Set} of {@link SzFlag} instances, or
+     *         <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public Set<SzFlag> getFlags() {
+        return this.flags;
+    }
+
+    /**
+     * Gets the CSV column list for a CSV export.
+     *
+     * @return The CSV column list, or <code>null</code> for a JSON export.
+     *
+     * @since 4.4.0
+     */
+    public String getCsvColumnList() {
+        return this.csvColumnList;
+    }
+
+    /**
+     * Gets the maximum number of export chunks that are fetched ahead.
+     *
+     * @return The prefetch depth.
+     *
+     * @since 4.4.0
+     */
+    public int getPrefetchDepth() {
+        return this.prefetchDepth;
+    }
+
+    /**
+     * Gets the size in bytes of the direct buffer into which the export is
+     * encoded when writing to a {@link WritableByteChannel}.
+     *
+     * @return The buffer size in bytes.
+     *
+     * @since 4.4.0
+     */
+    public int getBufferSize() {
+        return this.bufferSize;
+    }
+
+    /**
+     * Exports the entities to the specified {@link Writer}, writing the
+     * runs of lines directly from the export chunks.  The {@link Writer}
+     * is flushed but not closed.
+     *
+     * @param writer The non-null {@link Writer} to write to.
+     *
+     * @return The number of lines written, including the CSV header (if
+     *         any).
+     *
+     * @throws NullPointerException If the specified {@link Writer} is
+     *                              <code>null</code>.
+     *
+     * @throws IOException If a failure occurs writing.
+     *
+     * @throws SzException If the export could not be started or fetched.
+     *
+     * @since 4.4.0
+     */
+    public long writeTo(Writer writer)
+        throws NullPointerException, IOException, SzException
+    {
+        Objects.requireNonNull(writer, "The writer cannot be null");
+        long lineCount = this.export(new WriterOutput(writer));
+        writer.flush();
+        return lineCount;
+    }
+
+    /**
+     * Exports the entities to the specified blocking {@link
+     * WritableByteChannel} as UTF-8, encoding the runs of lines directly
+     * from the export chunks into a reusable direct buffer.  The channel
+     * is not closed.
+     *
+     * @param channel The non-null blocking {@link WritableByteChannel} to
+     *                write to.
+     *
+     * @return The number of lines written, including the CSV header (if
+     *         any).
+     *
+     * @throws NullPointerException If the specified channel is
+     *                              <code>null</code>.
+     *
+     * @throws IOException If a failure occurs writing.
+     *
+     * @throws SzException If the export could not be started or fetched.
+     *
+     * @since 4.4.0
+     */
+    public long writeTo(WritableByteChannel channel)
+        throws NullPointerException, IOException, SzException
+    {
+        Objects.requireNonNull(channel, "The channel cannot be null");
+        ChannelOutput output = new ChannelOutput(channel, this.bufferSize);
+        long lineCount = this.export(output);
+        output.finish();
+        return lineCount;
+    }
+
+    /**
+     * Performs the export, writing the chunks to the specified {@link
+     * Output}.
+     *
+     * @param output The {@link Output} to write to.
+     *
+     * @return The number of lines written.
+     *
+     * @throws IOException If a failure occurs writing.
+     *
+     * @throws SzException If the export could not be started or fetched.
+     */
+    private long export(Output output) throws IOException, SzException {
+        LineSplitter splitter = new LineSplitter(output);
+        try (SzExportCursor cursor = SzExportCursor.newBuilder()
+                .engine(this.engine)
+                .flags(this.flags)
+                .csvColumnList(this.csvColumnList)
+                .prefetchDepth(this.prefetchDepth)
+                .build())
+        {
+            for (String chunk = cursor.nextChunk(); chunk != null; chunk = cursor.nextChunk()) {
+                splitter.write(chunk);
+            }
+        }
+        splitter.finish();
+        return splitter.lineCount;
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzExportSink{ flags=[ " + SzFlag.toString(this.flags)
+            + " ], csvColumnList=[ " + this.csvColumnList
+            + " ], prefetchDepth=[ " + this.prefetchDepth
+            + " ], bufferSize=[ " + this.bufferSize + " ] }";
+    }
+
+    /**
+     * The destination to which the runs of characters are written.
+     */
+    private interface Output {
+        /**
+         * Writes the characters of the specified {@link String} in the
+         * specified range.
+         *
+         * @param text The {@link String} containing the characters.
+         * @param start The starting index (inclusive) of the characters.
+         * @param end The ending index (exclusive) of the characters.
+         *
+         * @throws IOException If a failure occurs writing.
+         */
+        void write(String text, int start, int end) throws IOException;
+    }
+
+    /**
+     * Provides an {@link Output} that writes to a {@link Writer}.
+     */
+    private static final class WriterOutput implements Output {
+        /**
+         * The {@link Writer} to write to.
+         */
+        private final Writer writer;
+
+        /**
+         * Constructs with the {@link Writer} to write to.
+         *
+         * @param writer The {@link Writer} to write to.
+         */
+        private WriterOutput(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(String text, int start, int end) throws IOException {
+            this.writer.write(text, start, end - start);
+        }
+    }
+
+    /**
+     * Provides an {@link Output} that encodes to UTF-8 into a direct
+     * {@link ByteBuffer} which is written to a {@link WritableByteChannel}
+     * whenever it fills.
+     */
+    private static final class ChannelOutput implements Output {
+        /**
+         * The {@link WritableByteChannel} to write to.
+         */
+        private final WritableByteChannel channel;
+
+        /**
+         * The reusable UTF-8 {@link CharsetEncoder}.
+         */
+        private final CharsetEncoder encoder;
+
+        /**
+         * The reusable direct {@link ByteBuffer} for the encoded bytes.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * The {@link CharBuffer} holding a high surrogate left over from
+         * the previous run until its low surrogate is written.
+         */
+        private final CharBuffer leftover = CharBuffer.allocate(2);
+
+        /**
+         * Constructs with the {@link WritableByteChannel} and buffer size.
+         *
+         * @param channel The {@link WritableByteChannel} to write to.
+         * @param bufferSize The size of the direct buffer in bytes.
+         */
+        private ChannelOutput(WritableByteChannel channel, int bufferSize) {
+            this.channel    = channel;
+            this.buffer     = ByteBuffer.allocateDirect(bufferSize);
+            this.encoder    = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.leftover.flip();
+        }
+
+        @Override
+        public void write(String text, int start, int end) throws IOException {
+            int offset = start;
+            while (this.leftover.hasRemaining()) {
+                if (offset == end) {
+                    return;
+                }
+                // complete the surrogate pair split across the runs
+                this.leftover.compact();
+                this.leftover.put(text.charAt(offset++));
+                this.leftover.flip();
+                this.encode(this.leftover, false);
+            }
+            if (offset == end) {
+                return;
+            }
+            CharBuffer chars = CharBuffer.wrap(text, offset, end);
+            this.encode(chars, false);
+            if (chars.hasRemaining()) {
+                this.leftover.clear();
+                this.leftover.put(chars);
+                this.leftover.flip();
+            }
+        }
+
+        /**
+         * Encodes the specified characters into the buffer, draining the
+         * buffer to the channel whenever it fills.
+         *
+         * @param chars The {@link CharBuffer} of characters to encode.
+         * @param endOfInput Whether or not these are the final characters.
+         *
+         * @throws IOException If a failure occurs writing.
+         */
+        private void encode(CharBuffer chars, boolean endOfInput) throws IOException {
+            while (true) {
+                CoderResult result = this.encoder.encode(chars, this.buffer, endOfInput);
+                if (result.isOverflow()) {
+                    this.drain();
+                } else if (result.isUnderflow()) {
+                    return;
+                } else {
+                    result.throwException();
+                }
+            }
+        }
+
+        /**
+         * Writes the encoded bytes in the buffer to the channel and clears
+         * the buffer.
+         *
+         * @throws IOException If a failure occurs writing.
+         */
+        private void drain() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+
+        /**
+         * Encodes any leftover characters, flushes the encoder and writes
+         * the remaining bytes to the channel.
+         *
+         * @throws IOException If a failure occurs writing.
+         */
+        private void finish() throws IOException {
+            this.encode(this.leftover, true);
+            while (this.encoder.flush(this.buffer).isOverflow()) {
+                this.drain();
+            }
+            this.drain();
+        }
+    }
+
+    /**
+     * Delimits the lines of the export chunks in place, writing the runs of
+     * characters between the characters that are removed (carriage returns
+     * before line feeds and the line feeds of empty lines) directly to an
+     * {@link Output}.
+     */
+    private static final class LineSplitter {
+        /**
+         * The {@link Output} to write to.
+         */
+        private final Output output;
+
+        /**
+         * Whether or not the last character written was a line feed (or
+         * nothing has been written).
+         */
+        private boolean atLineStart = true;
+
+        /**
+         * Whether or not the previous chunk ended with a carriage return
+         * that has not been written.
+         */
+        private boolean pendingReturn = false;
+
+        /**
+         * The number of lines written.
+         */
+        private long lineCount = 0L;
+
+        /**
+         * Constructs with the {@link Output} to write to.
+         *
+         * @param output The {@link Output} to write to.
+         */
+        private LineSplitter(Output output) {
+            this.output = output;
+        }
+
+        /**
+         * Writes the specified export chunk.
+         *
+         * @param chunk The export chunk to write.
+         *
+         * @throws IOException If a failure occurs writing.
+         */
+        private void write(String chunk) throws IOException {
+            int length = chunk.length();
+            if (this.pendingReturn && length > 0) {
+                this.pendingReturn = false;
+                if (chunk.charAt(0) != '\n') {
+                    // the carriage return did not precede a line feed
+                    this.output.write("\r", 0, 1);
+                    this.atLineStart = false;
+                }
+            }
+            int runStart = 0;
+            for (int index = 0; index < length; index++) {
+                char c = chunk.charAt(index);
+                if (c == '\r') {
+                    if (index + 1 == length) {
+                        this.output.write(chunk, runStart, index);
+                        this.pendingReturn = true;
+                        return;
+                    }
+                    if (chunk.charAt(index + 1) == '\n') {
+                        this.output.write(chunk, runStart, index);
+                        runStart = index + 1;
+                        continue;
+                    }
+                    this.atLineStart = false;
+
+                } else if (c == '\n') {
+                    if (this.atLineStart) {
+                        // skip the empty line
+                        this.output.write(chunk, runStart, index);
+                        runStart = index + 1;
+                    } else {
+                        this.lineCount++;
+                        this.atLineStart = true;
+                    }
+                } else {
+                    this.atLineStart = false;
+                }
+            }
+            this.output.write(chunk, runStart, length);
+        }
+
+        /**
+         * Terminates the final line if it was not terminated.  A trailing
+         * carriage return is dropped.
+         *
+         * @throws IOException If a failure occurs writing.
+         */
+        private void finish() throws IOException {
+            this.pendingReturn = false;
+            if (!this.atLineStart) {
+                this.output.write("\n", 0, 1);
+                this.lineCount++;
+                this.atLineStart = true;
+            }
+        }
+    }
+}
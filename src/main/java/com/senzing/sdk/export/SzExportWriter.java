@@ -0,0 +1,1776 @@
+package com.senzing.sdk.export;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+import java.util.zip.Deflater;
+
+import com.senzing.sdk.SzEngine;
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzFlag;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static com.senzing.sdk.SzFlag.SZ_EXPORT_DEFAULT_FLAGS;
+
+/**
+ * Provides a means of writing an entity export to a directory of files,
+ * with the fetching, compressing and writing of the export pipelined
+ * across threads rather than serialized.
+ *
+ * <p>
+ * The export chunks are fetched ahead by an {@link SzExportCursor} on its
+ * fetcher thread while the calling thread splits them into lines and
+ * packs the lines into blocks of the {@linkplain Builder#blockSize(int)
+ * block size}.  The blocks are encoded and compressed in parallel by the
+ * {@linkplain Builder#compressorCount(int) compressor threads} and written
+ * in order by a dedicated writer thread.  Each block is compressed
+ * independently as a flushed run of deflate blocks (in the manner of
+ * <code>pigz</code>) so that the compressed blocks concatenate into a
+ * single standard {@linkplain SzExportCompression#GZIP gzip} or
+ * {@linkplain SzExportCompression#DEFLATE zlib} stream per file.
+ * </p>
+ *
+ * <p>
+ * A JSON export is written as newline-delimited JSON (one entity per line)
+ * and a {@linkplain Builder#csvColumnList(String) CSV export} is written
+ * as CSV with the header repeated at the start of each file.  The output
+ * is rotated to a new file once the current file reaches the {@linkplain
+ * Builder#maxFileEntities(long) maximum entity count} or the {@linkplain
+ * Builder#maxFileBytes(long) maximum uncompressed size}, though an entity
+ * is never split across files.  For a CSV export the rows of an entity are
+ * recognized by the <code>RESOLVED_ENTITY_ID</code> column, and if that
+ * column is not exported then each row is counted as an entity.
+ * </p>
+ *
+ * <p>
+ * The files are named with the {@linkplain Builder#filePrefix(String) file
+ * prefix} followed by a five-digit sequence number, the format extension
+ * (<code>".ndjson"</code> or <code>".csv"</code>) and the {@linkplain
+ * SzExportCompression#getFileExtension() compression extension} (e.g.:
+ * <code>"export-00001.ndjson.gz"</code>).  Once all files are written the
+ * {@link SzExportManifest} is written to the {@linkplain
+ * #getManifestFileName() manifest file} in the same directory, so the
+ * presence of the manifest indicates a complete export.  If the export
+ * fails then the files written by it are deleted.  Existing files are
+ * never overwritten.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzExportWriter {
+    /**
+     * The default {@link SzExportCompression}, which is {@link
+     * SzExportCompression#GZIP}.
+     */
+    public static final SzExportCompression DEFAULT_COMPRESSION
+        = SzExportCompression.GZIP;
+
+    /**
+     * The default compression level, which is {@link
+     * Deflater#DEFAULT_COMPRESSION}.
+     */
+    public static final int DEFAULT_COMPRESSION_LEVEL = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * The default number of compressor threads, which is half the number
+     * of available processors.
+     */
+    public static final int DEFAULT_COMPRESSOR_COUNT
+        = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * The default number of characters of exported lines that are packed
+     * into each block that is compressed.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    /**
+     * The default prefix for the names of the files.
+     */
+    public static final String DEFAULT_FILE_PREFIX = "export";
+
+    /**
+     * The suffix appended to the {@linkplain Builder#filePrefix(String) file
+     * prefix} to name the manifest file.
+     */
+    public static final String MANIFEST_SUFFIX = "-manifest.json";
+
+    /**
+     * The name of the CSV column that identifies the entity of a row.
+     */
+    private static final String ENTITY_ID_COLUMN = "RESOLVED_ENTITY_ID";
+
+    /**
+     * The number of milliseconds a thread waits on a queue or block before
+     * checking if it should stop.
+     */
+    private static final long QUEUE_WAIT_MILLIS = 50L;
+
+    /**
+     * The number of queued blocks per compressor thread.
+     */
+    private static final int BLOCKS_PER_COMPRESSOR = 2;
+
+    /**
+     * The minimum size of the buffer for compressing a block.
+     */
+    private static final int MIN_OUTPUT_SIZE = 64;
+
+    /**
+     * The expected compression ratio used to size the initial buffer for
+     * compressing a block.
+     */
+    private static final int EXPECTED_RATIO = 4;
+
+    /**
+     * The header of a gzip member with the deflate method, no flags, no
+     * modification time and an unknown operating system.
+     */
+    private static final byte[] GZIP_HEADER = {
+        (byte) 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff
+    };
+
+    /**
+     * The zlib compression method and info byte for deflate with a 32K
+     * window.
+     */
+    private static final int ZLIB_CMF = 0x78;
+
+    /**
+     * The divisor for the zlib header check bits.
+     */
+    private static final int ZLIB_CHECK_DIVISOR = 31;
+
+    /**
+     * The bit shift for the zlib compression level in the flags byte.
+     */
+    private static final int ZLIB_LEVEL_SHIFT = 6;
+
+    /**
+     * The compression level used by deflate for {@link
+     * Deflater#DEFAULT_COMPRESSION}.
+     */
+    private static final int DEFLATE_DEFAULT_LEVEL = 6;
+
+    /**
+     * The number of bits in a byte.
+     */
+    private static final int BITS_PER_BYTE = 8;
+
+    /**
+     * The mask for the low byte of an integer.
+     */
+    private static final int BYTE_MASK = 0xff;
+
+    /**
+     * The number of bytes in a checksum or size in a trailer.
+     */
+    private static final int INT_BYTES = 4;
+
+    /**
+     * The {@link System.Logger} for logging cleanup failures.
+     */
+    private static final Logger LOGGER = System.getLogger(SzExportWriter.class.getName());
+
+    /**
+     * Provides a builder class for creating instances of {@link
+     * SzExportWriter}.
+     *
+     * @since 4.4.0
+     */
+    public static final class Builder {
+        /**
+         * The {@link SzEngine} for the export.
+         */
+        private SzEngine engine = null;
+
+        /**
+         * The {@link Set} of {@link SzFlag} instances for the export.
+         */
+        private Set<SzFlag> flags = SZ_EXPORT_DEFAULT_FLAGS;
+
+        /**
+         * The CSV column list, or <code>null</code> for a JSON export.
+         */
+        private String csvColumnList = null;
+
+        /**
+         * The {@link SzExportCompression} for the files.
+         */
+        private SzExportCompression compression = DEFAULT_COMPRESSION;
+
+        /**
+         * The compression level for the files.
+         */
+        private int compressionLevel = DEFAULT_COMPRESSION_LEVEL;
+
+        /**
+         * The maximum number of uncompressed bytes per file, or zero (0)
+         * for no maximum.
+         */
+        private long maxFileBytes = 0L;
+
+        /**
+         * The maximum number of entities per file, or zero (0) for no
+         * maximum.
+         */
+        private long maxFileEntities = 0L;
+
+        /**
+         * The number of compressor threads.
+         */
+        private int compressorCount = DEFAULT_COMPRESSOR_COUNT;
+
+        /**
+         * The number of characters per block.
+         */
+        private int blockSize = DEFAULT_BLOCK_SIZE;
+
+        /**
+         * The number of export chunks to fetch ahead.
+         */
+        private int prefetchDepth = SzExportCursor.DEFAULT_PREFETCH_DEPTH;
+
+        /**
+         * The prefix for the names of the files.
+         */
+        private String filePrefix = DEFAULT_FILE_PREFIX;
+
+        /**
+         * Private default constructor.
+         */
+        private Builder() {
+            // do nothing
+        }
+
+        /**
+         * Sets the {@link SzEngine} with which to export.  This is required.
+         *
+         * @param engine The {@link SzEngine} to use.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder engine(SzEngine engine) throws NullPointerException {
+            this.engine = Objects.requireNonNull(engine, "The engine cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the {@link Set} of {@link SzFlag} instances for the export.
+         * The default is {@link SzFlag#SZ_EXPORT_DEFAULT_FLAGS}.
+         *
+         * @param flags The {@link Set} of {@link SzFlag} instances, or
+         *              <code>null</code> for no flags.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder flags(Set<SzFlag> flags) {
+            this.flags = flags;
+            return this;
+        }
+
+        /**
+         * Sets the CSV column list for a {@linkplain
+         * SzEngine#exportCsvEntityReport(String, Set) CSV export}.  The
+         * default is <code>null</code>, in which case the export is a
+         * {@linkplain SzEngine#exportJsonEntityReport(Set) JSON export}
+         * that is written as newline-delimited JSON.
+         *
+         * @param csvColumnList The CSV column list as described for {@link
+         *                      SzEngine#exportCsvEntityReport(String, Set)},
+         *                      or <code>null</code> for a JSON export.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder csvColumnList(String csvColumnList) {
+            this.csvColumnList = csvColumnList;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SzExportCompression} with which to write the
+         * files.  The default is {@link #DEFAULT_COMPRESSION}.
+         *
+         * @param compression The non-null {@link SzExportCompression}.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder compression(SzExportCompression compression)
+            throws NullPointerException
+        {
+            this.compression = Objects.requireNonNull(
+                compression, "The compression cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the compression level with which to write the files, from
+         * {@link Deflater#NO_COMPRESSION} (0) to {@link
+         * Deflater#BEST_COMPRESSION} (9), or {@link
+         * Deflater#DEFAULT_COMPRESSION} (-1).  The default is {@link
+         * #DEFAULT_COMPRESSION_LEVEL}.  This is ignored for {@link
+         * SzExportCompression#NONE}.
+         *
+         * @param level The compression level.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified level is not a
+         *                                  valid compression level.
+         *
+         * @since 4.4.0
+         */
+        public Builder compressionLevel(int level) throws IllegalArgumentException {
+            if ((level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)
+                && level != Deflater.DEFAULT_COMPRESSION)
+            {
+                throw new IllegalArgumentException(
+                    "Invalid compression level: " + level);
+            }
+            this.compressionLevel = level;
+            return this;
+        }
+
+        /**
+         * Sets the number of uncompressed bytes after which the output is
+         * rotated to a new file at the next entity boundary.  The default
+         * is zero (0), in which case files are not rotated by size.
+         *
+         * @param maxBytes The maximum number of uncompressed bytes per file,
+         *                 or zero (0) for no maximum.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is
+         *                                  negative.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxFileBytes(long maxBytes) throws IllegalArgumentException {
+            if (maxBytes < 0L) {
+                throw new IllegalArgumentException(
+                    "The maximum file bytes cannot be negative: " + maxBytes);
+            }
+            this.maxFileBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Sets the number of entities after which the output is rotated to
+         * a new file.  The default is zero (0), in which case files are not
+         * rotated by entity count.
+         *
+         * @param maxEntities The maximum number of entities per file, or
+         *                    zero (0) for no maximum.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is
+         *                                  negative.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxFileEntities(long maxEntities) throws IllegalArgumentException {
+            if (maxEntities < 0L) {
+                throw new IllegalArgumentException(
+                    "The maximum file entities cannot be negative: " + maxEntities);
+            }
+            this.maxFileEntities = maxEntities;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads that encode and compress the blocks
+         * in parallel.  The default is {@link #DEFAULT_COMPRESSOR_COUNT}.
+         *
+         * @param count The positive number of compressor threads.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified count is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder compressorCount(int count) throws IllegalArgumentException {
+            if (count <= 0) {
+                throw new IllegalArgumentException(
+                    "The compressor count must be positive: " + count);
+            }
+            this.compressorCount = count;
+            return this;
+        }
+
+        /**
+         * Sets the number of characters of exported lines that are packed
+         * into each block that is compressed.  Larger blocks compress
+         * slightly better while smaller blocks use less memory.  The
+         * default is {@link #DEFAULT_BLOCK_SIZE}.
+         *
+         * @param size The positive block size in characters.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified size is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder blockSize(int size) throws IllegalArgumentException {
+            if (size <= 0) {
+                throw new IllegalArgumentException(
+                    "The block size must be positive: " + size);
+            }
+            this.blockSize = size;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of export chunks that are fetched ahead.
+         * The default is {@link SzExportCursor#DEFAULT_PREFETCH_DEPTH}.
+         *
+         * @param depth The positive prefetch depth.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified depth is not
+         *                                  positive.
+         *
+         * @see SzExportCursor.Builder#prefetchDepth(int)
+         *
+         * @since 4.4.0
+         */
+        public Builder prefetchDepth(int depth) throws IllegalArgumentException {
+            if (depth <= 0) {
+                throw new IllegalArgumentException(
+                    "The prefetch depth must be positive: " + depth);
+            }
+            this.prefetchDepth = depth;
+            return this;
+        }
+
+        /**
+         * Sets the prefix for the names of the files and the manifest.  The
+         * default is {@link #DEFAULT_FILE_PREFIX}.
+         *
+         * @param prefix The non-null, non-blank file name prefix.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @throws IllegalArgumentException If the specified prefix is blank
+         *                                  or contains a path separator.
+         *
+         * @since 4.4.0
+         */
+        public Builder filePrefix(String prefix)
+            throws NullPointerException, IllegalArgumentException
+        {
+            Objects.requireNonNull(prefix, "The file prefix cannot be null");
+            if (prefix.isBlank() || prefix.indexOf('/') >= 0 || prefix.indexOf('\\') >= 0) {
+                throw new IllegalArgumentException("Invalid file prefix: " + prefix);
+            }
+            this.filePrefix = prefix;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link SzExportWriter} with the configured options.
+         *
+         * @return The newly constructed {@link SzExportWriter}.
+         *
+         * @throws IllegalStateException If the engine has not been set.
+         *
+         * @since 4.4.0
+         */
+        public SzExportWriter build() throws IllegalStateException {
+            if (this.engine == null) {
+                throw new IllegalStateException("The engine is required");
+            }
+            return new SzExportWriter(this);
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for building an {@link SzExportWriter}.
+     *
+     * @return The new {@link Builder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * The {@link SzEngine} for the export.
+     */
+    private final SzEngine engine;
+
+    /**
+     * The {@link Set} of {@link SzFlag} instances for the export.
+     */
+    private final Set<SzFlag> flags;
+
+    /**
+     * The CSV column list, or <code>null</code> for a JSON export.
+     */
+    private final String csvColumnList;
+
+    /**
+     * The {@link SzExportCompression} for the files.
+     */
+    private final SzExportCompression compression;
+
+    /**
+     * The compression level for the files.
+     */
+    private final int compressionLevel;
+
+    /**
+     * The maximum number of uncompressed bytes per file, or zero (0) for
+     * no maximum.
+     */
+    private final long maxFileBytes;
+
+    /**
+     * The maximum number of entities per file, or zero (0) for no maximum.
+     */
+    private final long maxFileEntities;
+
+    /**
+     * The number of compressor threads.
+     */
+    private final int compressorCount;
+
+    /**
+     * The number of characters per block.
+     */
+    private final int blockSize;
+
+    /**
+     * The number of export chunks to fetch ahead.
+     */
+    private final int prefetchDepth;
+
+    /**
+     * The prefix for the names of the files.
+     */
+    private final String filePrefix;
+
+    /**
+     * Private constructor for constructing with a {@link Builder}.
+     *
+     * @param builder The {@link Builder} from which to construct.
+     */
+    private SzExportWriter(Builder builder) {
+        this.engine             = builder.engine;
+        this.flags              = builder.flags;
+        this.csvColumnList      = builder.csvColumnList;
+        this.compression        = builder.compression;
+        this.compressionLevel   = builder.compressionLevel;
+        this.maxFileBytes       = builder.maxFileBytes;
+        this.maxFileEntities    = builder.maxFileEntities;
+        this.compressorCount    = builder.compressorCount;
+        this.blockSize          = builder.blockSize;
+        this.prefetchDepth      = builder.prefetchDepth;
+        this.filePrefix         = builder.filePrefix;
+    }
+
+    /**
+     * Gets the {@link SzEngine} with which to export.
+     *
+     * @return The {@link SzEngine} with which to export.
+     *
+     * @since 4.4.0
+     */
+    public SzEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * Gets the {@link Set} of {@link SzFlag} instances for the export.
+     *
+     * @return The {@link Set} of {@link SzFlag} instances, or
+     *         <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public Set<SzFlag> getFlags() {
+        return this.flags;
+    }
+
+    /**
+     * Gets the CSV column list for a CSV export.
+     *
+     * @return The CSV column list, or <code>null</code> for a JSON export.
+     *
+     * @since 4.4.0
+     */
+    public String getCsvColumnList() {
+        return this.csvColumnList;
+    }
+
+    /**
+     * Checks if the export is a CSV export.
+     *
+     * @return <code>true</code> if a CSV export, or <code>false</code> if
+     *         a JSON export.
+     *
+     * @since 4.4.0
+     */
+    public boolean isCsv() {
+        return this.csvColumnList != null;
+    }
+
+    /**
+     * Gets the {@link SzExportCompression} with which the files are
+     * written.
+     *
+     * @return The {@link SzExportCompression} for the files.
+     *
+     * @since 4.4.0
+     */
+    public SzExportCompression getCompression() {
+        return this.compression;
+    }
+
+    /**
+     * Gets the compression level with which the files are written.
+     *
+     * @return The compression level for the files.
+     *
+     * @since 4.4.0
+     */
+    public int getCompressionLevel() {
+        return this.compressionLevel;
+    }
+
+    /**
+     * Gets the number of uncompressed bytes after which the output is
+     * rotated to a new file.
+     *
+     * @return The maximum number of uncompressed bytes per file, or zero
+     *         (0) for no maximum.
+     *
+     * @since 4.4.0
+     */
+    public long getMaxFileBytes() {
+        return this.maxFileBytes;
+    }
+
+    /**
+     * Gets the number of entities after which the output is rotated to a
+     * new file.
+     *
+     * @return The maximum number of entities per file, or zero (0) for no
+     *         maximum.
+     *
+     * @since 4.4.0
+     */
+    public long getMaxFileEntities() {
+        return this.maxFileEntities;
+    }
+
+    /**
+     * Gets the number of threads that compress the blocks in parallel.
+     *
+     * @return The number of compressor threads.
+     *
+     * @since 4.4.0
+     */
+    public int getCompressorCount() {
+        return this.compressorCount;
+    }
+
+    /**
+     * Gets the number of characters of exported lines that are packed into
+     * each block that is compressed.
+     *
+     * @return The block size in characters.
+     *
+     * @since 4.4.0
+     */
+    public int getBlockSize() {
+        return this.blockSize;
+    }
+
+    /**
+     * Gets the maximum number of export chunks that are fetched ahead.
+     *
+     * @return The prefetch depth.
+     *
+     * @since 4.4.0
+     */
+    public int getPrefetchDepth() {
+        return this.prefetchDepth;
+    }
+
+    /**
+     * Gets the prefix for the names of the files and the manifest.
+     *
+     * @return The prefix for the names of the files.
+     *
+     * @since 4.4.0
+     */
+    public String getFilePrefix() {
+        return this.filePrefix;
+    }
+
+    /**
+     * Gets the name of the file with the specified one-based sequence
+     * number.
+     *
+     * @param fileNumber The one-based sequence number of the file.
+     *
+     * @return The name of the file.
+     *
+     * @since 4.4.0
+     */
+    public String getFileName(int fileNumber) {
+        return String.format("%s-%05d%s%s", this.filePrefix, fileNumber,
+                             this.isCsv() ? ".csv" : ".ndjson",
+                             this.compression.getFileExtension());
+    }
+
+    /**
+     * Gets the name of the manifest file, which is the {@linkplain
+     * #getFilePrefix() file prefix} followed by {@link #MANIFEST_SUFFIX}.
+     *
+     * @return The name of the manifest file.
+     *
+     * @since 4.4.0
+     */
+    public String getManifestFileName() {
+        return this.filePrefix + MANIFEST_SUFFIX;
+    }
+
+    /**
+     * Exports the entities to files in the specified directory (creating
+     * it if necessary), blocking until the export completes or fails.
+     * This method may be called again to export to another directory (or
+     * with another file prefix).
+     *
+     * @param directory The non-null {@link Path} of the directory.
+     *
+     * @return The {@link SzExportManifest} describing the export.
+     *
+     * @throws NullPointerException If the specified directory is
+     *                              <code>null</code>.
+     *
+     * @throws IOException If a failure occurs writing the files, including
+     *                     if a file already exists.  If the calling thread
+     *                     is interrupted then the export is aborted and an
+     *                     {@link InterruptedIOException} is thrown.
+     *
+     * @throws SzException If the export could not be started or fetched.
+     *
+     * @since 4.4.0
+     */
+    public SzExportManifest write(Path directory)
+        throws NullPointerException, IOException, SzException
+    {
+        Objects.requireNonNull(directory, "The directory cannot be null");
+        Files.createDirectories(directory);
+        return new ExportRun(directory).execute();
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzExportWriter{ flags=[ " + SzFlag.toString(this.flags)
+            + " ], csvColumnList=[ " + this.csvColumnList
+            + " ], compression=[ " + this.compression
+            + " ], compressionLevel=[ " + this.compressionLevel
+            + " ], maxFileBytes=[ " + this.maxFileBytes
+            + " ], maxFileEntities=[ " + this.maxFileEntities
+            + " ], compressorCount=[ " + this.compressorCount
+            + " ], blockSize=[ " + this.blockSize
+            + " ], prefetchDepth=[ " + this.prefetchDepth
+            + " ], filePrefix=[ " + this.filePrefix + " ] }";
+    }
+
+    /**
+     * Gets the number of bytes in the UTF-8 encoding of the specified
+     * {@link CharSequence} without encoding it.
+     *
+     * @param text The {@link CharSequence} to measure.
+     *
+     * @return The number of bytes in the UTF-8 encoding.
+     */
+    static long utf8Length(CharSequence text) {
+        int length = text.length();
+        long count = length;
+        for (int index = 0; index < length; index++) {
+            char c = text.charAt(index);
+            if (c >= '\u0080') {
+                if (c < '\u0800') {
+                    count++;
+                } else if (Character.isHighSurrogate(c) && index + 1 < length
+                           && Character.isLowSurrogate(text.charAt(index + 1)))
+                {
+                    // four bytes for the two characters of the pair
+                    count += 2;
+                    index++;
+                } else {
+                    count += 2;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the zero-based index of the column with the specified name in
+     * the specified CSV header line.
+     *
+     * @param header The CSV header line.
+     * @param column The name of the column to find.
+     *
+     * @return The zero-based index of the column, or negative one (-1) if
+     *         not found.
+     */
+    static int indexOfColumn(String header, String column) {
+        for (int index = 0; true; index++) {
+            String name = csvField(header, index);
+            if (name == null) {
+                return -1;
+            }
+            if (name.trim().equalsIgnoreCase(column)) {
+                return index;
+            }
+        }
+    }
+
+    /**
+     * Gets the unquoted value of the field with the specified zero-based
+     * index in the specified CSV line.
+     *
+     * @param line The CSV line.
+     * @param fieldIndex The zero-based index of the field.
+     *
+     * @return The value of the field, or <code>null</code> if the line has
+     *         too few fields.
+     */
+    static String csvField(String line, int fieldIndex) {
+        int length = line.length();
+        int start = 0;
+        for (int field = 0; field < fieldIndex; field++) {
+            start = skipField(line, start);
+            if (start >= length) {
+                return null;
+            }
+            start++;
+        }
+        if (start > length) {
+            return null;
+        }
+        if (start < length && line.charAt(start) == '"') {
+            StringBuilder sb = new StringBuilder();
+            for (int index = start + 1; index < length; index++) {
+                char c = line.charAt(index);
+                if (c == '"') {
+                    if (index + 1 < length && line.charAt(index + 1) == '"') {
+                        index++;
+                    } else {
+                        break;
+                    }
+                }
+                sb.append(c);
+            }
+            return sb.toString();
+        }
+        int end = line.indexOf(',', start);
+        return line.substring(start, (end < 0) ? length : end);
+    }
+
+    /**
+     * Skips the CSV field starting at the specified index.
+     *
+     * @param line The CSV line.
+     * @param start The index at which the field starts.
+     *
+     * @return The index of the comma that ends the field, or the length of
+     *         the line if it is the last field.
+     */
+    private static int skipField(String line, int start) {
+        int length = line.length();
+        boolean quoted = false;
+        for (int index = start; index < length; index++) {
+            char c = line.charAt(index);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                return index;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Describes a block of exported lines that is compressed by a
+     * compressor thread and written by the writer thread.
+     */
+    private static final class Block {
+        /**
+         * The one-based sequence number of the file for the block.
+         */
+        private final int fileNumber;
+
+        /**
+         * Whether or not this is the first block of the file.
+         */
+        private final boolean first;
+
+        /**
+         * Whether or not this is the last block of the file.
+         */
+        private final boolean last;
+
+        /**
+         * The number of entities in the file if this is the last block.
+         */
+        private final long entityCount;
+
+        /**
+         * The number of lines in the file if this is the last block.
+         */
+        private final long lineCount;
+
+        /**
+         * The text of the block until it is encoded.
+         */
+        private String text;
+
+        /**
+         * The UTF-8 encoded bytes of the block.
+         */
+        private byte[] encoded = null;
+
+        /**
+         * The compressed bytes of the block.
+         */
+        private byte[] compressed = null;
+
+        /**
+         * The number of compressed bytes.
+         */
+        private int compressedLength = 0;
+
+        /**
+         * Released once the block has been compressed.
+         */
+        private final CountDownLatch compressedLatch = new CountDownLatch(1);
+
+        /**
+         * Constructs with the specified parameters.
+         *
+         * @param fileNumber The one-based sequence number of the file.
+         * @param first Whether or not this is the first block of the file.
+         * @param last Whether or not this is the last block of the file.
+         * @param entityCount The number of entities in the file if this is
+         *                    the last block.
+         * @param lineCount The number of lines in the file if this is the
+         *                  last block.
+         * @param text The text of the block.
+         */
+        private Block(int       fileNumber,
+                      boolean   first,
+                      boolean   last,
+                      long      entityCount,
+                      long      lineCount,
+                      String    text)
+        {
+            this.fileNumber     = fileNumber;
+            this.first          = first;
+            this.last           = last;
+            this.entityCount    = entityCount;
+            this.lineCount      = lineCount;
+            this.text           = text;
+        }
+
+        /**
+         * Encodes the block as UTF-8 and compresses it with the specified
+         * {@link Deflater}.  The deflate stream is finished if this is the
+         * last block of the file and is otherwise flushed to a byte
+         * boundary so that the next block can be appended to it.
+         *
+         * @param deflater The {@link Deflater} configured for raw deflate
+         *                 output, or <code>null</code> if the block is not
+         *                 to be compressed.
+         */
+        private void compress(Deflater deflater) {
+            this.encoded = this.text.getBytes(StandardCharsets.UTF_8);
+            this.text = null;
+            if (deflater == null) {
+                this.compressed = this.encoded;
+                this.compressedLength = this.encoded.length;
+                this.compressedLatch.countDown();
+                return;
+            }
+            deflater.reset();
+            deflater.setInput(this.encoded);
+            if (this.last) {
+                deflater.finish();
+            }
+            byte[] output = new byte[
+                Math.max(MIN_OUTPUT_SIZE, this.encoded.length / EXPECTED_RATIO)];
+            int length = 0;
+            while (true) {
+                if (length == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                int available = output.length - length;
+                int count = (this.last)
+                    ? deflater.deflate(output, length, available)
+                    : deflater.deflate(output, length, available, Deflater.SYNC_FLUSH);
+                length += count;
+                if ((this.last) ? deflater.finished() : (count < available)) {
+                    break;
+                }
+            }
+            this.compressed = output;
+            this.compressedLength = length;
+            this.compressedLatch.countDown();
+        }
+
+        /**
+         * Waits up to {@link #QUEUE_WAIT_MILLIS} for the block to be
+         * compressed.
+         *
+         * @return <code>true</code> if the block has been compressed,
+         *         otherwise <code>false</code>.
+         *
+         * @throws InterruptedException If interrupted while waiting.
+         */
+        private boolean awaitCompressed() throws InterruptedException {
+            return this.compressedLatch.await(QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes the compressed blocks of a single file in order, framing them
+     * with the header and trailer of the compression format and computing
+     * the SHA-256 digest of the file.
+     */
+    private static final class OutputFile {
+        /**
+         * The {@link Path} of the file.
+         */
+        private final Path path;
+
+        /**
+         * The {@link SzExportCompression} for the file.
+         */
+        private final SzExportCompression compression;
+
+        /**
+         * The {@link OutputStream} for writing the file.
+         */
+        private final OutputStream outputStream;
+
+        /**
+         * The {@link MessageDigest} for the SHA-256 digest of the file.
+         */
+        private final MessageDigest digest;
+
+        /**
+         * The {@link Checksum} of the uncompressed bytes for the trailer,
+         * or <code>null</code> if not compressed.
+         */
+        private final Checksum checksum;
+
+        /**
+         * The number of uncompressed bytes.
+         */
+        private long byteCount = 0L;
+
+        /**
+         * The number of bytes written to the file.
+         */
+        private long fileByteCount = 0L;
+
+        /**
+         * Creates the file at the specified {@link Path}, failing if it
+         * already exists, and writes the header of the compression format.
+         *
+         * @param path The {@link Path} of the file.
+         * @param compression The {@link SzExportCompression} for the file.
+         * @param level The compression level for the file.
+         *
+         * @throws IOException If a failure occurs creating the file.
+         */
+        private OutputFile(Path path, SzExportCompression compression, int level)
+            throws IOException
+        {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not supported", e);
+            }
+            this.path           = path;
+            this.compression    = compression;
+            this.outputStream   = Files.newOutputStream(path, CREATE_NEW, WRITE);
+            switch (compression) {
+                case GZIP:
+                    this.checksum = new CRC32();
+                    this.write(GZIP_HEADER, GZIP_HEADER.length);
+                    break;
+                case DEFLATE:
+                    this.checksum = new Adler32();
+                    this.write(zlibHeader(level), 2);
+                    break;
+                default:
+                    this.checksum = null;
+            }
+        }
+
+        /**
+         * Gets the two-byte zlib header for the specified compression
+         * level.
+         *
+         * @param level The compression level.
+         *
+         * @return The two-byte zlib header.
+         */
+        private static byte[] zlibHeader(int level) {
+            // the compression level hint of the flags byte (0 to 3)
+            int compressionLevel;
+            if (level == Deflater.DEFAULT_COMPRESSION || level == DEFLATE_DEFAULT_LEVEL) {
+                compressionLevel = 2;
+            } else if (level <= Deflater.BEST_SPEED) {
+                compressionLevel = 0;
+            } else if (level < DEFLATE_DEFAULT_LEVEL) {
+                compressionLevel = 1;
+            } else {
+                compressionLevel = 3;
+            }
+            int flags = compressionLevel << ZLIB_LEVEL_SHIFT;
+            int remainder = ((ZLIB_CMF << BITS_PER_BYTE) | flags) % ZLIB_CHECK_DIVISOR;
+            if (remainder != 0) {
+                flags += ZLIB_CHECK_DIVISOR - remainder;
+            }
+            return new byte[] { (byte) ZLIB_CMF, (byte) flags };
+        }
+
+        /**
+         * Writes the specified compressed {@link Block} to the file.
+         *
+         * @param block The {@link Block} to write.
+         *
+         * @throws IOException If a failure occurs writing the file.
+         */
+        private void write(Block block) throws IOException {
+            if (this.checksum != null) {
+                this.checksum.update(block.encoded, 0, block.encoded.length);
+            }
+            this.byteCount += block.encoded.length;
+            this.write(block.compressed, block.compressedLength);
+        }
+
+        /**
+         * Writes the specified leading bytes of the specified array to the
+         * file and the digest.
+         *
+         * @param bytes The array of bytes.
+         * @param length The number of bytes to write.
+         *
+         * @throws IOException If a failure occurs writing the file.
+         */
+        private void write(byte[] bytes, int length) throws IOException {
+            this.outputStream.write(bytes, 0, length);
+            this.digest.update(bytes, 0, length);
+            this.fileByteCount += length;
+        }
+
+        /**
+         * Writes the trailer of the compression format and closes the file.
+         *
+         * @param entityCount The number of entities in the file.
+         * @param lineCount The number of lines in the file.
+         *
+         * @return The {@link SzExportFile} describing the file.
+         *
+         * @throws IOException If a failure occurs writing the file.
+         */
+        private SzExportFile finish(long entityCount, long lineCount)
+            throws IOException
+        {
+            byte[] trailer;
+            switch (this.compression) {
+                case GZIP:
+                    trailer = new byte[INT_BYTES * 2];
+                    putIntLittleEndian(trailer, 0, this.checksum.getValue());
+                    putIntLittleEndian(trailer, INT_BYTES, this.byteCount);
+                    this.write(trailer, trailer.length);
+                    break;
+                case DEFLATE:
+                    trailer = new byte[INT_BYTES];
+                    long value = this.checksum.getValue();
+                    for (int index = 0; index < INT_BYTES; index++) {
+                        int shift = (INT_BYTES - 1 - index) * BITS_PER_BYTE;
+                        trailer[index] = (byte) ((value >>> shift) & BYTE_MASK);
+                    }
+                    this.write(trailer, trailer.length);
+                    break;
+                default:
+                    // no trailer
+            }
+            this.outputStream.close();
+            return new SzExportFile(this.path,
+                                    entityCount,
+                                    lineCount,
+                                    this.byteCount,
+                                    this.fileByteCount,
+                                    HexFormat.of().formatHex(this.digest.digest()));
+        }
+
+        /**
+         * Closes the file without finishing it.
+         */
+        private void abandon() {
+            try {
+                this.outputStream.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.DEBUG, "Failed to close abandoned export file", e);
+            }
+        }
+
+        /**
+         * Stores the low four bytes of the specified value into the
+         * specified array at the specified offset in little-endian order.
+         *
+         * @param bytes The array of bytes.
+         * @param offset The offset at which to store the value.
+         * @param value The value to store.
+         */
+        private static void putIntLittleEndian(byte[] bytes, int offset, long value) {
+            for (int index = 0; index < INT_BYTES; index++) {
+                bytes[offset + index] = (byte) ((value >>> (index * BITS_PER_BYTE)) & BYTE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Encapsulates the state of a single invocation of {@link
+     * #write(Path)}.
+     */
+    private final class ExportRun {
+        /**
+         * The {@link Path} of the directory for the files.
+         */
+        private final Path directory;
+
+        /**
+         * The queue of blocks pending compression.
+         */
+        private final BlockingQueue<Block> compressQueue;
+
+        /**
+         * The queue of blocks pending writing, in order.
+         */
+        private final BlockingQueue<Block> writeQueue;
+
+        /**
+         * The first fatal failure, if any.
+         */
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        /**
+         * Whether or not blocks may still be added to the queues.
+         */
+        private volatile boolean splitting = true;
+
+        /**
+         * The {@link List} of {@link SzExportFile} instances for the
+         * completed files (accessed by the writer thread until it exits).
+         */
+        private final List<SzExportFile> files = new ArrayList<>();
+
+        /**
+         * The {@link List} of {@link Path} instances for the files that
+         * were created (accessed by the writer thread until it exits).
+         */
+        private final List<Path> createdPaths = new ArrayList<>();
+
+        /**
+         * The text of the block being packed.
+         */
+        private final StringBuilder text;
+
+        /**
+         * Whether or not a file is open for packing.
+         */
+        private boolean fileOpen = false;
+
+        /**
+         * The one-based sequence number of the file being packed.
+         */
+        private int fileNumber = 0;
+
+        /**
+         * The number of blocks of the file being packed.
+         */
+        private int fileBlockCount = 0;
+
+        /**
+         * The number of entities in the file being packed.
+         */
+        private long fileEntityCount = 0L;
+
+        /**
+         * The number of lines in the file being packed.
+         */
+        private long fileLineCount = 0L;
+
+        /**
+         * The number of uncompressed bytes in the file being packed.
+         */
+        private long fileByteCount = 0L;
+
+        /**
+         * Constructs with the {@link Path} of the directory.
+         *
+         * @param directory The {@link Path} of the directory.
+         */
+        private ExportRun(Path directory) {
+            int capacity = SzExportWriter.this.compressorCount * BLOCKS_PER_COMPRESSOR;
+            this.directory      = directory;
+            this.compressQueue  = new ArrayBlockingQueue<>(capacity);
+            this.writeQueue     = new ArrayBlockingQueue<>(capacity);
+            this.text           = new StringBuilder(SzExportWriter.this.blockSize);
+        }
+
+        /**
+         * Performs the export, blocking until it completes or fails.
+         *
+         * @return The {@link SzExportManifest} describing the export.
+         *
+         * @throws IOException If a failure occurs writing the files.
+         *
+         * @throws SzException If the export could not be started or
+         *                     fetched.
+         */
+        private SzExportManifest execute() throws IOException, SzException {
+            SzExportWriter writer = SzExportWriter.this;
+            long start = System.nanoTime();
+
+            List<Thread> threads = new ArrayList<>(writer.compressorCount + 1);
+            for (int index = 0; index < writer.compressorCount; index++) {
+                threads.add(this.startThread(
+                    this::compress, "SzExportWriter-compressor-" + (index + 1)));
+            }
+            threads.add(this.startThread(this::writeFiles, "SzExportWriter-writer"));
+
+            try {
+                this.split();
+            } catch (SzException | RuntimeException | Error e) {
+                this.abort(e);
+            } catch (InterruptedException e) {
+                this.abort(e);
+                Thread.currentThread().interrupt();
+            } finally {
+                this.splitting = false;
+                this.awaitThreads(threads);
+            }
+
+            Throwable cause = this.failure.get();
+            if (cause != null) {
+                this.deleteFiles();
+            }
+            if (cause instanceof InterruptedException) {
+                InterruptedIOException e = new InterruptedIOException(
+                    "Interrupted while exporting entities");
+                e.initCause(cause);
+                throw e;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof SzException) {
+                throw (SzException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            SzExportManifest manifest = new SzExportManifest(writer.csvColumnList,
+                                                             writer.flags,
+                                                             writer.compression,
+                                                             writer.compressionLevel,
+                                                             this.files,
+                                                             elapsed);
+            this.writeManifest(manifest);
+            return manifest;
+        }
+
+        /**
+         * Reads the lines of the export and packs them into blocks for the
+         * compressor and writer threads, rotating the files as configured.
+         * This runs on the calling thread while the export chunks are
+         * fetched ahead by the {@link SzExportCursor}.
+         *
+         * @throws SzException If the export could not be started or
+         *                     fetched.
+         *
+         * @throws InterruptedException If interrupted while waiting.
+         */
+        private void split() throws SzException, InterruptedException {
+            SzExportWriter writer = SzExportWriter.this;
+            try (SzExportCursor cursor = SzExportCursor.newBuilder()
+                    .engine(writer.engine)
+                    .flags(writer.flags)
+                    .csvColumnList(writer.csvColumnList)
+                    .prefetchDepth(writer.prefetchDepth)
+                    .build())
+            {
+                String header = null;
+                int entityColumn = -1;
+                if (writer.isCsv()) {
+                    header = cursor.nextLine();
+                    if (header == null) {
+                        return;
+                    }
+                    entityColumn = indexOfColumn(header, ENTITY_ID_COLUMN);
+                }
+                String entityId = null;
+                for (String line = cursor.nextLine(); line != null; line = cursor.nextLine()) {
+                    if (this.isAborted()) {
+                        return;
+                    }
+                    boolean newEntity = true;
+                    if (entityColumn >= 0) {
+                        String id = csvField(line, entityColumn);
+                        newEntity = !Objects.equals(id, entityId);
+                        entityId = id;
+                    }
+                    if (newEntity && this.fileOpen && this.isRotationDue()) {
+                        this.handOff(true);
+                    }
+                    if (!this.fileOpen) {
+                        this.startFile(header);
+                    }
+                    if (newEntity) {
+                        this.fileEntityCount++;
+                    }
+                    this.fileLineCount++;
+                    this.append(line);
+                    if (this.text.length() >= writer.blockSize) {
+                        this.handOff(false);
+                    }
+                }
+                if (this.fileOpen) {
+                    this.handOff(true);
+                }
+            }
+        }
+
+        /**
+         * Checks if the file being packed should be rotated.
+         *
+         * @return <code>true</code> if the file has reached the maximum
+         *         entity count or size, otherwise <code>false</code>.
+         */
+        private boolean isRotationDue() {
+            SzExportWriter writer = SzExportWriter.this;
+            return (writer.maxFileEntities > 0L
+                    && this.fileEntityCount >= writer.maxFileEntities)
+                || (writer.maxFileBytes > 0L
+                    && this.fileByteCount >= writer.maxFileBytes);
+        }
+
+        /**
+         * Starts packing the next file, beginning with the specified CSV
+         * header (if any).
+         *
+         * @param header The CSV header, or <code>null</code> if none.
+         */
+        private void startFile(String header) {
+            this.fileOpen           = true;
+            this.fileNumber++;
+            this.fileBlockCount     = 0;
+            this.fileEntityCount    = 0L;
+            this.fileLineCount      = 0L;
+            this.fileByteCount      = 0L;
+            if (header != null) {
+                this.append(header);
+            }
+        }
+
+        /**
+         * Appends the specified line and its terminator to the block being
+         * packed.
+         *
+         * @param line The line to append.
+         */
+        private void append(String line) {
+            this.text.append(line).append('\n');
+            this.fileByteCount += utf8Length(line) + 1L;
+        }
+
+        /**
+         * Hands off the block being packed to the writer and compressor
+         * threads, waiting for space in their queues.
+         *
+         * @param last Whether or not this is the last block of the file.
+         *
+         * @throws InterruptedException If interrupted while waiting.
+         */
+        private void handOff(boolean last) throws InterruptedException {
+            Block block = new Block(this.fileNumber,
+                                    this.fileBlockCount++ == 0,
+                                    last,
+                                    this.fileEntityCount,
+                                    this.fileLineCount,
+                                    this.text.toString());
+            this.text.setLength(0);
+            if (last) {
+                this.fileOpen = false;
+            }
+            // the writer queue is first so the blocks are written in order
+            if (this.offer(this.writeQueue, block)) {
+                this.offer(this.compressQueue, block);
+            }
+        }
+
+        /**
+         * Adds the specified {@link Block} to the specified queue, waiting
+         * for space as long as the export has not been aborted.
+         *
+         * @param queue The queue to add to.
+         * @param block The {@link Block} to add.
+         *
+         * @return <code>true</code> if added, or <code>false</code> if the
+         *         export has been aborted.
+         *
+         * @throws InterruptedException If interrupted while waiting.
+         */
+        private boolean offer(BlockingQueue<Block> queue, Block block)
+            throws InterruptedException
+        {
+            while (!queue.offer(block, QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (this.isAborted()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * The main loop of a compressor thread, which compresses blocks
+         * until packing is complete or the export is aborted.
+         */
+        private void compress() {
+            SzExportWriter writer = SzExportWriter.this;
+            Deflater deflater = (writer.compression == SzExportCompression.NONE)
+                ? null : new Deflater(writer.compressionLevel, true);
+            try {
+                while (!this.isAborted()) {
+                    // check if splitting before polling so no block is missed
+                    boolean done = !this.splitting;
+                    Block block = this.compressQueue.poll(
+                        QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (block != null) {
+                        block.compress(deflater);
+                    } else if (done) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                this.abort(e);
+            } finally {
+                if (deflater != null) {
+                    deflater.end();
+                }
+            }
+        }
+
+        /**
+         * The main loop of the writer thread, which writes the compressed
+         * blocks to the files in order until packing is complete or the
+         * export is aborted.
+         */
+        private void writeFiles() {
+            SzExportWriter writer = SzExportWriter.this;
+            OutputFile file = null;
+            try {
+                while (!this.isAborted()) {
+                    boolean done = !this.splitting;
+                    Block block = this.writeQueue.poll(
+                        QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (block == null) {
+                        if (done) {
+                            return;
+                        }
+                        continue;
+                    }
+                    while (!block.awaitCompressed()) {
+                        if (this.isAborted()) {
+                            return;
+                        }
+                    }
+                    if (block.first) {
+                        Path path = this.directory.resolve(
+                            writer.getFileName(block.fileNumber));
+                        file = new OutputFile(
+                            path, writer.compression, writer.compressionLevel);
+                        this.createdPaths.add(path);
+                    }
+                    file.write(block);
+                    if (block.last) {
+                        this.files.add(file.finish(block.entityCount, block.lineCount));
+                        file = null;
+                    }
+                }
+            } catch (IOException e) {
+                this.abort(e);
+            } catch (InterruptedException e) {
+                this.abort(e);
+            } finally {
+                if (file != null) {
+                    file.abandon();
+                }
+            }
+        }
+
+        /**
+         * Writes the specified {@link SzExportManifest} to the manifest
+         * file, replacing it atomically so that it is never partially
+         * written.
+         *
+         * @param manifest The {@link SzExportManifest} to write.
+         *
+         * @throws IOException If a failure occurs writing the manifest.
+         */
+        private void writeManifest(SzExportManifest manifest) throws IOException {
+            String fileName = SzExportWriter.this.getManifestFileName();
+            Path path = this.directory.resolve(fileName);
+            Path temp = this.directory.resolve(fileName + ".tmp");
+            Files.writeString(temp, manifest.toJson(), StandardCharsets.UTF_8);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * Deletes the files created by a failed export.
+         */
+        private void deleteFiles() {
+            for (Path path : this.createdPaths) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Failed to delete export file: " + path, e);
+                }
+            }
+        }
+
+        /**
+         * Waits for the specified threads to exit.  If interrupted while
+         * waiting then the export is aborted so that the threads exit
+         * promptly, and the interrupted status is restored.
+         *
+         * @param threads The {@link List} of threads to wait for.
+         */
+        private void awaitThreads(List<Thread> threads) {
+            boolean interrupted = false;
+            for (Thread thread : threads) {
+                while (thread.isAlive()) {
+                    try {
+                        thread.join();
+                    } catch (InterruptedException e) {
+                        this.abort(e);
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Starts a daemon thread with the specified name that runs the
+         * specified {@link Runnable}, aborting the export if it fails.
+         *
+         * @param runnable The {@link Runnable} to run.
+         * @param name The name of the thread.
+         *
+         * @return The started {@link Thread}.
+         */
+        private Thread startThread(Runnable runnable, String name) {
+            Thread thread = new Thread(() -> {
+                try {
+                    runnable.run();
+                } catch (RuntimeException | Error e) {
+                    this.abort(e);
+                }
+            }, name);
+            thread.setDaemon(true);
+            thread.start();
+            return thread;
+        }
+
+        /**
+         * Records the specified fatal failure (if it is the first) so that
+         * the export is aborted.
+         *
+         * @param cause The cause of the failure.
+         */
+        private void abort(Throwable cause) {
+            this.failure.compareAndSet(null, cause);
+        }
+
+        /**
+         * Checks if the export has been aborted.
+         *
+         * @return <code>true</code> if the export has been aborted,
+         *         otherwise <code>false</code>.
+         */
+        private boolean isAborted() {
+            return this.failure.get() != null;
+        }
+    }
+}
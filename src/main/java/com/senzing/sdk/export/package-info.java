@@ -0,0 +1,18 @@
+/**
+ * This package provides an entity export facility for the Senzing SDK for
+ * Java built on the {@link com.senzing.sdk.SzEngine} interface.  The
+ * {@link com.senzing.sdk.export.SzExportCursor} manages the export handle
+ * and fetches the export chunks ahead on a background thread while the
+ * caller consumes the exported lines.  The {@link
+ * com.senzing.sdk.export.SzExportWriter} writes an export to a directory of
+ * rotated and compressed files described by an {@link
+ * com.senzing.sdk.export.SzExportManifest}, with the fetching, compressing
+ * and writing pipelined across threads.  The {@link
+ * com.senzing.sdk.export.SzExportSink} writes an export directly to a
+ * {@link java.io.Writer} or {@link java.nio.channels.WritableByteChannel}
+ * without creating a {@link String} per exported line.  The {@link
+ * com.senzing.sdk.export.SzCsvExportDecoder} decodes a CSV export into a
+ * reusable {@link com.senzing.sdk.export.SzCsvExportRow} with typed
+ * accessors rather than a {@link String} per field.
+ */
+package com.senzing.sdk.export;
@@ -0,0 +1,254 @@
+package com.senzing.sdk.load;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+import static com.senzing.sdk.core.SzCoreUtilities.jsonEscape;
+
+/**
+ * Splits a single CSV row (as a range of a character array) into fields
+ * according to RFC 4180 without allocating per-field objects.  The field
+ * boundaries are recorded as offsets into the character array and the
+ * values are only materialized (or appended as escaped JSON) on request.
+ *
+ * <p>
+ * Quoted fields may contain the delimiter, line breaks and doubled quote
+ * characters (which represent a single quote character).  Instances are
+ * reused from one row to the next and are <b>not</b> thread-safe.
+ * </p>
+ */
+final class CsvRowParser {
+    /**
+     * The initial number of fields to allocate room for.
+     */
+    private static final int INITIAL_FIELD_CAPACITY = 32;
+
+    /**
+     * The delimiter character.
+     */
+    private final char delimiter;
+
+    /**
+     * The quote character.
+     */
+    private final char quote;
+
+    /**
+     * The character array of the current row.
+     */
+    private char[] chars = null;
+
+    /**
+     * The starting offsets (inclusive) of the fields.
+     */
+    private int[] starts = new int[INITIAL_FIELD_CAPACITY];
+
+    /**
+     * The ending offsets (exclusive) of the fields.
+     */
+    private int[] ends = new int[INITIAL_FIELD_CAPACITY];
+
+    /**
+     * Flags indicating which fields contain doubled quote characters
+     * that must be collapsed when materializing the value.
+     */
+    private boolean[] escaped = new boolean[INITIAL_FIELD_CAPACITY];
+
+    /**
+     * The number of fields in the current row.
+     */
+    private int fieldCount = 0;
+
+    /**
+     * Constructs with the specified delimiter and quote characters.
+     *
+     * @param delimiter The delimiter character.
+     * @param quote The quote character.
+     */
+    CsvRowParser(char delimiter, char quote) {
+        this.delimiter  = delimiter;
+        this.quote      = quote;
+    }
+
+    /**
+     * Parses the row contained in the specified range of the specified
+     * character array.  The array is referenced (not copied) until the
+     * next call to this method.
+     *
+     * @param chars The character array containing the row.
+     * @param start The starting offset (inclusive) of the row.
+     * @param end The ending offset (exclusive) of the row, which should
+     *            exclude the terminating line break.
+     *
+     * @return The number of fields that were parsed.
+     *
+     * @throws IllegalArgumentException If the row is malformed (e.g.: an
+     *                                  unterminated quoted field or text
+     *                                  following a closing quote).
+     */
+    int parse(char[] chars, int start, int end) throws IllegalArgumentException {
+        this.chars      = chars;
+        this.fieldCount = 0;
+
+        int index = start;
+        while (true) {
+            this.ensureCapacity(this.fieldCount + 1);
+            int field = this.fieldCount++;
+            this.escaped[field] = false;
+
+            if (index < end && chars[index] == this.quote) {
+                // parse a quoted field
+                int valueStart = ++index;
+                boolean closed = false;
+                while (index < end) {
+                    if (chars[index] != this.quote) {
+                        index++;
+                    } else if (index + 1 < end && chars[index + 1] == this.quote) {
+                        this.escaped[field] = true;
+                        index += 2;
+                    } else {
+                        closed = true;
+                        break;
+                    }
+                }
+                if (!closed) {
+                    throw new IllegalArgumentException(
+                        "Unterminated quoted field at column " + (field + 1));
+                }
+                this.starts[field]  = valueStart;
+                this.ends[field]    = index++;
+                if (index < end && chars[index] != this.delimiter) {
+                    throw new IllegalArgumentException(
+                        "Unexpected character following closing quote at column "
+                        + (field + 1) + ": " + Utilities.formatChar(chars[index]));
+                }
+
+            } else {
+                // parse an unquoted field
+                this.starts[field] = index;
+                while (index < end && chars[index] != this.delimiter) {
+                    index++;
+                }
+                this.ends[field] = index;
+            }
+
+            if (index >= end) {
+                break;
+            }
+            index++; // skip the delimiter
+        }
+        return this.fieldCount;
+    }
+
+    /**
+     * Gets the number of fields in the most recently parsed row.
+     *
+     * @return The number of fields in the most recently parsed row.
+     */
+    int getFieldCount() {
+        return this.fieldCount;
+    }
+
+    /**
+     * Checks if the field at the specified index is missing, empty or
+     * consists only of whitespace.
+     *
+     * @param index The index of the field.
+     *
+     * @return <code>true</code> if the field is blank, otherwise
+     *         <code>false</code>.
+     */
+    boolean isBlank(int index) {
+        if (index >= this.fieldCount) {
+            return true;
+        }
+        for (int offset = this.starts[index]; offset < this.ends[index]; offset++) {
+            if (!Character.isWhitespace(this.chars[offset])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the value of the field at the specified index as a {@link String},
+     * returning <code>null</code> if the field is missing from the row.
+     *
+     * @param index The index of the field.
+     *
+     * @return The value of the field, or <code>null</code> if missing.
+     */
+    String getField(int index) {
+        if (index >= this.fieldCount) {
+            return null;
+        }
+        int start   = this.starts[index];
+        int end     = this.ends[index];
+        if (!this.escaped[index]) {
+            return new String(this.chars, start, end - start);
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int offset = start; offset < end; offset++) {
+            char c = this.chars[offset];
+            sb.append(c);
+            if (c == this.quote) {
+                offset++; // skip the doubled quote
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Checks if the value of the field at the specified index equals the
+     * specified {@link String} without allocating.
+     *
+     * @param index The index of the field.
+     * @param value The value to compare with.
+     *
+     * @return <code>true</code> if equal, otherwise <code>false</code>.
+     */
+    boolean fieldEquals(int index, String value) {
+        if (index >= this.fieldCount || this.escaped[index]) {
+            return false;
+        }
+        return Utilities.contentEquals(
+            value, this.chars, this.starts[index], this.ends[index]);
+    }
+
+    /**
+     * Appends the value of the field at the specified index to the specified
+     * {@link StringBuilder} as a quoted and escaped JSON string.  A missing
+     * field is appended as an empty JSON string.
+     *
+     * @param index The index of the field.
+     * @param sb The {@link StringBuilder} to append to.
+     */
+    void appendJson(int index, StringBuilder sb) {
+        if (index >= this.fieldCount) {
+            sb.append("\"\"");
+            return;
+        }
+        if (this.escaped[index]) {
+            jsonEscape(this.getField(index), sb);
+            return;
+        }
+        int start = this.starts[index];
+        jsonEscape(CharBuffer.wrap(this.chars, start, this.ends[index] - start), sb);
+    }
+
+    /**
+     * Ensures the field offset arrays have room for the specified number
+     * of fields.
+     *
+     * @param count The number of fields.
+     */
+    private void ensureCapacity(int count) {
+        if (count <= this.starts.length) {
+            return;
+        }
+        int capacity = Math.max(count, this.starts.length * 2);
+        this.starts     = Arrays.copyOf(this.starts, capacity);
+        this.ends       = Arrays.copyOf(this.ends, capacity);
+        this.escaped    = Arrays.copyOf(this.escaped, capacity);
+    }
+}
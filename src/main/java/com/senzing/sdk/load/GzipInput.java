@@ -0,0 +1,912 @@
+package com.senzing.sdk.load;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Provides the decompressed bytes of a partition of a gzip file, where a
+ * partition is a run of consecutive gzip members.  The members of the
+ * partition are inflated on a dedicated thread into a bounded queue of
+ * chunks so that decompression runs ahead of (and in parallel with) the
+ * parsing performed by the consuming thread.
+ *
+ * <p>
+ * Once the members of the partition are exhausted the consumer may keep
+ * reading into the members that follow (inflating them on the consuming
+ * thread) in order to complete a record that spans the partition boundary.
+ * The {@linkplain #getPartitionLength() decompressed length} of the
+ * partition is known once the consumer has read past its last byte.
+ * </p>
+ *
+ * <p>
+ * Files consisting of multiple gzip members (e.g.: concatenated gzip files
+ * or the block-compressed BGZF files written by <code>bgzip</code>) can be
+ * split into partitions at member boundaries via {@link
+ * #findPartitions(Path, int)} and inflated in parallel.  A single-member
+ * file is a single partition.
+ * </p>
+ */
+final class GzipInput implements Closeable {
+    /**
+     * The first byte of the gzip magic number.
+     */
+    private static final int MAGIC_1 = 0x1f;
+
+    /**
+     * The second byte of the gzip magic number.
+     */
+    private static final int MAGIC_2 = 0x8b;
+
+    /**
+     * The deflate compression method.
+     */
+    private static final int METHOD_DEFLATE = 8;
+
+    /**
+     * The length of the fixed portion of the gzip member header.
+     */
+    private static final int HEADER_LENGTH = 10;
+
+    /**
+     * The length of the gzip member trailer.
+     */
+    private static final int TRAILER_LENGTH = 8;
+
+    /**
+     * The header flag indicating a header CRC.
+     */
+    private static final int FLAG_HCRC = 0x02;
+
+    /**
+     * The header flag indicating an extra field.
+     */
+    private static final int FLAG_EXTRA = 0x04;
+
+    /**
+     * The header flag indicating a file name.
+     */
+    private static final int FLAG_NAME = 0x08;
+
+    /**
+     * The header flag indicating a comment.
+     */
+    private static final int FLAG_COMMENT = 0x10;
+
+    /**
+     * The header flag bits that are reserved and must be zero.
+     */
+    private static final int FLAG_RESERVED = 0xe0;
+
+    /**
+     * The length of a BGZF block header including its extra field.
+     */
+    private static final int BGZF_HEADER_LENGTH = 18;
+
+    /**
+     * The extra field length of a BGZF block header.
+     */
+    private static final int BGZF_EXTRA_LENGTH = 6;
+
+    /**
+     * The unsigned byte mask.
+     */
+    private static final int BYTE_MASK = 0xff;
+
+    /**
+     * The unsigned short mask.
+     */
+    private static final int SHORT_MASK = 0xffff;
+
+    /**
+     * The unsigned int mask.
+     */
+    private static final long INT_MASK = 0xffffffffL;
+
+    /**
+     * The size of the compressed input buffer.
+     */
+    private static final int INPUT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The size of the window used when scanning for member headers.
+     */
+    private static final int SCAN_WINDOW_SIZE = 64 * 1024;
+
+    /**
+     * The number of decompressed bytes that must be successfully inflated
+     * from a candidate member (unless it ends sooner) for the candidate to
+     * be accepted as a member boundary.
+     */
+    private static final int VERIFY_LENGTH = 32 * 1024;
+
+    /**
+     * The number of decompressed chunks that may be queued ahead of the
+     * consumer.
+     */
+    private static final int PREFETCH_CHUNK_COUNT = 4;
+
+    /**
+     * Describes a chunk of decompressed bytes handed from the inflater
+     * thread to the consumer.
+     *
+     * @param data The byte array containing the decompressed bytes, or
+     *             <code>null</code> for the terminal chunk.
+     * @param length The number of decompressed bytes in the array.
+     * @param compressedEnd The file offset of the first compressed byte
+     *                      not yet consumed after producing this chunk.
+     * @param failure The failure that ended inflation, if any.
+     */
+    private record Chunk(byte[] data, int length, long compressedEnd, IOException failure) {
+        // nothing to add
+    }
+
+    /**
+     * The path to the gzip file.
+     */
+    private final Path path;
+
+    /**
+     * The {@link FileChannel} shared by the inflater thread and the
+     * continuation on the consuming thread.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The file offset of the first member of the partition.
+     */
+    private final long start;
+
+    /**
+     * The file offset at which the partition ends (exclusive), which is
+     * the offset of the first member of the next partition.
+     */
+    private final long end;
+
+    /**
+     * The queue of decompressed chunks.
+     */
+    private final BlockingQueue<Chunk> filled;
+
+    /**
+     * The pool of byte arrays for reuse as chunks.
+     */
+    private final BlockingQueue<byte[]> free;
+
+    /**
+     * The inflater thread.
+     */
+    private final Thread thread;
+
+    /**
+     * The chunk currently being consumed.
+     */
+    private Chunk current = null;
+
+    /**
+     * The read position within the current chunk.
+     */
+    private int chunkOffset = 0;
+
+    /**
+     * The number of decompressed bytes consumed so far.
+     */
+    private long consumed = 0L;
+
+    /**
+     * The decompressed length of the partition, or {@link Long#MAX_VALUE}
+     * if not yet known to the consumer.
+     */
+    private long partitionLength = Long.MAX_VALUE;
+
+    /**
+     * The {@link MemberInflater} used to read past the end of the
+     * partition on the consuming thread, or <code>null</code> if the end
+     * of the partition has not been reached.
+     */
+    private MemberInflater continuation = null;
+
+    /**
+     * The number of compressed bytes of the partition that have been
+     * consumed.
+     */
+    private volatile long bytesRead = 0L;
+
+    /**
+     * Whether or not this instance has been closed.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Constructs with the specified partition of the specified gzip file,
+     * starting the inflater thread.
+     *
+     * @param path The {@link Path} to the gzip file.
+     * @param start The file offset of the first member of the partition.
+     * @param end The file offset of the end of the partition (exclusive).
+     * @param chunkSize The size of the decompressed chunks.
+     *
+     * @throws IOException If an I/O failure occurs.
+     */
+    GzipInput(Path path, long start, long end, int chunkSize) throws IOException {
+        this.path       = path;
+        this.start      = start;
+        this.end        = end;
+        this.channel    = FileChannel.open(path, StandardOpenOption.READ);
+        this.filled     = new ArrayBlockingQueue<>(PREFETCH_CHUNK_COUNT + 1);
+        this.free       = new ArrayBlockingQueue<>(PREFETCH_CHUNK_COUNT + 1);
+        for (int index = 0; index < PREFETCH_CHUNK_COUNT + 1; index++) {
+            this.free.add(new byte[chunkSize]);
+        }
+        this.thread = new Thread(this::inflatePartition,
+                                 "sz-gzip-inflater-" + path.getFileName() + "@" + start);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Checks if the specified file begins with the gzip magic number.
+     *
+     * @param path The {@link Path} to the file to check.
+     *
+     * @return <code>true</code> if the file appears to be gzip compressed,
+     *         otherwise <code>false</code>.
+     *
+     * @throws IOException If an I/O failure occurs.
+     */
+    static boolean isGzip(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(3);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading
+            }
+            return header.position() == header.capacity()
+                && (header.get(0) & BYTE_MASK) == MAGIC_1
+                && (header.get(1) & BYTE_MASK) == MAGIC_2
+                && header.get(2) == METHOD_DEFLATE;
+        }
+    }
+
+    /**
+     * Splits the specified gzip file into up to the specified number of
+     * partitions at member boundaries, returning the file offsets of the
+     * partition boundaries (including zero and the file size).
+     *
+     * <p>
+     * For each evenly-spaced target offset the file is scanned forward for
+     * the first gzip member header that is verified to be genuine: for BGZF
+     * blocks the block size in the header must lead to the next block, and
+     * otherwise the candidate member must inflate without error.  The scan
+     * for a target stops at the next target, so a single-member file yields
+     * a single partition.
+     * </p>
+     *
+     * @param path The {@link Path} to the gzip file.
+     * @param maxCount The maximum number of partitions.
+     *
+     * @return The array of partition boundary offsets.
+     *
+     * @throws IOException If an I/O failure occurs.
+     */
+    static long[] findPartitions(Path path, int maxCount) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] result = new long[maxCount + 1];
+            int count = 0;
+            result[count++] = 0L;
+            ByteBuffer window = ByteBuffer.allocate(SCAN_WINDOW_SIZE + 2);
+            for (int index = 1; index < maxCount; index++) {
+                long target = (size * index) / maxCount;
+                long limit = (size * (index + 1)) / maxCount;
+                long candidate = Math.max(target, result[count - 1] + 1L);
+                long found = scan(channel, window, candidate, limit, size);
+                if (found > 0L) {
+                    result[count++] = found;
+                }
+            }
+            result[count++] = size;
+            return Arrays.copyOf(result, count);
+        }
+    }
+
+    /**
+     * Scans the specified range of the file for the first verified gzip
+     * member header.
+     *
+     * @param channel The {@link FileChannel} for the file.
+     * @param window The {@link ByteBuffer} to use as a scan window.
+     * @param from The file offset at which to begin scanning.
+     * @param to The file offset at which to stop scanning (exclusive).
+     * @param size The size of the file.
+     *
+     * @return The file offset of the verified member header, or negative
+     *         one (-1) if none was found.
+     *
+     * @throws IOException If an I/O failure occurs.
+     */
+    private static long scan(FileChannel    channel,
+                             ByteBuffer     window,
+                             long           from,
+                             long           to,
+                             long           size)
+        throws IOException
+    {
+        long position = from;
+        while (position < to) {
+            window.clear();
+            int count = readFully(channel, window, position);
+            if (count < 3) {
+                return -1L;
+            }
+            byte[] bytes = window.array();
+            int last = Math.min(count - 2, (int) Math.min(to - position, count));
+            for (int index = 0; index < last; index++) {
+                if ((bytes[index] & BYTE_MASK) == MAGIC_1
+                    && (bytes[index + 1] & BYTE_MASK) == MAGIC_2
+                    && bytes[index + 2] == METHOD_DEFLATE
+                    && verify(channel, position + index, size))
+                {
+                    return position + index;
+                }
+            }
+            position += last;
+        }
+        return -1L;
+    }
+
+    /**
+     * Verifies that a genuine gzip member begins at the specified offset.
+     *
+     * @param channel The {@link FileChannel} for the file.
+     * @param offset The file offset of the candidate member.
+     * @param size The size of the file.
+     *
+     * @return <code>true</code> if the candidate was verified, otherwise
+     *         <code>false</code>.
+     *
+     * @throws IOException If an I/O failure occurs.
+     */
+    private static boolean verify(FileChannel channel, long offset, long size)
+        throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(BGZF_HEADER_LENGTH)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        if (readFully(channel, header, offset) < HEADER_LENGTH) {
+            return false;
+        }
+        int flags = header.get(3) & BYTE_MASK;
+        if ((flags & FLAG_RESERVED) != 0) {
+            return false;
+        }
+
+        // check for a BGZF block whose size leads to the next block
+        if (header.position() == BGZF_HEADER_LENGTH
+            && (flags & FLAG_EXTRA) != 0
+            && (header.getShort(HEADER_LENGTH) & SHORT_MASK) == BGZF_EXTRA_LENGTH
+            && header.get(12) == 'B' && header.get(13) == 'C'
+            && (header.getShort(14) & SHORT_MASK) == 2)
+        {
+            long next = offset + (header.getShort(16) & SHORT_MASK) + 1L;
+            if (next == size) {
+                return true;
+            }
+            ByteBuffer magic = ByteBuffer.allocate(3);
+            return readFully(channel, magic, next) == 3
+                && (magic.get(0) & BYTE_MASK) == MAGIC_1
+                && (magic.get(1) & BYTE_MASK) == MAGIC_2
+                && magic.get(2) == METHOD_DEFLATE;
+        }
+
+        // otherwise attempt to inflate the beginning of the member
+        MemberInflater inflater = new MemberInflater(channel, offset, offset + 1L);
+        try {
+            byte[] buffer = new byte[VERIFY_LENGTH];
+            int total = 0;
+            while (total < buffer.length) {
+                int count = inflater.inflate(buffer, total, buffer.length - total);
+                if (count < 0) {
+                    break;
+                }
+                total += count;
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Reads from the specified {@link FileChannel} at the specified
+     * position until the specified buffer is full or the end of file is
+     * reached.
+     *
+     * @param channel The {@link FileChannel} to read from.
+     * @param buffer The {@link ByteBuffer} to read into.
+     * @param position The file offset at which to read.
+     *
+     * @return The number of bytes read.
+     *
+     * @throws IOException If an I/O failure occurs.
+     */
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position)
+        throws IOException
+    {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position + total);
+            if (count < 0) {
+                break;
+            }
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * The body of the inflater thread, which inflates the members of the
+     * partition into chunks until the end of the partition.
+     */
+    private void inflatePartition() {
+        MemberInflater inflater = new MemberInflater(this.channel, this.start, this.end);
+        IOException failure = null;
+        try {
+            while (!this.closed) {
+                byte[] data = this.free.take();
+                int length = 0;
+                int count = 0;
+                while (length < data.length
+                       && (count = inflater.inflate(data, length, data.length - length)) >= 0)
+                {
+                    length += count;
+                }
+                if (length > 0) {
+                    this.filled.put(new Chunk(data, length, inflater.getPosition(), null));
+                } else {
+                    this.free.put(data);
+                }
+                if (count < 0) {
+                    if (!inflater.isTrailingGarbage() && inflater.getPosition() != this.end) {
+                        throw new ZipException(
+                            "The gzip member preceding offset " + this.end
+                            + " ended at offset " + inflater.getPosition()
+                            + " of " + this.path);
+                    }
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            return;
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            inflater.end();
+        }
+        try {
+            this.filled.put(new Chunk(null, 0, this.end, failure));
+        } catch (InterruptedException ignore) {
+            // closing
+        }
+    }
+
+    /**
+     * Reads decompressed bytes into the specified {@link ByteBuffer},
+     * which must be backed by an array.  Once the partition is exhausted
+     * this continues reading from the members that follow it.
+     *
+     * @param buffer The {@link ByteBuffer} to read into.
+     *
+     * @return The number of bytes read, or negative one (-1) if the end of
+     *         the file has been reached.
+     *
+     * @throws IOException If an I/O or decompression failure occurs.
+     */
+    int read(ByteBuffer buffer) throws IOException {
+        if (this.closed) {
+            throw new IOException("Closed: " + this.path);
+        }
+        if (this.continuation != null) {
+            int count = this.continuation.inflate(
+                buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            if (count > 0) {
+                buffer.position(buffer.position() + count);
+                this.consumed += count;
+            }
+            return count;
+        }
+        if (this.current != null && this.chunkOffset == this.current.length()) {
+            this.free.add(this.current.data());
+            this.current = null;
+        }
+        if (this.current == null) {
+            try {
+                this.current = this.filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(
+                    "Interrupted while waiting for decompressed data: " + this.path);
+            }
+            this.chunkOffset = 0;
+            this.bytesRead = this.current.compressedEnd() - this.start;
+            if (this.current.data() == null) {
+                // the partition is exhausted
+                Chunk terminal = this.current;
+                this.current = null;
+                if (terminal.failure() != null) {
+                    throw new IOException("Failed to decompress " + this.path,
+                                          terminal.failure());
+                }
+                this.partitionLength = this.consumed;
+                this.continuation = new MemberInflater(this.channel, this.end, Long.MAX_VALUE);
+                return this.read(buffer);
+            }
+        }
+        int count = Math.min(buffer.remaining(), this.current.length() - this.chunkOffset);
+        buffer.put(this.current.data(), this.chunkOffset, count);
+        this.chunkOffset += count;
+        this.consumed += count;
+        return count;
+    }
+
+    /**
+     * Checks if this instance reads the first partition of the file.
+     *
+     * @return <code>true</code> if this instance reads the first partition
+     *         of the file, otherwise <code>false</code>.
+     */
+    boolean isFirstPartition() {
+        return this.start == 0L;
+    }
+
+    /**
+     * Gets the decompressed length of the partition, or {@link
+     * Long#MAX_VALUE} if the consumer has not yet read past the end of
+     * the partition.
+     *
+     * @return The decompressed length of the partition, or {@link
+     *         Long#MAX_VALUE} if not yet known.
+     */
+    long getPartitionLength() {
+        return this.partitionLength;
+    }
+
+    /**
+     * Gets the number of compressed bytes of the partition whose
+     * decompressed bytes have been handed to the consumer.
+     *
+     * @return The number of compressed bytes consumed.
+     */
+    long getBytesRead() {
+        return this.bytesRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.thread.interrupt();
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (this.continuation != null) {
+            this.continuation.end();
+        }
+        this.channel.close();
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "GzipInput{ path=[ " + this.path
+            + " ], start=[ " + this.start
+            + " ], end=[ " + this.end + " ] }";
+    }
+
+    /**
+     * Inflates consecutive gzip members from a {@link FileChannel},
+     * verifying the CRC-32 and length in each member trailer.
+     */
+    private static final class MemberInflater {
+        /**
+         * The {@link FileChannel} to read from.
+         */
+        private final FileChannel channel;
+
+        /**
+         * The file offset at or beyond which no new member is started.
+         */
+        private final long limit;
+
+        /**
+         * The compressed input buffer (in read mode).
+         */
+        private final ByteBuffer input;
+
+        /**
+         * The {@link Inflater} for the raw deflate data.
+         */
+        private final Inflater inflater = new Inflater(true);
+
+        /**
+         * The checksum of the decompressed bytes of the current member.
+         */
+        private final CRC32 crc = new CRC32();
+
+        /**
+         * The file offset of the next byte to read into the input buffer.
+         */
+        private long readPosition;
+
+        /**
+         * The number of decompressed bytes in the current member.
+         */
+        private long memberLength = 0L;
+
+        /**
+         * Whether or not the next byte begins a member header.
+         */
+        private boolean atHeader = true;
+
+        /**
+         * Whether or not the end of the file has been reached.
+         */
+        private boolean endOfFile = false;
+
+        /**
+         * The number of members that have been started.
+         */
+        private int memberCount = 0;
+
+        /**
+         * Whether or not non-gzip bytes were found following a member, which
+         * are ignored as trailing garbage (as with {@link
+         * java.util.zip.GZIPInputStream}).
+         */
+        private boolean trailingGarbage = false;
+
+        /**
+         * Constructs with the specified channel, starting offset and limit.
+         *
+         * @param channel The {@link FileChannel} to read from.
+         * @param start The file offset of the first member.
+         * @param limit The file offset at or beyond which no new member is
+         *              started.
+         */
+        private MemberInflater(FileChannel channel, long start, long limit) {
+            this.channel        = channel;
+            this.limit          = limit;
+            this.readPosition   = start;
+            this.input          = ByteBuffer.allocate(INPUT_BUFFER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN).flip();
+        }
+
+        /**
+         * Gets the file offset of the next unconsumed compressed byte.
+         *
+         * @return The file offset of the next unconsumed compressed byte.
+         */
+        private long getPosition() {
+            return this.readPosition - this.input.remaining();
+        }
+
+        /**
+         * Checks if non-gzip bytes following the last member were ignored.
+         *
+         * @return <code>true</code> if trailing garbage was ignored, otherwise
+         *         <code>false</code>.
+         */
+        private boolean isTrailingGarbage() {
+            return this.trailingGarbage;
+        }
+
+        /**
+         * Reads more compressed bytes into the input buffer.
+         *
+         * @return <code>true</code> if more bytes were read, otherwise
+         *         <code>false</code> if the end of file was reached.
+         *
+         * @throws IOException If an I/O failure occurs.
+         */
+        private boolean refill() throws IOException {
+            if (this.endOfFile) {
+                return false;
+            }
+            this.input.compact();
+            int count = this.channel.read(this.input, this.readPosition);
+            this.input.flip();
+            if (count < 0) {
+                this.endOfFile = true;
+                return false;
+            }
+            this.readPosition += count;
+            return true;
+        }
+
+        /**
+         * Ensures the specified number of compressed bytes are available in
+         * the input buffer.
+         *
+         * @param count The number of bytes required.
+         *
+         * @throws IOException If an I/O failure occurs or the end of file is
+         *                     reached first.
+         */
+        private void require(int count) throws IOException {
+            while (this.input.remaining() < count) {
+                if (!this.refill()) {
+                    throw new EOFException(
+                        "Unexpected end of gzip data at offset " + this.getPosition());
+                }
+            }
+        }
+
+        /**
+         * Reads and validates a member header.
+         *
+         * @return <code>true</code> if a header was read, otherwise
+         *         <code>false</code> if the limit or end of file was reached.
+         *
+         * @throws IOException If an I/O failure occurs or the header is
+         *                     not valid.
+         */
+        private boolean readHeader() throws IOException {
+            if (this.trailingGarbage || this.getPosition() >= this.limit) {
+                return false;
+            }
+            if (!this.input.hasRemaining() && !this.refill()) {
+                return false;
+            }
+            long offset = this.getPosition();
+            this.require(HEADER_LENGTH);
+            ByteBuffer in = this.input;
+            int magic1 = in.get() & BYTE_MASK;
+            int magic2 = in.get() & BYTE_MASK;
+            int method = in.get();
+            int flags = in.get() & BYTE_MASK;
+            if (magic1 != MAGIC_1 || magic2 != MAGIC_2 || method != METHOD_DEFLATE
+                || (flags & FLAG_RESERVED) != 0)
+            {
+                if (this.memberCount > 0) {
+                    this.trailingGarbage = true;
+                    return false;
+                }
+                throw new ZipException("Not in gzip format at offset " + offset);
+            }
+            in.position(in.position() + HEADER_LENGTH - 4); // time, flags, OS
+            if ((flags & FLAG_EXTRA) != 0) {
+                this.require(2);
+                int extraLength = in.getShort() & SHORT_MASK;
+                this.require(extraLength);
+                in.position(in.position() + extraLength);
+            }
+            if ((flags & FLAG_NAME) != 0) {
+                this.skipString();
+            }
+            if ((flags & FLAG_COMMENT) != 0) {
+                this.skipString();
+            }
+            if ((flags & FLAG_HCRC) != 0) {
+                this.require(2);
+                in.position(in.position() + 2);
+            }
+            this.inflater.reset();
+            this.crc.reset();
+            this.memberLength = 0L;
+            this.memberCount++;
+            return true;
+        }
+
+        /**
+         * Skips a zero-terminated string in a member header.
+         *
+         * @throws IOException If an I/O failure occurs.
+         */
+        private void skipString() throws IOException {
+            do {
+                this.require(1);
+            } while (this.input.get() != 0);
+        }
+
+        /**
+         * Reads and validates the trailer of the current member.
+         *
+         * @throws IOException If an I/O failure occurs or the trailer does
+         *                     not match the decompressed data.
+         */
+        private void readTrailer() throws IOException {
+            this.require(TRAILER_LENGTH);
+            long expectedCrc = this.input.getInt() & INT_MASK;
+            long expectedLength = this.input.getInt() & INT_MASK;
+            if (expectedCrc != this.crc.getValue()) {
+                throw new ZipException(
+                    "Corrupt gzip member (bad CRC) before offset " + this.getPosition());
+            }
+            if (expectedLength != (this.memberLength & INT_MASK)) {
+                throw new ZipException(
+                    "Corrupt gzip member (bad length) before offset " + this.getPosition());
+            }
+        }
+
+        /**
+         * Inflates up to the specified number of bytes into the specified
+         * array, crossing member boundaries as needed.
+         *
+         * @param buffer The array to inflate into.
+         * @param offset The offset in the array.
+         * @param length The maximum number of bytes to inflate.
+         *
+         * @return The number of bytes inflated, or negative one (-1) if the
+         *         limit or the end of file was reached.
+         *
+         * @throws IOException If an I/O failure occurs or the data is
+         *                     corrupt.
+         */
+        private int inflate(byte[] buffer, int offset, int length) throws IOException {
+            try {
+                while (true) {
+                    if (this.atHeader) {
+                        if (!this.readHeader()) {
+                            return -1;
+                        }
+                        this.atHeader = false;
+                        this.inflater.setInput(this.input);
+                    }
+                    int count = this.inflater.inflate(buffer, offset, length);
+                    if (count > 0) {
+                        this.crc.update(buffer, offset, count);
+                        this.memberLength += count;
+                        return count;
+                    }
+                    if (this.inflater.finished()) {
+                        this.readTrailer();
+                        this.atHeader = true;
+                    } else if (this.inflater.needsDictionary()) {
+                        throw new ZipException(
+                            "Unsupported preset dictionary at offset " + this.getPosition());
+                    } else if (this.inflater.needsInput()) {
+                        if (!this.refill()) {
+                            throw new EOFException("Unexpected end of gzip data");
+                        }
+                        this.inflater.setInput(this.input);
+                    } else if (length == 0) {
+                        return 0;
+                    }
+                }
+            } catch (DataFormatException e) {
+                ZipException exception = new ZipException(
+                    "Corrupt deflate data before offset " + this.getPosition());
+                exception.initCause(e);
+                throw exception;
+            }
+        }
+
+        /**
+         * Releases the native resources of the {@link Inflater}.
+         */
+        private void end() {
+            this.inflater.end();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.senzing.sdk.load;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Provides a thread-safe, fixed-size histogram of latencies for computing
+ * approximate percentiles without retaining the individual samples.  The
+ * latencies are recorded in microseconds into log-linear buckets (eight
+ * buckets per power of two) so the relative error of a percentile is at
+ * most about six percent regardless of its magnitude.
+ *
+ * <p>
+ * Percentiles over an interval are computed from the difference between
+ * two {@linkplain #snapshot(long[]) snapshots} of the bucket counts.
+ * </p>
+ */
+final class LatencyHistogram {
+    /**
+     * The number of sub-buckets per power of two, as a power of two.
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /**
+     * The number of sub-buckets per power of two.
+     */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The number of microsecond values that have their own bucket.
+     */
+    private static final int LINEAR_COUNT = 2 * SUB_BUCKET_COUNT;
+
+    /**
+     * The number of bits in the largest recordable value.
+     */
+    private static final int MAX_BITS = 42;
+
+    /**
+     * The total number of buckets.
+     */
+    static final int BUCKET_COUNT
+        = LINEAR_COUNT + (MAX_BITS - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT;
+
+    /**
+     * The number of nanoseconds per microsecond.
+     */
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    /**
+     * The number of microseconds per millisecond.
+     */
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    /**
+     * The bucket counts.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * Default constructor.
+     */
+    LatencyHistogram() {
+        // do nothing
+    }
+
+    /**
+     * Gets the index of the bucket for the specified number of
+     * microseconds.
+     *
+     * @param micros The number of microseconds.
+     *
+     * @return The index of the bucket.
+     */
+    private static int bucketIndex(long micros) {
+        if (micros < LINEAR_COUNT) {
+            return (int) Math.max(0L, micros);
+        }
+        int bits = Long.SIZE - Long.numberOfLeadingZeros(micros);
+        if (bits > MAX_BITS) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = bits - SUB_BUCKET_BITS - 1;
+        int subBucket = (int) (micros >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return LINEAR_COUNT + (shift - 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Gets the midpoint of the range of microseconds covered by the bucket
+     * with the specified index.
+     *
+     * @param index The index of the bucket.
+     *
+     * @return The midpoint of the bucket in microseconds.
+     */
+    private static double bucketMidpoint(int index) {
+        if (index < LINEAR_COUNT) {
+            return index;
+        }
+        int shift = ((index - LINEAR_COUNT) / SUB_BUCKET_COUNT) + 1;
+        int subBucket = (index - LINEAR_COUNT) % SUB_BUCKET_COUNT;
+        long lower = ((long) (SUB_BUCKET_COUNT + subBucket)) << shift;
+        return lower + ((1L << shift) / 2.0);
+    }
+
+    /**
+     * Records the specified latency.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    void record(long nanos) {
+        this.counts.incrementAndGet(bucketIndex(nanos / NANOS_PER_MICRO));
+    }
+
+    /**
+     * Copies the current bucket counts into the specified array, which
+     * must have a length of at least {@link #BUCKET_COUNT}.
+     *
+     * @param snapshot The array to copy the counts into.
+     *
+     * @return The specified array.
+     */
+    long[] snapshot(long[] snapshot) {
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            snapshot[index] = this.counts.get(index);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Computes the approximate percentile in milliseconds of the latencies
+     * recorded between the specified earlier and later snapshots.
+     *
+     * @param earlier The earlier snapshot.
+     * @param later The later snapshot.
+     * @param fraction The percentile as a fraction between zero and one.
+     *
+     * @return The approximate percentile in milliseconds, or negative one
+     *         (-1) if no latencies were recorded between the snapshots.
+     */
+    static double percentileMillis(long[] earlier, long[] later, double fraction) {
+        long total = 0L;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            total += later[index] - earlier[index];
+        }
+        if (total <= 0L) {
+            return -1.0;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(total * fraction));
+        long seen = 0L;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            seen += later[index] - earlier[index];
+            if (seen >= rank) {
+                return bucketMidpoint(index) / MICROS_PER_MILLI;
+            }
+        }
+        return bucketMidpoint(BUCKET_COUNT - 1) / MICROS_PER_MILLI;
+    }
+}
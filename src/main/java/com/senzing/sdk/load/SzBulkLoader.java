@@ -0,0 +1,1917 @@
+package com.senzing.sdk.load;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.senzing.sdk.SzBadInputException;
+import com.senzing.sdk.SzEngine;
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzFlag;
+import com.senzing.sdk.SzRecordKey;
+import com.senzing.sdk.SzRetryableException;
+import com.senzing.sdk.SzUnknownDataSourceException;
+import com.senzing.sdk.SzUnrecoverableException;
+import com.senzing.sdk.core.SzCoreUtilities;
+import com.senzing.sdk.core.SzCoreUtilities.FailureAction;
+
+import static com.senzing.sdk.SzFlag.SZ_ADD_RECORD_DEFAULT_FLAGS;
+import static com.senzing.sdk.SzFlag.SZ_WITH_INFO;
+
+/**
+ * Provides a bulk loader that reads records from one or more {@link
+ * SzRecordSource} instances and adds them to the repository via {@link
+ * SzEngine#addRecord(SzRecordKey, String, Set)} using a pool of worker
+ * threads.
+ *
+ * <p>
+ * Each source is split into partitions that are parsed in parallel by a
+ * number of reader threads.  The readers populate {@link SzLoadRecord}
+ * instances drawn from a bounded pool and hand them to the worker threads
+ * through a bounded queue, so the memory footprint is fixed regardless of
+ * the size of the sources and the record definition buffers are reused
+ * from one record to the next.
+ * </p>
+ *
+ * <p>
+ * A failure to load an individual record is classified by the {@link
+ * SzException} class that is mapped to its {@linkplain
+ * SzException#getErrorCode() error code} (or the class of the exception if
+ * it has no error code or is more specific) and handled as follows:
+ * <ul>
+ *   <li>An {@link SzRetryableException} causes the record to be requeued
+ *       after an exponentially increasing (randomized) delay, up to the
+ *       {@linkplain Builder#maxRetries(int) maximum number of retries},
+ *       without blocking the worker thread in the meantime.</li>
+ *   <li>An {@link SzUnrecoverableException} stops the load and is rethrown
+ *       from {@link #load(Collection)}.</li>
+ *   <li>Any other {@link SzException} (e.g.: an {@link SzBadInputException}
+ *       or {@link SzUnknownDataSourceException}), a record that cannot be
+ *       read, or a retryable failure that exhausts its retries is counted
+ *       as a failure and written to the {@linkplain
+ *       Builder#deadLetterSink(SzDeadLetterSink) dead-letter sink} (if
+ *       any) without stopping the load.</li>
+ * </ul>
+ * A failure to read a source or write to the dead-letter sink (i.e.: an
+ * {@link IOException}) or an unexpected {@link RuntimeException} from the
+ * engine (e.g.: {@link com.senzing.sdk.SzEnvironmentDestroyedException})
+ * also aborts the load and is rethrown from {@link #load(Collection)}.
+ * </p>
+ *
+ * <p>
+ * If an {@linkplain Builder#contentHashIndex(SzContentHashIndex) content
+ * hash index} is configured then each record whose definition is unchanged
+ * since it was last loaded is skipped without calling the engine, and the
+ * index is updated for each record that is successfully loaded.
+ * </p>
+ *
+ * <p>
+ * If an {@linkplain Builder#throttle(SzDataSourceThrottle) data source
+ * throttle} is configured then each call to the engine first acquires a
+ * permit for the data source of the record, so the per-data-source quotas
+ * of the throttle apply across every loader that shares it.
+ * </p>
+ *
+ * <p>
+ * If an {@linkplain Builder#redoController(SzRedoController) redo
+ * controller} is configured then each call to the engine also acquires a
+ * unit of the capacity it shares between adding records and processing
+ * redo records, so the worker threads process redo records in proportion
+ * to the {@linkplain SzEngine#countRedoRecords() redo backlog}.  Worker
+ * threads that are idle waiting for records process redo records with any
+ * spare capacity, and once all records are loaded the load continues
+ * processing redo records until the backlog is no longer {@linkplain
+ * SzRedoController#isAboveTarget() above its target}.
+ * </p>
+ *
+ * <p>
+ * If a {@linkplain Builder#hotEntityDetector(SzHotEntityDetector) hot
+ * entity detector} is configured then records are added with {@link
+ * SzFlag#SZ_WITH_INFO} so that the detector observes the affected entities
+ * and latency of each call, and each record whose definition is {@linkplain
+ * SzHotEntityDetector#isHot(String) hot} waits for the serialized lane of
+ * the detector (after acquiring any other permit) so that writes to
+ * contended entities do not collide across the worker threads.  Failed
+ * calls are observed as well, since a slow failure is just as indicative
+ * of contention.
+ * </p>
+ *
+ * <p>
+ * If an {@linkplain Builder#progressListener(SzLoadProgressListener)
+ * progress listener} is configured or {@linkplain
+ * Builder#logProgress(boolean) progress logging} is enabled then a
+ * monitoring thread takes an {@link SzLoadProgress} snapshot at each
+ * {@linkplain Builder#progressIntervalMillis(long) progress interval},
+ * including the rolling throughput, the engine call latency percentiles,
+ * the queue depths, the estimated time remaining and the {@linkplain
+ * SzEngine#countRedoRecords() redo backlog}.  Progress is logged at the
+ * {@link Level#INFO INFO} level to the {@link System.Logger} named for
+ * this class.
+ * </p>
+ *
+ * <p>
+ * Instances of this class are immutable and may be used for any number of
+ * sequential or concurrent loads.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzBulkLoader {
+    /**
+     * The default number of worker threads for loading records, which
+     * is the number of available processors.
+     */
+    public static final int DEFAULT_THREAD_COUNT
+        = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The default number of reader threads for parsing sources.
+     */
+    public static final int DEFAULT_READER_COUNT
+        = Math.max(2, Runtime.getRuntime().availableProcessors() / 4);
+
+    /**
+     * The default capacity of the queue of records pending loading.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    /**
+     * The default maximum number of times a record is retried after an
+     * {@link SzRetryableException}.
+     */
+    public static final int DEFAULT_MAX_RETRIES = 5;
+
+    /**
+     * The default number of milliseconds to delay before the first retry
+     * of a record.
+     */
+    public static final long DEFAULT_RETRY_DELAY_MILLIS = 100L;
+
+    /**
+     * The default maximum number of milliseconds to delay before retrying
+     * a record.
+     */
+    public static final long DEFAULT_MAX_RETRY_DELAY_MILLIS = 10000L;
+
+    /**
+     * The default number of milliseconds between progress reports.
+     */
+    public static final long DEFAULT_PROGRESS_INTERVAL_MILLIS = 10000L;
+
+    /**
+     * The number of milliseconds to wait on a queue before checking if
+     * the load has been aborted or completed.
+     */
+    private static final long POLL_TIMEOUT_MILLIS = 100L;
+
+    /**
+     * The {@link System.Logger} for logging progress.
+     */
+    private static final Logger LOGGER = System.getLogger(SzBulkLoader.class.getName());
+
+    /**
+     * The percentile of the median latency as a fraction.
+     */
+    private static final double MEDIAN = 0.5;
+
+    /**
+     * The 99th percentile as a fraction.
+     */
+    private static final double PERCENTILE_99 = 0.99;
+
+    /**
+     * Provides a builder class for creating instances of {@link SzBulkLoader}.
+     *
+     * @since 4.4.0
+     */
+    public static final class Builder {
+        /**
+         * The {@link SzEngine} to load records with.
+         */
+        private SzEngine engine = null;
+
+        /**
+         * The number of worker threads.
+         */
+        private int threadCount = DEFAULT_THREAD_COUNT;
+
+        /**
+         * The number of reader threads.
+         */
+        private int readerCount = DEFAULT_READER_COUNT;
+
+        /**
+         * The capacity of the pending queue.
+         */
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+        /**
+         * The {@link Set} of {@link SzFlag} for adding records.
+         */
+        private Set<SzFlag> flags = SZ_ADD_RECORD_DEFAULT_FLAGS;
+
+        /**
+         * The {@link SzDeadLetterSink} for records that fail to load.
+         */
+        private SzDeadLetterSink deadLetterSink = null;
+
+        /**
+         * The maximum number of retries for a record.
+         */
+        private int maxRetries = DEFAULT_MAX_RETRIES;
+
+        /**
+         * The delay in milliseconds before the first retry.
+         */
+        private long retryDelayMillis = DEFAULT_RETRY_DELAY_MILLIS;
+
+        /**
+         * The maximum delay in milliseconds before a retry.
+         */
+        private long maxRetryDelayMillis = DEFAULT_MAX_RETRY_DELAY_MILLIS;
+
+        /**
+         * The {@link SzContentHashIndex} for skipping unchanged records.
+         */
+        private SzContentHashIndex contentHashIndex = null;
+
+        /**
+         * The {@link SzDataSourceThrottle} for per-data-source quotas.
+         */
+        private SzDataSourceThrottle throttle = null;
+
+        /**
+         * The {@link SzRedoController} for sharing capacity with redo.
+         */
+        private SzRedoController redoController = null;
+
+        /**
+         * The {@link SzHotEntityDetector} for serializing hot writes.
+         */
+        private SzHotEntityDetector hotEntityDetector = null;
+
+        /**
+         * The {@link SzLoadProgressListener} for progress reports.
+         */
+        private SzLoadProgressListener progressListener = null;
+
+        /**
+         * The number of milliseconds between progress reports.
+         */
+        private long progressIntervalMillis = DEFAULT_PROGRESS_INTERVAL_MILLIS;
+
+        /**
+         * Whether or not progress is logged.
+         */
+        private boolean logProgress = false;
+
+        /**
+         * Private default constructor.
+         */
+        private Builder() {
+            // do nothing
+        }
+
+        /**
+         * Sets the {@link SzEngine} to use for loading records.
+         *
+         * @param engine The non-null {@link SzEngine} to use.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder engine(SzEngine engine) throws NullPointerException {
+            this.engine = Objects.requireNonNull(engine, "The engine cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the number of worker threads that add records.  The default
+         * is {@link #DEFAULT_THREAD_COUNT}.
+         *
+         * @param threadCount The positive number of worker threads.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder threadCount(int threadCount) throws IllegalArgumentException {
+            this.threadCount = requirePositive(threadCount, "thread count");
+            return this;
+        }
+
+        /**
+         * Sets the number of reader threads that parse the sources, which
+         * is also the maximum number of partitions each source is split
+         * into.  The default is {@link #DEFAULT_READER_COUNT}.
+         *
+         * @param readerCount The positive number of reader threads.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder readerCount(int readerCount) throws IllegalArgumentException {
+            this.readerCount = requirePositive(readerCount, "reader count");
+            return this;
+        }
+
+        /**
+         * Sets the capacity of the queue of records that have been read
+         * and are pending loading.  The default is {@link
+         * #DEFAULT_QUEUE_CAPACITY}.
+         *
+         * @param queueCapacity The positive queue capacity.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder queueCapacity(int queueCapacity) throws IllegalArgumentException {
+            this.queueCapacity = requirePositive(queueCapacity, "queue capacity");
+            return this;
+        }
+
+        /**
+         * Sets the {@link Set} of {@link SzFlag} instances to use when
+         * adding records.  The default is {@link
+         * SzFlag#SZ_ADD_RECORD_DEFAULT_FLAGS}.
+         *
+         * @param flags The {@link Set} of {@link SzFlag} instances, or
+         *              <code>null</code> for no flags.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder flags(Set<SzFlag> flags) {
+            this.flags = flags;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SzDeadLetterSink} to which records that fail to
+         * load are written.  The sink is flushed at the end of each load,
+         * but is not closed.  The default is <code>null</code>, in which
+         * case the failures are only counted.
+         *
+         * @param sink The {@link SzDeadLetterSink} to use, or
+         *             <code>null</code> if none.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder deadLetterSink(SzDeadLetterSink sink) {
+            this.deadLetterSink = sink;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of times a record is retried after an
+         * {@link SzRetryableException} before it is treated as a failure.
+         * The default is {@link #DEFAULT_MAX_RETRIES}.
+         *
+         * @param maxRetries The non-negative maximum number of retries, or
+         *                   zero (0) if records should not be retried.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is
+         *                                  negative.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxRetries(int maxRetries) throws IllegalArgumentException {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException(
+                    "The max retries cannot be negative: " + maxRetries);
+            }
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Sets the number of milliseconds to delay before the first retry of
+         * a record, which doubles with each subsequent retry up to the
+         * {@linkplain #maxRetryDelayMillis(long) maximum retry delay}.  The
+         * actual delay is randomized between half and all of the computed
+         * delay so that records failing together are not retried together.
+         * The default is {@link #DEFAULT_RETRY_DELAY_MILLIS}.
+         *
+         * @param delayMillis The positive number of milliseconds to delay
+         *                    before the first retry.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder retryDelayMillis(long delayMillis)
+            throws IllegalArgumentException
+        {
+            this.retryDelayMillis = requirePositive(delayMillis, "retry delay");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of milliseconds to delay before retrying
+         * a record.  The default is {@link #DEFAULT_MAX_RETRY_DELAY_MILLIS}.
+         *
+         * @param delayMillis The positive maximum number of milliseconds to
+         *                    delay before retrying a record.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxRetryDelayMillis(long delayMillis)
+            throws IllegalArgumentException
+        {
+            this.maxRetryDelayMillis = requirePositive(delayMillis, "max retry delay");
+            return this;
+        }
+
+        /**
+         * Sets the {@link SzContentHashIndex} to consult before adding each
+         * record so that records that are unchanged since they were last
+         * loaded are skipped.  The index is flushed at the end of each load,
+         * but is not closed.  The default is <code>null</code>, in which
+         * case every record is added.
+         *
+         * @param index The {@link SzContentHashIndex} to use, or
+         *              <code>null</code> if none.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder contentHashIndex(SzContentHashIndex index) {
+            this.contentHashIndex = index;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SzDataSourceThrottle} from which a permit is
+         * acquired for the data source of each record before it is added,
+         * enforcing per-data-source rate and concurrency quotas.  The same
+         * throttle may be shared by several loaders.  The default is
+         * <code>null</code>, in which case records are not throttled.
+         *
+         * @param throttle The {@link SzDataSourceThrottle} to use, or
+         *                 <code>null</code> if none.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder throttle(SzDataSourceThrottle throttle) {
+            this.throttle = throttle;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SzRedoController} from which a unit of capacity
+         * is acquired before each record is added, processing redo records
+         * with the worker threads to steer the redo backlog toward the
+         * target of the controller.  The controller should use the same
+         * engine as the loader and may be shared by several loaders.  The
+         * default is <code>null</code>, in which case redo records are not
+         * processed by the loader.
+         *
+         * @param controller The {@link SzRedoController} to use, or
+         *                   <code>null</code> if none.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder redoController(SzRedoController controller) {
+            this.redoController = controller;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SzHotEntityDetector} that observes each record
+         * that is added and serializes the writes of records that are
+         * likely to affect hot entities.  When set, {@link
+         * SzFlag#SZ_WITH_INFO} is added to the {@linkplain #flags(Set)
+         * flags} for each call.  The detector may be shared by several
+         * loaders.  The default is <code>null</code>, in which case no
+         * writes are serialized.
+         *
+         * @param detector The {@link SzHotEntityDetector} to use, or
+         *                 <code>null</code> if none.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder hotEntityDetector(SzHotEntityDetector detector) {
+            this.hotEntityDetector = detector;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SzLoadProgressListener} to receive an {@link
+         * SzLoadProgress} snapshot at each {@linkplain
+         * #progressIntervalMillis(long) progress interval} of a load and
+         * once the load has finished.  The default is <code>null</code>.
+         *
+         * @param listener The {@link SzLoadProgressListener} to use, or
+         *                 <code>null</code> if none.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder progressListener(SzLoadProgressListener listener) {
+            this.progressListener = listener;
+            return this;
+        }
+
+        /**
+         * Sets the number of milliseconds between progress reports to the
+         * {@linkplain #progressListener(SzLoadProgressListener) progress
+         * listener} and the log.  The default is {@link
+         * #DEFAULT_PROGRESS_INTERVAL_MILLIS}.
+         *
+         * @param intervalMillis The positive number of milliseconds between
+         *                       progress reports.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified interval is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder progressIntervalMillis(long intervalMillis)
+            throws IllegalArgumentException
+        {
+            this.progressIntervalMillis = requirePositive(
+                intervalMillis, "progress interval");
+            return this;
+        }
+
+        /**
+         * Sets whether or not a progress line is logged (at the {@link
+         * Level#INFO INFO} level) at each {@linkplain
+         * #progressIntervalMillis(long) progress interval} of a load and
+         * once the load has finished.  The default is <code>false</code>.
+         *
+         * @param logProgress <code>true</code> if progress should be logged,
+         *                    otherwise <code>false</code>.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder logProgress(boolean logProgress) {
+            this.logProgress = logProgress;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link SzBulkLoader} from this builder.
+         *
+         * @return The newly constructed {@link SzBulkLoader}.
+         *
+         * @throws IllegalStateException If the engine was not specified.
+         *
+         * @since 4.4.0
+         */
+        public SzBulkLoader build() throws IllegalStateException {
+            if (this.engine == null) {
+                throw new IllegalStateException("The engine is required");
+            }
+            return new SzBulkLoader(this);
+        }
+
+        /**
+         * Ensures the specified value is positive.
+         *
+         * @param value The value to check.
+         * @param description The description for the error message.
+         *
+         * @return The specified value.
+         *
+         * @throws IllegalArgumentException If not positive.
+         */
+        private static int requirePositive(int value, String description)
+            throws IllegalArgumentException
+        {
+            if (value <= 0) {
+                throw new IllegalArgumentException(
+                    "The " + description + " must be positive: " + value);
+            }
+            return value;
+        }
+
+        /**
+         * Ensures the specified value is positive.
+         *
+         * @param value The value to check.
+         * @param description The description for the error message.
+         *
+         * @return The specified value.
+         *
+         * @throws IllegalArgumentException If not positive.
+         */
+        private static long requirePositive(long value, String description)
+            throws IllegalArgumentException
+        {
+            if (value <= 0L) {
+                throw new IllegalArgumentException(
+                    "The " + description + " must be positive: " + value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for building an {@link SzBulkLoader}.
+     *
+     * @return The new {@link Builder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * The {@link SzEngine} to load records with.
+     */
+    private SzEngine engine;
+
+    /**
+     * The number of worker threads.
+     */
+    private int threadCount;
+
+    /**
+     * The number of reader threads.
+     */
+    private int readerCount;
+
+    /**
+     * The capacity of the pending queue.
+     */
+    private int queueCapacity;
+
+    /**
+     * The {@link Set} of {@link SzFlag} for adding records.
+     */
+    private Set<SzFlag> flags;
+
+    /**
+     * The {@link SzDeadLetterSink} for records that fail to load.
+     */
+    private SzDeadLetterSink deadLetterSink;
+
+    /**
+     * The maximum number of retries for a record.
+     */
+    private int maxRetries;
+
+    /**
+     * The delay in milliseconds before the first retry.
+     */
+    private long retryDelayMillis;
+
+    /**
+     * The maximum delay in milliseconds before a retry.
+     */
+    private long maxRetryDelayMillis;
+
+    /**
+     * The {@link SzContentHashIndex} for skipping unchanged records.
+     */
+    private SzContentHashIndex contentHashIndex;
+
+    /**
+     * The {@link SzDataSourceThrottle} for per-data-source quotas.
+     */
+    private SzDataSourceThrottle throttle;
+
+    /**
+     * The {@link SzRedoController} for sharing capacity with redo.
+     */
+    private SzRedoController redoController;
+
+    /**
+     * The {@link SzHotEntityDetector} for serializing hot writes.
+     */
+    private SzHotEntityDetector hotEntityDetector;
+
+    /**
+     * The {@link Set} of {@link SzFlag} instances for each call, which
+     * includes {@link SzFlag#SZ_WITH_INFO} if a hot entity detector is used.
+     */
+    private Set<SzFlag> callFlags;
+
+    /**
+     * The {@link SzLoadProgressListener} for progress reports.
+     */
+    private SzLoadProgressListener progressListener;
+
+    /**
+     * The number of milliseconds between progress reports.
+     */
+    private long progressIntervalMillis;
+
+    /**
+     * Whether or not progress is logged.
+     */
+    private boolean logProgress;
+
+    /**
+     * Private constructor for constructing with a {@link Builder}.
+     *
+     * @param builder The {@link Builder} from which to construct.
+     */
+    private SzBulkLoader(Builder builder) {
+        this.engine                 = builder.engine;
+        this.threadCount            = builder.threadCount;
+        this.readerCount            = builder.readerCount;
+        this.queueCapacity          = builder.queueCapacity;
+        this.flags                  = builder.flags;
+        this.deadLetterSink         = builder.deadLetterSink;
+        this.maxRetries             = builder.maxRetries;
+        this.retryDelayMillis       = builder.retryDelayMillis;
+        this.maxRetryDelayMillis    = Math.max(builder.maxRetryDelayMillis,
+                                               builder.retryDelayMillis);
+        this.contentHashIndex       = builder.contentHashIndex;
+        this.throttle               = builder.throttle;
+        this.redoController         = builder.redoController;
+        this.hotEntityDetector      = builder.hotEntityDetector;
+        this.callFlags              = builder.flags;
+        if (this.hotEntityDetector != null) {
+            this.callFlags = EnumSet.of(SZ_WITH_INFO);
+            if (this.flags != null) {
+                this.callFlags.addAll(this.flags);
+            }
+        }
+        this.progressListener       = builder.progressListener;
+        this.progressIntervalMillis = builder.progressIntervalMillis;
+        this.logProgress            = builder.logProgress;
+    }
+
+    /**
+     * Gets the {@link SzEngine} used for loading records.
+     *
+     * @return The {@link SzEngine} used for loading records.
+     *
+     * @since 4.4.0
+     */
+    public SzEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * Gets the number of worker threads that add records.
+     *
+     * @return The number of worker threads that add records.
+     *
+     * @since 4.4.0
+     */
+    public int getThreadCount() {
+        return this.threadCount;
+    }
+
+    /**
+     * Gets the number of reader threads that parse the sources.
+     *
+     * @return The number of reader threads that parse the sources.
+     *
+     * @since 4.4.0
+     */
+    public int getReaderCount() {
+        return this.readerCount;
+    }
+
+    /**
+     * Gets the capacity of the queue of records pending loading.
+     *
+     * @return The capacity of the queue of records pending loading.
+     *
+     * @since 4.4.0
+     */
+    public int getQueueCapacity() {
+        return this.queueCapacity;
+    }
+
+    /**
+     * Gets the {@link Set} of {@link SzFlag} instances used when adding
+     * records.
+     *
+     * @return The {@link Set} of {@link SzFlag} instances used when adding
+     *         records, or <code>null</code> if no flags.
+     *
+     * @since 4.4.0
+     */
+    public Set<SzFlag> getFlags() {
+        return this.flags;
+    }
+
+    /**
+     * Gets the {@link SzDeadLetterSink} to which records that fail to load
+     * are written.
+     *
+     * @return The {@link SzDeadLetterSink} to which records that fail to
+     *         load are written, or <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public SzDeadLetterSink getDeadLetterSink() {
+        return this.deadLetterSink;
+    }
+
+    /**
+     * Gets the maximum number of times a record is retried after an
+     * {@link SzRetryableException}.
+     *
+     * @return The maximum number of times a record is retried.
+     *
+     * @since 4.4.0
+     */
+    public int getMaxRetries() {
+        return this.maxRetries;
+    }
+
+    /**
+     * Gets the number of milliseconds to delay before the first retry of
+     * a record.
+     *
+     * @return The number of milliseconds to delay before the first retry.
+     *
+     * @since 4.4.0
+     */
+    public long getRetryDelayMillis() {
+        return this.retryDelayMillis;
+    }
+
+    /**
+     * Gets the maximum number of milliseconds to delay before retrying a
+     * record.
+     *
+     * @return The maximum number of milliseconds to delay before retrying
+     *         a record.
+     *
+     * @since 4.4.0
+     */
+    public long getMaxRetryDelayMillis() {
+        return this.maxRetryDelayMillis;
+    }
+
+    /**
+     * Gets the {@link SzContentHashIndex} that is consulted to skip records
+     * that are unchanged since they were last loaded.
+     *
+     * @return The {@link SzContentHashIndex} that is consulted, or
+     *         <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public SzContentHashIndex getContentHashIndex() {
+        return this.contentHashIndex;
+    }
+
+    /**
+     * Gets the {@link SzDataSourceThrottle} from which a permit is acquired
+     * for each record before it is added.
+     *
+     * @return The {@link SzDataSourceThrottle} that is used, or
+     *         <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public SzDataSourceThrottle getThrottle() {
+        return this.throttle;
+    }
+
+    /**
+     * Gets the {@link SzRedoController} from which a unit of capacity is
+     * acquired for each record before it is added.
+     *
+     * @return The {@link SzRedoController} that is used, or
+     *         <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public SzRedoController getRedoController() {
+        return this.redoController;
+    }
+
+    /**
+     * Gets the {@link SzHotEntityDetector} that observes each record that
+     * is added and serializes the writes of hot records.
+     *
+     * @return The {@link SzHotEntityDetector} that is used, or
+     *         <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public SzHotEntityDetector getHotEntityDetector() {
+        return this.hotEntityDetector;
+    }
+
+    /**
+     * Gets the {@link SzLoadProgressListener} that receives progress
+     * reports.
+     *
+     * @return The {@link SzLoadProgressListener} that receives progress
+     *         reports, or <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public SzLoadProgressListener getProgressListener() {
+        return this.progressListener;
+    }
+
+    /**
+     * Gets the number of milliseconds between progress reports.
+     *
+     * @return The number of milliseconds between progress reports.
+     *
+     * @since 4.4.0
+     */
+    public long getProgressIntervalMillis() {
+        return this.progressIntervalMillis;
+    }
+
+    /**
+     * Checks if progress is logged during each load.
+     *
+     * @return <code>true</code> if progress is logged, otherwise
+     *         <code>false</code>.
+     *
+     * @since 4.4.0
+     */
+    public boolean isLoggingProgress() {
+        return this.logProgress;
+    }
+
+    /**
+     * Formats the specified {@link SzLoadProgress} as a single log line.
+     *
+     * @param progress The {@link SzLoadProgress} to format.
+     *
+     * @return The formatted log line.
+     */
+    static String formatProgress(SzLoadProgress progress) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(progress.isFinished() ? "Load finished: " : "Load progress: ");
+        sb.append(String.format(
+            "read=%,d, loaded=%,d, skipped=%,d, failed=%,d, retries=%,d",
+            progress.getReadCount(), progress.getLoadedCount(),
+            progress.getSkippedCount(), progress.getFailedCount(),
+            progress.getRetryCount()));
+        sb.append(String.format(", rate=%,.1f/s (avg %,.1f/s)",
+            progress.getRecordsPerSecond(), progress.getAverageRecordsPerSecond()));
+        if (progress.getMedianLatencyMillis() >= 0.0) {
+            sb.append(String.format(", latency p50=%.1fms p99=%.1fms",
+                progress.getMedianLatencyMillis(), progress.getP99LatencyMillis()));
+        }
+        sb.append(String.format(", queued=%,d, retrying=%,d, in-flight=%,d",
+            progress.getPendingCount(), progress.getRetryPendingCount(),
+            progress.getInFlightCount()));
+        if (progress.getRedoBacklog() >= 0L) {
+            sb.append(String.format(", redo=%,d", progress.getRedoBacklog()));
+        }
+        double fraction = progress.getFractionRead();
+        if (fraction >= 0.0) {
+            sb.append(String.format(", %.1f%% read", fraction * 100.0));
+        }
+        long remaining = progress.getEstimatedRemainingMillis();
+        if (remaining >= 0L && !progress.isFinished()) {
+            sb.append(", eta=").append(formatDuration(remaining));
+        }
+        sb.append(", elapsed=").append(formatDuration(progress.getElapsedMillis()));
+        return sb.toString();
+    }
+
+    /**
+     * Formats the specified number of milliseconds as a duration of the
+     * form <code>[days]d HH:MM:SS</code>.
+     *
+     * @param millis The number of milliseconds.
+     *
+     * @return The formatted duration.
+     */
+    private static String formatDuration(long millis) {
+        long seconds = millis / 1000L;
+        long days = seconds / 86400L;
+        String time = String.format("%02d:%02d:%02d",
+            (seconds / 3600L) % 24L, (seconds / 60L) % 60L, seconds % 60L);
+        return (days > 0L) ? days + "d " + time : time;
+    }
+
+    /**
+     * Loads all records from the specified {@link SzRecordSource}.  This
+     * is equivalent to calling {@link #load(Collection)} with a single
+     * element {@link List}.
+     *
+     * @param source The non-null {@link SzRecordSource} to load.
+     *
+     * @return The {@link SzLoadResult} describing the load.
+     *
+     * @throws IOException If a failure occurs reading the source or
+     *                     writing to the dead-letter sink.
+     *
+     * @throws SzException If an {@link SzUnrecoverableException} occurs
+     *                     loading a record.
+     *
+     * @since 4.4.0
+     */
+    public SzLoadResult load(SzRecordSource source)
+        throws IOException, SzException
+    {
+        return this.load(List.of(source));
+    }
+
+    /**
+     * Loads all records from the specified {@link SzRecordSource} instances,
+     * blocking until the load completes or is aborted.
+     *
+     * @param sources The non-null {@link Collection} of {@link
+     *                SzRecordSource} instances to load.
+     *
+     * @return The {@link SzLoadResult} describing the load.
+     *
+     * @throws IOException If a failure occurs reading the sources or
+     *                     writing to the dead-letter sink.  If the calling
+     *                     thread is interrupted then the load is aborted
+     *                     and an {@link InterruptedIOException} is thrown.
+     *
+     * @throws SzException If an {@link SzUnrecoverableException} occurs
+     *                     loading a record.
+     *
+     * @since 4.4.0
+     */
+    public SzLoadResult load(Collection<? extends SzRecordSource> sources)
+        throws IOException, SzException
+    {
+        Objects.requireNonNull(sources, "The sources cannot be null");
+        return new LoadRun().execute(sources);
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzBulkLoader{ threadCount=[ " + this.threadCount
+            + " ], readerCount=[ " + this.readerCount
+            + " ], queueCapacity=[ " + this.queueCapacity
+            + " ], flags=[ " + SzFlag.toString(this.flags)
+            + " ], deadLetterSink=[ " + this.deadLetterSink
+            + " ], maxRetries=[ " + this.maxRetries
+            + " ], retryDelayMillis=[ " + this.retryDelayMillis
+            + " ], maxRetryDelayMillis=[ " + this.maxRetryDelayMillis
+            + " ], contentHashIndex=[ " + this.contentHashIndex
+            + " ], throttle=[ " + this.throttle
+            + " ], redoController=[ " + this.redoController
+            + " ], hotEntityDetector=[ " + this.hotEntityDetector
+            + " ], progressListener=[ " + this.progressListener
+            + " ], progressIntervalMillis=[ " + this.progressIntervalMillis
+            + " ], logProgress=[ " + this.logProgress + " ] }";
+    }
+
+    /**
+     * Describes a record that is pending a retry after a delay.
+     */
+    private static final class Retry implements Delayed {
+        /**
+         * The {@link SzLoadRecord} to retry.
+         */
+        private final SzLoadRecord record;
+
+        /**
+         * The one-based attempt number for the retry.
+         */
+        private final int attempt;
+
+        /**
+         * The {@link System#nanoTime()} at which the retry is due.
+         */
+        private final long dueNanos;
+
+        /**
+         * Constructs with the specified parameters.
+         *
+         * @param record The {@link SzLoadRecord} to retry.
+         * @param attempt The one-based attempt number for the retry.
+         * @param delayMillis The number of milliseconds to delay.
+         */
+        private Retry(SzLoadRecord record, int attempt, long delayMillis) {
+            this.record     = record;
+            this.attempt    = attempt;
+            this.dueNanos   = System.nanoTime()
+                            + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(this.dueNanos - System.nanoTime(),
+                                TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(this.getDelay(TimeUnit.NANOSECONDS),
+                                other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    /**
+     * Encapsulates the state of a single invocation of {@link
+     * #load(Collection)}.
+     */
+    private final class LoadRun {
+        /**
+         * The queue of records pending loading.
+         */
+        private final BlockingQueue<SzLoadRecord> pending;
+
+        /**
+         * The queue of records pending a retry after a delay.
+         */
+        private final DelayQueue<Retry> retries = new DelayQueue<>();
+
+        /**
+         * The pool of free records available for reuse.
+         */
+        private final BlockingQueue<SzLoadRecord> free;
+
+        /**
+         * The maximum number of records in the pool.
+         */
+        private final int poolSize;
+
+        /**
+         * The number of records created for the pool so far.
+         */
+        private final AtomicInteger createdCount = new AtomicInteger(0);
+
+        /**
+         * The queue of readers pending reading.
+         */
+        private final Queue<SzRecordReader> readers = new ConcurrentLinkedQueue<>();
+
+        /**
+         * The number of records read.
+         */
+        private final LongAdder readCount = new LongAdder();
+
+        /**
+         * The number of records loaded.
+         */
+        private final LongAdder loadedCount = new LongAdder();
+
+        /**
+         * The number of records that were skipped as unchanged.
+         */
+        private final LongAdder skippedCount = new LongAdder();
+
+        /**
+         * The number of records that failed.
+         */
+        private final LongAdder failedCount = new LongAdder();
+
+        /**
+         * The number of retries that were scheduled.
+         */
+        private final LongAdder retryCount = new LongAdder();
+
+        /**
+         * The number of records written to the dead-letter sink.
+         */
+        private final LongAdder deadLetterCount = new LongAdder();
+
+        /**
+         * The first fatal failure, if any.
+         */
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        /**
+         * Set to <code>true</code> once all readers have completed.
+         */
+        private volatile boolean readingComplete = false;
+
+        /**
+         * The number of calls made to the engine to add records.
+         */
+        private final LongAdder submittedCount = new LongAdder();
+
+        /**
+         * The number of calls to the engine that are in progress.
+         */
+        private final AtomicInteger inFlightCount = new AtomicInteger(0);
+
+        /**
+         * The {@link LatencyHistogram} of the engine call latencies.
+         */
+        private final LatencyHistogram latencies = new LatencyHistogram();
+
+        /**
+         * The {@link List} of all readers for tracking the bytes read.
+         */
+        private List<SzRecordReader> allReaders = List.of();
+
+        /**
+         * The total number of bytes in the sources, or negative one (-1) if
+         * not known.
+         */
+        private long byteLength = 0L;
+
+        /**
+         * The {@link System#nanoTime()} at which the load started.
+         */
+        private long startNanos = 0L;
+
+        /**
+         * The latch that is released once the load has finished to stop the
+         * progress monitor.
+         */
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        /**
+         * Default constructor.
+         */
+        private LoadRun() {
+            SzBulkLoader loader = SzBulkLoader.this;
+            this.pending    = new ArrayBlockingQueue<>(loader.queueCapacity);
+            this.poolSize   = loader.queueCapacity + loader.threadCount + loader.readerCount;
+            this.free       = new ArrayBlockingQueue<>(this.poolSize);
+        }
+
+        /**
+         * Executes the load of the specified sources.
+         *
+         * @param sources The {@link Collection} of sources to load.
+         *
+         * @return The {@link SzLoadResult} describing the load.
+         *
+         * @throws IOException If a failure occurs reading the sources or
+         *                     writing to the dead-letter sink.
+         *
+         * @throws SzException If an unrecoverable failure occurs loading a
+         *                     record.
+         */
+        private SzLoadResult execute(Collection<? extends SzRecordSource> sources)
+            throws IOException, SzException
+        {
+            SzBulkLoader loader = SzBulkLoader.this;
+            long start = System.nanoTime();
+            this.startNanos = start;
+
+            try {
+                for (SzRecordSource source : sources) {
+                    this.readers.addAll(source.openReaders(loader.readerCount));
+                    long length = source.getByteLength();
+                    this.byteLength = (length < 0L || this.byteLength < 0L)
+                        ? -1L : this.byteLength + length;
+                }
+            } catch (IOException | RuntimeException e) {
+                this.closeReaders();
+                throw e;
+            }
+            this.allReaders = new ArrayList<>(this.readers);
+
+            Thread monitorThread = null;
+            if (loader.progressListener != null || loader.logProgress) {
+                monitorThread = this.startThread(this::monitor, "SzBulkLoader-monitor");
+            }
+
+            List<Thread> readerThreads = new ArrayList<>(loader.readerCount);
+            List<Thread> workerThreads = new ArrayList<>(loader.threadCount);
+            for (int index = 0; index < loader.threadCount; index++) {
+                workerThreads.add(this.startThread(
+                    this::work, "SzBulkLoader-worker-" + (index + 1)));
+            }
+            for (int index = 0; index < loader.readerCount; index++) {
+                readerThreads.add(this.startThread(
+                    this::read, "SzBulkLoader-reader-" + (index + 1)));
+            }
+
+            try {
+                for (Thread thread : readerThreads) {
+                    thread.join();
+                }
+                this.readingComplete = true;
+                for (Thread thread : workerThreads) {
+                    thread.join();
+                }
+            } catch (InterruptedException e) {
+                this.abort(e);
+                this.readingComplete = true;
+                for (Thread thread : readerThreads) {
+                    thread.interrupt();
+                }
+                Thread.currentThread().interrupt();
+            } finally {
+                this.closeReaders();
+                this.flushOutputs();
+                this.finished.countDown();
+                this.awaitMonitor(monitorThread);
+            }
+
+            Throwable cause = this.failure.get();
+            if (cause instanceof InterruptedException) {
+                InterruptedIOException e = new InterruptedIOException(
+                    "Interrupted while loading records");
+                e.initCause(cause);
+                throw e;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof SzException) {
+                throw (SzException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new SzLoadResult(this.readCount.sum(),
+                                    this.loadedCount.sum(),
+                                    this.skippedCount.sum(),
+                                    this.failedCount.sum(),
+                                    this.retryCount.sum(),
+                                    this.deadLetterCount.sum(),
+                                    elapsed);
+        }
+
+        /**
+         * Flushes the dead-letter sink and the content hash index (if any),
+         * recording the failure to do so as the cause for aborting the load
+         * if no other failure has occurred.
+         */
+        private void flushOutputs() {
+            SzBulkLoader loader = SzBulkLoader.this;
+            if (loader.contentHashIndex != null) {
+                loader.contentHashIndex.flush();
+            }
+            if (loader.deadLetterSink != null) {
+                try {
+                    loader.deadLetterSink.flush();
+                } catch (IOException e) {
+                    this.abort(e);
+                }
+            }
+        }
+
+        /**
+         * Waits for the specified progress monitor thread (if any) to report
+         * the final progress and exit, preserving the interrupted status of
+         * the calling thread.
+         *
+         * @param monitorThread The monitor {@link Thread}, or
+         *                      <code>null</code> if none.
+         */
+        private void awaitMonitor(Thread monitorThread) {
+            if (monitorThread == null) {
+                return;
+            }
+            boolean interrupted = Thread.interrupted();
+            while (true) {
+                try {
+                    monitorThread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * The progress monitor thread loop that takes a snapshot of the
+         * progress at each progress interval and once the load finishes,
+         * reporting it to the listener and the log.
+         */
+        private void monitor() {
+            SzBulkLoader loader = SzBulkLoader.this;
+            long[] previous = new long[LatencyHistogram.BUCKET_COUNT];
+            long[] current = new long[LatencyHistogram.BUCKET_COUNT];
+            long previousCompleted = 0L;
+            long previousNanos = this.startNanos;
+            boolean done = false;
+            while (!done) {
+                try {
+                    done = this.finished.await(
+                        loader.progressIntervalMillis, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    done = true;
+                }
+                long now = System.nanoTime();
+                this.latencies.snapshot(current);
+                long loaded = this.loadedCount.sum();
+                long skipped = this.skippedCount.sum();
+                long failed = this.failedCount.sum();
+                long completed = loaded + skipped + failed;
+                double rate = (now <= previousNanos) ? 0.0
+                    : ((completed - previousCompleted) * (double) TimeUnit.SECONDS.toNanos(1L))
+                        / (now - previousNanos);
+
+                long bytesRead = 0L;
+                for (SzRecordReader reader : this.allReaders) {
+                    bytesRead += Math.max(0L, reader.getBytesRead());
+                }
+
+                this.report(new SzLoadProgress(
+                    this.readCount.sum(),
+                    this.submittedCount.sum(),
+                    loaded,
+                    skipped,
+                    failed,
+                    this.retryCount.sum(),
+                    this.pending.size(),
+                    this.retries.size(),
+                    this.inFlightCount.get(),
+                    bytesRead,
+                    this.byteLength,
+                    rate,
+                    LatencyHistogram.percentileMillis(previous, current, MEDIAN),
+                    LatencyHistogram.percentileMillis(previous, current, PERCENTILE_99),
+                    this.countRedoRecords(),
+                    TimeUnit.NANOSECONDS.toMillis(now - this.startNanos),
+                    done));
+
+                long[] swap = previous;
+                previous = current;
+                current = swap;
+                previousCompleted = completed;
+                previousNanos = now;
+            }
+        }
+
+        /**
+         * Gets the number of pending redo records from the engine.
+         *
+         * @return The number of pending redo records, or negative one (-1)
+         *         if it could not be obtained.
+         */
+        private long countRedoRecords() {
+            try {
+                return SzBulkLoader.this.engine.countRedoRecords();
+            } catch (SzException | RuntimeException e) {
+                return -1L;
+            }
+        }
+
+        /**
+         * Reports the specified {@link SzLoadProgress} to the log and the
+         * listener as configured.
+         *
+         * @param progress The {@link SzLoadProgress} to report.
+         */
+        private void report(SzLoadProgress progress) {
+            SzBulkLoader loader = SzBulkLoader.this;
+            if (loader.logProgress) {
+                LOGGER.log(Level.INFO, () -> formatProgress(progress));
+            }
+            if (loader.progressListener != null) {
+                try {
+                    loader.progressListener.progressReported(progress);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "The progress listener failed", e);
+                }
+            }
+        }
+
+        /**
+         * Creates and starts a daemon thread with the specified name.
+         *
+         * @param runnable The {@link Runnable} to execute.
+         * @param name The name for the thread.
+         *
+         * @return The started {@link Thread}.
+         */
+        private Thread startThread(Runnable runnable, String name) {
+            Thread thread = new Thread(() -> {
+                try {
+                    runnable.run();
+                } catch (RuntimeException | Error e) {
+                    this.abort(e);
+                }
+            }, name);
+            thread.setDaemon(true);
+            thread.start();
+            return thread;
+        }
+
+        /**
+         * Records the specified fatal failure (if it is the first) so that
+         * the load is aborted.
+         *
+         * @param cause The cause of the failure.
+         */
+        private void abort(Throwable cause) {
+            this.failure.compareAndSet(null, cause);
+        }
+
+        /**
+         * Checks if the load has been aborted.
+         *
+         * @return <code>true</code> if the load has been aborted, otherwise
+         *         <code>false</code>.
+         */
+        private boolean isAborted() {
+            return this.failure.get() != null;
+        }
+
+        /**
+         * Closes any readers that have not yet been read.
+         */
+        private void closeReaders() {
+            for (SzRecordReader reader = this.readers.poll();
+                 reader != null;
+                 reader = this.readers.poll())
+            {
+                try {
+                    reader.close();
+                } catch (IOException ignore) {
+                    // ignore
+                }
+            }
+        }
+
+        /**
+         * The reader thread loop that reads records from the readers and
+         * enqueues them for the worker threads.
+         */
+        private void read() {
+            for (SzRecordReader next = this.readers.poll();
+                 next != null && !this.isAborted();
+                 next = this.readers.poll())
+            {
+                try (SzRecordReader reader = next) {
+                    while (!this.isAborted()) {
+                        SzLoadRecord record = this.obtainRecord();
+                        if (record == null) {
+                            break;
+                        }
+                        // return the record to the pool unless it is queued
+                        boolean queued = false;
+                        try {
+                            if (!reader.read(record)) {
+                                break;
+                            }
+                            this.readCount.increment();
+                            queued = this.enqueue(record);
+                            if (!queued) {
+                                break;
+                            }
+                        } finally {
+                            if (!queued) {
+                                this.free.offer(record);
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    this.abort(e);
+                } catch (InterruptedException e) {
+                    this.abort(e);
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * Obtains a reset {@link SzLoadRecord} from the pool, creating one if
+         * the pool has not yet reached its maximum size, otherwise waiting for
+         * one to be recycled.
+         *
+         * @return The {@link SzLoadRecord}, or <code>null</code> if the load
+         *         was aborted while waiting.
+         *
+         * @throws InterruptedException If interrupted while waiting.
+         */
+        private SzLoadRecord obtainRecord() throws InterruptedException {
+            SzLoadRecord record = this.free.poll();
+            if (record == null && this.createdCount.get() < this.poolSize
+                && this.createdCount.incrementAndGet() <= this.poolSize)
+            {
+                record = new SzLoadRecord();
+            }
+            while (record == null && !this.isAborted()) {
+                record = this.free.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            if (record != null) {
+                record.reset();
+            }
+            return record;
+        }
+
+        /**
+         * Enqueues the specified record for loading, waiting for room in
+         * the queue if needed.
+         *
+         * @param record The {@link SzLoadRecord} to enqueue.
+         *
+         * @return <code>true</code> if enqueued, or <code>false</code> if
+         *         the load was aborted while waiting.
+         *
+         * @throws InterruptedException If interrupted while waiting.
+         */
+        private boolean enqueue(SzLoadRecord record) throws InterruptedException {
+            while (!this.isAborted()) {
+                if (this.pending.offer(record, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * The worker thread loop that loads the pending records and the
+         * records whose retry delay has elapsed.
+         */
+        private void work() {
+            try {
+                while (true) {
+                    // check for a record that is due to be retried first
+                    Retry retry = this.retries.poll();
+                    SzLoadRecord record = (retry == null) ? null : retry.record;
+                    int attempt = (retry == null) ? 1 : retry.attempt;
+                    if (record == null) {
+                        record = this.pending.poll(
+                            POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    }
+                    if (record == null) {
+                        if (!this.readingComplete
+                            || (!this.retries.isEmpty() && !this.isAborted()))
+                        {
+                            this.processRedo(false);
+                            continue;
+                        }
+                        // reading is complete, so check one last time
+                        record = this.pending.poll();
+                        if (record == null) {
+                            if (this.processRedo(true)) {
+                                continue;
+                            }
+                            break;
+                        }
+                    }
+                    boolean requeued = false;
+                    try {
+                        if (!this.isAborted()) {
+                            requeued = this.process(record, attempt);
+                        }
+                    } finally {
+                        if (!requeued) {
+                            this.free.offer(record);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                this.abort(e);
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Gets the {@link SzDeadLetterSink} for the redo records processed
+         * with the specified {@link SzRedoController}, which is that of the
+         * controller if it has one, otherwise that of the loader.
+         *
+         * @param controller The {@link SzRedoController}.
+         *
+         * @return The {@link SzDeadLetterSink} for failed redo records, or
+         *         <code>null</code> if none.
+         */
+        private SzDeadLetterSink redoDeadLetterSink(SzRedoController controller) {
+            SzDeadLetterSink sink = controller.getDeadLetterSink();
+            return (sink != null) ? sink : SzBulkLoader.this.deadLetterSink;
+        }
+
+        /**
+         * Processes a redo record with spare capacity of the redo controller
+         * (if any), aborting the load on an unrecoverable failure.
+         *
+         * @param aboveTargetOnly <code>true</code> if a redo record should
+         *                        only be processed if the redo backlog is
+         *                        above the target, otherwise
+         *                        <code>false</code>.
+         *
+         * @return <code>true</code> if a redo record was processed,
+         *         otherwise <code>false</code>.
+         *
+         * @throws InterruptedException If interrupted while processing.
+         */
+        private boolean processRedo(boolean aboveTargetOnly) throws InterruptedException {
+            SzRedoController controller = SzBulkLoader.this.redoController;
+            if (controller == null || this.isAborted()
+                || (aboveTargetOnly && !controller.isAboveTarget()))
+            {
+                return false;
+            }
+            try {
+                return controller.processRedoRecord(this.redoDeadLetterSink(controller));
+            } catch (SzException e) {
+                this.abort(e);
+                return false;
+            }
+        }
+
+        /**
+         * Loads the specified record.
+         *
+         * @param record The {@link SzLoadRecord} to load.
+         * @param attempt The one-based attempt number.
+         *
+         * @return <code>true</code> if the record was requeued for a retry
+         *         and must not be recycled, otherwise <code>false</code>.
+         */
+        private boolean process(SzLoadRecord record, int attempt) {
+            if (record.getReadError() != null) {
+                return this.handleFailure(record, 0, new SzBadInputException(
+                    record.getReadError()));
+            }
+            SzRecordKey recordKey = record.getRecordKey();
+            if (recordKey == null) {
+                return this.handleFailure(record, 0, new SzBadInputException(
+                    "The record lacks a data source code or record ID: "
+                    + record));
+            }
+            // check if the record is unchanged since last loaded
+            SzContentHashIndex index = SzBulkLoader.this.contentHashIndex;
+            long contentHash = 0L;
+            if (index != null) {
+                contentHash = SzContentHashIndex.hashContent(record.getRecordDefinition());
+                if (index.isUnchanged(recordKey, contentHash)) {
+                    this.skippedCount.increment();
+                    return false;
+                }
+            }
+            String definition = record.getRecordDefinition().toString();
+            SzHotEntityDetector detector = SzBulkLoader.this.hotEntityDetector;
+            SzHotEntityDetector.Permit lane = null;
+            SzRedoController controller = SzBulkLoader.this.redoController;
+            SzRedoController.Permit slot = null;
+            SzDataSourceThrottle throttle = SzBulkLoader.this.throttle;
+            SzDataSourceThrottle.Permit permit = null;
+            try {
+                if (controller != null) {
+                    try {
+                        slot = controller.acquireLoad(this.redoDeadLetterSink(controller));
+                    } catch (SzException e) {
+                        // an unrecoverable redo failure, not of this record
+                        this.abort(e);
+                        return false;
+                    }
+                }
+                if (throttle != null) {
+                    permit = throttle.acquire(recordKey);
+                }
+                // wait for the hot lane only once the other capacity is held
+                if (detector != null) {
+                    lane = detector.acquire(definition);
+                }
+                this.submittedCount.increment();
+                this.inFlightCount.incrementAndGet();
+                long start = System.nanoTime();
+                String info = null;
+                try {
+                    info = SzBulkLoader.this.engine.addRecord(
+                        recordKey, definition, SzBulkLoader.this.callFlags);
+                } finally {
+                    long latency = System.nanoTime() - start;
+                    this.latencies.record(latency);
+                    this.inFlightCount.decrementAndGet();
+                    if (detector != null) {
+                        detector.observe(definition, info, latency);
+                    }
+                    if (lane != null) {
+                        lane.close();
+                    }
+                }
+                this.loadedCount.increment();
+
+            } catch (SzException e) {
+                return this.handleFailure(record, attempt, e);
+
+            } catch (InterruptedException e) {
+                this.abort(e);
+                Thread.currentThread().interrupt();
+                return false;
+
+            } finally {
+                if (permit != null) {
+                    permit.close();
+                }
+                if (slot != null) {
+                    slot.close();
+                }
+            }
+            if (index != null) {
+                try {
+                    index.put(recordKey, contentHash);
+                } catch (IOException e) {
+                    this.abort(e);
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Handles the failure to load the specified record by requeueing it
+         * for a retry, writing it to the dead-letter sink or aborting the
+         * load depending on the {@link SzException} class of the failure.
+         *
+         * @param record The {@link SzLoadRecord} that failed.
+         * @param attempt The one-based attempt number that failed, or zero
+         *                (0) if the record was not submitted to the engine.
+         * @param failure The {@link SzException} describing the failure.
+         *
+         * @return <code>true</code> if the record was requeued for a retry
+         *         and must not be recycled, otherwise <code>false</code>.
+         */
+        private boolean handleFailure(SzLoadRecord  record,
+                                      int           attempt,
+                                      SzException   failure)
+        {
+            SzBulkLoader loader = SzBulkLoader.this;
+            Class<? extends SzException> exceptionClass
+                = SzCoreUtilities.resolveExceptionClass(failure);
+            FailureAction action = SzCoreUtilities.classifyFailure(
+                exceptionClass, attempt, loader.maxRetries);
+
+            // check if the failure is retryable and retries remain
+            if (action == FailureAction.RETRY) {
+                this.retryCount.increment();
+                this.retries.add(
+                    new Retry(record, attempt + 1, SzCoreUtilities.backoffDelay(
+                        attempt, loader.retryDelayMillis, loader.maxRetryDelayMillis)));
+                return true;
+            }
+
+            this.failedCount.increment();
+
+            // check if the failure should stop the load
+            if (action == FailureAction.STOP) {
+                this.abort(failure);
+                return false;
+            }
+
+            // otherwise write the record to the dead-letter sink
+            if (loader.deadLetterSink != null) {
+                try {
+                    loader.deadLetterSink.write(
+                        new SzDeadLetter(record, failure, exceptionClass, attempt));
+                    this.deadLetterCount.increment();
+
+                } catch (IOException e) {
+                    this.abort(e);
+                }
+            }
+            return false;
+        }
+
+    }
+}
@@ -0,0 +1,881 @@
+package com.senzing.sdk.load;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.senzing.sdk.SzRecordKey;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+
+/**
+ * Provides a persistent index of the hash of the content of each record
+ * that has been loaded, keyed by a hash of its {@link SzRecordKey}, so that
+ * the {@link SzBulkLoader} can skip records that are unchanged since the
+ * last time they were loaded.  This avoids the cost of the native entity
+ * resolution for records that are resent without changes (e.g.: in a full
+ * refresh of a data source).
+ *
+ * <p>
+ * The index is an open-addressing (linear probing) hash table stored in a
+ * memory-mapped file so that it persists across loads without being read
+ * into the heap.  Each slot holds a 64-bit hash of the record key and a
+ * 64-bit hash of the {@linkplain #hashContent(CharSequence) normalized}
+ * record definition.  The table doubles in capacity (by rewriting the file)
+ * when it becomes three-quarters full.
+ * </p>
+ *
+ * <p>
+ * Since only hashes are stored, two distinct record keys (or two distinct
+ * record definitions) that have the same 64-bit hash are indistinguishable,
+ * although the probability of this is negligible for any realistic number
+ * of records.  Entries are only {@linkplain #put(SzRecordKey, long) put}
+ * after the record has been successfully loaded, so if the process fails
+ * before the index is closed the worst outcome is that some unchanged
+ * records are loaded again.  However, the index has no knowledge of
+ * changes made to the repository by other means, so it should be {@link
+ * #clear() cleared} (or the file deleted) if the repository is purged and
+ * entries should be {@linkplain #remove(SzRecordKey) removed} when records
+ * are deleted.
+ * </p>
+ *
+ * <p>
+ * Instances of this class are thread-safe.  Look-ups may proceed
+ * concurrently with each other, but modifications are exclusive.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzContentHashIndex implements Closeable {
+    /**
+     * The default initial number of slots in the table.
+     */
+    public static final long DEFAULT_INITIAL_CAPACITY = 1L << 16;
+
+    /**
+     * The magic number identifying the file format ("SZCHIDX1").
+     */
+    private static final long MAGIC = 0x535A434849445831L;
+
+    /**
+     * The version of the file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The number of bytes in the file header.
+     */
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * The offset of the version in the header.
+     */
+    private static final int VERSION_OFFSET = 8;
+
+    /**
+     * The offset of the "clean" flag in the header, which is non-zero if
+     * the file was closed cleanly and the count is accurate.
+     */
+    private static final int CLEAN_OFFSET = 12;
+
+    /**
+     * The offset of the capacity in the header.
+     */
+    private static final int CAPACITY_OFFSET = 16;
+
+    /**
+     * The offset of the count in the header.
+     */
+    private static final int COUNT_OFFSET = 24;
+
+    /**
+     * The number of bytes in each slot.
+     */
+    private static final int SLOT_SIZE = 16;
+
+    /**
+     * The offset of the content hash within a slot.
+     */
+    private static final int CONTENT_OFFSET = 8;
+
+    /**
+     * The base-two logarithm of the number of slots in each mapped segment.
+     */
+    private static final int SEGMENT_SHIFT = 26;
+
+    /**
+     * The number of slots in each mapped segment.
+     */
+    private static final long SEGMENT_SLOTS = 1L << SEGMENT_SHIFT;
+
+    /**
+     * The minimum capacity of the table.
+     */
+    private static final long MIN_CAPACITY = 16L;
+
+    /**
+     * The maximum capacity of the table.
+     */
+    private static final long MAX_CAPACITY = 1L << 40;
+
+    /**
+     * The numerator of the maximum load factor.
+     */
+    private static final long LOAD_FACTOR_NUMERATOR = 3L;
+
+    /**
+     * The denominator of the maximum load factor.
+     */
+    private static final long LOAD_FACTOR_DENOMINATOR = 4L;
+
+    /**
+     * The FNV-1a 64-bit offset basis.
+     */
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /**
+     * The FNV-1a 64-bit prime.
+     */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * The first multiplier for the 64-bit finalization mix.
+     */
+    private static final long MIX_MULTIPLIER_1 = 0xff51afd7ed558ccdL;
+
+    /**
+     * The second multiplier for the 64-bit finalization mix.
+     */
+    private static final long MIX_MULTIPLIER_2 = 0xc4ceb9fe1a85ec53L;
+
+    /**
+     * The shift for the 64-bit finalization mix.
+     */
+    private static final int MIX_SHIFT = 33;
+
+    /**
+     * The character separating the data source code and record ID when
+     * hashing a record key.
+     */
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    /**
+     * The {@link Path} of the index file.
+     */
+    private final Path path;
+
+    /**
+     * The {@link ReadWriteLock} guarding the table.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The {@link FileChannel} for the index file.
+     */
+    private FileChannel channel;
+
+    /**
+     * The {@link MappedByteBuffer} for the header.
+     */
+    private MappedByteBuffer header;
+
+    /**
+     * The {@link MappedByteBuffer} segments for the slots.
+     */
+    private MappedByteBuffer[] segments;
+
+    /**
+     * The number of slots in the table, which is a power of two.
+     */
+    private long capacity;
+
+    /**
+     * The number of entries in the table.
+     */
+    private long count;
+
+    /**
+     * Set to <code>true</code> once closed.
+     */
+    private boolean closed = false;
+
+    /**
+     * Opens the index stored in the file at the specified {@link Path},
+     * creating it with the {@linkplain #DEFAULT_INITIAL_CAPACITY default
+     * initial capacity} if it does not exist.
+     *
+     * @param path The non-null {@link Path} of the index file.
+     *
+     * @throws NullPointerException If the specified {@link Path} is
+     *                              <code>null</code>.
+     *
+     * @throws IOException If the file cannot be opened or is not a valid
+     *                     index file.
+     *
+     * @since 4.4.0
+     */
+    public SzContentHashIndex(Path path)
+        throws NullPointerException, IOException
+    {
+        this(path, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Opens the index stored in the file at the specified {@link Path},
+     * creating it with the specified initial capacity if it does not exist.
+     * The initial capacity is rounded up to a power of two and is ignored if
+     * the file already exists.
+     *
+     * @param path The non-null {@link Path} of the index file.
+     * @param initialCapacity The initial number of slots in the table if
+     *                        the file is created.
+     *
+     * @throws NullPointerException If the specified {@link Path} is
+     *                              <code>null</code>.
+     *
+     * @throws IllegalArgumentException If the specified initial capacity is
+     *                                  not positive.
+     *
+     * @throws IOException If the file cannot be opened or is not a valid
+     *                     index file.
+     *
+     * @since 4.4.0
+     */
+    public SzContentHashIndex(Path path, long initialCapacity)
+        throws NullPointerException, IllegalArgumentException, IOException
+    {
+        Objects.requireNonNull(path, "The path cannot be null");
+        if (initialCapacity <= 0L) {
+            throw new IllegalArgumentException(
+                "The initial capacity must be positive: " + initialCapacity);
+        }
+        this.path = path;
+
+        boolean exists = Files.exists(path) && Files.size(path) > 0L;
+        this.channel = FileChannel.open(path, CREATE, READ, WRITE);
+        try {
+            if (exists) {
+                this.openExisting();
+            } else {
+                this.map(roundCapacity(initialCapacity));
+                this.header.putLong(0, MAGIC);
+                this.header.putInt(VERSION_OFFSET, VERSION);
+                this.count = 0L;
+            }
+            // mark as not clean until closed
+            this.header.putInt(CLEAN_OFFSET, 0);
+            this.header.force();
+
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the existing file, validating the header and recounting the
+     * entries if the file was not closed cleanly.
+     *
+     * @throws IOException If the file is not a valid index file.
+     */
+    private void openExisting() throws IOException {
+        long size = this.channel.size();
+        if (size < HEADER_SIZE) {
+            throw new IOException("Not a valid content hash index file: " + this.path);
+        }
+        MappedByteBuffer buffer = this.channel.map(
+            FileChannel.MapMode.READ_WRITE, 0L, HEADER_SIZE);
+        long    magic       = buffer.getLong(0);
+        int     version     = buffer.getInt(VERSION_OFFSET);
+        long    fileCap     = buffer.getLong(CAPACITY_OFFSET);
+        if (magic != MAGIC) {
+            throw new IOException("Not a valid content hash index file: " + this.path);
+        }
+        if (version != VERSION) {
+            throw new IOException("Unsupported content hash index version ("
+                + version + "): " + this.path);
+        }
+        if (fileCap < MIN_CAPACITY || Long.bitCount(fileCap) != 1
+            || size < HEADER_SIZE + (fileCap * SLOT_SIZE))
+        {
+            throw new IOException("Corrupt content hash index file: " + this.path);
+        }
+        boolean clean = (buffer.getInt(CLEAN_OFFSET) != 0);
+        this.map(fileCap);
+        if (clean) {
+            this.count = this.header.getLong(COUNT_OFFSET);
+        } else {
+            // recount the occupied slots since the count may be stale
+            long occupied = 0L;
+            for (long index = 0L; index < this.capacity; index++) {
+                if (this.keyAt(index) != 0L) {
+                    occupied++;
+                }
+            }
+            this.count = occupied;
+        }
+    }
+
+    /**
+     * Maps the header and the slots of the file for the specified capacity,
+     * extending the file as needed.
+     *
+     * @param capacity The number of slots.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    private void map(long capacity) throws IOException {
+        long segmentCount = Math.max(1L, capacity / SEGMENT_SLOTS);
+        MappedByteBuffer[] mapped = new MappedByteBuffer[(int) segmentCount];
+        long segmentSlots = Math.min(capacity, SEGMENT_SLOTS);
+        for (int index = 0; index < mapped.length; index++) {
+            mapped[index] = this.channel.map(
+                FileChannel.MapMode.READ_WRITE,
+                HEADER_SIZE + (index * segmentSlots * SLOT_SIZE),
+                segmentSlots * SLOT_SIZE);
+        }
+        this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0L, HEADER_SIZE);
+        this.header.putLong(CAPACITY_OFFSET, capacity);
+        this.segments = mapped;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Rounds the specified capacity up to a power of two within the
+     * supported bounds.
+     *
+     * @param capacity The requested capacity.
+     *
+     * @return The rounded capacity.
+     */
+    private static long roundCapacity(long capacity) {
+        if (capacity <= MIN_CAPACITY) {
+            return MIN_CAPACITY;
+        }
+        if (capacity >= MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Long.highestOneBit(capacity - 1L) << 1;
+    }
+
+    /**
+     * Computes the 64-bit hash of the specified record definition after
+     * normalizing it by ignoring all whitespace that is not within a JSON
+     * string.  Record definitions that differ only in formatting therefore
+     * have the same hash, while differences in property order are
+     * considered changes.
+     *
+     * @param recordDefinition The record definition to hash.
+     *
+     * @return The 64-bit hash of the normalized record definition.
+     *
+     * @since 4.4.0
+     */
+    public static long hashContent(CharSequence recordDefinition) {
+        long    hash    = FNV_OFFSET_BASIS;
+        boolean quoted  = false;
+        boolean escaped = false;
+        int     length  = recordDefinition.length();
+        for (int index = 0; index < length; index++) {
+            char c = recordDefinition.charAt(index);
+            if (quoted) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    quoted = false;
+                }
+            } else if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                continue;
+            } else if (c == '"') {
+                quoted = true;
+            }
+            hash = (hash ^ c) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Computes the non-zero 64-bit hash of the specified {@link SzRecordKey}.
+     * The data source code is treated as case-insensitive.
+     *
+     * @param recordKey The {@link SzRecordKey} to hash.
+     *
+     * @return The non-zero 64-bit hash of the record key.
+     */
+    private static long hashKey(SzRecordKey recordKey) {
+        String  dataSource  = recordKey.dataSourceCode();
+        String  recordId    = recordKey.recordId();
+        long    hash        = FNV_OFFSET_BASIS;
+        for (int index = 0; index < dataSource.length(); index++) {
+            hash = (hash ^ Character.toUpperCase(dataSource.charAt(index))) * FNV_PRIME;
+        }
+        hash = (hash ^ KEY_SEPARATOR) * FNV_PRIME;
+        for (int index = 0; index < recordId.length(); index++) {
+            hash = (hash ^ recordId.charAt(index)) * FNV_PRIME;
+        }
+        hash = mix(hash);
+        return (hash == 0L) ? 1L : hash;
+    }
+
+    /**
+     * Applies the 64-bit finalization mix so that all bits of the hash
+     * depend on all bits of the input.
+     *
+     * @param hash The hash to mix.
+     *
+     * @return The mixed hash.
+     */
+    private static long mix(long hash) {
+        long result = hash;
+        result ^= (result >>> MIX_SHIFT);
+        result *= MIX_MULTIPLIER_1;
+        result ^= (result >>> MIX_SHIFT);
+        result *= MIX_MULTIPLIER_2;
+        result ^= (result >>> MIX_SHIFT);
+        return result;
+    }
+
+    /**
+     * Gets the {@link Path} of the index file.
+     *
+     * @return The {@link Path} of the index file.
+     *
+     * @since 4.4.0
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Gets the number of records in the index.
+     *
+     * @return The number of records in the index.
+     *
+     * @since 4.4.0
+     */
+    public long getCount() {
+        Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            return this.count;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of slots in the table.
+     *
+     * @return The number of slots in the table.
+     *
+     * @since 4.4.0
+     */
+    public long getCapacity() {
+        Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            return this.capacity;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Checks if the record with the specified {@link SzRecordKey} was
+     * previously {@linkplain #put(SzRecordKey, long) put} in the index with
+     * the specified content hash.
+     *
+     * @param recordKey The non-null {@link SzRecordKey} for the record.
+     * @param contentHash The {@linkplain #hashContent(CharSequence) content
+     *                    hash} of the record definition.
+     *
+     * @return <code>true</code> if the record is in the index with the same
+     *         content hash, otherwise <code>false</code>.
+     *
+     * @throws IllegalStateException If this instance has been closed.
+     *
+     * @since 4.4.0
+     */
+    public boolean isUnchanged(SzRecordKey recordKey, long contentHash)
+        throws IllegalStateException
+    {
+        long keyHash = hashKey(recordKey);
+        Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            this.ensureOpen();
+            long index = this.find(keyHash);
+            return (index >= 0L) && (this.contentAt(index) == contentHash);
+
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Puts the specified content hash in the index for the record with the
+     * specified {@link SzRecordKey}, replacing any previous content hash.
+     * This should be called after the record is successfully loaded.
+     *
+     * @param recordKey The non-null {@link SzRecordKey} for the record.
+     * @param contentHash The {@linkplain #hashContent(CharSequence) content
+     *                    hash} of the record definition.
+     *
+     * @throws IllegalStateException If this instance has been closed.
+     *
+     * @throws IOException If the table needs to grow and the failure occurs
+     *                     rewriting the file.
+     *
+     * @since 4.4.0
+     */
+    public void put(SzRecordKey recordKey, long contentHash)
+        throws IllegalStateException, IOException
+    {
+        long keyHash = hashKey(recordKey);
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            this.ensureOpen();
+            long index = this.find(keyHash);
+            if (index >= 0L) {
+                this.setSlot(index, keyHash, contentHash);
+                return;
+            }
+            // check if we need to grow
+            if ((this.count + 1L) * LOAD_FACTOR_DENOMINATOR
+                > this.capacity * LOAD_FACTOR_NUMERATOR)
+            {
+                this.grow();
+            }
+            this.setSlot(this.findEmpty(keyHash), keyHash, contentHash);
+            this.count++;
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the record with the specified {@link SzRecordKey} from the
+     * index so that it is not skipped when next loaded.  This should be
+     * called when a record is deleted.
+     *
+     * @param recordKey The non-null {@link SzRecordKey} for the record.
+     *
+     * @return <code>true</code> if the record was in the index, otherwise
+     *         <code>false</code>.
+     *
+     * @throws IllegalStateException If this instance has been closed.
+     *
+     * @since 4.4.0
+     */
+    public boolean remove(SzRecordKey recordKey) throws IllegalStateException {
+        long keyHash = hashKey(recordKey);
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            this.ensureOpen();
+            long index = this.find(keyHash);
+            if (index < 0L) {
+                return false;
+            }
+            // backward-shift the following entries so no tombstones needed
+            long mask = this.capacity - 1L;
+            long gap = index;
+            long next = index;
+            while (true) {
+                next = (next + 1L) & mask;
+                long key = this.keyAt(next);
+                if (key == 0L) {
+                    break;
+                }
+                long home = key & mask;
+                boolean movable = (gap <= next)
+                    ? (home <= gap || home > next)
+                    : (home <= gap && home > next);
+                if (movable) {
+                    this.setSlot(gap, key, this.contentAt(next));
+                    gap = next;
+                }
+            }
+            this.setSlot(gap, 0L, 0L);
+            this.count--;
+            return true;
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes all records from the index.  This should be called if the
+     * repository is purged.
+     *
+     * @throws IllegalStateException If this instance has been closed.
+     *
+     * @since 4.4.0
+     */
+    public void clear() throws IllegalStateException {
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            this.ensureOpen();
+            for (long index = 0L; index < this.capacity; index++) {
+                this.setSlot(index, 0L, 0L);
+            }
+            this.count = 0L;
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Forces any changes to the index to be written to the file.
+     *
+     * @throws IllegalStateException If this instance has been closed.
+     *
+     * @since 4.4.0
+     */
+    public void flush() throws IllegalStateException {
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            this.ensureOpen();
+            this.header.putLong(COUNT_OFFSET, this.count);
+            for (MappedByteBuffer segment : this.segments) {
+                segment.force();
+            }
+            this.header.force();
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes and closes the index, marking the file as cleanly closed.
+     * Subsequent calls to this method have no effect.
+     *
+     * @throws IOException If a failure occurs closing the file.
+     *
+     * @since 4.4.0
+     */
+    @Override
+    public void close() throws IOException {
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+            this.header.putLong(COUNT_OFFSET, this.count);
+            for (MappedByteBuffer segment : this.segments) {
+                segment.force();
+            }
+            this.header.putInt(CLEAN_OFFSET, 1);
+            this.header.force();
+            this.closed = true;
+            this.segments = null;
+            this.header = null;
+            this.channel.close();
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Ensures this instance has not been closed.
+     *
+     * @throws IllegalStateException If this instance has been closed.
+     */
+    private void ensureOpen() throws IllegalStateException {
+        if (this.closed) {
+            throw new IllegalStateException(
+                "The content hash index has been closed: " + this.path);
+        }
+    }
+
+    /**
+     * Finds the slot index for the specified key hash.
+     *
+     * @param keyHash The non-zero key hash.
+     *
+     * @return The slot index, or negative one (-1) if not found.
+     */
+    private long find(long keyHash) {
+        long mask = this.capacity - 1L;
+        for (long index = keyHash & mask; ; index = (index + 1L) & mask) {
+            long key = this.keyAt(index);
+            if (key == keyHash) {
+                return index;
+            }
+            if (key == 0L) {
+                return -1L;
+            }
+        }
+    }
+
+    /**
+     * Finds the first empty slot index for the specified key hash.
+     *
+     * @param keyHash The non-zero key hash.
+     *
+     * @return The slot index.
+     */
+    private long findEmpty(long keyHash) {
+        long mask = this.capacity - 1L;
+        long index = keyHash & mask;
+        while (this.keyAt(index) != 0L) {
+            index = (index + 1L) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Doubles the capacity of the table by writing a new file with the
+     * entries rehashed and then replacing the current file with it.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    private void grow() throws IOException {
+        if (this.capacity >= MAX_CAPACITY) {
+            throw new IOException(
+                "The content hash index has reached its maximum capacity: " + this.path);
+        }
+        Path resizePath = this.path.resolveSibling(
+            this.path.getFileName() + ".resize");
+
+        MappedByteBuffer[]  oldSegments = this.segments;
+        long                oldCapacity = this.capacity;
+        FileChannel         oldChannel  = this.channel;
+
+        FileChannel newChannel = FileChannel.open(
+            resizePath, CREATE, READ, WRITE, TRUNCATE_EXISTING);
+        try {
+            this.channel = newChannel;
+            this.map(oldCapacity * 2L);
+            this.header.putLong(0, MAGIC);
+            this.header.putInt(VERSION_OFFSET, VERSION);
+            this.header.putInt(CLEAN_OFFSET, 0);
+            this.header.putLong(COUNT_OFFSET, this.count);
+
+            MappedByteBuffer[] newSegments = this.segments;
+            for (long index = 0L; index < oldCapacity; index++) {
+                this.segments = oldSegments;
+                long key = this.keyAt(index);
+                if (key == 0L) {
+                    continue;
+                }
+                long content = this.contentAt(index);
+                this.segments = newSegments;
+                this.setSlot(this.findEmpty(key), key, content);
+            }
+            this.segments = newSegments;
+            for (MappedByteBuffer segment : newSegments) {
+                segment.force();
+            }
+            this.header.force();
+            Files.move(resizePath, this.path,
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (IOException | RuntimeException e) {
+            // restore the previous table
+            this.channel = oldChannel;
+            this.segments = oldSegments;
+            this.capacity = oldCapacity;
+            this.header = oldChannel.map(FileChannel.MapMode.READ_WRITE, 0L, HEADER_SIZE);
+            newChannel.close();
+            Files.deleteIfExists(resizePath);
+            throw e;
+        }
+        oldChannel.close();
+    }
+
+    /**
+     * Gets the {@link MappedByteBuffer} segment for the slot at the
+     * specified index.
+     *
+     * @param index The slot index.
+     *
+     * @return The {@link MappedByteBuffer} segment containing the slot.
+     */
+    private MappedByteBuffer segmentFor(long index) {
+        return this.segments[(int) (index >>> SEGMENT_SHIFT)];
+    }
+
+    /**
+     * Gets the byte offset of the slot at the specified index within its
+     * segment.
+     *
+     * @param index The slot index.
+     *
+     * @return The byte offset within the segment.
+     */
+    private static int offsetFor(long index) {
+        return (int) (index & (SEGMENT_SLOTS - 1L)) * SLOT_SIZE;
+    }
+
+    /**
+     * Gets the key hash stored in the slot at the specified index.
+     *
+     * @param index The slot index.
+     *
+     * @return The key hash, or zero (0) if the slot is empty.
+     */
+    private long keyAt(long index) {
+        return this.segmentFor(index).getLong(offsetFor(index));
+    }
+
+    /**
+     * Gets the content hash stored in the slot at the specified index.
+     *
+     * @param index The slot index.
+     *
+     * @return The content hash.
+     */
+    private long contentAt(long index) {
+        return this.segmentFor(index).getLong(offsetFor(index) + CONTENT_OFFSET);
+    }
+
+    /**
+     * Stores the specified hashes in the slot at the specified index.
+     *
+     * @param index The slot index.
+     * @param keyHash The key hash, or zero (0) to clear the slot.
+     * @param contentHash The content hash.
+     */
+    private void setSlot(long index, long keyHash, long contentHash) {
+        MappedByteBuffer    segment = this.segmentFor(index);
+        int                 offset  = offsetFor(index);
+        segment.putLong(offset + CONTENT_OFFSET, contentHash);
+        segment.putLong(offset, keyHash);
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzContentHashIndex{ path=[ " + this.path
+            + " ], count=[ " + this.getCount()
+            + " ], capacity=[ " + this.getCapacity() + " ] }";
+    }
+}
@@ -0,0 +1,517 @@
+package com.senzing.sdk.load;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.senzing.sdk.core.SzCoreUtilities.jsonEscape;
+
+/**
+ * Provides a declarative mapping of CSV columns to Senzing JSON attributes
+ * for use with {@link SzCsvRecordSource}.  Columns are identified by their
+ * header names which are matched case-insensitively after trimming any
+ * leading and trailing whitespace.
+ *
+ * <p>
+ * Every mapping identifies the data source code (either as a constant or
+ * from a column) and the column providing the record ID.  Other columns
+ * are explicitly mapped to Senzing JSON attribute names, and optionally
+ * any unmapped columns can be passed through using their header name as
+ * the attribute name.
+ * </p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ *   SzCsvMapping mapping = SzCsvMapping.newBuilder()
+ *       .dataSource("CUSTOMERS")
+ *       .recordIdColumn("cust_id")
+ *       .attribute("full_name", "NAME_FULL")
+ *       .attribute("dob", "DATE_OF_BIRTH")
+ *       .attribute("phone", "PHONE_NUMBER")
+ *       .build();
+ * </pre>
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzCsvMapping {
+    /**
+     * Provides a builder class for creating instances of {@link SzCsvMapping}.
+     *
+     * @since 4.4.0
+     */
+    public static final class Builder {
+        /**
+         * The constant data source code, if any.
+         */
+        private String dataSourceCode = null;
+
+        /**
+         * The name of the data source column, if any.
+         */
+        private String dataSourceColumn = null;
+
+        /**
+         * The name of the record ID column.
+         */
+        private String recordIdColumn = null;
+
+        /**
+         * The {@link Map} of normalized column names to attribute names.
+         */
+        private Map<String, String> attributes = new LinkedHashMap<>();
+
+        /**
+         * Whether or not unmapped columns are passed through.
+         */
+        private boolean passthrough = false;
+
+        /**
+         * Whether or not empty values are included in the JSON.
+         */
+        private boolean includeEmptyValues = false;
+
+        /**
+         * Private default constructor.
+         */
+        private Builder() {
+            // do nothing
+        }
+
+        /**
+         * Sets the constant data source code to use for every record.
+         * This clears any previously specified {@linkplain
+         * #dataSourceColumn(String) data source column}.
+         *
+         * @param dataSourceCode The non-null data source code.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @throws IllegalArgumentException If the specified parameter is
+         *                                  blank.
+         *
+         * @since 4.4.0
+         */
+        public Builder dataSource(String dataSourceCode)
+            throws NullPointerException, IllegalArgumentException
+        {
+            this.dataSourceCode = requireNonBlank(dataSourceCode, "data source code").trim();
+            this.dataSourceColumn = null;
+            return this;
+        }
+
+        /**
+         * Sets the name of the column that provides the data source code
+         * for each record.  This clears any previously specified {@linkplain
+         * #dataSource(String) constant data source code}.
+         *
+         * @param column The non-null name of the data source column.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @throws IllegalArgumentException If the specified parameter is
+         *                                  blank.
+         *
+         * @since 4.4.0
+         */
+        public Builder dataSourceColumn(String column)
+            throws NullPointerException, IllegalArgumentException
+        {
+            this.dataSourceColumn = requireNonBlank(column, "data source column");
+            this.dataSourceCode = null;
+            return this;
+        }
+
+        /**
+         * Sets the name of the column that provides the record ID for
+         * each record.
+         *
+         * @param column The non-null name of the record ID column.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @throws IllegalArgumentException If the specified parameter is
+         *                                  blank.
+         *
+         * @since 4.4.0
+         */
+        public Builder recordIdColumn(String column)
+            throws NullPointerException, IllegalArgumentException
+        {
+            this.recordIdColumn = requireNonBlank(column, "record ID column");
+            return this;
+        }
+
+        /**
+         * Maps the column with the specified name to the specified Senzing
+         * JSON attribute name.  Mapping the same column more than once
+         * replaces the previous mapping.
+         *
+         * @param column The non-null name of the column.
+         *
+         * @param attribute The non-null Senzing JSON attribute name.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If either parameter is
+         *                              <code>null</code>.
+         *
+         * @throws IllegalArgumentException If either parameter is blank.
+         *
+         * @since 4.4.0
+         */
+        public Builder attribute(String column, String attribute)
+            throws NullPointerException, IllegalArgumentException
+        {
+            this.attributes.put(normalize(requireNonBlank(column, "column")),
+                                requireNonBlank(attribute, "attribute").trim());
+            return this;
+        }
+
+        /**
+         * Sets whether or not columns that are not explicitly mapped should
+         * be passed through to the record definition using their (trimmed)
+         * header name as the attribute name.  This is <code>false</code> by
+         * default.
+         *
+         * @param passthrough <code>true</code> if unmapped columns should be
+         *                    passed through, otherwise <code>false</code>.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder passthrough(boolean passthrough) {
+            this.passthrough = passthrough;
+            return this;
+        }
+
+        /**
+         * Sets whether or not empty (or all whitespace) values should be
+         * included in the record definition.  This is <code>false</code>
+         * by default so that empty columns are omitted.
+         *
+         * @param includeEmptyValues <code>true</code> if empty values
+         *                           should be included, otherwise
+         *                           <code>false</code>.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder includeEmptyValues(boolean includeEmptyValues) {
+            this.includeEmptyValues = includeEmptyValues;
+            return this;
+        }
+
+        /**
+         * Builds a new instance of {@link SzCsvMapping} from this builder.
+         *
+         * @return The newly constructed {@link SzCsvMapping}.
+         *
+         * @throws IllegalStateException If neither a data source code nor a
+         *                               data source column was specified, or
+         *                               if the record ID column was not
+         *                               specified.
+         *
+         * @since 4.4.0
+         */
+        public SzCsvMapping build() throws IllegalStateException {
+            if (this.dataSourceCode == null && this.dataSourceColumn == null) {
+                throw new IllegalStateException(
+                    "Either a data source code or a data source column is required");
+            }
+            if (this.recordIdColumn == null) {
+                throw new IllegalStateException("The record ID column is required");
+            }
+            return new SzCsvMapping(this);
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for building an {@link SzCsvMapping}.
+     *
+     * @return The new {@link Builder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * The constant data source code, if any.
+     */
+    private String dataSourceCode;
+
+    /**
+     * The name of the data source column, if any.
+     */
+    private String dataSourceColumn;
+
+    /**
+     * The name of the record ID column.
+     */
+    private String recordIdColumn;
+
+    /**
+     * The <b>unmodifiable</b> {@link Map} of normalized column names to
+     * attribute names.
+     */
+    private Map<String, String> attributes;
+
+    /**
+     * Whether or not unmapped columns are passed through.
+     */
+    private boolean passthrough;
+
+    /**
+     * Whether or not empty values are included in the JSON.
+     */
+    private boolean includeEmptyValues;
+
+    /**
+     * Private constructor for constructing with a {@link Builder}.
+     *
+     * @param builder The {@link Builder} from which to construct.
+     */
+    private SzCsvMapping(Builder builder) {
+        this.dataSourceCode     = builder.dataSourceCode;
+        this.dataSourceColumn   = builder.dataSourceColumn;
+        this.recordIdColumn     = builder.recordIdColumn;
+        this.attributes         = Collections.unmodifiableMap(
+            new LinkedHashMap<>(builder.attributes));
+        this.passthrough        = builder.passthrough;
+        this.includeEmptyValues = builder.includeEmptyValues;
+    }
+
+    /**
+     * Gets the constant data source code, or <code>null</code> if the data
+     * source code is obtained from a {@linkplain #getDataSourceColumn()
+     * column}.
+     *
+     * @return The constant data source code, or <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public String getDataSourceCode() {
+        return this.dataSourceCode;
+    }
+
+    /**
+     * Gets the name of the column providing the data source code, or
+     * <code>null</code> if a {@linkplain #getDataSourceCode() constant}
+     * data source code is used.
+     *
+     * @return The name of the data source column, or <code>null</code>
+     *         if none.
+     *
+     * @since 4.4.0
+     */
+    public String getDataSourceColumn() {
+        return this.dataSourceColumn;
+    }
+
+    /**
+     * Gets the name of the column providing the record ID.
+     *
+     * @return The name of the record ID column.
+     *
+     * @since 4.4.0
+     */
+    public String getRecordIdColumn() {
+        return this.recordIdColumn;
+    }
+
+    /**
+     * Gets the <b>unmodifiable</b> {@link Map} of normalized (trimmed and
+     * upper-case) column names to Senzing JSON attribute names.
+     *
+     * @return The <b>unmodifiable</b> {@link Map} of column names to
+     *         attribute names.
+     *
+     * @since 4.4.0
+     */
+    public Map<String, String> getAttributes() {
+        return this.attributes;
+    }
+
+    /**
+     * Checks whether or not unmapped columns are passed through.
+     *
+     * @return <code>true</code> if unmapped columns are passed through,
+     *         otherwise <code>false</code>.
+     *
+     * @since 4.4.0
+     */
+    public boolean isPassthrough() {
+        return this.passthrough;
+    }
+
+    /**
+     * Checks whether or not empty values are included in the record
+     * definition.
+     *
+     * @return <code>true</code> if empty values are included, otherwise
+     *         <code>false</code>.
+     *
+     * @since 4.4.0
+     */
+    public boolean isIncludeEmptyValues() {
+        return this.includeEmptyValues;
+    }
+
+    /**
+     * Resolves this mapping against the specified header names, producing
+     * the per-column plan used when converting rows to JSON.
+     *
+     * @param header The array of header names.
+     *
+     * @return The {@link ColumnPlan} for the specified header.
+     *
+     * @throws IllegalArgumentException If a column referenced by this
+     *                                  mapping is not found in the header.
+     */
+    ColumnPlan resolve(String[] header) throws IllegalArgumentException {
+        Map<String, Integer> indices = new LinkedHashMap<>();
+        for (int index = 0; index < header.length; index++) {
+            indices.putIfAbsent(normalize(header[index]), index);
+        }
+
+        int dataSourceIndex = (this.dataSourceColumn == null)
+            ? -1 : requireColumn(indices, this.dataSourceColumn);
+        int recordIdIndex = requireColumn(indices, this.recordIdColumn);
+
+        String[] prefixes = new String[header.length];
+        for (Map.Entry<String, String> entry : this.attributes.entrySet()) {
+            int index = requireColumn(indices, entry.getKey());
+            prefixes[index] = attributePrefix(entry.getValue());
+        }
+        if (this.passthrough) {
+            for (int index = 0; index < header.length; index++) {
+                if (prefixes[index] != null || index == dataSourceIndex
+                    || index == recordIdIndex || header[index].isBlank())
+                {
+                    continue;
+                }
+                prefixes[index] = attributePrefix(header[index].trim());
+            }
+        }
+        return new ColumnPlan(dataSourceIndex, recordIdIndex, prefixes);
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzCsvMapping{ dataSourceCode=[ " + this.dataSourceCode
+            + " ], dataSourceColumn=[ " + this.dataSourceColumn
+            + " ], recordIdColumn=[ " + this.recordIdColumn
+            + " ], attributes=[ " + this.attributes
+            + " ], passthrough=[ " + this.passthrough
+            + " ], includeEmptyValues=[ " + this.includeEmptyValues + " ] }";
+    }
+
+    /**
+     * Describes the resolution of an {@link SzCsvMapping} against a
+     * specific CSV header.
+     *
+     * @param dataSourceIndex The index of the data source column, or
+     *                        negative one (-1) if a constant is used.
+     *
+     * @param recordIdIndex The index of the record ID column.
+     *
+     * @param prefixes The array of pre-escaped <code>"ATTRIBUTE":</code>
+     *                 prefixes for each column, with <code>null</code>
+     *                 elements for columns that are not emitted.
+     */
+    record ColumnPlan(int dataSourceIndex, int recordIdIndex, String[] prefixes) {
+        // no additional members
+    }
+
+    /**
+     * Produces the escaped JSON property name prefix (including the colon)
+     * for the specified attribute name.
+     *
+     * @param attribute The attribute name.
+     *
+     * @return The JSON property prefix.
+     */
+    private static String attributePrefix(String attribute) {
+        StringBuilder sb = new StringBuilder(attribute.length() + 3);
+        jsonEscape(attribute, sb);
+        return sb.append(':').toString();
+    }
+
+    /**
+     * Looks up the index of the specified column in the specified map of
+     * normalized header names, throwing an exception if not found.
+     *
+     * @param indices The {@link Map} of normalized header names to indices.
+     * @param column The column name to look for.
+     *
+     * @return The index of the column.
+     *
+     * @throws IllegalArgumentException If the column is not found.
+     */
+    private static int requireColumn(Map<String, Integer> indices, String column)
+        throws IllegalArgumentException
+    {
+        Integer index = indices.get(normalize(column));
+        if (index == null) {
+            throw new IllegalArgumentException(
+                "The mapped column was not found in the CSV header.  column=[ "
+                + column + " ], header=[ " + indices.keySet() + " ]");
+        }
+        return index;
+    }
+
+    /**
+     * Normalizes the specified column name for case-insensitive matching.
+     *
+     * @param column The column name to normalize.
+     *
+     * @return The normalized column name.
+     */
+    private static String normalize(String column) {
+        return column.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Ensures the specified value is not <code>null</code> or blank.
+     *
+     * @param value The value to check.
+     * @param description The description of the value for error messages.
+     *
+     * @return The specified value.
+     *
+     * @throws NullPointerException If the value is <code>null</code>.
+     *
+     * @throws IllegalArgumentException If the value is blank.
+     */
+    private static String requireNonBlank(String value, String description)
+        throws NullPointerException, IllegalArgumentException
+    {
+        Objects.requireNonNull(value, "The " + description + " cannot be null");
+        if (value.isBlank()) {
+            throw new IllegalArgumentException(
+                "The " + description + " cannot be blank");
+        }
+        return value;
+    }
+}
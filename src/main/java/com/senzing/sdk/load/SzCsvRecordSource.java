@@ -0,0 +1,1072 @@
+package com.senzing.sdk.load;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import com.senzing.sdk.load.SzCsvMapping.ColumnPlan;
+
+import static com.senzing.sdk.core.SzCoreUtilities.jsonEscape;
+
+/**
+ * Provides an {@link SzRecordSource} implementation that reads records
+ * from a CSV file with a header row, converting each row to a Senzing JSON
+ * record definition according to an {@link SzCsvMapping}.  The JSON is
+ * written directly into the reusable buffer of the {@link SzLoadRecord}
+ * without creating intermediate objects for each field.
+ *
+ * <p>
+ * Unless {@linkplain Builder#multilineValues(boolean) multi-line values}
+ * are enabled, every line after the header is a single row and the file
+ * is split into byte ranges aligned on line boundaries so that multiple
+ * {@link SzRecordReader} instances can parse the file in parallel.  Each
+ * row belongs to the range in which its first byte falls.  If quoted values
+ * may contain line breaks then multi-line values must be enabled, which
+ * limits the source to a single reader.
+ * </p>
+ *
+ * <p>
+ * Files compressed with gzip are detected automatically and decompressed
+ * on a dedicated thread per reader that runs ahead of parsing.  A file
+ * made up of multiple gzip members (e.g.: concatenated gzip files or BGZF
+ * files written by <code>bgzip</code>) is split into partitions at member
+ * boundaries so that the members are decompressed and parsed in parallel,
+ * in which case each row belongs to the partition that contains the line
+ * break preceding it.  A single-member gzip file is read by a single
+ * reader.  The byte length and bytes read of a compressed file are
+ * measured in compressed bytes.
+ * </p>
+ *
+ * <p>
+ * Rows that cannot be parsed (e.g.: an unterminated quoted value) do not
+ * stop the reader; instead the {@link SzLoadRecord} is populated with the
+ * raw row text and a {@linkplain SzLoadRecord#getReadError() read error}.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzCsvRecordSource implements SzRecordSource {
+    /**
+     * The default minimum number of bytes in each partition of the file.
+     * Files smaller than twice this size are not partitioned.
+     */
+    public static final long DEFAULT_MIN_PARTITION_SIZE = 4L * 1024L * 1024L;
+
+    /**
+     * The default size of the I/O buffer for each reader.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The default delimiter character.
+     */
+    public static final char DEFAULT_DELIMITER = ',';
+
+    /**
+     * The default quote character.
+     */
+    public static final char DEFAULT_QUOTE = '"';
+
+    /**
+     * The line feed byte.
+     */
+    private static final byte LINE_FEED = '\n';
+
+    /**
+     * The carriage return byte.
+     */
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    /**
+     * The byte order mark character that may begin the header.
+     */
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    /**
+     * The initial capacity of the row buffer.
+     */
+    private static final int INITIAL_ROW_CAPACITY = 1024;
+
+    /**
+     * The maximum value of an ASCII character.
+     */
+    private static final char MAX_ASCII = '\u007f';
+
+    /**
+     * Provides a builder class for creating instances of {@link
+     * SzCsvRecordSource}.
+     *
+     * @since 4.4.0
+     */
+    public static final class Builder {
+        /**
+         * The path to the CSV file.
+         */
+        private Path path = null;
+
+        /**
+         * The {@link SzCsvMapping} to use.
+         */
+        private SzCsvMapping mapping = null;
+
+        /**
+         * The {@link Charset} of the file.
+         */
+        private Charset charset = StandardCharsets.UTF_8;
+
+        /**
+         * The delimiter character.
+         */
+        private char delimiter = DEFAULT_DELIMITER;
+
+        /**
+         * The quote character.
+         */
+        private char quote = DEFAULT_QUOTE;
+
+        /**
+         * Whether or not quoted values may span multiple lines.
+         */
+        private boolean multilineValues = false;
+
+        /**
+         * The minimum partition size.
+         */
+        private long minPartitionSize = DEFAULT_MIN_PARTITION_SIZE;
+
+        /**
+         * The I/O buffer size.
+         */
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+        /**
+         * Private default constructor.
+         */
+        private Builder() {
+            // do nothing
+        }
+
+        /**
+         * Sets the {@link Path} to the CSV file.
+         *
+         * @param path The non-null {@link Path} to the CSV file.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder path(Path path) throws NullPointerException {
+            this.path = Objects.requireNonNull(path, "The path cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the {@link SzCsvMapping} describing how the columns are
+         * mapped to the record definition.
+         *
+         * @param mapping The non-null {@link SzCsvMapping} to use.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder mapping(SzCsvMapping mapping) throws NullPointerException {
+            this.mapping = Objects.requireNonNull(
+                mapping, "The mapping cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the {@link Charset} of the CSV file.  This must be either
+         * UTF-8 or a single-byte ASCII-compatible character set so that
+         * line breaks, delimiters and quotes can be recognized at the byte
+         * level.  The default is UTF-8.
+         *
+         * @param charset The non-null {@link Charset} of the file.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @throws IllegalArgumentException If the specified {@link Charset}
+         *                                  is not supported.
+         *
+         * @since 4.4.0
+         */
+        public Builder charset(Charset charset)
+            throws NullPointerException, IllegalArgumentException
+        {
+            Objects.requireNonNull(charset, "The charset cannot be null");
+            boolean supported = charset.equals(StandardCharsets.UTF_8)
+                || (charset.canEncode()
+                    && charset.newEncoder().maxBytesPerChar() == 1.0f);
+            if (!supported
+                || !Arrays.equals("\r\n".getBytes(charset),
+                                  "\r\n".getBytes(StandardCharsets.US_ASCII)))
+            {
+                throw new IllegalArgumentException(
+                    "The charset must be UTF-8 or a single-byte ASCII-compatible "
+                    + "character set: " + charset);
+            }
+            this.charset = charset;
+            return this;
+        }
+
+        /**
+         * Sets the delimiter character, which must be an ASCII character
+         * other than a line break.  The default is {@link #DEFAULT_DELIMITER}.
+         *
+         * @param delimiter The delimiter character.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified character is
+         *                                  not a supported delimiter.
+         *
+         * @since 4.4.0
+         */
+        public Builder delimiter(char delimiter) throws IllegalArgumentException {
+            this.delimiter = checkSpecialChar(delimiter, "delimiter");
+            return this;
+        }
+
+        /**
+         * Sets the quote character, which must be an ASCII character other
+         * than a line break.  The default is {@link #DEFAULT_QUOTE}.
+         *
+         * @param quote The quote character.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified character is
+         *                                  not a supported quote character.
+         *
+         * @since 4.4.0
+         */
+        public Builder quote(char quote) throws IllegalArgumentException {
+            this.quote = checkSpecialChar(quote, "quote");
+            return this;
+        }
+
+        /**
+         * Sets whether or not quoted values may contain line breaks.  This
+         * is <code>false</code> by default.  Enabling multi-line values
+         * prevents the file from being parsed in parallel.
+         *
+         * @param multilineValues <code>true</code> if quoted values may
+         *                        span multiple lines, otherwise
+         *                        <code>false</code>.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder multilineValues(boolean multilineValues) {
+            this.multilineValues = multilineValues;
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of bytes in each partition when the file
+         * is split for parallel parsing.  The default is {@link
+         * #DEFAULT_MIN_PARTITION_SIZE}.
+         *
+         * @param minPartitionSize The positive minimum partition size.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder minPartitionSize(long minPartitionSize)
+            throws IllegalArgumentException
+        {
+            if (minPartitionSize <= 0L) {
+                throw new IllegalArgumentException(
+                    "The minimum partition size must be positive: "
+                    + minPartitionSize);
+            }
+            this.minPartitionSize = minPartitionSize;
+            return this;
+        }
+
+        /**
+         * Sets the size of the I/O buffer for each reader.  The default is
+         * {@link #DEFAULT_BUFFER_SIZE}.
+         *
+         * @param bufferSize The positive buffer size in bytes.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder bufferSize(int bufferSize) throws IllegalArgumentException {
+            if (bufferSize <= 0) {
+                throw new IllegalArgumentException(
+                    "The buffer size must be positive: " + bufferSize);
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link SzCsvRecordSource} from this builder.
+         *
+         * @return The newly constructed {@link SzCsvRecordSource}.
+         *
+         * @throws IllegalStateException If the path or mapping was not
+         *                               specified, or if the delimiter and
+         *                               quote are the same character.
+         *
+         * @since 4.4.0
+         */
+        public SzCsvRecordSource build() throws IllegalStateException {
+            if (this.path == null) {
+                throw new IllegalStateException("The path is required");
+            }
+            if (this.mapping == null) {
+                throw new IllegalStateException("The mapping is required");
+            }
+            if (this.delimiter == this.quote) {
+                throw new IllegalStateException(
+                    "The delimiter and quote must differ: " + this.quote);
+            }
+            return new SzCsvRecordSource(this);
+        }
+
+        /**
+         * Checks that the specified character may be used as a delimiter
+         * or quote character.
+         *
+         * @param c The character to check.
+         * @param description The description for the error message.
+         *
+         * @return The specified character.
+         *
+         * @throws IllegalArgumentException If not supported.
+         */
+        private static char checkSpecialChar(char c, String description)
+            throws IllegalArgumentException
+        {
+            if (c > MAX_ASCII || c == '\n' || c == '\r') {
+                throw new IllegalArgumentException(
+                    "The " + description + " must be an ASCII character other "
+                    + "than a line break: " + Utilities.formatChar(c));
+            }
+            return c;
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for building an {@link
+     * SzCsvRecordSource}.
+     *
+     * @return The new {@link Builder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * The path to the CSV file.
+     */
+    private Path path;
+
+    /**
+     * The {@link SzCsvMapping} to use.
+     */
+    private SzCsvMapping mapping;
+
+    /**
+     * The {@link Charset} of the file.
+     */
+    private Charset charset;
+
+    /**
+     * The delimiter character.
+     */
+    private char delimiter;
+
+    /**
+     * The quote character.
+     */
+    private char quote;
+
+    /**
+     * Whether or not quoted values may span multiple lines.
+     */
+    private boolean multilineValues;
+
+    /**
+     * The minimum partition size.
+     */
+    private long minPartitionSize;
+
+    /**
+     * The I/O buffer size.
+     */
+    private int bufferSize;
+
+    /**
+     * Private constructor for constructing with a {@link Builder}.
+     *
+     * @param builder The {@link Builder} from which to construct.
+     */
+    private SzCsvRecordSource(Builder builder) {
+        this.path               = builder.path;
+        this.mapping            = builder.mapping;
+        this.charset            = builder.charset;
+        this.delimiter          = builder.delimiter;
+        this.quote              = builder.quote;
+        this.multilineValues    = builder.multilineValues;
+        this.minPartitionSize   = builder.minPartitionSize;
+        this.bufferSize         = builder.bufferSize;
+    }
+
+    /**
+     * Gets the {@link Path} to the CSV file.
+     *
+     * @return The {@link Path} to the CSV file.
+     *
+     * @since 4.4.0
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Gets the {@link SzCsvMapping} for this instance.
+     *
+     * @return The {@link SzCsvMapping} for this instance.
+     *
+     * @since 4.4.0
+     */
+    public SzCsvMapping getMapping() {
+        return this.mapping;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Implemented to return the {@link String} representation of the
+     * {@linkplain #getPath() path}.
+     */
+    @Override
+    public String getName() {
+        return this.path.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Implemented to return the size of the file.
+     */
+    @Override
+    public long getByteLength() {
+        try {
+            return Files.size(this.path);
+        } catch (IOException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Implemented to read the header row and then split the remainder of
+     * the file into byte ranges of at least the {@linkplain
+     * Builder#minPartitionSize(long) minimum partition size}.  A single
+     * reader is returned if {@linkplain Builder#multilineValues(boolean)
+     * multi-line values} are enabled.
+     */
+    @Override
+    public List<SzRecordReader> openReaders(int maxReaderCount)
+        throws IOException, IllegalArgumentException
+    {
+        if (maxReaderCount <= 0) {
+            throw new IllegalArgumentException(
+                "The maximum reader count must be positive: " + maxReaderCount);
+        }
+
+        if (GzipInput.isGzip(this.path)) {
+            return this.openGzipReaders(maxReaderCount);
+        }
+
+        // read the header row
+        long size = Files.size(this.path);
+        String[] header = null;
+        long dataStart = 0L;
+        try (CsvRangeReader headerReader = new CsvRangeReader(0L, size, null)) {
+            if (headerReader.readRow() && headerReader.decodeAndParse()) {
+                header = headerReader.getFields();
+                if (header.length > 0 && header[0].length() > 0
+                    && header[0].charAt(0) == BYTE_ORDER_MARK)
+                {
+                    header[0] = header[0].substring(1);
+                }
+            }
+            dataStart = headerReader.offset;
+        }
+        if (header == null) {
+            // an empty file has no records
+            return List.of(new CsvRangeReader(size, size, null));
+        }
+        ColumnPlan plan = this.mapping.resolve(header);
+
+        // determine the partition count
+        long dataLength = size - dataStart;
+        long count = (this.multilineValues)
+            ? 1L : Math.max(1L, dataLength / this.minPartitionSize);
+        count = Math.min(count, maxReaderCount);
+
+        List<SzRecordReader> readers = new ArrayList<>((int) count);
+        try {
+            for (long index = 0; index < count; index++) {
+                long start = dataStart + ((dataLength * index) / count);
+                long end = dataStart + ((dataLength * (index + 1)) / count);
+                readers.add(new CsvRangeReader(start, end, plan));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (SzRecordReader reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException ignore) {
+                    // ignore
+                }
+            }
+            throw e;
+        }
+        return readers;
+    }
+
+    /**
+     * Opens the readers for a gzip-compressed file by reading the header
+     * row and then splitting the file into partitions at gzip member
+     * boundaries.
+     *
+     * @param maxReaderCount The maximum number of readers to open.
+     *
+     * @return The {@link List} of opened {@link SzRecordReader} instances.
+     *
+     * @throws IOException If an I/O failure occurs.
+     */
+    private List<SzRecordReader> openGzipReaders(int maxReaderCount)
+        throws IOException
+    {
+        long size = Files.size(this.path);
+
+        // read the header row
+        String[] header = null;
+        try (CsvRangeReader headerReader = new CsvRangeReader(
+                new GzipInput(this.path, 0L, size, this.bufferSize), null))
+        {
+            if (headerReader.readRow() && headerReader.decodeAndParse()) {
+                header = headerReader.getFields();
+                if (header.length > 0 && header[0].length() > 0
+                    && header[0].charAt(0) == BYTE_ORDER_MARK)
+                {
+                    header[0] = header[0].substring(1);
+                }
+            }
+        }
+        if (header == null) {
+            // an empty file has no records
+            return List.of(new CsvRangeReader(size, size, null));
+        }
+        ColumnPlan plan = this.mapping.resolve(header);
+
+        // determine the partitions
+        long count = (this.multilineValues)
+            ? 1L : Math.max(1L, size / this.minPartitionSize);
+        count = Math.min(count, maxReaderCount);
+        long[] boundaries = (count == 1L)
+            ? new long[] { 0L, size }
+            : GzipInput.findPartitions(this.path, (int) count);
+
+        List<SzRecordReader> readers = new ArrayList<>(boundaries.length - 1);
+        try {
+            for (int index = 0; index < boundaries.length - 1; index++) {
+                GzipInput input = new GzipInput(
+                    this.path, boundaries[index], boundaries[index + 1], this.bufferSize);
+                try {
+                    readers.add(new CsvRangeReader(input, plan));
+                } catch (IOException | RuntimeException e) {
+                    input.close();
+                    throw e;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            for (SzRecordReader reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException ignore) {
+                    // ignore
+                }
+            }
+            throw e;
+        }
+        return readers;
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzCsvRecordSource{ path=[ " + this.path
+            + " ], charset=[ " + this.charset
+            + " ], delimiter=[ " + Utilities.formatChar(this.delimiter)
+            + " ], quote=[ " + Utilities.formatChar(this.quote)
+            + " ], multilineValues=[ " + this.multilineValues
+            + " ], mapping=[ " + this.mapping + " ] }";
+    }
+
+    /**
+     * The {@link SzRecordReader} implementation that reads the rows whose
+     * first byte falls within a specific byte range of the file, or the
+     * rows of a partition of a gzip-compressed file.
+     */
+    private final class CsvRangeReader implements SzRecordReader {
+        /**
+         * The {@link FileChannel} for reading the file, or <code>null</code>
+         * if reading a gzip partition.
+         */
+        private FileChannel channel;
+
+        /**
+         * The {@link GzipInput} for reading a partition of a gzip file, or
+         * <code>null</code> if reading an uncompressed byte range.
+         */
+        private GzipInput gzip = null;
+
+        /**
+         * The offset at which the range starts.
+         */
+        private final long rangeStart;
+
+        /**
+         * The offset at which the range ends (exclusive).
+         */
+        private final long rangeEnd;
+
+        /**
+         * The {@link ColumnPlan} for converting rows to JSON, or
+         * <code>null</code> if only reading the header.
+         */
+        private final ColumnPlan plan;
+
+        /**
+         * The I/O buffer (in read mode).
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * The file offset of the next byte to read into the buffer.
+         */
+        private long readPosition;
+
+        /**
+         * Whether or not the end of the file has been reached.
+         */
+        private boolean endOfFile = false;
+
+        /**
+         * The file offset of the next unconsumed byte.
+         */
+        private long offset;
+
+        /**
+         * The number of bytes of the range consumed so far.  Bytes beyond
+         * the end of the range (for the final row) are not counted so the
+         * sum over all ranges equals the data length of the file.
+         */
+        private volatile long bytesRead = 0L;
+
+        /**
+         * The reusable buffer for the bytes of the current row.
+         */
+        private byte[] row = new byte[INITIAL_ROW_CAPACITY];
+
+        /**
+         * The number of bytes in the current row.
+         */
+        private int rowLength = 0;
+
+        /**
+         * The file offset of the start of the current row.
+         */
+        private long rowOffset = 0L;
+
+        /**
+         * The reusable {@link CharsetDecoder}.
+         */
+        private final CharsetDecoder decoder;
+
+        /**
+         * The reusable {@link CharBuffer} for the decoded row.
+         */
+        private CharBuffer chars = CharBuffer.allocate(INITIAL_ROW_CAPACITY);
+
+        /**
+         * The reusable {@link CsvRowParser}.
+         */
+        private final CsvRowParser parser;
+
+        /**
+         * The most recently used data source code for reuse when the data
+         * source comes from a column.
+         */
+        private String lastDataSource = null;
+
+        /**
+         * Constructs with the specified range.
+         *
+         * @param rangeStart The starting offset of the range.
+         * @param rangeEnd The ending offset of the range (exclusive).
+         * @param plan The {@link ColumnPlan}, or <code>null</code> if
+         *             reading the header.
+         *
+         * @throws IOException If an I/O failure occurs.
+         */
+        private CsvRangeReader(long rangeStart, long rangeEnd, ColumnPlan plan)
+            throws IOException
+        {
+            SzCsvRecordSource source = SzCsvRecordSource.this;
+
+            this.rangeStart     = rangeStart;
+            this.rangeEnd       = rangeEnd;
+            this.plan           = plan;
+            this.buffer         = ByteBuffer.allocate(source.bufferSize).flip();
+            this.decoder        = source.charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.parser         = new CsvRowParser(source.delimiter, source.quote);
+            this.channel        = FileChannel.open(source.path, StandardOpenOption.READ);
+            this.readPosition   = rangeStart;
+            this.offset         = rangeStart;
+
+            // skip the partial row preceding the start of the range
+            if (plan != null && rangeStart > 0L && rangeStart < rangeEnd) {
+                this.readPosition   = rangeStart - 1L;
+                this.offset         = rangeStart - 1L;
+                while (this.fill()) {
+                    this.offset++;
+                    if (this.buffer.get() == LINE_FEED) {
+                        break;
+                    }
+                }
+            }
+            this.bytesRead = Math.min(this.offset, this.rangeEnd) - this.rangeStart;
+        }
+
+        /**
+         * Constructs with the specified partition of a gzip file.  The
+         * offsets of this instance are decompressed offsets relative to the
+         * start of the partition.
+         *
+         * @param gzip The {@link GzipInput} for the partition.
+         * @param plan The {@link ColumnPlan}, or <code>null</code> if
+         *             reading the header.
+         *
+         * @throws IOException If an I/O failure occurs.
+         */
+        private CsvRangeReader(GzipInput gzip, ColumnPlan plan)
+            throws IOException
+        {
+            SzCsvRecordSource source = SzCsvRecordSource.this;
+
+            this.gzip           = gzip;
+            this.rangeStart     = 0L;
+            this.rangeEnd       = Long.MAX_VALUE;
+            this.plan           = plan;
+            this.buffer         = ByteBuffer.allocate(source.bufferSize).flip();
+            this.decoder        = source.charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.parser         = new CsvRowParser(source.delimiter, source.quote);
+            this.channel        = null;
+            this.readPosition   = 0L;
+            this.offset         = 0L;
+
+            if (plan != null) {
+                if (this.gzip.isFirstPartition()) {
+                    // skip the header row
+                    this.readRow();
+                } else {
+                    // skip the row that the previous partition completes
+                    while (this.fill()) {
+                        this.offset++;
+                        if (this.buffer.get() == LINE_FEED) {
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Checks if the row starting at the current offset lies beyond the
+         * end of this reader's range.  For a gzip partition a row belongs
+         * to the partition containing the line break that precedes it, so
+         * a row starting immediately after the last byte of the partition
+         * is still read by this reader.
+         *
+         * @return <code>true</code> if the current offset is beyond the end
+         *         of the range, otherwise <code>false</code>.
+         */
+        private boolean isPastRange() {
+            if (this.gzip != null) {
+                return this.offset > this.gzip.getPartitionLength();
+            }
+            return this.offset >= this.rangeEnd;
+        }
+
+        /**
+         * Ensures the buffer has remaining bytes, reading more from the
+         * file if needed.
+         *
+         * @return <code>true</code> if bytes are available, otherwise
+         *         <code>false</code> if the end of file was reached.
+         *
+         * @throws IOException If an I/O failure occurs.
+         */
+        private boolean fill() throws IOException {
+            if (this.buffer.hasRemaining()) {
+                return true;
+            }
+            if (this.endOfFile) {
+                return false;
+            }
+            this.buffer.clear();
+            int count = (this.gzip != null)
+                ? this.gzip.read(this.buffer)
+                : this.channel.read(this.buffer, this.readPosition);
+            this.buffer.flip();
+            if (count < 0) {
+                this.endOfFile = true;
+                return false;
+            }
+            this.readPosition += count;
+            return (count > 0) || this.fill();
+        }
+
+        /**
+         * Reads the bytes of the next row into the row buffer, excluding
+         * the line break.  Only rows that start before the end of the range
+         * are read.
+         *
+         * @return <code>true</code> if a row was read, otherwise
+         *         <code>false</code>.
+         *
+         * @throws IOException If an I/O failure occurs.
+         */
+        private boolean readRow() throws IOException {
+            if (this.isPastRange() || !this.fill()) {
+                // the entire range has been consumed
+                if (this.gzip == null) {
+                    this.bytesRead = this.rangeEnd - this.rangeStart;
+                }
+                return false;
+            }
+            SzCsvRecordSource source = SzCsvRecordSource.this;
+
+            byte    quoteByte   = (byte) source.quote;
+            boolean multiline   = source.multilineValues;
+            boolean inQuotes    = false;
+
+            this.rowOffset = this.offset;
+            this.rowLength = 0;
+            while (this.fill()) {
+                byte b = this.buffer.get();
+                this.offset++;
+                if (b == LINE_FEED && !inQuotes) {
+                    break;
+                }
+                if (multiline && b == quoteByte) {
+                    inQuotes = !inQuotes;
+                }
+                if (this.rowLength == this.row.length) {
+                    this.row = Arrays.copyOf(this.row, this.row.length * 2);
+                }
+                this.row[this.rowLength++] = b;
+            }
+            if (this.rowLength > 0 && this.row[this.rowLength - 1] == CARRIAGE_RETURN) {
+                this.rowLength--;
+            }
+            if (this.gzip == null) {
+                this.bytesRead = Math.min(this.offset, this.rangeEnd) - this.rangeStart;
+            }
+            return true;
+        }
+
+        /**
+         * Decodes the current row buffer and parses it into fields.
+         *
+         * @return <code>true</code> if the row was parsed, or
+         *         <code>false</code> if the row is malformed.
+         */
+        private boolean decodeAndParse() {
+            int capacity = (int) Math.ceil(
+                this.rowLength * (double) this.decoder.maxCharsPerByte());
+            if (this.chars.capacity() < capacity) {
+                this.chars = CharBuffer.allocate(Math.max(capacity, this.chars.capacity() * 2));
+            }
+            this.chars.clear();
+            this.decoder.reset();
+            this.decoder.decode(ByteBuffer.wrap(this.row, 0, this.rowLength), this.chars, true);
+            this.decoder.flush(this.chars);
+            try {
+                this.parser.parse(this.chars.array(), 0, this.chars.position());
+                return true;
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Gets the fields of the current row as an array of {@link String}.
+         *
+         * @return The array of field values.
+         */
+        private String[] getFields() {
+            String[] fields = new String[this.parser.getFieldCount()];
+            for (int index = 0; index < fields.length; index++) {
+                fields[index] = this.parser.getField(index);
+            }
+            return fields;
+        }
+
+        @Override
+        public boolean read(SzLoadRecord record) throws IOException {
+            while (this.readRow()) {
+                if (this.rowLength == 0) {
+                    continue; // skip blank lines
+                }
+                String sourceName = SzCsvRecordSource.this.getName();
+                record.setSourceName(sourceName);
+                record.setSourceOffset(this.offset);
+                if (!this.decodeAndParse()) {
+                    // record the raw text of the malformed row
+                    record.setDataSourceCode(
+                        SzCsvRecordSource.this.mapping.getDataSourceCode());
+                    record.getRecordDefinition().append(
+                        this.chars.array(), 0, this.chars.position());
+                    record.setReadError(
+                        "Malformed CSV row at byte offset " + this.rowOffset
+                        + " of " + sourceName);
+                    return true;
+                }
+                this.writeRecord(record);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Writes the current parsed row to the specified {@link SzLoadRecord}
+         * according to the {@link ColumnPlan}.
+         *
+         * @param record The {@link SzLoadRecord} to populate.
+         */
+        private void writeRecord(SzLoadRecord record) {
+            CsvRowParser    parser      = this.parser;
+            ColumnPlan      plan        = this.plan;
+            boolean         includeEmpty
+                = SzCsvRecordSource.this.mapping.isIncludeEmptyValues();
+
+            // determine the data source code
+            String dataSource = SzCsvRecordSource.this.mapping.getDataSourceCode();
+            if (dataSource == null) {
+                int index = plan.dataSourceIndex();
+                if (parser.fieldEquals(index, this.lastDataSource)) {
+                    dataSource = this.lastDataSource;
+                } else {
+                    dataSource = parser.getField(index);
+                    if (dataSource != null) {
+                        dataSource = dataSource.trim();
+                    }
+                    this.lastDataSource = dataSource;
+                }
+            }
+            String recordId = parser.getField(plan.recordIdIndex());
+            if (recordId != null) {
+                recordId = recordId.trim();
+            }
+            record.setDataSourceCode(dataSource);
+            record.setRecordId(recordId);
+
+            // write the JSON directly into the record buffer
+            StringBuilder sb = record.getRecordDefinition();
+            sb.append("{\"DATA_SOURCE\":");
+            jsonEscape(dataSource, sb);
+            sb.append(",\"RECORD_ID\":");
+            jsonEscape(recordId, sb);
+
+            String[] prefixes = plan.prefixes();
+            for (int index = 0; index < prefixes.length; index++) {
+                String prefix = prefixes[index];
+                if (prefix == null || (!includeEmpty && parser.isBlank(index))) {
+                    continue;
+                }
+                sb.append(',').append(prefix);
+                parser.appendJson(index, sb);
+            }
+            sb.append('}');
+        }
+
+        @Override
+        public long getBytesRead() {
+            return (this.gzip != null) ? this.gzip.getBytesRead() : this.bytesRead;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.channel != null) {
+                this.channel.close();
+                this.channel = null;
+            }
+            if (this.gzip != null) {
+                this.gzip.close();
+            }
+        }
+
+        @Override
+        public String toString() {
+            if (this.gzip != null) {
+                return "CsvRangeReader{ source=[ " + SzCsvRecordSource.this.getName()
+                    + " ], gzip=[ " + this.gzip + " ] }";
+            }
+            return "CsvRangeReader{ source=[ " + SzCsvRecordSource.this.getName()
+                + " ], rangeStart=[ " + this.rangeStart
+                + " ], rangeEnd=[ " + this.rangeEnd + " ] }";
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.senzing.sdk.load;
+
+/**
+ * Describes the throughput quota for the records of a data source that is
+ * enforced by an {@link SzDataSourceThrottle}: a maximum sustained rate of
+ * records per second (with an allowance for bursts) and a maximum number
+ * of records that may be in the engine concurrently.
+ *
+ * <p>
+ * The rate is enforced with a token bucket that holds up to the burst size
+ * in tokens and is refilled at the configured rate, so a data source that
+ * has been idle may briefly exceed its rate by up to the burst size.  The
+ * concurrency limit caps how many native engine threads a single data source
+ * may occupy at once regardless of its rate.
+ * </p>
+ *
+ * <p>
+ * Instances of this class are immutable.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzDataSourceQuota {
+    /**
+     * The quota that imposes no limit on rate or concurrency.
+     */
+    public static final SzDataSourceQuota UNLIMITED = new SzDataSourceQuota(0.0, 0, 0);
+
+    /**
+     * The maximum number of records per second, or zero (0) if unlimited.
+     */
+    private final double recordsPerSecond;
+
+    /**
+     * The maximum number of records that may be admitted in a burst.
+     */
+    private final int burstSize;
+
+    /**
+     * The maximum number of concurrent records, or zero (0) if unlimited.
+     */
+    private final int maxConcurrency;
+
+    /**
+     * Private constructor.
+     *
+     * @param recordsPerSecond The maximum records per second.
+     * @param burstSize The burst size.
+     * @param maxConcurrency The maximum concurrency.
+     */
+    private SzDataSourceQuota(double recordsPerSecond, int burstSize, int maxConcurrency) {
+        this.recordsPerSecond   = recordsPerSecond;
+        this.burstSize          = burstSize;
+        this.maxConcurrency     = maxConcurrency;
+    }
+
+    /**
+     * Creates a quota with the specified rate limit, burst size and
+     * concurrency limit.
+     *
+     * @param recordsPerSecond The maximum sustained number of records per
+     *                         second, or zero (0) for no rate limit.
+     * @param burstSize The positive maximum number of records that may be
+     *                  admitted at once after the data source has been idle
+     *                  (ignored if there is no rate limit).
+     * @param maxConcurrency The maximum number of records that may be in
+     *                       the engine concurrently, or zero (0) for no
+     *                       concurrency limit.
+     *
+     * @return The {@link SzDataSourceQuota} describing the limits.
+     *
+     * @throws IllegalArgumentException If the rate is negative or not finite,
+     *                                  the burst size is not positive or the
+     *                                  concurrency limit is negative.
+     *
+     * @since 4.4.0
+     */
+    public static SzDataSourceQuota of(double   recordsPerSecond,
+                                       int      burstSize,
+                                       int      maxConcurrency)
+        throws IllegalArgumentException
+    {
+        if (recordsPerSecond < 0.0 || !Double.isFinite(recordsPerSecond)) {
+            throw new IllegalArgumentException(
+                "The records per second must be non-negative: " + recordsPerSecond);
+        }
+        if (burstSize <= 0) {
+            throw new IllegalArgumentException(
+                "The burst size must be positive: " + burstSize);
+        }
+        if (maxConcurrency < 0) {
+            throw new IllegalArgumentException(
+                "The max concurrency cannot be negative: " + maxConcurrency);
+        }
+        return new SzDataSourceQuota(recordsPerSecond, burstSize, maxConcurrency);
+    }
+
+    /**
+     * Creates a quota with the specified rate limit (and a burst size of one
+     * second's worth of records) and no concurrency limit.
+     *
+     * @param recordsPerSecond The positive maximum sustained number of
+     *                         records per second.
+     *
+     * @return The {@link SzDataSourceQuota} describing the limit.
+     *
+     * @throws IllegalArgumentException If the rate is not positive.
+     *
+     * @since 4.4.0
+     */
+    public static SzDataSourceQuota ofRate(double recordsPerSecond)
+        throws IllegalArgumentException
+    {
+        if (recordsPerSecond <= 0.0) {
+            throw new IllegalArgumentException(
+                "The records per second must be positive: " + recordsPerSecond);
+        }
+        return of(recordsPerSecond, (int) Math.max(1.0, Math.ceil(recordsPerSecond)), 0);
+    }
+
+    /**
+     * Creates a quota with the specified concurrency limit and no rate
+     * limit.
+     *
+     * @param maxConcurrency The positive maximum number of records that may
+     *                       be in the engine concurrently.
+     *
+     * @return The {@link SzDataSourceQuota} describing the limit.
+     *
+     * @throws IllegalArgumentException If the concurrency limit is not
+     *                                  positive.
+     *
+     * @since 4.4.0
+     */
+    public static SzDataSourceQuota ofConcurrency(int maxConcurrency)
+        throws IllegalArgumentException
+    {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException(
+                "The max concurrency must be positive: " + maxConcurrency);
+        }
+        return of(0.0, 1, maxConcurrency);
+    }
+
+    /**
+     * Gets the maximum sustained number of records per second.
+     *
+     * @return The maximum sustained number of records per second, or zero
+     *         (0) if the rate is not limited.
+     *
+     * @since 4.4.0
+     */
+    public double getRecordsPerSecond() {
+        return this.recordsPerSecond;
+    }
+
+    /**
+     * Gets the maximum number of records that may be admitted at once after
+     * the data source has been idle.
+     *
+     * @return The maximum number of records that may be admitted at once.
+     *
+     * @since 4.4.0
+     */
+    public int getBurstSize() {
+        return this.burstSize;
+    }
+
+    /**
+     * Gets the maximum number of records that may be in the engine
+     * concurrently.
+     *
+     * @return The maximum number of records that may be in the engine
+     *         concurrently, or zero (0) if concurrency is not limited.
+     *
+     * @since 4.4.0
+     */
+    public int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    /**
+     * Checks if this quota limits the rate of records.
+     *
+     * @return <code>true</code> if this quota limits the rate of records,
+     *         otherwise <code>false</code>.
+     *
+     * @since 4.4.0
+     */
+    public boolean isRateLimited() {
+        return this.recordsPerSecond > 0.0;
+    }
+
+    /**
+     * Checks if this quota limits the concurrency of records.
+     *
+     * @return <code>true</code> if this quota limits the concurrency of
+     *         records, otherwise <code>false</code>.
+     *
+     * @since 4.4.0
+     */
+    public boolean isConcurrencyLimited() {
+        return this.maxConcurrency > 0;
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzDataSourceQuota{ recordsPerSecond=[ " + this.recordsPerSecond
+            + " ], burstSize=[ " + this.burstSize
+            + " ], maxConcurrency=[ " + this.maxConcurrency + " ] }";
+    }
+}
@@ -0,0 +1,227 @@
+package com.senzing.sdk.load;
+
+/**
+ * Describes a snapshot of the throughput counters that an {@link
+ * SzDataSourceThrottle} maintains for a single data source, for observing
+ * which data sources are consuming the engine.
+ *
+ * @since 4.4.0
+ */
+public final class SzDataSourceStatistics {
+    /**
+     * The data source code.
+     */
+    private final String dataSourceCode;
+
+    /**
+     * The quota for the data source.
+     */
+    private final SzDataSourceQuota quota;
+
+    /**
+     * The number of permits that were acquired.
+     */
+    private final long acquiredCount;
+
+    /**
+     * The number of permits that were released.
+     */
+    private final long completedCount;
+
+    /**
+     * The number of permits currently held.
+     */
+    private final int inFlightCount;
+
+    /**
+     * The number of threads currently waiting for a permit.
+     */
+    private final int waitingCount;
+
+    /**
+     * The total milliseconds spent waiting for permits.
+     */
+    private final long throttledMillis;
+
+    /**
+     * The total milliseconds that permits were held.
+     */
+    private final long busyMillis;
+
+    /**
+     * The milliseconds since the throttle first saw the data source.
+     */
+    private final long elapsedMillis;
+
+    /**
+     * Constructs with the specified values.
+     *
+     * @param dataSourceCode The data source code.
+     * @param quota The {@link SzDataSourceQuota} for the data source.
+     * @param acquiredCount The number of permits that were acquired.
+     * @param completedCount The number of permits that were released.
+     * @param inFlightCount The number of permits currently held.
+     * @param waitingCount The number of threads waiting for a permit.
+     * @param throttledMillis The total milliseconds spent waiting.
+     * @param busyMillis The total milliseconds that permits were held.
+     * @param elapsedMillis The milliseconds since the data source was first
+     *                      seen.
+     */
+    SzDataSourceStatistics(String               dataSourceCode,
+                           SzDataSourceQuota    quota,
+                           long                 acquiredCount,
+                           long                 completedCount,
+                           int                  inFlightCount,
+                           int                  waitingCount,
+                           long                 throttledMillis,
+                           long                 busyMillis,
+                           long                 elapsedMillis)
+    {
+        this.dataSourceCode     = dataSourceCode;
+        this.quota              = quota;
+        this.acquiredCount      = acquiredCount;
+        this.completedCount     = completedCount;
+        this.inFlightCount      = inFlightCount;
+        this.waitingCount       = waitingCount;
+        this.throttledMillis    = throttledMillis;
+        this.busyMillis         = busyMillis;
+        this.elapsedMillis      = elapsedMillis;
+    }
+
+    /**
+     * Gets the (upper-case) data source code.
+     *
+     * @return The data source code.
+     *
+     * @since 4.4.0
+     */
+    public String getDataSourceCode() {
+        return this.dataSourceCode;
+    }
+
+    /**
+     * Gets the {@link SzDataSourceQuota} that applies to the data source.
+     *
+     * @return The {@link SzDataSourceQuota} that applies to the data source.
+     *
+     * @since 4.4.0
+     */
+    public SzDataSourceQuota getQuota() {
+        return this.quota;
+    }
+
+    /**
+     * Gets the number of permits that were acquired for the data source.
+     *
+     * @return The number of permits that were acquired.
+     *
+     * @since 4.4.0
+     */
+    public long getAcquiredCount() {
+        return this.acquiredCount;
+    }
+
+    /**
+     * Gets the number of permits for the data source that were acquired
+     * and released (i.e.: the number of completed engine calls).
+     *
+     * @return The number of completed engine calls.
+     *
+     * @since 4.4.0
+     */
+    public long getCompletedCount() {
+        return this.completedCount;
+    }
+
+    /**
+     * Gets the number of permits for the data source that are currently
+     * held (i.e.: the number of engine calls in progress).
+     *
+     * @return The number of engine calls in progress.
+     *
+     * @since 4.4.0
+     */
+    public int getInFlightCount() {
+        return this.inFlightCount;
+    }
+
+    /**
+     * Gets the number of threads that are currently waiting for a permit
+     * for the data source.
+     *
+     * @return The number of threads waiting for a permit.
+     *
+     * @since 4.4.0
+     */
+    public int getWaitingCount() {
+        return this.waitingCount;
+    }
+
+    /**
+     * Gets the total number of milliseconds that threads have spent waiting
+     * for permits for the data source due to its quota.
+     *
+     * @return The total number of milliseconds spent waiting.
+     *
+     * @since 4.4.0
+     */
+    public long getThrottledMillis() {
+        return this.throttledMillis;
+    }
+
+    /**
+     * Gets the total number of milliseconds that permits for the data
+     * source were held (i.e.: the engine time consumed by the data source).
+     *
+     * @return The total number of milliseconds that permits were held.
+     *
+     * @since 4.4.0
+     */
+    public long getBusyMillis() {
+        return this.busyMillis;
+    }
+
+    /**
+     * Gets the number of milliseconds since the throttle first saw the
+     * data source (or its statistics were last reset).
+     *
+     * @return The number of milliseconds over which the counts were
+     *         accumulated.
+     *
+     * @since 4.4.0
+     */
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    /**
+     * Gets the average number of completed engine calls per second for the
+     * data source over the {@linkplain #getElapsedMillis() elapsed time}.
+     *
+     * @return The average number of completed engine calls per second.
+     *
+     * @since 4.4.0
+     */
+    public double getThroughput() {
+        return (this.elapsedMillis <= 0L)
+            ? 0.0 : (this.completedCount * 1000.0) / this.elapsedMillis;
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzDataSourceStatistics{ dataSourceCode=[ " + this.dataSourceCode
+            + " ], acquiredCount=[ " + this.acquiredCount
+            + " ], completedCount=[ " + this.completedCount
+            + " ], inFlightCount=[ " + this.inFlightCount
+            + " ], waitingCount=[ " + this.waitingCount
+            + " ], throttledMillis=[ " + this.throttledMillis
+            + " ], busyMillis=[ " + this.busyMillis
+            + " ], elapsedMillis=[ " + this.elapsedMillis
+            + " ], throughput=[ " + this.getThroughput() + " ] }";
+    }
+}
@@ -0,0 +1,603 @@
+package com.senzing.sdk.load;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.senzing.sdk.SzRecordKey;
+
+/**
+ * Enforces per-data-source {@linkplain SzDataSourceQuota quotas} on calls
+ * to the engine and maintains per-data-source {@linkplain
+ * SzDataSourceStatistics throughput counters}.  Each data source has its
+ * own "lane" with a token bucket for its rate limit and a fair semaphore
+ * for its concurrency limit, so a backfill of one noisy data source can be
+ * capped to a fraction of the engine's native threads while near-real-time
+ * data sources continue to be admitted without waiting behind it.
+ *
+ * <p>
+ * A thread {@linkplain #acquire(String) acquires} a {@link Permit} for the
+ * data source of a record before calling the engine and {@linkplain
+ * Permit#close() closes} it afterward:
+ * </p>
+ *
+ * <pre>
+ *   try (SzDataSourceThrottle.Permit permit = throttle.acquire(recordKey)) {
+ *       engine.addRecord(recordKey, recordDefinition, flags);
+ *   }
+ * </pre>
+ *
+ * <p>
+ * A single instance is intended to be shared by everything that calls the
+ * same engine (e.g.: several {@link SzBulkLoader} instances via {@link
+ * SzBulkLoader.Builder#throttle(SzDataSourceThrottle)}) so that the quotas
+ * apply across them.  Data source codes are compared case-insensitively.
+ * Data sources without an explicitly configured quota use the {@linkplain
+ * Builder#defaultQuota(SzDataSourceQuota) default quota}, which by default
+ * is {@link SzDataSourceQuota#UNLIMITED}.
+ * </p>
+ *
+ * <p>
+ * Instances of this class are thread-safe.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzDataSourceThrottle {
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    /**
+     * Provides a builder class for creating instances of {@link
+     * SzDataSourceThrottle}.
+     *
+     * @since 4.4.0
+     */
+    public static final class Builder {
+        /**
+         * The default quota.
+         */
+        private SzDataSourceQuota defaultQuota = SzDataSourceQuota.UNLIMITED;
+
+        /**
+         * The quotas keyed by upper-case data source code.
+         */
+        private final Map<String, SzDataSourceQuota> quotas = new LinkedHashMap<>();
+
+        /**
+         * Private default constructor.
+         */
+        private Builder() {
+            // do nothing
+        }
+
+        /**
+         * Sets the {@link SzDataSourceQuota} for data sources that do not
+         * have an explicitly configured quota.  The default is {@link
+         * SzDataSourceQuota#UNLIMITED}.
+         *
+         * @param quota The non-null default {@link SzDataSourceQuota}.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder defaultQuota(SzDataSourceQuota quota) throws NullPointerException {
+            this.defaultQuota = Objects.requireNonNull(quota, "The quota cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the {@link SzDataSourceQuota} for the data source with the
+         * specified code, replacing any previously configured quota for it.
+         *
+         * @param dataSourceCode The non-null data source code.
+         * @param quota The non-null {@link SzDataSourceQuota}.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If either parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder quota(String dataSourceCode, SzDataSourceQuota quota)
+            throws NullPointerException
+        {
+            Objects.requireNonNull(dataSourceCode, "The data source code cannot be null");
+            Objects.requireNonNull(quota, "The quota cannot be null");
+            this.quotas.put(normalize(dataSourceCode), quota);
+            return this;
+        }
+
+        /**
+         * Builds a new {@link SzDataSourceThrottle} from this builder.
+         *
+         * @return The newly constructed {@link SzDataSourceThrottle}.
+         *
+         * @since 4.4.0
+         */
+        public SzDataSourceThrottle build() {
+            return new SzDataSourceThrottle(this);
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for building an {@link
+     * SzDataSourceThrottle}.
+     *
+     * @return The new {@link Builder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Represents the admission of one engine call for a data source, which
+     * must be {@linkplain #close() closed} when the call completes.
+     *
+     * @since 4.4.0
+     */
+    public static final class Permit implements AutoCloseable {
+        /**
+         * The {@link Lane} that issued the permit.
+         */
+        private final Lane lane;
+
+        /**
+         * The {@link System#nanoTime()} when the permit was acquired.
+         */
+        private final long acquiredNanos;
+
+        /**
+         * Whether or not the permit has been released.
+         */
+        private boolean released = false;
+
+        /**
+         * Constructs with the specified {@link Lane}.
+         *
+         * @param lane The {@link Lane} that issued the permit.
+         */
+        private Permit(Lane lane) {
+            this.lane           = lane;
+            this.acquiredNanos  = System.nanoTime();
+        }
+
+        /**
+         * Gets the (upper-case) data source code for this permit.
+         *
+         * @return The data source code for this permit.
+         *
+         * @since 4.4.0
+         */
+        public String getDataSourceCode() {
+            return this.lane.dataSourceCode;
+        }
+
+        /**
+         * Releases this permit.  Calling this method more than once has no
+         * effect.
+         *
+         * @since 4.4.0
+         */
+        @Override
+        public void close() {
+            if (this.released) {
+                return;
+            }
+            this.released = true;
+            this.lane.release(System.nanoTime() - this.acquiredNanos);
+        }
+    }
+
+    /**
+     * The throttling state and counters for a single data source.
+     */
+    private static final class Lane {
+        /**
+         * The upper-case data source code.
+         */
+        private final String dataSourceCode;
+
+        /**
+         * The {@link SzDataSourceQuota}.
+         */
+        private final SzDataSourceQuota quota;
+
+        /**
+         * The {@link Semaphore} for the concurrency limit, or
+         * <code>null</code> if unlimited.
+         */
+        private final Semaphore slots;
+
+        /**
+         * The tokens in the bucket, which is negative when reserved by
+         * waiting threads (guarded by this instance).
+         */
+        private double tokens;
+
+        /**
+         * The {@link System#nanoTime()} of the last refill.
+         */
+        private long refillNanos;
+
+        /**
+         * The {@link System#nanoTime()} when the counters began.
+         */
+        private volatile long startNanos;
+
+        /**
+         * The number of permits that were acquired.
+         */
+        private final LongAdder acquiredCount = new LongAdder();
+
+        /**
+         * The number of permits that were released.
+         */
+        private final LongAdder completedCount = new LongAdder();
+
+        /**
+         * The total nanoseconds spent waiting for permits.
+         */
+        private final LongAdder throttledNanos = new LongAdder();
+
+        /**
+         * The total nanoseconds that permits were held.
+         */
+        private final LongAdder busyNanos = new LongAdder();
+
+        /**
+         * The number of permits currently held.
+         */
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        /**
+         * The number of threads waiting for a permit.
+         */
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        /**
+         * Constructs with the specified data source code and quota.
+         *
+         * @param dataSourceCode The upper-case data source code.
+         * @param quota The {@link SzDataSourceQuota}.
+         */
+        private Lane(String dataSourceCode, SzDataSourceQuota quota) {
+            this.dataSourceCode = dataSourceCode;
+            this.quota          = quota;
+            this.slots          = quota.isConcurrencyLimited()
+                ? new Semaphore(quota.getMaxConcurrency(), true) : null;
+            this.tokens         = quota.getBurstSize();
+            this.refillNanos    = System.nanoTime();
+            this.startNanos     = this.refillNanos;
+        }
+
+        /**
+         * Reserves a token from the bucket.
+         *
+         * @return The number of nanoseconds to wait before the reserved
+         *         token becomes available.
+         */
+        private synchronized long reserve() {
+            long   now  = System.nanoTime();
+            double rate = this.quota.getRecordsPerSecond();
+            this.tokens = Math.min(this.quota.getBurstSize(),
+                                   this.tokens + ((now - this.refillNanos) * rate)
+                                                 / NANOS_PER_SECOND);
+            this.refillNanos = now;
+            this.tokens -= 1.0;
+            return (this.tokens >= 0.0) ? 0L : (long) ((-this.tokens * NANOS_PER_SECOND) / rate);
+        }
+
+        /**
+         * Returns a reserved token to the bucket.
+         */
+        private synchronized void refund() {
+            this.tokens += 1.0;
+        }
+
+        /**
+         * Acquires a permit, waiting as needed.
+         *
+         * @param timeoutNanos The maximum nanoseconds to wait for a
+         *                     concurrency slot, or a negative number to wait
+         *                     indefinitely.
+         *
+         * @return The {@link Permit}, or <code>null</code> if timed out.
+         *
+         * @throws InterruptedException If interrupted while waiting.
+         */
+        private Permit acquire(long timeoutNanos) throws InterruptedException {
+            long start = System.nanoTime();
+            this.waiting.incrementAndGet();
+            try {
+                if (this.quota.isRateLimited()) {
+                    long delay = this.reserve();
+                    if (delay > 0L) {
+                        try {
+                            TimeUnit.NANOSECONDS.sleep(delay);
+                        } catch (InterruptedException e) {
+                            this.refund();
+                            throw e;
+                        }
+                    }
+                }
+                if (this.slots != null) {
+                    if (timeoutNanos < 0L) {
+                        this.slots.acquire();
+                    } else if (!this.slots.tryAcquire(
+                        Math.max(0L, timeoutNanos - (System.nanoTime() - start)),
+                        TimeUnit.NANOSECONDS))
+                    {
+                        return null;
+                    }
+                }
+            } finally {
+                this.waiting.decrementAndGet();
+                this.throttledNanos.add(System.nanoTime() - start);
+            }
+            this.acquiredCount.increment();
+            this.inFlight.incrementAndGet();
+            return new Permit(this);
+        }
+
+        /**
+         * Releases a permit that was held for the specified duration.
+         *
+         * @param heldNanos The number of nanoseconds the permit was held.
+         */
+        private void release(long heldNanos) {
+            this.inFlight.decrementAndGet();
+            this.completedCount.increment();
+            this.busyNanos.add(heldNanos);
+            if (this.slots != null) {
+                this.slots.release();
+            }
+        }
+
+        /**
+         * Resets the counters.
+         */
+        private void reset() {
+            this.acquiredCount.reset();
+            this.completedCount.reset();
+            this.throttledNanos.reset();
+            this.busyNanos.reset();
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * Creates a snapshot of the counters.
+         *
+         * @return The {@link SzDataSourceStatistics} snapshot.
+         */
+        private SzDataSourceStatistics getStatistics() {
+            return new SzDataSourceStatistics(
+                this.dataSourceCode,
+                this.quota,
+                this.acquiredCount.sum(),
+                this.completedCount.sum(),
+                this.inFlight.get(),
+                this.waiting.get(),
+                TimeUnit.NANOSECONDS.toMillis(this.throttledNanos.sum()),
+                TimeUnit.NANOSECONDS.toMillis(this.busyNanos.sum()),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startNanos));
+        }
+    }
+
+    /**
+     * The default quota.
+     */
+    private final SzDataSourceQuota defaultQuota;
+
+    /**
+     * The configured quotas keyed by upper-case data source code.
+     */
+    private final Map<String, SzDataSourceQuota> quotas;
+
+    /**
+     * The lanes keyed by upper-case data source code.
+     */
+    private final ConcurrentHashMap<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor for constructing with a {@link Builder}.
+     *
+     * @param builder The {@link Builder} from which to construct.
+     */
+    private SzDataSourceThrottle(Builder builder) {
+        this.defaultQuota   = builder.defaultQuota;
+        this.quotas         = Collections.unmodifiableMap(new LinkedHashMap<>(builder.quotas));
+    }
+
+    /**
+     * Normalizes the specified data source code for use as a key.
+     *
+     * @param dataSourceCode The data source code.
+     *
+     * @return The normalized data source code.
+     */
+    private static String normalize(String dataSourceCode) {
+        return dataSourceCode.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets the {@link Lane} for the specified data source code, creating it
+     * if needed.
+     *
+     * @param dataSourceCode The data source code.
+     *
+     * @return The {@link Lane} for the data source code.
+     */
+    private Lane getLane(String dataSourceCode) {
+        Objects.requireNonNull(dataSourceCode, "The data source code cannot be null");
+        Lane lane = this.lanes.get(dataSourceCode);
+        if (lane != null) {
+            return lane;
+        }
+        return this.lanes.computeIfAbsent(normalize(dataSourceCode), code -> new Lane(
+            code, this.quotas.getOrDefault(code, this.defaultQuota)));
+    }
+
+    /**
+     * Gets the default {@link SzDataSourceQuota} for data sources without
+     * an explicitly configured quota.
+     *
+     * @return The default {@link SzDataSourceQuota}.
+     *
+     * @since 4.4.0
+     */
+    public SzDataSourceQuota getDefaultQuota() {
+        return this.defaultQuota;
+    }
+
+    /**
+     * Gets the {@link SzDataSourceQuota} that applies to the data source
+     * with the specified code.
+     *
+     * @param dataSourceCode The non-null data source code.
+     *
+     * @return The {@link SzDataSourceQuota} that applies to the data source.
+     *
+     * @since 4.4.0
+     */
+    public SzDataSourceQuota getQuota(String dataSourceCode) {
+        Objects.requireNonNull(dataSourceCode, "The data source code cannot be null");
+        return this.quotas.getOrDefault(normalize(dataSourceCode), this.defaultQuota);
+    }
+
+    /**
+     * Acquires a {@link Permit} for an engine call for the data source with
+     * the specified code, waiting as long as needed for the quota of the
+     * data source to admit it.
+     *
+     * @param dataSourceCode The non-null data source code.
+     *
+     * @return The {@link Permit}, which must be {@linkplain Permit#close()
+     *         closed} when the engine call completes.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     *
+     * @since 4.4.0
+     */
+    public Permit acquire(String dataSourceCode) throws InterruptedException {
+        return this.getLane(dataSourceCode).acquire(-1L);
+    }
+
+    /**
+     * Acquires a {@link Permit} for an engine call for the data source of
+     * the specified {@link SzRecordKey}.  This is equivalent to calling
+     * {@link #acquire(String)} with the data source code of the key.
+     *
+     * @param recordKey The non-null {@link SzRecordKey}.
+     *
+     * @return The {@link Permit}, which must be {@linkplain Permit#close()
+     *         closed} when the engine call completes.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     *
+     * @since 4.4.0
+     */
+    public Permit acquire(SzRecordKey recordKey) throws InterruptedException {
+        Objects.requireNonNull(recordKey, "The record key cannot be null");
+        return this.acquire(recordKey.dataSourceCode());
+    }
+
+    /**
+     * Attempts to acquire a {@link Permit} for an engine call for the data
+     * source with the specified code, waiting for a concurrency slot for at
+     * most the specified number of milliseconds.  The wait for the rate
+     * limit is not bounded by the timeout since the token is reserved
+     * up front.
+     *
+     * @param dataSourceCode The non-null data source code.
+     * @param timeoutMillis The maximum number of milliseconds to wait for a
+     *                      concurrency slot.
+     *
+     * @return The {@link Permit}, or <code>null</code> if a concurrency slot
+     *         did not become available in time.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     *
+     * @since 4.4.0
+     */
+    public Permit tryAcquire(String dataSourceCode, long timeoutMillis)
+        throws InterruptedException
+    {
+        return this.getLane(dataSourceCode).acquire(
+            TimeUnit.MILLISECONDS.toNanos(Math.max(0L, timeoutMillis)));
+    }
+
+    /**
+     * Gets a snapshot of the throughput counters for the data source with
+     * the specified code.
+     *
+     * @param dataSourceCode The non-null data source code.
+     *
+     * @return The {@link SzDataSourceStatistics}, or <code>null</code> if
+     *         no permits have been requested for the data source.
+     *
+     * @since 4.4.0
+     */
+    public SzDataSourceStatistics getStatistics(String dataSourceCode) {
+        Objects.requireNonNull(dataSourceCode, "The data source code cannot be null");
+        Lane lane = this.lanes.get(normalize(dataSourceCode));
+        return (lane == null) ? null : lane.getStatistics();
+    }
+
+    /**
+     * Gets snapshots of the throughput counters for every data source for
+     * which permits have been requested.
+     *
+     * @return The unmodifiable {@link Map} of upper-case data source codes
+     *         to {@link SzDataSourceStatistics}, sorted by data source code.
+     *
+     * @since 4.4.0
+     */
+    public Map<String, SzDataSourceStatistics> getStatistics() {
+        Map<String, SzDataSourceStatistics> result = new TreeMap<>();
+        for (Lane lane : this.lanes.values()) {
+            result.put(lane.dataSourceCode, lane.getStatistics());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Resets the cumulative throughput counters (but not the in-flight and
+     * waiting counts) for every data source.
+     *
+     * @since 4.4.0
+     */
+    public void resetStatistics() {
+        for (Lane lane : this.lanes.values()) {
+            lane.reset();
+        }
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzDataSourceThrottle{ defaultQuota=[ " + this.defaultQuota
+            + " ], quotas=[ " + this.quotas + " ] }";
+    }
+}
@@ -0,0 +1,273 @@
+package com.senzing.sdk.load;
+
+import com.senzing.sdk.SzException;
+
+import static com.senzing.sdk.core.SzCoreUtilities.jsonEscape;
+
+/**
+ * Describes a record that could not be loaded by the {@link SzBulkLoader}
+ * and was written to the {@link SzDeadLetterSink}.  Instances capture the
+ * identifying information and the definition of the record together with
+ * the Senzing error code, the resolved {@link SzException} class and the
+ * message of the failure so that the record can be corrected and
+ * reloaded later.
+ *
+ * @since 4.4.0
+ */
+public final class SzDeadLetter {
+    /**
+     * The data source code for the record.
+     */
+    private String dataSourceCode;
+
+    /**
+     * The record ID for the record.
+     */
+    private String recordId;
+
+    /**
+     * The name of the source from which the record was read.
+     */
+    private String sourceName;
+
+    /**
+     * The byte offset in the source immediately after the record.
+     */
+    private long sourceOffset;
+
+    /**
+     * The record definition (or raw text) of the record.
+     */
+    private String recordDefinition;
+
+    /**
+     * The Senzing error code, or <code>null</code> if none.
+     */
+    private Integer errorCode;
+
+    /**
+     * The {@link SzException} class resolved for the failure.
+     */
+    private Class<? extends SzException> exceptionClass;
+
+    /**
+     * The message describing the failure.
+     */
+    private String message;
+
+    /**
+     * The number of attempts that were made to load the record.
+     */
+    private int attemptCount;
+
+    /**
+     * Constructs with the specified record, failure and attempt count.
+     *
+     * @param record The {@link SzLoadRecord} that could not be loaded.
+     * @param failure The {@link SzException} describing the failure.
+     * @param exceptionClass The {@link SzException} class resolved for
+     *                       the failure.
+     * @param attemptCount The number of attempts made to load the record.
+     */
+    SzDeadLetter(SzLoadRecord                 record,
+                 SzException                  failure,
+                 Class<? extends SzException> exceptionClass,
+                 int                          attemptCount)
+    {
+        this.dataSourceCode     = record.getDataSourceCode();
+        this.recordId           = record.getRecordId();
+        this.sourceName         = record.getSourceName();
+        this.sourceOffset       = record.getSourceOffset();
+        this.recordDefinition   = record.getRecordDefinition().toString();
+        this.errorCode          = failure.getErrorCode();
+        this.exceptionClass     = exceptionClass;
+        this.message            = failure.getMessage();
+        this.attemptCount       = attemptCount;
+    }
+
+    /**
+     * Gets the data source code for the record.
+     *
+     * @return The data source code for the record, or <code>null</code>
+     *         if not known.
+     *
+     * @since 4.4.0
+     */
+    public String getDataSourceCode() {
+        return this.dataSourceCode;
+    }
+
+    /**
+     * Gets the record ID for the record.
+     *
+     * @return The record ID for the record, or <code>null</code> if not
+     *         known.
+     *
+     * @since 4.4.0
+     */
+    public String getRecordId() {
+        return this.recordId;
+    }
+
+    /**
+     * Gets the name of the source from which the record was read.
+     *
+     * @return The name of the source from which the record was read, or
+     *         <code>null</code> if not known.
+     *
+     * @since 4.4.0
+     */
+    public String getSourceName() {
+        return this.sourceName;
+    }
+
+    /**
+     * Gets the byte offset in the source immediately after the record, or
+     * negative one (-1) if not known.
+     *
+     * @return The byte offset in the source immediately after the record,
+     *         or negative one (-1) if not known.
+     *
+     * @since 4.4.0
+     */
+    public long getSourceOffset() {
+        return this.sourceOffset;
+    }
+
+    /**
+     * Gets the record definition of the record.  If the record could not
+     * be read then this is the raw text of the record as read from the
+     * source (if available).
+     *
+     * @return The record definition of the record.
+     *
+     * @since 4.4.0
+     */
+    public String getRecordDefinition() {
+        return this.recordDefinition;
+    }
+
+    /**
+     * Gets the Senzing error code for the failure as returned from
+     * {@link SzException#getErrorCode()}.
+     *
+     * @return The Senzing error code for the failure, or <code>null</code>
+     *         if the failure was not reported by the native Senzing
+     *         libraries (e.g.: the record could not be read).
+     *
+     * @since 4.4.0
+     */
+    public Integer getErrorCode() {
+        return this.errorCode;
+    }
+
+    /**
+     * Gets the {@link SzException} class for the failure.  If the failure
+     * has an error code then this is the class that is mapped to that error
+     * code, unless the thrown exception is more specific.
+     *
+     * @return The {@link SzException} class for the failure.
+     *
+     * @since 4.4.0
+     */
+    public Class<? extends SzException> getExceptionClass() {
+        return this.exceptionClass;
+    }
+
+    /**
+     * Gets the message describing the failure.
+     *
+     * @return The message describing the failure.
+     *
+     * @since 4.4.0
+     */
+    public String getMessage() {
+        return this.message;
+    }
+
+    /**
+     * Gets the number of attempts that were made to load the record, which
+     * is zero (0) if the record was never submitted to the engine (e.g.:
+     * because it could not be read).
+     *
+     * @return The number of attempts that were made to load the record.
+     *
+     * @since 4.4.0
+     */
+    public int getAttemptCount() {
+        return this.attemptCount;
+    }
+
+    /**
+     * Appends the JSON representation of this instance as a single line
+     * JSON object (without a trailing line separator) to the specified
+     * {@link StringBuilder}.  The JSON object has the following properties:
+     * <ul>
+     *   <li><code>"DATA_SOURCE"</code></li>
+     *   <li><code>"RECORD_ID"</code></li>
+     *   <li><code>"SOURCE"</code></li>
+     *   <li><code>"SOURCE_OFFSET"</code></li>
+     *   <li><code>"ERROR_CODE"</code></li>
+     *   <li><code>"EXCEPTION"</code> (the simple class name)</li>
+     *   <li><code>"MESSAGE"</code></li>
+     *   <li><code>"ATTEMPTS"</code></li>
+     *   <li><code>"RECORD"</code> (the record definition as a string)</li>
+     * </ul>
+     *
+     * @param sb The {@link StringBuilder} to append to.
+     *
+     * @return The specified {@link StringBuilder}.
+     *
+     * @since 4.4.0
+     */
+    public StringBuilder appendJson(StringBuilder sb) {
+        sb.append("{\"DATA_SOURCE\":");
+        jsonEscape(this.dataSourceCode, sb);
+        sb.append(",\"RECORD_ID\":");
+        jsonEscape(this.recordId, sb);
+        sb.append(",\"SOURCE\":");
+        jsonEscape(this.sourceName, sb);
+        sb.append(",\"SOURCE_OFFSET\":").append(this.sourceOffset);
+        sb.append(",\"ERROR_CODE\":").append(this.errorCode);
+        sb.append(",\"EXCEPTION\":");
+        jsonEscape(this.exceptionClass.getSimpleName(), sb);
+        sb.append(",\"MESSAGE\":");
+        jsonEscape(this.message, sb);
+        sb.append(",\"ATTEMPTS\":").append(this.attemptCount);
+        sb.append(",\"RECORD\":");
+        jsonEscape(this.recordDefinition, sb);
+        sb.append('}');
+        return sb;
+    }
+
+    /**
+     * Returns the single line JSON representation of this instance.
+     *
+     * @return The single line JSON representation of this instance.
+     *
+     * @see #appendJson(StringBuilder)
+     *
+     * @since 4.4.0
+     */
+    public String toJson() {
+        return this.appendJson(new StringBuilder(
+            this.recordDefinition.length() + 256)).toString();
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzDeadLetter{ dataSourceCode=[ " + this.dataSourceCode
+            + " ], recordId=[ " + this.recordId
+            + " ], sourceName=[ " + this.sourceName
+            + " ], sourceOffset=[ " + this.sourceOffset
+            + " ], errorCode=[ " + this.errorCode
+            + " ], exceptionClass=[ " + this.exceptionClass.getSimpleName()
+            + " ], message=[ " + this.message
+            + " ], attemptCount=[ " + this.attemptCount + " ] }";
+    }
+}
@@ -0,0 +1,49 @@
+package com.senzing.sdk.load;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Defines the interface for a destination of the {@linkplain SzDeadLetter
+ * dead letters} for records that the {@link SzBulkLoader} could not load.
+ * Implementations must be thread-safe since the worker threads of a load
+ * write to the sink concurrently.
+ *
+ * <p>
+ * The {@link SzBulkLoader} {@linkplain #flush() flushes} the sink at the
+ * end of each load but does <b>not</b> close it, so the same sink may be
+ * used for several loads and should be closed by the caller.
+ * </p>
+ *
+ * @see SzFileDeadLetterSink
+ *
+ * @since 4.4.0
+ */
+public interface SzDeadLetterSink extends Closeable {
+    /**
+     * Writes the specified {@link SzDeadLetter} to this sink.
+     *
+     * @param deadLetter The {@link SzDeadLetter} to write.
+     *
+     * @throws IOException If a failure occurs writing the dead letter,
+     *                     which aborts the load.
+     *
+     * @since 4.4.0
+     */
+    void write(SzDeadLetter deadLetter) throws IOException;
+
+    /**
+     * Flushes any buffered dead letters to the underlying destination.
+     *
+     * <p>
+     * The default implementation of this method does nothing.
+     * </p>
+     *
+     * @throws IOException If a failure occurs flushing the dead letters.
+     *
+     * @since 4.4.0
+     */
+    default void flush() throws IOException {
+        // do nothing
+    }
+}
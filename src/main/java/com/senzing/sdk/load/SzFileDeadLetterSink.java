@@ -0,0 +1,136 @@
+package com.senzing.sdk.load;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Provides an {@link SzDeadLetterSink} that appends each {@link
+ * SzDeadLetter} to a UTF-8 encoded file as a single line of JSON (i.e.:
+ * the JSON-lines format) as described by {@link
+ * SzDeadLetter#appendJson(StringBuilder)}.
+ *
+ * @since 4.4.0
+ */
+public final class SzFileDeadLetterSink implements SzDeadLetterSink {
+    /**
+     * The initial capacity of the buffer used to format a dead letter.
+     */
+    private static final int INITIAL_CAPACITY = 4096;
+
+    /**
+     * The {@link Path} of the file.
+     */
+    private final Path path;
+
+    /**
+     * The {@link Writer} for writing to the file.
+     */
+    private final Writer writer;
+
+    /**
+     * The reusable buffer for formatting dead letters.
+     */
+    private final StringBuilder buffer = new StringBuilder(INITIAL_CAPACITY);
+
+    /**
+     * The number of dead letters written.
+     */
+    private long count = 0L;
+
+    /**
+     * Constructs with the {@link Path} of the file to which to append the
+     * dead letters, creating the file if it does not exist.
+     *
+     * @param path The non-null {@link Path} of the file.
+     *
+     * @throws NullPointerException If the specified {@link Path} is
+     *                              <code>null</code>.
+     *
+     * @throws IOException If a failure occurs opening the file.
+     *
+     * @since 4.4.0
+     */
+    public SzFileDeadLetterSink(Path path)
+        throws NullPointerException, IOException
+    {
+        this.path   = Objects.requireNonNull(path, "The path cannot be null");
+        this.writer = Files.newBufferedWriter(
+            path, StandardCharsets.UTF_8, CREATE, WRITE, APPEND);
+    }
+
+    /**
+     * Gets the {@link Path} of the file to which the dead letters are
+     * written.
+     *
+     * @return The {@link Path} of the file to which the dead letters are
+     *         written.
+     *
+     * @since 4.4.0
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Gets the number of dead letters that have been written by this
+     * instance.
+     *
+     * @return The number of dead letters that have been written by this
+     *         instance.
+     *
+     * @since 4.4.0
+     */
+    public synchronized long getCount() {
+        return this.count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void write(SzDeadLetter deadLetter) throws IOException {
+        this.buffer.setLength(0);
+        deadLetter.appendJson(this.buffer).append('\n');
+        this.writer.append(this.buffer);
+        this.count++;
+        if (this.buffer.capacity() > INITIAL_CAPACITY * 256) {
+            this.buffer.setLength(0);
+            this.buffer.trimToSize();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        this.writer.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.writer.close();
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzFileDeadLetterSink{ path=[ " + this.path
+            + " ], count=[ " + this.getCount() + " ] }";
+    }
+}
@@ -0,0 +1,766 @@
+package com.senzing.sdk.load;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import com.senzing.sdk.SzFlag;
+import com.senzing.sdk.SzInfoExtractor;
+
+/**
+ * Detects "hot" entities whose resolution is repeatedly slow or contended
+ * and routes subsequent writes that are likely to touch them through a
+ * serialized lane, so that many threads do not collide on the same few
+ * entities (e.g.: entities that have accumulated a shared address or a
+ * placeholder phone number) and spend their time waiting on database
+ * locks.
+ *
+ * <p>
+ * Each completed write is {@linkplain #observe(String, CharSequence,
+ * long) observed} with its latency and its INFO response (i.e.: as
+ * returned with {@link SzFlag#SZ_WITH_INFO}).  A write is slow if its
+ * latency is at least the {@linkplain Builder#slowThresholdMillis(long)
+ * slow threshold}, and an entity becomes hot once it is among the
+ * {@linkplain SzInfoExtractor affected entities} of the {@linkplain
+ * Builder#hotThreshold(int) hot threshold} number of slow writes.  Since
+ * the entities a new record will touch are not known until it has been
+ * resolved, the detector also counts the attribute values of slow records
+ * and a value becomes hot once it has occurred in the hot threshold
+ * number of slow records and occurs in a slow record that affects a hot
+ * entity.  A record definition that contains a hot value is hot and its
+ * write {@linkplain #acquire(String) acquires} a permit from the
+ * serialized lane, which admits at most the {@linkplain
+ * Builder#laneConcurrency(int) lane concurrency} writes at a time.
+ * </p>
+ *
+ * <p>
+ * The values of the <code>"DATA_SOURCE"</code>, <code>"RECORD_ID"</code>
+ * and <code>"RECORD_TYPE"</code> properties and values that are shorter
+ * than the {@linkplain Builder#minValueLength(int) minimum value length}
+ * (e.g.: gender codes) are never hot.  The number of tracked entities and
+ * values and the number of hot values are bounded, and hot entities and
+ * values remain hot until the detector is {@linkplain #reset() reset}.
+ * </p>
+ *
+ * <p>
+ * A single instance may be shared by several {@link SzBulkLoader}
+ * instances via {@link SzBulkLoader.Builder#hotEntityDetector(
+ * SzHotEntityDetector)} so that what is learned applies across them.
+ * Instances of this class are thread-safe.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzHotEntityDetector {
+    /**
+     * The default number of milliseconds at or above which a write is
+     * considered slow.
+     */
+    public static final long DEFAULT_SLOW_THRESHOLD_MILLIS = 1000L;
+
+    /**
+     * The default number of slow writes after which an entity or value is
+     * considered hot.
+     */
+    public static final int DEFAULT_HOT_THRESHOLD = 3;
+
+    /**
+     * The default number of hot writes that may be in progress at once.
+     */
+    public static final int DEFAULT_LANE_CONCURRENCY = 1;
+
+    /**
+     * The default minimum length of a value for it to be considered hot.
+     */
+    public static final int DEFAULT_MIN_VALUE_LENGTH = 4;
+
+    /**
+     * The default maximum number of entities and values whose slow writes
+     * are tracked.
+     */
+    public static final int DEFAULT_MAX_TRACKED_COUNT = 10000;
+
+    /**
+     * The default maximum number of hot values.
+     */
+    public static final int DEFAULT_MAX_HOT_VALUES = 1000;
+
+    /**
+     * The property names whose values are never hot.
+     */
+    private static final Set<String> IGNORED_KEYS
+        = Set.of("DATA_SOURCE", "RECORD_ID", "RECORD_TYPE");
+
+    /**
+     * Provides a builder class for creating instances of {@link
+     * SzHotEntityDetector}.
+     *
+     * @since 4.4.0
+     */
+    public static final class Builder {
+        /**
+         * The number of milliseconds at or above which a write is slow.
+         */
+        private long slowThresholdMillis = DEFAULT_SLOW_THRESHOLD_MILLIS;
+
+        /**
+         * The number of slow writes after which an entity or value is hot.
+         */
+        private int hotThreshold = DEFAULT_HOT_THRESHOLD;
+
+        /**
+         * The number of hot writes that may be in progress at once.
+         */
+        private int laneConcurrency = DEFAULT_LANE_CONCURRENCY;
+
+        /**
+         * The minimum length of a hot value.
+         */
+        private int minValueLength = DEFAULT_MIN_VALUE_LENGTH;
+
+        /**
+         * The maximum number of tracked entities and values.
+         */
+        private int maxTrackedCount = DEFAULT_MAX_TRACKED_COUNT;
+
+        /**
+         * The maximum number of hot values.
+         */
+        private int maxHotValues = DEFAULT_MAX_HOT_VALUES;
+
+        /**
+         * Private default constructor.
+         */
+        private Builder() {
+            // do nothing
+        }
+
+        /**
+         * Sets the number of milliseconds at or above which the latency of
+         * a write is considered slow.  The default is {@link
+         * #DEFAULT_SLOW_THRESHOLD_MILLIS}.
+         *
+         * @param thresholdMillis The positive number of milliseconds.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified threshold is
+         *                                  not positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder slowThresholdMillis(long thresholdMillis)
+            throws IllegalArgumentException
+        {
+            if (thresholdMillis <= 0L) {
+                throw new IllegalArgumentException(
+                    "The slow threshold must be positive: " + thresholdMillis);
+            }
+            this.slowThresholdMillis = thresholdMillis;
+            return this;
+        }
+
+        /**
+         * Sets the number of slow writes that must affect an entity (or
+         * contain a value) for it to be considered hot.  The default is
+         * {@link #DEFAULT_HOT_THRESHOLD}.
+         *
+         * @param threshold The positive number of slow writes.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified threshold is
+         *                                  not positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder hotThreshold(int threshold) throws IllegalArgumentException {
+            this.hotThreshold = requirePositive(threshold, "hot threshold");
+            return this;
+        }
+
+        /**
+         * Sets the number of hot writes that the serialized lane admits at
+         * once.  The default is {@link #DEFAULT_LANE_CONCURRENCY}.
+         *
+         * @param concurrency The positive number of concurrent hot writes.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified concurrency is
+         *                                  not positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder laneConcurrency(int concurrency) throws IllegalArgumentException {
+            this.laneConcurrency = requirePositive(concurrency, "lane concurrency");
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of characters of a value for it to be
+         * considered hot.  The default is {@link #DEFAULT_MIN_VALUE_LENGTH}.
+         *
+         * @param length The positive minimum number of characters.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified length is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder minValueLength(int length) throws IllegalArgumentException {
+            this.minValueLength = requirePositive(length, "minimum value length");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of entities and values whose slow writes
+         * are tracked.  Once exceeded, the counts for entities and values
+         * that are not yet hot are discarded.  The default is {@link
+         * #DEFAULT_MAX_TRACKED_COUNT}.
+         *
+         * @param count The positive maximum number tracked.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified count is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxTrackedCount(int count) throws IllegalArgumentException {
+            this.maxTrackedCount = requirePositive(count, "maximum tracked count");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of hot values, beyond which no further
+         * values become hot.  The default is {@link #DEFAULT_MAX_HOT_VALUES}.
+         *
+         * @param count The positive maximum number of hot values.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified count is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxHotValues(int count) throws IllegalArgumentException {
+            this.maxHotValues = requirePositive(count, "maximum hot values");
+            return this;
+        }
+
+        /**
+         * Builds a new {@link SzHotEntityDetector} from this builder.
+         *
+         * @return The newly constructed {@link SzHotEntityDetector}.
+         *
+         * @since 4.4.0
+         */
+        public SzHotEntityDetector build() {
+            return new SzHotEntityDetector(this);
+        }
+
+        /**
+         * Ensures the specified value is positive.
+         *
+         * @param value The value to check.
+         * @param description The description for the error message.
+         *
+         * @return The specified value.
+         *
+         * @throws IllegalArgumentException If not positive.
+         */
+        private static int requirePositive(int value, String description)
+            throws IllegalArgumentException
+        {
+            if (value <= 0) {
+                throw new IllegalArgumentException(
+                    "The " + description + " must be positive: " + value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for building an {@link
+     * SzHotEntityDetector}.
+     *
+     * @return The new {@link Builder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Represents the admission of one hot write to the serialized lane,
+     * which must be {@linkplain #close() closed} when the write completes.
+     *
+     * @since 4.4.0
+     */
+    public final class Permit implements AutoCloseable {
+        /**
+         * Whether or not the permit has been released.
+         */
+        private boolean released = false;
+
+        /**
+         * Private default constructor.
+         */
+        private Permit() {
+            // do nothing
+        }
+
+        /**
+         * Releases this permit.  Calling this method more than once has no
+         * effect.
+         *
+         * @since 4.4.0
+         */
+        @Override
+        public void close() {
+            if (this.released) {
+                return;
+            }
+            this.released = true;
+            SzHotEntityDetector.this.lane.release();
+        }
+    }
+
+    /**
+     * The number of nanoseconds at or above which a write is slow.
+     */
+    private final long slowThresholdNanos;
+
+    /**
+     * The number of slow writes after which an entity or value is hot.
+     */
+    private final int hotThreshold;
+
+    /**
+     * The number of hot writes that may be in progress at once.
+     */
+    private final int laneConcurrency;
+
+    /**
+     * The minimum length of a hot value.
+     */
+    private final int minValueLength;
+
+    /**
+     * The maximum number of tracked entities and values.
+     */
+    private final int maxTrackedCount;
+
+    /**
+     * The maximum number of hot values.
+     */
+    private final int maxHotValues;
+
+    /**
+     * The fair {@link Semaphore} for the serialized lane.
+     */
+    private final Semaphore lane;
+
+    /**
+     * The number of slow writes affecting each tracked entity.
+     */
+    private final Map<Long, AtomicInteger> entityCounts = new ConcurrentHashMap<>();
+
+    /**
+     * The number of slow records containing each tracked value, keyed by
+     * the JSON-escaped value including its quotes.
+     */
+    private final Map<String, AtomicInteger> valueCounts = new ConcurrentHashMap<>();
+
+    /**
+     * The {@link Set} of hot entity ID's.
+     */
+    private final Set<Long> hotEntityIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The {@link Set} of JSON-escaped hot values including their quotes,
+     * which is only added to while synchronized on this instance so that
+     * its size stays within the maximum number of hot values.
+     */
+    private final Set<String> hotValues = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The number of slow writes that were observed.
+     */
+    private final LongAdder slowCount = new LongAdder();
+
+    /**
+     * The number of writes that were routed through the serialized lane.
+     */
+    private final LongAdder serializedCount = new LongAdder();
+
+    /**
+     * Private constructor for constructing with a {@link Builder}.
+     *
+     * @param builder The {@link Builder} from which to construct.
+     */
+    private SzHotEntityDetector(Builder builder) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(builder.slowThresholdMillis);
+        this.hotThreshold       = builder.hotThreshold;
+        this.laneConcurrency    = builder.laneConcurrency;
+        this.minValueLength     = builder.minValueLength;
+        this.maxTrackedCount    = builder.maxTrackedCount;
+        this.maxHotValues       = builder.maxHotValues;
+        this.lane               = new Semaphore(builder.laneConcurrency, true);
+    }
+
+    /**
+     * Gets the number of milliseconds at or above which the latency of a
+     * write is considered slow.
+     *
+     * @return The number of milliseconds at or above which a write is slow.
+     *
+     * @since 4.4.0
+     */
+    public long getSlowThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.slowThresholdNanos);
+    }
+
+    /**
+     * Gets the number of slow writes after which an entity or value is
+     * considered hot.
+     *
+     * @return The number of slow writes after which an entity or value is
+     *         hot.
+     *
+     * @since 4.4.0
+     */
+    public int getHotThreshold() {
+        return this.hotThreshold;
+    }
+
+    /**
+     * Gets the number of hot writes that the serialized lane admits at
+     * once.
+     *
+     * @return The number of concurrent hot writes.
+     *
+     * @since 4.4.0
+     */
+    public int getLaneConcurrency() {
+        return this.laneConcurrency;
+    }
+
+    /**
+     * Gets the minimum number of characters of a value for it to be
+     * considered hot.
+     *
+     * @return The minimum number of characters of a hot value.
+     *
+     * @since 4.4.0
+     */
+    public int getMinValueLength() {
+        return this.minValueLength;
+    }
+
+    /**
+     * Gets the maximum number of entities and values whose slow writes are
+     * tracked.
+     *
+     * @return The maximum number of tracked entities and values.
+     *
+     * @since 4.4.0
+     */
+    public int getMaxTrackedCount() {
+        return this.maxTrackedCount;
+    }
+
+    /**
+     * Gets the maximum number of hot values.
+     *
+     * @return The maximum number of hot values.
+     *
+     * @since 4.4.0
+     */
+    public int getMaxHotValues() {
+        return this.maxHotValues;
+    }
+
+    /**
+     * Gets the entity ID's of the entities that are currently hot.
+     *
+     * @return The unmodifiable {@link Set} of hot entity ID's, sorted in
+     *         ascending order.
+     *
+     * @since 4.4.0
+     */
+    public Set<Long> getHotEntityIds() {
+        return Collections.unmodifiableSet(new TreeSet<>(this.hotEntityIds));
+    }
+
+    /**
+     * Gets the JSON-escaped values (including their surrounding quotes)
+     * whose presence in a record definition makes the record hot.
+     *
+     * @return The unmodifiable {@link Set} of hot values, sorted in
+     *         ascending order.
+     *
+     * @since 4.4.0
+     */
+    public Set<String> getHotValues() {
+        return Collections.unmodifiableSet(new TreeSet<>(this.hotValues));
+    }
+
+    /**
+     * Gets the number of slow writes that have been observed.
+     *
+     * @return The number of slow writes that have been observed.
+     *
+     * @since 4.4.0
+     */
+    public long getSlowCount() {
+        return this.slowCount.sum();
+    }
+
+    /**
+     * Gets the number of writes that have been routed through the
+     * serialized lane.
+     *
+     * @return The number of writes routed through the serialized lane.
+     *
+     * @since 4.4.0
+     */
+    public long getSerializedCount() {
+        return this.serializedCount.sum();
+    }
+
+    /**
+     * Checks if the specified record definition is hot because it contains
+     * a hot value.  The values of the record definition are scanned once and
+     * each is looked up among the hot values, so the cost does not grow with
+     * the number of hot values.
+     *
+     * @param recordDefinition The record definition JSON text.
+     *
+     * @return <code>true</code> if the record definition is hot, otherwise
+     *         <code>false</code>.
+     *
+     * @since 4.4.0
+     */
+    public boolean isHot(String recordDefinition) {
+        if (this.hotValues.isEmpty()) {
+            return false;
+        }
+        return !this.scanValues(recordDefinition, value -> !this.hotValues.contains(value));
+    }
+
+    /**
+     * Acquires a {@link Permit} from the serialized lane for a write of the
+     * specified record definition if it is {@linkplain #isHot(String) hot},
+     * waiting as long as needed.
+     *
+     * @param recordDefinition The record definition JSON text.
+     *
+     * @return The {@link Permit}, which must be {@linkplain Permit#close()
+     *         closed} when the write completes, or <code>null</code> if the
+     *         record definition is not hot.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     *
+     * @since 4.4.0
+     */
+    public Permit acquire(String recordDefinition) throws InterruptedException {
+        if (!this.isHot(recordDefinition)) {
+            return null;
+        }
+        this.lane.acquire();
+        this.serializedCount.increment();
+        return new Permit();
+    }
+
+    /**
+     * Observes a completed write of the specified record definition with
+     * the specified INFO response and latency.  Writes that are faster than
+     * the {@linkplain #getSlowThresholdMillis() slow threshold} return
+     * immediately.
+     *
+     * @param recordDefinition The record definition JSON text, or
+     *                         <code>null</code> if none (e.g.: for a
+     *                         delete).
+     * @param info The INFO response for the write, or <code>null</code> if
+     *             none.
+     * @param latencyNanos The latency of the write in nanoseconds.
+     *
+     * @since 4.4.0
+     */
+    public void observe(String recordDefinition, CharSequence info, long latencyNanos) {
+        if (latencyNanos < this.slowThresholdNanos) {
+            return;
+        }
+        this.slowCount.increment();
+
+        long[] entityIds;
+        try {
+            entityIds = SzInfoExtractor.extractAffectedEntityIds(info);
+        } catch (IllegalArgumentException e) {
+            entityIds = new long[0];
+        }
+
+        boolean touchesHot = false;
+        for (long entityId : entityIds) {
+            if (this.hotEntityIds.contains(entityId)) {
+                touchesHot = true;
+                continue;
+            }
+            int count = this.entityCounts.computeIfAbsent(
+                entityId, key -> new AtomicInteger()).incrementAndGet();
+            if (count >= this.hotThreshold) {
+                this.hotEntityIds.add(entityId);
+                this.entityCounts.remove(entityId);
+                touchesHot = true;
+            }
+        }
+        if (this.entityCounts.size() > this.maxTrackedCount) {
+            this.entityCounts.clear();
+        }
+
+        if (recordDefinition != null) {
+            this.observeValues(recordDefinition, touchesHot);
+        }
+    }
+
+    /**
+     * Counts the values of the specified slow record definition, making
+     * those that reach the hot threshold hot if the record affects a hot
+     * entity.
+     *
+     * @param recordDefinition The record definition JSON text.
+     * @param touchesHot <code>true</code> if the write affected a hot
+     *                   entity, otherwise <code>false</code>.
+     */
+    private void observeValues(String recordDefinition, boolean touchesHot) {
+        this.scanValues(recordDefinition, value -> {
+            if (this.hotValues.contains(value)) {
+                return true;
+            }
+            int count = this.valueCounts.computeIfAbsent(
+                value, k -> new AtomicInteger()).incrementAndGet();
+            if (touchesHot && count >= this.hotThreshold) {
+                this.addHotValue(value);
+                this.valueCounts.remove(value);
+            }
+            return true;
+        });
+        if (this.valueCounts.size() > this.maxTrackedCount) {
+            this.valueCounts.clear();
+        }
+    }
+
+    /**
+     * Visits the JSON-escaped values (including their quotes) of the
+     * specified record definition that are eligible to be hot, which
+     * excludes property names, the values of the ignored properties and
+     * values shorter than the minimum value length.
+     *
+     * @param recordDefinition The record definition JSON text.
+     * @param visitor The {@link Predicate} to visit each value with, which
+     *                returns <code>false</code> to stop the scan.
+     *
+     * @return <code>true</code> if all values were visited, or
+     *         <code>false</code> if the visitor stopped the scan.
+     */
+    private boolean scanValues(String recordDefinition, Predicate<String> visitor) {
+        int length = recordDefinition.length();
+        String key = null;
+        int index = 0;
+        while (index < length) {
+            // find the next string
+            index = recordDefinition.indexOf('"', index);
+            if (index < 0) {
+                break;
+            }
+            int start = index++;
+            while (index < length && recordDefinition.charAt(index) != '"') {
+                index += (recordDefinition.charAt(index) == '\\') ? 2 : 1;
+            }
+            if (index >= length) {
+                break;
+            }
+            int end = ++index;
+
+            // check if the string is a property name or a value
+            int next = index;
+            while (next < length && Character.isWhitespace(recordDefinition.charAt(next))) {
+                next++;
+            }
+            if (next < length && recordDefinition.charAt(next) == ':') {
+                key = recordDefinition.substring(start + 1, end - 1);
+                index = next + 1;
+                continue;
+            }
+            if ((end - start - 2) < this.minValueLength
+                || (key != null && IGNORED_KEYS.contains(key)))
+            {
+                continue;
+            }
+            if (!visitor.test(recordDefinition.substring(start, end))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the specified JSON-escaped value to the hot values if it is not
+     * already hot and the maximum number of hot values has not been
+     * reached.
+     *
+     * @param value The JSON-escaped value including its quotes.
+     */
+    private synchronized void addHotValue(String value) {
+        if (this.hotValues.size() < this.maxHotValues) {
+            this.hotValues.add(value);
+        }
+    }
+
+    /**
+     * Forgets all hot entities and values and the slow writes that have
+     * been counted, but not the {@linkplain #getSlowCount() slow count} or
+     * {@linkplain #getSerializedCount() serialized count}.
+     *
+     * @since 4.4.0
+     */
+    public void reset() {
+        synchronized (this) {
+            this.hotValues.clear();
+        }
+        this.hotEntityIds.clear();
+        this.entityCounts.clear();
+        this.valueCounts.clear();
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzHotEntityDetector{ slowThresholdMillis=[ " + this.getSlowThresholdMillis()
+            + " ], hotThreshold=[ " + this.hotThreshold
+            + " ], laneConcurrency=[ " + this.laneConcurrency
+            + " ], minValueLength=[ " + this.minValueLength
+            + " ], maxTrackedCount=[ " + this.maxTrackedCount
+            + " ], maxHotValues=[ " + this.maxHotValues
+            + " ], hotEntityCount=[ " + this.hotEntityIds.size()
+            + " ], hotValueCount=[ " + this.hotValues.size() + " ] }";
+    }
+}
@@ -0,0 +1,1225 @@
+package com.senzing.sdk.load;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.senzing.sdk.SzException;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import static com.senzing.sdk.core.SzCoreUtilities.jsonEscape;
+
+/**
+ * Provides an ingestion service that watches a directory (a "hot folder")
+ * for newly landed record files and loads each of them with an {@link
+ * SzBulkLoader} as it arrives, rather than waiting for a scheduled batch.
+ *
+ * <p>
+ * Each file goes through the following steps:
+ * <ol>
+ *   <li>A regular, non-hidden file in the watched directory that matches
+ *       the {@linkplain Builder#glob(String) glob} and has not been
+ *       modified for the {@linkplain Builder#settleMillis(long) settle
+ *       time} is considered landed.  Producers should write files under a
+ *       hidden (dot-prefixed) or non-matching name and rename them into
+ *       place once complete.</li>
+ *   <li>The file is claimed by atomically renaming it into a subdirectory
+ *       of the {@linkplain Builder#processingDirectory(Path) processing
+ *       directory} that is owned (and locked) by this instance for as long
+ *       as it is open, so several services may safely watch the same
+ *       directory.</li>
+ *   <li>The file is opened as an {@link SzRecordSource} via the {@link
+ *       SourceFactory} and loaded by the {@link SzBulkLoader}.  Records that
+ *       fail individually are handled by the loader (e.g.: dead-lettered)
+ *       and do not fail the file.</li>
+ *   <li>The file is moved to the {@linkplain Builder#doneDirectory(Path)
+ *       done directory}, or to the {@linkplain Builder#failedDirectory(Path)
+ *       failed directory} if it could not be read, and a JSON-lines entry
+ *       describing the outcome is appended to the {@linkplain
+ *       Builder#manifestFile(Path) manifest}.</li>
+ * </ol>
+ * </p>
+ *
+ * <p>
+ * If the service is {@linkplain #close() closed}, or the load is stopped by
+ * an {@link com.senzing.sdk.SzUnrecoverableException}, then the file being
+ * loaded is left in its subdirectory of the processing directory.  When a
+ * service starts, it adopts the files left in the subdirectories that are
+ * no longer locked by a live service (along with any files placed directly
+ * in the processing directory) and loads them before any new files.  The
+ * files claimed by a live service are never loaded by another.  Adding a
+ * record is idempotent, and when the loader has a
+ * {@linkplain SzBulkLoader.Builder#contentHashIndex(SzContentHashIndex)
+ * content hash index} the records loaded before the interruption are
+ * skipped without calling the engine.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzHotFolderLoader implements Closeable {
+    /**
+     * The default glob for the names of the files to load.
+     */
+    public static final String DEFAULT_GLOB = "*";
+
+    /**
+     * The default number of milliseconds that a file must be unmodified
+     * before it is considered landed.
+     */
+    public static final long DEFAULT_SETTLE_MILLIS = 1000L;
+
+    /**
+     * The default name of the processing directory within the watched
+     * directory.
+     */
+    public static final String DEFAULT_PROCESSING_DIRECTORY = ".processing";
+
+    /**
+     * The default name of the done directory within the watched directory.
+     */
+    public static final String DEFAULT_DONE_DIRECTORY = "done";
+
+    /**
+     * The default name of the failed directory within the watched
+     * directory.
+     */
+    public static final String DEFAULT_FAILED_DIRECTORY = "failed";
+
+    /**
+     * The default name of the manifest file within the watched directory.
+     */
+    public static final String DEFAULT_MANIFEST_FILE = ".manifest.jsonl";
+
+    /**
+     * The name of the lock file that guards the processing directory while
+     * subdirectories are created or adopted, and that is held within each
+     * subdirectory by the instance that owns it.
+     */
+    private static final String LOCK_FILE = ".lock";
+
+    /**
+     * The monitor that serializes the locking of the processing directory
+     * within this process, since a {@link FileLock} is held on behalf of
+     * the whole process and cannot be contended between its threads.
+     */
+    private static final Object PROCESSING_MONITOR = new Object();
+
+    /**
+     * The {@link System.Logger} for logging failures to release the claim
+     * directory.
+     */
+    private static final Logger LOGGER = System.getLogger(SzHotFolderLoader.class.getName());
+
+    /**
+     * The status recorded in the manifest for a file that was loaded.
+     */
+    private static final String STATUS_DONE = "DONE";
+
+    /**
+     * The status recorded in the manifest for a file that failed.
+     */
+    private static final String STATUS_FAILED = "FAILED";
+
+    /**
+     * Defines the interface for opening a claimed file as an {@link
+     * SzRecordSource} (e.g.: as an {@link SzCsvRecordSource} with a specific
+     * {@link SzCsvMapping}).
+     *
+     * @since 4.4.0
+     */
+    @FunctionalInterface
+    public interface SourceFactory {
+        /**
+         * Opens the file at the specified {@link Path} as an {@link
+         * SzRecordSource}.
+         *
+         * @param path The {@link Path} of the claimed file.
+         *
+         * @return The {@link SzRecordSource} for the file.
+         *
+         * @throws IOException If the file cannot be opened, which fails the
+         *                     file.
+         *
+         * @since 4.4.0
+         */
+        SzRecordSource open(Path path) throws IOException;
+    }
+
+    /**
+     * Provides a builder class for creating instances of {@link
+     * SzHotFolderLoader}.
+     *
+     * @since 4.4.0
+     */
+    public static final class Builder {
+        /**
+         * The watched directory.
+         */
+        private Path directory = null;
+
+        /**
+         * The {@link SzBulkLoader} for loading the files.
+         */
+        private SzBulkLoader loader = null;
+
+        /**
+         * The {@link SourceFactory} for opening the files.
+         */
+        private SourceFactory sourceFactory = null;
+
+        /**
+         * The glob for the names of the files to load.
+         */
+        private String glob = DEFAULT_GLOB;
+
+        /**
+         * The settle time in milliseconds.
+         */
+        private long settleMillis = DEFAULT_SETTLE_MILLIS;
+
+        /**
+         * The processing directory, or <code>null</code> for the default.
+         */
+        private Path processingDirectory = null;
+
+        /**
+         * The done directory, or <code>null</code> for the default.
+         */
+        private Path doneDirectory = null;
+
+        /**
+         * The failed directory, or <code>null</code> for the default.
+         */
+        private Path failedDirectory = null;
+
+        /**
+         * The manifest file, or <code>null</code> for the default.
+         */
+        private Path manifestFile = null;
+
+        /**
+         * Private default constructor.
+         */
+        private Builder() {
+            // do nothing
+        }
+
+        /**
+         * Sets the directory to watch for landed files.  This is required.
+         *
+         * @param directory The non-null {@link Path} of the directory.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder directory(Path directory) throws NullPointerException {
+            this.directory = Objects.requireNonNull(
+                directory, "The directory cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the {@link SzBulkLoader} with which to load the files.  This
+         * is required.
+         *
+         * @param loader The non-null {@link SzBulkLoader} to use.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder loader(SzBulkLoader loader) throws NullPointerException {
+            this.loader = Objects.requireNonNull(loader, "The loader cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the {@link SourceFactory} for opening each claimed file as an
+         * {@link SzRecordSource}.  This is required.
+         *
+         * @param factory The non-null {@link SourceFactory} to use.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder sourceFactory(SourceFactory factory) throws NullPointerException {
+            this.sourceFactory = Objects.requireNonNull(
+                factory, "The source factory cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the glob (as described by {@link
+         * java.nio.file.FileSystem#getPathMatcher(String)} without the
+         * <code>"glob:"</code> prefix) that the names of the files to load
+         * must match.  The default is {@link #DEFAULT_GLOB}.  Hidden files
+         * (whose names begin with a period) are never loaded.
+         *
+         * @param glob The non-null glob for the file names.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder glob(String glob) throws NullPointerException {
+            this.glob = Objects.requireNonNull(glob, "The glob cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the number of milliseconds that a file must go unmodified
+         * before it is considered landed.  The default is {@link
+         * #DEFAULT_SETTLE_MILLIS}.
+         *
+         * @param settleMillis The non-negative settle time in milliseconds.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified settle time is
+         *                                  negative.
+         *
+         * @since 4.4.0
+         */
+        public Builder settleMillis(long settleMillis) throws IllegalArgumentException {
+            if (settleMillis < 0L) {
+                throw new IllegalArgumentException(
+                    "The settle time cannot be negative: " + settleMillis);
+            }
+            this.settleMillis = settleMillis;
+            return this;
+        }
+
+        /**
+         * Sets the directory into which files are claimed while they are
+         * loaded, which must be on the same file system as the watched
+         * directory.  The default is the {@link
+         * #DEFAULT_PROCESSING_DIRECTORY} within the watched directory.
+         *
+         * @param directory The {@link Path} of the directory, or
+         *                  <code>null</code> for the default.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder processingDirectory(Path directory) {
+            this.processingDirectory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the directory to which loaded files are moved.  The default
+         * is the {@link #DEFAULT_DONE_DIRECTORY} within the watched
+         * directory.
+         *
+         * @param directory The {@link Path} of the directory, or
+         *                  <code>null</code> for the default.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder doneDirectory(Path directory) {
+            this.doneDirectory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the directory to which files that could not be loaded are
+         * moved.  The default is the {@link #DEFAULT_FAILED_DIRECTORY}
+         * within the watched directory.
+         *
+         * @param directory The {@link Path} of the directory, or
+         *                  <code>null</code> for the default.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder failedDirectory(Path directory) {
+            this.failedDirectory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the file to which a JSON-lines entry is appended for each
+         * file that is loaded or failed.  The default is the {@link
+         * #DEFAULT_MANIFEST_FILE} within the watched directory.
+         *
+         * @param manifestFile The {@link Path} of the manifest file, or
+         *                     <code>null</code> for the default.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder manifestFile(Path manifestFile) {
+            this.manifestFile = manifestFile;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link SzHotFolderLoader} from this builder, creating
+         * the processing, done and failed directories if they do not exist.
+         *
+         * @return The newly constructed {@link SzHotFolderLoader}.
+         *
+         * @throws IllegalStateException If the directory, loader or source
+         *                               factory was not specified.
+         *
+         * @throws IOException If the directories cannot be created.
+         *
+         * @since 4.4.0
+         */
+        public SzHotFolderLoader build() throws IllegalStateException, IOException {
+            if (this.directory == null) {
+                throw new IllegalStateException("The directory is required");
+            }
+            if (this.loader == null) {
+                throw new IllegalStateException("The loader is required");
+            }
+            if (this.sourceFactory == null) {
+                throw new IllegalStateException("The source factory is required");
+            }
+            return new SzHotFolderLoader(this);
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for building an {@link
+     * SzHotFolderLoader}.
+     *
+     * @return The new {@link Builder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * The watched directory.
+     */
+    private final Path directory;
+
+    /**
+     * The {@link SzBulkLoader} for loading the files.
+     */
+    private final SzBulkLoader loader;
+
+    /**
+     * The {@link SourceFactory} for opening the files.
+     */
+    private final SourceFactory sourceFactory;
+
+    /**
+     * The glob for the names of the files to load.
+     */
+    private final String glob;
+
+    /**
+     * The settle time in milliseconds.
+     */
+    private final long settleMillis;
+
+    /**
+     * The processing directory.
+     */
+    private final Path processingDirectory;
+
+    /**
+     * The subdirectory of the processing directory that is owned by this
+     * instance and into which it claims files.
+     */
+    private final Path claimDirectory;
+
+    /**
+     * The {@link FileLock} held on the lock file in the claim directory for
+     * as long as this instance is open.
+     */
+    private final FileLock claimLock;
+
+    /**
+     * The done directory.
+     */
+    private final Path doneDirectory;
+
+    /**
+     * The failed directory.
+     */
+    private final Path failedDirectory;
+
+    /**
+     * The manifest file.
+     */
+    private final Path manifestFile;
+
+    /**
+     * The number of files that were loaded.
+     */
+    private final AtomicLong doneCount = new AtomicLong(0L);
+
+    /**
+     * The number of files that failed.
+     */
+    private final AtomicLong failedCount = new AtomicLong(0L);
+
+    /**
+     * The failure that stopped the watching thread, if any.
+     */
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    /**
+     * The monitor for the state of this instance.
+     */
+    private final Object monitor = new Object();
+
+    /**
+     * The lock for serializing the processing of files.
+     */
+    private final Object drainLock = new Object();
+
+    /**
+     * Whether or not the orphaned files in the processing directory have
+     * been adopted, which is guarded by the {@link #drainLock}.
+     */
+    private boolean recovered = false;
+
+    /**
+     * The watching thread, or <code>null</code> if not started.
+     */
+    private Thread thread = null;
+
+    /**
+     * Whether or not this instance has been closed.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Private constructor for constructing with a {@link Builder}.
+     *
+     * @param builder The {@link Builder} from which to construct.
+     *
+     * @throws IOException If the directories cannot be created or the claim
+     *                     directory cannot be locked.
+     */
+    private SzHotFolderLoader(Builder builder) throws IOException {
+        Path dir = builder.directory;
+        this.directory              = dir;
+        this.loader                 = builder.loader;
+        this.sourceFactory          = builder.sourceFactory;
+        this.glob                   = builder.glob;
+        this.settleMillis           = builder.settleMillis;
+        this.processingDirectory    = (builder.processingDirectory != null)
+            ? builder.processingDirectory : dir.resolve(DEFAULT_PROCESSING_DIRECTORY);
+        this.doneDirectory          = (builder.doneDirectory != null)
+            ? builder.doneDirectory : dir.resolve(DEFAULT_DONE_DIRECTORY);
+        this.failedDirectory        = (builder.failedDirectory != null)
+            ? builder.failedDirectory : dir.resolve(DEFAULT_FAILED_DIRECTORY);
+        this.manifestFile           = (builder.manifestFile != null)
+            ? builder.manifestFile : dir.resolve(DEFAULT_MANIFEST_FILE);
+
+        if (!Files.isDirectory(dir)) {
+            throw new NoSuchFileException(dir.toString(), null, "Not a directory");
+        }
+        Files.createDirectories(this.processingDirectory);
+        Files.createDirectories(this.doneDirectory);
+        Files.createDirectories(this.failedDirectory);
+
+        // create and lock the claim directory while holding the processing
+        // lock so that it is never mistaken for an orphan
+        this.claimDirectory = this.processingDirectory.resolve(UUID.randomUUID().toString());
+        synchronized (PROCESSING_MONITOR) {
+            try (FileChannel channel = this.openProcessingLock()) {
+                channel.lock();
+                Files.createDirectory(this.claimDirectory);
+                FileChannel claimChannel = FileChannel.open(
+                    this.claimDirectory.resolve(LOCK_FILE), CREATE, WRITE);
+                try {
+                    this.claimLock = claimChannel.lock();
+                } catch (IOException | RuntimeException e) {
+                    claimChannel.close();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the watched directory.
+     *
+     * @return The {@link Path} of the watched directory.
+     *
+     * @since 4.4.0
+     */
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Gets the {@link SzBulkLoader} with which the files are loaded.
+     *
+     * @return The {@link SzBulkLoader} with which the files are loaded.
+     *
+     * @since 4.4.0
+     */
+    public SzBulkLoader getLoader() {
+        return this.loader;
+    }
+
+    /**
+     * Gets the glob that the names of the files to load must match.
+     *
+     * @return The glob that the names of the files to load must match.
+     *
+     * @since 4.4.0
+     */
+    public String getGlob() {
+        return this.glob;
+    }
+
+    /**
+     * Gets the number of milliseconds that a file must go unmodified
+     * before it is considered landed.
+     *
+     * @return The settle time in milliseconds.
+     *
+     * @since 4.4.0
+     */
+    public long getSettleMillis() {
+        return this.settleMillis;
+    }
+
+    /**
+     * Gets the directory within whose subdirectories files are claimed
+     * while they are loaded.
+     *
+     * @return The {@link Path} of the processing directory.
+     *
+     * @since 4.4.0
+     */
+    public Path getProcessingDirectory() {
+        return this.processingDirectory;
+    }
+
+    /**
+     * Gets the subdirectory of the processing directory that is owned by
+     * this instance and into which it claims files.
+     *
+     * @return The {@link Path} of the claim directory.
+     *
+     * @since 4.4.0
+     */
+    public Path getClaimDirectory() {
+        return this.claimDirectory;
+    }
+
+    /**
+     * Gets the directory to which loaded files are moved.
+     *
+     * @return The {@link Path} of the done directory.
+     *
+     * @since 4.4.0
+     */
+    public Path getDoneDirectory() {
+        return this.doneDirectory;
+    }
+
+    /**
+     * Gets the directory to which files that could not be loaded are
+     * moved.
+     *
+     * @return The {@link Path} of the failed directory.
+     *
+     * @since 4.4.0
+     */
+    public Path getFailedDirectory() {
+        return this.failedDirectory;
+    }
+
+    /**
+     * Gets the manifest file to which an entry is appended for each file
+     * that is loaded or failed.
+     *
+     * @return The {@link Path} of the manifest file.
+     *
+     * @since 4.4.0
+     */
+    public Path getManifestFile() {
+        return this.manifestFile;
+    }
+
+    /**
+     * Gets the number of files that have been loaded by this instance and
+     * moved to the done directory.
+     *
+     * @return The number of files that have been loaded.
+     *
+     * @since 4.4.0
+     */
+    public long getDoneCount() {
+        return this.doneCount.get();
+    }
+
+    /**
+     * Gets the number of files that have failed to load and been moved to
+     * the failed directory by this instance.
+     *
+     * @return The number of files that have failed.
+     *
+     * @since 4.4.0
+     */
+    public long getFailedCount() {
+        return this.failedCount.get();
+    }
+
+    /**
+     * Gets the failure that stopped the watching thread (e.g.: an {@link
+     * com.senzing.sdk.SzUnrecoverableException} from the loader), if any.
+     *
+     * @return The failure that stopped the watching thread, or
+     *         <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public Exception getFailure() {
+        return this.failure.get();
+    }
+
+    /**
+     * Checks if the watching thread has been started and is still running.
+     *
+     * @return <code>true</code> if the watching thread is running,
+     *         otherwise <code>false</code>.
+     *
+     * @since 4.4.0
+     */
+    public boolean isRunning() {
+        synchronized (this.monitor) {
+            return this.thread != null && this.thread.isAlive();
+        }
+    }
+
+    /**
+     * Starts a background thread that loads the orphaned files left in the
+     * processing directory and the files already landed, and then watches the directory
+     * and loads each file as it lands until this instance is {@linkplain
+     * #close() closed}.
+     *
+     * @throws IllegalStateException If this instance has already been
+     *                               started or has been closed.
+     *
+     * @since 4.4.0
+     */
+    public void start() throws IllegalStateException {
+        synchronized (this.monitor) {
+            if (this.closed) {
+                throw new IllegalStateException("Already closed");
+            }
+            if (this.thread != null) {
+                throw new IllegalStateException("Already started");
+            }
+            this.thread = new Thread(this::watch,
+                                     "SzHotFolderLoader-" + this.directory.getFileName());
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+    }
+
+    /**
+     * Synchronously loads the files left in the claim directory (having
+     * first adopted the orphaned files in the processing directory if not
+     * yet done) and then every file that has already landed in the watched
+     * directory,
+     * returning once there are no more landed files.  This may be used
+     * instead of {@link #start()} to drain the directory on demand.
+     *
+     * @return The number of files that were loaded or failed.
+     *
+     * @throws IOException If a failure occurs listing the directories or
+     *                     moving files.  If the calling thread is
+     *                     interrupted then an {@link InterruptedIOException}
+     *                     is thrown and the file being loaded remains in the
+     *                     claim directory.
+     *
+     * @throws IllegalStateException If this instance has been closed.
+     *
+     * @throws SzException If an {@link com.senzing.sdk.SzUnrecoverableException}
+     *                     stops the load of a file, which remains in the
+     *                     claim directory.
+     *
+     * @since 4.4.0
+     */
+    public int drain() throws IllegalStateException, IOException, SzException {
+        synchronized (this.drainLock) {
+            if (!this.claimLock.isValid()) {
+                throw new IllegalStateException("Already closed");
+            }
+            if (!this.recovered) {
+                this.adoptOrphans();
+                this.recovered = true;
+            }
+            int count = 0;
+            for (Path claimed : this.listFiles(this.claimDirectory, "*", 0L)) {
+                this.load(claimed);
+                count++;
+            }
+            for (List<Path> landed = this.listLanded();
+                 !landed.isEmpty();
+                 landed = this.listLanded())
+            {
+                for (Path path : landed) {
+                    Path claimed = this.claim(path);
+                    if (claimed != null) {
+                        this.load(claimed);
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * The body of the watching thread.
+     */
+    private void watch() {
+        try (WatchService watcher = this.directory.getFileSystem().newWatchService()) {
+            this.directory.register(watcher, ENTRY_CREATE, ENTRY_MODIFY);
+            long pollMillis = Math.max(1L, Math.min(this.settleMillis, DEFAULT_SETTLE_MILLIS));
+            while (!this.closed) {
+                this.drain();
+
+                // wait for a change or for unsettled files to settle
+                WatchKey key = watcher.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            }
+        } catch (InterruptedException | IOException | SzException | RuntimeException e) {
+            // a failure caused by interrupting the thread to close is expected
+            if (!this.closed) {
+                this.failure.compareAndSet(null, e);
+            }
+        }
+    }
+
+    /**
+     * Lists the regular, non-hidden files in the specified directory that
+     * match the specified glob and have not been modified for at least the
+     * specified number of milliseconds, ordered by last modified time.
+     *
+     * @param dir The directory to list.
+     * @param pattern The glob for the file names.
+     * @param minAgeMillis The minimum number of milliseconds since the file
+     *                     was last modified.
+     *
+     * @return The {@link List} of matching files.
+     *
+     * @throws IOException If an I/O failure occurs.
+     */
+    private List<Path> listFiles(Path dir, String pattern, long minAgeMillis)
+        throws IOException
+    {
+        record Entry(Path path, long modified) {
+            // nothing to add
+        }
+        long now = System.currentTimeMillis();
+        List<Entry> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, pattern)) {
+            for (Path path : stream) {
+                if (path.getFileName().toString().startsWith(".")) {
+                    continue;
+                }
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue; // claimed by another service
+                }
+                long modified = attrs.lastModifiedTime().toMillis();
+                if (attrs.isRegularFile() && now - modified >= minAgeMillis) {
+                    entries.add(new Entry(path, modified));
+                }
+            }
+        }
+        entries.sort(Comparator.comparingLong(Entry::modified));
+        List<Path> result = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            result.add(entry.path());
+        }
+        return result;
+    }
+
+    /**
+     * Lists the files that have landed in the watched directory.
+     *
+     * @return The {@link List} of landed files.
+     *
+     * @throws IOException If an I/O failure occurs.
+     */
+    private List<Path> listLanded() throws IOException {
+        List<Path> landed = this.listFiles(this.directory, this.glob, this.settleMillis);
+        landed.removeIf(path -> path.equals(this.manifestFile));
+        return landed;
+    }
+
+    /**
+     * Claims the specified landed file by atomically renaming it into the
+     * claim directory, without replacing a file of the same name that is
+     * already there.
+     *
+     * @param path The {@link Path} of the landed file.
+     *
+     * @return The {@link Path} of the claimed file, or <code>null</code> if
+     *         the file was claimed by another service.
+     *
+     * @throws IOException If the file cannot be renamed.
+     */
+    private Path claim(Path path) throws IOException {
+        try {
+            return this.moveTo(path, this.claimDirectory);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Opens the lock file of the processing directory.
+     *
+     * @return The {@link FileChannel} for the lock file.
+     *
+     * @throws IOException If the lock file cannot be opened.
+     */
+    private FileChannel openProcessingLock() throws IOException {
+        return FileChannel.open(this.processingDirectory.resolve(LOCK_FILE), CREATE, WRITE);
+    }
+
+    /**
+     * Moves the files placed directly in the processing directory and the
+     * files in the subdirectories that are not locked by a live service into
+     * the claim directory, removing the adopted subdirectories.  This is
+     * done while holding the lock on the processing directory so that two
+     * services never adopt the same files.
+     *
+     * @throws IOException If an I/O failure occurs.
+     */
+    private void adoptOrphans() throws IOException {
+        synchronized (PROCESSING_MONITOR) {
+            try (FileChannel channel = this.openProcessingLock()) {
+                channel.lock();
+                for (Path orphan : this.listFiles(this.processingDirectory, "*", 0L)) {
+                    this.moveTo(orphan, this.claimDirectory);
+                }
+                List<Path> subdirs = new ArrayList<>();
+                try (DirectoryStream<Path> stream
+                        = Files.newDirectoryStream(this.processingDirectory, Files::isDirectory))
+                {
+                    stream.forEach(subdirs::add);
+                }
+                for (Path subdir : subdirs) {
+                    if (!subdir.equals(this.claimDirectory)) {
+                        this.adoptOrphans(subdir);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adopts the files in the specified subdirectory of the processing
+     * directory if its lock file is not held by a live service.
+     *
+     * @param subdir The subdirectory of the processing directory.
+     *
+     * @throws IOException If an I/O failure occurs.
+     */
+    private void adoptOrphans(Path subdir) throws IOException {
+        Path lockFile = subdir.resolve(LOCK_FILE);
+        try (FileChannel channel = FileChannel.open(lockFile, CREATE, WRITE)) {
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null; // owned by a live service in this process
+            }
+            if (lock == null) {
+                return;
+            }
+            for (Path orphan : this.listFiles(subdir, "*", 0L)) {
+                this.moveTo(orphan, this.claimDirectory);
+            }
+        }
+        this.removeClaimDirectory(subdir);
+    }
+
+    /**
+     * Removes the specified claim directory and its lock file, leaving it in
+     * place if it is not empty.
+     *
+     * @param dir The claim directory to remove.
+     *
+     * @throws IOException If an I/O failure occurs.
+     */
+    private void removeClaimDirectory(Path dir) throws IOException {
+        if (!this.listFiles(dir, "*", 0L).isEmpty()) {
+            return;
+        }
+        Files.deleteIfExists(dir.resolve(LOCK_FILE));
+        try {
+            Files.deleteIfExists(dir);
+        } catch (DirectoryNotEmptyException e) {
+            // leave a directory holding something other than claimed files
+        }
+    }
+
+    /**
+     * Loads the specified claimed file and then moves it to the done or
+     * failed directory and records the outcome in the manifest.
+     *
+     * @param claimed The {@link Path} of the claimed file.
+     *
+     * @throws IOException If the file cannot be moved or the manifest cannot
+     *                     be written, or an {@link InterruptedIOException} if
+     *                     interrupted while loading.
+     *
+     * @throws SzException If an unrecoverable failure stops the load.
+     */
+    private void load(Path claimed) throws IOException, SzException {
+        long start = System.currentTimeMillis();
+        long size = Files.size(claimed);
+        SzLoadResult result = null;
+        Exception fileFailure = null;
+        try {
+            result = this.loader.load(this.sourceFactory.open(claimed));
+
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof InterruptedIOException || this.closed
+                || Thread.currentThread().isInterrupted())
+            {
+                // leave the file to be resumed
+                InterruptedIOException interrupted = new InterruptedIOException(
+                    "Interrupted while loading: " + claimed);
+                interrupted.initCause(e);
+                throw interrupted;
+            }
+            fileFailure = e;
+        }
+
+        boolean done = (fileFailure == null);
+        Path target = this.moveTo(claimed, done ? this.doneDirectory : this.failedDirectory);
+        this.appendManifest(claimed, target, size, start, result, fileFailure);
+        if (done) {
+            this.doneCount.incrementAndGet();
+        } else {
+            this.failedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Moves the specified file to the specified directory, appending a
+     * suffix to its name if a file with the same name already exists there.
+     *
+     * @param path The {@link Path} of the file to move.
+     * @param dir The directory to move it to.
+     *
+     * @return The new {@link Path} of the file.
+     *
+     * @throws IOException If the file cannot be moved.
+     */
+    private Path moveTo(Path path, Path dir) throws IOException {
+        String name = path.getFileName().toString();
+        Path target = dir.resolve(name);
+        for (int index = 1; Files.exists(target); index++) {
+            target = dir.resolve(name + "." + index);
+        }
+        return Files.move(path, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Appends an entry describing the outcome of loading a file to the
+     * manifest and forces it to storage.
+     *
+     * @param claimed The {@link Path} from which the file was loaded.
+     * @param target The {@link Path} to which the file was moved.
+     * @param size The size of the file in bytes.
+     * @param start The time at which the load started in milliseconds since
+     *              the epoch.
+     * @param result The {@link SzLoadResult}, or <code>null</code> if the
+     *               file failed.
+     * @param fileFailure The failure of the file, or <code>null</code> if
+     *                    none.
+     *
+     * @throws IOException If the manifest cannot be written.
+     */
+    private void appendManifest(Path            claimed,
+                                Path            target,
+                                long            size,
+                                long            start,
+                                SzLoadResult    result,
+                                Exception       fileFailure)
+        throws IOException
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"file\":");
+        jsonEscape(claimed.getFileName().toString(), sb);
+        sb.append(",\"status\":");
+        jsonEscape((fileFailure == null) ? STATUS_DONE : STATUS_FAILED, sb);
+        sb.append(",\"movedTo\":");
+        jsonEscape(target.toString(), sb);
+        sb.append(",\"bytes\":").append(size);
+        sb.append(",\"started\":");
+        jsonEscape(Instant.ofEpochMilli(start).toString(), sb);
+        sb.append(",\"finished\":");
+        jsonEscape(Instant.now().toString(), sb);
+        if (result != null) {
+            sb.append(",\"readCount\":").append(result.getReadCount());
+            sb.append(",\"loadedCount\":").append(result.getLoadedCount());
+            sb.append(",\"skippedCount\":").append(result.getSkippedCount());
+            sb.append(",\"failedCount\":").append(result.getFailedCount());
+            sb.append(",\"retryCount\":").append(result.getRetryCount());
+            sb.append(",\"deadLetterCount\":").append(result.getDeadLetterCount());
+            sb.append(",\"elapsedMillis\":").append(result.getElapsedMillis());
+        }
+        if (fileFailure != null) {
+            sb.append(",\"error\":");
+            jsonEscape(fileFailure.toString(), sb);
+        }
+        sb.append("}\n");
+
+        try (FileChannel channel = FileChannel.open(this.manifestFile, CREATE, WRITE, APPEND)) {
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(sb.toString());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Stops watching the directory, interrupting the load in progress (if
+     * any) and leaving its file in the claim directory to be loaded again
+     * when a service next starts, and then releases the claim directory
+     * (removing it if empty).  This waits for a {@link #drain()} that is in
+     * progress on another thread to complete.  This method is idempotent.
+     *
+     * @since 4.4.0
+     */
+    @Override
+    public void close() {
+        Thread watcher;
+        synchronized (this.monitor) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            watcher = this.thread;
+        }
+        if (watcher != null) {
+            watcher.interrupt();
+            boolean interrupted = false;
+            while (watcher.isAlive()) {
+                try {
+                    watcher.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this.drainLock) {
+            this.releaseClaimDirectory();
+        }
+    }
+
+    /**
+     * Releases the lock on the claim directory and removes the directory if
+     * no files were left in it.  Failures are logged since they only leave
+     * the directory to be adopted by the next service to start.
+     */
+    private void releaseClaimDirectory() {
+        synchronized (PROCESSING_MONITOR) {
+            FileChannel claimChannel = this.claimLock.channel();
+            try (FileChannel channel = this.openProcessingLock()) {
+                channel.lock();
+                claimChannel.close();
+                this.removeClaimDirectory(this.claimDirectory);
+
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to release the claim directory: "
+                           + this.claimDirectory, e);
+            } finally {
+                try {
+                    claimChannel.close();
+                } catch (IOException ignore) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzHotFolderLoader{ directory=[ " + this.directory
+            + " ], glob=[ " + this.glob
+            + " ], settleMillis=[ " + this.settleMillis
+            + " ], processingDirectory=[ " + this.processingDirectory
+            + " ], claimDirectory=[ " + this.claimDirectory
+            + " ], doneDirectory=[ " + this.doneDirectory
+            + " ], failedDirectory=[ " + this.failedDirectory
+            + " ], manifestFile=[ " + this.manifestFile
+            + " ], loader=[ " + this.loader + " ] }";
+    }
+}
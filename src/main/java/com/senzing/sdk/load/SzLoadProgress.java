@@ -0,0 +1,468 @@
+package com.senzing.sdk.load;
+
+/**
+ * Describes a snapshot of the progress of an in-progress {@linkplain
+ * SzBulkLoader#load(java.util.Collection) bulk load}, as periodically
+ * reported to an {@link SzLoadProgressListener} and (optionally) logged.
+ *
+ * <p>
+ * The rolling rate and the latency percentiles describe the most recent
+ * reporting interval, while the counts are cumulative from the start of
+ * the load.  The estimated completion time is extrapolated from the
+ * number of bytes read from the sources relative to their total length
+ * and is therefore only available if the length of every source is known.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzLoadProgress {
+    /**
+     * The number of records read from the sources.
+     */
+    private final long readCount;
+
+    /**
+     * The number of calls made to the engine to add records.
+     */
+    private final long submittedCount;
+
+    /**
+     * The number of records successfully loaded.
+     */
+    private final long loadedCount;
+
+    /**
+     * The number of records skipped as unchanged.
+     */
+    private final long skippedCount;
+
+    /**
+     * The number of records that failed to load.
+     */
+    private final long failedCount;
+
+    /**
+     * The number of retries that were made.
+     */
+    private final long retryCount;
+
+    /**
+     * The number of records waiting in the queue for a worker thread.
+     */
+    private final int pendingCount;
+
+    /**
+     * The number of records waiting for their retry delay to elapse.
+     */
+    private final int retryPendingCount;
+
+    /**
+     * The number of calls to the engine that are in progress.
+     */
+    private final int inFlightCount;
+
+    /**
+     * The number of bytes read from the sources.
+     */
+    private final long bytesRead;
+
+    /**
+     * The total number of bytes in the sources, or negative one (-1) if
+     * not known.
+     */
+    private final long byteLength;
+
+    /**
+     * The number of completed records per second over the most recent
+     * reporting interval.
+     */
+    private final double recordsPerSecond;
+
+    /**
+     * The median engine call latency in milliseconds over the most recent
+     * reporting interval, or negative one (-1) if none.
+     */
+    private final double medianLatencyMillis;
+
+    /**
+     * The 99th percentile engine call latency in milliseconds over the most
+     * recent reporting interval, or negative one (-1) if none.
+     */
+    private final double p99LatencyMillis;
+
+    /**
+     * The number of pending redo records, or negative one (-1) if not
+     * known.
+     */
+    private final long redoBacklog;
+
+    /**
+     * The elapsed time of the load in milliseconds.
+     */
+    private final long elapsedMillis;
+
+    /**
+     * Whether or not the load has finished.
+     */
+    private final boolean finished;
+
+    /**
+     * Constructs with the specified values.
+     *
+     * @param readCount The number of records read from the sources.
+     * @param submittedCount The number of calls made to the engine.
+     * @param loadedCount The number of records successfully loaded.
+     * @param skippedCount The number of records skipped as unchanged.
+     * @param failedCount The number of records that failed to load.
+     * @param retryCount The number of retries that were made.
+     * @param pendingCount The number of records waiting in the queue.
+     * @param retryPendingCount The number of records waiting to be retried.
+     * @param inFlightCount The number of engine calls in progress.
+     * @param bytesRead The number of bytes read from the sources.
+     * @param byteLength The total number of bytes in the sources, or
+     *                   negative one (-1) if not known.
+     * @param recordsPerSecond The rolling number of completed records per
+     *                         second.
+     * @param medianLatencyMillis The rolling median latency in milliseconds.
+     * @param p99LatencyMillis The rolling 99th percentile latency in
+     *                         milliseconds.
+     * @param redoBacklog The number of pending redo records, or negative
+     *                    one (-1) if not known.
+     * @param elapsedMillis The elapsed time of the load in milliseconds.
+     * @param finished Whether or not the load has finished.
+     */
+    SzLoadProgress(long     readCount,
+                   long     submittedCount,
+                   long     loadedCount,
+                   long     skippedCount,
+                   long     failedCount,
+                   long     retryCount,
+                   int      pendingCount,
+                   int      retryPendingCount,
+                   int      inFlightCount,
+                   long     bytesRead,
+                   long     byteLength,
+                   double   recordsPerSecond,
+                   double   medianLatencyMillis,
+                   double   p99LatencyMillis,
+                   long     redoBacklog,
+                   long     elapsedMillis,
+                   boolean  finished)
+    {
+        this.readCount              = readCount;
+        this.submittedCount         = submittedCount;
+        this.loadedCount            = loadedCount;
+        this.skippedCount           = skippedCount;
+        this.failedCount            = failedCount;
+        this.retryCount             = retryCount;
+        this.pendingCount           = pendingCount;
+        this.retryPendingCount      = retryPendingCount;
+        this.inFlightCount          = inFlightCount;
+        this.bytesRead              = bytesRead;
+        this.byteLength             = byteLength;
+        this.recordsPerSecond       = recordsPerSecond;
+        this.medianLatencyMillis    = medianLatencyMillis;
+        this.p99LatencyMillis       = p99LatencyMillis;
+        this.redoBacklog            = redoBacklog;
+        this.elapsedMillis          = elapsedMillis;
+        this.finished               = finished;
+    }
+
+    /**
+     * Gets the number of records that have been read from the sources.
+     *
+     * @return The number of records that have been read from the sources.
+     *
+     * @since 4.4.0
+     */
+    public long getReadCount() {
+        return this.readCount;
+    }
+
+    /**
+     * Gets the number of calls that have been made to the engine to add
+     * records, including retries.
+     *
+     * @return The number of calls that have been made to the engine.
+     *
+     * @since 4.4.0
+     */
+    public long getSubmittedCount() {
+        return this.submittedCount;
+    }
+
+    /**
+     * Gets the number of records that have been successfully loaded.
+     *
+     * @return The number of records that have been successfully loaded.
+     *
+     * @since 4.4.0
+     */
+    public long getLoadedCount() {
+        return this.loadedCount;
+    }
+
+    /**
+     * Gets the number of records that have been skipped as unchanged.
+     *
+     * @return The number of records that have been skipped as unchanged.
+     *
+     * @since 4.4.0
+     */
+    public long getSkippedCount() {
+        return this.skippedCount;
+    }
+
+    /**
+     * Gets the number of records that have failed to load.
+     *
+     * @return The number of records that have failed to load.
+     *
+     * @since 4.4.0
+     */
+    public long getFailedCount() {
+        return this.failedCount;
+    }
+
+    /**
+     * Gets the number of records that have been completed, which is the
+     * sum of the {@linkplain #getLoadedCount() loaded}, {@linkplain
+     * #getSkippedCount() skipped} and {@linkplain #getFailedCount() failed}
+     * counts.
+     *
+     * @return The number of records that have been completed.
+     *
+     * @since 4.4.0
+     */
+    public long getCompletedCount() {
+        return this.loadedCount + this.skippedCount + this.failedCount;
+    }
+
+    /**
+     * Gets the number of times that records have been retried.
+     *
+     * @return The number of retries that have been made.
+     *
+     * @since 4.4.0
+     */
+    public long getRetryCount() {
+        return this.retryCount;
+    }
+
+    /**
+     * Gets the number of records that have been read and are waiting in
+     * the queue for a worker thread (i.e.: the depth of the queue).
+     *
+     * @return The number of records waiting in the queue.
+     *
+     * @since 4.4.0
+     */
+    public int getPendingCount() {
+        return this.pendingCount;
+    }
+
+    /**
+     * Gets the number of records that are waiting for their retry delay to
+     * elapse.
+     *
+     * @return The number of records waiting to be retried.
+     *
+     * @since 4.4.0
+     */
+    public int getRetryPendingCount() {
+        return this.retryPendingCount;
+    }
+
+    /**
+     * Gets the number of calls to the engine that are in progress.
+     *
+     * @return The number of calls to the engine that are in progress.
+     *
+     * @since 4.4.0
+     */
+    public int getInFlightCount() {
+        return this.inFlightCount;
+    }
+
+    /**
+     * Gets the number of bytes that have been read from the sources as
+     * reported by their {@linkplain SzRecordReader#getBytesRead() readers}.
+     *
+     * @return The number of bytes that have been read from the sources.
+     *
+     * @since 4.4.0
+     */
+    public long getBytesRead() {
+        return this.bytesRead;
+    }
+
+    /**
+     * Gets the total number of bytes in the sources as reported by their
+     * {@linkplain SzRecordSource#getByteLength() byte lengths}.
+     *
+     * @return The total number of bytes in the sources, or negative one
+     *         (-1) if the length of any source is not known.
+     *
+     * @since 4.4.0
+     */
+    public long getByteLength() {
+        return this.byteLength;
+    }
+
+    /**
+     * Gets the number of records completed per second over the most
+     * recent reporting interval.
+     *
+     * @return The rolling number of records completed per second.
+     *
+     * @since 4.4.0
+     */
+    public double getRecordsPerSecond() {
+        return this.recordsPerSecond;
+    }
+
+    /**
+     * Gets the average number of records completed per second since the
+     * start of the load.
+     *
+     * @return The average number of records completed per second.
+     *
+     * @since 4.4.0
+     */
+    public double getAverageRecordsPerSecond() {
+        return (this.elapsedMillis <= 0L)
+            ? 0.0 : (this.getCompletedCount() * 1000.0) / this.elapsedMillis;
+    }
+
+    /**
+     * Gets the approximate median latency in milliseconds of the calls to
+     * the engine that completed during the most recent reporting interval.
+     *
+     * @return The approximate median latency in milliseconds, or negative
+     *         one (-1) if no calls completed during the interval.
+     *
+     * @since 4.4.0
+     */
+    public double getMedianLatencyMillis() {
+        return this.medianLatencyMillis;
+    }
+
+    /**
+     * Gets the approximate 99th percentile latency in milliseconds of the
+     * calls to the engine that completed during the most recent reporting
+     * interval.
+     *
+     * @return The approximate 99th percentile latency in milliseconds, or
+     *         negative one (-1) if no calls completed during the interval.
+     *
+     * @since 4.4.0
+     */
+    public double getP99LatencyMillis() {
+        return this.p99LatencyMillis;
+    }
+
+    /**
+     * Gets the number of pending redo records as reported by {@link
+     * com.senzing.sdk.SzEngine#countRedoRecords()} when this snapshot was
+     * taken.  Redo records accumulate while loading and must be processed
+     * before entity resolution is complete.
+     *
+     * @return The number of pending redo records, or negative one (-1) if
+     *         the count could not be obtained.
+     *
+     * @since 4.4.0
+     */
+    public long getRedoBacklog() {
+        return this.redoBacklog;
+    }
+
+    /**
+     * Gets the elapsed time of the load in milliseconds.
+     *
+     * @return The elapsed time of the load in milliseconds.
+     *
+     * @since 4.4.0
+     */
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    /**
+     * Checks if the load has finished, in which case this is the final
+     * snapshot of the load.
+     *
+     * @return <code>true</code> if the load has finished, otherwise
+     *         <code>false</code>.
+     *
+     * @since 4.4.0
+     */
+    public boolean isFinished() {
+        return this.finished;
+    }
+
+    /**
+     * Gets the fraction of the bytes of the sources that have been read.
+     *
+     * @return The fraction of the bytes of the sources that have been read
+     *         (between zero and one), or negative one (-1) if the {@linkplain
+     *         #getByteLength() byte length} is not known.
+     *
+     * @since 4.4.0
+     */
+    public double getFractionRead() {
+        if (this.finished) {
+            return 1.0;
+        }
+        if (this.byteLength <= 0L) {
+            return (this.byteLength == 0L) ? 1.0 : -1.0;
+        }
+        return Math.min(1.0, ((double) this.bytesRead) / this.byteLength);
+    }
+
+    /**
+     * Gets the estimated number of milliseconds until the load completes,
+     * extrapolated from the average rate at which bytes have been read from
+     * the sources so far.
+     *
+     * @return The estimated number of milliseconds remaining, or negative
+     *         one (-1) if it cannot be estimated.
+     *
+     * @since 4.4.0
+     */
+    public long getEstimatedRemainingMillis() {
+        if (this.finished) {
+            return 0L;
+        }
+        if (this.byteLength < 0L || this.bytesRead <= 0L || this.elapsedMillis <= 0L) {
+            return -1L;
+        }
+        long remaining = Math.max(0L, this.byteLength - this.bytesRead);
+        return (long) (((double) this.elapsedMillis) * remaining / this.bytesRead);
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzLoadProgress{ readCount=[ " + this.readCount
+            + " ], submittedCount=[ " + this.submittedCount
+            + " ], loadedCount=[ " + this.loadedCount
+            + " ], skippedCount=[ " + this.skippedCount
+            + " ], failedCount=[ " + this.failedCount
+            + " ], retryCount=[ " + this.retryCount
+            + " ], pendingCount=[ " + this.pendingCount
+            + " ], retryPendingCount=[ " + this.retryPendingCount
+            + " ], inFlightCount=[ " + this.inFlightCount
+            + " ], bytesRead=[ " + this.bytesRead
+            + " ], byteLength=[ " + this.byteLength
+            + " ], recordsPerSecond=[ " + this.recordsPerSecond
+            + " ], medianLatencyMillis=[ " + this.medianLatencyMillis
+            + " ], p99LatencyMillis=[ " + this.p99LatencyMillis
+            + " ], redoBacklog=[ " + this.redoBacklog
+            + " ], elapsedMillis=[ " + this.elapsedMillis
+            + " ], finished=[ " + this.finished + " ] }";
+    }
+}
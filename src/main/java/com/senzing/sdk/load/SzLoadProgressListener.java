@@ -0,0 +1,30 @@
+package com.senzing.sdk.load;
+
+/**
+ * Defines the interface for receiving periodic {@linkplain SzLoadProgress
+ * progress snapshots} from the {@link SzBulkLoader}.  The snapshots of a
+ * load are delivered sequentially from a single monitoring thread at the
+ * {@linkplain SzBulkLoader.Builder#progressIntervalMillis(long) progress
+ * interval}, followed by a final snapshot once the load has {@linkplain
+ * SzLoadProgress#isFinished() finished}.
+ *
+ * <p>
+ * Implementations should return promptly since the next snapshot is not
+ * taken until the listener returns.  A {@link RuntimeException} thrown by
+ * the listener is logged and otherwise ignored so it does not affect the
+ * load.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+@FunctionalInterface
+public interface SzLoadProgressListener {
+    /**
+     * Called with a snapshot of the progress of a load.
+     *
+     * @param progress The {@link SzLoadProgress} describing the progress.
+     *
+     * @since 4.4.0
+     */
+    void progressReported(SzLoadProgress progress);
+}
@@ -0,0 +1,264 @@
+package com.senzing.sdk.load;
+
+import com.senzing.sdk.SzRecordKey;
+
+/**
+ * Provides a mutable, reusable holder for a single record that has been
+ * read from an {@link SzRecordSource} and is pending being loaded.  An
+ * {@link SzRecordReader} writes the record definition JSON directly into
+ * the {@link StringBuilder} returned from {@link #getRecordDefinition()}
+ * so that the character buffer is reused from one record to the next.
+ * The {@link SzBulkLoader} maintains a bounded pool of these instances
+ * which are recycled after each record is loaded.
+ *
+ * <p>
+ * <b>NOTE:</b> Instances of this class are <b>not</b> thread-safe.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzLoadRecord {
+    /**
+     * The initial capacity for the record definition buffer.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The maximum capacity of the record definition buffer that will be
+     * retained when this instance is {@linkplain #reset() reset}.  A
+     * larger buffer is discarded so that a single unusually large record
+     * does not permanently inflate the memory footprint of the pool.
+     */
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    /**
+     * The data source code for the record.
+     */
+    private String dataSourceCode = null;
+
+    /**
+     * The record ID for the record.
+     */
+    private String recordId = null;
+
+    /**
+     * The reusable buffer for the record definition JSON.
+     */
+    private StringBuilder recordDefinition = new StringBuilder(INITIAL_CAPACITY);
+
+    /**
+     * The name of the source from which the record was read.
+     */
+    private String sourceName = null;
+
+    /**
+     * The byte offset in the source immediately after the record, or
+     * negative one (-1) if not known.
+     */
+    private long sourceOffset = -1L;
+
+    /**
+     * The description of the error encountered reading the record, or
+     * <code>null</code> if the record was read successfully.
+     */
+    private String readError = null;
+
+    /**
+     * Default constructor.
+     */
+    public SzLoadRecord() {
+        // do nothing
+    }
+
+    /**
+     * Resets this instance for reuse by clearing its properties and the
+     * record definition buffer.
+     *
+     * @since 4.4.0
+     */
+    public void reset() {
+        this.dataSourceCode = null;
+        this.recordId       = null;
+        this.sourceName     = null;
+        this.sourceOffset   = -1L;
+        this.readError      = null;
+        if (this.recordDefinition.capacity() > MAX_RETAINED_CAPACITY) {
+            this.recordDefinition = new StringBuilder(INITIAL_CAPACITY);
+        } else {
+            this.recordDefinition.setLength(0);
+        }
+    }
+
+    /**
+     * Gets the data source code for the record.
+     *
+     * @return The data source code for the record, or <code>null</code>
+     *         if not set.
+     *
+     * @since 4.4.0
+     */
+    public String getDataSourceCode() {
+        return this.dataSourceCode;
+    }
+
+    /**
+     * Sets the data source code for the record.
+     *
+     * @param dataSourceCode The data source code for the record.
+     *
+     * @since 4.4.0
+     */
+    public void setDataSourceCode(String dataSourceCode) {
+        this.dataSourceCode = dataSourceCode;
+    }
+
+    /**
+     * Gets the record ID for the record.
+     *
+     * @return The record ID for the record, or <code>null</code> if
+     *         not set.
+     *
+     * @since 4.4.0
+     */
+    public String getRecordId() {
+        return this.recordId;
+    }
+
+    /**
+     * Sets the record ID for the record.
+     *
+     * @param recordId The record ID for the record.
+     *
+     * @since 4.4.0
+     */
+    public void setRecordId(String recordId) {
+        this.recordId = recordId;
+    }
+
+    /**
+     * Gets the {@link SzRecordKey} for the record.  This returns
+     * <code>null</code> if either the data source code or the record ID
+     * is <code>null</code> or blank.
+     *
+     * @return The {@link SzRecordKey} for the record, or <code>null</code>
+     *         if the record key is incomplete.
+     *
+     * @since 4.4.0
+     */
+    public SzRecordKey getRecordKey() {
+        if (this.dataSourceCode == null || this.recordId == null
+            || this.dataSourceCode.isBlank() || this.recordId.isBlank())
+        {
+            return null;
+        }
+        return SzRecordKey.of(this.dataSourceCode, this.recordId);
+    }
+
+    /**
+     * Gets the reusable {@link StringBuilder} buffer containing the record
+     * definition JSON.  {@link SzRecordReader} implementations should write
+     * the record definition directly into this buffer.
+     *
+     * @return The {@link StringBuilder} containing the record definition.
+     *
+     * @since 4.4.0
+     */
+    public StringBuilder getRecordDefinition() {
+        return this.recordDefinition;
+    }
+
+    /**
+     * Gets the name of the {@link SzRecordSource} from which the record
+     * was read.
+     *
+     * @return The name of the source from which the record was read, or
+     *         <code>null</code> if not set.
+     *
+     * @since 4.4.0
+     */
+    public String getSourceName() {
+        return this.sourceName;
+    }
+
+    /**
+     * Sets the name of the {@link SzRecordSource} from which the record
+     * was read.
+     *
+     * @param sourceName The name of the source from which the record
+     *                   was read.
+     *
+     * @since 4.4.0
+     */
+    public void setSourceName(String sourceName) {
+        this.sourceName = sourceName;
+    }
+
+    /**
+     * Gets the byte offset in the source immediately after the record, or
+     * negative one (-1) if not known.
+     *
+     * @return The byte offset in the source immediately after the record,
+     *         or negative one (-1) if not known.
+     *
+     * @since 4.4.0
+     */
+    public long getSourceOffset() {
+        return this.sourceOffset;
+    }
+
+    /**
+     * Sets the byte offset in the source immediately after the record.
+     *
+     * @param sourceOffset The byte offset in the source immediately after
+     *                     the record, or negative one (-1) if not known.
+     *
+     * @since 4.4.0
+     */
+    public void setSourceOffset(long sourceOffset) {
+        this.sourceOffset = sourceOffset;
+    }
+
+    /**
+     * Gets the description of the error encountered reading the record
+     * (e.g.: a malformed CSV row), or <code>null</code> if the record was
+     * read successfully.  When a read error is present the record definition
+     * buffer contains the raw text of the record (if available) and the
+     * record is not loaded.
+     *
+     * @return The description of the read error, or <code>null</code> if
+     *         the record was read successfully.
+     *
+     * @since 4.4.0
+     */
+    public String getReadError() {
+        return this.readError;
+    }
+
+    /**
+     * Sets the description of the error encountered reading the record.
+     * {@link SzRecordReader} implementations use this to report records
+     * that are malformed without aborting the load.
+     *
+     * @param readError The description of the read error, or
+     *                  <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public void setReadError(String readError) {
+        this.readError = readError;
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzLoadRecord{ dataSourceCode=[ " + this.dataSourceCode
+            + " ], recordId=[ " + this.recordId
+            + " ], sourceName=[ " + this.sourceName
+            + " ], sourceOffset=[ " + this.sourceOffset
+            + " ], readError=[ " + this.readError + " ] }";
+    }
+}
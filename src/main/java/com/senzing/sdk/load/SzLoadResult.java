@@ -0,0 +1,174 @@
+package com.senzing.sdk.load;
+
+/**
+ * Describes the result of a completed {@linkplain SzBulkLoader#load(
+ * java.util.Collection) bulk load}.
+ *
+ * @since 4.4.0
+ */
+public final class SzLoadResult {
+    /**
+     * The number of records read from the sources.
+     */
+    private long readCount;
+
+    /**
+     * The number of records successfully loaded.
+     */
+    private long loadedCount;
+
+    /**
+     * The number of records skipped as unchanged.
+     */
+    private long skippedCount;
+
+    /**
+     * The number of records that failed to load.
+     */
+    private long failedCount;
+
+    /**
+     * The number of retries that were made.
+     */
+    private long retryCount;
+
+    /**
+     * The number of records written to the dead-letter sink.
+     */
+    private long deadLetterCount;
+
+    /**
+     * The elapsed time of the load in milliseconds.
+     */
+    private long elapsedMillis;
+
+    /**
+     * Constructs with the specified counts.
+     *
+     * @param readCount The number of records read from the sources.
+     * @param loadedCount The number of records successfully loaded.
+     * @param skippedCount The number of records skipped as unchanged.
+     * @param failedCount The number of records that failed to load.
+     * @param retryCount The number of retries that were made.
+     * @param deadLetterCount The number of records written to the
+     *                        dead-letter sink.
+     * @param elapsedMillis The elapsed time of the load in milliseconds.
+     */
+    SzLoadResult(long readCount,
+                 long loadedCount,
+                 long skippedCount,
+                 long failedCount,
+                 long retryCount,
+                 long deadLetterCount,
+                 long elapsedMillis)
+    {
+        this.readCount          = readCount;
+        this.loadedCount        = loadedCount;
+        this.skippedCount       = skippedCount;
+        this.failedCount        = failedCount;
+        this.retryCount         = retryCount;
+        this.deadLetterCount    = deadLetterCount;
+        this.elapsedMillis      = elapsedMillis;
+    }
+
+    /**
+     * Gets the number of records that were read from the sources.
+     *
+     * @return The number of records that were read from the sources.
+     *
+     * @since 4.4.0
+     */
+    public long getReadCount() {
+        return this.readCount;
+    }
+
+    /**
+     * Gets the number of records that were successfully loaded.
+     *
+     * @return The number of records that were successfully loaded.
+     *
+     * @since 4.4.0
+     */
+    public long getLoadedCount() {
+        return this.loadedCount;
+    }
+
+    /**
+     * Gets the number of records that were skipped because they were
+     * unchanged according to the {@linkplain
+     * SzBulkLoader#getContentHashIndex() content hash index}.  This is
+     * zero (0) if there is no content hash index.
+     *
+     * @return The number of records that were skipped as unchanged.
+     *
+     * @since 4.4.0
+     */
+    public long getSkippedCount() {
+        return this.skippedCount;
+    }
+
+    /**
+     * Gets the number of records that failed to load, including those
+     * that could not be read or lacked a complete record key.
+     *
+     * @return The number of records that failed to load.
+     *
+     * @since 4.4.0
+     */
+    public long getFailedCount() {
+        return this.failedCount;
+    }
+
+    /**
+     * Gets the number of times that records were retried after an {@link
+     * com.senzing.sdk.SzRetryableException}.  A record that is retried
+     * several times is counted once per retry.
+     *
+     * @return The number of retries that were made.
+     *
+     * @since 4.4.0
+     */
+    public long getRetryCount() {
+        return this.retryCount;
+    }
+
+    /**
+     * Gets the number of records that failed to load and were written to
+     * the {@linkplain SzBulkLoader#getDeadLetterSink() dead-letter sink}.
+     * This is zero (0) if there is no dead-letter sink.
+     *
+     * @return The number of records written to the dead-letter sink.
+     *
+     * @since 4.4.0
+     */
+    public long getDeadLetterCount() {
+        return this.deadLetterCount;
+    }
+
+    /**
+     * Gets the elapsed time of the load in milliseconds.
+     *
+     * @return The elapsed time of the load in milliseconds.
+     *
+     * @since 4.4.0
+     */
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzLoadResult{ readCount=[ " + this.readCount
+            + " ], loadedCount=[ " + this.loadedCount
+            + " ], skippedCount=[ " + this.skippedCount
+            + " ], failedCount=[ " + this.failedCount
+            + " ], retryCount=[ " + this.retryCount
+            + " ], deadLetterCount=[ " + this.deadLetterCount
+            + " ], elapsedMillis=[ " + this.elapsedMillis + " ] }";
+    }
+}
@@ -0,0 +1,52 @@
+package com.senzing.sdk.load;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Defines the interface for reading records sequentially from all or part
+ * of an {@link SzRecordSource}.  Each reader is used by a single thread,
+ * but the readers opened from the same {@link SzRecordSource} may be used
+ * concurrently.
+ *
+ * @since 4.4.0
+ */
+public interface SzRecordReader extends Closeable {
+    /**
+     * Reads the next record into the specified {@link SzLoadRecord},
+     * which has already been {@linkplain SzLoadRecord#reset() reset}.
+     * The record definition JSON should be written directly into the
+     * {@link StringBuilder} returned by {@link
+     * SzLoadRecord#getRecordDefinition()}.
+     *
+     * @param record The {@link SzLoadRecord} to populate.
+     *
+     * @return <code>true</code> if a record was read, or <code>false</code>
+     *         if there are no more records.
+     *
+     * @throws IOException If an I/O failure occurs or the source is
+     *                     malformed such that reading cannot continue.
+     *
+     * @since 4.4.0
+     */
+    boolean read(SzLoadRecord record) throws IOException;
+
+    /**
+     * Gets the number of bytes of the source that have been consumed by
+     * this reader so far.  This is used for tracking progress against the
+     * {@linkplain SzRecordSource#getByteLength() byte length} of the source.
+     *
+     * <p>
+     * The default implementation of this method returns negative one (-1)
+     * to indicate that the number of bytes read is not known.
+     * </p>
+     *
+     * @return The number of bytes consumed by this reader, or negative one
+     *         (-1) if not known.
+     *
+     * @since 4.4.0
+     */
+    default long getBytesRead() {
+        return -1L;
+    }
+}
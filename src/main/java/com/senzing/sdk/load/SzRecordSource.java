@@ -0,0 +1,66 @@
+package com.senzing.sdk.load;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Defines the interface for a source of records for the {@link
+ * SzBulkLoader}.  A source may be split into multiple partitions that
+ * are each read by a separate {@link SzRecordReader} so that parsing
+ * can be performed in parallel.
+ *
+ * @since 4.4.0
+ */
+public interface SzRecordSource {
+    /**
+     * Gets the name of this source for diagnostic purposes (e.g.: the
+     * file path).
+     *
+     * @return The name of this source.
+     *
+     * @since 4.4.0
+     */
+    String getName();
+
+    /**
+     * Gets the total number of bytes in this source, if known.  This is
+     * used along with {@link SzRecordReader#getBytesRead()} for tracking
+     * progress.
+     *
+     * <p>
+     * The default implementation of this method returns negative one (-1)
+     * to indicate that the byte length is not known.
+     * </p>
+     *
+     * @return The total number of bytes in this source, or negative one
+     *         (-1) if not known.
+     *
+     * @since 4.4.0
+     */
+    default long getByteLength() {
+        return -1L;
+    }
+
+    /**
+     * Opens up to the specified number of {@link SzRecordReader} instances
+     * which together read every record of this source exactly once.  Each
+     * returned reader covers a disjoint partition of the source and may be
+     * used concurrently with the others.  Sources that cannot be partitioned
+     * return a single reader.
+     *
+     * @param maxReaderCount The maximum number of readers to open, which
+     *                       must be positive.
+     *
+     * @return The {@link List} of opened {@link SzRecordReader} instances,
+     *         which will contain at least one reader.
+     *
+     * @throws IOException If an I/O failure occurs.
+     *
+     * @throws IllegalArgumentException If the specified reader count is
+     *                                  not positive.
+     *
+     * @since 4.4.0
+     */
+    List<SzRecordReader> openReaders(int maxReaderCount)
+        throws IOException, IllegalArgumentException;
+}
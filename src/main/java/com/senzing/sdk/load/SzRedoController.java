@@ -0,0 +1,1161 @@
+package com.senzing.sdk.load;
+
+import java.io.IOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.senzing.sdk.SzEngine;
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzRetryableException;
+import com.senzing.sdk.SzUnrecoverableException;
+import com.senzing.sdk.core.SzCoreUtilities;
+import com.senzing.sdk.core.SzCoreUtilities.FailureAction;
+
+import static com.senzing.sdk.SzFlag.SZ_REDO_DEFAULT_FLAGS;
+
+/**
+ * Shares a fixed capacity of concurrent engine calls (typically the number
+ * of native worker threads of the engine) between adding records and
+ * processing redo records, steering the {@linkplain
+ * SzEngine#countRedoRecords() redo backlog} toward a target so that a
+ * load does not leave behind an unbounded redo queue that later degrades
+ * query quality and throughput.
+ *
+ * <p>
+ * The redo backlog is sampled at most once per {@linkplain
+ * Builder#sampleIntervalMillis(long) sample interval} and the share of the
+ * capacity that is reserved for redo is adjusted in proportion to how far
+ * the backlog exceeds the {@linkplain #getEffectiveTarget() effective
+ * target}: at or below the target the share is the {@linkplain
+ * Builder#minRedoShare(double) minimum redo share}, rising linearly to the
+ * {@linkplain Builder#maxRedoShare(double) maximum redo share} when the
+ * backlog reaches twice the target.  At least one unit of capacity always
+ * remains available for adding records.  The effective target is the
+ * {@linkplain Builder#targetBacklog(long) target backlog} or, if a
+ * {@linkplain Builder#targetRatio(double) target ratio} is configured and
+ * yields a larger value, that ratio of the number of records added so far.
+ * </p>
+ *
+ * <p>
+ * A thread {@linkplain #acquireLoad() acquires} a {@link Permit} before
+ * adding a record and {@linkplain Permit#close() closes} it afterward.
+ * While the redo share is not fully in use, the acquiring thread first
+ * processes redo records itself, so the redo work is done by the same
+ * threads as the load without a separately tuned redo process:
+ * </p>
+ *
+ * <pre>
+ *   try (SzRedoController.Permit permit = controller.acquireLoad()) {
+ *       engine.addRecord(recordKey, recordDefinition, flags);
+ *   }
+ * </pre>
+ *
+ * <p>
+ * Idle threads may also {@linkplain #processRedoRecord() process a redo
+ * record} with any spare capacity.  The {@link SzBulkLoader} does both
+ * when {@linkplain SzBulkLoader.Builder#redoController(SzRedoController)
+ * configured} with a controller, and once its sources are exhausted it
+ * continues processing redo records until the backlog is no longer
+ * {@linkplain #isAboveTarget() above the target}.
+ * </p>
+ *
+ * <p>
+ * A redo record that fails with an {@link SzRetryableException} is retried
+ * on the same thread after an exponentially increasing delay up to the
+ * {@linkplain Builder#maxRetries(int) maximum number of retries}.  An
+ * {@link SzUnrecoverableException} is rethrown to the caller and any other
+ * failure is counted.  Since a redo record is no longer tracked by the
+ * repository once it has been retrieved, a redo record that fails (or whose
+ * retry is interrupted) is written to the {@linkplain
+ * Builder#deadLetterSink(SzDeadLetterSink) dead-letter sink} with the
+ * {@linkplain SzDeadLetter#getSourceName() source name} {@link
+ * #REDO_SOURCE_NAME} and the redo record as its {@linkplain
+ * SzDeadLetter#getRecordDefinition() record definition}.  Without a
+ * dead-letter sink, the failure and the redo record are logged at the
+ * {@link Level#ERROR ERROR} level to the {@link System.Logger} named for
+ * this class.
+ * </p>
+ *
+ * <p>
+ * A single instance is intended to be shared by everything that calls the
+ * same engine so that the capacity applies across them.  Instances of this
+ * class are thread-safe.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzRedoController {
+    /**
+     * The {@linkplain SzDeadLetter#getSourceName() source name} of the
+     * {@link SzDeadLetter} instances written for redo records that fail.
+     */
+    public static final String REDO_SOURCE_NAME = "REDO";
+
+    /**
+     * The default capacity of concurrent engine calls, which is the number
+     * of available processors.
+     */
+    public static final int DEFAULT_CAPACITY = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The default target number of pending redo records.
+     */
+    public static final long DEFAULT_TARGET_BACKLOG = 10000L;
+
+    /**
+     * The default minimum share of the capacity reserved for processing
+     * redo records.
+     */
+    public static final double DEFAULT_MIN_REDO_SHARE = 0.0;
+
+    /**
+     * The default maximum share of the capacity reserved for processing
+     * redo records.
+     */
+    public static final double DEFAULT_MAX_REDO_SHARE = 0.5;
+
+    /**
+     * The default number of milliseconds between samples of the redo
+     * backlog.
+     */
+    public static final long DEFAULT_SAMPLE_INTERVAL_MILLIS = 5000L;
+
+    /**
+     * The {@link System.Logger} for logging redo failures.
+     */
+    private static final Logger LOGGER = System.getLogger(SzRedoController.class.getName());
+
+    /**
+     * Provides a builder class for creating instances of {@link
+     * SzRedoController}.
+     *
+     * @since 4.4.0
+     */
+    public static final class Builder {
+        /**
+         * The {@link SzEngine} to process redo records with.
+         */
+        private SzEngine engine = null;
+
+        /**
+         * The capacity of concurrent engine calls.
+         */
+        private int capacity = DEFAULT_CAPACITY;
+
+        /**
+         * The target number of pending redo records.
+         */
+        private long targetBacklog = DEFAULT_TARGET_BACKLOG;
+
+        /**
+         * The target ratio of pending redo records to records added.
+         */
+        private double targetRatio = 0.0;
+
+        /**
+         * The minimum share of the capacity reserved for redo.
+         */
+        private double minRedoShare = DEFAULT_MIN_REDO_SHARE;
+
+        /**
+         * The maximum share of the capacity reserved for redo.
+         */
+        private double maxRedoShare = DEFAULT_MAX_REDO_SHARE;
+
+        /**
+         * The number of milliseconds between samples of the redo backlog.
+         */
+        private long sampleIntervalMillis = DEFAULT_SAMPLE_INTERVAL_MILLIS;
+
+        /**
+         * The maximum number of retries for a redo record.
+         */
+        private int maxRetries = SzBulkLoader.DEFAULT_MAX_RETRIES;
+
+        /**
+         * The {@link SzDeadLetterSink} for redo records that fail.
+         */
+        private SzDeadLetterSink deadLetterSink = null;
+
+        /**
+         * Private default constructor.
+         */
+        private Builder() {
+            // do nothing
+        }
+
+        /**
+         * Sets the {@link SzEngine} with which to count and process redo
+         * records.  This is required.
+         *
+         * @param engine The {@link SzEngine} to use.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder engine(SzEngine engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        /**
+         * Sets the capacity of concurrent engine calls that is shared
+         * between adding records and processing redo records, which should
+         * typically be the number of native worker threads available to the
+         * engine.  The default is {@link #DEFAULT_CAPACITY}.
+         *
+         * @param capacity The positive capacity.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified capacity is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder capacity(int capacity) throws IllegalArgumentException {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException(
+                    "The capacity must be positive: " + capacity);
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Sets the target number of pending redo records.  The default is
+         * {@link #DEFAULT_TARGET_BACKLOG}.
+         *
+         * @param targetBacklog The non-negative target number of pending
+         *                      redo records.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified target is
+         *                                  negative.
+         *
+         * @since 4.4.0
+         */
+        public Builder targetBacklog(long targetBacklog) throws IllegalArgumentException {
+            if (targetBacklog < 0L) {
+                throw new IllegalArgumentException(
+                    "The target backlog cannot be negative: " + targetBacklog);
+            }
+            this.targetBacklog = targetBacklog;
+            return this;
+        }
+
+        /**
+         * Sets the target ratio of pending redo records to the number of
+         * records added through this controller.  If positive then the
+         * effective target is the larger of the {@linkplain
+         * #targetBacklog(long) target backlog} and this ratio of the number
+         * of records added so far.  The default is zero (0), in which case
+         * only the target backlog applies.
+         *
+         * @param targetRatio The non-negative target ratio.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified ratio is
+         *                                  negative or not a number.
+         *
+         * @since 4.4.0
+         */
+        public Builder targetRatio(double targetRatio) throws IllegalArgumentException {
+            if (!(targetRatio >= 0.0) || Double.isInfinite(targetRatio)) {
+                throw new IllegalArgumentException(
+                    "The target ratio must be a non-negative number: " + targetRatio);
+            }
+            this.targetRatio = targetRatio;
+            return this;
+        }
+
+        /**
+         * Sets the share of the capacity (between zero and one) reserved
+         * for processing redo records while the backlog is at or below the
+         * target.  The default is {@link #DEFAULT_MIN_REDO_SHARE}.
+         *
+         * @param share The minimum share between zero and one (inclusive).
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified share is not
+         *                                  between zero and one.
+         *
+         * @since 4.4.0
+         */
+        public Builder minRedoShare(double share) throws IllegalArgumentException {
+            this.minRedoShare = requireShare(share, "minimum redo share");
+            return this;
+        }
+
+        /**
+         * Sets the share of the capacity (between zero and one) reserved
+         * for processing redo records once the backlog reaches twice the
+         * target.  The default is {@link #DEFAULT_MAX_REDO_SHARE}.
+         *
+         * @param share The maximum share between zero and one (inclusive).
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified share is not
+         *                                  between zero and one.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxRedoShare(double share) throws IllegalArgumentException {
+            this.maxRedoShare = requireShare(share, "maximum redo share");
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of milliseconds between samples of the
+         * redo backlog via {@link SzEngine#countRedoRecords()}.  The
+         * default is {@link #DEFAULT_SAMPLE_INTERVAL_MILLIS}.
+         *
+         * @param intervalMillis The positive number of milliseconds.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified interval is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder sampleIntervalMillis(long intervalMillis)
+            throws IllegalArgumentException
+        {
+            if (intervalMillis <= 0L) {
+                throw new IllegalArgumentException(
+                    "The sample interval must be positive: " + intervalMillis);
+            }
+            this.sampleIntervalMillis = intervalMillis;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of times a redo record is retried after
+         * an {@link SzRetryableException}.  The default is {@link
+         * SzBulkLoader#DEFAULT_MAX_RETRIES}.
+         *
+         * @param maxRetries The non-negative maximum number of retries.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is
+         *                                  negative.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxRetries(int maxRetries) throws IllegalArgumentException {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException(
+                    "The maximum retries cannot be negative: " + maxRetries);
+            }
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SzDeadLetterSink} to which redo records that fail
+         * (or whose retry is interrupted) are written.  When processing redo
+         * records for an {@link SzBulkLoader} without one, the {@linkplain
+         * SzBulkLoader#getDeadLetterSink() dead-letter sink of the loader} is
+         * used.  The default is <code>null</code>, in which case such redo
+         * records are logged.
+         *
+         * @param sink The {@link SzDeadLetterSink} to use, or
+         *             <code>null</code> for none.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder deadLetterSink(SzDeadLetterSink sink) {
+            this.deadLetterSink = sink;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link SzRedoController} from this builder.
+         *
+         * @return The newly constructed {@link SzRedoController}.
+         *
+         * @throws IllegalStateException If the engine was not specified or
+         *                               the minimum redo share exceeds the
+         *                               maximum redo share.
+         *
+         * @since 4.4.0
+         */
+        public SzRedoController build() throws IllegalStateException {
+            if (this.engine == null) {
+                throw new IllegalStateException("The engine is required");
+            }
+            if (this.minRedoShare > this.maxRedoShare) {
+                throw new IllegalStateException(
+                    "The minimum redo share (" + this.minRedoShare
+                    + ") exceeds the maximum redo share (" + this.maxRedoShare + ")");
+            }
+            return new SzRedoController(this);
+        }
+
+        /**
+         * Ensures the specified share is between zero and one (inclusive).
+         *
+         * @param share The share to check.
+         * @param description The description for the error message.
+         *
+         * @return The specified share.
+         *
+         * @throws IllegalArgumentException If not between zero and one.
+         */
+        private static double requireShare(double share, String description)
+            throws IllegalArgumentException
+        {
+            if (!(share >= 0.0 && share <= 1.0)) {
+                throw new IllegalArgumentException(
+                    "The " + description + " must be between zero and one: " + share);
+            }
+            return share;
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for building an {@link
+     * SzRedoController}.
+     *
+     * @return The new {@link Builder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Represents one unit of capacity acquired for adding a record, which
+     * must be {@linkplain #close() closed} when the call completes.
+     *
+     * @since 4.4.0
+     */
+    public final class Permit implements AutoCloseable {
+        /**
+         * Whether or not the permit has been released.
+         */
+        private boolean released = false;
+
+        /**
+         * Private default constructor.
+         */
+        private Permit() {
+            // do nothing
+        }
+
+        /**
+         * Releases this permit.  Calling this method more than once has no
+         * effect.
+         *
+         * @since 4.4.0
+         */
+        @Override
+        public void close() {
+            if (this.released) {
+                return;
+            }
+            this.released = true;
+            SzRedoController.this.addedCount.increment();
+            SzRedoController.this.release(false);
+        }
+    }
+
+    /**
+     * The {@link SzEngine} to process redo records with.
+     */
+    private final SzEngine engine;
+
+    /**
+     * The capacity of concurrent engine calls.
+     */
+    private final int capacity;
+
+    /**
+     * The target number of pending redo records.
+     */
+    private final long targetBacklog;
+
+    /**
+     * The target ratio of pending redo records to records added.
+     */
+    private final double targetRatio;
+
+    /**
+     * The minimum share of the capacity reserved for redo.
+     */
+    private final double minRedoShare;
+
+    /**
+     * The maximum share of the capacity reserved for redo.
+     */
+    private final double maxRedoShare;
+
+    /**
+     * The number of milliseconds between samples of the redo backlog.
+     */
+    private final long sampleIntervalMillis;
+
+    /**
+     * The maximum number of retries for a redo record.
+     */
+    private final int maxRetries;
+
+    /**
+     * The {@link SzDeadLetterSink} for redo records that fail, or
+     * <code>null</code> if none.
+     */
+    private final SzDeadLetterSink deadLetterSink;
+
+    /**
+     * The object on which to synchronize and wait for capacity.
+     */
+    private final Object monitor = new Object();
+
+    /**
+     * The number of permits held for adding records (guarded by the
+     * monitor).
+     */
+    private int activeLoadCount = 0;
+
+    /**
+     * The number of threads processing redo records (guarded by the
+     * monitor).
+     */
+    private int activeRedoCount = 0;
+
+    /**
+     * The estimated redo backlog, which is sampled from the engine and
+     * decremented as redo records are processed, or negative one (-1) if
+     * not yet known.
+     */
+    private final AtomicLong redoBacklog = new AtomicLong(-1L);
+
+    /**
+     * The {@link System#nanoTime()} at or after which the next sample of
+     * the redo backlog is due.
+     */
+    private final AtomicLong nextSampleNanos;
+
+    /**
+     * The number of records added with permits from this instance.
+     */
+    private final LongAdder addedCount = new LongAdder();
+
+    /**
+     * The number of redo records that were processed.
+     */
+    private final LongAdder processedCount = new LongAdder();
+
+    /**
+     * The number of redo records that failed.
+     */
+    private final LongAdder failedCount = new LongAdder();
+
+    /**
+     * The number of redo record retries.
+     */
+    private final LongAdder retryCount = new LongAdder();
+
+    /**
+     * The number of redo records written to a dead-letter sink.
+     */
+    private final LongAdder deadLetterCount = new LongAdder();
+
+    /**
+     * Private constructor for constructing with a {@link Builder}.
+     *
+     * @param builder The {@link Builder} from which to construct.
+     */
+    private SzRedoController(Builder builder) {
+        this.engine                 = builder.engine;
+        this.capacity               = builder.capacity;
+        this.targetBacklog          = builder.targetBacklog;
+        this.targetRatio            = builder.targetRatio;
+        this.minRedoShare           = builder.minRedoShare;
+        this.maxRedoShare           = builder.maxRedoShare;
+        this.sampleIntervalMillis   = builder.sampleIntervalMillis;
+        this.maxRetries             = builder.maxRetries;
+        this.deadLetterSink         = builder.deadLetterSink;
+        this.nextSampleNanos        = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Gets the {@link SzEngine} with which redo records are counted and
+     * processed.
+     *
+     * @return The {@link SzEngine} with which redo records are counted and
+     *         processed.
+     *
+     * @since 4.4.0
+     */
+    public SzEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * Gets the capacity of concurrent engine calls that is shared between
+     * adding records and processing redo records.
+     *
+     * @return The capacity of concurrent engine calls.
+     *
+     * @since 4.4.0
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Gets the target number of pending redo records.
+     *
+     * @return The target number of pending redo records.
+     *
+     * @since 4.4.0
+     */
+    public long getTargetBacklog() {
+        return this.targetBacklog;
+    }
+
+    /**
+     * Gets the target ratio of pending redo records to the number of
+     * records added, or zero (0) if only the target backlog applies.
+     *
+     * @return The target ratio of pending redo records to records added.
+     *
+     * @since 4.4.0
+     */
+    public double getTargetRatio() {
+        return this.targetRatio;
+    }
+
+    /**
+     * Gets the share of the capacity reserved for processing redo records
+     * while the backlog is at or below the target.
+     *
+     * @return The minimum redo share between zero and one.
+     *
+     * @since 4.4.0
+     */
+    public double getMinRedoShare() {
+        return this.minRedoShare;
+    }
+
+    /**
+     * Gets the share of the capacity reserved for processing redo records
+     * once the backlog reaches twice the target.
+     *
+     * @return The maximum redo share between zero and one.
+     *
+     * @since 4.4.0
+     */
+    public double getMaxRedoShare() {
+        return this.maxRedoShare;
+    }
+
+    /**
+     * Gets the minimum number of milliseconds between samples of the redo
+     * backlog.
+     *
+     * @return The minimum number of milliseconds between samples.
+     *
+     * @since 4.4.0
+     */
+    public long getSampleIntervalMillis() {
+        return this.sampleIntervalMillis;
+    }
+
+    /**
+     * Gets the maximum number of times a redo record is retried after an
+     * {@link SzRetryableException}.
+     *
+     * @return The maximum number of times a redo record is retried.
+     *
+     * @since 4.4.0
+     */
+    public int getMaxRetries() {
+        return this.maxRetries;
+    }
+
+    /**
+     * Gets the {@link SzDeadLetterSink} to which redo records that fail are
+     * written.
+     *
+     * @return The {@link SzDeadLetterSink} to which redo records that fail
+     *         are written, or <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public SzDeadLetterSink getDeadLetterSink() {
+        return this.deadLetterSink;
+    }
+
+    /**
+     * Gets the number of redo records that have been written to a
+     * dead-letter sink.
+     *
+     * @return The number of redo records that have been written to a
+     *         dead-letter sink.
+     *
+     * @since 4.4.0
+     */
+    public long getDeadLetterCount() {
+        return this.deadLetterCount.sum();
+    }
+
+    /**
+     * Gets the current estimate of the redo backlog, which is the last
+     * {@linkplain SzEngine#countRedoRecords() sampled count} less the redo
+     * records processed since.
+     *
+     * @return The estimated number of pending redo records, or negative
+     *         one (-1) if not yet sampled.
+     *
+     * @since 4.4.0
+     */
+    public long getRedoBacklog() {
+        return this.redoBacklog.get();
+    }
+
+    /**
+     * Gets the current effective target number of pending redo records,
+     * which is the larger of the {@linkplain #getTargetBacklog() target
+     * backlog} and the {@linkplain #getTargetRatio() target ratio} of the
+     * number of records added.
+     *
+     * @return The effective target number of pending redo records.
+     *
+     * @since 4.4.0
+     */
+    public long getEffectiveTarget() {
+        if (this.targetRatio <= 0.0) {
+            return this.targetBacklog;
+        }
+        return Math.max(this.targetBacklog,
+                        (long) (this.targetRatio * this.addedCount.sum()));
+    }
+
+    /**
+     * Gets the share of the capacity that is currently reserved for
+     * processing redo records based on the estimated backlog.
+     *
+     * @return The current redo share between zero and one.
+     *
+     * @since 4.4.0
+     */
+    public double getRedoShare() {
+        long backlog = this.redoBacklog.get();
+        if (backlog <= 0L) {
+            return 0.0;
+        }
+        long target = this.getEffectiveTarget();
+        double error = (target <= 0L) ? 1.0 : ((double) (backlog - target)) / target;
+        error = Math.min(1.0, Math.max(0.0, error));
+        return this.minRedoShare + ((this.maxRedoShare - this.minRedoShare) * error);
+    }
+
+    /**
+     * Gets the number of units of capacity that are currently reserved for
+     * processing redo records.
+     *
+     * @return The number of units of capacity reserved for redo.
+     *
+     * @since 4.4.0
+     */
+    public int getRedoSlotCount() {
+        double share = this.getRedoShare();
+        if (share <= 0.0) {
+            return 0;
+        }
+        long slots = Math.max(1L, Math.round(share * this.capacity));
+        return (int) Math.min(this.capacity - 1, slots);
+    }
+
+    /**
+     * Checks if the estimated redo backlog is above the {@linkplain
+     * #getEffectiveTarget() effective target}.
+     *
+     * @return <code>true</code> if the backlog is above the target,
+     *         otherwise <code>false</code>.
+     *
+     * @since 4.4.0
+     */
+    public boolean isAboveTarget() {
+        this.sample();
+        long backlog = this.redoBacklog.get();
+        return backlog > 0L && backlog > this.getEffectiveTarget();
+    }
+
+    /**
+     * Gets the number of records that have been added with permits from
+     * this instance.
+     *
+     * @return The number of records added.
+     *
+     * @since 4.4.0
+     */
+    public long getAddedCount() {
+        return this.addedCount.sum();
+    }
+
+    /**
+     * Gets the number of redo records that have been processed, including
+     * those that failed.
+     *
+     * @return The number of redo records processed.
+     *
+     * @since 4.4.0
+     */
+    public long getProcessedCount() {
+        return this.processedCount.sum();
+    }
+
+    /**
+     * Gets the number of redo records that failed to be processed.
+     *
+     * @return The number of redo records that failed.
+     *
+     * @since 4.4.0
+     */
+    public long getFailedCount() {
+        return this.failedCount.sum();
+    }
+
+    /**
+     * Gets the number of times a redo record was retried.
+     *
+     * @return The number of redo record retries.
+     *
+     * @since 4.4.0
+     */
+    public long getRetryCount() {
+        return this.retryCount.sum();
+    }
+
+    /**
+     * Gets the number of permits currently held for adding records.
+     *
+     * @return The number of permits currently held for adding records.
+     *
+     * @since 4.4.0
+     */
+    public int getActiveLoadCount() {
+        synchronized (this.monitor) {
+            return this.activeLoadCount;
+        }
+    }
+
+    /**
+     * Gets the number of threads currently processing redo records.
+     *
+     * @return The number of threads currently processing redo records.
+     *
+     * @since 4.4.0
+     */
+    public int getActiveRedoCount() {
+        synchronized (this.monitor) {
+            return this.activeRedoCount;
+        }
+    }
+
+    /**
+     * Acquires a {@link Permit} for adding a record, first processing redo
+     * records on the calling thread while fewer than the {@linkplain
+     * #getRedoSlotCount() reserved number} of threads are doing so, and
+     * otherwise waiting as long as needed for a unit of the remaining
+     * capacity.
+     *
+     * @return The {@link Permit}, which must be {@linkplain Permit#close()
+     *         closed} when the engine call completes.
+     *
+     * @throws InterruptedException If interrupted while waiting or
+     *                              retrying a redo record.
+     *
+     * @throws SzException If an {@link SzUnrecoverableException} occurs
+     *                     processing a redo record.
+     *
+     * @since 4.4.0
+     */
+    public Permit acquireLoad() throws InterruptedException, SzException {
+        return this.acquireLoad(this.deadLetterSink);
+    }
+
+    /**
+     * Acquires a {@link Permit} for adding a record as described for {@link
+     * #acquireLoad()}, writing the redo records that fail to the specified
+     * {@link SzDeadLetterSink}.
+     *
+     * @param sink The {@link SzDeadLetterSink} for redo records that fail,
+     *             or <code>null</code> if none.
+     *
+     * @return The {@link Permit}, which must be {@linkplain Permit#close()
+     *         closed} when the engine call completes.
+     *
+     * @throws InterruptedException If interrupted while waiting or
+     *                              retrying a redo record.
+     *
+     * @throws SzException If an {@link SzUnrecoverableException} occurs
+     *                     processing a redo record.
+     */
+    Permit acquireLoad(SzDeadLetterSink sink) throws InterruptedException, SzException {
+        while (true) {
+            this.sample();
+            synchronized (this.monitor) {
+                int redoSlots = this.getRedoSlotCount();
+                if (this.activeRedoCount < redoSlots) {
+                    this.activeRedoCount++;
+                } else if (this.activeLoadCount < this.capacity - redoSlots) {
+                    this.activeLoadCount++;
+                    return new Permit();
+                } else {
+                    this.monitor.wait(this.sampleIntervalMillis);
+                    continue;
+                }
+            }
+            try {
+                this.processNext(sink);
+            } finally {
+                this.release(true);
+            }
+        }
+    }
+
+    /**
+     * Processes a single redo record on the calling thread if the
+     * estimated redo backlog is not empty and a unit of capacity is not in
+     * use.  This allows otherwise idle threads to reduce the backlog
+     * regardless of the target.
+     *
+     * @return <code>true</code> if a redo record was processed, or
+     *         <code>false</code> if there was no redo record or no spare
+     *         capacity.
+     *
+     * @throws InterruptedException If interrupted while retrying the redo
+     *                              record.
+     *
+     * @throws SzException If an {@link SzUnrecoverableException} occurs
+     *                     processing the redo record.
+     *
+     * @since 4.4.0
+     */
+    public boolean processRedoRecord() throws InterruptedException, SzException {
+        return this.processRedoRecord(this.deadLetterSink);
+    }
+
+    /**
+     * Processes a single redo record as described for {@link
+     * #processRedoRecord()}, writing it to the specified {@link
+     * SzDeadLetterSink} if it fails.
+     *
+     * @param sink The {@link SzDeadLetterSink} for a redo record that fails,
+     *             or <code>null</code> if none.
+     *
+     * @return <code>true</code> if a redo record was processed, or
+     *         <code>false</code> if there was no redo record or no spare
+     *         capacity.
+     *
+     * @throws InterruptedException If interrupted while retrying the redo
+     *                              record.
+     *
+     * @throws SzException If an {@link SzUnrecoverableException} occurs
+     *                     processing the redo record.
+     */
+    boolean processRedoRecord(SzDeadLetterSink sink)
+        throws InterruptedException, SzException
+    {
+        this.sample();
+        synchronized (this.monitor) {
+            if (this.redoBacklog.get() <= 0L
+                || this.activeLoadCount + this.activeRedoCount >= this.capacity)
+            {
+                return false;
+            }
+            this.activeRedoCount++;
+        }
+        try {
+            return this.processNext(sink);
+        } finally {
+            this.release(true);
+        }
+    }
+
+    /**
+     * Releases a unit of capacity and wakes the waiting threads.
+     *
+     * @param redo <code>true</code> if the unit was used for processing a
+     *             redo record, or <code>false</code> if for adding a record.
+     */
+    private void release(boolean redo) {
+        synchronized (this.monitor) {
+            if (redo) {
+                this.activeRedoCount--;
+            } else {
+                this.activeLoadCount--;
+            }
+            this.monitor.notifyAll();
+        }
+    }
+
+    /**
+     * Samples the redo backlog from the engine if the sample interval has
+     * elapsed since the last sample.  A failure to count the redo records
+     * leaves the previous estimate in place.
+     */
+    private void sample() {
+        long now = System.nanoTime();
+        long due = this.nextSampleNanos.get();
+        if (now - due < 0L || !this.nextSampleNanos.compareAndSet(
+            due, now + TimeUnit.MILLISECONDS.toNanos(this.sampleIntervalMillis)))
+        {
+            return;
+        }
+        try {
+            this.redoBacklog.set(this.engine.countRedoRecords());
+        } catch (SzException | RuntimeException e) {
+            LOGGER.log(Level.DEBUG, "Failed to count the redo records", e);
+            return;
+        }
+        synchronized (this.monitor) {
+            this.monitor.notifyAll();
+        }
+    }
+
+    /**
+     * Gets and processes the next redo record, retrying it as configured.
+     * A redo record that fails (or whose retry is interrupted) is
+     * {@linkplain #deadLetter(SzDeadLetterSink, String, SzException, Class,
+     * int) dead-lettered}.
+     *
+     * @param sink The {@link SzDeadLetterSink} for a redo record that fails,
+     *             or <code>null</code> if none.
+     *
+     * @return <code>true</code> if a redo record was processed (or failed),
+     *         or <code>false</code> if there was none.
+     *
+     * @throws InterruptedException If interrupted while delaying a retry.
+     *
+     * @throws SzException If an {@link SzUnrecoverableException} occurs.
+     */
+    private boolean processNext(SzDeadLetterSink sink)
+        throws InterruptedException, SzException
+    {
+        String redoRecord = null;
+        try {
+            redoRecord = this.engine.getRedoRecord();
+        } catch (SzException e) {
+            this.redoBacklog.set(0L);
+            if (SzCoreUtilities.isUnrecoverable(e)) {
+                throw e;
+            }
+            LOGGER.log(Level.WARNING, "Failed to get a redo record", e);
+            return false;
+        }
+        if (redoRecord == null) {
+            // the queue is empty until the next sample says otherwise
+            this.redoBacklog.set(0L);
+            return false;
+        }
+        try {
+            for (int attempt = 1; true; attempt++) {
+                try {
+                    this.engine.processRedoRecord(redoRecord, SZ_REDO_DEFAULT_FLAGS);
+                    return true;
+
+                } catch (SzException e) {
+                    Class<? extends SzException> exceptionClass
+                        = SzCoreUtilities.resolveExceptionClass(e);
+                    FailureAction action = SzCoreUtilities.classifyFailure(
+                        exceptionClass, attempt, this.maxRetries);
+                    if (action == FailureAction.RETRY) {
+                        this.retryCount.increment();
+                        try {
+                            Thread.sleep(SzCoreUtilities.backoffDelay(
+                                attempt,
+                                SzBulkLoader.DEFAULT_RETRY_DELAY_MILLIS,
+                                SzBulkLoader.DEFAULT_MAX_RETRY_DELAY_MILLIS));
+                        } catch (InterruptedException interrupted) {
+                            this.failedCount.increment();
+                            this.deadLetter(sink, redoRecord, e, exceptionClass, attempt);
+                            throw interrupted;
+                        }
+                        continue;
+                    }
+                    this.failedCount.increment();
+                    this.deadLetter(sink, redoRecord, e, exceptionClass, attempt);
+                    if (action == FailureAction.STOP) {
+                        throw e;
+                    }
+                    return true;
+                }
+            }
+        } finally {
+            this.processedCount.increment();
+            this.redoBacklog.updateAndGet(count -> (count > 0L) ? count - 1L : count);
+        }
+    }
+
+    /**
+     * Writes the specified redo record that failed to the specified {@link
+     * SzDeadLetterSink}, or logs it if there is no sink or the sink fails,
+     * so that it is not lost.
+     *
+     * @param sink The {@link SzDeadLetterSink}, or <code>null</code> if none.
+     * @param redoRecord The redo record that failed.
+     * @param failure The {@link SzException} describing the failure.
+     * @param exceptionClass The {@link SzException} class resolved for the
+     *                       failure.
+     * @param attempt The number of attempts made to process the redo record.
+     */
+    private void deadLetter(SzDeadLetterSink             sink,
+                            String                       redoRecord,
+                            SzException                  failure,
+                            Class<? extends SzException> exceptionClass,
+                            int                          attempt)
+    {
+        if (sink != null) {
+            SzLoadRecord record = new SzLoadRecord();
+            record.setSourceName(REDO_SOURCE_NAME);
+            record.getRecordDefinition().append(redoRecord);
+            try {
+                sink.write(new SzDeadLetter(record, failure, exceptionClass, attempt));
+                this.deadLetterCount.increment();
+                return;
+
+            } catch (IOException | RuntimeException e) {
+                failure.addSuppressed(e);
+            }
+        }
+        LOGGER.log(Level.ERROR, "Failed to process a redo record: " + redoRecord, failure);
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzRedoController{ capacity=[ " + this.capacity
+            + " ], targetBacklog=[ " + this.targetBacklog
+            + " ], targetRatio=[ " + this.targetRatio
+            + " ], minRedoShare=[ " + this.minRedoShare
+            + " ], maxRedoShare=[ " + this.maxRedoShare
+            + " ], sampleIntervalMillis=[ " + this.sampleIntervalMillis
+            + " ], maxRetries=[ " + this.maxRetries
+            + " ], deadLetterSink=[ " + this.deadLetterSink
+            + " ], redoBacklog=[ " + this.redoBacklog.get()
+            + " ], activeLoadCount=[ " + this.getActiveLoadCount()
+            + " ], activeRedoCount=[ " + this.getActiveRedoCount() + " ] }";
+    }
+}
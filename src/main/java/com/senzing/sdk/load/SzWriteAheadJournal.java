@@ -0,0 +1,2003 @@
+package com.senzing.sdk.load;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import com.senzing.sdk.SzEngine;
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzRecordKey;
+import com.senzing.sdk.SzRetryableException;
+import com.senzing.sdk.SzUnrecoverableException;
+import com.senzing.sdk.core.SzCoreUtilities;
+import com.senzing.sdk.core.SzCoreUtilities.FailureAction;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static com.senzing.sdk.SzFlag.SZ_ADD_RECORD_DEFAULT_FLAGS;
+import static com.senzing.sdk.SzFlag.SZ_DELETE_RECORD_DEFAULT_FLAGS;
+
+/**
+ * Provides a local, append-only write-ahead journal in front of {@link
+ * SzEngine#addRecord(SzRecordKey, String)} and {@link
+ * SzEngine#deleteRecord(SzRecordKey)}.  The {@link #addRecord(SzRecordKey,
+ * String)} and {@link #deleteRecord(SzRecordKey)} methods of this class
+ * return as soon as the operation is durably journaled, so that producers
+ * can be acknowledged without waiting for the native entity resolution,
+ * while a background applier drives the engine at its own pace.
+ *
+ * <p>
+ * Operations from concurrent callers are group-committed: they are framed
+ * into a shared buffer that a single flusher thread writes and forces to
+ * disk in one batch, so the cost of each {@link FileChannel#force(boolean)
+ * sync} is shared by every operation that arrived while the previous sync
+ * was in progress.  Each operation is framed compactly in binary as its
+ * payload length, a CRC-32C checksum, the sequence number, the operation
+ * type and the UTF-8 encoded data source code, record ID and (for adds)
+ * record definition.  The journal is split into segment files that are
+ * deleted once every operation in them has been applied.
+ * </p>
+ *
+ * <p>
+ * The applier partitions the operations across a number of worker threads
+ * by record key so that operations on the same record are applied in the
+ * order they were journaled.  The highest sequence number through which
+ * every operation has been applied is periodically written to a checkpoint
+ * file.  When the journal is opened, any torn frames at the end of the last
+ * segment (from a crash mid-write) are truncated and the operations after
+ * the checkpoint are replayed.  Operations are therefore applied <b>at
+ * least once</b>, which is safe since adding and deleting records are
+ * idempotent.
+ * </p>
+ *
+ * <p>
+ * Failures are handled like those of the {@link SzBulkLoader}: retryable
+ * failures are retried (in place, to preserve ordering) with exponential
+ * backoff, bad input and exhausted retries are written to the {@linkplain
+ * Builder#deadLetterSink(SzDeadLetterSink) dead-letter sink} (if any), and
+ * an unrecoverable failure stops the applier (see {@link
+ * #getApplierFailure()}) while operations continue to be journaled for
+ * replay the next time the journal is opened.
+ * </p>
+ *
+ * <p>
+ * Instances of this class are thread-safe.  Only one instance may use a
+ * given journal directory at a time, which is enforced with a {@link
+ * FileLock} on a lock file in the directory that is held until the journal
+ * is {@linkplain #close() closed}.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzWriteAheadJournal implements Closeable {
+    /**
+     * The default number of bytes at which the journal rolls over to a new
+     * segment file.
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024L * 1024L;
+
+    /**
+     * The default number of applier worker threads.
+     */
+    public static final int DEFAULT_APPLIER_THREAD_COUNT
+        = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The default maximum number of times an operation is retried after an
+     * {@link SzRetryableException}.
+     */
+    public static final int DEFAULT_MAX_RETRIES = 5;
+
+    /**
+     * The default number of milliseconds to delay before the first retry
+     * of an operation.
+     */
+    public static final long DEFAULT_RETRY_DELAY_MILLIS = 100L;
+
+    /**
+     * The default maximum number of milliseconds to delay before retrying
+     * an operation.
+     */
+    public static final long DEFAULT_MAX_RETRY_DELAY_MILLIS = 10000L;
+
+    /**
+     * The prefix for segment file names.
+     */
+    private static final String SEGMENT_PREFIX = "journal-";
+
+    /**
+     * The suffix for segment file names.
+     */
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    /**
+     * The format for the sequence number in segment file names.
+     */
+    private static final String SEGMENT_FORMAT = SEGMENT_PREFIX + "%020d" + SEGMENT_SUFFIX;
+
+    /**
+     * The name of the checkpoint file.
+     */
+    private static final String CHECKPOINT_FILE = "applied.checkpoint";
+
+    /**
+     * The name of the lock file that is locked by the instance using the
+     * journal directory.
+     */
+    private static final String LOCK_FILE = ".lock";
+
+    /**
+     * The suffix for the temporary file used to replace the checkpoint.
+     */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * The number of bytes in the frame header (payload length and CRC).
+     */
+    private static final int FRAME_HEADER_SIZE = 8;
+
+    /**
+     * The number of bytes in the fixed portion of the payload (sequence
+     * number, operation type, data source length, record ID length and
+     * record definition length).
+     */
+    private static final int FIXED_PAYLOAD_SIZE = 8 + 1 + 2 + 4 + 4;
+
+    /**
+     * The maximum size of a frame payload, used to detect a corrupt length.
+     */
+    private static final int MAX_PAYLOAD_SIZE = Integer.MAX_VALUE - 64;
+
+    /**
+     * The maximum number of bytes in the UTF-8 encoded data source code.
+     */
+    private static final int MAX_DATA_SOURCE_BYTES = 0xFFFF;
+
+    /**
+     * The operation type for adding a record.
+     */
+    private static final byte ADD_OPERATION = 1;
+
+    /**
+     * The operation type for deleting a record.
+     */
+    private static final byte DELETE_OPERATION = 2;
+
+    /**
+     * The number of pending bytes at which appenders wait for the flusher.
+     */
+    private static final int MAX_PENDING_BYTES = 8 * 1024 * 1024;
+
+    /**
+     * The initial capacity of the pending buffers.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The initial capacity of the buffer used for reading segments.
+     */
+    private static final int READ_BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * The capacity of the queue for each applier worker thread.
+     */
+    private static final int WORKER_QUEUE_CAPACITY = 256;
+
+    /**
+     * The number of milliseconds between checkpoint writes.
+     */
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 1000L;
+
+    /**
+     * The number of milliseconds to wait before checking if the journal is
+     * closing.
+     */
+    private static final long POLL_TIMEOUT_MILLIS = 100L;
+
+    /**
+     * Provides a builder class for creating instances of {@link
+     * SzWriteAheadJournal}.
+     *
+     * @since 4.4.0
+     */
+    public static final class Builder {
+        /**
+         * The directory for the journal files.
+         */
+        private Path directory = null;
+
+        /**
+         * The {@link SzEngine} to apply operations with.
+         */
+        private SzEngine engine = null;
+
+        /**
+         * The number of applier worker threads.
+         */
+        private int applierThreadCount = DEFAULT_APPLIER_THREAD_COUNT;
+
+        /**
+         * The segment size.
+         */
+        private long segmentSize = DEFAULT_SEGMENT_SIZE;
+
+        /**
+         * The maximum number of retries for an operation.
+         */
+        private int maxRetries = DEFAULT_MAX_RETRIES;
+
+        /**
+         * The delay in milliseconds before the first retry.
+         */
+        private long retryDelayMillis = DEFAULT_RETRY_DELAY_MILLIS;
+
+        /**
+         * The maximum delay in milliseconds before a retry.
+         */
+        private long maxRetryDelayMillis = DEFAULT_MAX_RETRY_DELAY_MILLIS;
+
+        /**
+         * The {@link SzDeadLetterSink} for operations that fail.
+         */
+        private SzDeadLetterSink deadLetterSink = null;
+
+        /**
+         * Private default constructor.
+         */
+        private Builder() {
+            // do nothing
+        }
+
+        /**
+         * Sets the directory in which the journal segment files and the
+         * checkpoint file are stored.  The directory is created if it does
+         * not exist.
+         *
+         * @param directory The non-null {@link Path} of the directory.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder directory(Path directory) throws NullPointerException {
+            this.directory = Objects.requireNonNull(
+                directory, "The directory cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the {@link SzEngine} with which the journaled operations are
+         * applied.
+         *
+         * @param engine The non-null {@link SzEngine} to use.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder engine(SzEngine engine) throws NullPointerException {
+            this.engine = Objects.requireNonNull(engine, "The engine cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the number of applier worker threads.  The default is
+         * {@link #DEFAULT_APPLIER_THREAD_COUNT}.
+         *
+         * @param threadCount The positive number of applier worker threads.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder applierThreadCount(int threadCount)
+            throws IllegalArgumentException
+        {
+            if (threadCount <= 0) {
+                throw new IllegalArgumentException(
+                    "The applier thread count must be positive: " + threadCount);
+            }
+            this.applierThreadCount = threadCount;
+            return this;
+        }
+
+        /**
+         * Sets the number of bytes at which the journal rolls over to a new
+         * segment file.  The default is {@link #DEFAULT_SEGMENT_SIZE}.
+         *
+         * @param segmentSize The positive segment size in bytes.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder segmentSize(long segmentSize) throws IllegalArgumentException {
+            this.segmentSize = requirePositive(segmentSize, "segment size");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of times an operation is retried after an
+         * {@link SzRetryableException}.  The default is {@link
+         * #DEFAULT_MAX_RETRIES}.
+         *
+         * @param maxRetries The non-negative maximum number of retries.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is
+         *                                  negative.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxRetries(int maxRetries) throws IllegalArgumentException {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException(
+                    "The max retries cannot be negative: " + maxRetries);
+            }
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Sets the number of milliseconds to delay before the first retry of
+         * an operation, which doubles with each subsequent retry up to the
+         * {@linkplain #maxRetryDelayMillis(long) maximum retry delay}.  The
+         * default is {@link #DEFAULT_RETRY_DELAY_MILLIS}.
+         *
+         * @param delayMillis The positive number of milliseconds to delay
+         *                    before the first retry.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder retryDelayMillis(long delayMillis)
+            throws IllegalArgumentException
+        {
+            this.retryDelayMillis = requirePositive(delayMillis, "retry delay");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of milliseconds to delay before retrying
+         * an operation.  The default is {@link
+         * #DEFAULT_MAX_RETRY_DELAY_MILLIS}.
+         *
+         * @param delayMillis The positive maximum number of milliseconds to
+         *                    delay before retrying an operation.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified value is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxRetryDelayMillis(long delayMillis)
+            throws IllegalArgumentException
+        {
+            this.maxRetryDelayMillis = requirePositive(delayMillis, "max retry delay");
+            return this;
+        }
+
+        /**
+         * Sets the {@link SzDeadLetterSink} to which operations that fail
+         * to apply are written.  The sink is not closed by the journal.  The
+         * default is <code>null</code>, in which case the failures are only
+         * counted.
+         *
+         * @param sink The {@link SzDeadLetterSink} to use, or
+         *             <code>null</code> if none.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder deadLetterSink(SzDeadLetterSink sink) {
+            this.deadLetterSink = sink;
+            return this;
+        }
+
+        /**
+         * Opens the journal in the configured directory, recovering and
+         * replaying any operations that were journaled but not applied, and
+         * starts the background flusher and applier threads.
+         *
+         * @return The newly opened {@link SzWriteAheadJournal}.
+         *
+         * @throws IllegalStateException If the directory or engine was not
+         *                               specified.
+         *
+         * @throws IOException If the journal cannot be opened, is corrupt or
+         *                     its directory is already in use by another
+         *                     journal.
+         *
+         * @since 4.4.0
+         */
+        public SzWriteAheadJournal build() throws IllegalStateException, IOException {
+            if (this.directory == null) {
+                throw new IllegalStateException("The directory is required");
+            }
+            if (this.engine == null) {
+                throw new IllegalStateException("The engine is required");
+            }
+            return new SzWriteAheadJournal(this);
+        }
+
+        /**
+         * Ensures the specified value is positive.
+         *
+         * @param value The value to check.
+         * @param description The description for the error message.
+         *
+         * @return The specified value.
+         *
+         * @throws IllegalArgumentException If not positive.
+         */
+        private static long requirePositive(long value, String description)
+            throws IllegalArgumentException
+        {
+            if (value <= 0L) {
+                throw new IllegalArgumentException(
+                    "The " + description + " must be positive: " + value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for building an {@link
+     * SzWriteAheadJournal}.
+     *
+     * @return The new {@link Builder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Describes a journaled operation read back for applying.
+     *
+     * @param sequence The sequence number.
+     * @param operation The operation type.
+     * @param recordKey The {@link SzRecordKey}.
+     * @param recordDefinition The record definition, or <code>null</code>
+     *                         for a delete.
+     * @param segmentName The name of the segment file.
+     * @param offset The byte offset in the segment after the frame.
+     */
+    private record Entry(long           sequence,
+                         byte           operation,
+                         SzRecordKey    recordKey,
+                         String         recordDefinition,
+                         String         segmentName,
+                         long           offset)
+    {
+        // no additional members
+    }
+
+    /**
+     * The directory for the journal files.
+     */
+    private final Path directory;
+
+    /**
+     * The {@link FileLock} held on the lock file in the journal directory.
+     */
+    private final FileLock directoryLock;
+
+    /**
+     * The {@link SzEngine} to apply operations with.
+     */
+    private final SzEngine engine;
+
+    /**
+     * The segment size.
+     */
+    private final long segmentSize;
+
+    /**
+     * The maximum number of retries for an operation.
+     */
+    private final int maxRetries;
+
+    /**
+     * The delay in milliseconds before the first retry.
+     */
+    private final long retryDelayMillis;
+
+    /**
+     * The maximum delay in milliseconds before a retry.
+     */
+    private final long maxRetryDelayMillis;
+
+    /**
+     * The {@link SzDeadLetterSink} for operations that fail.
+     */
+    private final SzDeadLetterSink deadLetterSink;
+
+    /**
+     * The lock guarding the append and durability state.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signaled when pending bytes are available for the flusher.
+     */
+    private final Condition pendingAvailable = this.lock.newCondition();
+
+    /**
+     * Signaled when the flusher has taken the pending bytes.
+     */
+    private final Condition pendingTaken = this.lock.newCondition();
+
+    /**
+     * Signaled when the durable sequence number or segment changes.
+     */
+    private final Condition durableAdvanced = this.lock.newCondition();
+
+    /**
+     * The {@link CRC32C} used for computing frame checksums (guarded by
+     * the lock).
+     */
+    private final CRC32C appendChecksum = new CRC32C();
+
+    /**
+     * The buffer of framed operations pending being written.
+     */
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    /**
+     * The spare buffer that is swapped with the pending buffer.
+     */
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    /**
+     * The next sequence number to assign.
+     */
+    private long nextSequence;
+
+    /**
+     * The sequence number of the last operation in the pending buffer.
+     */
+    private long pendingSequence;
+
+    /**
+     * The highest sequence number that has been durably journaled.
+     */
+    private long durableSequence;
+
+    /**
+     * The {@link List} of segment file paths in order, the last of which
+     * is the active segment being written.
+     */
+    private final List<Path> segments = new ArrayList<>();
+
+    /**
+     * The {@link FileChannel} for writing the active segment (used only by
+     * the flusher thread after construction).
+     */
+    private FileChannel activeChannel;
+
+    /**
+     * The number of durable bytes in the active segment.
+     */
+    private long activeDurableSize = 0L;
+
+    /**
+     * The failure that occurred writing the journal, if any.
+     */
+    private IOException writeFailure = null;
+
+    /**
+     * Set to <code>true</code> once closing begins.
+     */
+    private volatile boolean closing = false;
+
+    /**
+     * The sequence number from the checkpoint when the journal was opened,
+     * through which operations do not need to be replayed.
+     */
+    private final long recoveredCheckpoint;
+
+    /**
+     * The highest sequence number through which all operations have been
+     * applied.
+     */
+    private final AtomicLong appliedSequence = new AtomicLong();
+
+    /**
+     * The monitor signaled when the applied sequence number advances.
+     */
+    private final Object appliedMonitor = new Object();
+
+    /**
+     * The highest sequence number that has been dispatched (or skipped) by
+     * the dispatcher.
+     */
+    private volatile long dispatchedSequence;
+
+    /**
+     * The failure that stopped the applier, if any.
+     */
+    private final AtomicReference<Throwable> applierFailure = new AtomicReference<>();
+
+    /**
+     * The number of operations that were applied.
+     */
+    private final LongAdder appliedCount = new LongAdder();
+
+    /**
+     * The number of operations that failed to apply.
+     */
+    private final LongAdder failedCount = new LongAdder();
+
+    /**
+     * The applier workers.
+     */
+    private final Worker[] workers;
+
+    /**
+     * The flusher thread.
+     */
+    private final Thread flusher;
+
+    /**
+     * The dispatcher thread.
+     */
+    private final Thread dispatcher;
+
+    /**
+     * Private constructor for constructing with a {@link Builder}.
+     *
+     * @param builder The {@link Builder} from which to construct.
+     *
+     * @throws IOException If the journal cannot be opened.
+     */
+    private SzWriteAheadJournal(Builder builder) throws IOException {
+        this.directory              = builder.directory;
+        this.engine                 = builder.engine;
+        this.segmentSize            = builder.segmentSize;
+        this.maxRetries             = builder.maxRetries;
+        this.retryDelayMillis       = builder.retryDelayMillis;
+        this.maxRetryDelayMillis    = Math.max(builder.maxRetryDelayMillis,
+                                               builder.retryDelayMillis);
+        this.deadLetterSink         = builder.deadLetterSink;
+
+        Files.createDirectories(this.directory);
+        this.directoryLock = this.lockDirectory();
+        try {
+            this.recoveredCheckpoint = this.readCheckpoint();
+            long lastSequence = this.recover();
+
+            this.nextSequence       = lastSequence + 1L;
+            this.pendingSequence    = lastSequence;
+            this.durableSequence    = lastSequence;
+            this.dispatchedSequence = this.recoveredCheckpoint;
+            this.appliedSequence.set(this.recoveredCheckpoint);
+
+            this.openSegment(this.nextSequence);
+
+        } catch (IOException | RuntimeException e) {
+            this.directoryLock.channel().close();
+            throw e;
+        }
+
+        this.workers = new Worker[builder.applierThreadCount];
+        for (int index = 0; index < this.workers.length; index++) {
+            this.workers[index] = new Worker(index);
+        }
+        this.flusher    = this.startThread(this::flush, "SzWriteAheadJournal-flusher");
+        this.dispatcher = this.startThread(this::dispatch, "SzWriteAheadJournal-dispatcher");
+        for (Worker worker : this.workers) {
+            worker.thread = this.startThread(
+                worker::run, "SzWriteAheadJournal-applier-" + (worker.index + 1));
+        }
+    }
+
+    /**
+     * Gets the directory in which the journal files are stored.
+     *
+     * @return The directory in which the journal files are stored.
+     *
+     * @since 4.4.0
+     */
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Gets the {@link SzEngine} with which the operations are applied.
+     *
+     * @return The {@link SzEngine} with which the operations are applied.
+     *
+     * @since 4.4.0
+     */
+    public SzEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * Gets the number of applier worker threads.
+     *
+     * @return The number of applier worker threads.
+     *
+     * @since 4.4.0
+     */
+    public int getApplierThreadCount() {
+        return this.workers.length;
+    }
+
+    /**
+     * Gets the number of bytes at which the journal rolls over to a new
+     * segment file.
+     *
+     * @return The number of bytes at which the journal rolls over to a new
+     *         segment file.
+     *
+     * @since 4.4.0
+     */
+    public long getSegmentSize() {
+        return this.segmentSize;
+    }
+
+    /**
+     * Gets the highest sequence number that has been durably journaled.
+     *
+     * @return The highest sequence number that has been durably journaled.
+     *
+     * @since 4.4.0
+     */
+    public long getDurableSequence() {
+        this.lock.lock();
+        try {
+            return this.durableSequence;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the highest sequence number through which every journaled
+     * operation has been applied (or dead-lettered).
+     *
+     * @return The highest sequence number through which every journaled
+     *         operation has been applied.
+     *
+     * @since 4.4.0
+     */
+    public long getAppliedSequence() {
+        return this.appliedSequence.get();
+    }
+
+    /**
+     * Gets the number of operations that have been applied since the
+     * journal was opened.
+     *
+     * @return The number of operations that have been applied.
+     *
+     * @since 4.4.0
+     */
+    public long getAppliedCount() {
+        return this.appliedCount.sum();
+    }
+
+    /**
+     * Gets the number of operations that failed to apply since the journal
+     * was opened.
+     *
+     * @return The number of operations that failed to apply.
+     *
+     * @since 4.4.0
+     */
+    public long getFailedCount() {
+        return this.failedCount.sum();
+    }
+
+    /**
+     * Gets the failure that stopped the applier, if any.  If the applier
+     * has stopped then operations continue to be journaled, but are not
+     * applied until the journal is reopened.
+     *
+     * @return The failure that stopped the applier (e.g.: an {@link
+     *         SzUnrecoverableException}), or <code>null</code> if the
+     *         applier has not stopped due to a failure.
+     *
+     * @since 4.4.0
+     */
+    public Throwable getApplierFailure() {
+        return this.applierFailure.get();
+    }
+
+    /**
+     * Durably journals the addition of the record with the specified
+     * {@link SzRecordKey} and definition, blocking until the operation has
+     * been forced to disk (together with any concurrently journaled
+     * operations) but not until it has been applied.
+     *
+     * @param recordKey The non-null {@link SzRecordKey} for the record.
+     * @param recordDefinition The non-null record definition.
+     *
+     * @return The sequence number assigned to the operation.
+     *
+     * @throws NullPointerException If either parameter is <code>null</code>.
+     *
+     * @throws IllegalStateException If the journal has been closed.
+     *
+     * @throws IOException If the journal could not be written.  If the
+     *                     calling thread is interrupted while waiting then
+     *                     an {@link InterruptedIOException} is thrown, in
+     *                     which case the operation may still be journaled.
+     *
+     * @since 4.4.0
+     */
+    public long addRecord(SzRecordKey recordKey, String recordDefinition)
+        throws NullPointerException, IllegalStateException, IOException
+    {
+        Objects.requireNonNull(recordDefinition, "The record definition cannot be null");
+        return this.append(ADD_OPERATION, recordKey,
+                           recordDefinition.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Durably journals the deletion of the record with the specified
+     * {@link SzRecordKey}, blocking until the operation has been forced to
+     * disk (together with any concurrently journaled operations) but not
+     * until it has been applied.
+     *
+     * @param recordKey The non-null {@link SzRecordKey} for the record.
+     *
+     * @return The sequence number assigned to the operation.
+     *
+     * @throws NullPointerException If the specified parameter is
+     *                              <code>null</code>.
+     *
+     * @throws IllegalStateException If the journal has been closed.
+     *
+     * @throws IOException If the journal could not be written.  If the
+     *                     calling thread is interrupted while waiting then
+     *                     an {@link InterruptedIOException} is thrown, in
+     *                     which case the operation may still be journaled.
+     *
+     * @since 4.4.0
+     */
+    public long deleteRecord(SzRecordKey recordKey)
+        throws NullPointerException, IllegalStateException, IOException
+    {
+        return this.append(DELETE_OPERATION, recordKey, null);
+    }
+
+    /**
+     * Waits until every operation through the specified sequence number has
+     * been applied (or dead-lettered), the applier stops due to a failure,
+     * or the specified timeout elapses.
+     *
+     * @param sequence The sequence number to wait for.
+     * @param timeoutMillis The maximum number of milliseconds to wait.
+     *
+     * @return <code>true</code> if all operations through the specified
+     *         sequence number have been applied, otherwise <code>false</code>.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     *
+     * @since 4.4.0
+     */
+    public boolean awaitApplied(long sequence, long timeoutMillis)
+        throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (this.appliedMonitor) {
+            while (this.appliedSequence.get() < sequence
+                   && this.applierFailure.get() == null)
+            {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0L) {
+                    return false;
+                }
+                this.appliedMonitor.wait(remaining);
+            }
+            return this.appliedSequence.get() >= sequence;
+        }
+    }
+
+    /**
+     * Closes the journal.  Operations that are already journaled are made
+     * durable, the applier is stopped after the operations in progress
+     * complete and the checkpoint is written.  Any operations that have not
+     * been applied are replayed the next time the journal is opened, so use
+     * {@link #awaitApplied(long, long)} first to drain the journal.  Calling
+     * this method more than once has no effect.
+     *
+     * @throws IOException If a failure occurs writing the checkpoint or
+     *                     closing the journal files.
+     *
+     * @since 4.4.0
+     */
+    @Override
+    public void close() throws IOException {
+        this.lock.lock();
+        try {
+            if (this.closing) {
+                return;
+            }
+            this.closing = true;
+            this.pendingAvailable.signalAll();
+            this.durableAdvanced.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+        boolean interrupted = false;
+        List<Thread> threads = new ArrayList<>(this.workers.length + 2);
+        threads.add(this.flusher);
+        threads.add(this.dispatcher);
+        for (Worker worker : this.workers) {
+            threads.add(worker.thread);
+        }
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        try {
+            this.activeChannel.close();
+            this.writeCheckpoint(this.appliedSequence.get());
+            if (this.deadLetterSink != null) {
+                this.deadLetterSink.flush();
+            }
+        } finally {
+            try {
+                this.directoryLock.channel().close();
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Locks the lock file in the journal directory so that no other
+     * instance (in this or another process) uses the directory until this
+     * instance is closed.
+     *
+     * @return The {@link FileLock} on the lock file.
+     *
+     * @throws IOException If the lock file cannot be opened or the journal
+     *                     directory is already in use.
+     */
+    private FileLock lockDirectory() throws IOException {
+        FileChannel channel = FileChannel.open(this.directory.resolve(LOCK_FILE), CREATE, WRITE);
+        FileLock lock = null;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null; // locked by another instance in this process
+        } finally {
+            if (lock == null) {
+                channel.close();
+            }
+        }
+        if (lock == null) {
+            throw new IOException(
+                "The journal directory is already in use by another journal: "
+                + this.directory);
+        }
+        return lock;
+    }
+
+    /**
+     * Frames the specified operation into the pending buffer and waits for
+     * it to become durable.
+     *
+     * @param operation The operation type.
+     * @param recordKey The {@link SzRecordKey}.
+     * @param definition The UTF-8 encoded record definition, or
+     *                   <code>null</code> if none.
+     *
+     * @return The sequence number assigned to the operation.
+     *
+     * @throws IOException If the journal could not be written.
+     */
+    private long append(byte operation, SzRecordKey recordKey, byte[] definition)
+        throws IOException
+    {
+        Objects.requireNonNull(recordKey, "The record key cannot be null");
+        byte[] dataSource = recordKey.dataSourceCode().getBytes(StandardCharsets.UTF_8);
+        byte[] recordId = recordKey.recordId().getBytes(StandardCharsets.UTF_8);
+        if (dataSource.length > MAX_DATA_SOURCE_BYTES) {
+            throw new IllegalArgumentException(
+                "The data source code is too long: " + recordKey.dataSourceCode());
+        }
+        int definitionLength = (definition == null) ? 0 : definition.length;
+        long payloadSize = (long) FIXED_PAYLOAD_SIZE + dataSource.length
+            + recordId.length + definitionLength;
+        if (payloadSize > MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException(
+                "The record is too large to journal: " + recordKey);
+        }
+        int frameSize = FRAME_HEADER_SIZE + (int) payloadSize;
+
+        long sequence;
+        this.lock.lock();
+        try {
+            this.ensureWritable();
+            while (this.pending.position() > 0
+                   && this.pending.position() + frameSize > MAX_PENDING_BYTES)
+            {
+                this.pendingTaken.await();
+                this.ensureWritable();
+            }
+            this.pending = ensureCapacity(this.pending, frameSize);
+
+            // frame the operation
+            sequence = this.nextSequence++;
+            ByteBuffer buffer = this.pending;
+            int frameStart = buffer.position();
+            buffer.putInt((int) payloadSize);
+            buffer.putInt(0); // placeholder for the checksum
+            buffer.putLong(sequence);
+            buffer.put(operation);
+            buffer.putShort((short) dataSource.length);
+            buffer.put(dataSource);
+            buffer.putInt(recordId.length);
+            buffer.put(recordId);
+            buffer.putInt(definitionLength);
+            if (definition != null) {
+                buffer.put(definition);
+            }
+            this.appendChecksum.reset();
+            this.appendChecksum.update(buffer.array(),
+                                       frameStart + FRAME_HEADER_SIZE,
+                                       (int) payloadSize);
+            buffer.putInt(frameStart + Integer.BYTES, (int) this.appendChecksum.getValue());
+            this.pendingSequence = sequence;
+            this.pendingAvailable.signal();
+
+            // wait for the group commit
+            while (this.durableSequence < sequence && this.writeFailure == null) {
+                this.durableAdvanced.await();
+            }
+            if (this.durableSequence < sequence) {
+                throw new IOException("Failed to write the journal", this.writeFailure);
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException ioe = new InterruptedIOException(
+                "Interrupted while journaling " + recordKey);
+            ioe.initCause(e);
+            throw ioe;
+
+        } finally {
+            this.lock.unlock();
+        }
+        return sequence;
+    }
+
+    /**
+     * Ensures the journal is writable while holding the lock.
+     *
+     * @throws IllegalStateException If the journal is closing.
+     *
+     * @throws IOException If a prior failure occurred writing the journal.
+     */
+    private void ensureWritable() throws IllegalStateException, IOException {
+        if (this.closing) {
+            throw new IllegalStateException("The journal has been closed: " + this.directory);
+        }
+        if (this.writeFailure != null) {
+            throw new IOException("Failed to write the journal", this.writeFailure);
+        }
+    }
+
+    /**
+     * Ensures the specified buffer has room for the specified number of
+     * additional bytes, returning a larger copy if it does not.
+     *
+     * @param buffer The {@link ByteBuffer} in write mode.
+     * @param required The number of additional bytes required.
+     *
+     * @return The specified {@link ByteBuffer} or a larger copy.
+     */
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int required) {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+        long needed = (long) buffer.position() + required;
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8,
+                                      Math.max(needed, buffer.capacity() * 2L));
+        ByteBuffer larger = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    /**
+     * The flusher thread loop that writes the pending buffer to the active
+     * segment, forces it to disk and notifies the waiting appenders.
+     */
+    private void flush() {
+        while (true) {
+            ByteBuffer batch;
+            long batchSequence;
+            this.lock.lock();
+            try {
+                while (this.pending.position() == 0 && !this.closing) {
+                    this.pendingAvailable.awaitUninterruptibly();
+                }
+                if (this.pending.position() == 0) {
+                    return;
+                }
+                batch = this.pending;
+                this.pending = this.spare;
+                this.spare = batch;
+                batchSequence = this.pendingSequence;
+                this.pendingTaken.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+
+            try {
+                batch.flip();
+                int size = batch.remaining();
+                while (batch.hasRemaining()) {
+                    this.activeChannel.write(batch);
+                }
+                this.activeChannel.force(false);
+
+                this.lock.lock();
+                try {
+                    this.activeDurableSize += size;
+                    this.durableSequence = batchSequence;
+                    if (this.activeDurableSize >= this.segmentSize) {
+                        this.activeChannel.close();
+                        this.openSegment(batchSequence + 1L);
+                    }
+                    this.durableAdvanced.signalAll();
+                } finally {
+                    this.lock.unlock();
+                }
+
+            } catch (IOException e) {
+                this.lock.lock();
+                try {
+                    this.writeFailure = e;
+                    this.durableAdvanced.signalAll();
+                    this.pendingTaken.signalAll();
+                } finally {
+                    this.lock.unlock();
+                }
+                return;
+
+            } finally {
+                batch.clear();
+                if (batch.capacity() > MAX_PENDING_BYTES * 2) {
+                    this.lock.lock();
+                    try {
+                        if (this.spare == batch) {
+                            this.spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+                        }
+                    } finally {
+                        this.lock.unlock();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates and opens a new active segment file for the specified first
+     * sequence number.  This is called during construction or by the flusher
+     * thread while holding the lock.
+     *
+     * @param firstSequence The first sequence number in the segment.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    private void openSegment(long firstSequence) throws IOException {
+        Path path = this.directory.resolve(String.format(SEGMENT_FORMAT, firstSequence));
+        Files.deleteIfExists(path);
+        this.activeChannel = FileChannel.open(path, CREATE_NEW, WRITE);
+        this.activeDurableSize = 0L;
+        this.segments.add(path);
+        this.syncDirectory();
+    }
+
+    /**
+     * Forces the directory entries to disk so that newly created or renamed
+     * files survive a crash.  This is not supported on all platforms, in
+     * which case it is silently skipped.
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(this.directory, READ)) {
+            channel.force(true);
+        } catch (IOException ignore) {
+            // not supported on this platform
+        }
+    }
+
+    /**
+     * Reads the checkpoint file.
+     *
+     * @return The sequence number from the checkpoint file, or zero (0) if
+     *         there is no checkpoint file.
+     *
+     * @throws IOException If the checkpoint file is corrupt.
+     */
+    private long readCheckpoint() throws IOException {
+        Path path = this.directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return 0L;
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length != Long.BYTES + Integer.BYTES) {
+            throw new IOException("Corrupt journal checkpoint file: " + path);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long sequence = buffer.getLong();
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes, 0, Long.BYTES);
+        if (buffer.getInt() != (int) checksum.getValue()) {
+            throw new IOException("Corrupt journal checkpoint file: " + path);
+        }
+        return sequence;
+    }
+
+    /**
+     * Atomically replaces the checkpoint file with the specified sequence
+     * number.
+     *
+     * @param sequence The applied sequence number.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    private void writeCheckpoint(long sequence) throws IOException {
+        Path path = this.directory.resolve(CHECKPOINT_FILE);
+        Path temp = this.directory.resolve(CHECKPOINT_FILE + TEMP_SUFFIX);
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES);
+        buffer.putLong(sequence);
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.array(), 0, Long.BYTES);
+        buffer.putInt((int) checksum.getValue());
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(temp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+        this.syncDirectory();
+    }
+
+    /**
+     * Lists the segment files in the journal directory in order.
+     *
+     * @return The {@link List} of segment file {@link Path} instances.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> stream = Files.list(this.directory)) {
+            return stream.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    /**
+     * Gets the first sequence number of the segment with the specified
+     * {@link Path} from its file name.
+     *
+     * @param path The {@link Path} of the segment.
+     *
+     * @return The first sequence number of the segment.
+     */
+    private static long firstSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(
+            SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Recovers the existing segment files by validating their frames,
+     * truncating any torn frames at the end of the last segment and deleting
+     * segments that have been fully applied.
+     *
+     * @return The last durable sequence number.
+     *
+     * @throws IOException If a segment is corrupt.
+     */
+    private long recover() throws IOException {
+        List<Path> existing = this.listSegments();
+        long lastSequence = this.recoveredCheckpoint;
+        long previous = 0L;
+        boolean[] empty = new boolean[existing.size()];
+        for (int index = 0; index < existing.size(); index++) {
+            Path path = existing.get(index);
+            boolean last = (index == existing.size() - 1);
+            try (FileChannel channel = FileChannel.open(path, READ, WRITE);
+                 SegmentReader reader = new SegmentReader(channel, false))
+            {
+                long size = channel.size();
+                while (reader.next(size)) {
+                    if (reader.sequence <= previous) {
+                        throw new IOException("Out of order sequence number ("
+                            + reader.sequence + ") in journal segment: " + path);
+                    }
+                    previous = reader.sequence;
+                }
+                if (reader.offset < size) {
+                    if (!last) {
+                        throw new IOException("Corrupt journal segment at byte offset "
+                            + reader.offset + ": " + path);
+                    }
+                    // truncate the torn frames from a crash mid-write
+                    channel.truncate(reader.offset);
+                    channel.force(true);
+                }
+                empty[index] = (reader.offset == 0L);
+            }
+        }
+        lastSequence = Math.max(lastSequence, previous);
+
+        // keep the segments that may contain unapplied operations
+        for (int index = 0; index < existing.size(); index++) {
+            Path path = existing.get(index);
+            boolean applied = (index < existing.size() - 1)
+                ? firstSequenceOf(existing.get(index + 1)) <= this.recoveredCheckpoint + 1L
+                : lastSequence <= this.recoveredCheckpoint;
+            if (applied || empty[index]) {
+                Files.delete(path);
+            } else {
+                this.segments.add(path);
+            }
+        }
+        return lastSequence;
+    }
+
+    /**
+     * Creates and starts a daemon thread with the specified name.
+     *
+     * @param runnable The {@link Runnable} to execute.
+     * @param name The name for the thread.
+     *
+     * @return The started {@link Thread}.
+     */
+    private Thread startThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Records the specified failure (if it is the first) so that the
+     * applier stops.
+     *
+     * @param failure The failure that stops the applier.
+     */
+    private void stopApplier(Throwable failure) {
+        this.applierFailure.compareAndSet(null, failure);
+        synchronized (this.appliedMonitor) {
+            this.appliedMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * Checks if the applier should stop.
+     *
+     * @return <code>true</code> if the applier should stop, otherwise
+     *         <code>false</code>.
+     */
+    private boolean isApplierStopped() {
+        return this.closing || this.applierFailure.get() != null;
+    }
+
+    /**
+     * The dispatcher thread loop that reads the durable operations from the
+     * segment files and dispatches them to the applier workers.
+     */
+    private void dispatch() {
+        int             segmentIndex    = 0;
+        Path            current         = null;
+        FileChannel     channel         = null;
+        SegmentReader   reader          = null;
+        long            lastCheckpoint  = this.recoveredCheckpoint;
+        long            checkpointTime  = System.nanoTime();
+        try {
+            while (!this.isApplierStopped()) {
+                // periodically checkpoint and delete applied segments
+                if (System.nanoTime() - checkpointTime
+                    > TimeUnit.MILLISECONDS.toNanos(CHECKPOINT_INTERVAL_MILLIS))
+                {
+                    checkpointTime = System.nanoTime();
+                    long applied = this.updateApplied();
+                    if (applied > lastCheckpoint) {
+                        this.writeCheckpoint(applied);
+                        lastCheckpoint = applied;
+                        segmentIndex -= this.deleteAppliedSegments(applied, current);
+                    }
+                }
+
+                // determine the readable limit of the current segment
+                long limit;
+                boolean active;
+                this.lock.lock();
+                try {
+                    if (current == null) {
+                        current = this.segments.get(segmentIndex);
+                    }
+                    active = (segmentIndex == this.segments.size() - 1);
+                    limit = active ? this.activeDurableSize : -1L;
+                    if (active && reader != null && reader.offset >= limit) {
+                        this.durableAdvanced.await(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                        continue;
+                    }
+                } finally {
+                    this.lock.unlock();
+                }
+
+                if (channel == null) {
+                    channel = FileChannel.open(current, READ);
+                    reader = new SegmentReader(channel, true);
+                }
+                if (limit < 0L) {
+                    limit = channel.size();
+                }
+
+                // dispatch the frames that are durable
+                String segmentName = current.getFileName().toString();
+                while (!this.isApplierStopped() && reader.next(limit)) {
+                    if (reader.sequence > this.recoveredCheckpoint) {
+                        this.dispatchEntry(reader.toEntry(segmentName));
+                    }
+                    this.dispatchedSequence = reader.sequence;
+                }
+                if (!active && reader.offset >= limit) {
+                    // move to the next segment
+                    reader.close();
+                    channel.close();
+                    reader = null;
+                    channel = null;
+                    current = null;
+                    segmentIndex++;
+                }
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            this.stopApplier(e);
+        } catch (InterruptedException e) {
+            this.stopApplier(e);
+            Thread.currentThread().interrupt();
+        } finally {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignore) {
+                    // ignore
+                }
+            }
+            for (Worker worker : this.workers) {
+                worker.done = true;
+            }
+        }
+    }
+
+    /**
+     * Dispatches the specified {@link Entry} to the worker for its record
+     * key.
+     *
+     * @param entry The {@link Entry} to dispatch.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private void dispatchEntry(Entry entry) throws InterruptedException {
+        SzRecordKey recordKey = entry.recordKey();
+        int hash = recordKey.dataSourceCode().toUpperCase(Locale.ROOT).hashCode() * 31
+            + recordKey.recordId().hashCode();
+        Worker worker = this.workers[Math.floorMod(hash, this.workers.length)];
+
+        // if the worker is idle then advance its completed sequence
+        if (worker.completed.get() == worker.dispatched.get()) {
+            worker.completed.set(entry.sequence() - 1L);
+        }
+        worker.dispatched.set(entry.sequence());
+        while (!worker.queue.offer(entry, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (this.isApplierStopped()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Computes the highest sequence number through which all operations
+     * have been applied and advances the applied sequence number if it is
+     * higher, notifying any waiting threads.
+     *
+     * @return The applied sequence number.
+     */
+    private long updateApplied() {
+        long applied = this.dispatchedSequence;
+        for (Worker worker : this.workers) {
+            long dispatched = worker.dispatched.get();
+            long completed = worker.completed.get();
+            if (completed < dispatched) {
+                applied = Math.min(applied, completed);
+            }
+        }
+        long previous = this.appliedSequence.get();
+        if (applied <= previous) {
+            return previous;
+        }
+        long result = this.appliedSequence.accumulateAndGet(applied, Math::max);
+        synchronized (this.appliedMonitor) {
+            this.appliedMonitor.notifyAll();
+        }
+        return result;
+    }
+
+    /**
+     * Deletes the segments preceding the specified current segment whose
+     * operations have all been applied.
+     *
+     * @param applied The applied sequence number.
+     * @param current The segment currently being read, or <code>null</code>.
+     *
+     * @return The number of segments that were deleted.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    private int deleteAppliedSegments(long applied, Path current) throws IOException {
+        int deleted = 0;
+        while (true) {
+            Path path;
+            this.lock.lock();
+            try {
+                if (this.segments.size() < 2 || this.segments.get(0).equals(current)
+                    || firstSequenceOf(this.segments.get(1)) > applied + 1L)
+                {
+                    return deleted;
+                }
+                path = this.segments.remove(0);
+            } finally {
+                this.lock.unlock();
+            }
+            Files.deleteIfExists(path);
+            deleted++;
+        }
+    }
+
+    /**
+     * Handles the failure to apply the specified entry.
+     *
+     * @param worker The {@link Worker} applying the entry.
+     * @param entry The {@link Entry} that failed.
+     * @param attempt The one-based attempt number that failed.
+     * @param failure The {@link SzException} describing the failure.
+     *
+     * @return <code>true</code> if the entry should be retried, otherwise
+     *         <code>false</code>.
+     *
+     * @throws IOException If the dead-letter sink fails.
+     *
+     * @throws InterruptedException If interrupted during the backoff.
+     */
+    private boolean handleFailure(Worker        worker,
+                                  Entry         entry,
+                                  int           attempt,
+                                  SzException   failure)
+        throws IOException, InterruptedException
+    {
+        Class<? extends SzException> exceptionClass
+            = SzCoreUtilities.resolveExceptionClass(failure);
+        FailureAction action = SzCoreUtilities.classifyFailure(
+            exceptionClass, attempt, this.maxRetries);
+
+        // check if the failure is retryable and retries remain
+        if (action == FailureAction.RETRY) {
+            Thread.sleep(SzCoreUtilities.backoffDelay(
+                attempt, this.retryDelayMillis, this.maxRetryDelayMillis));
+            return !this.isApplierStopped();
+        }
+
+        // check if the failure should stop the applier
+        if (action == FailureAction.STOP) {
+            this.stopApplier(failure);
+            return false;
+        }
+
+        // otherwise write the operation to the dead-letter sink
+        this.failedCount.increment();
+        if (this.deadLetterSink != null) {
+            SzLoadRecord record = worker.record;
+            record.reset();
+            record.setDataSourceCode(entry.recordKey().dataSourceCode());
+            record.setRecordId(entry.recordKey().recordId());
+            record.setSourceName(entry.segmentName());
+            record.setSourceOffset(entry.offset());
+            if (entry.recordDefinition() != null) {
+                record.getRecordDefinition().append(entry.recordDefinition());
+            }
+            this.deadLetterSink.write(
+                new SzDeadLetter(record, failure, exceptionClass, attempt));
+        }
+        return false;
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzWriteAheadJournal{ directory=[ " + this.directory
+            + " ], durableSequence=[ " + this.getDurableSequence()
+            + " ], appliedSequence=[ " + this.getAppliedSequence()
+            + " ], applierThreadCount=[ " + this.workers.length
+            + " ], segmentSize=[ " + this.segmentSize + " ] }";
+    }
+
+    /**
+     * An applier worker that applies the operations for a partition of the
+     * record keys in the order they were journaled.
+     */
+    private final class Worker {
+        /**
+         * The zero-based index of the worker.
+         */
+        private final int index;
+
+        /**
+         * The queue of entries pending being applied.
+         */
+        private final BlockingQueue<Entry> queue
+            = new ArrayBlockingQueue<>(WORKER_QUEUE_CAPACITY);
+
+        /**
+         * The sequence number of the last entry dispatched to this worker.
+         */
+        private final AtomicLong dispatched = new AtomicLong();
+
+        /**
+         * The sequence number of the last entry completed by this worker.
+         */
+        private final AtomicLong completed = new AtomicLong();
+
+        /**
+         * The reusable {@link SzLoadRecord} for dead letters.
+         */
+        private final SzLoadRecord record = new SzLoadRecord();
+
+        /**
+         * Set to <code>true</code> when the dispatcher has stopped.
+         */
+        private volatile boolean done = false;
+
+        /**
+         * The {@link Thread} running this worker.
+         */
+        private Thread thread = null;
+
+        /**
+         * Constructs with the specified index.
+         *
+         * @param index The zero-based index of the worker.
+         */
+        private Worker(int index) {
+            this.index = index;
+        }
+
+        /**
+         * The worker thread loop.
+         */
+        private void run() {
+            SzWriteAheadJournal journal = SzWriteAheadJournal.this;
+            try {
+                while (journal.applierFailure.get() == null) {
+                    Entry entry = this.queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (entry == null) {
+                        if (this.done || journal.closing) {
+                            break;
+                        }
+                        continue;
+                    }
+                    if (journal.closing) {
+                        break;
+                    }
+                    if (this.apply(entry)) {
+                        this.completed.set(entry.sequence());
+                        journal.updateApplied();
+                    }
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                journal.stopApplier(e);
+            } catch (InterruptedException e) {
+                journal.stopApplier(e);
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Applies the specified entry, retrying as needed.
+         *
+         * @param entry The {@link Entry} to apply.
+         *
+         * @return <code>true</code> if the entry was completed (applied or
+         *         dead-lettered), or <code>false</code> if the applier
+         *         stopped before it completed.
+         *
+         * @throws IOException If the dead-letter sink fails.
+         *
+         * @throws InterruptedException If interrupted.
+         */
+        private boolean apply(Entry entry) throws IOException, InterruptedException {
+            SzWriteAheadJournal journal = SzWriteAheadJournal.this;
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    if (entry.operation() == ADD_OPERATION) {
+                        journal.engine.addRecord(entry.recordKey(),
+                                                 entry.recordDefinition(),
+                                                 SZ_ADD_RECORD_DEFAULT_FLAGS);
+                    } else {
+                        journal.engine.deleteRecord(entry.recordKey(),
+                                                    SZ_DELETE_RECORD_DEFAULT_FLAGS);
+                    }
+                    journal.appliedCount.increment();
+                    return true;
+
+                } catch (SzException e) {
+                    if (!journal.handleFailure(this, entry, attempt, e)) {
+                        return journal.applierFailure.get() == null && !journal.closing;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads and validates the frames of a segment file sequentially.
+     */
+    private static final class SegmentReader implements Closeable {
+        /**
+         * The {@link FileChannel} for the segment.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Whether or not to decode the strings of each frame.
+         */
+        private final boolean decode;
+
+        /**
+         * The {@link CRC32C} for validating frames.
+         */
+        private final CRC32C checksum = new CRC32C();
+
+        /**
+         * The read buffer.
+         */
+        private ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+        /**
+         * The file offset of the start of the buffer content.
+         */
+        private long bufferOffset = 0L;
+
+        /**
+         * The file offset immediately after the last valid frame.
+         */
+        private long offset = 0L;
+
+        /**
+         * The sequence number of the last valid frame.
+         */
+        private long sequence = 0L;
+
+        /**
+         * The operation type of the last valid frame.
+         */
+        private byte operation = 0;
+
+        /**
+         * The data source code of the last valid frame (if decoding).
+         */
+        private String dataSource = null;
+
+        /**
+         * The record ID of the last valid frame (if decoding).
+         */
+        private String recordId = null;
+
+        /**
+         * The record definition of the last valid frame (if decoding).
+         */
+        private String definition = null;
+
+        /**
+         * Constructs with the specified {@link FileChannel}.
+         *
+         * @param channel The {@link FileChannel} for the segment.
+         * @param decode Whether or not to decode the strings of each frame.
+         */
+        private SegmentReader(FileChannel channel, boolean decode) {
+            this.channel    = channel;
+            this.decode     = decode;
+            this.buffer.limit(0);
+        }
+
+        /**
+         * Ensures the specified number of bytes starting at the current
+         * offset are in the buffer, without reading past the limit.
+         *
+         * @param count The number of bytes required.
+         * @param limit The file offset limit.
+         *
+         * @return <code>true</code> if the bytes are available, otherwise
+         *         <code>false</code>.
+         *
+         * @throws IOException If a failure occurs.
+         */
+        private boolean require(int count, long limit) throws IOException {
+            if (this.offset + count > limit) {
+                return false;
+            }
+            long bufferEnd = this.bufferOffset + this.buffer.limit();
+            if (this.offset >= this.bufferOffset && this.offset + count <= bufferEnd) {
+                return true;
+            }
+            if (count > this.buffer.capacity()) {
+                this.buffer = ByteBuffer.allocate(count);
+            }
+            this.buffer.clear();
+            this.buffer.limit((int) Math.min(this.buffer.capacity(), limit - this.offset));
+            this.bufferOffset = this.offset;
+            while (this.buffer.hasRemaining()) {
+                if (this.channel.read(this.buffer, this.bufferOffset
+                                      + this.buffer.position()) < 0)
+                {
+                    break;
+                }
+            }
+            this.buffer.flip();
+            return this.buffer.limit() >= count;
+        }
+
+        /**
+         * Reads the next valid frame before the specified limit.
+         *
+         * @param limit The file offset limit.
+         *
+         * @return <code>true</code> if a valid frame was read, or
+         *         <code>false</code> if the limit was reached or the next
+         *         frame is incomplete or invalid.
+         *
+         * @throws IOException If a failure occurs.
+         */
+        private boolean next(long limit) throws IOException {
+            if (!this.require(FRAME_HEADER_SIZE, limit)) {
+                return false;
+            }
+            int start = (int) (this.offset - this.bufferOffset);
+            int payloadSize = this.buffer.getInt(start);
+            int expected = this.buffer.getInt(start + Integer.BYTES);
+            if (payloadSize < FIXED_PAYLOAD_SIZE || payloadSize > MAX_PAYLOAD_SIZE) {
+                return false;
+            }
+            if (!this.require(FRAME_HEADER_SIZE + payloadSize, limit)) {
+                return false;
+            }
+            start = (int) (this.offset - this.bufferOffset);
+            int payloadStart = start + FRAME_HEADER_SIZE;
+            this.checksum.reset();
+            this.checksum.update(this.buffer.array(), payloadStart, payloadSize);
+            if ((int) this.checksum.getValue() != expected) {
+                return false;
+            }
+
+            ByteBuffer  buf         = this.buffer;
+            int         position    = payloadStart;
+            byte[]      array       = buf.array();
+            this.sequence   = buf.getLong(position);
+            this.operation  = buf.get(position + Long.BYTES);
+            position += Long.BYTES + 1;
+            int dataSourceLength = Short.toUnsignedInt(buf.getShort(position));
+            position += Short.BYTES;
+            if (this.decode) {
+                this.dataSource = new String(array, position, dataSourceLength,
+                                             StandardCharsets.UTF_8);
+            }
+            position += dataSourceLength;
+            int recordIdLength = buf.getInt(position);
+            position += Integer.BYTES;
+            if (this.decode) {
+                this.recordId = new String(array, position, recordIdLength,
+                                           StandardCharsets.UTF_8);
+            }
+            position += recordIdLength;
+            int definitionLength = buf.getInt(position);
+            position += Integer.BYTES;
+            if (this.decode) {
+                this.definition = (this.operation == ADD_OPERATION)
+                    ? new String(array, position, definitionLength, StandardCharsets.UTF_8)
+                    : null;
+            }
+            this.offset += FRAME_HEADER_SIZE + payloadSize;
+            return true;
+        }
+
+        /**
+         * Creates an {@link Entry} for the last valid frame.
+         *
+         * @param segmentName The name of the segment file.
+         *
+         * @return The {@link Entry} for the last valid frame.
+         */
+        private Entry toEntry(String segmentName) {
+            return new Entry(this.sequence,
+                             this.operation,
+                             SzRecordKey.of(this.dataSource, this.recordId),
+                             this.definition,
+                             segmentName,
+                             this.offset);
+        }
+
+        /**
+         * Releases the read buffer.  The {@link FileChannel} is closed by
+         * the caller.
+         */
+        @Override
+        public void close() {
+            this.buffer = null;
+        }
+    }
+}
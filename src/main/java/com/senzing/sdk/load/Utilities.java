@@ -0,0 +1,51 @@
+package com.senzing.sdk.load;
+
+final class Utilities {
+    /**
+     * The radix used for hexadecimal (16).
+     */
+    private static final int HEX_RADIX = 16;
+
+    /**
+     * Private default constructor.
+     */
+    private Utilities() {
+        // do nothing
+    }
+
+    /**
+     * Checks if the specified {@link CharSequence} has the same characters
+     * as the specified range of the specified character array.
+     *
+     * @param text The {@link CharSequence} to compare, or <code>null</code>.
+     * @param chars The character array.
+     * @param start The starting index (inclusive) in the array.
+     * @param end The ending index (exclusive) in the array.
+     *
+     * @return <code>true</code> if equal, otherwise <code>false</code>.
+     */
+    static boolean contentEquals(CharSequence text, char[] chars, int start, int end) {
+        if (text == null || text.length() != (end - start)) {
+            return false;
+        }
+        for (int index = start; index < end; index++) {
+            if (text.charAt(index - start) != chars[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Formats the specified character for use in an error message.
+     *
+     * @param c The character to format.
+     *
+     * @return The formatted {@link String}.
+     */
+    static String formatChar(char c) {
+        return (c >= ' ' && c < '\u007f')
+            ? "'" + c + "'"
+            : "\\u" + Integer.toString(c, HEX_RADIX);
+    }
+}
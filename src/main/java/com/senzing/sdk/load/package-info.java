@@ -0,0 +1,8 @@
+/**
+ * This package provides a bulk loading facility for the Senzing SDK for
+ * Java built on the {@link com.senzing.sdk.SzEngine} interface.  The
+ * {@link com.senzing.sdk.load.SzBulkLoader} reads records from one or more
+ * {@link com.senzing.sdk.load.SzRecordSource} instances in parallel and
+ * adds them to the repository using a pool of worker threads.
+ */
+package com.senzing.sdk.load;
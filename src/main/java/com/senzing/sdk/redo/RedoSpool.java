@@ -0,0 +1,716 @@
+package com.senzing.sdk.redo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Provides a durable first-in-first-out queue of redo records in a local
+ * directory of append-only segment files, which holds the redo records that
+ * are spilled from the repository until they are replayed.
+ *
+ * <p>
+ * Each redo record is identified by its zero-based ordinal in the order it
+ * was {@linkplain #append(String) appended}, and each segment file is named
+ * for the ordinal of its first redo record.  A redo record is written as a
+ * frame consisting of its payload length and the {@link CRC32C} checksum of
+ * its payload (each as a 4-byte integer) followed by its UTF-8 encoded
+ * payload, and is forced to disk before {@link #append(String)} returns.
+ * </p>
+ *
+ * <p>
+ * The redo records {@linkplain #next() read} for replay are {@linkplain
+ * #acknowledge(long) acknowledged} once processed, possibly out of order.
+ * The ordinal before which every redo record has been acknowledged is
+ * periodically written to a checkpoint file, and segment files that lie
+ * entirely before the checkpoint are deleted.  On opening, segment files
+ * are validated, the torn frames (if any) at the end of the last segment
+ * file are truncated and reading resumes from the checkpoint.  Redo records
+ * acknowledged after the last checkpoint are therefore replayed again after
+ * a crash, which is safe since a redo record re-evaluates its target as of
+ * when it is processed.
+ * </p>
+ *
+ * <p>
+ * Instances of this class are thread-safe.
+ * </p>
+ */
+final class RedoSpool implements Closeable {
+    /**
+     * The file name prefix for segment files.
+     */
+    private static final String SEGMENT_PREFIX = "redo-";
+
+    /**
+     * The file name suffix for segment files.
+     */
+    private static final String SEGMENT_SUFFIX = ".spool";
+
+    /**
+     * The format for segment file names from their first ordinal.
+     */
+    private static final String SEGMENT_FORMAT = SEGMENT_PREFIX + "%020d" + SEGMENT_SUFFIX;
+
+    /**
+     * The name of the checkpoint file.
+     */
+    private static final String CHECKPOINT_FILE = "replayed.checkpoint";
+
+    /**
+     * The suffix for temporary files.
+     */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * The number of bytes in the frame header.
+     */
+    private static final int FRAME_HEADER_SIZE = 2 * Integer.BYTES;
+
+    /**
+     * The maximum payload size of a frame, beyond which a frame is deemed
+     * corrupt.
+     */
+    private static final int MAX_PAYLOAD_SIZE = 1 << 30;
+
+    /**
+     * The number of acknowledgements between checkpoints.
+     */
+    static final int CHECKPOINT_INTERVAL = 1000;
+
+    /**
+     * Describes a redo record read from the spool.
+     */
+    static final class Entry {
+        /**
+         * The ordinal of the redo record.
+         */
+        private final long ordinal;
+
+        /**
+         * The redo record.
+         */
+        private final String redoRecord;
+
+        /**
+         * Constructs with the specified parameters.
+         *
+         * @param ordinal The ordinal of the redo record.
+         * @param redoRecord The redo record.
+         */
+        private Entry(long ordinal, String redoRecord) {
+            this.ordinal    = ordinal;
+            this.redoRecord = redoRecord;
+        }
+
+        /**
+         * Gets the ordinal of the redo record with which it is {@linkplain
+         * RedoSpool#acknowledge(long) acknowledged}.
+         *
+         * @return The ordinal of the redo record.
+         */
+        long getOrdinal() {
+            return this.ordinal;
+        }
+
+        /**
+         * Gets the redo record.
+         *
+         * @return The redo record.
+         */
+        String getRedoRecord() {
+            return this.redoRecord;
+        }
+    }
+
+    /**
+     * Describes a segment file.
+     */
+    private static final class Segment {
+        /**
+         * The {@link Path} of the segment file.
+         */
+        private final Path path;
+
+        /**
+         * The ordinal of the first redo record in the segment.
+         */
+        private final long firstOrdinal;
+
+        /**
+         * Constructs with the specified parameters.
+         *
+         * @param path The {@link Path} of the segment file.
+         * @param firstOrdinal The ordinal of the first redo record.
+         */
+        private Segment(Path path, long firstOrdinal) {
+            this.path           = path;
+            this.firstOrdinal   = firstOrdinal;
+        }
+    }
+
+    /**
+     * The directory containing the segment files.
+     */
+    private final Path directory;
+
+    /**
+     * The number of bytes after which a new segment file is started.
+     */
+    private final long segmentSize;
+
+    /**
+     * The {@link Segment} instances in order of their first ordinal.
+     */
+    private final List<Segment> segments = new ArrayList<>();
+
+    /**
+     * The {@link FileChannel} of the last segment to which redo records are
+     * appended, or <code>null</code> if none is open.
+     */
+    private FileChannel appendChannel = null;
+
+    /**
+     * The ordinal of the next redo record to be appended.
+     */
+    private long appendOrdinal;
+
+    /**
+     * The index of the segment from which redo records are being read.
+     */
+    private int readIndex = 0;
+
+    /**
+     * The {@link FileChannel} of the segment from which redo records are
+     * being read, or <code>null</code> if none is open.
+     */
+    private FileChannel readChannel = null;
+
+    /**
+     * The file offset of the next frame to read.
+     */
+    private long readOffset = 0L;
+
+    /**
+     * The ordinal of the next redo record to be read.
+     */
+    private long readOrdinal;
+
+    /**
+     * The ordinals of the redo records that have been read but not yet
+     * acknowledged.
+     */
+    private final TreeSet<Long> outstanding = new TreeSet<>();
+
+    /**
+     * The ordinal before which every redo record has been acknowledged as
+     * of the last checkpoint.
+     */
+    private long checkpoint;
+
+    /**
+     * The number of acknowledgements since the last checkpoint.
+     */
+    private int uncheckpointed = 0;
+
+    /**
+     * The {@link CRC32C} for computing frame checksums.
+     */
+    private final CRC32C checksum = new CRC32C();
+
+    /**
+     * Whether or not this instance has been closed.
+     */
+    private boolean closed = false;
+
+    /**
+     * Opens the spool in the specified directory (creating it if it does not
+     * exist), recovering any redo records that were spilled previously and
+     * have not been acknowledged.
+     *
+     * @param directory The directory containing the segment files.
+     * @param segmentSize The number of bytes after which a new segment file
+     *                    is started.
+     *
+     * @throws IOException If the spool cannot be opened or is corrupt.
+     */
+    RedoSpool(Path directory, long segmentSize) throws IOException {
+        this.directory      = directory;
+        this.segmentSize    = segmentSize;
+        Files.createDirectories(directory);
+        this.checkpoint     = this.readCheckpoint();
+        this.appendOrdinal  = Math.max(this.recover(), this.checkpoint);
+        this.readOrdinal    = this.segments.isEmpty() ? this.checkpoint
+            : Math.max(this.checkpoint, this.segments.get(0).firstOrdinal);
+        this.seek(this.readOrdinal);
+    }
+
+    /**
+     * Gets the directory containing the segment files.
+     *
+     * @return The directory containing the segment files.
+     */
+    Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Gets the number of redo records that have been appended but not yet
+     * read for replay.
+     *
+     * @return The number of redo records awaiting replay.
+     */
+    synchronized long size() {
+        return this.appendOrdinal - this.readOrdinal;
+    }
+
+    /**
+     * Appends the specified redo record and forces it to disk.
+     *
+     * @param redoRecord The redo record to append.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    synchronized void append(String redoRecord) throws IOException {
+        this.ensureOpen();
+        byte[] payload = redoRecord.getBytes(StandardCharsets.UTF_8);
+        if (this.appendChannel != null && this.appendChannel.size() >= this.segmentSize) {
+            this.appendChannel.close();
+            this.appendChannel = null;
+        }
+        if (this.appendChannel == null) {
+            Segment segment = new Segment(this.directory.resolve(
+                String.format(SEGMENT_FORMAT, this.appendOrdinal)), this.appendOrdinal);
+            Files.deleteIfExists(segment.path);
+            this.appendChannel = FileChannel.open(segment.path, CREATE_NEW, WRITE);
+            this.segments.add(segment);
+            this.syncDirectory();
+        }
+        this.checksum.reset();
+        this.checksum.update(payload, 0, payload.length);
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) this.checksum.getValue());
+        buffer.put(payload);
+        buffer.flip();
+        long position = this.appendChannel.size();
+        while (buffer.hasRemaining()) {
+            position += this.appendChannel.write(buffer, position);
+        }
+        this.appendChannel.force(false);
+        this.appendOrdinal++;
+    }
+
+    /**
+     * Reads the next redo record for replay, which must later be {@linkplain
+     * #acknowledge(long) acknowledged}.
+     *
+     * @return The next {@link Entry}, or <code>null</code> if every redo
+     *         record that was appended has been read.
+     *
+     * @throws IOException If a failure occurs or a segment is corrupt.
+     */
+    synchronized Entry next() throws IOException {
+        this.ensureOpen();
+        if (this.readOrdinal >= this.appendOrdinal) {
+            return null;
+        }
+        // advance to the segment containing the next ordinal
+        while (this.readIndex < this.segments.size() - 1
+               && this.segments.get(this.readIndex + 1).firstOrdinal <= this.readOrdinal)
+        {
+            this.closeReader();
+            this.readIndex++;
+            this.readOffset = 0L;
+        }
+        Segment segment = this.segments.get(this.readIndex);
+        if (this.readChannel == null) {
+            this.readChannel = FileChannel.open(segment.path, READ);
+        }
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        if (!this.read(this.readChannel, header, this.readOffset)) {
+            throw new IOException("Truncated spool segment at byte offset "
+                + this.readOffset + ": " + segment.path);
+        }
+        int payloadSize = header.getInt(0);
+        if (payloadSize < 0 || payloadSize > MAX_PAYLOAD_SIZE) {
+            throw new IOException("Corrupt spool segment at byte offset "
+                + this.readOffset + ": " + segment.path);
+        }
+        ByteBuffer payload = ByteBuffer.allocate(payloadSize);
+        if (!this.read(this.readChannel, payload, this.readOffset + FRAME_HEADER_SIZE)) {
+            throw new IOException("Truncated spool segment at byte offset "
+                + this.readOffset + ": " + segment.path);
+        }
+        this.checksum.reset();
+        this.checksum.update(payload.array(), 0, payloadSize);
+        if ((int) this.checksum.getValue() != header.getInt(Integer.BYTES)) {
+            throw new IOException("Corrupt spool segment at byte offset "
+                + this.readOffset + ": " + segment.path);
+        }
+        this.readOffset += FRAME_HEADER_SIZE + payloadSize;
+        long ordinal = this.readOrdinal++;
+        this.outstanding.add(ordinal);
+        return new Entry(ordinal, new String(payload.array(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Acknowledges that the redo record with the specified ordinal has been
+     * replayed, writing a checkpoint and deleting the fully replayed segment
+     * files every {@link #CHECKPOINT_INTERVAL} acknowledgements.
+     *
+     * @param ordinal The ordinal of the replayed redo record.
+     *
+     * @throws IOException If a failure occurs writing the checkpoint.
+     */
+    synchronized void acknowledge(long ordinal) throws IOException {
+        if (!this.outstanding.remove(ordinal) || this.closed) {
+            return;
+        }
+        if (++this.uncheckpointed >= CHECKPOINT_INTERVAL) {
+            this.checkpoint();
+        }
+    }
+
+    /**
+     * Writes a checkpoint (if it has advanced) and closes the segment files.
+     * The redo records that have not been acknowledged are replayed when the
+     * spool is next opened.  This method is idempotent.
+     *
+     * @throws IOException If a failure occurs writing the checkpoint.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        try {
+            this.checkpoint();
+        } finally {
+            this.closed = true;
+            this.closeReader();
+            if (this.appendChannel != null) {
+                this.appendChannel.close();
+                this.appendChannel = null;
+            }
+        }
+    }
+
+    /**
+     * Ensures this instance has not been closed.
+     *
+     * @throws IOException If this instance has been closed.
+     */
+    private void ensureOpen() throws IOException {
+        if (this.closed) {
+            throw new IOException("The redo spool has been closed: " + this.directory);
+        }
+    }
+
+    /**
+     * Writes the checkpoint if it has advanced and deletes the segment files
+     * that lie entirely before it.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    private void checkpoint() throws IOException {
+        this.uncheckpointed = 0;
+        long ordinal = this.outstanding.isEmpty()
+            ? this.readOrdinal : this.outstanding.first();
+        if (ordinal <= this.checkpoint) {
+            return;
+        }
+        this.writeCheckpoint(ordinal);
+        this.checkpoint = ordinal;
+        this.deleteReplayedSegments();
+    }
+
+    /**
+     * Deletes the segment files (other than the one being appended) whose
+     * redo records all precede the checkpoint.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    private void deleteReplayedSegments() throws IOException {
+        while (this.segments.size() > 1
+               && this.segments.get(1).firstOrdinal <= this.checkpoint
+               && this.readIndex > 0)
+        {
+            Files.delete(this.segments.remove(0).path);
+            this.readIndex--;
+        }
+    }
+
+    /**
+     * Positions the reader at the redo record with the specified ordinal.
+     *
+     * @param ordinal The ordinal of the next redo record to read.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    private void seek(long ordinal) throws IOException {
+        this.readIndex  = 0;
+        this.readOffset = 0L;
+        while (this.readIndex < this.segments.size() - 1
+               && this.segments.get(this.readIndex + 1).firstOrdinal <= ordinal)
+        {
+            this.readIndex++;
+        }
+        if (this.segments.isEmpty()) {
+            return;
+        }
+        Segment segment = this.segments.get(this.readIndex);
+        try (FileChannel channel = FileChannel.open(segment.path, READ)) {
+            ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+            for (long skip = ordinal - segment.firstOrdinal; skip > 0L; skip--) {
+                header.clear();
+                if (!this.read(channel, header, this.readOffset)) {
+                    throw new IOException("Truncated spool segment at byte offset "
+                        + this.readOffset + ": " + segment.path);
+                }
+                this.readOffset += FRAME_HEADER_SIZE + header.getInt(0);
+            }
+        }
+        this.deleteReplayedSegments();
+    }
+
+    /**
+     * Recovers the existing segment files by validating their frames,
+     * truncating any torn frames at the end of the last segment and
+     * deleting empty segments.
+     *
+     * @return The ordinal of the next redo record to be appended.
+     *
+     * @throws IOException If a segment is corrupt.
+     */
+    private long recover() throws IOException {
+        List<Path> existing = this.listSegments();
+        long nextOrdinal = 0L;
+        for (int index = 0; index < existing.size(); index++) {
+            Path path = existing.get(index);
+            boolean last = (index == existing.size() - 1);
+            long firstOrdinal = firstOrdinalOf(path);
+            if (firstOrdinal < nextOrdinal) {
+                throw new IOException("Overlapping spool segment: " + path);
+            }
+            long count = 0L;
+            long offset = 0L;
+            try (FileChannel channel = FileChannel.open(path, READ, WRITE)) {
+                long size = channel.size();
+                while (offset < size) {
+                    long frameSize = this.validateFrame(channel, offset, size);
+                    if (frameSize < 0L) {
+                        break;
+                    }
+                    offset += frameSize;
+                    count++;
+                }
+                if (offset < size) {
+                    if (!last) {
+                        throw new IOException("Corrupt spool segment at byte offset "
+                            + offset + ": " + path);
+                    }
+                    // truncate the torn frames from a crash mid-write
+                    channel.truncate(offset);
+                    channel.force(true);
+                }
+            }
+            if (count == 0L) {
+                Files.delete(path);
+                continue;
+            }
+            this.segments.add(new Segment(path, firstOrdinal));
+            nextOrdinal = firstOrdinal + count;
+        }
+        return nextOrdinal;
+    }
+
+    /**
+     * Validates the frame at the specified offset of the specified channel.
+     *
+     * @param channel The {@link FileChannel} of the segment.
+     * @param offset The file offset of the frame.
+     * @param size The size of the segment file.
+     *
+     * @return The size of the frame in bytes, or negative one (-1) if the
+     *         frame is incomplete or invalid.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    private long validateFrame(FileChannel channel, long offset, long size)
+        throws IOException
+    {
+        if (offset + FRAME_HEADER_SIZE > size) {
+            return -1L;
+        }
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        if (!this.read(channel, header, offset)) {
+            return -1L;
+        }
+        int payloadSize = header.getInt(0);
+        if (payloadSize < 0 || payloadSize > MAX_PAYLOAD_SIZE
+            || offset + FRAME_HEADER_SIZE + payloadSize > size)
+        {
+            return -1L;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(payloadSize);
+        if (!this.read(channel, payload, offset + FRAME_HEADER_SIZE)) {
+            return -1L;
+        }
+        this.checksum.reset();
+        this.checksum.update(payload.array(), 0, payloadSize);
+        if ((int) this.checksum.getValue() != header.getInt(Integer.BYTES)) {
+            return -1L;
+        }
+        return FRAME_HEADER_SIZE + payloadSize;
+    }
+
+    /**
+     * Fills the specified buffer from the specified channel starting at the
+     * specified file offset.
+     *
+     * @param channel The {@link FileChannel} to read from.
+     * @param buffer The {@link ByteBuffer} to fill.
+     * @param offset The file offset at which to start reading.
+     *
+     * @return <code>true</code> if the buffer was filled, or
+     *         <code>false</code> if the end of the file was reached first.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    private boolean read(FileChannel channel, ByteBuffer buffer, long offset)
+        throws IOException
+    {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Closes the {@link FileChannel} of the segment being read, if any.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    private void closeReader() throws IOException {
+        if (this.readChannel != null) {
+            this.readChannel.close();
+            this.readChannel = null;
+        }
+    }
+
+    /**
+     * Forces the directory entries to disk so that newly created or renamed
+     * files survive a crash.  This is not supported on all platforms, in
+     * which case it is silently skipped.
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(this.directory, READ)) {
+            channel.force(true);
+        } catch (IOException ignore) {
+            // not supported on this platform
+        }
+    }
+
+    /**
+     * Reads the checkpoint file.
+     *
+     * @return The ordinal from the checkpoint file, or zero (0) if there is
+     *         no checkpoint file.
+     *
+     * @throws IOException If the checkpoint file is corrupt.
+     */
+    private long readCheckpoint() throws IOException {
+        Path path = this.directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return 0L;
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length != Long.BYTES + Integer.BYTES) {
+            throw new IOException("Corrupt spool checkpoint file: " + path);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long ordinal = buffer.getLong();
+        this.checksum.reset();
+        this.checksum.update(bytes, 0, Long.BYTES);
+        if (buffer.getInt() != (int) this.checksum.getValue()) {
+            throw new IOException("Corrupt spool checkpoint file: " + path);
+        }
+        return ordinal;
+    }
+
+    /**
+     * Atomically replaces the checkpoint file with the specified ordinal.
+     *
+     * @param ordinal The ordinal before which every redo record has been
+     *                acknowledged.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    private void writeCheckpoint(long ordinal) throws IOException {
+        Path path = this.directory.resolve(CHECKPOINT_FILE);
+        Path temp = this.directory.resolve(CHECKPOINT_FILE + TEMP_SUFFIX);
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES);
+        buffer.putLong(ordinal);
+        this.checksum.reset();
+        this.checksum.update(buffer.array(), 0, Long.BYTES);
+        buffer.putInt((int) this.checksum.getValue());
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(temp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+        this.syncDirectory();
+    }
+
+    /**
+     * Lists the segment files in the spool directory in order.
+     *
+     * @return The {@link List} of segment file {@link Path} instances.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> stream = Files.list(this.directory)) {
+            return stream.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    /**
+     * Gets the ordinal of the first redo record of the segment with the
+     * specified {@link Path} from its file name.
+     *
+     * @param path The {@link Path} of the segment.
+     *
+     * @return The ordinal of the first redo record of the segment.
+     */
+    private static long firstOrdinalOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(
+            SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,244 @@
+package com.senzing.sdk.redo;
+
+/**
+ * Parses the minimal target information from a redo record so that redo
+ * records that would re-evaluate the same record or entity can be
+ * coalesced.  Only the top-level properties of the redo record JSON are
+ * scanned (nested objects and arrays are skipped) and string values are
+ * compared in their JSON-escaped form, so no JSON object model is built.
+ *
+ * <p>
+ * A redo record has a target if it identifies a record by its
+ * <code>"DATA_SOURCE"</code> and <code>"RECORD_ID"</code> properties, or
+ * an entity by an <code>"ENTITY_ID"</code> or <code>"RES_ENT_ID"</code>
+ * property, and it either has no <code>"DSRC_ACTION"</code> property or
+ * its action is <code>"X"</code> (i.e.: re-evaluation), for example:
+ * <pre>
+ *   {
+ *     "REASON": "LibFeatID[?] of FTypeID[7] went generic for CANDIDATES",
+ *     "DATA_SOURCE": "CUSTOMERS",
+ *     "RECORD_ID": "1001",
+ *     "REEVAL_ITERATION": 1,
+ *     "ENTITY_CORRUPTION_TRANSIENT": false,
+ *     "DSRC_ACTION": "X"
+ *   }
+ * </pre>
+ * Redo records in any other form have no target and are never coalesced.
+ * </p>
+ */
+final class RedoTarget {
+    /**
+     * The property name for the data source code.
+     */
+    private static final String DATA_SOURCE_KEY = "\"DATA_SOURCE\"";
+
+    /**
+     * The property name for the record ID.
+     */
+    private static final String RECORD_ID_KEY = "\"RECORD_ID\"";
+
+    /**
+     * The property name for the entity ID.
+     */
+    private static final String ENTITY_ID_KEY = "\"ENTITY_ID\"";
+
+    /**
+     * The property name for the resolved entity ID.
+     */
+    private static final String RES_ENT_ID_KEY = "\"RES_ENT_ID\"";
+
+    /**
+     * The property name for the data source action.
+     */
+    private static final String DSRC_ACTION_KEY = "\"DSRC_ACTION\"";
+
+    /**
+     * The JSON text of the re-evaluation data source action.
+     */
+    private static final String REEVALUATE_ACTION = "\"X\"";
+
+    /**
+     * The prefix for the targets of redo records targeting a record.
+     */
+    private static final String RECORD_PREFIX = "RECORD:";
+
+    /**
+     * The prefix for the targets of redo records targeting an entity.
+     */
+    private static final String ENTITY_PREFIX = "ENTITY:";
+
+    /**
+     * Private default constructor.
+     */
+    private RedoTarget() {
+        // do nothing
+    }
+
+    /**
+     * Parses the target of the specified redo record.
+     *
+     * @param redoRecord The redo record JSON text.
+     *
+     * @return The target of the redo record, which is equal for redo records
+     *         that re-evaluate the same record or entity, or
+     *         <code>null</code> if the redo record has no target or could
+     *         not be interpreted.
+     */
+    static String parse(String redoRecord) {
+        String dataSource   = null;
+        String recordId     = null;
+        String entityId     = null;
+        String action       = null;
+
+        int length = redoRecord.length();
+        int index = skipWhiteSpace(redoRecord, 0);
+        if (index >= length || redoRecord.charAt(index++) != '{') {
+            return null;
+        }
+        while (true) {
+            index = skipWhiteSpace(redoRecord, index);
+            if (index >= length) {
+                return null;
+            }
+            if (redoRecord.charAt(index) == '}') {
+                break;
+            }
+            // read the property name and the colon
+            int keyEnd = skipValue(redoRecord, index);
+            if (keyEnd < 0 || redoRecord.charAt(index) != '"') {
+                return null;
+            }
+            String key = redoRecord.substring(index, keyEnd);
+            index = skipWhiteSpace(redoRecord, keyEnd);
+            if (index >= length || redoRecord.charAt(index++) != ':') {
+                return null;
+            }
+
+            // read the value
+            index = skipWhiteSpace(redoRecord, index);
+            int valueEnd = skipValue(redoRecord, index);
+            if (valueEnd < 0) {
+                return null;
+            }
+            switch (key) {
+                case DATA_SOURCE_KEY:
+                    dataSource = redoRecord.substring(index, valueEnd);
+                    break;
+                case RECORD_ID_KEY:
+                    recordId = redoRecord.substring(index, valueEnd);
+                    break;
+                case ENTITY_ID_KEY, RES_ENT_ID_KEY:
+                    entityId = unquote(redoRecord.substring(index, valueEnd));
+                    break;
+                case DSRC_ACTION_KEY:
+                    action = redoRecord.substring(index, valueEnd);
+                    break;
+                default:
+                    // ignore the property
+            }
+
+            // read the comma (if any)
+            index = skipWhiteSpace(redoRecord, valueEnd);
+            if (index < length && redoRecord.charAt(index) == ',') {
+                index++;
+            }
+        }
+
+        if (action != null && !action.equals(REEVALUATE_ACTION)) {
+            return null;
+        }
+        if (dataSource != null && recordId != null
+            && dataSource.charAt(0) == '"' && recordId.charAt(0) == '"')
+        {
+            return RECORD_PREFIX + dataSource + recordId;
+        }
+        if (entityId != null && !entityId.isEmpty()) {
+            return ENTITY_PREFIX + entityId;
+        }
+        return null;
+    }
+
+    /**
+     * Removes the surrounding double quotes (if any) from the specified
+     * JSON value text.
+     *
+     * @param value The JSON value text.
+     *
+     * @return The value text without surrounding double quotes.
+     */
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.charAt(0) == '"') {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    /**
+     * Finds the index just beyond the JSON value that starts at the
+     * specified index, which may be a string, an object, an array or a
+     * number or literal.
+     *
+     * @param text The JSON text.
+     * @param start The index at which the value starts.
+     *
+     * @return The index just beyond the value, or negative one (-1) if the
+     *         value is not terminated.
+     */
+    private static int skipValue(String text, int start) {
+        int length = text.length();
+        if (start >= length) {
+            return -1;
+        }
+        int depth = 0;
+        int index = start;
+        do {
+            char c = text.charAt(index++);
+            switch (c) {
+                case '"':
+                    while (index < length && text.charAt(index) != '"') {
+                        index += (text.charAt(index) == '\\') ? 2 : 1;
+                    }
+                    if (index >= length) {
+                        return -1;
+                    }
+                    index++;
+                    break;
+                case '{', '[':
+                    depth++;
+                    break;
+                case '}', ']':
+                    depth--;
+                    if (depth < 0) {
+                        return -1;
+                    }
+                    break;
+                default:
+                    if (depth == 0) {
+                        // a number or literal ends at a delimiter
+                        while (index < length && ",}] \t\r\n".indexOf(text.charAt(index)) < 0) {
+                            index++;
+                        }
+                    }
+            }
+        } while (depth > 0 && index < length);
+        return (depth == 0) ? index : -1;
+    }
+
+    /**
+     * Finds the index of the first non-whitespace character at or after the
+     * specified index in the specified text.
+     *
+     * @param text The text to search.
+     * @param fromIndex The starting index.
+     *
+     * @return The index of the first non-whitespace character, or the length
+     *         of the text if there is none.
+     */
+    private static int skipWhiteSpace(String text, int fromIndex) {
+        int index = fromIndex;
+        while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,607 @@
+package com.senzing.sdk.redo;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.senzing.sdk.SzFlag;
+import com.senzing.sdk.SzInfoExtractor;
+
+/**
+ * Provides a {@link Flow.Publisher} of the entity ID's affected by write
+ * operations, which serves as an incremental change feed for downstream
+ * consumers (e.g.: search indexes) that would otherwise have to re-export
+ * every entity to learn which have changed.  The affected entity ID's are
+ * {@linkplain #publish(CharSequence) extracted} from the INFO responses
+ * returned by operations invoked with {@link SzFlag#SZ_WITH_INFO}, such as
+ * the redo records processed by an {@link SzRedoProcessor} with a
+ * {@linkplain SzRedoProcessor.Builder#changeFeed(SzEntityChangeFeed)
+ * change feed}.
+ *
+ * <p>
+ * Each affected entity ID is held for the {@linkplain
+ * Builder#windowMillis(long) deduplication window} before it is published,
+ * and the entity ID is {@linkplain #getDeduplicatedCount() deduplicated}
+ * if it is affected again while held.  Since an entity ID is published
+ * only after its window has elapsed, a subscriber that reads the entity
+ * when notified observes every change made within the window.  The held
+ * entity ID's are published in the order they were first affected by a
+ * daemon thread of this instance.
+ * </p>
+ *
+ * <p>
+ * Backpressure is applied end to end.  Each subscriber has a bounded
+ * {@linkplain Builder#maxBufferCapacity(int) buffer} and the publishing
+ * thread waits while the buffer of any subscriber is full, in which case
+ * the held entity ID's accumulate up to the {@linkplain
+ * Builder#capacity(int) capacity} and then {@link #publish(long)} waits
+ * for space, which in turn slows the redo processing that feeds it to the
+ * pace of the slowest subscriber.  Entity ID's affected while there are no
+ * subscribers are dropped.
+ * </p>
+ *
+ * <p>
+ * {@linkplain #close() Closing} this instance publishes the held entity
+ * ID's and then completes every subscriber.
+ * </p>
+ *
+ * <p>
+ * Instances of this class are thread-safe.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzEntityChangeFeed implements Flow.Publisher<Long>, AutoCloseable {
+    /**
+     * The default number of milliseconds for which each affected entity ID
+     * is held for deduplication before it is published.
+     */
+    public static final long DEFAULT_WINDOW_MILLIS = 1000L;
+
+    /**
+     * The default maximum number of affected entity ID's held for
+     * deduplication.
+     */
+    public static final int DEFAULT_CAPACITY = 100000;
+
+    /**
+     * The {@link System.Logger} for logging malformed INFO responses.
+     */
+    private static final Logger LOGGER = System.getLogger(SzEntityChangeFeed.class.getName());
+
+    /**
+     * Provides a builder class for creating instances of {@link
+     * SzEntityChangeFeed}.
+     *
+     * @since 4.4.0
+     */
+    public static final class Builder {
+        /**
+         * The number of milliseconds each entity ID is held.
+         */
+        private long windowMillis = DEFAULT_WINDOW_MILLIS;
+
+        /**
+         * The maximum number of entity ID's held.
+         */
+        private int capacity = DEFAULT_CAPACITY;
+
+        /**
+         * The maximum buffer capacity for each subscriber.
+         */
+        private int maxBufferCapacity = Flow.defaultBufferSize();
+
+        /**
+         * The {@link Executor} for delivering to subscribers.
+         */
+        private Executor executor = ForkJoinPool.commonPool();
+
+        /**
+         * Private default constructor.
+         */
+        private Builder() {
+            // do nothing
+        }
+
+        /**
+         * Sets the number of milliseconds for which each affected entity ID
+         * is held before it is published, during which it is deduplicated.
+         * The default is {@link #DEFAULT_WINDOW_MILLIS}.
+         *
+         * @param windowMillis The non-negative number of milliseconds, or
+         *                     zero (0) to only deduplicate the entity ID's
+         *                     held while a subscriber applies backpressure.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified window is
+         *                                  negative.
+         *
+         * @since 4.4.0
+         */
+        public Builder windowMillis(long windowMillis) throws IllegalArgumentException {
+            if (windowMillis < 0L) {
+                throw new IllegalArgumentException(
+                    "The deduplication window cannot be negative: " + windowMillis);
+            }
+            this.windowMillis = windowMillis;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of affected entity ID's held for
+         * deduplication, beyond which {@link SzEntityChangeFeed#publish(long)}
+         * waits for the held entity ID's to be published.  The default is
+         * {@link #DEFAULT_CAPACITY}.
+         *
+         * @param capacity The positive maximum number of entity ID's.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified capacity is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder capacity(int capacity) throws IllegalArgumentException {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException(
+                    "The capacity must be positive: " + capacity);
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of entity ID's buffered for each
+         * subscriber that has not yet requested them, which is rounded up
+         * to a power of two.  The default is {@link Flow#defaultBufferSize()}.
+         *
+         * @param capacity The positive maximum buffer capacity.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified capacity is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxBufferCapacity(int capacity) throws IllegalArgumentException {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException(
+                    "The maximum buffer capacity must be positive: " + capacity);
+            }
+            this.maxBufferCapacity = capacity;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Executor} with which entity ID's are delivered to
+         * the subscribers.  The default is {@link ForkJoinPool#commonPool()}.
+         *
+         * @param executor The {@link Executor} for delivery.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder executor(Executor executor) throws NullPointerException {
+            this.executor = Objects.requireNonNull(executor, "The executor cannot be null");
+            return this;
+        }
+
+        /**
+         * Builds a new {@link SzEntityChangeFeed} from this builder, which
+         * starts its publishing thread.
+         *
+         * @return The newly constructed {@link SzEntityChangeFeed}.
+         *
+         * @since 4.4.0
+         */
+        public SzEntityChangeFeed build() {
+            return new SzEntityChangeFeed(this);
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for building an {@link
+     * SzEntityChangeFeed}.
+     *
+     * @return The new {@link Builder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * The number of nanoseconds each entity ID is held.
+     */
+    private final long windowNanos;
+
+    /**
+     * The maximum number of entity ID's held.
+     */
+    private final int capacity;
+
+    /**
+     * The {@link SubmissionPublisher} that delivers to the subscribers.
+     */
+    private final SubmissionPublisher<Long> publisher;
+
+    /**
+     * The {@link System#nanoTime()} at which each held entity ID was first
+     * affected, keyed by entity ID in that order (guarded by {@link
+     * #monitor}).
+     */
+    private final Map<Long, Long> pending = new LinkedHashMap<>();
+
+    /**
+     * Whether or not this instance has been closed (guarded by {@link
+     * #monitor}).
+     */
+    private boolean closed = false;
+
+    /**
+     * The publishing thread.
+     */
+    private final Thread publishing;
+
+    /**
+     * The number of entity ID's that were published.
+     */
+    private final LongAdder publishedCount = new LongAdder();
+
+    /**
+     * The number of entity ID's that were deduplicated.
+     */
+    private final LongAdder deduplicatedCount = new LongAdder();
+
+    /**
+     * The number of entity ID's that were dropped for lack of subscribers.
+     */
+    private final LongAdder droppedCount = new LongAdder();
+
+    /**
+     * Internal object for instance-wide synchronized locking.
+     */
+    private final Object monitor = new Object();
+
+    /**
+     * Private constructor for constructing with a {@link Builder}.
+     *
+     * @param builder The {@link Builder} from which to construct.
+     */
+    private SzEntityChangeFeed(Builder builder) {
+        this.windowNanos    = TimeUnit.MILLISECONDS.toNanos(builder.windowMillis);
+        this.capacity       = builder.capacity;
+        this.publisher      = new SubmissionPublisher<>(
+            builder.executor, builder.maxBufferCapacity);
+        this.publishing     = new Thread(this::run, "SzEntityChangeFeed-publisher");
+        this.publishing.setDaemon(true);
+        this.publishing.start();
+    }
+
+    /**
+     * Gets the number of milliseconds for which each affected entity ID is
+     * held before it is published.
+     *
+     * @return The deduplication window in milliseconds.
+     *
+     * @since 4.4.0
+     */
+    public long getWindowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.windowNanos);
+    }
+
+    /**
+     * Gets the maximum number of affected entity ID's held for
+     * deduplication.
+     *
+     * @return The maximum number of entity ID's held.
+     *
+     * @since 4.4.0
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Gets the maximum number of entity ID's buffered for each subscriber.
+     *
+     * @return The maximum buffer capacity for each subscriber.
+     *
+     * @since 4.4.0
+     */
+    public int getMaxBufferCapacity() {
+        return this.publisher.getMaxBufferCapacity();
+    }
+
+    /**
+     * Gets the number of current subscribers.
+     *
+     * @return The number of current subscribers.
+     *
+     * @since 4.4.0
+     */
+    public int getSubscriberCount() {
+        return this.publisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * Gets the number of affected entity ID's currently held for
+     * deduplication.
+     *
+     * @return The number of entity ID's held.
+     *
+     * @since 4.4.0
+     */
+    public int getPendingCount() {
+        synchronized (this.monitor) {
+            return this.pending.size();
+        }
+    }
+
+    /**
+     * Gets the number of entity ID's that have been published to the
+     * subscribers.
+     *
+     * @return The number of entity ID's published.
+     *
+     * @since 4.4.0
+     */
+    public long getPublishedCount() {
+        return this.publishedCount.sum();
+    }
+
+    /**
+     * Gets the number of affected entity ID's that were not published
+     * separately because they were already held.
+     *
+     * @return The number of entity ID's deduplicated.
+     *
+     * @since 4.4.0
+     */
+    public long getDeduplicatedCount() {
+        return this.deduplicatedCount.sum();
+    }
+
+    /**
+     * Gets the number of entity ID's that were dropped because there were
+     * no subscribers when they were due to be published.
+     *
+     * @return The number of entity ID's dropped.
+     *
+     * @since 4.4.0
+     */
+    public long getDroppedCount() {
+        return this.droppedCount.sum();
+    }
+
+    /**
+     * Adds the specified subscriber, which receives the entity ID's
+     * published after it subscribes.
+     *
+     * @param subscriber The {@link Flow.Subscriber} to add.
+     *
+     * @throws NullPointerException If the specified parameter is
+     *                              <code>null</code>.
+     *
+     * @since 4.4.0
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Long> subscriber)
+        throws NullPointerException
+    {
+        this.publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Extracts the affected entity ID's from the specified INFO response
+     * and {@linkplain #publish(long) publishes} each of them.  An INFO
+     * response that cannot be interpreted is logged at the {@link
+     * Level#DEBUG} level and otherwise ignored.
+     *
+     * @param info The {@link CharSequence} INFO response, or
+     *             <code>null</code> if none.
+     *
+     * @return The number of affected entity ID's in the INFO response.
+     *
+     * @throws IllegalStateException If this instance has been closed.
+     *
+     * @throws InterruptedException If interrupted while waiting for the held
+     *                              entity ID's to be published.
+     *
+     * @since 4.4.0
+     */
+    public int publish(CharSequence info)
+        throws IllegalStateException, InterruptedException
+    {
+        long[] entityIds;
+        try {
+            entityIds = SzInfoExtractor.extractAffectedEntityIds(info);
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.DEBUG, "Failed to extract the affected entities", e);
+            return 0;
+        }
+        for (long entityId : entityIds) {
+            this.publish(entityId);
+        }
+        return entityIds.length;
+    }
+
+    /**
+     * Holds the specified affected entity ID for the deduplication window
+     * before it is published, unless it is already held.  If the maximum
+     * number of entity ID's are already held then this waits until one of
+     * them is published.
+     *
+     * @param entityId The affected entity ID.
+     *
+     * @throws IllegalStateException If this instance has been closed.
+     *
+     * @throws InterruptedException If interrupted while waiting for the held
+     *                              entity ID's to be published.
+     *
+     * @since 4.4.0
+     */
+    public void publish(long entityId)
+        throws IllegalStateException, InterruptedException
+    {
+        synchronized (this.monitor) {
+            while (true) {
+                if (this.closed) {
+                    throw new IllegalStateException("Already closed");
+                }
+                if (this.pending.containsKey(entityId)) {
+                    this.deduplicatedCount.increment();
+                    return;
+                }
+                if (this.pending.size() < this.capacity) {
+                    break;
+                }
+                this.monitor.wait();
+            }
+            this.pending.put(entityId, System.nanoTime());
+            if (this.pending.size() == 1) {
+                this.monitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Publishes the held entity ID's and then completes every subscriber,
+     * waiting for the held entity ID's to be accepted by the subscriber
+     * buffers.  This method is idempotent.
+     *
+     * @since 4.4.0
+     */
+    @Override
+    public void close() {
+        synchronized (this.monitor) {
+            this.closed = true;
+            this.monitor.notifyAll();
+        }
+        boolean interrupted = false;
+        while (this.publishing.isAlive()) {
+            try {
+                this.publishing.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The main loop of the publishing thread, which publishes the held
+     * entity ID's once their window has elapsed (or immediately once closed)
+     * and completes the subscribers when closed.
+     */
+    private void run() {
+        List<Long> due = new ArrayList<>();
+        try {
+            boolean done = false;
+            while (!done) {
+                synchronized (this.monitor) {
+                    done = this.awaitDue(due);
+                }
+                for (Long entityId : due) {
+                    if (this.publisher.hasSubscribers()) {
+                        // waits while the buffer of any subscriber is full
+                        this.publisher.submit(entityId);
+                        this.publishedCount.increment();
+                    } else {
+                        this.droppedCount.increment();
+                    }
+                }
+                due.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            synchronized (this.monitor) {
+                this.closed = true;
+                this.monitor.notifyAll();
+            }
+        } finally {
+            this.publisher.close();
+        }
+    }
+
+    /**
+     * Waits until at least one held entity ID is due to be published (or
+     * this instance is closed) and removes the due entity ID's into the
+     * specified {@link List}.  This must be called while synchronized on
+     * the {@link #monitor}.
+     *
+     * @param due The {@link List} to which to add the due entity ID's.
+     *
+     * @return <code>true</code> if this instance is closed and every held
+     *         entity ID has been removed, otherwise <code>false</code>.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private boolean awaitDue(List<Long> due) throws InterruptedException {
+        while (true) {
+            long now = System.nanoTime();
+            Iterator<Map.Entry<Long, Long>> iter = this.pending.entrySet().iterator();
+            long waitNanos = 0L;
+            while (iter.hasNext()) {
+                Map.Entry<Long, Long> entry = iter.next();
+                long remaining = entry.getValue() + this.windowNanos - now;
+                if (!this.closed && remaining > 0L) {
+                    waitNanos = remaining;
+                    break;
+                }
+                due.add(entry.getKey());
+                iter.remove();
+            }
+            if (!due.isEmpty()) {
+                this.monitor.notifyAll();
+                return false;
+            }
+            if (this.closed) {
+                return true;
+            }
+            if (waitNanos > 0L) {
+                TimeUnit.NANOSECONDS.timedWait(this.monitor, waitNanos);
+            } else {
+                this.monitor.wait();
+            }
+        }
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzEntityChangeFeed{ windowMillis=[ " + this.getWindowMillis()
+            + " ], capacity=[ " + this.capacity
+            + " ], maxBufferCapacity=[ " + this.getMaxBufferCapacity()
+            + " ], subscriberCount=[ " + this.getSubscriberCount()
+            + " ], pendingCount=[ " + this.getPendingCount()
+            + " ], publishedCount=[ " + this.getPublishedCount()
+            + " ], deduplicatedCount=[ " + this.getDeduplicatedCount()
+            + " ], droppedCount=[ " + this.getDroppedCount() + " ] }";
+    }
+}
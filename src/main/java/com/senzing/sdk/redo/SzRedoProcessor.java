@@ -0,0 +1,2503 @@
+package com.senzing.sdk.redo;
+
+import java.io.IOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+import com.senzing.sdk.SzEngine;
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzFlag;
+import com.senzing.sdk.SzRetryableException;
+import com.senzing.sdk.SzUnrecoverableException;
+import com.senzing.sdk.core.SzCoreUtilities;
+import com.senzing.sdk.core.SzCoreUtilities.FailureAction;
+
+import static com.senzing.sdk.SzFlag.SZ_REDO_DEFAULT_FLAGS;
+import static com.senzing.sdk.SzFlag.SZ_WITH_INFO;
+
+/**
+ * Provides a managed service that processes the pending redo records of
+ * the repository as a two-stage pipeline.  A fetcher thread repeatedly
+ * {@linkplain SzEngine#getRedoRecord() gets} redo records ahead into a
+ * bounded prefetch queue of the {@linkplain Builder#prefetchDepth(int)
+ * prefetch depth}, and a pool of worker threads takes them from the queue
+ * and {@linkplain SzEngine#processRedoRecord(String, Set) processes} them.
+ * The round trip of getting a redo record is thereby hidden behind the
+ * processing of the previous ones, and the {@linkplain #getFetchMillis()
+ * fetch time}, {@linkplain #getProcessMillis() process time} and
+ * {@linkplain #getWorkerWaitMillis() worker wait time} are reported
+ * separately so the depth and thread count can be tuned.
+ *
+ * <p>
+ * When the fetcher finds the redo queue empty it backs off adaptively,
+ * waiting for an exponentially increasing and randomized {@linkplain
+ * Builder#minIdleDelayMillis(long) idle delay} (up to the {@linkplain
+ * Builder#maxIdleDelayMillis(long) maximum idle delay}) before polling
+ * again, and returns to polling without delay as soon as it gets a redo
+ * record.  An idle service therefore neither spins on an empty queue nor
+ * lags far behind a new burst of redo records.  Since a redo record is no
+ * longer tracked by the repository once it has been retrieved, the
+ * prefetch depth also bounds the number of retrieved redo records that
+ * would be lost if the process were to terminate abruptly.
+ * </p>
+ *
+ * <p>
+ * If a {@linkplain Builder#coalesceWindowMillis(long) coalescing window}
+ * is configured then the fetcher parses the target of each redo record
+ * that re-evaluates a record (by its data source code and record ID) or an
+ * entity (by its entity ID) and holds it for the window before releasing
+ * it to the workers.  A redo record fetched while another for the same
+ * target is held is {@linkplain #getCoalescedCount() discarded}, which is
+ * safe because the held redo record has not yet started processing and
+ * re-evaluates its target as of when it is processed.  Redo records
+ * without a recognized target are released immediately, and every held
+ * redo record is released whenever the redo queue is found empty or the
+ * service is closed, so the window only delays redo records during a
+ * burst.
+ * </p>
+ *
+ * <p>
+ * If a {@linkplain Builder#minThreadCount(int) minimum thread count} less
+ * than the {@linkplain Builder#threadCount(int) thread count} is configured
+ * then the number of {@linkplain #getActiveThreadCount() active workers}
+ * is scaled between them at each sample of the redo backlog.  The active
+ * workers are scaled up to the number needed to drain the backlog within
+ * the {@linkplain Builder#targetDrainMillis(long) target drain time} at
+ * the measured processing rate per worker, scaled down one worker at a
+ * time as the backlog falls, and halved whenever the {@linkplain
+ * Builder#foregroundLatency(DoubleSupplier) foreground latency} rises
+ * above its {@linkplain Builder#maxForegroundLatencyMillis(double)
+ * maximum} so that redo processing yields capacity to interactive
+ * traffic.  Inactive workers wait without taking redo records.
+ * </p>
+ *
+ * <p>
+ * If a {@linkplain Builder#spillDirectory(Path) spill directory} is
+ * configured then redo processing is time-shifted to the {@linkplain
+ * Builder#offPeakWindow(LocalTime, LocalTime) off-peak windows}.  Outside
+ * of every off-peak window the fetcher keeps draining the redo queue of the
+ * repository, but {@linkplain #getSpilledCount() spills} each redo record
+ * to a durable local queue of segment files in the spill directory rather
+ * than handing it to the workers, so that redo processing does not compete
+ * with the daytime workload and redo records do not accumulate in the
+ * repository.  Within an off-peak window the fetcher first {@linkplain
+ * #getReplayedCount() replays} the spilled redo records to the workers in
+ * the order they were spilled and then resumes handing off the redo records
+ * it gets from the repository.  Each spilled redo record is forced to disk
+ * before the next is fetched, and is acknowledged once processed (or failed
+ * with a non-retryable failure), with the acknowledgements checkpointed
+ * periodically and when the service is closed.  The spilled redo records
+ * that were not acknowledged are replayed when a service is next started
+ * with the same spill directory, so a replayed redo record may be processed
+ * more than once after a crash, which is harmless since a redo record
+ * re-evaluates its target as of when it is processed.
+ * </p>
+ *
+ * <p>
+ * If a {@linkplain Builder#changeFeed(SzEntityChangeFeed) change feed} is
+ * configured then each redo record is processed with {@link
+ * SzFlag#SZ_WITH_INFO} and the entity ID's affected by it are {@linkplain
+ * SzEntityChangeFeed#publish(CharSequence) published} to the change feed,
+ * which deduplicates them and applies the backpressure of its subscribers
+ * to the workers.  A redo record counts as processed once the engine has
+ * processed it, so if a worker is interrupted while publishing (or the
+ * change feed is closed) its affected entities are logged and dropped
+ * rather than the redo record being processed again.
+ * </p>
+ *
+ * <p>
+ * A redo record that fails with an {@link SzRetryableException} is retried
+ * by the same worker with a randomized exponential backoff up to the
+ * {@linkplain Builder#maxRetries(int) maximum number of retries}, since a
+ * redo record is no longer tracked by the repository once it has been
+ * retrieved.  A redo record that still fails is counted as {@linkplain
+ * #getFailedCount() failed} and its failure is logged at the {@link
+ * Level#WARNING} level to the {@link System.Logger} named for this class.
+ * An {@link SzUnrecoverableException} (or an unexpected runtime failure)
+ * stops every worker and is available from {@link #getFailure()}.  Since
+ * the redo records that were already retrieved from the repository but not
+ * processed (those in the prefetch queue, held for coalescing or being
+ * processed) are no longer tracked by the repository, they are appended to
+ * the spill directory (if configured) once every thread has stopped, and
+ * are otherwise {@linkplain #getUnprocessedRedoRecords() retained} and
+ * logged.
+ * </p>
+ *
+ * <p>
+ * The service is {@linkplain #start() started} explicitly and stopped
+ * gracefully by {@linkplain #close() closing} it, which stops the fetcher
+ * and waits for the workers to finish the redo records that have already
+ * been retrieved (including any retries) so that none are abandoned.
+ * The pending redo backlog is {@linkplain SzEngine#countRedoRecords()
+ * sampled} by the fetcher at the {@linkplain
+ * Builder#sampleIntervalMillis(long) sample interval} and is available
+ * with the other counters of the service.
+ * </p>
+ *
+ * <p>
+ * Instances of this class are thread-safe.
+ * </p>
+ *
+ * @since 4.4.0
+ */
+public final class SzRedoProcessor implements AutoCloseable {
+    /**
+     * The default number of worker threads, which is the number of
+     * available processors.
+     */
+    public static final int DEFAULT_THREAD_COUNT
+        = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The default maximum number of times a redo record is retried after a
+     * retryable failure.
+     */
+    public static final int DEFAULT_MAX_RETRIES = 5;
+
+    /**
+     * The default number of milliseconds to delay before the first retry.
+     */
+    public static final long DEFAULT_RETRY_DELAY_MILLIS = 100L;
+
+    /**
+     * The default maximum number of milliseconds to delay before a retry.
+     */
+    public static final long DEFAULT_MAX_RETRY_DELAY_MILLIS = 10000L;
+
+    /**
+     * The default number of milliseconds the fetcher initially waits after
+     * finding the redo queue empty.
+     */
+    public static final long DEFAULT_MIN_IDLE_DELAY_MILLIS = 10L;
+
+    /**
+     * The default maximum number of milliseconds the fetcher waits between
+     * polls of an empty redo queue.
+     */
+    public static final long DEFAULT_MAX_IDLE_DELAY_MILLIS = 5000L;
+
+    /**
+     * The default number of milliseconds between samples of the redo
+     * backlog.
+     */
+    public static final long DEFAULT_SAMPLE_INTERVAL_MILLIS = 5000L;
+
+    /**
+     * The default number of milliseconds in which an autoscaling processor
+     * aims to drain the redo backlog.
+     */
+    public static final long DEFAULT_TARGET_DRAIN_MILLIS = 300000L;
+
+    /**
+     * The default foreground latency in milliseconds above which an
+     * autoscaling processor yields capacity.
+     */
+    public static final double DEFAULT_MAX_FOREGROUND_LATENCY_MILLIS = 1000.0;
+
+    /**
+     * The number of milliseconds in a second.
+     */
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    /**
+     * The default maximum number of redo records held for coalescing.
+     */
+    public static final int DEFAULT_COALESCE_CAPACITY = 10000;
+
+    /**
+     * The default number of bytes after which a new spill segment file is
+     * started.
+     */
+    public static final long DEFAULT_SPILL_SEGMENT_SIZE = 64L * 1024L * 1024L;
+
+    /**
+     * The number of milliseconds a thread waits on the prefetch queue
+     * before checking if it should stop.
+     */
+    private static final long QUEUE_WAIT_MILLIS = 50L;
+
+    /**
+     * The number of nanoseconds in a millisecond.
+     */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * The {@link System.Logger} for logging redo failures.
+     */
+    private static final Logger LOGGER = System.getLogger(SzRedoProcessor.class.getName());
+
+    /**
+     * Provides a builder class for creating instances of {@link
+     * SzRedoProcessor}.
+     *
+     * @since 4.4.0
+     */
+    public static final class Builder {
+        /**
+         * The {@link SzEngine} for processing redo records.
+         */
+        private SzEngine engine = null;
+
+        /**
+         * The number of worker threads.
+         */
+        private int threadCount = DEFAULT_THREAD_COUNT;
+
+        /**
+         * The {@link Set} of {@link SzFlag} instances for processing.
+         */
+        private Set<SzFlag> flags = SZ_REDO_DEFAULT_FLAGS;
+
+        /**
+         * The maximum number of retries for a redo record.
+         */
+        private int maxRetries = DEFAULT_MAX_RETRIES;
+
+        /**
+         * The number of milliseconds to delay before the first retry.
+         */
+        private long retryDelayMillis = DEFAULT_RETRY_DELAY_MILLIS;
+
+        /**
+         * The maximum number of milliseconds to delay before a retry.
+         */
+        private long maxRetryDelayMillis = DEFAULT_MAX_RETRY_DELAY_MILLIS;
+
+        /**
+         * The initial idle delay in milliseconds.
+         */
+        private long minIdleDelayMillis = DEFAULT_MIN_IDLE_DELAY_MILLIS;
+
+        /**
+         * The maximum idle delay in milliseconds.
+         */
+        private long maxIdleDelayMillis = DEFAULT_MAX_IDLE_DELAY_MILLIS;
+
+        /**
+         * The number of milliseconds between samples of the redo backlog.
+         */
+        private long sampleIntervalMillis = DEFAULT_SAMPLE_INTERVAL_MILLIS;
+
+        /**
+         * The capacity of the prefetch queue, or zero (0) for twice the
+         * thread count.
+         */
+        private int prefetchDepth = 0;
+
+        /**
+         * The number of milliseconds a redo record is held for coalescing.
+         */
+        private long coalesceWindowMillis = 0L;
+
+        /**
+         * The maximum number of redo records held for coalescing.
+         */
+        private int coalesceCapacity = DEFAULT_COALESCE_CAPACITY;
+
+        /**
+         * The minimum number of active workers, or zero (0) for the thread
+         * count.
+         */
+        private int minThreadCount = 0;
+
+        /**
+         * The number of milliseconds in which to aim to drain the backlog.
+         */
+        private long targetDrainMillis = DEFAULT_TARGET_DRAIN_MILLIS;
+
+        /**
+         * The {@link DoubleSupplier} of the foreground latency.
+         */
+        private DoubleSupplier foregroundLatency = null;
+
+        /**
+         * The foreground latency above which capacity is yielded.
+         */
+        private double maxForegroundLatencyMillis = DEFAULT_MAX_FOREGROUND_LATENCY_MILLIS;
+
+        /**
+         * The directory for spilled redo records, or <code>null</code> if
+         * redo records are not spilled.
+         */
+        private Path spillDirectory = null;
+
+        /**
+         * The number of bytes after which a new spill segment is started.
+         */
+        private long spillSegmentSize = DEFAULT_SPILL_SEGMENT_SIZE;
+
+        /**
+         * The off-peak windows as pairs of start and end times.
+         */
+        private final List<LocalTime[]> offPeakWindows = new ArrayList<>();
+
+        /**
+         * The {@link ZoneId} for the off-peak windows.
+         */
+        private ZoneId offPeakZone = ZoneId.systemDefault();
+
+        /**
+         * The {@link SzEntityChangeFeed} for the affected entities, or
+         * <code>null</code> if none.
+         */
+        private SzEntityChangeFeed changeFeed = null;
+
+        /**
+         * Private default constructor.
+         */
+        private Builder() {
+            // do nothing
+        }
+
+        /**
+         * Sets the {@link SzEngine} with which to get and process redo
+         * records.  This is required.
+         *
+         * @param engine The {@link SzEngine} to use.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder engine(SzEngine engine) throws NullPointerException {
+            this.engine = Objects.requireNonNull(engine, "The engine cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the number of worker threads.  The default is {@link
+         * #DEFAULT_THREAD_COUNT}.
+         *
+         * @param threadCount The positive number of worker threads.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified count is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder threadCount(int threadCount) throws IllegalArgumentException {
+            if (threadCount <= 0) {
+                throw new IllegalArgumentException(
+                    "The thread count must be positive: " + threadCount);
+            }
+            this.threadCount = threadCount;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Set} of {@link SzFlag} instances to use when
+         * processing redo records.  The default is {@link
+         * SzFlag#SZ_REDO_DEFAULT_FLAGS}.
+         *
+         * @param flags The {@link Set} of {@link SzFlag} instances, or
+         *              <code>null</code> for no flags.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder flags(Set<SzFlag> flags) {
+            this.flags = flags;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of times a redo record is retried after
+         * an {@link SzRetryableException}.  The default is {@link
+         * #DEFAULT_MAX_RETRIES}.
+         *
+         * @param maxRetries The non-negative maximum number of retries.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified count is
+         *                                  negative.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxRetries(int maxRetries) throws IllegalArgumentException {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException(
+                    "The maximum retries cannot be negative: " + maxRetries);
+            }
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Sets the number of milliseconds to delay before the first retry of
+         * a redo record, which doubles with each subsequent retry up to the
+         * {@linkplain #maxRetryDelayMillis(long) maximum retry delay}.  The
+         * default is {@link #DEFAULT_RETRY_DELAY_MILLIS}.
+         *
+         * @param delayMillis The positive number of milliseconds.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified delay is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder retryDelayMillis(long delayMillis) throws IllegalArgumentException {
+            this.retryDelayMillis = requirePositive(delayMillis, "retry delay");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of milliseconds to delay before a retry of
+         * a redo record.  The default is {@link
+         * #DEFAULT_MAX_RETRY_DELAY_MILLIS}.
+         *
+         * @param delayMillis The positive number of milliseconds.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified delay is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxRetryDelayMillis(long delayMillis) throws IllegalArgumentException {
+            this.maxRetryDelayMillis = requirePositive(delayMillis, "maximum retry delay");
+            return this;
+        }
+
+        /**
+         * Sets the number of milliseconds the fetcher initially waits
+         * after finding the redo queue empty, which doubles with each
+         * consecutive empty poll up to the {@linkplain
+         * #maxIdleDelayMillis(long) maximum idle delay}.  The default is
+         * {@link #DEFAULT_MIN_IDLE_DELAY_MILLIS}.
+         *
+         * @param delayMillis The positive number of milliseconds.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified delay is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder minIdleDelayMillis(long delayMillis) throws IllegalArgumentException {
+            this.minIdleDelayMillis = requirePositive(delayMillis, "minimum idle delay");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of milliseconds the fetcher waits
+         * between polls of an empty redo queue.  The default is {@link
+         * #DEFAULT_MAX_IDLE_DELAY_MILLIS}.
+         *
+         * @param delayMillis The positive number of milliseconds.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified delay is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxIdleDelayMillis(long delayMillis) throws IllegalArgumentException {
+            this.maxIdleDelayMillis = requirePositive(delayMillis, "maximum idle delay");
+            return this;
+        }
+
+        /**
+         * Sets the number of milliseconds between samples of the redo
+         * backlog via {@link SzEngine#countRedoRecords()}.  The default is
+         * {@link #DEFAULT_SAMPLE_INTERVAL_MILLIS}.
+         *
+         * @param intervalMillis The positive number of milliseconds.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified interval is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder sampleIntervalMillis(long intervalMillis)
+            throws IllegalArgumentException
+        {
+            this.sampleIntervalMillis = requirePositive(intervalMillis, "sample interval");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of redo records that the fetcher gets
+         * ahead of the workers.  The default is twice the {@linkplain
+         * #threadCount(int) thread count}.
+         *
+         * @param depth The positive capacity of the prefetch queue.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified depth is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder prefetchDepth(int depth) throws IllegalArgumentException {
+            if (depth <= 0) {
+                throw new IllegalArgumentException(
+                    "The prefetch depth must be positive: " + depth);
+            }
+            this.prefetchDepth = depth;
+            return this;
+        }
+
+        /**
+         * Sets the number of milliseconds that the fetcher holds each redo
+         * record that {@linkplain SzRedoProcessor coalescing} applies to
+         * before releasing it to the workers, discarding the redo records
+         * for the same target that are fetched in the meantime.  The
+         * default is zero (0), which disables coalescing.
+         *
+         * @param windowMillis The non-negative number of milliseconds, or
+         *                     zero (0) to disable coalescing.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified window is
+         *                                  negative.
+         *
+         * @since 4.4.0
+         */
+        public Builder coalesceWindowMillis(long windowMillis)
+            throws IllegalArgumentException
+        {
+            if (windowMillis < 0L) {
+                throw new IllegalArgumentException(
+                    "The coalescing window cannot be negative: " + windowMillis);
+            }
+            this.coalesceWindowMillis = windowMillis;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of redo records that the fetcher holds
+         * for coalescing, beyond which the earliest fetched are released
+         * before their coalescing window has elapsed.  The default is
+         * {@link #DEFAULT_COALESCE_CAPACITY}.
+         *
+         * @param capacity The positive maximum number of redo records.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified capacity is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder coalesceCapacity(int capacity) throws IllegalArgumentException {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException(
+                    "The coalescing capacity must be positive: " + capacity);
+            }
+            this.coalesceCapacity = capacity;
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of workers that are active, enabling
+         * {@linkplain SzRedoProcessor autoscaling} between this minimum
+         * and the {@linkplain #threadCount(int) thread count} if less than
+         * the thread count.  The default is the thread count, in which case
+         * every worker is always active.
+         *
+         * @param threadCount The positive minimum number of active workers.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified count is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder minThreadCount(int threadCount) throws IllegalArgumentException {
+            if (threadCount <= 0) {
+                throw new IllegalArgumentException(
+                    "The minimum thread count must be positive: " + threadCount);
+            }
+            this.minThreadCount = threadCount;
+            return this;
+        }
+
+        /**
+         * Sets the number of milliseconds in which an autoscaling processor
+         * aims to drain the sampled redo backlog at the measured processing
+         * rate.  The default is {@link #DEFAULT_TARGET_DRAIN_MILLIS}.
+         *
+         * @param drainMillis The positive number of milliseconds.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified time is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder targetDrainMillis(long drainMillis) throws IllegalArgumentException {
+            this.targetDrainMillis = requirePositive(drainMillis, "target drain time");
+            return this;
+        }
+
+        /**
+         * Sets the {@link DoubleSupplier} of the current latency in
+         * milliseconds of the foreground (e.g.: interactive search) traffic
+         * on the same repository, which an autoscaling processor samples
+         * with the redo backlog.  The default is <code>null</code>, in
+         * which case the foreground latency is not considered.
+         *
+         * @param latencyMillis The {@link DoubleSupplier} of the foreground
+         *                      latency in milliseconds, or <code>null</code>
+         *                      if none.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder foregroundLatency(DoubleSupplier latencyMillis) {
+            this.foregroundLatency = latencyMillis;
+            return this;
+        }
+
+        /**
+         * Sets the foreground latency in milliseconds above which an
+         * autoscaling processor halves its active workers (down to the
+         * {@linkplain #minThreadCount(int) minimum}) to yield capacity to
+         * the foreground traffic.  The default is {@link
+         * #DEFAULT_MAX_FOREGROUND_LATENCY_MILLIS}.
+         *
+         * @param latencyMillis The positive number of milliseconds.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified latency is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder maxForegroundLatencyMillis(double latencyMillis)
+            throws IllegalArgumentException
+        {
+            if (!(latencyMillis > 0.0)) {
+                throw new IllegalArgumentException(
+                    "The maximum foreground latency must be positive: " + latencyMillis);
+            }
+            this.maxForegroundLatencyMillis = latencyMillis;
+            return this;
+        }
+
+        /**
+         * Sets the directory in which redo records fetched outside of the
+         * {@linkplain #offPeakWindow(LocalTime, LocalTime) off-peak windows}
+         * are {@linkplain SzRedoProcessor spilled} until they are replayed
+         * within an off-peak window.  The directory is created when the
+         * processor is started if it does not exist, and must not be shared
+         * by processors that run concurrently.  The default is
+         * <code>null</code>, in which case redo records are processed as
+         * they are fetched.
+         *
+         * @param directory The {@link Path} of the spill directory, or
+         *                  <code>null</code> if redo records are not to be
+         *                  spilled.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder spillDirectory(Path directory) {
+            this.spillDirectory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the number of bytes after which a new spill segment file is
+         * started.  Segment files are deleted once every redo record in them
+         * has been replayed.  The default is {@link
+         * #DEFAULT_SPILL_SEGMENT_SIZE}.
+         *
+         * @param segmentSize The positive number of bytes.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws IllegalArgumentException If the specified size is not
+         *                                  positive.
+         *
+         * @since 4.4.0
+         */
+        public Builder spillSegmentSize(long segmentSize) throws IllegalArgumentException {
+            this.spillSegmentSize = requirePositive(segmentSize, "spill segment size");
+            return this;
+        }
+
+        /**
+         * Adds a daily off-peak window from the specified start time
+         * (inclusive) to the specified end time (exclusive) in the
+         * {@linkplain #offPeakZone(ZoneId) off-peak zone}, within which
+         * spilled redo records are replayed and fetched redo records are
+         * processed.  A window whose end time precedes its start time spans
+         * midnight.  This may be called more than once to add multiple
+         * windows, and requires a {@linkplain #spillDirectory(Path) spill
+         * directory}.
+         *
+         * @param startTime The {@link LocalTime} at which the window starts.
+         * @param endTime The {@link LocalTime} at which the window ends.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If either parameter is
+         *                              <code>null</code>.
+         *
+         * @throws IllegalArgumentException If the specified times are equal.
+         *
+         * @since 4.4.0
+         */
+        public Builder offPeakWindow(LocalTime startTime, LocalTime endTime)
+            throws NullPointerException, IllegalArgumentException
+        {
+            Objects.requireNonNull(startTime, "The start time cannot be null");
+            Objects.requireNonNull(endTime, "The end time cannot be null");
+            if (startTime.equals(endTime)) {
+                throw new IllegalArgumentException(
+                    "The off-peak window cannot be empty: " + startTime + "-" + endTime);
+            }
+            this.offPeakWindows.add(new LocalTime[] { startTime, endTime });
+            return this;
+        }
+
+        /**
+         * Sets the {@link ZoneId} in which the {@linkplain
+         * #offPeakWindow(LocalTime, LocalTime) off-peak windows} are
+         * interpreted.  The default is the {@linkplain ZoneId#systemDefault()
+         * system default zone}.
+         *
+         * @param zone The {@link ZoneId} for the off-peak windows.
+         *
+         * @return A reference to this instance.
+         *
+         * @throws NullPointerException If the specified parameter is
+         *                              <code>null</code>.
+         *
+         * @since 4.4.0
+         */
+        public Builder offPeakZone(ZoneId zone) throws NullPointerException {
+            this.offPeakZone = Objects.requireNonNull(zone, "The zone cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the {@link SzEntityChangeFeed} to which the entity ID's
+         * affected by each processed redo record are published, in which
+         * case {@link SzFlag#SZ_WITH_INFO} is added to the {@linkplain
+         * #flags(Set) flags} for processing.  The change feed is not closed
+         * when the processor is closed.  The default is <code>null</code>.
+         *
+         * @param changeFeed The {@link SzEntityChangeFeed} to publish to, or
+         *                   <code>null</code> if none.
+         *
+         * @return A reference to this instance.
+         *
+         * @since 4.4.0
+         */
+        public Builder changeFeed(SzEntityChangeFeed changeFeed) {
+            this.changeFeed = changeFeed;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link SzRedoProcessor} from this builder.
+         *
+         * @return The newly constructed {@link SzRedoProcessor}.
+         *
+         * @throws IllegalStateException If the engine has not been set, the
+         *                               minimum thread count exceeds the
+         *                               thread count, or only one of the
+         *                               spill directory and the off-peak
+         *                               windows has been configured.
+         *
+         * @since 4.4.0
+         */
+        public SzRedoProcessor build() throws IllegalStateException {
+            if (this.engine == null) {
+                throw new IllegalStateException("The engine is required");
+            }
+            if (this.minThreadCount > this.threadCount) {
+                throw new IllegalStateException(
+                    "The minimum thread count (" + this.minThreadCount
+                    + ") exceeds the thread count (" + this.threadCount + ")");
+            }
+            if (this.spillDirectory != null && this.offPeakWindows.isEmpty()) {
+                throw new IllegalStateException(
+                    "At least one off-peak window is required with a spill directory");
+            }
+            if (this.spillDirectory == null && !this.offPeakWindows.isEmpty()) {
+                throw new IllegalStateException(
+                    "A spill directory is required with off-peak windows");
+            }
+            return new SzRedoProcessor(this);
+        }
+
+        /**
+         * Ensures the specified value is positive.
+         *
+         * @param value The value to check.
+         * @param description The description for the error message.
+         *
+         * @return The specified value.
+         *
+         * @throws IllegalArgumentException If not positive.
+         */
+        private static long requirePositive(long value, String description)
+            throws IllegalArgumentException
+        {
+            if (value <= 0L) {
+                throw new IllegalArgumentException(
+                    "The " + description + " must be positive: " + value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for building an {@link SzRedoProcessor}.
+     *
+     * @return The new {@link Builder} instance.
+     *
+     * @since 4.4.0
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * A redo record held for coalescing.
+     */
+    private static final class Pending {
+        /**
+         * The redo record.
+         */
+        private final String redoRecord;
+
+        /**
+         * The {@link System#nanoTime()} at which it was fetched.
+         */
+        private final long fetchedNanos;
+
+        /**
+         * Constructs with the specified parameters.
+         *
+         * @param redoRecord The redo record.
+         * @param fetchedNanos The {@link System#nanoTime()} at which it was
+         *                     fetched.
+         */
+        private Pending(String redoRecord, long fetchedNanos) {
+            this.redoRecord     = redoRecord;
+            this.fetchedNanos   = fetchedNanos;
+        }
+    }
+
+    /**
+     * A redo record in the prefetch queue.
+     */
+    private static final class Fetched {
+        /**
+         * The redo record.
+         */
+        private final String redoRecord;
+
+        /**
+         * The ordinal of the redo record in the spool if replayed, or
+         * negative one (-1) if fetched from the repository.
+         */
+        private final long spoolOrdinal;
+
+        /**
+         * Constructs with the specified parameters.
+         *
+         * @param redoRecord The redo record.
+         * @param spoolOrdinal The ordinal of the redo record in the spool if
+         *                     replayed, or negative one (-1) if fetched from
+         *                     the repository.
+         */
+        private Fetched(String redoRecord, long spoolOrdinal) {
+            this.redoRecord     = redoRecord;
+            this.spoolOrdinal   = spoolOrdinal;
+        }
+    }
+
+    /**
+     * The {@link SzEngine} for processing redo records.
+     */
+    private final SzEngine engine;
+
+    /**
+     * The number of worker threads.
+     */
+    private final int threadCount;
+
+    /**
+     * The {@link Set} of {@link SzFlag} instances for processing.
+     */
+    private final Set<SzFlag> flags;
+
+    /**
+     * The {@link Set} of {@link SzFlag} instances for each call, which
+     * includes {@link SzFlag#SZ_WITH_INFO} if a change feed is used.
+     */
+    private final Set<SzFlag> callFlags;
+
+    /**
+     * The {@link SzEntityChangeFeed} for the affected entities, or
+     * <code>null</code> if none.
+     */
+    private final SzEntityChangeFeed changeFeed;
+
+    /**
+     * The maximum number of retries for a redo record.
+     */
+    private final int maxRetries;
+
+    /**
+     * The number of milliseconds to delay before the first retry.
+     */
+    private final long retryDelayMillis;
+
+    /**
+     * The maximum number of milliseconds to delay before a retry.
+     */
+    private final long maxRetryDelayMillis;
+
+    /**
+     * The initial idle delay in milliseconds.
+     */
+    private final long minIdleDelayMillis;
+
+    /**
+     * The maximum idle delay in milliseconds.
+     */
+    private final long maxIdleDelayMillis;
+
+    /**
+     * The number of milliseconds between samples of the redo backlog.
+     */
+    private final long sampleIntervalMillis;
+
+    /**
+     * The capacity of the prefetch queue.
+     */
+    private final int prefetchDepth;
+
+    /**
+     * The bounded {@link BlockingQueue} of redo records that have been
+     * fetched but not yet taken by a worker.
+     */
+    private final BlockingQueue<Fetched> prefetchQueue;
+
+    /**
+     * The number of nanoseconds a redo record with a target is held for
+     * coalescing, or zero (0) if coalescing is disabled.
+     */
+    private final long coalesceWindowNanos;
+
+    /**
+     * The maximum number of redo records held for coalescing.
+     */
+    private final int coalesceCapacity;
+
+    /**
+     * The {@link Pending} redo records held for coalescing keyed by their
+     * target in the order they were fetched, which is only accessed by the
+     * fetcher thread.
+     */
+    private final Map<String, Pending> coalescing = new LinkedHashMap<>();
+
+    /**
+     * The number of redo records held for coalescing.
+     */
+    private volatile int coalescingCount = 0;
+
+    /**
+     * The minimum number of active workers.
+     */
+    private final int minThreadCount;
+
+    /**
+     * The number of milliseconds in which to aim to drain the backlog.
+     */
+    private final long targetDrainMillis;
+
+    /**
+     * The {@link DoubleSupplier} of the foreground latency, or
+     * <code>null</code> if none.
+     */
+    private final DoubleSupplier foregroundLatency;
+
+    /**
+     * The foreground latency above which capacity is yielded.
+     */
+    private final double maxForegroundLatencyMillis;
+
+    /**
+     * The number of workers that are currently active.
+     */
+    private volatile int activeThreadCount;
+
+    /**
+     * The directory for spilled redo records, or <code>null</code> if redo
+     * records are not spilled.
+     */
+    private final Path spillDirectory;
+
+    /**
+     * The number of bytes after which a new spill segment is started.
+     */
+    private final long spillSegmentSize;
+
+    /**
+     * The off-peak windows as pairs of start and end times.
+     */
+    private final List<LocalTime[]> offPeakWindows;
+
+    /**
+     * The {@link ZoneId} for the off-peak windows.
+     */
+    private final ZoneId offPeakZone;
+
+    /**
+     * The {@link RedoSpool} of spilled redo records, which is
+     * <code>null</code> until started or if redo records are not spilled.
+     */
+    private volatile RedoSpool spool = null;
+
+    /**
+     * The {@link System#nanoTime()} of the previous scaling sample, which
+     * is only accessed by the fetcher thread.
+     */
+    private long scaleNanos = System.nanoTime();
+
+    /**
+     * The number of completed redo records as of the previous scaling
+     * sample, which is only accessed by the fetcher thread.
+     */
+    private long scaleCompleted = 0L;
+
+    /**
+     * Internal object on which inactive workers wait.
+     */
+    private final Object scaling = new Object();
+
+    /**
+     * The fetcher and worker threads, which is empty until started
+     * (guarded by {@link #monitor}).
+     */
+    private final List<Thread> threads = new ArrayList<>();
+
+    /**
+     * Whether or not the fetcher may still add redo records to the
+     * prefetch queue.
+     */
+    private volatile boolean fetching = true;
+
+    /**
+     * Whether or not the service has been started (guarded by {@link
+     * #monitor}).
+     */
+    private boolean started = false;
+
+    /**
+     * Whether or not the fetcher should stop.
+     */
+    private volatile boolean stopping = false;
+
+    /**
+     * The failure that stopped the workers, if any.
+     */
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    /**
+     * The number of fetcher and worker threads that have not yet stopped.
+     */
+    private final AtomicInteger runningCount = new AtomicInteger(0);
+
+    /**
+     * The redo records that were retrieved from the repository and left
+     * unprocessed by a failure, pending being spilled once every thread
+     * has stopped.
+     */
+    private final ConcurrentLinkedQueue<String> stranded = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The redo records that were left unprocessed by a failure and could not
+     * be spilled.
+     */
+    private final List<String> unprocessed = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * The most recently sampled (and locally adjusted) redo backlog, or
+     * negative one (-1) if not yet sampled.
+     */
+    private final AtomicLong redoBacklog = new AtomicLong(-1L);
+
+    /**
+     * The {@link System#nanoTime()} at which the next sample is due.
+     */
+    private final AtomicLong nextSampleNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * The number of workers that are currently processing a redo record.
+     */
+    private final AtomicInteger busyCount = new AtomicInteger(0);
+
+    /**
+     * The number of redo records that were processed successfully.
+     */
+    private final LongAdder processedCount = new LongAdder();
+
+    /**
+     * The number of redo records that failed.
+     */
+    private final LongAdder failedCount = new LongAdder();
+
+    /**
+     * The number of retries of redo records.
+     */
+    private final LongAdder retryCount = new LongAdder();
+
+    /**
+     * The number of polls that found the redo queue empty.
+     */
+    private final LongAdder emptyPollCount = new LongAdder();
+
+    /**
+     * The number of redo records that were fetched.
+     */
+    private final LongAdder fetchedCount = new LongAdder();
+
+    /**
+     * The number of redo records that were discarded by coalescing.
+     */
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * The number of redo records that were spilled.
+     */
+    private final LongAdder spilledCount = new LongAdder();
+
+    /**
+     * The number of spilled redo records that were replayed.
+     */
+    private final LongAdder replayedCount = new LongAdder();
+
+    /**
+     * The total nanoseconds spent getting redo records.
+     */
+    private final LongAdder fetchNanos = new LongAdder();
+
+    /**
+     * The total nanoseconds spent processing redo records.
+     */
+    private final LongAdder processNanos = new LongAdder();
+
+    /**
+     * The total nanoseconds workers spent waiting on the prefetch queue.
+     */
+    private final LongAdder waitNanos = new LongAdder();
+
+    /**
+     * Internal object for instance-wide synchronized locking.
+     */
+    private final Object monitor = new Object();
+
+    /**
+     * Private constructor for constructing with a {@link Builder}.
+     *
+     * @param builder The {@link Builder} from which to construct.
+     */
+    private SzRedoProcessor(Builder builder) {
+        this.engine                 = builder.engine;
+        this.threadCount            = builder.threadCount;
+        this.flags                  = builder.flags;
+        this.changeFeed             = builder.changeFeed;
+        if (this.changeFeed != null) {
+            Set<SzFlag> withInfo = EnumSet.of(SZ_WITH_INFO);
+            if (this.flags != null) {
+                withInfo.addAll(this.flags);
+            }
+            this.callFlags = withInfo;
+        } else {
+            this.callFlags = this.flags;
+        }
+        this.maxRetries             = builder.maxRetries;
+        this.retryDelayMillis       = builder.retryDelayMillis;
+        this.maxRetryDelayMillis    = Math.max(builder.maxRetryDelayMillis,
+                                               builder.retryDelayMillis);
+        this.minIdleDelayMillis     = builder.minIdleDelayMillis;
+        this.maxIdleDelayMillis     = Math.max(builder.maxIdleDelayMillis,
+                                               builder.minIdleDelayMillis);
+        this.sampleIntervalMillis   = builder.sampleIntervalMillis;
+        this.prefetchDepth          = (builder.prefetchDepth > 0)
+            ? builder.prefetchDepth : (2 * builder.threadCount);
+        this.prefetchQueue          = new ArrayBlockingQueue<>(this.prefetchDepth);
+        this.coalesceWindowNanos    = TimeUnit.MILLISECONDS.toNanos(
+            builder.coalesceWindowMillis);
+        this.coalesceCapacity       = builder.coalesceCapacity;
+        this.minThreadCount         = (builder.minThreadCount > 0)
+            ? builder.minThreadCount : builder.threadCount;
+        this.targetDrainMillis      = builder.targetDrainMillis;
+        this.foregroundLatency      = builder.foregroundLatency;
+        this.maxForegroundLatencyMillis = builder.maxForegroundLatencyMillis;
+        this.activeThreadCount      = this.minThreadCount;
+        this.spillDirectory         = builder.spillDirectory;
+        this.spillSegmentSize       = builder.spillSegmentSize;
+        this.offPeakWindows         = List.copyOf(builder.offPeakWindows);
+        this.offPeakZone            = builder.offPeakZone;
+    }
+
+    /**
+     * Gets the {@link SzEngine} with which redo records are processed.
+     *
+     * @return The {@link SzEngine} with which redo records are processed.
+     *
+     * @since 4.4.0
+     */
+    public SzEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * Gets the number of worker threads.
+     *
+     * @return The number of worker threads.
+     *
+     * @since 4.4.0
+     */
+    public int getThreadCount() {
+        return this.threadCount;
+    }
+
+    /**
+     * Gets the minimum number of active workers when autoscaling.
+     *
+     * @return The minimum number of active workers, which is the {@linkplain
+     *         #getThreadCount() thread count} if autoscaling is disabled.
+     *
+     * @since 4.4.0
+     */
+    public int getMinThreadCount() {
+        return this.minThreadCount;
+    }
+
+    /**
+     * Gets the number of workers that are currently active.
+     *
+     * @return The number of active workers.
+     *
+     * @since 4.4.0
+     */
+    public int getActiveThreadCount() {
+        return this.activeThreadCount;
+    }
+
+    /**
+     * Checks if the number of active workers is scaled between the
+     * {@linkplain #getMinThreadCount() minimum thread count} and the
+     * {@linkplain #getThreadCount() thread count}.
+     *
+     * @return <code>true</code> if autoscaling, otherwise
+     *         <code>false</code>.
+     *
+     * @since 4.4.0
+     */
+    public boolean isAutoscaling() {
+        return this.minThreadCount < this.threadCount;
+    }
+
+    /**
+     * Gets the number of milliseconds in which an autoscaling processor
+     * aims to drain the redo backlog.
+     *
+     * @return The target drain time in milliseconds.
+     *
+     * @since 4.4.0
+     */
+    public long getTargetDrainMillis() {
+        return this.targetDrainMillis;
+    }
+
+    /**
+     * Gets the {@link DoubleSupplier} of the foreground latency in
+     * milliseconds.
+     *
+     * @return The {@link DoubleSupplier} of the foreground latency, or
+     *         <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public DoubleSupplier getForegroundLatency() {
+        return this.foregroundLatency;
+    }
+
+    /**
+     * Gets the foreground latency in milliseconds above which an
+     * autoscaling processor yields capacity.
+     *
+     * @return The maximum foreground latency in milliseconds.
+     *
+     * @since 4.4.0
+     */
+    public double getMaxForegroundLatencyMillis() {
+        return this.maxForegroundLatencyMillis;
+    }
+
+    /**
+     * Gets the {@link Set} of {@link SzFlag} instances used when processing
+     * redo records.
+     *
+     * @return The {@link Set} of {@link SzFlag} instances, or
+     *         <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public Set<SzFlag> getFlags() {
+        return this.flags;
+    }
+
+    /**
+     * Gets the {@link SzEntityChangeFeed} to which the entity ID's affected
+     * by each processed redo record are published.
+     *
+     * @return The {@link SzEntityChangeFeed}, or <code>null</code> if none.
+     *
+     * @since 4.4.0
+     */
+    public SzEntityChangeFeed getChangeFeed() {
+        return this.changeFeed;
+    }
+
+    /**
+     * Gets the maximum number of times a redo record is retried after an
+     * {@link SzRetryableException}.
+     *
+     * @return The maximum number of retries.
+     *
+     * @since 4.4.0
+     */
+    public int getMaxRetries() {
+        return this.maxRetries;
+    }
+
+    /**
+     * Gets the number of milliseconds to delay before the first retry of a
+     * redo record.
+     *
+     * @return The number of milliseconds before the first retry.
+     *
+     * @since 4.4.0
+     */
+    public long getRetryDelayMillis() {
+        return this.retryDelayMillis;
+    }
+
+    /**
+     * Gets the maximum number of milliseconds to delay before a retry of a
+     * redo record.
+     *
+     * @return The maximum number of milliseconds before a retry.
+     *
+     * @since 4.4.0
+     */
+    public long getMaxRetryDelayMillis() {
+        return this.maxRetryDelayMillis;
+    }
+
+    /**
+     * Gets the number of milliseconds the fetcher initially waits after
+     * finding the redo queue empty.
+     *
+     * @return The initial idle delay in milliseconds.
+     *
+     * @since 4.4.0
+     */
+    public long getMinIdleDelayMillis() {
+        return this.minIdleDelayMillis;
+    }
+
+    /**
+     * Gets the maximum number of milliseconds the fetcher waits between
+     * polls of an empty redo queue.
+     *
+     * @return The maximum idle delay in milliseconds.
+     *
+     * @since 4.4.0
+     */
+    public long getMaxIdleDelayMillis() {
+        return this.maxIdleDelayMillis;
+    }
+
+    /**
+     * Gets the number of milliseconds between samples of the redo backlog.
+     *
+     * @return The number of milliseconds between samples.
+     *
+     * @since 4.4.0
+     */
+    public long getSampleIntervalMillis() {
+        return this.sampleIntervalMillis;
+    }
+
+    /**
+     * Gets the maximum number of redo records that the fetcher gets ahead
+     * of the workers.
+     *
+     * @return The capacity of the prefetch queue.
+     *
+     * @since 4.4.0
+     */
+    public int getPrefetchDepth() {
+        return this.prefetchDepth;
+    }
+
+    /**
+     * Gets the number of redo records that have been fetched and are
+     * waiting in the prefetch queue for a worker.
+     *
+     * @return The number of prefetched redo records.
+     *
+     * @since 4.4.0
+     */
+    public int getPrefetchedCount() {
+        return this.prefetchQueue.size();
+    }
+
+    /**
+     * Gets the number of milliseconds that the fetcher holds each redo
+     * record that coalescing applies to before releasing it to the workers.
+     *
+     * @return The coalescing window in milliseconds, or zero (0) if
+     *         coalescing is disabled.
+     *
+     * @since 4.4.0
+     */
+    public long getCoalesceWindowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.coalesceWindowNanos);
+    }
+
+    /**
+     * Gets the maximum number of redo records that the fetcher holds for
+     * coalescing.
+     *
+     * @return The maximum number of redo records held for coalescing.
+     *
+     * @since 4.4.0
+     */
+    public int getCoalesceCapacity() {
+        return this.coalesceCapacity;
+    }
+
+    /**
+     * Gets the number of redo records currently held by the fetcher for
+     * coalescing.
+     *
+     * @return The number of redo records held for coalescing.
+     *
+     * @since 4.4.0
+     */
+    public int getCoalescingCount() {
+        return this.coalescingCount;
+    }
+
+    /**
+     * Gets the number of redo records that were discarded without being
+     * processed because a redo record for the same target was pending.
+     *
+     * @return The number of redo records discarded by coalescing.
+     *
+     * @since 4.4.0
+     */
+    public long getCoalescedCount() {
+        return this.coalescedCount.sum();
+    }
+
+    /**
+     * Gets the directory in which redo records fetched outside of the
+     * off-peak windows are spilled.
+     *
+     * @return The {@link Path} of the spill directory, or <code>null</code>
+     *         if redo records are not spilled.
+     *
+     * @since 4.4.0
+     */
+    public Path getSpillDirectory() {
+        return this.spillDirectory;
+    }
+
+    /**
+     * Gets the number of bytes after which a new spill segment file is
+     * started.
+     *
+     * @return The spill segment size in bytes.
+     *
+     * @since 4.4.0
+     */
+    public long getSpillSegmentSize() {
+        return this.spillSegmentSize;
+    }
+
+    /**
+     * Gets the {@link ZoneId} in which the off-peak windows are interpreted.
+     *
+     * @return The {@link ZoneId} for the off-peak windows.
+     *
+     * @since 4.4.0
+     */
+    public ZoneId getOffPeakZone() {
+        return this.offPeakZone;
+    }
+
+    /**
+     * Checks if the current time is within one of the off-peak windows, in
+     * which case redo records are processed rather than spilled.
+     *
+     * @return <code>true</code> if within an off-peak window or if redo
+     *         records are not spilled, otherwise <code>false</code>.
+     *
+     * @since 4.4.0
+     */
+    public boolean isOffPeak() {
+        if (this.offPeakWindows.isEmpty()) {
+            return true;
+        }
+        LocalTime now = LocalTime.now(this.offPeakZone);
+        for (LocalTime[] window : this.offPeakWindows) {
+            boolean afterStart = !now.isBefore(window[0]);
+            boolean beforeEnd = now.isBefore(window[1]);
+            if (window[0].isBefore(window[1]) ? (afterStart && beforeEnd)
+                                              : (afterStart || beforeEnd))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of redo records that have been spilled to the spill
+     * directory since started.
+     *
+     * @return The number of redo records that have been spilled.
+     *
+     * @since 4.4.0
+     */
+    public long getSpilledCount() {
+        return this.spilledCount.sum();
+    }
+
+    /**
+     * Gets the number of spilled redo records (including those spilled
+     * before started) that have been replayed to the workers since started.
+     *
+     * @return The number of spilled redo records that have been replayed.
+     *
+     * @since 4.4.0
+     */
+    public long getReplayedCount() {
+        return this.replayedCount.sum();
+    }
+
+    /**
+     * Gets the number of spilled redo records that are awaiting replay.
+     *
+     * @return The number of spilled redo records awaiting replay, or zero
+     *         (0) if not started or redo records are not spilled.
+     *
+     * @since 4.4.0
+     */
+    public long getSpoolSize() {
+        RedoSpool redoSpool = this.spool;
+        return (redoSpool == null) ? 0L : redoSpool.size();
+    }
+
+    /**
+     * Gets the number of redo records that have been fetched.
+     *
+     * @return The number of redo records that have been fetched.
+     *
+     * @since 4.4.0
+     */
+    public long getFetchedCount() {
+        return this.fetchedCount.sum();
+    }
+
+    /**
+     * Gets the total number of milliseconds the fetcher has spent in
+     * {@link SzEngine#getRedoRecord()}, including calls that found the redo
+     * queue empty.
+     *
+     * @return The total fetch time in milliseconds.
+     *
+     * @since 4.4.0
+     */
+    public long getFetchMillis() {
+        return this.fetchNanos.sum() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Gets the total number of milliseconds the workers have spent in
+     * {@link SzEngine#processRedoRecord(String, Set)}, summed across the
+     * workers and including retries but not the delays between them.
+     *
+     * @return The total process time in milliseconds.
+     *
+     * @since 4.4.0
+     */
+    public long getProcessMillis() {
+        return this.processNanos.sum() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Gets the total number of milliseconds the workers have spent waiting
+     * for a redo record from the prefetch queue, summed across the workers.
+     * A high wait time while there is a {@linkplain #getRedoBacklog()
+     * backlog} indicates that fetching is the bottleneck.
+     *
+     * @return The total worker wait time in milliseconds.
+     *
+     * @since 4.4.0
+     */
+    public long getWorkerWaitMillis() {
+        return this.waitNanos.sum() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Gets the number of redo records that have been processed
+     * successfully.
+     *
+     * @return The number of redo records processed successfully.
+     *
+     * @since 4.4.0
+     */
+    public long getProcessedCount() {
+        return this.processedCount.sum();
+    }
+
+    /**
+     * Gets the number of redo records that failed to be processed, after
+     * any retries.
+     *
+     * @return The number of redo records that failed.
+     *
+     * @since 4.4.0
+     */
+    public long getFailedCount() {
+        return this.failedCount.sum();
+    }
+
+    /**
+     * Gets the number of times a redo record was retried.
+     *
+     * @return The number of retries.
+     *
+     * @since 4.4.0
+     */
+    public long getRetryCount() {
+        return this.retryCount.sum();
+    }
+
+    /**
+     * Gets the number of times the fetcher found the redo queue empty.
+     *
+     * @return The number of polls that found the redo queue empty.
+     *
+     * @since 4.4.0
+     */
+    public long getEmptyPollCount() {
+        return this.emptyPollCount.sum();
+    }
+
+    /**
+     * Gets the number of workers that are currently processing a redo
+     * record.
+     *
+     * @return The number of busy workers.
+     *
+     * @since 4.4.0
+     */
+    public int getBusyCount() {
+        return this.busyCount.get();
+    }
+
+    /**
+     * Gets the estimated number of pending redo records, which is the most
+     * recent {@linkplain SzEngine#countRedoRecords() sample} less the redo
+     * records fetched since (or zero if the queue has since been found
+     * empty).
+     *
+     * @return The estimated redo backlog, or negative one (-1) if it has
+     *         not yet been sampled.
+     *
+     * @since 4.4.0
+     */
+    public long getRedoBacklog() {
+        return this.redoBacklog.get();
+    }
+
+    /**
+     * Gets the failure that stopped the workers (e.g.: an {@link
+     * SzUnrecoverableException}), if any.
+     *
+     * @return The failure that stopped the workers, or <code>null</code> if
+     *         none.
+     *
+     * @since 4.4.0
+     */
+    public Exception getFailure() {
+        return this.failure.get();
+    }
+
+    /**
+     * Gets the redo records that were retrieved from the repository but left
+     * unprocessed when a {@linkplain #getFailure() failure} stopped the
+     * workers and that could not be appended to the spill directory (or
+     * there is none).  These are no longer tracked by the repository, so
+     * the caller is responsible for processing them.  They are available
+     * once every thread has stopped.
+     *
+     * @return The {@link List} of unprocessed redo records, which is empty
+     *         if none.
+     *
+     * @since 4.4.0
+     */
+    public List<String> getUnprocessedRedoRecords() {
+        synchronized (this.unprocessed) {
+            return new ArrayList<>(this.unprocessed);
+        }
+    }
+
+    /**
+     * Checks if this instance has been started and its fetcher or at least
+     * one of its workers is still running.
+     *
+     * @return <code>true</code> if running, otherwise <code>false</code>.
+     *
+     * @since 4.4.0
+     */
+    public boolean isRunning() {
+        synchronized (this.monitor) {
+            for (Thread thread : this.threads) {
+                if (thread.isAlive()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Starts the fetcher and worker threads, which process redo records
+     * until this instance is {@linkplain #close() closed} or an
+     * unrecoverable failure occurs.  If a spill directory is configured
+     * then it is opened first, recovering the redo records that were
+     * spilled and not yet replayed.
+     *
+     * @throws IllegalStateException If this instance has already been
+     *                               started or has been closed.
+     *
+     * @throws IOException If the spill directory cannot be opened or is
+     *                     corrupt.
+     *
+     * @since 4.4.0
+     */
+    public void start() throws IllegalStateException, IOException {
+        synchronized (this.monitor) {
+            if (this.stopping) {
+                throw new IllegalStateException("Already closed");
+            }
+            if (this.started) {
+                throw new IllegalStateException("Already started");
+            }
+            if (this.spillDirectory != null) {
+                this.spool = new RedoSpool(this.spillDirectory, this.spillSegmentSize);
+            }
+            this.started = true;
+            this.threads.add(new Thread(this::fetch, "SzRedoProcessor-fetcher"));
+            for (int index = 0; index < this.threadCount; index++) {
+                int workerIndex = index;
+                this.threads.add(new Thread(() -> this.work(workerIndex),
+                                            "SzRedoProcessor-" + index));
+            }
+            this.runningCount.set(this.threads.size());
+            for (Thread thread : this.threads) {
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+    }
+
+    /**
+     * Stops the service gracefully and waits for its threads to terminate.
+     * The fetcher is woken if idle and stops getting redo records, and the
+     * workers finish processing the redo records that have already been
+     * fetched (including any retries) so that none are lost.  The spill
+     * directory (if any) is then checkpointed and closed.  This method is
+     * idempotent.
+     *
+     * @since 4.4.0
+     */
+    @Override
+    public void close() {
+        List<Thread> joining;
+        synchronized (this.monitor) {
+            this.stopping = true;
+            this.monitor.notifyAll();
+            joining = new ArrayList<>(this.threads);
+        }
+        boolean interrupted = false;
+        for (Thread thread : joining) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        RedoSpool redoSpool = this.spool;
+        if (redoSpool != null) {
+            try {
+                redoSpool.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to checkpoint the redo spill directory", e);
+            }
+        }
+    }
+
+    /**
+     * The main loop of the fetcher thread, which gets redo records into the
+     * prefetch queue (holding them in the coalescing buffer first, if
+     * enabled) until stopping.  Outside of the off-peak windows the redo
+     * records are spilled instead, and within them the spilled redo records
+     * are replayed first.
+     */
+    private void fetch() {
+        int emptyPolls = 0;
+        try {
+            while (!this.stopping) {
+                this.sample();
+                if (!this.isOffPeak()) {
+                    emptyPolls = this.spill(emptyPolls);
+                    continue;
+                }
+                if (!this.release(false)) {
+                    return;
+                }
+                RedoSpool.Entry entry = (this.spool == null) ? null : this.spool.next();
+                if (entry != null) {
+                    // spilled redo records are replayed without coalescing
+                    this.replayedCount.increment();
+                    if (!this.handOff(entry.getRedoRecord(), entry.getOrdinal())) {
+                        return;
+                    }
+                    continue;
+                }
+                long start = System.nanoTime();
+                String redoRecord;
+                try {
+                    redoRecord = this.poll();
+                } finally {
+                    this.fetchNanos.add(System.nanoTime() - start);
+                }
+                if (redoRecord == null) {
+                    // do not hold back redo records while the queue is empty
+                    if (!this.release(true)) {
+                        return;
+                    }
+                    this.idle(++emptyPolls);
+                    continue;
+                }
+                emptyPolls = 0;
+                this.fetchedCount.increment();
+                this.redoBacklog.updateAndGet(count -> (count > 0L) ? count - 1L : count);
+
+                String target = (this.coalesceWindowNanos > 0L)
+                    ? RedoTarget.parse(redoRecord) : null;
+                if (target == null) {
+                    if (!this.handOff(redoRecord, -1L)) {
+                        return;
+                    }
+                } else if (this.coalescing.containsKey(target)) {
+                    // the pending redo record covers this one
+                    this.coalescedCount.increment();
+                } else {
+                    this.coalescing.put(target, new Pending(redoRecord, System.nanoTime()));
+                    this.coalescingCount = this.coalescing.size();
+                }
+            }
+            this.release(true);
+
+        } catch (SzException | IOException | RuntimeException e) {
+            this.fail(e);
+
+        } catch (InterruptedException e) {
+            // an interrupted fetcher stops the workers
+            this.fail(e);
+            Thread.currentThread().interrupt();
+
+        } finally {
+            for (Pending pending : this.coalescing.values()) {
+                this.strand(pending.redoRecord, -1L);
+            }
+            this.coalescing.clear();
+            this.coalescingCount = 0;
+            this.fetching = false;
+            this.exit();
+        }
+    }
+
+    /**
+     * Releases the redo records in the coalescing buffer to the prefetch
+     * queue, in the order they were fetched, if they have been held for the
+     * coalescing window, if the buffer is over capacity or if all are to be
+     * released.
+     *
+     * @param all <code>true</code> if all redo records are to be released,
+     *            otherwise <code>false</code>.
+     *
+     * @return <code>true</code> if released, or <code>false</code> if the
+     *         workers have failed.
+     *
+     * @throws InterruptedException If interrupted while waiting for space in
+     *                              the prefetch queue.
+     */
+    private boolean release(boolean all) throws InterruptedException {
+        Iterator<Pending> iter = this.coalescing.values().iterator();
+        long now = System.nanoTime();
+        while (iter.hasNext()) {
+            Pending pending = iter.next();
+            if (!all && this.coalescing.size() <= this.coalesceCapacity
+                && now - pending.fetchedNanos < this.coalesceWindowNanos)
+            {
+                break;
+            }
+            iter.remove();
+            this.coalescingCount = this.coalescing.size();
+            if (!this.handOff(pending.redoRecord, -1L)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the next redo record from the engine outside of the off-peak
+     * windows and appends it to the spool, first spilling the redo records
+     * held for coalescing (if any).
+     *
+     * @param emptyPolls The number of consecutive empty polls so far.
+     *
+     * @return The number of consecutive empty polls.
+     *
+     * @throws SzException If an {@link SzUnrecoverableException} occurs.
+     *
+     * @throws IOException If the redo record could not be spilled.
+     *
+     * @throws InterruptedException If interrupted while idle.
+     */
+    private int spill(int emptyPolls)
+        throws SzException, IOException, InterruptedException
+    {
+        Iterator<Pending> iter = this.coalescing.values().iterator();
+        while (iter.hasNext()) {
+            this.spool.append(iter.next().redoRecord);
+            this.spilledCount.increment();
+            iter.remove();
+        }
+        this.coalescingCount = 0;
+
+        long start = System.nanoTime();
+        String redoRecord;
+        try {
+            redoRecord = this.poll();
+        } finally {
+            this.fetchNanos.add(System.nanoTime() - start);
+        }
+        if (redoRecord == null) {
+            this.idle(emptyPolls + 1);
+            return emptyPolls + 1;
+        }
+        this.fetchedCount.increment();
+        this.redoBacklog.updateAndGet(count -> (count > 0L) ? count - 1L : count);
+        try {
+            this.spool.append(redoRecord);
+        } catch (IOException | RuntimeException e) {
+            this.strand(redoRecord, -1L);
+            throw e;
+        }
+        this.spilledCount.increment();
+        return 0;
+    }
+
+    /**
+     * Adds the specified redo record to the prefetch queue, waiting for
+     * space as long as the workers have not failed.  A redo record that is
+     * not added is {@linkplain #strand(String, long) stranded}.
+     *
+     * @param redoRecord The redo record to add.
+     * @param spoolOrdinal The ordinal of the redo record in the spool if
+     *                     replayed, or negative one (-1) if fetched from the
+     *                     repository.
+     *
+     * @return <code>true</code> if added, or <code>false</code> if the
+     *         workers have failed.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private boolean handOff(String redoRecord, long spoolOrdinal)
+        throws InterruptedException
+    {
+        Fetched fetched = new Fetched(redoRecord, spoolOrdinal);
+        boolean added = false;
+        try {
+            while (!(added = this.prefetchQueue.offer(
+                fetched, QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS)))
+            {
+                if (this.failure.get() != null) {
+                    return false;
+                }
+                this.sample();
+            }
+            return true;
+
+        } finally {
+            if (!added) {
+                this.strand(redoRecord, spoolOrdinal);
+            }
+        }
+    }
+
+    /**
+     * The main loop of each worker thread, which processes the redo records
+     * from the prefetch queue while the worker is active until the fetcher
+     * has stopped and the queue is empty, or a failure has occurred.
+     *
+     * @param workerIndex The zero-based index of the worker, which is active
+     *                    while less than the active thread count.
+     */
+    private void work(int workerIndex) {
+        try {
+            this.runWorker(workerIndex);
+        } finally {
+            this.exit();
+        }
+    }
+
+    /**
+     * Processes the redo records from the prefetch queue for the worker
+     * with the specified index until it stops.  A redo record whose
+     * processing is stopped by a failure or interruption is {@linkplain
+     * #strand(String, long) stranded}.
+     *
+     * @param workerIndex The zero-based index of the worker.
+     */
+    private void runWorker(int workerIndex) {
+        while (this.failure.get() == null) {
+            try {
+                if (workerIndex >= this.activeThreadCount) {
+                    // an inactive worker leaves the queue to the others
+                    if (!this.fetching) {
+                        return;
+                    }
+                    synchronized (this.scaling) {
+                        if (workerIndex >= this.activeThreadCount) {
+                            this.scaling.wait(QUEUE_WAIT_MILLIS);
+                        }
+                    }
+                    continue;
+                }
+                long start = System.nanoTime();
+                Fetched fetched = this.prefetchQueue.poll(
+                    QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                this.waitNanos.add(System.nanoTime() - start);
+                if (fetched == null) {
+                    // the fetcher adds nothing after it stops fetching
+                    if (!this.fetching && this.prefetchQueue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                this.busyCount.incrementAndGet();
+                boolean processed = false;
+                try {
+                    this.process(fetched.redoRecord);
+                    processed = true;
+                } finally {
+                    this.busyCount.decrementAndGet();
+                    if (!processed) {
+                        this.strand(fetched.redoRecord, fetched.spoolOrdinal);
+                    }
+                }
+                if (fetched.spoolOrdinal >= 0L) {
+                    this.spool.acknowledge(fetched.spoolOrdinal);
+                }
+
+            } catch (SzException | IOException | RuntimeException e) {
+                this.fail(e);
+
+            } catch (InterruptedException e) {
+                // an interrupted worker stops with the others
+                this.fail(e);
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Records that the specified redo record was retrieved but left
+     * unprocessed, unless it was replayed from the spool (in which case it
+     * remains unacknowledged there and is replayed after a restart).
+     *
+     * @param redoRecord The unprocessed redo record.
+     * @param spoolOrdinal The ordinal of the redo record in the spool if
+     *                     replayed, or negative one (-1) if fetched from the
+     *                     repository.
+     */
+    private void strand(String redoRecord, long spoolOrdinal) {
+        if (spoolOrdinal < 0L) {
+            this.stranded.add(redoRecord);
+        }
+    }
+
+    /**
+     * Called as each fetcher or worker thread stops.  Once every thread has
+     * stopped, the redo records remaining in the prefetch queue and those
+     * that were stranded are appended to the spool (if any), and those that
+     * cannot be are retained for {@link #getUnprocessedRedoRecords()} and
+     * logged.
+     */
+    private void exit() {
+        if (this.runningCount.decrementAndGet() > 0) {
+            return;
+        }
+        for (Fetched fetched = this.prefetchQueue.poll();
+             fetched != null;
+             fetched = this.prefetchQueue.poll())
+        {
+            this.strand(fetched.redoRecord, fetched.spoolOrdinal);
+        }
+        List<String> redoRecords = new ArrayList<>();
+        for (String redoRecord = this.stranded.poll();
+             redoRecord != null;
+             redoRecord = this.stranded.poll())
+        {
+            redoRecords.add(redoRecord);
+        }
+        RedoSpool redoSpool = this.spool;
+        if (redoSpool != null) {
+            Iterator<String> iter = redoRecords.iterator();
+            try {
+                while (iter.hasNext()) {
+                    redoSpool.append(iter.next());
+                    this.spilledCount.increment();
+                    iter.remove();
+                }
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.ERROR, "Failed to spill the unprocessed redo records", e);
+            }
+        }
+        if (!redoRecords.isEmpty()) {
+            this.unprocessed.addAll(redoRecords);
+            LOGGER.log(Level.ERROR, redoRecords.size()
+                       + " retrieved redo records were left unprocessed");
+        }
+    }
+
+    /**
+     * Records the specified failure (unless another failure was already
+     * recorded) and stops every worker.
+     *
+     * @param cause The failure that stops the workers.
+     */
+    private void fail(Exception cause) {
+        if (this.failure.compareAndSet(null, cause)) {
+            LOGGER.log(Level.ERROR, "Redo processing stopped", cause);
+        }
+        synchronized (this.monitor) {
+            this.stopping = true;
+            this.monitor.notifyAll();
+        }
+    }
+
+    /**
+     * Waits after an empty poll of the redo queue, returning early if this
+     * instance is closed.
+     *
+     * @param emptyPolls The number of consecutive empty polls.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private void idle(int emptyPolls) throws InterruptedException {
+        long delay = SzCoreUtilities.backoffDelay(
+            emptyPolls, this.minIdleDelayMillis, this.maxIdleDelayMillis);
+        synchronized (this.monitor) {
+            if (!this.stopping) {
+                this.monitor.wait(Math.max(delay, 1L));
+            }
+        }
+    }
+
+    /**
+     * Samples the redo backlog from the engine if the sample interval has
+     * elapsed since the last sample.  A failure to count the redo records
+     * leaves the previous estimate in place.
+     */
+    private void sample() {
+        long now = System.nanoTime();
+        long due = this.nextSampleNanos.get();
+        if (now - due < 0L || !this.nextSampleNanos.compareAndSet(
+            due, now + TimeUnit.MILLISECONDS.toNanos(this.sampleIntervalMillis)))
+        {
+            return;
+        }
+        try {
+            this.redoBacklog.set(this.engine.countRedoRecords());
+        } catch (SzException | RuntimeException e) {
+            LOGGER.log(Level.DEBUG, "Failed to count the redo records", e);
+        }
+        if (!this.isAutoscaling()) {
+            return;
+        }
+
+        // measure the processing rate per active worker since the last sample
+        long completed = this.processedCount.sum() + this.failedCount.sum();
+        double elapsedSeconds = (now - this.scaleNanos) / (NANOS_PER_MILLI * MILLIS_PER_SECOND);
+        double rate = (elapsedSeconds > 0.0)
+            ? (completed - this.scaleCompleted) / (elapsedSeconds * this.activeThreadCount)
+            : 0.0;
+        this.scaleNanos     = now;
+        this.scaleCompleted = completed;
+
+        double latency = Double.NaN;
+        if (this.foregroundLatency != null) {
+            try {
+                latency = this.foregroundLatency.getAsDouble();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.DEBUG, "Failed to get the foreground latency", e);
+            }
+        }
+        long backlog = Math.max(this.redoBacklog.get(), 0L)
+            + this.prefetchQueue.size() + this.coalescingCount;
+        int scaled = this.scale(this.activeThreadCount, backlog, rate, latency);
+        if (scaled != this.activeThreadCount) {
+            LOGGER.log(Level.DEBUG, "Scaling redo workers from " + this.activeThreadCount
+                       + " to " + scaled + " for backlog " + backlog);
+            synchronized (this.scaling) {
+                this.activeThreadCount = scaled;
+                this.scaling.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Computes the number of active workers from the specified current
+     * number for the specified redo backlog, processing rate and foreground
+     * latency.  If the foreground latency is
+     * above the maximum then the active workers are halved.  Otherwise the
+     * active workers are scaled up immediately to the number needed to drain
+     * the backlog within the target drain time at the specified rate (or
+     * doubled if the rate is not yet known), and scaled down by one (1)
+     * worker at a time so that a transient dip does not cause oscillation.
+     *
+     * @param current The current number of active workers.
+     * @param backlog The number of pending redo records.
+     * @param ratePerWorker The number of redo records processed per second
+     *                      by each active worker, or zero (0) if unknown.
+     * @param foregroundLatencyMillis The foreground latency in milliseconds,
+     *                                or {@link Double#NaN} if unknown.
+     *
+     * @return The number of active workers, which is between the minimum
+     *         thread count and the thread count.
+     */
+    int scale(int current, long backlog, double ratePerWorker, double foregroundLatencyMillis) {
+        if (foregroundLatencyMillis > this.maxForegroundLatencyMillis) {
+            return Math.max(this.minThreadCount, current / 2);
+        }
+        int needed;
+        if (backlog <= 0L) {
+            needed = this.minThreadCount;
+        } else if (ratePerWorker > 0.0) {
+            double drainSeconds = this.targetDrainMillis / MILLIS_PER_SECOND;
+            needed = (int) Math.min(
+                Math.ceil(backlog / (ratePerWorker * drainSeconds)), this.threadCount);
+        } else {
+            needed = current * 2;
+        }
+        needed = Math.max(this.minThreadCount, Math.min(this.threadCount, needed));
+        return (needed < current) ? current - 1 : needed;
+    }
+
+    /**
+     * Gets the next redo record from the engine.  A failure to get a redo
+     * record that is not unrecoverable is logged and treated as an empty
+     * queue.
+     *
+     * @return The next redo record, or <code>null</code> if none.
+     *
+     * @throws SzException If an {@link SzUnrecoverableException} occurs.
+     */
+    private String poll() throws SzException {
+        String redoRecord;
+        try {
+            redoRecord = this.engine.getRedoRecord();
+        } catch (SzException e) {
+            if (SzCoreUtilities.isUnrecoverable(e)) {
+                throw e;
+            }
+            LOGGER.log(Level.WARNING, "Failed to get a redo record", e);
+            return null;
+        }
+        if (redoRecord == null || redoRecord.isEmpty()) {
+            // the queue is empty until the next sample says otherwise
+            this.emptyPollCount.increment();
+            this.redoBacklog.set(0L);
+            return null;
+        }
+        return redoRecord;
+    }
+
+    /**
+     * Processes the specified redo record, retrying it as configured.
+     *
+     * @param redoRecord The redo record to process.
+     *
+     * @throws InterruptedException If interrupted while delaying a retry.
+     *
+     * @throws SzException If an {@link SzUnrecoverableException} occurs.
+     */
+    private void process(String redoRecord) throws InterruptedException, SzException {
+        for (int attempt = 1; true; attempt++) {
+            SzException failure = null;
+            String info = null;
+            long start = System.nanoTime();
+            try {
+                info = this.engine.processRedoRecord(redoRecord, this.callFlags);
+
+            } catch (SzException e) {
+                failure = e;
+
+            } finally {
+                this.processNanos.add(System.nanoTime() - start);
+            }
+            if (failure == null) {
+                this.processedCount.increment();
+                if (this.changeFeed != null) {
+                    this.publish(info);
+                }
+                return;
+            }
+
+            FailureAction action = SzCoreUtilities.classifyFailure(
+                SzCoreUtilities.resolveExceptionClass(failure), attempt, this.maxRetries);
+            if (action == FailureAction.RETRY) {
+                this.retryCount.increment();
+                Thread.sleep(SzCoreUtilities.backoffDelay(
+                    attempt, this.retryDelayMillis, this.maxRetryDelayMillis));
+                continue;
+            }
+            this.failedCount.increment();
+            if (action == FailureAction.STOP) {
+                throw failure;
+            }
+            LOGGER.log(Level.WARNING, "Failed to process a redo record", failure);
+            return;
+        }
+    }
+
+    /**
+     * Publishes the affected entities of the specified INFO response for a
+     * redo record that was processed to the change feed, waiting while it
+     * applies backpressure.  Since the redo record has already been
+     * processed, a failure to publish never leaves it to be processed again:
+     * if interrupted the affected entities are logged and dropped and the
+     * interrupt flag is restored so the worker stops, and if the change feed
+     * was closed the affected entities are dropped and processing stops.
+     *
+     * @param info The INFO response for the processed redo record.
+     */
+    private void publish(String info) {
+        try {
+            // waits while the change feed applies backpressure
+            this.changeFeed.publish(info);
+
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.WARNING, "Interrupted while publishing the affected "
+                       + "entities of a processed redo record, dropping: " + info);
+            Thread.currentThread().interrupt();
+
+        } catch (IllegalStateException e) {
+            LOGGER.log(Level.WARNING, "Change feed closed, dropping the affected "
+                       + "entities of a processed redo record: " + info);
+            this.fail(e);
+        }
+    }
+
+    /**
+     * Returns a diagnostic {@link String} describing this instance.
+     *
+     * @return A diagnostic {@link String} describing this instance.
+     */
+    @Override
+    public String toString() {
+        return "SzRedoProcessor{ threadCount=[ " + this.threadCount
+            + " ], flags=[ " + SzFlag.toString(this.flags)
+            + " ], maxRetries=[ " + this.maxRetries
+            + " ], retryDelayMillis=[ " + this.retryDelayMillis
+            + " ], maxRetryDelayMillis=[ " + this.maxRetryDelayMillis
+            + " ], minIdleDelayMillis=[ " + this.minIdleDelayMillis
+            + " ], maxIdleDelayMillis=[ " + this.maxIdleDelayMillis
+            + " ], sampleIntervalMillis=[ " + this.sampleIntervalMillis
+            + " ], prefetchDepth=[ " + this.prefetchDepth
+            + " ], coalesceWindowMillis=[ " + this.getCoalesceWindowMillis()
+            + " ], coalesceCapacity=[ " + this.coalesceCapacity
+            + " ], minThreadCount=[ " + this.minThreadCount
+            + " ], activeThreadCount=[ " + this.activeThreadCount
+            + " ], targetDrainMillis=[ " + this.targetDrainMillis
+            + " ], maxForegroundLatencyMillis=[ " + this.maxForegroundLatencyMillis
+            + " ], spillDirectory=[ " + this.spillDirectory
+            + " ], spilledCount=[ " + this.getSpilledCount()
+            + " ], spoolSize=[ " + this.getSpoolSize()
+            + " ], processedCount=[ " + this.getProcessedCount()
+            + " ], failedCount=[ " + this.getFailedCount()
+            + " ], redoBacklog=[ " + this.getRedoBacklog() + " ] }";
+    }
+}
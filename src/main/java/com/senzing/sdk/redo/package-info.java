@@ -0,0 +1,9 @@
+/**
+ * This package provides a managed redo processing facility for the Senzing
+ * SDK for Java built on the {@link com.senzing.sdk.SzEngine} interface.  The
+ * {@link com.senzing.sdk.redo.SzRedoProcessor} runs a pool of worker
+ * threads that continuously get and process the pending redo records, and
+ * the {@link com.senzing.sdk.redo.SzEntityChangeFeed} publishes the entity
+ * ID's affected by them as an incremental change feed.
+ */
+package com.senzing.sdk.redo;
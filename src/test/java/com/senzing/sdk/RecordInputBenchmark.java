@@ -0,0 +1,103 @@
+package com.senzing.sdk;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Measures the bytes allocated and the CPU time for decoding a UTF-8
+ * record definition as done by {@link
+ * SzEngine#addRecordUtf8(SzRecordKey, ByteBuffer, java.util.Set)} and
+ * {@link SzEngine#getRecordPreviewUtf8(ByteBuffer, java.util.Set)} versus
+ * the conventional {@link java.nio.charset.Charset#decode(ByteBuffer)}
+ * followed by {@link Object#toString()}.
+ *
+ * <p>
+ * This is <b>not</b> part of the unit test suite since the results depend
+ * on the JVM and the machine.  Run it manually from the test class path:
+ * </p>
+ * <pre>
+ *   java -cp target/classes:target/test-classes com.senzing.sdk.RecordInputBenchmark [iterations]
+ * </pre>
+ */
+public class RecordInputBenchmark {
+    private static final String ASCII_DEFINITION
+        = "{\"DATA_SOURCE\":\"TEST\",\"RECORD_ID\":\"ABC123\",\"NAME_FULL\":\"Joe Schmoe\","
+        + "\"ADDR_FULL\":\"101 Main Street, Las Vegas, NV 89101\","
+        + "\"PHONE_NUMBER\":\"702-555-1212\",\"EMAIL_ADDRESS\":\"joeschmoe@nowhere.com\","
+        + "\"DATE_OF_BIRTH\":\"1981-12-08\",\"SSN_NUMBER\":\"123-45-6789\"}";
+
+    private static final int DEFAULT_ITERATIONS = 200000;
+
+    /**
+     * Runs the benchmark with the optional number of iterations as the
+     * sole command-line argument.
+     *
+     * @param args The command-line arguments.
+     */
+    public static void main(String[] args) {
+        int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+
+        if (!(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean threadBean)
+            || !threadBean.isThreadAllocatedMemorySupported())
+        {
+            System.err.println("Thread allocation measurement is not supported by this JVM");
+            System.exit(1);
+            return;
+        }
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        byte[] bytes = ASCII_DEFINITION.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer heap = ByteBuffer.wrap(bytes);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+
+        for (ByteBuffer buffer : List.of(heap, direct)) {
+            String kind = buffer.isDirect() ? "direct" : "heap";
+            long[] conventional = measure(threadBean, iterations, () -> {
+                String s = StandardCharsets.UTF_8.decode(buffer.duplicate()).toString();
+                return s.length();
+            });
+            long[] optimized = measure(threadBean, iterations, () -> {
+                return Utilities.decodeUtf8(buffer).length();
+            });
+
+            System.out.println();
+            System.out.println("UTF-8 record decode (" + kind + ", "
+                + bytes.length + " bytes, " + iterations + " iterations):");
+            System.out.println("    Charset.decode().toString() : "
+                + (conventional[0] / iterations) + " bytes/op, "
+                + (conventional[1] / iterations) + " ns/op");
+            System.out.println("    Utilities.decodeUtf8()      : "
+                + (optimized[0] / iterations) + " bytes/op, "
+                + (optimized[1] / iterations) + " ns/op");
+        }
+    }
+
+    /**
+     * Runs the specified decoder repeatedly after warming up and returns
+     * the bytes allocated and the CPU nanoseconds used by this thread.
+     */
+    private static long[] measure(ThreadMXBean threadBean, int iterations, IntSupplier decoder) {
+        long sink = 0L;
+        for (int index = 0; index < iterations / 10; index++) {
+            sink += decoder.getAsInt();
+        }
+        long threadId   = Thread.currentThread().getId();
+        long allocated  = threadBean.getThreadAllocatedBytes(threadId);
+        long cpu        = threadBean.getCurrentThreadCpuTime();
+        for (int index = 0; index < iterations; index++) {
+            sink += decoder.getAsInt();
+        }
+        cpu         = threadBean.getCurrentThreadCpuTime() - cpu;
+        allocated   = threadBean.getThreadAllocatedBytes(threadId) - allocated;
+        if (sink == 0L) {
+            System.err.println("Decoder produced no output");
+        }
+        return new long[] { allocated, cpu };
+    }
+}
@@ -0,0 +1,240 @@
+package com.senzing.sdk;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import static com.senzing.sdk.SzFlag.SZ_WITH_INFO;
+import static com.senzing.sdk.SzFlag.SZ_NO_FLAGS;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzBatchResultTest extends AbstractTest {
+    private static final String INFO_TEMPLATE
+        = "{\"DATA_SOURCE\":\"TEST\",\"RECORD_ID\":\"%s\","
+        + "\"AFFECTED_ENTITIES\":[%s]}";
+
+    private static String info(String recordId, long... entityIds) {
+        StringBuilder sb = new StringBuilder();
+        String prefix = "";
+        for (long entityId : entityIds) {
+            sb.append(prefix).append("{\"ENTITY_ID\":").append(entityId).append("}");
+            prefix = ",";
+        }
+        return String.format(INFO_TEMPLATE, recordId, sb);
+    }
+
+    @Test
+    void testBuilder() {
+        SzRecordKey key1 = SzRecordKey.of("TEST", "ABC123");
+        SzRecordKey key2 = SzRecordKey.of("TEST", "DEF456");
+        SzRecordKey key3 = SzRecordKey.of("TEST", "GHI789");
+        SzException failure = new SzNotFoundException(33, "Not found");
+
+        SzBatchResult.Builder<SzRecordKey> builder
+            = SzBatchResult.newBuilder(true, 3);
+
+        SzBatchResult<SzRecordKey> result = builder
+            .success(key1, info("ABC123", 10L, 20L))
+            .failure(key2, failure)
+            .success(key3, info("GHI789", 20L, 30L))
+            .build();
+
+        assertEquals(3, result.getOutcomes().size(),
+                     "Unexpected number of outcomes");
+        assertEquals(2, result.getSuccessCount(),
+                     "Unexpected success count");
+        assertEquals(1, result.getFailureCount(),
+                     "Unexpected failure count");
+        assertEquals(key1, result.getOutcomes().get(0).key(),
+                     "Outcomes not in order of items");
+        assertEquals(key2, result.getOutcomes().get(1).key(),
+                     "Outcomes not in order of items");
+        assertEquals(key3, result.getOutcomes().get(2).key(),
+                     "Outcomes not in order of items");
+        assertEquals(1, result.getFailures().size(),
+                     "Unexpected number of failures");
+        assertSame(failure, result.getFailures().get(0).failure(),
+                   "Unexpected failure exception");
+        assertEquals(SzEntityIds.of(10L, 20L, 30L), result.getAffectedEntityIds(),
+                     "Unexpected affected entity ID's");
+
+        try {
+            result.getOutcomes().add(SzBatchOutcome.success(key1, null));
+            fail("Outcomes list was unexpectedly modifiable");
+        } catch (UnsupportedOperationException expected) {
+            // do nothing
+        }
+
+        try {
+            builder.build();
+            fail("Unexpectedly built a second instance from one builder");
+
+        } catch (IllegalStateException expected) {
+            // do nothing
+        }
+    }
+
+    @Test
+    void testWithoutInfo() {
+        SzBatchResult<Long> result = SzBatchResult.<Long>newBuilder(false, 2)
+            .success(10L, null).success(20L, null).build();
+
+        assertNull(result.getAffectedEntityIds(),
+                   "Affected entity ID's unexpectedly non-null");
+        assertEquals(2, result.getSuccessCount(), "Unexpected success count");
+        assertEquals(0, result.getFailureCount(), "Unexpected failure count");
+        assertTrue(result.getFailures().isEmpty(), "Unexpected failures");
+    }
+
+    @Test
+    void testNestedEntityIdsIgnored() {
+        String info = "{\"DATA_SOURCE\":\"TEST\",\"RECORD_ID\":\"X\","
+            + "\"AFFECTED_ENTITIES\":[{\"ENTITY_ID\":5,\"DETAIL\":"
+            + "{\"ENTITY_ID\":99,\"NAME\":\"ENTITY_ID\\\"}\"}},"
+            + "{\"ENTITY_ID\":6}],\"INTERESTING_ENTITIES\":"
+            + "{\"ENTITIES\":[{\"ENTITY_ID\":77}]}}";
+
+        SzBatchResult<String> result = SzBatchResult.<String>newBuilder(true, 1)
+            .success("X", info).build();
+
+        assertEquals(SzEntityIds.of(5L, 6L), result.getAffectedEntityIds(),
+                     "Unexpected affected entity ID's");
+    }
+
+    @Test
+    void testOutcome() {
+        SzBatchOutcome<Long> success = SzBatchOutcome.success(10L, null);
+        SzBatchOutcome<Long> failure = SzBatchOutcome.failure(
+            20L, new SzException("Failed"));
+
+        assertTrue(success.isSuccess(), "Successful outcome not successful");
+        assertFalse(failure.isSuccess(), "Failed outcome is successful");
+        assertNull(failure.info(), "Failed outcome has INFO");
+        assertNotNull(failure.failure(), "Failed outcome has no failure");
+    }
+
+    /**
+     * Creates a proxy {@link SzEngine} that only implements the single-item
+     * operations and relies on the default batch implementations.
+     */
+    private SzEngine createEngine(List<Object> calls) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            calls.add(args[0]);
+            switch (method.getName()) {
+                case "deleteRecord":
+                case "reevaluateRecord":
+                    {
+                        SzRecordKey key = (SzRecordKey) args[0];
+                        if (key.recordId().startsWith("BAD")) {
+                            throw new SzBadInputException("Bad record: " + key);
+                        }
+                        return (((Set<?>) args[1]).contains(SZ_WITH_INFO))
+                            ? info(key.recordId(), key.recordId().length())
+                            : null;
+                    }
+                case "reevaluateEntity":
+                    {
+                        long entityId = (Long) args[0];
+                        if (entityId < 0L) {
+                            throw new SzNotFoundException("Bad entity: " + entityId);
+                        }
+                        return (((Set<?>) args[1]).contains(SZ_WITH_INFO))
+                            ? info("E" + entityId, entityId) : null;
+                    }
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        };
+        return (SzEngine) Proxy.newProxyInstance(
+            SzEngine.class.getClassLoader(),
+            new Class<?>[] { SzEngine.class },
+            handler);
+    }
+
+    @Test
+    void testDefaultDeleteRecords() {
+        List<Object> calls = new ArrayList<>();
+        SzEngine engine = this.createEngine(calls);
+
+        List<SzRecordKey> keys = List.of(
+            SzRecordKey.of("TEST", "A"),
+            SzRecordKey.of("TEST", "BAD"),
+            SzRecordKey.of("TEST", "ABC"));
+        try {
+            SzBatchResult<SzRecordKey> result
+                = engine.deleteRecords(keys, Set.of(SZ_WITH_INFO));
+
+            assertEquals(keys, calls, "Unexpected single-record calls");
+            assertEquals(2, result.getSuccessCount(), "Unexpected success count");
+            assertEquals(1, result.getFailureCount(), "Unexpected failure count");
+            assertTrue(result.getOutcomes().get(1).failure()
+                instanceof SzBadInputException, "Unexpected failure type");
+            assertEquals(SzEntityIds.of(1L, 3L), result.getAffectedEntityIds(),
+                         "Unexpected affected entity ID's");
+
+        } catch (Exception e) {
+            fail("Unexpectedly failed batch delete", e);
+        }
+    }
+
+    @Test
+    void testDefaultReevaluateRecords() {
+        List<Object> calls = new ArrayList<>();
+        SzEngine engine = this.createEngine(calls);
+
+        List<SzRecordKey> keys = List.of(
+            SzRecordKey.of("TEST", "A"), SzRecordKey.of("TEST", "AB"));
+        try {
+            SzBatchResult<SzRecordKey> result
+                = engine.reevaluateRecords(keys, SZ_NO_FLAGS);
+
+            assertEquals(keys, calls, "Unexpected single-record calls");
+            assertEquals(2, result.getSuccessCount(), "Unexpected success count");
+            assertNull(result.getAffectedEntityIds(),
+                       "Affected entity ID's unexpectedly non-null");
+
+        } catch (Exception e) {
+            fail("Unexpectedly failed batch reevaluate", e);
+        }
+    }
+
+    @Test
+    void testDefaultReevaluateEntities() {
+        List<Object> calls = new ArrayList<>();
+        SzEngine engine = this.createEngine(calls);
+
+        try {
+            SzBatchResult<Long> result = engine.reevaluateEntities(
+                new long[] { 10L, -1L, 30L }, Set.of(SZ_WITH_INFO));
+
+            assertEquals(List.of(10L, -1L, 30L), calls,
+                         "Unexpected single-entity calls");
+            assertEquals(-1L, result.getFailures().get(0).key(),
+                         "Unexpected failed key");
+            assertEquals(SzEntityIds.of(10L, 30L), result.getAffectedEntityIds(),
+                         "Unexpected affected entity ID's");
+
+        } catch (Exception e) {
+            fail("Unexpectedly failed batch reevaluate", e);
+        }
+    }
+}
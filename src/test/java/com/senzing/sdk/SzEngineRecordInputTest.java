@@ -0,0 +1,148 @@
+package com.senzing.sdk;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static com.senzing.sdk.SzFlag.SZ_ADD_RECORD_DEFAULT_FLAGS;
+import static com.senzing.sdk.SzFlag.SZ_RECORD_PREVIEW_DEFAULT_FLAGS;
+
+/**
+ * Tests the {@link CharSequence} overloads of {@link
+ * SzEngine#addRecord(SzRecordKey, String, Set)} and {@link
+ * SzEngine#getRecordPreview(String, Set)} and their UTF-8 {@link
+ * ByteBuffer} counterparts.
+ */
+@TestInstance(Lifecycle.PER_CLASS)
+@Execution(ExecutionMode.SAME_THREAD)
+public class SzEngineRecordInputTest extends AbstractTest {
+    private static final SzRecordKey RECORD_KEY = SzRecordKey.of("TEST", "ABC123");
+
+    private static final String RECORD_DEFINITION
+        = "{\"NAME_FULL\":\"Jos\u00e9 M\u00fcller \u5f20\u4f1f\",\"PHONE_NUMBER\":\"555-1212\"}";
+
+    private final List<Object> calls = new ArrayList<>();
+
+    private SzEngine engine = null;
+
+    @BeforeAll
+    public void initialize() {
+        this.beginTests();
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.isDefault()) {
+                try {
+                    return InvocationHandler.invokeDefault(proxy, method, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            switch (method.getName()) {
+                case "addRecord":
+                    this.calls.add(args[1]);
+                    return null;
+                case "getRecordPreview":
+                    this.calls.add(args[0]);
+                    return "{}";
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        };
+        this.engine = (SzEngine) Proxy.newProxyInstance(
+            SzEngine.class.getClassLoader(), new Class<?>[] { SzEngine.class }, handler);
+    }
+
+    @AfterAll
+    public void complete() {
+        this.endTests();
+    }
+
+    @Test
+    public void testCharSequenceOverloads() {
+        this.performTest(() -> {
+            try {
+                this.calls.clear();
+                StringBuilder sb = new StringBuilder(RECORD_DEFINITION);
+                this.engine.addRecord(RECORD_KEY, sb, SZ_ADD_RECORD_DEFAULT_FLAGS);
+                this.engine.getRecordPreview(sb, SZ_RECORD_PREVIEW_DEFAULT_FLAGS);
+                CharSequence cs = RECORD_DEFINITION;
+                this.engine.addRecord(RECORD_KEY, cs, SZ_ADD_RECORD_DEFAULT_FLAGS);
+                this.engine.addRecord(RECORD_KEY, (CharSequence) null, SZ_ADD_RECORD_DEFAULT_FLAGS);
+                this.engine.addRecord(RECORD_KEY, null, SZ_ADD_RECORD_DEFAULT_FLAGS);
+                this.engine.getRecordPreview(null, SZ_RECORD_PREVIEW_DEFAULT_FLAGS);
+
+                assertEquals(6, this.calls.size(), "Unexpected number of calls");
+                assertEquals(RECORD_DEFINITION, this.calls.get(0), "Unexpected add definition");
+                assertEquals(RECORD_DEFINITION, this.calls.get(1), "Unexpected preview definition");
+                assertSame(RECORD_DEFINITION, this.calls.get(2), "String was copied");
+                assertNull(this.calls.get(3), "Null was not passed through");
+                assertNull(this.calls.get(4), "Null add definition was not passed through");
+                assertNull(this.calls.get(5), "Null preview definition was not passed through");
+
+            } catch (SzException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Test
+    public void testUtf8Methods() {
+        this.performTest(() -> {
+            try {
+                this.calls.clear();
+                byte[] utf8 = RECORD_DEFINITION.getBytes(StandardCharsets.UTF_8);
+
+                // a heap buffer that is a slice of a larger array
+                byte[] padded = new byte[utf8.length + 10];
+                System.arraycopy(utf8, 0, padded, 5, utf8.length);
+                ByteBuffer heap = ByteBuffer.wrap(padded, 5, utf8.length).slice();
+                this.engine.addRecordUtf8(RECORD_KEY, heap, SZ_ADD_RECORD_DEFAULT_FLAGS);
+                assertEquals(0, heap.position(), "Position of heap buffer changed");
+
+                // a direct buffer with a non-zero position
+                ByteBuffer direct = ByteBuffer.allocateDirect(utf8.length + 3);
+                direct.put(new byte[] { 'x', 'y', 'z' }).put(utf8).flip().position(3);
+                this.engine.getRecordPreviewUtf8(direct, SZ_RECORD_PREVIEW_DEFAULT_FLAGS);
+                assertEquals(3, direct.position(), "Position of direct buffer changed");
+
+                // a large direct buffer that exceeds the scratch buffer
+                StringBuilder sb = new StringBuilder();
+                while (sb.length() < 100000) {
+                    sb.append(RECORD_DEFINITION);
+                }
+                byte[] large = sb.toString().getBytes(StandardCharsets.UTF_8);
+                ByteBuffer largeDirect = ByteBuffer.allocateDirect(large.length);
+                largeDirect.put(large).flip();
+                this.engine.addRecordUtf8(RECORD_KEY, largeDirect, SZ_ADD_RECORD_DEFAULT_FLAGS);
+
+                this.engine.addRecordUtf8(RECORD_KEY, null, SZ_ADD_RECORD_DEFAULT_FLAGS);
+
+                assertEquals(4, this.calls.size(), "Unexpected number of calls");
+                assertEquals(RECORD_DEFINITION, this.calls.get(0), "Unexpected heap decoding");
+                assertEquals(RECORD_DEFINITION, this.calls.get(1), "Unexpected direct decoding");
+                assertEquals(sb.toString(), this.calls.get(2), "Unexpected large decoding");
+                assertNull(this.calls.get(3), "Null was not passed through");
+
+            } catch (SzException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+}
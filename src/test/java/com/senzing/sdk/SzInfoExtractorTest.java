@@ -0,0 +1,147 @@
+package com.senzing.sdk;
+
+import java.util.List;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzInfoExtractorTest extends AbstractTest {
+    public List<Arguments> getExtractParameters() {
+        List<Arguments> result = new ArrayList<>();
+
+        result.add(Arguments.of(
+            "{\"DATA_SOURCE\":\"CUSTOMERS\",\"RECORD_ID\":\"1001\","
+            + "\"AFFECTED_ENTITIES\":[{\"ENTITY_ID\":1},{\"ENTITY_ID\":35}]}",
+            new long[] { 1L, 35L }, SzRecordKey.of("CUSTOMERS", "1001")));
+
+        result.add(Arguments.of(
+            "{ \"AFFECTED_ENTITIES\" : [ { \"ENTITY_ID\" : 100 } ] ,\n"
+            + "  \"DATA_SOURCE\" : \"EMPLOYEES\", \"RECORD_ID\" : \"A\\\"B\\u0043\" }",
+            new long[] { 100L }, SzRecordKey.of("EMPLOYEES", "A\"BC")));
+
+        result.add(Arguments.of(
+            "{\"DATA_SOURCE\":\"TEST\",\"RECORD_ID\":\"X\",\"AFFECTED_ENTITIES\":"
+            + "[{\"ENTITY_ID\":5,\"DETAIL\":{\"ENTITY_ID\":99,\"NAME\":\"ENTITY_ID\\\"}\"}},"
+            + "{\"LENS_CODE\":\"DEFAULT\",\"ENTITY_ID\":6}],\"INTERESTING_ENTITIES\":"
+            + "{\"ENTITIES\":[{\"ENTITY_ID\":77}]}}",
+            new long[] { 5L, 6L }, SzRecordKey.of("TEST", "X")));
+
+        result.add(Arguments.of(
+            "{\"AFFECTED_ENTITIES\":[{\"ENTITY_ID\":9223372036854775807}]}",
+            new long[] { Long.MAX_VALUE }, null));
+
+        result.add(Arguments.of(
+            "{\"DATA_SOURCE\":\"\",\"RECORD_ID\":\"\",\"AFFECTED_ENTITIES\":[]}",
+            new long[0], null));
+
+        result.add(Arguments.of("{}", new long[0], null));
+
+        result.add(Arguments.of("  ", new long[0], null));
+
+        result.add(Arguments.of(null, new long[0], null));
+
+        return result;
+    }
+
+    @ParameterizedTest
+    @MethodSource("getExtractParameters")
+    void testExtract(String info, long[] expectedIds, SzRecordKey expectedKey) {
+        SzInfoExtractor extractor = new SzInfoExtractor();
+
+        int count = extractor.extract(info);
+        assertEquals(expectedIds.length, count, "Unexpected entity count");
+        assertEquals(expectedIds.length, extractor.getAffectedEntityCount(),
+                     "Unexpected entity count");
+        assertArrayEquals(expectedIds, extractor.getAffectedEntityIds(),
+                          "Unexpected affected entity ID's");
+        for (int index = 0; index < count; index++) {
+            assertEquals(expectedIds[index], extractor.getAffectedEntityId(index),
+                         "Unexpected entity ID at index " + index);
+        }
+        assertEquals(expectedKey, extractor.getRecordKey(),
+                     "Unexpected record key");
+
+        long[] target = new long[count + 2];
+        assertEquals(count, extractor.copyAffectedEntityIds(target, 2),
+                     "Unexpected copied count");
+
+        assertArrayEquals(expectedIds,
+                          SzInfoExtractor.extractAffectedEntityIds(info),
+                          "Unexpected result from static convenience method");
+
+        // check that a StringBuffer can be used directly
+        if (info != null) {
+            extractor.extract(new StringBuffer(info));
+            assertArrayEquals(expectedIds, extractor.getAffectedEntityIds(),
+                              "Unexpected affected entity ID's from StringBuffer");
+            assertEquals(expectedKey, extractor.getRecordKey(),
+                         "Unexpected record key from StringBuffer");
+        }
+    }
+
+    @Test
+    void testReuse() {
+        SzInfoExtractor extractor = new SzInfoExtractor();
+        StringBuilder sb = new StringBuilder("{\"AFFECTED_ENTITIES\":[");
+        for (int index = 0; index < 100; index++) {
+            if (index > 0) {
+                sb.append(",");
+            }
+            sb.append("{\"ENTITY_ID\":").append(index + 1).append("}");
+        }
+        sb.append("],\"DATA_SOURCE\":\"TEST\",\"RECORD_ID\":\"ABC\"}");
+
+        assertEquals(100, extractor.extract(sb), "Unexpected entity count");
+        assertEquals(100L, extractor.getAffectedEntityId(99),
+                     "Unexpected last entity ID");
+        assertEquals("ABC", extractor.getRecordId(), "Unexpected record ID");
+
+        assertEquals(1, extractor.extract("{\"AFFECTED_ENTITIES\":[{\"ENTITY_ID\":7}]}"),
+                     "Unexpected entity count after reuse");
+        assertNull(extractor.getDataSourceCode(),
+                   "Data source code not reset on reuse");
+        assertNull(extractor.getRecordId(), "Record ID not reset on reuse");
+
+        try {
+            extractor.getAffectedEntityId(1);
+            fail("Unexpectedly obtained entity ID beyond count");
+        } catch (IndexOutOfBoundsException expected) {
+            // do nothing
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "[]",
+        "{\"AFFECTED_ENTITIES\":[{\"ENTITY_ID\":1}]",
+        "{\"AFFECTED_ENTITIES\":[{\"ENTITY_ID\":1.5}]}",
+        "{\"DATA_SOURCE\":\"TEST}",
+        "{\"DATA_SOURCE\" \"TEST\"}",
+        "{\"RECORD_ID\":\"X\"} extra"
+    })
+    void testInvalid(String info) {
+        SzInfoExtractor extractor = new SzInfoExtractor();
+        try {
+            extractor.extract(info);
+            fail("Unexpectedly extracted from invalid INFO: " + info);
+
+        } catch (IllegalArgumentException expected) {
+            assertEquals(0, extractor.getAffectedEntityCount(),
+                         "State not reset after failure");
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.senzing.sdk;
+
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static com.senzing.sdk.SzFlag.SZ_ADD_RECORD_DEFAULT_FLAGS;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzRecordBuilderTest extends AbstractTest {
+    @BeforeAll
+    public void initialize() {
+        this.beginTests();
+    }
+
+    @AfterAll
+    public void complete() {
+        this.endTests();
+    }
+
+    private static JsonObject parse(CharSequence json) {
+        return Json.createReader(new StringReader(json.toString())).readObject();
+    }
+
+    @Test
+    public void testBasicRecord() {
+        this.performTest(() -> {
+            SzRecordBuilder builder = SzRecordBuilder.newBuilder();
+            CharSequence json = builder.begin(" CUSTOMERS ", "1001")
+                .add("NAME_FULL", "Joe Schmoe")
+                .add("PHONE_NUMBER", (CharSequence) null)
+                .add("AGE", 42L)
+                .getJson();
+
+            JsonObject obj = parse(json);
+            assertEquals("CUSTOMERS", obj.getString("DATA_SOURCE"), "Unexpected data source");
+            assertEquals("1001", obj.getString("RECORD_ID"), "Unexpected record ID");
+            assertEquals("Joe Schmoe", obj.getString("NAME_FULL"), "Unexpected name");
+            assertEquals("42", obj.getString("AGE"), "Unexpected age");
+            assertFalse(obj.containsKey("PHONE_NUMBER"), "Null attribute was not omitted");
+            assertEquals(SzRecordKey.of("CUSTOMERS", "1001"), builder.getRecordKey(),
+                         "Unexpected record key");
+            assertSame(json, builder.getJson(), "JSON was copied on repeated finish");
+        });
+    }
+
+    @Test
+    public void testFeatureGroups() {
+        this.performTest(() -> {
+            SzRecordBuilder builder = SzRecordBuilder.forCurrentThread();
+            assertSame(builder, SzRecordBuilder.forCurrentThread(),
+                       "Per-thread builder was not reused");
+            JsonObject obj = parse(builder.begin("CUSTOMERS", "1002")
+                .add("NAME_FULL", "Jane Doe")
+                .beginGroup("ADDRESSES")
+                    .beginEntry().add("ADDR_TYPE", "HOME").add("ADDR_FULL", "1 Main St").endEntry()
+                    .beginEntry().add("ADDR_TYPE", "MAIL").add("ADDR_FULL", "PO Box 9").endEntry()
+                .endGroup()
+                .beginGroup("PHONES")
+                    .beginEntry().add("PHONE_NUMBER", "555-1212")
+                .getJson());
+
+            JsonArray addresses = obj.getJsonArray("ADDRESSES");
+            assertEquals(2, addresses.size(), "Unexpected number of addresses");
+            assertEquals("HOME", addresses.getJsonObject(0).getString("ADDR_TYPE"),
+                         "Unexpected first address");
+            assertEquals("PO Box 9", addresses.getJsonObject(1).getString("ADDR_FULL"),
+                         "Unexpected second address");
+            JsonArray phones = obj.getJsonArray("PHONES");
+            assertEquals(1, phones.size(), "Open group was not closed by finish");
+            assertEquals("555-1212", phones.getJsonObject(0).getString("PHONE_NUMBER"),
+                         "Unexpected phone");
+
+            // the buffer is reused for the next record
+            obj = parse(builder.begin("CUSTOMERS", "1003")
+                .beginGroup("NAMES").endGroup().getJson());
+            assertEquals("1003", obj.getString("RECORD_ID"), "Unexpected record ID");
+            assertEquals(0, obj.getJsonArray("NAMES").size(), "Unexpected group size");
+            assertFalse(obj.containsKey("ADDRESSES"), "Previous record content remained");
+        });
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "Hello", "Hello,\nWorld", "\f\b\\\tHey!\r\n", "Bell \u0007!",
+                             "Quote \"this\"", "\u00e9\u5f20\u0000\u001f" })
+    public void testEscaping(String value) {
+        this.performTest(() -> {
+            SzRecordBuilder builder = SzRecordBuilder.newBuilder();
+            JsonObject obj = parse(builder.begin("TEST", "ESC")
+                .add("VALUE", value)
+                .add("BUFFERED", new StringBuilder(value))
+                .add("KEY \"" + value + "\"", "X")
+                .getJson());
+            assertEquals(value, obj.getString("VALUE"), "Unexpected escaped value");
+            assertEquals(value, obj.getString("BUFFERED"), "Unexpected escaped buffer");
+            assertEquals("X", obj.getString("KEY \"" + value + "\""),
+                         "Unexpected escaped attribute name");
+
+            StringBuilder sb = new StringBuilder();
+            assertEquals(Utilities.jsonEscape(value),
+                         Utilities.jsonEscape(value, sb).toString(),
+                         "Appending escape differs from jsonEscape(String)");
+        });
+    }
+
+    @Test
+    public void testIllegalStates() {
+        this.performTest(() -> {
+            SzRecordBuilder builder = SzRecordBuilder.newBuilder();
+            assertNull(builder.getRecordKey(), "Unexpected record key before begin");
+            assertThrows(IllegalStateException.class, () -> builder.add("NAME_FULL", "X"),
+                         "Attribute accepted before begin");
+            assertThrows(IllegalStateException.class, () -> builder.getJson(),
+                         "Finished before begin");
+
+            builder.begin("TEST", "1").beginGroup("NAMES");
+            assertThrows(IllegalStateException.class, () -> builder.add("NAME_FULL", "X"),
+                         "Attribute accepted in group without entry");
+            assertThrows(IllegalStateException.class, () -> builder.beginGroup("OTHER"),
+                         "Nested group accepted");
+            builder.beginEntry();
+            assertThrows(IllegalStateException.class, () -> builder.beginEntry(),
+                         "Nested entry accepted");
+            builder.finish();
+            assertThrows(IllegalStateException.class, () -> builder.add("NAME_FULL", "X"),
+                         "Attribute accepted after finish");
+            assertThrows(IllegalStateException.class, () -> builder.endGroup(),
+                         "Group ended after finish");
+            assertThrows(NullPointerException.class, () -> builder.begin(null),
+                         "Null record key accepted");
+        });
+    }
+
+    @Test
+    public void testAddRecord() {
+        this.performTest(() -> {
+            List<Object[]> calls = new ArrayList<>();
+            InvocationHandler handler = (proxy, method, args) -> {
+                if (method.isDefault()) {
+                    try {
+                        return InvocationHandler.invokeDefault(proxy, method, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+                if (method.getName().equals("addRecord")) {
+                    calls.add(args);
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            };
+            SzEngine engine = (SzEngine) Proxy.newProxyInstance(
+                SzEngine.class.getClassLoader(), new Class<?>[] { SzEngine.class }, handler);
+
+            try {
+                SzRecordBuilder.newBuilder()
+                    .begin("TEST", "ADD1")
+                    .add("NAME_FULL", "Joe Schmoe")
+                    .addRecord(engine, SZ_ADD_RECORD_DEFAULT_FLAGS);
+            } catch (SzException e) {
+                throw new RuntimeException(e);
+            }
+            assertEquals(1, calls.size(), "Unexpected number of calls");
+            assertEquals(SzRecordKey.of("TEST", "ADD1"), calls.get(0)[0],
+                         "Unexpected record key");
+            assertEquals("Joe Schmoe", parse((String) calls.get(0)[1]).getString("NAME_FULL"),
+                         "Unexpected record definition");
+        });
+    }
+}
@@ -39,6 +39,9 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Iterator;
@@ -722,6 +725,22 @@ public class SzConfigRetryableTest extends AbstractCoreTest
                       Boolean.TRUE,
                       (test, pre) -> arrayOf(RECORD_ABC123));
 
+            addMethod(handledMethods,
+                      results,
+                      (test, pre) -> test.env.getEngine(),
+                      SzEngine.class.getMethod("getRecordPreview", CharSequence.class, Set.class),
+                      Boolean.TRUE,
+                      (test, pre) -> arrayOf(new StringBuilder(RECORD_ABC123),
+                                             SZ_RECORD_PREVIEW_ALL_FLAGS));
+
+            addMethod(handledMethods,
+                      results,
+                      (test, pre) -> test.env.getEngine(),
+                      SzEngine.class.getMethod("getRecordPreviewUtf8", ByteBuffer.class, Set.class),
+                      Boolean.TRUE,
+                      (test, pre) -> arrayOf(ByteBuffer.wrap(RECORD_ABC123.getBytes(StandardCharsets.UTF_8)),
+                                             SZ_RECORD_PREVIEW_ALL_FLAGS));
+
             addMethod(handledMethods,
                       results,
                       (test, pre) -> test.env.getEngine(),
@@ -1153,6 +1172,23 @@ public class SzConfigRetryableTest extends AbstractCoreTest
                       Boolean.TRUE,
                       (test, pre) -> arrayOf(PASSENGER_DEF456, RECORD_DEF456));
 
+            addMethod(handledMethods,
+                      results,
+                      (test, pre) -> test.env.getEngine(),
+                      SzEngine.class.getMethod("addRecord", SzRecordKey.class, CharSequence.class, Set.class),
+                      Boolean.TRUE,
+                      (test, pre) -> arrayOf(PASSENGER_ABC123, new StringBuilder(RECORD_ABC123),
+                                             SZ_ADD_RECORD_ALL_FLAGS));
+
+            addMethod(handledMethods,
+                      results,
+                      (test, pre) -> test.env.getEngine(),
+                      SzEngine.class.getMethod("addRecordUtf8", SzRecordKey.class, ByteBuffer.class, Set.class),
+                      Boolean.TRUE,
+                      (test, pre) -> arrayOf(PASSENGER_DEF456,
+                                             ByteBuffer.wrap(RECORD_DEF456.getBytes(StandardCharsets.UTF_8)),
+                                             SZ_ADD_RECORD_ALL_FLAGS));
+
             addMethod(handledMethods,
                       results,
                       (test, pre) -> test.env.getEngine(),
@@ -1195,6 +1231,31 @@ public class SzConfigRetryableTest extends AbstractCoreTest
                       Boolean.TRUE,
                       (test, pre) -> arrayOf(EMPLOYEE_DEF456));
 
+            addMethod(handledMethods,
+                      results,
+                      (test, pre) -> test.env.getEngine(),
+                      SzEngine.class.getMethod("deleteRecords", Collection.class, Set.class),
+                      Boolean.FALSE,
+                      (test, pre) -> arrayOf(List.of(EMPLOYEE_ABC123, EMPLOYEE_DEF456), 
+                                             SZ_DELETE_RECORD_ALL_FLAGS));
+
+            addMethod(handledMethods,
+                      results,
+                      (test, pre) -> test.env.getEngine(),
+                      SzEngine.class.getMethod("reevaluateRecords", Collection.class, Set.class),
+                      Boolean.FALSE,
+                      (test, pre) -> arrayOf(List.of(CUSTOMER_ABC123, CUSTOMER_DEF456), 
+                                             SZ_REEVALUATE_RECORD_ALL_FLAGS));
+
+            addMethod(handledMethods,
+                      results,
+                      (test, pre) -> test.env.getEngine(),
+                      SzEngine.class.getMethod("reevaluateEntities", long[].class, Set.class),
+                      Boolean.FALSE,
+                      (test, pre) -> arrayOf(new long[] { test.getEntityId(CUSTOMER_ABC123),
+                                                          test.getEntityId(CUSTOMER_DEF456) },
+                                             SZ_REEVALUATE_ENTITY_ALL_FLAGS));
+
             Method[] methods = SzEngine.class.getMethods();
             for (Method method : methods) {
                 addMethod(handledMethods, 
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -21,6 +22,8 @@ import org.junit.jupiter.params.provider.MethodSource;
 import static org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import static org.junit.jupiter.api.TestInstance.Lifecycle;
 
+import com.senzing.sdk.SzBatchOutcome;
+import com.senzing.sdk.SzBatchResult;
 import com.senzing.sdk.SzEngine;
 import com.senzing.sdk.SzFlag;
 import com.senzing.sdk.SzRecordKey;
@@ -33,6 +36,8 @@ import com.senzing.util.JsonUtilities;
 import com.senzing.util.SemanticVersion;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.fail;
 import static com.senzing.sdk.SzFlag.*;
 
@@ -307,6 +312,58 @@ public class SzCoreEngineWriteTest
         });
     }    
 
+    @Test
+    @Order(460)
+    public void testReevaluateRecordsBatch()
+    {
+        this.performTest(() -> {
+            try {
+                SzCoreEngine engine = (SzCoreEngine) this.env.getEngine();
+
+                List<SzRecordKey>   recordKeys      = new ArrayList<>();
+                List<Class<?>>      exceptionTypes  = new ArrayList<>();
+                for (Arguments args : this.getReevaluateRecordArguments()) {
+                    Object[] arr = args.get();
+                    recordKeys.add((SzRecordKey) arr[0]);
+                    exceptionTypes.add((Class<?>) arr[arr.length - 1]);
+                }
+
+                SzBatchResult<SzRecordKey> result
+                    = engine.reevaluateRecords(recordKeys, SZ_WITH_INFO_FLAGS);
+
+                List<SzBatchOutcome<SzRecordKey>> outcomes = result.getOutcomes();
+
+                assertEquals(recordKeys.size(), outcomes.size(),
+                             "Unexpected number of batch outcomes");
+
+                for (int index = 0; index < outcomes.size(); index++) {
+                    SzBatchOutcome<SzRecordKey> outcome = outcomes.get(index);
+                    Class<?> exceptionType = exceptionTypes.get(index);
+
+                    assertEquals(recordKeys.get(index), outcome.key(),
+                                 "Batch outcomes not in order of record keys");
+
+                    if (exceptionType == null) {
+                        assertNull(outcome.failure(), "Unexpected failure for "
+                                   + "record key: " + outcome.key());
+                    } else {
+                        assertNotNull(outcome.failure(), "Unexpected success for "
+                                      + "record key: " + outcome.key());
+                        assertEquals(exceptionType, outcome.failure().getClass(),
+                                     "Unexpected exception type for record key: "
+                                     + outcome.key());
+                    }
+                }
+
+                assertNotNull(result.getAffectedEntityIds(),
+                              "Affected entity ID's are missing with INFO");
+
+            } catch (Exception e) {
+                fail("Unexpectedly failed batch reevaluating records", e);
+            }
+        });
+    }
+
     public List<Arguments> getReevaluateEntityDefaultArguments() {
         List<Arguments> baseArgs = this.getReevaluateEntityArguments();
 
@@ -7,6 +7,7 @@ import java.util.LinkedList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Random;
+import java.util.Set;
 
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.Future;
@@ -33,6 +34,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.junit.jupiter.api.Test;
 
@@ -42,6 +44,10 @@ import com.senzing.sdk.SzConfigManager;
 import com.senzing.sdk.SzEngine;
 import com.senzing.sdk.SzDiagnostic;
 import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzRecordKey;
+import com.senzing.sdk.SzRetryableException;
+import com.senzing.sdk.SzUnknownDataSourceException;
+import com.senzing.sdk.SzUnrecoverableException;
 
 import static com.senzing.sdk.core.SzCoreEnvironment.*;
 import static com.senzing.sdk.core.SzCoreUtilities.*;
@@ -933,6 +939,64 @@ public class SzCoreEnvironmentTest extends AbstractCoreTest {
         });
     }
 
+    @ParameterizedTest
+    @MethodSource("getCreateSzExceptionParameters")
+    void testGetExceptionClass(int                          errorCode,
+                               Class<? extends SzException> cls,
+                               String                       errorMessage)
+    {
+        this.performTest(() -> {
+            assertSame(cls, getExceptionClass(errorCode),
+                       "Exception class is not as expected");
+            assertSame(SzException.class, getExceptionClass(-1 * errorCode),
+                       "Exception class for unmapped error code is not as expected");
+        });
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Hello", "Hello,\nWorld", "\f\b\\\tHey!\r\n", "Bell \u0007!"})
+    void testJsonEscape(String value) {
+        this.performTest(() -> {
+            StringBuilder sb = new StringBuilder("x");
+            assertSame(sb, jsonEscape(new StringBuilder(value), sb),
+                       "The specified StringBuilder was not returned");
+            assertEquals("x" + Utilities.jsonEscape(value), sb.toString(),
+                         "The escaped value is not as expected");
+            assertEquals("null", jsonEscape(null, new StringBuilder()).toString(),
+                         "The escaped null value is not as expected");
+        });
+    }
+
+    @ParameterizedTest
+    @MethodSource("getCreateSzExceptionParameters")
+    void testClassifyFailure(int                          errorCode,
+                             Class<? extends SzException> cls,
+                             String                       errorMessage)
+    {
+        this.performTest(() -> {
+            SzException failure = new SzException(errorCode, errorMessage);
+            assertSame(cls, resolveExceptionClass(failure),
+                       "Resolved exception class is not as expected");
+
+            FailureAction expected = FailureAction.FAIL;
+            if (SzUnrecoverableException.class.isAssignableFrom(cls)) {
+                expected = FailureAction.STOP;
+            } else if (SzRetryableException.class.isAssignableFrom(cls)) {
+                expected = FailureAction.RETRY;
+            }
+            assertEquals(expected, classifyFailure(cls, 1, 1),
+                         "Failure action is not as expected");
+            assertEquals((expected == FailureAction.RETRY) ? FailureAction.FAIL : expected,
+                         classifyFailure(cls, 2, 1),
+                         "Failure action after the last retry is not as expected");
+            assertEquals(expected == FailureAction.STOP, isUnrecoverable(failure),
+                         "Unrecoverable check is not as expected");
+
+            long delay = backoffDelay(3, 100L, 1000L);
+            assertTrue(delay >= 200L && delay <= 400L, "Backoff delay out of range: " + delay);
+        });
+    }
+
     private List<Arguments> getActiveConfigIdParams() {
         List<Arguments> result = new LinkedList<>();
         long[] configIds = { this.configId1, this.configId2, this.configId3 };
@@ -1209,4 +1273,73 @@ public class SzCoreEnvironmentTest extends AbstractCoreTest {
             }    
         });
     }
+
+    @Test
+    public void testParseDataSourceCodes() {
+        this.performTest(() -> {
+            assertEquals(Set.of("TEST", "SEARCH", "A\"B"),
+                DataSourceCache.parseDataSourceCodes(
+                    "{\"DATA_SOURCES\": [{\"DSRC_ID\":1,\"DSRC_CODE\":\"TEST\"},"
+                    + "{ \"DSRC_ID\" : 2, \"DSRC_CODE\" : \"search\" },"
+                    + "{\"DSRC_ID\":3,\"DSRC_CODE\":\"A\\\"B\"}]}"),
+                "Unexpected data source codes");
+            assertEquals(Set.of(),
+                DataSourceCache.parseDataSourceCodes("{\"DATA_SOURCES\":[]}"),
+                "Unexpected data source codes for empty registry");
+            assertNull(DataSourceCache.parseDataSourceCodes("{\"OTHER\":[]}"),
+                "Unrecognized registry was interpreted");
+            assertNull(DataSourceCache.parseDataSourceCodes(
+                "{\"DATA_SOURCES\":[{\"DSRC_CODE\":\"TEST"),
+                "Truncated registry was interpreted");
+        });
+    }
+
+    @Test
+    public void testValidateDataSources() {
+        this.performTest(() -> {
+            SzCoreEnvironment env  = null;
+            try {
+                String settings = this.getRepoSettings();
+                String instanceName = this.getInstanceName("ValidateDataSources");
+    
+                env  = SzCoreEnvironment.newBuilder().settings(settings)
+                                                     .instanceName(instanceName)
+                                                     .configId(this.configId1)
+                                                     .validateDataSources(true)
+                                                     .build();
+
+                assertTrue(env.isValidatingDataSources(),
+                           "Data source validation is not enabled");
+
+                SzEngine engine = env.getEngine();
+                SzRecordKey employee = SzRecordKey.of(EMPLOYEES_DATA_SOURCE, "ABC123");
+
+                // the first configuration does not have the employees data source
+                SzUnknownDataSourceException e = assertThrows(
+                    SzUnknownDataSourceException.class,
+                    () -> engine.deleteRecord(employee),
+                    "Unknown data source was not rejected");
+                assertEquals(DataSourceCache.UNKNOWN_DATA_SOURCE_ERROR_CODE, e.getErrorCode(),
+                             "Unexpected error code for unknown data source");
+
+                // known data sources are not rejected regardless of case
+                engine.deleteRecord(SzRecordKey.of(
+                    CUSTOMERS_DATA_SOURCE.toLowerCase(), "ABC123"));
+
+                // the registry is reloaded after reinitializing
+                env.reinitialize(this.configId2);
+                engine.deleteRecord(employee);
+                assertThrows(SzUnknownDataSourceException.class,
+                             () -> engine.deleteRecord(
+                                SzRecordKey.of(CUSTOMERS_DATA_SOURCE, "ABC123")),
+                             "Data source from prior configuration was not rejected");
+
+            } catch (Exception e) {
+                fail("Got exception in testValidateDataSources", e);
+
+            } finally {
+                if (env != null) env.destroy();
+            }
+        });
+    }
 }
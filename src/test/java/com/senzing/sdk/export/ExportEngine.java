@@ -0,0 +1,134 @@
+package com.senzing.sdk.export;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import com.senzing.sdk.SzEngine;
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzFlag;
+
+/**
+ * Provides an {@link InvocationHandler} for a proxy {@link SzEngine} that
+ * serves export chunks from a queue, records the export reports that are
+ * opened and closed and optionally fails on demand, for testing the export
+ * classes without the native Senzing libraries.
+ */
+class ExportEngine implements InvocationHandler {
+    private static final long EXPORT_HANDLE = 42L;
+
+    private final Queue<String> chunks = new ConcurrentLinkedQueue<>();
+
+    private final List<String> exports = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger fetchCount = new AtomicInteger(0);
+
+    private final AtomicInteger closeCount = new AtomicInteger(0);
+
+    private volatile Set<SzFlag> exportFlags = null;
+
+    private volatile int failAtFetch = -1;
+
+    private volatile long fetchDelayNanos = 0L;
+
+    private final SzEngine engine;
+
+    ExportEngine(String... chunks) {
+        this.chunks.addAll(List.of(chunks));
+        this.engine = (SzEngine) Proxy.newProxyInstance(
+            SzEngine.class.getClassLoader(),
+            new Class<?>[] { SzEngine.class },
+            this);
+    }
+
+    SzEngine getEngine() {
+        return this.engine;
+    }
+
+    void addChunk(String chunk) {
+        this.chunks.add(chunk);
+    }
+
+    void setFailAtFetch(int fetchNumber) {
+        this.failAtFetch = fetchNumber;
+    }
+
+    void setFetchDelayMillis(long delayMillis) {
+        this.fetchDelayNanos = TimeUnit.MILLISECONDS.toNanos(delayMillis);
+    }
+
+    List<String> getExports() {
+        return this.exports;
+    }
+
+    Set<SzFlag> getExportFlags() {
+        return this.exportFlags;
+    }
+
+    int getFetchCount() {
+        return this.fetchCount.get();
+    }
+
+    int getCloseCount() {
+        return this.closeCount.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.isDefault()) {
+            try {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+        switch (method.getName()) {
+            case "exportJsonEntityReport":
+                this.exports.add("JSON");
+                this.exportFlags = (Set<SzFlag>) args[0];
+                return EXPORT_HANDLE;
+            case "exportCsvEntityReport":
+                this.exports.add("CSV:" + args[0]);
+                this.exportFlags = (Set<SzFlag>) args[1];
+                return EXPORT_HANDLE;
+            case "fetchNext":
+                {
+                    if (((Long) args[0]) != EXPORT_HANDLE || this.closeCount.get() > 0) {
+                        throw new SzException("Invalid export handle: " + args[0]);
+                    }
+                    int fetchNumber = this.fetchCount.incrementAndGet();
+                    if (this.fetchDelayNanos > 0L) {
+                        LockSupport.parkNanos(this.fetchDelayNanos);
+                    }
+                    if (fetchNumber == this.failAtFetch) {
+                        throw new SzException("Simulated fetch failure");
+                    }
+                    return this.chunks.poll();
+                }
+            case "closeExportReport":
+                if (((Long) args[0]) != EXPORT_HANDLE) {
+                    throw new SzException("Invalid export handle: " + args[0]);
+                }
+                this.closeCount.incrementAndGet();
+                return null;
+            case "toString":
+                return "ExportEngine";
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.senzing.sdk.export;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzCsvExportDecoderTest extends AbstractTest {
+    private static final String[] CHUNKS = {
+        "RESOLVED_ENTITY_ID,RELATED_ENTITY_ID,MATCH_LEVEL,MATCH_KEY,DATA_SOURCE,RECORD_ID\r\n",
+        "1,0,0,\"\",CUSTOMERS,1001\r\n1,0,1,\"+NAME,+DOB\",WATCH",
+        "LIST,\"ab\"\"c\"\r\n\r\n",
+        "2,0,0,\"\",CUSTOMERS,\"line\nbreak\"\r\n",
+        "9223372036854775807,1,2,\"+NAME\",",
+        "WATCHLIST,1004"
+    };
+
+    @BeforeAll
+    public void initialize() {
+        this.beginTests();
+    }
+
+    @AfterAll
+    public void complete() {
+        this.endTests();
+    }
+
+    @Test
+    public void testBuilderValidation() {
+        this.performTest(() -> {
+            assertThrows(IllegalStateException.class,
+                         () -> SzCsvExportDecoder.newBuilder().build(),
+                         "Missing engine accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzCsvExportDecoder.newBuilder().columns(),
+                         "Empty projection accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzCsvExportDecoder.newBuilder().columns("A", "a"),
+                         "Repeated column accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzCsvExportDecoder.newBuilder().maxDictionarySize(0),
+                         "Zero dictionary size accepted");
+            assertThrows(NullPointerException.class,
+                         () -> SzCsvExportDecoder.newBuilder().csvColumnList(null),
+                         "Null column list accepted");
+        });
+    }
+
+    @Test
+    public void testDecode() {
+        this.performTest(() -> {
+            ExportEngine exportEngine = new ExportEngine(CHUNKS);
+            try (SzCsvExportDecoder decoder = SzCsvExportDecoder.newBuilder()
+                    .engine(exportEngine.getEngine())
+                    .csvColumnList("*")
+                    .build())
+            {
+                assertEquals(List.of("CSV:*"), exportEngine.getExports(),
+                             "Unexpected exports");
+                assertEquals(6, decoder.getColumnCount(), "Unexpected column count");
+
+                SzCsvExportRow row = decoder.newRow();
+                assertTrue(decoder.next(row), "Missing first row");
+                assertEquals(1L, row.getRowNumber(), "Unexpected row number");
+                assertEquals(1L, row.getEntityId(), "Unexpected entity ID");
+                assertEquals(0, row.getMatchLevel(), "Unexpected match level");
+                assertTrue(row.isEmpty(decoder.getColumnIndex("match_key")),
+                           "Match key not empty");
+                String dataSource = row.getDataSource();
+                assertEquals("CUSTOMERS", dataSource, "Unexpected data source");
+
+                assertTrue(decoder.next(row), "Missing second row");
+                assertEquals(1, row.getMatchLevel(), "Unexpected match level");
+                assertEquals("+NAME,+DOB", row.getMatchKey(), "Unexpected match key");
+                assertEquals("WATCHLIST", row.getDataSource(), "Unexpected data source");
+                assertEquals("ab\"c", row.getRecordId(), "Unexpected record ID");
+
+                assertTrue(decoder.next(row), "Missing third row");
+                assertEquals(3L, row.getRowNumber(), "Empty line not skipped");
+                assertEquals(2L, row.getEntityId(), "Unexpected entity ID");
+                assertSame(dataSource, row.getDataSource(), "Data source not interned");
+                assertEquals("line\nbreak", row.getRecordId(), "Unexpected record ID");
+
+                assertTrue(decoder.next(row), "Missing fourth row");
+                assertEquals(Long.MAX_VALUE, row.getEntityId(), "Unexpected entity ID");
+                assertEquals(1L, row.getRelatedEntityId(), "Unexpected related ID");
+                assertEquals(2, row.getMatchLevel(), "Unexpected match level");
+                assertEquals("1004", row.getRecordId(), "Unexpected record ID");
+
+                assertFalse(decoder.next(row), "Unexpected extra row");
+                assertEquals(4L, decoder.getRowCount(), "Unexpected row count");
+                assertEquals(3, decoder.getDictionarySize(), "Unexpected dictionary size");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+            assertEquals(1, exportEngine.getCloseCount(), "Export not closed");
+        });
+    }
+
+    @Test
+    public void testProjection() {
+        this.performTest(() -> {
+            try (SzCsvExportDecoder decoder = SzCsvExportDecoder.newBuilder()
+                    .engine(new ExportEngine(CHUNKS).getEngine())
+                    .columns("data_source", "RESOLVED_ENTITY_ID")
+                    .build())
+            {
+                assertEquals(List.of("data_source", "RESOLVED_ENTITY_ID"),
+                             decoder.getColumnNames(), "Unexpected column names");
+                SzCsvExportRow row = decoder.newRow();
+                long total = 0L;
+                while (decoder.next(row)) {
+                    total += row.getEntityId();
+                    assertEquals(row.getDataSource(), row.getInterned(0),
+                                 "Unexpected projected column");
+                }
+                assertEquals(Long.MAX_VALUE + 4L, total, "Unexpected entity ID total");
+                assertThrows(IllegalStateException.class, () -> row.getMatchLevel(),
+                             "Unprojected column decoded");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testMissingColumn() {
+        this.performTest(() -> {
+            ExportEngine exportEngine = new ExportEngine(CHUNKS);
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzCsvExportDecoder.newBuilder()
+                                .engine(exportEngine.getEngine())
+                                .columns("ENTITY_NAME")
+                                .build(),
+                         "Missing column accepted");
+            assertEquals(1, exportEngine.getCloseCount(), "Export not closed");
+        });
+    }
+
+    @Test
+    public void testFailure() {
+        this.performTest(() -> {
+            ExportEngine exportEngine = new ExportEngine(CHUNKS);
+            exportEngine.setFailAtFetch(3);
+            try (SzCsvExportDecoder decoder = SzCsvExportDecoder.newBuilder()
+                    .engine(exportEngine.getEngine())
+                    .build())
+            {
+                SzCsvExportRow row = decoder.newRow();
+                SzException e = assertThrows(SzException.class,
+                                             () -> { while (decoder.next(row)); },
+                                             "Failure not thrown");
+                assertEquals("Simulated fetch failure", e.getMessage(),
+                             "Unexpected failure");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+            assertEquals(1, exportEngine.getCloseCount(), "Export not closed");
+        });
+    }
+}
@@ -0,0 +1,177 @@
+package com.senzing.sdk.export;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzFlag;
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzExportCursorTest extends AbstractTest {
+    @BeforeAll
+    public void initialize() {
+        this.beginTests();
+    }
+
+    @AfterAll
+    public void complete() {
+        this.endTests();
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - deadline > 0L) {
+                return false;
+            }
+            Thread.sleep(5L);
+        }
+        return true;
+    }
+
+    @Test
+    public void testBuilderValidation() {
+        this.performTest(() -> {
+            assertThrows(IllegalStateException.class,
+                         () -> SzExportCursor.newBuilder().build(),
+                         "Missing engine accepted");
+            assertThrows(NullPointerException.class,
+                         () -> SzExportCursor.newBuilder().engine(null),
+                         "Null engine accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzExportCursor.newBuilder().prefetchDepth(0),
+                         "Zero prefetch depth accepted");
+        });
+    }
+
+    @Test
+    public void testLines() {
+        this.performTest(() -> {
+            ExportEngine exportEngine = new ExportEngine(
+                "{\"ENTITY_ID\":1}\n{\"ENTI", "TY_ID\":2}\r", "\n\n{\"ENTITY_ID\":3}\r\n",
+                "{\"ENTITY_ID\":4}");
+            try (SzExportCursor cursor = SzExportCursor.newBuilder()
+                    .engine(exportEngine.getEngine())
+                    .build())
+            {
+                assertFalse(cursor.isCsv(), "Unexpected CSV export");
+                assertEquals(List.of("JSON"), exportEngine.getExports(), "Unexpected export");
+                assertEquals(SzFlag.SZ_EXPORT_DEFAULT_FLAGS, exportEngine.getExportFlags(),
+                             "Unexpected export flags");
+                assertEquals("{\"ENTITY_ID\":1}", cursor.nextLine(), "Unexpected line");
+                assertEquals("{\"ENTITY_ID\":2}", cursor.nextLine(), "Unexpected line");
+                assertEquals("{\"ENTITY_ID\":3}", cursor.nextLine(), "Unexpected line");
+                assertEquals("{\"ENTITY_ID\":4}", cursor.nextLine(), "Unexpected line");
+                assertNull(cursor.nextLine(), "Unexpected line after end");
+                assertNull(cursor.nextLine(), "Unexpected line after end");
+                assertEquals(4L, cursor.getLineCount(), "Unexpected line count");
+                assertEquals(4L, cursor.getChunkCount(), "Unexpected chunk count");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+            assertEquals(1, exportEngine.getCloseCount(), "Export not closed once");
+        });
+    }
+
+    @Test
+    public void testStream() {
+        this.performTest(() -> {
+            ExportEngine exportEngine = new ExportEngine(
+                "ENTITY_ID,DATA_SOURCE\n1,TEST\n", "2,TEST\n3,TE", "ST\n");
+            try {
+                SzExportCursor cursor = SzExportCursor.newBuilder()
+                    .engine(exportEngine.getEngine())
+                    .csvColumnList("ENTITY_ID,DATA_SOURCE")
+                    .flags(SzFlag.SZ_EXPORT_INCLUDE_ALL_ENTITIES)
+                    .build();
+                assertTrue(cursor.isCsv(), "Not a CSV export");
+                try (Stream<String> lines = cursor.lines()) {
+                    assertEquals(List.of("ENTITY_ID,DATA_SOURCE", "1,TEST", "2,TEST", "3,TEST"),
+                                 lines.toList(), "Unexpected lines");
+                }
+                assertEquals(List.of("CSV:ENTITY_ID,DATA_SOURCE"), exportEngine.getExports(),
+                             "Unexpected export");
+                assertEquals(SzFlag.SZ_EXPORT_INCLUDE_ALL_ENTITIES,
+                             exportEngine.getExportFlags(), "Unexpected export flags");
+                assertEquals(1, exportEngine.getCloseCount(), "Stream close did not close");
+                cursor.close();
+                assertEquals(1, exportEngine.getCloseCount(), "Export closed twice");
+                assertThrows(IllegalStateException.class, () -> cursor.nextLine(),
+                             "Line read after close");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testPrefetch() {
+        this.performTest(() -> {
+            ExportEngine exportEngine = new ExportEngine();
+            for (int index = 0; index < 20; index++) {
+                exportEngine.addChunk("{\"ENTITY_ID\":" + index + "}\n");
+            }
+            try (SzExportCursor cursor = SzExportCursor.newBuilder()
+                    .engine(exportEngine.getEngine())
+                    .prefetchDepth(3)
+                    .build())
+            {
+                // the fetcher gets ahead of the consumer up to the depth
+                assertTrue(await(() -> cursor.getChunkCount() >= 3L),
+                           "Chunks not prefetched: " + cursor);
+                Thread.sleep(100L);
+                assertTrue(cursor.getChunkCount() <= 4L,
+                           "Fetched beyond prefetch depth: " + cursor);
+                assertEquals("{\"ENTITY_ID\":0}", cursor.nextLine(), "Unexpected first line");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+
+            // closing early stops the fetcher and closes the export
+            assertTrue(exportEngine.getFetchCount() < 20, "Export read to the end");
+            assertEquals(1, exportEngine.getCloseCount(), "Export not closed");
+        });
+    }
+
+    @Test
+    public void testFailure() {
+        this.performTest(() -> {
+            ExportEngine exportEngine = new ExportEngine("A\n", "B\n", "C\n", "D\n");
+            exportEngine.setFailAtFetch(3);
+            try (SzExportCursor cursor = SzExportCursor.newBuilder()
+                    .engine(exportEngine.getEngine())
+                    .build())
+            {
+                try (Stream<String> lines = cursor.lines()) {
+                    SzExportException e = assertThrows(SzExportException.class,
+                                                       () -> lines.toList(),
+                                                       "Failure not thrown");
+                    assertEquals("Simulated fetch failure", e.getCause().getMessage(),
+                                 "Unexpected cause");
+                }
+            } catch (SzException e) {
+                fail("Unexpected exception", e);
+            }
+            assertEquals(1, exportEngine.getCloseCount(), "Export not closed");
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package com.senzing.sdk.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzExportSinkTest extends AbstractTest {
+    private static final String[] CHUNKS = {
+        "{\"ENTITY_ID\":1}\n{\"ENTI",
+        "TY_ID\":2}\r",
+        "\n\n{\"ENTITY_ID\":3,\"NAME\":\"a\rb\"}\r\n\r\n",
+        "",
+        "{\"ENTITY_ID\":4,\"NAME\":\"Zoë \uD83D",
+        "\uDE00\"}\r"
+    };
+
+    @BeforeAll
+    public void initialize() {
+        this.beginTests();
+    }
+
+    @AfterAll
+    public void complete() {
+        this.endTests();
+    }
+
+    private static String expectedText() throws SzException {
+        try (SzExportCursor cursor = SzExportCursor.newBuilder()
+                .engine(new ExportEngine(CHUNKS).getEngine())
+                .build();
+             Stream<String> lines = cursor.lines())
+        {
+            return lines.collect(Collectors.joining("\n", "", "\n"));
+        }
+    }
+
+    @Test
+    public void testBuilderValidation() {
+        this.performTest(() -> {
+            assertThrows(IllegalStateException.class,
+                         () -> SzExportSink.newBuilder().build(),
+                         "Missing engine accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzExportSink.newBuilder().bufferSize(3),
+                         "Undersized buffer accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzExportSink.newBuilder().prefetchDepth(0),
+                         "Zero prefetch depth accepted");
+        });
+    }
+
+    @Test
+    public void testWriter() {
+        this.performTest(() -> {
+            try {
+                ExportEngine exportEngine = new ExportEngine(CHUNKS);
+                SzExportSink sink = SzExportSink.newBuilder()
+                    .engine(exportEngine.getEngine())
+                    .build();
+                StringWriter writer = new StringWriter();
+                assertEquals(4L, sink.writeTo(writer), "Unexpected line count");
+                assertEquals(expectedText(), writer.toString(), "Unexpected output");
+                assertEquals(1, exportEngine.getCloseCount(), "Export not closed");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testChannel() {
+        this.performTest(() -> {
+            try {
+                // the tiny buffer forces the encoder to overflow repeatedly
+                ExportEngine exportEngine = new ExportEngine(CHUNKS);
+                SzExportSink sink = SzExportSink.newBuilder()
+                    .engine(exportEngine.getEngine())
+                    .bufferSize(5)
+                    .build();
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                assertEquals(4L, sink.writeTo(Channels.newChannel(baos)),
+                             "Unexpected line count");
+                assertEquals(expectedText(), baos.toString(StandardCharsets.UTF_8),
+                             "Unexpected output");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testFailure() {
+        this.performTest(() -> {
+            ExportEngine exportEngine = new ExportEngine(CHUNKS);
+            exportEngine.setFailAtFetch(2);
+            SzExportSink sink = SzExportSink.newBuilder()
+                .engine(exportEngine.getEngine())
+                .build();
+            SzException e = assertThrows(SzException.class,
+                                         () -> sink.writeTo(new StringWriter()),
+                                         "Failure not thrown");
+            assertEquals("Simulated fetch failure", e.getMessage(), "Unexpected failure");
+            assertEquals(1, exportEngine.getCloseCount(), "Export not closed");
+        });
+    }
+}
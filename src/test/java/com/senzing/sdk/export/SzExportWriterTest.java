@@ -0,0 +1,303 @@
+package com.senzing.sdk.export;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzExportWriterTest extends AbstractTest {
+    private Path tempDir = null;
+
+    @BeforeAll
+    public void initialize() throws IOException {
+        this.tempDir = Files.createTempDirectory("sz-export-");
+        this.beginTests();
+    }
+
+    @AfterAll
+    public void complete() throws IOException {
+        try (Stream<Path> paths = Files.walk(this.tempDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+        this.endTests();
+    }
+
+    private static List<String> readLines(Path path, SzExportCompression compression)
+        throws IOException
+    {
+        InputStream is = Files.newInputStream(path);
+        switch (compression) {
+            case GZIP:
+                is = new GZIPInputStream(is);
+                break;
+            case DEFLATE:
+                is = new InflaterInputStream(is);
+                break;
+            default:
+                // not compressed
+        }
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(is, StandardCharsets.UTF_8)))
+        {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static String sha256(Path path) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(Files.readAllBytes(path)));
+    }
+
+    @Test
+    public void testBuilderValidation() {
+        this.performTest(() -> {
+            assertThrows(IllegalStateException.class,
+                         () -> SzExportWriter.newBuilder().build(),
+                         "Missing engine accepted");
+            assertThrows(NullPointerException.class,
+                         () -> SzExportWriter.newBuilder().compression(null),
+                         "Null compression accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzExportWriter.newBuilder().compressionLevel(10),
+                         "Invalid compression level accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzExportWriter.newBuilder().maxFileBytes(-1L),
+                         "Negative maximum file bytes accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzExportWriter.newBuilder().maxFileEntities(-1L),
+                         "Negative maximum file entities accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzExportWriter.newBuilder().compressorCount(0),
+                         "Zero compressor count accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzExportWriter.newBuilder().blockSize(0),
+                         "Zero block size accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzExportWriter.newBuilder().filePrefix("a/b"),
+                         "File prefix with separator accepted");
+
+            SzExportWriter writer = SzExportWriter.newBuilder()
+                .engine(new ExportEngine().getEngine())
+                .build();
+            assertEquals(SzExportWriter.DEFAULT_COMPRESSION, writer.getCompression(),
+                         "Unexpected compression");
+            assertEquals("export-00001.ndjson.gz", writer.getFileName(1),
+                         "Unexpected file name");
+            assertEquals("export-manifest.json", writer.getManifestFileName(),
+                         "Unexpected manifest file name");
+        });
+    }
+
+    @Test
+    public void testJsonRotation() {
+        this.performTest(() -> {
+            try {
+                List<String> expected = new ArrayList<>();
+                ExportEngine exportEngine = new ExportEngine();
+                StringBuilder chunk = new StringBuilder();
+                for (int index = 1; index <= 10; index++) {
+                    String line = "{\"RESOLVED_ENTITY\":{\"ENTITY_ID\":" + index
+                        + ",\"ENTITY_NAME\":\"Zoë " + index + "\"}}";
+                    expected.add(line);
+                    chunk.append(line).append('\n');
+                    if (index % 3 == 0) {
+                        exportEngine.addChunk(chunk.toString());
+                        chunk.setLength(0);
+                    }
+                }
+                exportEngine.addChunk(chunk.toString());
+
+                // small blocks so each file is compressed in several pieces
+                Path directory = this.tempDir.resolve("json");
+                SzExportWriter writer = SzExportWriter.newBuilder()
+                    .engine(exportEngine.getEngine())
+                    .maxFileEntities(4L)
+                    .blockSize(100)
+                    .compressorCount(3)
+                    .compressionLevel(9)
+                    .build();
+                SzExportManifest manifest = writer.write(directory);
+
+                assertEquals(3, manifest.getFiles().size(), "Unexpected file count");
+                assertEquals(10L, manifest.getEntityCount(), "Unexpected entity count");
+                assertEquals(10L, manifest.getLineCount(), "Unexpected line count");
+                assertEquals(1, exportEngine.getCloseCount(), "Export not closed");
+
+                List<String> actual = new ArrayList<>();
+                long[] entityCounts = { 4L, 4L, 2L };
+                for (int index = 0; index < 3; index++) {
+                    SzExportFile file = manifest.getFiles().get(index);
+                    assertEquals(directory.resolve(writer.getFileName(index + 1)),
+                                 file.getPath(), "Unexpected file path");
+                    List<String> lines = readLines(file.getPath(), SzExportCompression.GZIP);
+                    assertEquals(entityCounts[index], lines.size(), "Unexpected lines");
+                    assertEquals(entityCounts[index], file.getEntityCount(),
+                                 "Unexpected file entity count");
+                    assertEquals(Files.size(file.getPath()), file.getFileByteCount(),
+                                 "Unexpected file size");
+                    assertEquals(sha256(file.getPath()), file.getSha256(),
+                                 "Unexpected digest");
+                    actual.addAll(lines);
+                }
+                assertEquals(expected, actual, "Unexpected exported lines");
+
+                JsonObject json = Json.createReader(new StringReader(Files.readString(
+                    directory.resolve(writer.getManifestFileName())))).readObject();
+                assertEquals("NDJSON", json.getString("FORMAT"), "Unexpected format");
+                assertEquals("GZIP", json.getString("COMPRESSION"), "Unexpected compression");
+                assertEquals(10L, json.getJsonNumber("ENTITY_COUNT").longValue(),
+                             "Unexpected manifest entity count");
+                JsonArray files = json.getJsonArray("FILES");
+                assertEquals(3, files.size(), "Unexpected manifest files");
+                assertEquals("export-00002.ndjson.gz",
+                             files.getJsonObject(1).getString("FILE_NAME"),
+                             "Unexpected manifest file name");
+
+                // the files of an export are never overwritten
+                SzExportWriter rewriter = SzExportWriter.newBuilder()
+                    .engine(new ExportEngine(expected.get(0)).getEngine())
+                    .build();
+                assertThrows(FileAlreadyExistsException.class,
+                             () -> rewriter.write(directory),
+                             "Existing file overwritten");
+                assertEquals(expected.subList(0, 4),
+                             readLines(manifest.getFiles().get(0).getPath(),
+                                       SzExportCompression.GZIP),
+                             "Existing file modified");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testCsvRotation() {
+        this.performTest(() -> {
+            try {
+                String header = "RESOLVED_ENTITY_ID,RELATED_ENTITY_ID,DATA_SOURCE,RECORD_ID";
+                ExportEngine exportEngine = new ExportEngine(
+                    header + "\n1,0,TEST,A\n1,0,TEST,B\n1,0,TEST,C\n2,0,",
+                    "TEST,D\n3,0,TEST,E\n3,0,TEST,F\n",
+                    "4,0,\"TE,ST\",G\n");
+                Path directory = this.tempDir.resolve("csv");
+                SzExportWriter writer = SzExportWriter.newBuilder()
+                    .engine(exportEngine.getEngine())
+                    .csvColumnList("RESOLVED_ENTITY_ID,RELATED_ENTITY_ID,DATA_SOURCE,RECORD_ID")
+                    .compression(SzExportCompression.DEFLATE)
+                    .maxFileBytes(header.length() + 1 + 20)
+                    .filePrefix("entities")
+                    .build();
+                SzExportManifest manifest = writer.write(directory);
+
+                // entity 1 overflows the first file but is not split
+                List<List<String>> expected = List.of(
+                    List.of(header, "1,0,TEST,A", "1,0,TEST,B", "1,0,TEST,C"),
+                    List.of(header, "2,0,TEST,D", "3,0,TEST,E", "3,0,TEST,F"),
+                    List.of(header, "4,0,\"TE,ST\",G"));
+                assertEquals(expected.size(), manifest.getFiles().size(),
+                             "Unexpected file count: " + manifest);
+                for (int index = 0; index < expected.size(); index++) {
+                    SzExportFile file = manifest.getFiles().get(index);
+                    assertTrue(file.getPath().toString().endsWith(".csv.zz"),
+                               "Unexpected file name: " + file.getPath());
+                    assertEquals(expected.get(index),
+                                 readLines(file.getPath(), SzExportCompression.DEFLATE),
+                                 "Unexpected CSV lines");
+                }
+                assertEquals(4L, manifest.getEntityCount(), "Unexpected entity count");
+                assertEquals(7L, manifest.getLineCount(), "Unexpected line count");
+                assertTrue(Files.exists(directory.resolve("entities-manifest.json")),
+                           "Manifest not written");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testEmptyExport() {
+        this.performTest(() -> {
+            try {
+                ExportEngine exportEngine = new ExportEngine();
+                Path directory = this.tempDir.resolve("empty");
+                SzExportManifest manifest = SzExportWriter.newBuilder()
+                    .engine(exportEngine.getEngine())
+                    .compression(SzExportCompression.NONE)
+                    .build()
+                    .write(directory);
+                assertTrue(manifest.getFiles().isEmpty(), "Unexpected files");
+                assertEquals(0L, manifest.getEntityCount(), "Unexpected entity count");
+                try (Stream<Path> paths = Files.list(directory)) {
+                    assertEquals(List.of(directory.resolve("export-manifest.json")),
+                                 paths.toList(), "Unexpected directory contents");
+                }
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testFailure() {
+        this.performTest(() -> {
+            ExportEngine exportEngine = new ExportEngine(
+                "{\"ENTITY_ID\":1}\n", "{\"ENTITY_ID\":2}\n", "{\"ENTITY_ID\":3}\n");
+            exportEngine.setFailAtFetch(3);
+            Path directory = this.tempDir.resolve("failed");
+            SzExportWriter writer = SzExportWriter.newBuilder()
+                .engine(exportEngine.getEngine())
+                .maxFileEntities(1L)
+                .build();
+            SzException e = assertThrows(SzException.class, () -> writer.write(directory),
+                                         "Failure not thrown");
+            assertEquals("Simulated fetch failure", e.getMessage(), "Unexpected failure");
+            assertEquals(1, exportEngine.getCloseCount(), "Export not closed");
+            try (Stream<Path> paths = Files.list(directory)) {
+                assertFalse(paths.findAny().isPresent(), "Files of failed export remain");
+            } catch (IOException ioe) {
+                fail("Unexpected exception", ioe);
+            }
+        });
+    }
+}
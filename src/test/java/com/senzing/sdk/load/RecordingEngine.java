@@ -0,0 +1,173 @@
+package com.senzing.sdk.load;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.senzing.sdk.SzEngine;
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzRecordKey;
+
+/**
+ * Provides an {@link InvocationHandler} for a proxy {@link SzEngine} that
+ * records the records that are added (and removes those that are deleted),
+ * serves and records redo records from a queue and optionally fails on
+ * demand, for testing the bulk loading classes without the native Senzing
+ * libraries.
+ */
+class RecordingEngine implements InvocationHandler {
+    /**
+     * Functional interface for deciding whether adding or deleting a record
+     * fails.
+     */
+    @FunctionalInterface
+    interface AddRecordHook {
+        /**
+         * Called before a record is added or deleted.
+         *
+         * @param recordKey The record key.
+         * @param recordDefinition The record definition, or <code>null</code>
+         *                         if the record is being deleted.
+         * @param attempt The one-based attempt number for the record key.
+         *
+         * @return The INFO response to return, or <code>null</code>.
+         *
+         * @throws SzException To simulate a failure.
+         */
+        String addRecord(SzRecordKey recordKey, String recordDefinition, int attempt)
+            throws SzException;
+    }
+
+    private final Map<SzRecordKey, String> records = new ConcurrentHashMap<>();
+
+    private final Map<SzRecordKey, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+    private final AtomicInteger callCount = new AtomicInteger(0);
+
+    private volatile AddRecordHook hook = null;
+
+    private volatile long redoCount = 0L;
+
+    private final Queue<String> redoQueue = new ConcurrentLinkedQueue<>();
+
+    private final List<String> processedRedo = new CopyOnWriteArrayList<>();
+
+    private final Map<String, SzException> redoFailures = new ConcurrentHashMap<>();
+
+    private final SzEngine engine;
+
+    RecordingEngine() {
+        this.engine = (SzEngine) Proxy.newProxyInstance(
+            SzEngine.class.getClassLoader(),
+            new Class<?>[] { SzEngine.class },
+            this);
+    }
+
+    SzEngine getEngine() {
+        return this.engine;
+    }
+
+    Map<SzRecordKey, String> getRecords() {
+        return this.records;
+    }
+
+    int getCallCount() {
+        return this.callCount.get();
+    }
+
+    int getAttempts(SzRecordKey recordKey) {
+        AtomicInteger count = this.attempts.get(recordKey);
+        return (count == null) ? 0 : count.get();
+    }
+
+    void setHook(AddRecordHook hook) {
+        this.hook = hook;
+    }
+
+    void setRedoCount(long redoCount) {
+        this.redoCount = redoCount;
+    }
+
+    void addRedoRecord(String redoRecord) {
+        this.redoQueue.add(redoRecord);
+    }
+
+    int getRedoQueueSize() {
+        return this.redoQueue.size();
+    }
+
+    List<String> getProcessedRedo() {
+        return this.processedRedo;
+    }
+
+    void failRedoRecord(String redoRecord, SzException failure) {
+        this.redoFailures.put(redoRecord, failure);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.isDefault()) {
+            try {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+        switch (method.getName()) {
+            case "addRecord":
+                {
+                    this.callCount.incrementAndGet();
+                    SzRecordKey recordKey = (SzRecordKey) args[0];
+                    String definition = args[1].toString();
+                    int attempt = this.attempts.computeIfAbsent(
+                        recordKey, k -> new AtomicInteger(0)).incrementAndGet();
+                    AddRecordHook addHook = this.hook;
+                    String info = (addHook == null)
+                        ? null : addHook.addRecord(recordKey, definition, attempt);
+                    this.records.put(recordKey, definition);
+                    return info;
+                }
+            case "deleteRecord":
+                {
+                    this.callCount.incrementAndGet();
+                    SzRecordKey recordKey = (SzRecordKey) args[0];
+                    int attempt = this.attempts.computeIfAbsent(
+                        recordKey, k -> new AtomicInteger(0)).incrementAndGet();
+                    AddRecordHook deleteHook = this.hook;
+                    String info = (deleteHook == null)
+                        ? null : deleteHook.addRecord(recordKey, null, attempt);
+                    this.records.remove(recordKey);
+                    return info;
+                }
+            case "countRedoRecords":
+                return this.redoCount + this.redoQueue.size();
+            case "getRedoRecord":
+                return this.redoQueue.poll();
+            case "processRedoRecord":
+                {
+                    SzException failure = this.redoFailures.get((String) args[0]);
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    this.processedRedo.add((String) args[0]);
+                    return null;
+                }
+            case "toString":
+                return "RecordingEngine";
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+}
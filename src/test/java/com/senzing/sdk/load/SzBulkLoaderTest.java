@@ -0,0 +1,781 @@
+package com.senzing.sdk.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.senzing.sdk.SzDatabaseException;
+import com.senzing.sdk.SzDatabaseTransientException;
+import com.senzing.sdk.SzEnvironmentDestroyedException;
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzFlag;
+import com.senzing.sdk.SzNotFoundException;
+import com.senzing.sdk.SzRecordKey;
+import com.senzing.sdk.SzUnknownDataSourceException;
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzBulkLoaderTest extends AbstractTest {
+    private static final int ROW_COUNT = 5000;
+
+    private Path tempDir = null;
+
+    private Path csvFile = null;
+
+    @BeforeAll
+    public void initialize() throws IOException {
+        this.beginTests();
+        this.tempDir = Files.createTempDirectory("sz-load-");
+        this.csvFile = this.tempDir.resolve("records.csv");
+
+        StringBuilder sb = new StringBuilder("ID,NAME\n");
+        for (int index = 0; index < ROW_COUNT; index++) {
+            sb.append(index).append(",\"Name ").append(index).append("\"\n");
+        }
+        Files.writeString(this.csvFile, sb.toString(), StandardCharsets.UTF_8);
+    }
+
+    @AfterAll
+    public void complete() throws IOException {
+        for (File file : this.tempDir.toFile().listFiles()) {
+            file.delete();
+        }
+        Files.deleteIfExists(this.tempDir);
+        this.endTests();
+    }
+
+    private SzCsvRecordSource getSource() {
+        return SzCsvRecordSource.newBuilder()
+            .path(this.csvFile)
+            .mapping(SzCsvMapping.newBuilder()
+                .dataSource("TEST").recordIdColumn("ID")
+                .attribute("NAME", "NAME_FULL").build())
+            .minPartitionSize(1024L)
+            .build();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 4, 16 })
+    public void testLoad(int threadCount) {
+        this.performTest(() -> {
+            try {
+                RecordingEngine recorder = new RecordingEngine();
+                SzBulkLoader loader = SzBulkLoader.newBuilder()
+                    .engine(recorder.getEngine())
+                    .threadCount(threadCount)
+                    .readerCount(3)
+                    .queueCapacity(10)
+                    .build();
+
+                SzLoadResult result = loader.load(this.getSource());
+
+                assertEquals(ROW_COUNT, result.getReadCount(), "Unexpected read count");
+                assertEquals(ROW_COUNT, result.getLoadedCount(), "Unexpected loaded count");
+                assertEquals(0L, result.getFailedCount(), "Unexpected failed count");
+                assertEquals(ROW_COUNT, recorder.getRecords().size(),
+                             "Unexpected number of records added");
+                assertEquals("{\"DATA_SOURCE\":\"TEST\",\"RECORD_ID\":\"42\","
+                             + "\"NAME_FULL\":\"Name 42\"}",
+                             recorder.getRecords().get(SzRecordKey.of("TEST", "42")),
+                             "Unexpected record definition");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testRecordFailures() {
+        this.performTest(() -> {
+            try {
+                RecordingEngine recorder = new RecordingEngine();
+                recorder.setHook((recordKey, definition, attempt) -> {
+                    if (Integer.parseInt(recordKey.recordId()) % 10 == 0) {
+                        throw new SzNotFoundException("Simulated failure");
+                    }
+                    return null;
+                });
+                SzBulkLoader loader = SzBulkLoader.newBuilder()
+                    .engine(recorder.getEngine()).threadCount(4).build();
+
+                SzLoadResult result = loader.load(this.getSource());
+
+                assertEquals(ROW_COUNT, result.getReadCount(), "Unexpected read count");
+                assertEquals(ROW_COUNT / 10, result.getFailedCount(),
+                             "Unexpected failed count");
+                assertEquals(ROW_COUNT - (ROW_COUNT / 10), result.getLoadedCount(),
+                             "Unexpected loaded count");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testAbortOnRuntimeException() {
+        this.performTest(() -> {
+            RecordingEngine recorder = new RecordingEngine();
+            recorder.setHook((recordKey, definition, attempt) -> {
+                if (recordKey.recordId().equals("100")) {
+                    throw new SzEnvironmentDestroyedException("Simulated destroy");
+                }
+                return null;
+            });
+            SzBulkLoader loader = SzBulkLoader.newBuilder()
+                .engine(recorder.getEngine()).threadCount(4).queueCapacity(5).build();
+            try {
+                loader.load(this.getSource());
+                fail("Unexpectedly completed load after runtime failure");
+
+            } catch (SzEnvironmentDestroyedException expected) {
+                assertTrue(recorder.getCallCount() < ROW_COUNT,
+                           "Load did not stop after failure");
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testMultipleSources() {
+        this.performTest(() -> {
+            try {
+                Path other = this.tempDir.resolve("other.csv");
+                Files.writeString(other, "ID,NAME\nX1,Foo\n,Missing ID\nX2,\"Bad\"Quote\n",
+                                  StandardCharsets.UTF_8);
+                List<SzRecordSource> sources = new ArrayList<>();
+                sources.add(this.getSource());
+                sources.add(SzCsvRecordSource.newBuilder()
+                    .path(other)
+                    .mapping(SzCsvMapping.newBuilder()
+                        .dataSource("OTHER").recordIdColumn("ID").build())
+                    .build());
+
+                RecordingEngine recorder = new RecordingEngine();
+                SzBulkLoader loader = SzBulkLoader.newBuilder()
+                    .engine(recorder.getEngine()).build();
+
+                SzLoadResult result = loader.load(sources);
+                assertEquals(ROW_COUNT + 3, result.getReadCount(), "Unexpected read count");
+                assertEquals(ROW_COUNT + 1, result.getLoadedCount(),
+                             "Unexpected loaded count");
+                assertEquals(2, result.getFailedCount(), "Unexpected failed count");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testSourceFailure() {
+        this.performTest(() -> {
+            RecordingEngine recorder = new RecordingEngine();
+            SzBulkLoader loader = SzBulkLoader.newBuilder()
+                .engine(recorder.getEngine()).build();
+            SzRecordSource source = new SzRecordSource() {
+                @Override
+                public String getName() {
+                    return "failing";
+                }
+
+                @Override
+                public List<SzRecordReader> openReaders(int maxReaderCount) {
+                    return List.of(new SzRecordReader() {
+                        @Override
+                        public boolean read(SzLoadRecord record) throws IOException {
+                            throw new IOException("Simulated read failure");
+                        }
+
+                        @Override
+                        public void close() {
+                            // do nothing
+                        }
+                    });
+                }
+            };
+            try {
+                loader.load(source);
+                fail("Unexpectedly completed load after read failure");
+
+            } catch (IOException expected) {
+                assertEquals("Simulated read failure", expected.getMessage(),
+                             "Unexpected exception message");
+            } catch (SzException e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    /**
+     * Provides an {@link SzDeadLetterSink} that collects the dead letters
+     * in memory.
+     */
+    private static class CollectingSink implements SzDeadLetterSink {
+        private final List<SzDeadLetter> deadLetters
+            = Collections.synchronizedList(new ArrayList<>());
+
+        private int flushCount = 0;
+
+        @Override
+        public void write(SzDeadLetter deadLetter) {
+            this.deadLetters.add(deadLetter);
+        }
+
+        @Override
+        public synchronized void flush() {
+            this.flushCount++;
+        }
+
+        @Override
+        public void close() {
+            // do nothing
+        }
+    }
+
+    @Test
+    public void testDeadLetters() {
+        this.performTest(() -> {
+            try {
+                RecordingEngine recorder = new RecordingEngine();
+                recorder.setHook((recordKey, definition, attempt) -> {
+                    int id = Integer.parseInt(recordKey.recordId());
+                    if (id % 100 == 0) {
+                        throw new SzUnknownDataSourceException("Unknown data source");
+                    }
+                    if (id % 100 == 50) {
+                        // a generic exception whose error code maps to SzNotFoundException
+                        throw new SzException(33, "Unknown record");
+                    }
+                    return null;
+                });
+                CollectingSink sink = new CollectingSink();
+                SzBulkLoader loader = SzBulkLoader.newBuilder()
+                    .engine(recorder.getEngine())
+                    .threadCount(4)
+                    .deadLetterSink(sink)
+                    .build();
+
+                SzLoadResult result = loader.load(this.getSource());
+
+                int failed = ROW_COUNT / 50;
+                assertEquals(ROW_COUNT, result.getReadCount(), "Unexpected read count");
+                assertEquals(ROW_COUNT - failed, result.getLoadedCount(),
+                             "Unexpected loaded count");
+                assertEquals(failed, result.getFailedCount(), "Unexpected failed count");
+                assertEquals(failed, result.getDeadLetterCount(),
+                             "Unexpected dead letter count");
+                assertEquals(0L, result.getRetryCount(), "Unexpected retry count");
+                assertEquals(failed, sink.deadLetters.size(),
+                             "Unexpected number of dead letters");
+                assertEquals(1, sink.flushCount, "Dead letter sink not flushed once");
+
+                for (SzDeadLetter deadLetter : sink.deadLetters) {
+                    int id = Integer.parseInt(deadLetter.getRecordId());
+                    assertEquals("TEST", deadLetter.getDataSourceCode(),
+                                 "Unexpected data source: " + deadLetter);
+                    assertEquals(1, deadLetter.getAttemptCount(),
+                                 "Unexpected attempt count: " + deadLetter);
+                    assertEquals("{\"DATA_SOURCE\":\"TEST\",\"RECORD_ID\":\"" + id
+                                 + "\",\"NAME_FULL\":\"Name " + id + "\"}",
+                                 deadLetter.getRecordDefinition(),
+                                 "Unexpected record definition: " + deadLetter);
+                    if (id % 100 == 0) {
+                        assertEquals(SzUnknownDataSourceException.class,
+                                     deadLetter.getExceptionClass(),
+                                     "Unexpected exception class: " + deadLetter);
+                        assertNull(deadLetter.getErrorCode(),
+                                   "Unexpected error code: " + deadLetter);
+                    } else {
+                        assertEquals(SzNotFoundException.class,
+                                     deadLetter.getExceptionClass(),
+                                     "Unexpected exception class: " + deadLetter);
+                        assertEquals(33, deadLetter.getErrorCode(),
+                                     "Unexpected error code: " + deadLetter);
+                        assertEquals("Unknown record", deadLetter.getMessage(),
+                                     "Unexpected message: " + deadLetter);
+                    }
+                }
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testRetries() {
+        this.performTest(() -> {
+            try {
+                RecordingEngine recorder = new RecordingEngine();
+                recorder.setHook((recordKey, definition, attempt) -> {
+                    int id = Integer.parseInt(recordKey.recordId());
+                    if (id % 100 == 0 && attempt < 3) {
+                        throw new SzDatabaseTransientException("Deadlock");
+                    }
+                    if (id % 1000 == 1) {
+                        throw new SzDatabaseTransientException("Always locked");
+                    }
+                    return null;
+                });
+                CollectingSink sink = new CollectingSink();
+                SzBulkLoader loader = SzBulkLoader.newBuilder()
+                    .engine(recorder.getEngine())
+                    .threadCount(4)
+                    .queueCapacity(20)
+                    .maxRetries(3)
+                    .retryDelayMillis(1L)
+                    .maxRetryDelayMillis(20L)
+                    .deadLetterSink(sink)
+                    .build();
+
+                SzLoadResult result = loader.load(this.getSource());
+
+                int exhausted = ROW_COUNT / 1000;
+                assertEquals(ROW_COUNT, result.getReadCount(), "Unexpected read count");
+                assertEquals(ROW_COUNT - exhausted, result.getLoadedCount(),
+                             "Unexpected loaded count");
+                assertEquals(exhausted, result.getFailedCount(),
+                             "Unexpected failed count");
+                assertEquals(((ROW_COUNT / 100) * 2) + (exhausted * 3),
+                             result.getRetryCount(), "Unexpected retry count");
+                assertEquals(exhausted, sink.deadLetters.size(),
+                             "Unexpected number of dead letters");
+                assertEquals(3, recorder.getAttempts(SzRecordKey.of("TEST", "200")),
+                             "Unexpected number of attempts for retried record");
+                for (SzDeadLetter deadLetter : sink.deadLetters) {
+                    assertEquals(4, deadLetter.getAttemptCount(),
+                                 "Unexpected attempt count: " + deadLetter);
+                    assertEquals(SzDatabaseTransientException.class,
+                                 deadLetter.getExceptionClass(),
+                                 "Unexpected exception class: " + deadLetter);
+                }
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testAbortOnUnrecoverable() {
+        this.performTest(() -> {
+            RecordingEngine recorder = new RecordingEngine();
+            recorder.setHook((recordKey, definition, attempt) -> {
+                if (recordKey.recordId().equals("100")) {
+                    throw new SzDatabaseException("Simulated database failure");
+                }
+                return null;
+            });
+            CollectingSink sink = new CollectingSink();
+            SzBulkLoader loader = SzBulkLoader.newBuilder()
+                .engine(recorder.getEngine())
+                .threadCount(4)
+                .queueCapacity(5)
+                .deadLetterSink(sink)
+                .build();
+            try {
+                loader.load(this.getSource());
+                fail("Unexpectedly completed load after unrecoverable failure");
+
+            } catch (SzDatabaseException expected) {
+                assertTrue(recorder.getCallCount() < ROW_COUNT,
+                           "Load did not stop after failure");
+                assertEquals(0, sink.deadLetters.size(),
+                             "Unrecoverable failure was dead-lettered");
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testDeadLetterFile() {
+        this.performTest(() -> {
+            Path other = this.tempDir.resolve("bad.csv");
+            Path dlq = this.tempDir.resolve("bad.dlq.jsonl");
+            try {
+                Files.writeString(other, "ID,NAME\nX1,Foo\n,Missing ID\nX2,\"Bad\"Quote\n",
+                                  StandardCharsets.UTF_8);
+                RecordingEngine recorder = new RecordingEngine();
+                SzLoadResult result = null;
+                try (SzFileDeadLetterSink sink = new SzFileDeadLetterSink(dlq)) {
+                    SzBulkLoader loader = SzBulkLoader.newBuilder()
+                        .engine(recorder.getEngine())
+                        .deadLetterSink(sink)
+                        .build();
+                    result = loader.load(SzCsvRecordSource.newBuilder()
+                        .path(other)
+                        .mapping(SzCsvMapping.newBuilder()
+                            .dataSource("OTHER").recordIdColumn("ID").build())
+                        .build());
+                    assertEquals(2L, sink.getCount(), "Unexpected dead letter count");
+                }
+                assertEquals(2L, result.getDeadLetterCount(),
+                             "Unexpected dead letter count");
+
+                List<String> lines = Files.readAllLines(dlq, StandardCharsets.UTF_8);
+                assertEquals(2, lines.size(), "Unexpected number of lines: " + lines);
+                boolean malformedFound = false;
+                for (String line : lines) {
+                    JsonObject jsonObj = Json.createReader(
+                        new StringReader(line)).readObject();
+                    assertEquals("OTHER", jsonObj.getString("DATA_SOURCE"),
+                                 "Unexpected data source: " + line);
+                    assertEquals("SzBadInputException", jsonObj.getString("EXCEPTION"),
+                                 "Unexpected exception: " + line);
+                    assertEquals(JsonValue.NULL, jsonObj.get("ERROR_CODE"),
+                                 "Unexpected error code: " + line);
+                    assertEquals(0, jsonObj.getInt("ATTEMPTS"),
+                                 "Unexpected attempts: " + line);
+                    assertTrue(jsonObj.getJsonNumber("SOURCE_OFFSET").longValue() > 0L,
+                               "Unexpected source offset: " + line);
+                    if (jsonObj.getString("RECORD").equals("X2,\"Bad\"Quote")) {
+                        malformedFound = true;
+                        assertEquals(JsonValue.NULL, jsonObj.get("RECORD_ID"),
+                                     "Unexpected record ID: " + line);
+                    } else {
+                        assertEquals("", jsonObj.getString("RECORD_ID"),
+                                     "Unexpected record ID: " + line);
+                    }
+                }
+                assertTrue(malformedFound, "Raw text not written for malformed row: "
+                           + lines);
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testSkipUnchanged() {
+        this.performTest(() -> {
+            Path indexFile = this.tempDir.resolve("content.idx");
+            Path changed = this.tempDir.resolve("changed.csv");
+            try (SzContentHashIndex index = new SzContentHashIndex(indexFile)) {
+                RecordingEngine recorder = new RecordingEngine();
+                SzBulkLoader loader = SzBulkLoader.newBuilder()
+                    .engine(recorder.getEngine())
+                    .threadCount(4)
+                    .contentHashIndex(index)
+                    .build();
+
+                SzLoadResult result = loader.load(this.getSource());
+                assertEquals(ROW_COUNT, result.getLoadedCount(), "Unexpected loaded count");
+                assertEquals(0L, result.getSkippedCount(), "Unexpected skipped count");
+                assertEquals(ROW_COUNT, index.getCount(), "Unexpected index count");
+
+                result = loader.load(this.getSource());
+                assertEquals(ROW_COUNT, result.getReadCount(), "Unexpected read count");
+                assertEquals(0L, result.getLoadedCount(), "Unexpected loaded count");
+                assertEquals(ROW_COUNT, result.getSkippedCount(), "Unexpected skipped count");
+                assertEquals(ROW_COUNT, recorder.getCallCount(),
+                             "Unchanged records were added again");
+
+                // change every tenth record
+                StringBuilder sb = new StringBuilder("ID,NAME\n");
+                for (int row = 0; row < ROW_COUNT; row++) {
+                    sb.append(row).append(",\"Name ").append(row)
+                      .append((row % 10 == 0) ? " Jr" : "").append("\"\n");
+                }
+                Files.writeString(changed, sb.toString(), StandardCharsets.UTF_8);
+                result = loader.load(SzCsvRecordSource.newBuilder()
+                    .path(changed)
+                    .mapping(SzCsvMapping.newBuilder()
+                        .dataSource("TEST").recordIdColumn("ID")
+                        .attribute("NAME", "NAME_FULL").build())
+                    .build());
+                assertEquals(ROW_COUNT / 10, result.getLoadedCount(),
+                             "Unexpected loaded count for changed records");
+                assertEquals(ROW_COUNT - (ROW_COUNT / 10), result.getSkippedCount(),
+                             "Unexpected skipped count for changed records");
+                assertEquals("{\"DATA_SOURCE\":\"TEST\",\"RECORD_ID\":\"40\","
+                             + "\"NAME_FULL\":\"Name 40 Jr\"}",
+                             recorder.getRecords().get(SzRecordKey.of("TEST", "40")),
+                             "Changed record not reloaded");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testThrottle() {
+        this.performTest(() -> {
+            try {
+                RecordingEngine recorder = new RecordingEngine();
+                AtomicInteger current = new AtomicInteger();
+                AtomicInteger maximum = new AtomicInteger();
+                recorder.setHook((recordKey, definition, attempt) -> {
+                    maximum.accumulateAndGet(current.incrementAndGet(), Math::max);
+                    Thread.yield();
+                    current.decrementAndGet();
+                    return null;
+                });
+                SzDataSourceThrottle throttle = SzDataSourceThrottle.newBuilder()
+                    .quota("test", SzDataSourceQuota.ofConcurrency(2))
+                    .build();
+                SzBulkLoader loader = SzBulkLoader.newBuilder()
+                    .engine(recorder.getEngine())
+                    .threadCount(8)
+                    .throttle(throttle)
+                    .build();
+
+                SzLoadResult result = loader.load(this.getSource());
+                assertEquals(ROW_COUNT, result.getLoadedCount(), "Unexpected loaded count");
+                assertTrue(maximum.get() <= 2,
+                           "Concurrency limit exceeded: " + maximum.get());
+                SzDataSourceStatistics stats = throttle.getStatistics("TEST");
+                assertEquals(ROW_COUNT, stats.getCompletedCount(),
+                             "Unexpected completed count: " + stats);
+                assertEquals(0, stats.getInFlightCount(), "Unexpected in-flight count");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testRedoController() {
+        this.performTest(() -> {
+            try {
+                RecordingEngine recorder = new RecordingEngine();
+                recorder.setHook((recordKey, definition, attempt) -> {
+                    recorder.addRedoRecord("REDO-" + recordKey.recordId());
+                    return null;
+                });
+                SzRedoController controller = SzRedoController.newBuilder()
+                    .engine(recorder.getEngine())
+                    .capacity(4)
+                    .targetBacklog(100L)
+                    .sampleIntervalMillis(1L)
+                    .build();
+                SzBulkLoader loader = SzBulkLoader.newBuilder()
+                    .engine(recorder.getEngine())
+                    .threadCount(4)
+                    .redoController(controller)
+                    .build();
+
+                SzLoadResult result = loader.load(this.getSource());
+                assertEquals(ROW_COUNT, result.getLoadedCount(), "Unexpected loaded count");
+                assertEquals(ROW_COUNT, controller.getAddedCount(), "Unexpected added count");
+
+                // the load drains the redo backlog down to the target
+                int processed = recorder.getProcessedRedo().size();
+                assertTrue(processed > 0, "No redo records processed");
+                assertTrue(recorder.getRedoQueueSize() <= 100,
+                           "Redo backlog above target: " + recorder.getRedoQueueSize());
+                assertEquals(ROW_COUNT, processed + recorder.getRedoQueueSize(),
+                             "Redo records lost");
+                assertEquals(0, controller.getActiveLoadCount(), "Load permits leaked");
+                assertEquals(0, controller.getActiveRedoCount(), "Redo slots leaked");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testHotEntityDetector() {
+        this.performTest(() -> {
+            try {
+                Path file = this.tempDir.resolve("hot.csv");
+                StringBuilder sb = new StringBuilder("ID,NAME,ADDR\n");
+                for (int index = 0; index < 500; index++) {
+                    String address = (index % 5 == 0) ? "1 Main St" : (index + " Elm St");
+                    sb.append(index).append(",Name ").append(index)
+                        .append(',').append(address).append('\n');
+                }
+                Files.writeString(file, sb.toString(), StandardCharsets.UTF_8);
+
+                SzHotEntityDetector detector = SzHotEntityDetector.newBuilder()
+                    .slowThresholdMillis(1L)
+                    .hotThreshold(2)
+                    .build();
+                String hotDefinition = "{\"ADDR_FULL\":\"1 Main St\"}";
+                String hotInfo = "{\"AFFECTED_ENTITIES\":[{\"ENTITY_ID\":1}]}";
+                for (int index = 0; index < 2; index++) {
+                    detector.observe(hotDefinition, hotInfo, 1000000000L);
+                }
+                assertTrue(detector.isHot(hotDefinition), "Detector not warmed up");
+
+                // records sharing the hot address are slow and contended
+                RecordingEngine recorder = new RecordingEngine();
+                AtomicInteger current = new AtomicInteger();
+                AtomicInteger maximum = new AtomicInteger();
+                recorder.setHook((recordKey, definition, attempt) -> {
+                    if (!definition.contains("1 Main St")) {
+                        return null;
+                    }
+                    maximum.accumulateAndGet(current.incrementAndGet(), Math::max);
+                    LockSupport.parkNanos(2000000L);
+                    current.decrementAndGet();
+                    if (recordKey.recordId().equals("5")) {
+                        throw new SzNotFoundException("Simulated failure");
+                    }
+                    return "{\"DATA_SOURCE\":\"TEST\",\"RECORD_ID\":\""
+                        + recordKey.recordId()
+                        + "\",\"AFFECTED_ENTITIES\":[{\"ENTITY_ID\":1}]}";
+                });
+                SzBulkLoader loader = SzBulkLoader.newBuilder()
+                    .engine(recorder.getEngine())
+                    .threadCount(8)
+                    .hotEntityDetector(detector)
+                    .build();
+                assertEquals(SzFlag.SZ_ADD_RECORD_DEFAULT_FLAGS, loader.getFlags(),
+                             "Configured flags were modified");
+
+                SzLoadResult result = loader.load(SzCsvRecordSource.newBuilder()
+                    .path(file)
+                    .mapping(SzCsvMapping.newBuilder()
+                        .dataSource("TEST").recordIdColumn("ID")
+                        .attribute("NAME", "NAME_FULL")
+                        .attribute("ADDR", "ADDR_FULL").build())
+                    .build());
+                assertEquals(499, result.getLoadedCount(), "Unexpected loaded count");
+                assertEquals(1, result.getFailedCount(), "Unexpected failed count");
+                assertEquals(100L, detector.getSerializedCount(),
+                             "Unexpected serialized count");
+                assertTrue(detector.getSlowCount() >= 102L,
+                           "Slow failed write was not observed: " + detector.getSlowCount());
+                assertEquals(1, maximum.get(), "Hot writes were not serialized");
+                assertEquals(Set.of(1L), detector.getHotEntityIds(),
+                             "Unexpected hot entities");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testProgress() {
+        this.performTest(() -> {
+            try {
+                RecordingEngine recorder = new RecordingEngine();
+                recorder.setRedoCount(1234L);
+                recorder.setHook((recordKey, definition, attempt) -> {
+                    if (recordKey.recordId().endsWith("00")) {
+                        long until = System.nanoTime() + 5000000L;
+                        while (System.nanoTime() < until) {
+                            LockSupport.parkNanos(until - System.nanoTime());
+                        }
+                    }
+                    if (recordKey.recordId().equals("77") && attempt == 1) {
+                        throw new SzDatabaseTransientException("Simulated");
+                    }
+                    return null;
+                });
+                List<SzLoadProgress> reports = new CopyOnWriteArrayList<>();
+                SzBulkLoader loader = SzBulkLoader.newBuilder()
+                    .engine(recorder.getEngine())
+                    .threadCount(2)
+                    .retryDelayMillis(1L)
+                    .progressIntervalMillis(10L)
+                    .progressListener(reports::add)
+                    .logProgress(true)
+                    .build();
+
+                SzLoadResult result = loader.load(this.getSource());
+                assertEquals(ROW_COUNT, result.getLoadedCount(), "Unexpected loaded count");
+                assertTrue(reports.size() > 1, "Expected periodic reports: " + reports.size());
+
+                SzLoadProgress last = reports.get(reports.size() - 1);
+                assertTrue(last.isFinished(), "Final report is not finished: " + last);
+                for (SzLoadProgress progress : reports.subList(0, reports.size() - 1)) {
+                    assertFalse(progress.isFinished(), "Early report is finished: " + progress);
+                }
+                assertEquals(ROW_COUNT, last.getReadCount(), "Unexpected read count");
+                assertEquals(ROW_COUNT, last.getCompletedCount(), "Unexpected completed count");
+                assertEquals(ROW_COUNT + 1, last.getSubmittedCount(), "Unexpected submitted count");
+                assertEquals(1L, last.getRetryCount(), "Unexpected retry count");
+                assertEquals(0, last.getInFlightCount(), "Unexpected in-flight count");
+                assertEquals(0, last.getPendingCount(), "Unexpected pending count");
+                assertEquals(Files.size(this.csvFile), last.getByteLength(),
+                             "Unexpected byte length");
+                assertEquals(1.0, last.getFractionRead(), "Unexpected fraction read");
+                assertEquals(0L, last.getEstimatedRemainingMillis(), "Unexpected ETA");
+                assertEquals(1234L, last.getRedoBacklog(), "Unexpected redo backlog");
+
+                // the latencies include the sleeping calls
+                boolean sawSlowCall = false;
+                long previousRead = 0L;
+                for (SzLoadProgress progress : reports) {
+                    assertTrue(progress.getBytesRead() >= previousRead,
+                               "Bytes read went backwards: " + progress);
+                    previousRead = progress.getBytesRead();
+                    sawSlowCall = sawSlowCall || progress.getP99LatencyMillis() >= 4.0;
+                    assertTrue(progress.getMedianLatencyMillis()
+                               <= progress.getP99LatencyMillis(),
+                               "Median exceeds 99th percentile: " + progress);
+                }
+                assertTrue(sawSlowCall, "Slow calls not reflected in p99 latency");
+
+                String line = SzBulkLoader.formatProgress(reports.get(0));
+                assertTrue(line.startsWith("Load progress: read="), "Unexpected log line: " + line);
+                assertTrue(line.contains("redo=1,234"), "Redo backlog not logged: " + line);
+                assertTrue(SzBulkLoader.formatProgress(last).startsWith("Load finished: "),
+                           "Unexpected final log line");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        this.performTest(() -> {
+            LatencyHistogram histogram = new LatencyHistogram();
+            long[] empty = new long[LatencyHistogram.BUCKET_COUNT];
+            long[] snapshot = new long[LatencyHistogram.BUCKET_COUNT];
+            assertEquals(-1.0, LatencyHistogram.percentileMillis(
+                empty, histogram.snapshot(snapshot), 0.5), "Unexpected empty percentile");
+
+            // 1ms to 1000ms in 1ms steps
+            for (long millis = 1L; millis <= 1000L; millis++) {
+                histogram.record(millis * 1000000L);
+            }
+            histogram.record(Long.MAX_VALUE);
+            histogram.snapshot(snapshot);
+            double median = LatencyHistogram.percentileMillis(empty, snapshot, 0.5);
+            double p99 = LatencyHistogram.percentileMillis(empty, snapshot, 0.99);
+            assertTrue(Math.abs(median - 500.0) <= 500.0 * 0.07, "Unexpected median: " + median);
+            assertTrue(Math.abs(p99 - 990.0) <= 990.0 * 0.07, "Unexpected p99: " + p99);
+        });
+    }
+}
@@ -0,0 +1,204 @@
+package com.senzing.sdk.load;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.senzing.sdk.SzRecordKey;
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzContentHashIndexTest extends AbstractTest {
+    private Path tempDir = null;
+
+    @BeforeAll
+    public void initialize() throws IOException {
+        this.beginTests();
+        this.tempDir = Files.createTempDirectory("sz-hash-index-");
+    }
+
+    @AfterAll
+    public void complete() throws IOException {
+        try (var stream = Files.list(this.tempDir)) {
+            for (Path path : (Iterable<Path>) stream::iterator) {
+                Files.delete(path);
+            }
+        }
+        Files.deleteIfExists(this.tempDir);
+        this.endTests();
+    }
+
+    private static SzRecordKey key(int index) {
+        return SzRecordKey.of("TEST", "RECORD-" + index);
+    }
+
+    private static long content(int index, int version) {
+        return SzContentHashIndex.hashContent(
+            "{\"NAME_FULL\":\"Name " + index + "\",\"VERSION\":" + version + "}");
+    }
+
+    @Test
+    public void testHashContent() {
+        this.performTest(() -> {
+            long hash = SzContentHashIndex.hashContent(
+                "{\"NAME_FULL\":\"Joe  Schmoe\",\"PHONE\":\"555-1212\"}");
+            assertEquals(hash, SzContentHashIndex.hashContent(
+                "{ \"NAME_FULL\" : \"Joe  Schmoe\",\n\t\"PHONE\": \"555-1212\" }"),
+                "Whitespace outside strings should be ignored");
+            assertNotEquals(hash, SzContentHashIndex.hashContent(
+                "{\"NAME_FULL\":\"Joe Schmoe\",\"PHONE\":\"555-1212\"}"),
+                "Whitespace inside strings should not be ignored");
+            assertNotEquals(hash, SzContentHashIndex.hashContent(
+                "{\"NAME_FULL\":\"Joe  Schmoe\\\",\"PHONE\":\"555-1212\"}"),
+                "Escaped quote should not end the string");
+            assertNotEquals(hash, SzContentHashIndex.hashContent(
+                "{\"PHONE\":\"555-1212\",\"NAME_FULL\":\"Joe  Schmoe\"}"),
+                "Property order should be significant");
+        });
+    }
+
+    @Test
+    public void testPutAndGrow() {
+        this.performTest(() -> {
+            Path path = this.tempDir.resolve("grow.idx");
+            final int count = 20000;
+            try (SzContentHashIndex index = new SzContentHashIndex(path, 16L)) {
+                for (int i = 0; i < count; i++) {
+                    assertFalse(index.isUnchanged(key(i), content(i, 1)),
+                                "Record unexpectedly unchanged before put: " + i);
+                    index.put(key(i), content(i, 1));
+                }
+                assertEquals(count, index.getCount(), "Unexpected count");
+                assertTrue(index.getCapacity() * 3L >= count * 4L,
+                           "Capacity did not grow: " + index);
+                for (int i = 0; i < count; i++) {
+                    assertTrue(index.isUnchanged(key(i), content(i, 1)),
+                               "Record not found after grow: " + i);
+                    assertFalse(index.isUnchanged(key(i), content(i, 2)),
+                                "Changed record reported unchanged: " + i);
+                }
+                // data source codes are case-insensitive
+                assertTrue(index.isUnchanged(SzRecordKey.of("test", "RECORD-7"),
+                                             content(7, 1)),
+                           "Data source code should be case-insensitive");
+                assertFalse(index.isUnchanged(SzRecordKey.of("TEST", "record-7"),
+                                              content(7, 1)),
+                            "Record ID should be case-sensitive");
+
+                // replace some content
+                index.put(key(5), content(5, 2));
+                assertEquals(count, index.getCount(), "Count changed on replace");
+                assertTrue(index.isUnchanged(key(5), content(5, 2)),
+                           "Replaced content not found");
+
+            } catch (IOException e) {
+                fail("Unexpected exception", e);
+            }
+            assertFalse(Files.exists(this.tempDir.resolve("grow.idx.resize")),
+                        "Resize file was left behind");
+        });
+    }
+
+    @Test
+    public void testRemove() {
+        this.performTest(() -> {
+            Path path = this.tempDir.resolve("remove.idx");
+            final int count = 1000;
+            try (SzContentHashIndex index = new SzContentHashIndex(path, 2048L)) {
+                for (int i = 0; i < count; i++) {
+                    index.put(key(i), content(i, 1));
+                }
+                for (int i = 0; i < count; i += 3) {
+                    assertTrue(index.remove(key(i)), "Record not removed: " + i);
+                    assertFalse(index.remove(key(i)), "Record removed twice: " + i);
+                }
+                for (int i = 0; i < count; i++) {
+                    assertEquals(i % 3 != 0, index.isUnchanged(key(i), content(i, 1)),
+                                 "Unexpected presence after removal: " + i);
+                }
+                assertEquals(count - ((count + 2) / 3), index.getCount(),
+                             "Unexpected count after removal");
+
+                index.clear();
+                assertEquals(0L, index.getCount(), "Unexpected count after clear");
+                assertFalse(index.isUnchanged(key(1), content(1, 1)),
+                            "Record present after clear");
+
+            } catch (IOException e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testPersistence() {
+        this.performTest(() -> {
+            Path path = this.tempDir.resolve("persist.idx");
+            try {
+                try (SzContentHashIndex index = new SzContentHashIndex(path, 64L)) {
+                    for (int i = 0; i < 500; i++) {
+                        index.put(key(i), content(i, 1));
+                    }
+                }
+                SzContentHashIndex index = new SzContentHashIndex(path);
+                assertEquals(500L, index.getCount(), "Unexpected count after reopen");
+                for (int i = 0; i < 500; i++) {
+                    assertTrue(index.isUnchanged(key(i), content(i, 1)),
+                               "Record not found after reopen: " + i);
+                }
+                index.put(key(500), content(500, 1));
+                index.remove(key(0));
+                index.flush();
+
+                // reopen without closing to simulate a crash
+                try (SzContentHashIndex reopened = new SzContentHashIndex(path)) {
+                    assertEquals(500L, reopened.getCount(),
+                                 "Unexpected count after unclean reopen");
+                    assertTrue(reopened.isUnchanged(key(500), content(500, 1)),
+                               "Record not found after unclean reopen");
+                    assertFalse(reopened.isUnchanged(key(0), content(0, 1)),
+                                "Removed record found after unclean reopen");
+                }
+                index.close();
+                assertThrows(IllegalStateException.class,
+                             () -> index.isUnchanged(key(1), content(1, 1)),
+                             "Closed index did not reject look-up");
+
+            } catch (IOException e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testInvalidFile() {
+        this.performTest(() -> {
+            Path path = this.tempDir.resolve("invalid.idx");
+            try {
+                Files.writeString(path, "This is not an index file at all, but is it long "
+                                  + "enough to have a header?", StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                fail("Unexpected exception", e);
+            }
+            assertThrows(IOException.class, () -> new SzContentHashIndex(path),
+                         "Invalid file was not rejected");
+            assertThrows(IllegalArgumentException.class,
+                         () -> new SzContentHashIndex(path, 0L),
+                         "Non-positive capacity was not rejected");
+        });
+    }
+}
@@ -0,0 +1,559 @@
+package com.senzing.sdk.load;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzCsvRecordSourceTest extends AbstractTest {
+    private static final int ROW_COUNT = 2000;
+
+    private static final String[] NAMES = {
+        "Joe Schmoe", "Schmoe, Joe", "Joe \"The Schmoe\" Schmoe", "José Müller",
+        "  Jane Doe  ", "李小龍", "Back\\Slash", "", "Tab\tName"
+    };
+
+    private Path tempDir = null;
+
+    private Path csvFile = null;
+
+    private Path multilineFile = null;
+
+    @BeforeAll
+    public void initialize() throws IOException {
+        this.beginTests();
+        this.tempDir = Files.createTempDirectory("sz-csv-");
+        this.csvFile = this.tempDir.resolve("records.csv");
+        this.multilineFile = this.tempDir.resolve("multiline.csv");
+
+        Random random = new Random(1234L);
+        StringBuilder sb = new StringBuilder();
+        sb.append("\uFEFFid,Name,PHONE, extra \r\n");
+        for (int index = 0; index < ROW_COUNT; index++) {
+            String name = NAMES[random.nextInt(NAMES.length)];
+            sb.append("R").append(index).append(',');
+            sb.append(csvQuote(name, random.nextBoolean())).append(',');
+            sb.append((index % 7 == 0) ? "" : "702-555-" + (1000 + index)).append(',');
+            sb.append(csvQuote("x" + index, false));
+            sb.append((index % 2 == 0) ? "\r\n" : "\n");
+            if (index % 100 == 0) {
+                sb.append("\n"); // blank line
+            }
+        }
+        Files.writeString(this.csvFile, sb.toString(), StandardCharsets.UTF_8);
+
+        sb.setLength(0);
+        sb.append("id,Name,PHONE,extra\n");
+        for (int index = 0; index < 100; index++) {
+            sb.append("M").append(index).append(",\"Line One\nLine \"\"Two\"\"\",");
+            sb.append("555-").append(index).append(",\"a,\r\nb\"\n");
+        }
+        Files.writeString(this.multilineFile, sb.toString(), StandardCharsets.UTF_8);
+    }
+
+    @AfterAll
+    public void complete() throws IOException {
+        for (File file : this.tempDir.toFile().listFiles()) {
+            file.delete();
+        }
+        Files.deleteIfExists(this.tempDir);
+        this.endTests();
+    }
+
+    private static String csvQuote(String value, boolean force) {
+        boolean quote = force || value.indexOf(',') >= 0 || value.indexOf('"') >= 0;
+        if (!quote) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private SzCsvMapping getMapping() {
+        return SzCsvMapping.newBuilder()
+            .dataSource("TEST")
+            .recordIdColumn("ID")
+            .attribute("name", "NAME_FULL")
+            .attribute("phone", "PHONE_NUMBER")
+            .build();
+    }
+
+    private static Map<String, JsonObject> readAll(SzRecordSource source, int readerCount)
+        throws IOException
+    {
+        Map<String, JsonObject> result = new LinkedHashMap<>();
+        List<SzRecordReader> readers = source.openReaders(readerCount);
+        SzLoadRecord record = new SzLoadRecord();
+        for (SzRecordReader reader : readers) {
+            try (reader) {
+                record.reset();
+                while (reader.read(record)) {
+                    assertNull(record.getReadError(),
+                               "Unexpected read error: " + record);
+                    try (JsonReader jsonReader = Json.createReader(
+                            new StringReader(record.getRecordDefinition().toString())))
+                    {
+                        JsonObject jsonObject = jsonReader.readObject();
+                        assertEquals(record.getRecordId(), jsonObject.getString("RECORD_ID"),
+                                     "Record ID in JSON does not match");
+                        assertEquals(record.getDataSourceCode(),
+                                     jsonObject.getString("DATA_SOURCE"),
+                                     "Data source in JSON does not match");
+                        JsonObject prior = result.put(record.getRecordId(), jsonObject);
+                        assertNull(prior, "Record read more than once: " + record);
+                    }
+                    record.reset();
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<CSVRecord> parseExpected(Path path) throws IOException {
+        String text = Files.readString(path, StandardCharsets.UTF_8);
+        if (text.startsWith("\uFEFF")) {
+            text = text.substring(1);
+        }
+        CSVFormat format = CSVFormat.RFC4180.builder()
+            .setHeader().setSkipHeaderRecord(true).setIgnoreEmptyLines(true).get();
+        try (Reader reader = new StringReader(text);
+             CSVParser parser = CSVParser.parse(reader, format))
+        {
+            return new ArrayList<>(parser.getRecords());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 2, 3, 8, 64 })
+    public void testParallelRead(int readerCount) {
+        this.performTest(() -> {
+            try {
+                SzCsvRecordSource source = SzCsvRecordSource.newBuilder()
+                    .path(this.csvFile)
+                    .mapping(this.getMapping())
+                    .minPartitionSize(256L)
+                    .bufferSize(97)
+                    .build();
+
+                List<SzRecordReader> readers = source.openReaders(readerCount);
+                assertEquals(readerCount, readers.size(), "Unexpected reader count");
+                for (SzRecordReader reader : readers) {
+                    reader.close();
+                }
+
+                Map<String, JsonObject> actual = readAll(source, readerCount);
+                List<CSVRecord> expected = parseExpected(this.csvFile);
+
+                assertEquals(expected.size(), actual.size(), "Unexpected record count");
+                for (CSVRecord csvRecord : expected) {
+                    String recordId = csvRecord.get(0);
+                    JsonObject jsonObject = actual.get(recordId);
+                    assertNotNull(jsonObject, "Record not found: " + recordId);
+
+                    String name = csvRecord.get(1);
+                    if (name.isBlank()) {
+                        assertFalse(jsonObject.containsKey("NAME_FULL"),
+                                    "Blank name was included: " + jsonObject);
+                    } else {
+                        assertEquals(name, jsonObject.getString("NAME_FULL"),
+                                     "Unexpected name for record: " + recordId);
+                    }
+                    String phone = csvRecord.get(2);
+                    if (phone.isEmpty()) {
+                        assertFalse(jsonObject.containsKey("PHONE_NUMBER"),
+                                    "Empty phone was included: " + jsonObject);
+                    } else {
+                        assertEquals(phone, jsonObject.getString("PHONE_NUMBER"),
+                                     "Unexpected phone for record: " + recordId);
+                    }
+                    assertFalse(jsonObject.containsKey("extra"),
+                                "Unmapped column was included: " + jsonObject);
+                }
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testBytesRead() {
+        this.performTest(() -> {
+            try {
+                SzCsvRecordSource source = SzCsvRecordSource.newBuilder()
+                    .path(this.csvFile)
+                    .mapping(this.getMapping())
+                    .minPartitionSize(1000L)
+                    .build();
+
+                long total = 0L;
+                SzLoadRecord record = new SzLoadRecord();
+                for (SzRecordReader reader : source.openReaders(4)) {
+                    try (reader) {
+                        while (reader.read(record)) {
+                            assertTrue(record.getSourceOffset() > 0L,
+                                       "Source offset not set: " + record);
+                            record.reset();
+                        }
+                        total += reader.getBytesRead();
+                    }
+                }
+                long headerLength = "\uFEFFid,Name,PHONE, extra \r\n"
+                    .getBytes(StandardCharsets.UTF_8).length;
+                assertEquals(source.getByteLength() - headerLength, total,
+                             "Bytes read does not account for the whole file");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testMultilineValues() {
+        this.performTest(() -> {
+            try {
+                SzCsvRecordSource source = SzCsvRecordSource.newBuilder()
+                    .path(this.multilineFile)
+                    .mapping(SzCsvMapping.newBuilder()
+                        .dataSource("TEST").recordIdColumn("id")
+                        .attribute("name", "NAME_FULL").passthrough(true).build())
+                    .multilineValues(true)
+                    .minPartitionSize(16L)
+                    .build();
+
+                assertEquals(1, source.openReaders(8).size(),
+                             "Multi-line sources should not be partitioned");
+
+                Map<String, JsonObject> actual = readAll(source, 8);
+                List<CSVRecord> expected = parseExpected(this.multilineFile);
+                assertEquals(expected.size(), actual.size(), "Unexpected record count");
+                for (CSVRecord csvRecord : expected) {
+                    JsonObject jsonObject = actual.get(csvRecord.get(0));
+                    assertEquals(csvRecord.get(1), jsonObject.getString("NAME_FULL"),
+                                 "Unexpected multi-line name");
+                    assertEquals(csvRecord.get(2), jsonObject.getString("PHONE"),
+                                 "Unexpected passthrough phone");
+                    assertEquals(csvRecord.get(3), jsonObject.getString("extra"),
+                                 "Unexpected passthrough extra");
+                    assertFalse(jsonObject.containsKey("id"),
+                                "Record ID column passed through");
+                }
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testDataSourceColumnAndMalformedRow() {
+        this.performTest(() -> {
+            try {
+                Path path = this.tempDir.resolve("malformed.csv");
+                Files.writeString(path,
+                    "SOURCE,ID,NAME\n"
+                    + "CUSTOMERS,1,Joe\n"
+                    + "EMPLOYEES,2,\"Unterminated\n"
+                    + "EMPLOYEES,3,\"Bad\"Quote\n"
+                    + "EMPLOYEES,,Missing ID\n"
+                    + "EMPLOYEES,5\n",
+                    StandardCharsets.UTF_8);
+
+                SzCsvRecordSource source = SzCsvRecordSource.newBuilder()
+                    .path(path)
+                    .mapping(SzCsvMapping.newBuilder()
+                        .dataSourceColumn("source").recordIdColumn("id")
+                        .attribute("name", "NAME_FULL").build())
+                    .build();
+
+                List<SzLoadRecord> records = new ArrayList<>();
+                for (SzRecordReader reader : source.openReaders(1)) {
+                    try (reader) {
+                        SzLoadRecord record = new SzLoadRecord();
+                        while (reader.read(record)) {
+                            records.add(record);
+                            record = new SzLoadRecord();
+                        }
+                    }
+                }
+                assertEquals(5, records.size(), "Unexpected record count");
+
+                assertEquals("CUSTOMERS", records.get(0).getDataSourceCode(),
+                             "Unexpected data source code");
+                assertNull(records.get(0).getReadError(), "Unexpected read error");
+                assertNotNull(records.get(1).getReadError(),
+                              "Expected read error for unterminated quote");
+                assertEquals("EMPLOYEES,2,\"Unterminated",
+                             records.get(1).getRecordDefinition().toString(),
+                             "Raw text of malformed row not retained");
+                assertNotNull(records.get(2).getReadError(),
+                              "Expected read error for text after quote");
+                assertNull(records.get(3).getReadError(), "Unexpected read error");
+                assertNull(records.get(3).getRecordKey(),
+                           "Record key unexpectedly complete");
+                assertEquals("5", records.get(4).getRecordId(), "Unexpected record ID");
+                assertNotNull(records.get(4).getRecordKey(), "Missing record key");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testMissingColumn() {
+        this.performTest(() -> {
+            SzCsvRecordSource source = SzCsvRecordSource.newBuilder()
+                .path(this.csvFile)
+                .mapping(SzCsvMapping.newBuilder()
+                    .dataSource("TEST").recordIdColumn("NO_SUCH_COLUMN").build())
+                .build();
+            try {
+                source.openReaders(1);
+                fail("Unexpectedly opened readers with a missing column");
+
+            } catch (IllegalArgumentException expected) {
+                // do nothing
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testEmptyFile() {
+        this.performTest(() -> {
+            try {
+                Path path = this.tempDir.resolve("empty.csv");
+                Files.writeString(path, "", StandardCharsets.UTF_8);
+                SzCsvRecordSource source = SzCsvRecordSource.newBuilder()
+                    .path(path).mapping(this.getMapping()).build();
+                assertEquals(0, readAll(source, 4).size(),
+                             "Unexpected records from empty file");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    private static void writeGzipMember(byte[] bytes, int offset, int length, OutputStream out)
+        throws IOException
+    {
+        try (GZIPOutputStream gzip = new GZIPOutputStream(new NonClosingStream(out))) {
+            gzip.write(bytes, offset, length);
+        }
+    }
+
+    private static void writeBgzfBlock(byte[] bytes, int offset, int length, OutputStream out)
+        throws IOException
+    {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(bytes, offset, length);
+        deflater.finish();
+        byte[] compressed = new byte[length + 1024];
+        int compressedLength = deflater.deflate(compressed);
+        deflater.end();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+
+        int blockSize = 18 + compressedLength + 8;
+        out.write(new byte[] { 0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff,
+                               6, 0, 'B', 'C', 2, 0,
+                               (byte) (blockSize - 1), (byte) ((blockSize - 1) >> 8) });
+        out.write(compressed, 0, compressedLength);
+        writeIntLE((int) crc.getValue(), out);
+        writeIntLE(length, out);
+    }
+
+    private static void writeIntLE(int value, OutputStream out) throws IOException {
+        for (int index = 0; index < 4; index++) {
+            out.write((value >>> (8 * index)) & 0xff);
+        }
+    }
+
+    private static final class NonClosingStream extends OutputStream {
+        private final OutputStream out;
+
+        private NonClosingStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.out.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            this.out.write(bytes, offset, length);
+        }
+    }
+
+    private Path writeGzip(String format, int memberSize) throws IOException {
+        byte[] bytes = Files.readAllBytes(this.csvFile);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        for (int offset = 0; offset < bytes.length; offset += memberSize) {
+            int length = Math.min(memberSize, bytes.length - offset);
+            if (format.equals("bgzf")) {
+                writeBgzfBlock(bytes, offset, length, baos);
+            } else {
+                writeGzipMember(bytes, offset, length, baos);
+            }
+        }
+        Path path = this.tempDir.resolve("records-" + format + "-" + memberSize + ".csv.gz");
+        Files.write(path, baos.toByteArray());
+        return path;
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "gzip,100000000,1", "gzip,100000000,8", "gzip,997,1", "gzip,997,8",
+                 "gzip,4096,64", "bgzf,1500,1", "bgzf,1500,3", "bgzf,1500,16",
+                 "bgzf,1,4" })
+    public void testGzip(String format, int memberSize, int readerCount) {
+        this.performTest(() -> {
+            try {
+                Path path = this.writeGzip(format, memberSize);
+                SzCsvRecordSource source = SzCsvRecordSource.newBuilder()
+                    .path(path)
+                    .mapping(this.getMapping())
+                    .minPartitionSize(256L)
+                    .bufferSize(113)
+                    .build();
+
+                Map<String, JsonObject> expected = readAll(SzCsvRecordSource.newBuilder()
+                    .path(this.csvFile).mapping(this.getMapping()).build(), 1);
+
+                long total = 0L;
+                Map<String, JsonObject> actual = new LinkedHashMap<>();
+                List<SzRecordReader> readers = source.openReaders(readerCount);
+                if (memberSize > Files.size(this.csvFile)) {
+                    assertEquals(1, readers.size(), "Single-member file was partitioned");
+                } else if (readerCount > 1) {
+                    assertTrue(readers.size() > 1, "Multi-member file was not partitioned");
+                }
+                SzLoadRecord record = new SzLoadRecord();
+                for (SzRecordReader reader : readers) {
+                    try (reader) {
+                        while (reader.read(record)) {
+                            assertNull(record.getReadError(), "Unexpected read error: " + record);
+                            try (JsonReader jsonReader = Json.createReader(
+                                    new StringReader(record.getRecordDefinition().toString())))
+                            {
+                                assertNull(actual.put(record.getRecordId(), jsonReader.readObject()),
+                                           "Record read more than once: " + record);
+                            }
+                            record.reset();
+                        }
+                        total += reader.getBytesRead();
+                    }
+                }
+                assertEquals(expected, actual, "Decompressed records differ");
+                assertEquals(source.getByteLength(), total,
+                             "Bytes read does not account for the compressed file");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testCorruptGzip() {
+        this.performTest(() -> {
+            try {
+                Path path = this.writeGzip("gzip", 100000000);
+                byte[] bytes = Files.readAllBytes(path);
+                bytes[bytes.length - 6] ^= 0x5a; // corrupt the trailer CRC
+                Files.write(path, bytes);
+                SzCsvRecordSource source = SzCsvRecordSource.newBuilder()
+                    .path(path).mapping(this.getMapping()).build();
+                try {
+                    readAll(source, 1);
+                    fail("Corrupt gzip file was read without failure");
+                } catch (IOException expected) {
+                    // do nothing
+                }
+
+                Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+                try {
+                    readAll(source, 1);
+                    fail("Truncated gzip file was read without failure");
+                } catch (IOException expected) {
+                    // do nothing
+                }
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testBuilderValidation() {
+        try {
+            SzCsvRecordSource.newBuilder().charset(StandardCharsets.UTF_16);
+            fail("Unexpectedly accepted UTF-16");
+        } catch (IllegalArgumentException expected) {
+            // do nothing
+        }
+        try {
+            SzCsvRecordSource.newBuilder().delimiter('\n');
+            fail("Unexpectedly accepted a line feed delimiter");
+        } catch (IllegalArgumentException expected) {
+            // do nothing
+        }
+        try {
+            SzCsvRecordSource.newBuilder().mapping(this.getMapping()).build();
+            fail("Unexpectedly built without a path");
+        } catch (IllegalStateException expected) {
+            // do nothing
+        }
+        try {
+            SzCsvMapping.newBuilder().recordIdColumn("ID").build();
+            fail("Unexpectedly built a mapping without a data source");
+        } catch (IllegalStateException expected) {
+            // do nothing
+        }
+    }
+}
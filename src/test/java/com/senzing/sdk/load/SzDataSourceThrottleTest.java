@@ -0,0 +1,173 @@
+package com.senzing.sdk.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.senzing.sdk.SzRecordKey;
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzDataSourceThrottleTest extends AbstractTest {
+    @BeforeAll
+    public void initialize() {
+        this.beginTests();
+    }
+
+    @AfterAll
+    public void complete() {
+        this.endTests();
+    }
+
+    @Test
+    public void testQuotaValidation() {
+        this.performTest(() -> {
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzDataSourceQuota.of(-1.0, 1, 0),
+                         "Negative rate accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzDataSourceQuota.of(10.0, 0, 0),
+                         "Zero burst size accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzDataSourceQuota.of(10.0, 1, -1),
+                         "Negative concurrency accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzDataSourceQuota.ofConcurrency(0),
+                         "Zero concurrency accepted");
+            SzDataSourceQuota quota = SzDataSourceQuota.ofRate(2.5);
+            assertEquals(3, quota.getBurstSize(), "Unexpected default burst size");
+            assertTrue(quota.isRateLimited(), "Rate quota is not rate limited");
+            assertTrue(!quota.isConcurrencyLimited(), "Rate quota is concurrency limited");
+        });
+    }
+
+    @Test
+    public void testRateLimit() {
+        this.performTest(() -> {
+            SzDataSourceThrottle throttle = SzDataSourceThrottle.newBuilder()
+                .quota("backfill", SzDataSourceQuota.of(200.0, 10, 0))
+                .build();
+            try {
+                long start = System.nanoTime();
+                for (int index = 0; index < 60; index++) {
+                    throttle.acquire(SzRecordKey.of("BACKFILL", "R" + index)).close();
+                }
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+                // 10 admitted by the burst and the other 50 at 200 per second
+                assertTrue(elapsed >= 200L, "Rate limit not enforced: " + elapsed + "ms");
+
+                // an unconfigured data source is not limited
+                start = System.nanoTime();
+                for (int index = 0; index < 1000; index++) {
+                    throttle.acquire("REALTIME").close();
+                }
+                elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                assertTrue(elapsed < 200L, "Unlimited data source was throttled: "
+                           + elapsed + "ms");
+
+                SzDataSourceStatistics stats = throttle.getStatistics("Backfill");
+                assertNotNull(stats, "Missing statistics");
+                assertEquals("BACKFILL", stats.getDataSourceCode(), "Unexpected code");
+                assertEquals(60L, stats.getCompletedCount(), "Unexpected completed count");
+                assertEquals(0, stats.getInFlightCount(), "Unexpected in-flight count");
+                assertTrue(stats.getThrottledMillis() >= 150L,
+                           "Throttled time not recorded: " + stats);
+
+            } catch (InterruptedException e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testConcurrencyLimit() {
+        this.performTest(() -> {
+            SzDataSourceThrottle throttle = SzDataSourceThrottle.newBuilder()
+                .defaultQuota(SzDataSourceQuota.ofConcurrency(2))
+                .quota("REALTIME", SzDataSourceQuota.UNLIMITED)
+                .build();
+            AtomicInteger current = new AtomicInteger();
+            AtomicInteger maximum = new AtomicInteger();
+            CountDownLatch saturated = new CountDownLatch(2);
+            CountDownLatch finish = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int index = 0; index < 8; index++) {
+                Thread thread = new Thread(() -> {
+                    try (SzDataSourceThrottle.Permit permit = throttle.acquire("NOISY")) {
+                        int count = current.incrementAndGet();
+                        maximum.accumulateAndGet(count, Math::max);
+                        saturated.countDown();
+                        finish.await(10, TimeUnit.SECONDS);
+                        Thread.sleep(5L);
+                        current.decrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            try {
+                assertTrue(saturated.await(10, TimeUnit.SECONDS), "Lane not saturated");
+                Thread.sleep(50L);
+
+                // the noisy data source is at its limit with others waiting
+                SzDataSourceStatistics stats = throttle.getStatistics("NOISY");
+                assertEquals(2, stats.getInFlightCount(), "Unexpected in-flight count");
+                assertEquals(6, stats.getWaitingCount(), "Unexpected waiting count");
+                assertNull(throttle.tryAcquire("NOISY", 10L),
+                           "Permit acquired beyond the concurrency limit");
+
+                // another data source is admitted without waiting
+                long start = System.nanoTime();
+                try (SzDataSourceThrottle.Permit permit = throttle.acquire("realtime")) {
+                    assertEquals("REALTIME", permit.getDataSourceCode(),
+                                 "Unexpected permit data source");
+                }
+                assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100L),
+                           "Other data source was starved");
+
+                finish.countDown();
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                assertEquals(2, maximum.get(), "Concurrency limit not enforced");
+
+                Map<String, SzDataSourceStatistics> all = throttle.getStatistics();
+                assertEquals(List.of("NOISY", "REALTIME"), new ArrayList<>(all.keySet()),
+                             "Unexpected data sources");
+                assertEquals(8L, all.get("NOISY").getCompletedCount(),
+                             "Unexpected completed count");
+                assertEquals(0, all.get("NOISY").getWaitingCount(),
+                             "Unexpected waiting count");
+                assertSame(SzDataSourceQuota.UNLIMITED, all.get("REALTIME").getQuota(),
+                           "Unexpected quota");
+
+                throttle.resetStatistics();
+                assertEquals(0L, throttle.getStatistics("NOISY").getCompletedCount(),
+                             "Statistics were not reset");
+
+            } catch (InterruptedException e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+}
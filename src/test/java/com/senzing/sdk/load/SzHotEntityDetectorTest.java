@@ -0,0 +1,186 @@
+package com.senzing.sdk.load;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzHotEntityDetectorTest extends AbstractTest {
+    private static final long SLOW_NANOS = TimeUnit.SECONDS.toNanos(5L);
+
+    private static final long FAST_NANOS = TimeUnit.MILLISECONDS.toNanos(5L);
+
+    @BeforeAll
+    public void initialize() {
+        this.beginTests();
+    }
+
+    @AfterAll
+    public void complete() {
+        this.endTests();
+    }
+
+    private static String definition(String recordId, String address) {
+        return "{\"DATA_SOURCE\":\"TEST\",\"RECORD_ID\":\"" + recordId
+            + "\",\"GENDER\":\"M\",\"NAME_FULL\":\"Name " + recordId
+            + "\",\"ADDR_FULL\": \"" + address + "\"}";
+    }
+
+    private static String info(String recordId, long... entityIds) {
+        StringBuilder sb = new StringBuilder("{\"DATA_SOURCE\":\"TEST\",\"RECORD_ID\":\"")
+            .append(recordId).append("\",\"AFFECTED_ENTITIES\":[");
+        String prefix = "";
+        for (long entityId : entityIds) {
+            sb.append(prefix).append("{\"ENTITY_ID\":").append(entityId).append('}');
+            prefix = ",";
+        }
+        return sb.append("]}").toString();
+    }
+
+    @Test
+    public void testBuilderValidation() {
+        this.performTest(() -> {
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzHotEntityDetector.newBuilder().slowThresholdMillis(0L),
+                         "Zero slow threshold accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzHotEntityDetector.newBuilder().hotThreshold(0),
+                         "Zero hot threshold accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzHotEntityDetector.newBuilder().laneConcurrency(-1),
+                         "Negative lane concurrency accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzHotEntityDetector.newBuilder().minValueLength(0),
+                         "Zero minimum value length accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzHotEntityDetector.newBuilder().maxTrackedCount(0),
+                         "Zero maximum tracked count accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzHotEntityDetector.newBuilder().maxHotValues(0),
+                         "Zero maximum hot values accepted");
+
+            SzHotEntityDetector detector = SzHotEntityDetector.newBuilder().build();
+            assertEquals(SzHotEntityDetector.DEFAULT_SLOW_THRESHOLD_MILLIS,
+                         detector.getSlowThresholdMillis(), "Unexpected slow threshold");
+            assertEquals(SzHotEntityDetector.DEFAULT_HOT_THRESHOLD,
+                         detector.getHotThreshold(), "Unexpected hot threshold");
+            assertEquals(SzHotEntityDetector.DEFAULT_LANE_CONCURRENCY,
+                         detector.getLaneConcurrency(), "Unexpected lane concurrency");
+        });
+    }
+
+    @Test
+    public void testObserve() {
+        this.performTest(() -> {
+            SzHotEntityDetector detector = SzHotEntityDetector.newBuilder()
+                .hotThreshold(3)
+                .build();
+            String hot = definition("1", "1 MAIN ST");
+
+            // fast calls are ignored
+            for (int index = 0; index < 10; index++) {
+                detector.observe(definition("F" + index, "1 MAIN ST"),
+                                 info("F" + index, 1L), FAST_NANOS);
+            }
+            assertEquals(0L, detector.getSlowCount(), "Fast calls counted as slow");
+            assertFalse(detector.isHot(hot), "Hot after fast calls");
+
+            // the entity becomes hot on the third slow call, and so do the
+            // values that occurred in each of those slow calls
+            detector.observe(definition("A", "1 MAIN ST"), info("A", 1L, 2L), SLOW_NANOS);
+            detector.observe(definition("B", "1 MAIN ST"), info("B", 1L), SLOW_NANOS);
+            assertTrue(detector.getHotEntityIds().isEmpty(), "Entity hot too early");
+            assertFalse(detector.isHot(hot), "Record hot too early");
+            detector.observe(definition("C", "1 MAIN ST"), null, SLOW_NANOS);
+            assertTrue(detector.getHotEntityIds().isEmpty(), "Entity hot without info");
+            assertFalse(detector.isHot(hot), "Record hot without hot entity");
+            detector.observe(definition("D", "1 MAIN ST"), info("D", 1L), SLOW_NANOS);
+
+            assertEquals(4L, detector.getSlowCount(), "Unexpected slow count");
+            assertEquals(Set.of(1L), detector.getHotEntityIds(), "Unexpected hot entities");
+            assertEquals(Set.of("\"1 MAIN ST\""), detector.getHotValues(),
+                         "Unexpected hot values");
+            assertTrue(detector.isHot(hot), "Record with hot value not hot");
+            assertFalse(detector.isHot(definition("2", "2 ELM ST")),
+                        "Record without hot value is hot");
+            assertTrue(detector.isHot("{\"ADDRESSES\": [{\"ADDR_LINE1\" : \"1 MAIN ST\"}]}"),
+                       "Nested hot value under another property not hot");
+            assertFalse(detector.isHot(definition("3", "1 MAIN ST APT 2")),
+                        "Record with a longer value is hot");
+
+            // keys, short values and identifiers never become hot
+            assertFalse(detector.isHot("{\"DATA_SOURCE\":\"TEST\",\"GENDER\":\"M\"}"),
+                        "Identifier or short value is hot");
+            assertFalse(detector.isHot("{\"ADDR_FULL\":\"OTHER\"}"), "Property name is hot");
+
+            detector.reset();
+            assertTrue(detector.getHotEntityIds().isEmpty(), "Hot entities not reset");
+            assertTrue(detector.getHotValues().isEmpty(), "Hot values not reset");
+            assertFalse(detector.isHot(hot), "Record hot after reset");
+
+            // malformed info is tolerated
+            detector.observe(hot, "not json", SLOW_NANOS);
+            assertEquals(5L, detector.getSlowCount(), "Unexpected slow count");
+        });
+    }
+
+    @Test
+    public void testAcquire() {
+        this.performTest(() -> {
+            try {
+                SzHotEntityDetector detector = SzHotEntityDetector.newBuilder()
+                    .hotThreshold(1)
+                    .build();
+                String hot = definition("1", "1 MAIN ST");
+                assertNull(detector.acquire(hot), "Lane acquired for cold record");
+
+                detector.observe(hot, info("1", 7L), SLOW_NANOS);
+                assertTrue(detector.isHot(hot), "Record not hot");
+
+                SzHotEntityDetector.Permit permit = detector.acquire(hot);
+                assertNotNull(permit, "Lane not acquired for hot record");
+                assertEquals(1L, detector.getSerializedCount(), "Unexpected serialized count");
+
+                // a second hot write waits for the first
+                AtomicBoolean acquired = new AtomicBoolean(false);
+                Thread thread = new Thread(() -> {
+                    try (SzHotEntityDetector.Permit other = detector.acquire(hot)) {
+                        acquired.set(true);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                thread.start();
+                thread.join(100L);
+                assertFalse(acquired.get(), "Lane admitted a second hot write");
+                assertNull(detector.acquire(definition("2", "2 ELM ST")),
+                           "Cold record waited for the lane");
+
+                permit.close();
+                permit.close();
+                thread.join(5000L);
+                assertTrue(acquired.get(), "Lane not released");
+                assertEquals(2L, detector.getSerializedCount(), "Unexpected serialized count");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+}
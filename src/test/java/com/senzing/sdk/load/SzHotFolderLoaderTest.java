@@ -0,0 +1,255 @@
+package com.senzing.sdk.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.senzing.sdk.SzRecordKey;
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzHotFolderLoaderTest extends AbstractTest {
+    private Path tempDir = null;
+
+    private RecordingEngine recorder = null;
+
+    @BeforeAll
+    public void initialize() {
+        this.beginTests();
+    }
+
+    @AfterAll
+    public void complete() {
+        this.endTests();
+    }
+
+    @BeforeEach
+    public void createDirectory() throws IOException {
+        this.tempDir = Files.createTempDirectory("sz-hot-folder-");
+        this.recorder = new RecordingEngine();
+    }
+
+    @AfterEach
+    public void deleteDirectory() throws IOException {
+        deleteRecursively(this.tempDir.toFile());
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private SzHotFolderLoader.Builder newBuilder() {
+        SzBulkLoader loader = SzBulkLoader.newBuilder()
+            .engine(this.recorder.getEngine())
+            .threadCount(2)
+            .build();
+        SzCsvMapping mapping = SzCsvMapping.newBuilder()
+            .dataSource("TEST")
+            .recordIdColumn("ID")
+            .attribute("NAME", "NAME_FULL")
+            .build();
+        return SzHotFolderLoader.newBuilder()
+            .directory(this.tempDir)
+            .loader(loader)
+            .sourceFactory(path -> SzCsvRecordSource.newBuilder()
+                .path(path).mapping(mapping).build())
+            .glob("*.csv")
+            .settleMillis(0L);
+    }
+
+    private void land(String name, String prefix, int count) throws IOException {
+        StringBuilder sb = new StringBuilder("ID,NAME\n");
+        for (int index = 0; index < count; index++) {
+            sb.append(prefix).append(index).append(",Name ").append(index).append('\n');
+        }
+        // write under a hidden name and rename into place
+        Path temp = this.tempDir.resolve("." + name + ".tmp");
+        Files.writeString(temp, sb.toString(), StandardCharsets.UTF_8);
+        Files.move(temp, this.tempDir.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<JsonObject> readManifest(SzHotFolderLoader hotFolder) throws IOException {
+        List<JsonObject> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(hotFolder.getManifestFile())) {
+            entries.add(Json.createReader(new StringReader(line)).readObject());
+        }
+        return entries;
+    }
+
+    @Test
+    public void testDrain() {
+        this.performTest(() -> {
+            try {
+                this.land("a.csv", "A", 100);
+                this.land("b.csv", "B", 50);
+                Files.writeString(this.tempDir.resolve("notes.txt"), "ignored");
+                Files.writeString(this.tempDir.resolve("bad.csv"), "NO_ID,NAME\n1,X\n");
+
+                SzHotFolderLoader hotFolder = this.newBuilder().build();
+                assertEquals(3, hotFolder.drain(), "Unexpected number of files drained");
+                assertEquals(0, hotFolder.drain(), "Files drained twice");
+
+                assertEquals(150, this.recorder.getRecords().size(), "Unexpected record count");
+                assertTrue(this.recorder.getRecords().containsKey(SzRecordKey.of("TEST", "B49")),
+                           "Missing record");
+                assertEquals(2L, hotFolder.getDoneCount(), "Unexpected done count");
+                assertEquals(1L, hotFolder.getFailedCount(), "Unexpected failed count");
+                assertTrue(Files.exists(hotFolder.getDoneDirectory().resolve("a.csv")),
+                           "File not moved to done directory");
+                assertTrue(Files.exists(hotFolder.getFailedDirectory().resolve("bad.csv")),
+                           "File not moved to failed directory");
+                assertTrue(Files.exists(this.tempDir.resolve("notes.txt")),
+                           "Non-matching file was claimed");
+                assertFalse(Files.exists(this.tempDir.resolve("a.csv")), "File not claimed");
+
+                List<JsonObject> manifest = this.readManifest(hotFolder);
+                assertEquals(3, manifest.size(), "Unexpected manifest entries");
+                int doneEntries = 0;
+                for (JsonObject entry : manifest) {
+                    if (entry.getString("status").equals("DONE")) {
+                        doneEntries++;
+                        int expected = entry.getString("file").equals("a.csv") ? 100 : 50;
+                        assertEquals(expected, entry.getInt("loadedCount"),
+                                     "Unexpected manifest count: " + entry);
+                        assertFalse(entry.containsKey("error"), "Unexpected error: " + entry);
+                    } else {
+                        assertEquals("bad.csv", entry.getString("file"),
+                                     "Unexpected failed file: " + entry);
+                        assertTrue(entry.getString("error").contains("ID"),
+                                   "Missing error: " + entry);
+                    }
+                }
+                assertEquals(2, doneEntries, "Unexpected number of done entries");
+
+                // a file landing again with the same name does not collide
+                this.land("a.csv", "A", 1);
+                assertEquals(1, hotFolder.drain(), "Re-landed file not drained");
+                assertTrue(Files.exists(hotFolder.getDoneDirectory().resolve("a.csv.1")),
+                           "Re-landed file not renamed in done directory");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testResume() {
+        this.performTest(() -> {
+            try (SzHotFolderLoader live = this.newBuilder().build();
+                 SzHotFolderLoader hotFolder = this.newBuilder().build())
+            {
+                // simulate a file claimed by a service that was stopped
+                SzHotFolderLoader stopped = this.newBuilder().build();
+                Path stoppedDir = stopped.getClaimDirectory();
+                this.land("resume.csv", "R", 10);
+                Files.move(this.tempDir.resolve("resume.csv"), stoppedDir.resolve("resume.csv"));
+                stopped.close();
+                assertTrue(Files.exists(stoppedDir), "Non-empty claim directory removed");
+
+                // simulate a file placed directly in the processing directory
+                this.land("direct.csv", "D", 3);
+                Files.move(this.tempDir.resolve("direct.csv"),
+                           hotFolder.getProcessingDirectory().resolve("direct.csv"));
+
+                // simulate a file being loaded by a live service
+                this.land("live.csv", "L", 7);
+                Path inFlight = live.getClaimDirectory().resolve("live.csv");
+                Files.move(this.tempDir.resolve("live.csv"), inFlight);
+
+                // a file landing with the name of a resumed file is not replaced
+                this.land("resume.csv", "N", 5);
+
+                List<String> order = new CopyOnWriteArrayList<>();
+                this.recorder.setHook((recordKey, definition, attempt) -> {
+                    order.add(recordKey.recordId().substring(0, 1));
+                    return null;
+                });
+                assertEquals(3, hotFolder.drain(), "Unexpected number of files drained");
+                assertTrue(order.lastIndexOf("R") < order.indexOf("N"),
+                           "Claimed file not resumed first: " + order);
+                assertTrue(order.lastIndexOf("D") < order.indexOf("N"),
+                           "Orphaned file not resumed first: " + order);
+                assertFalse(order.contains("L"), "File of a live service loaded: " + order);
+                assertEquals(18, this.recorder.getRecords().size(), "Unexpected record count");
+                assertTrue(Files.exists(inFlight), "File of a live service moved");
+                assertFalse(Files.exists(stoppedDir), "Orphaned claim directory not removed");
+                assertTrue(Files.exists(hotFolder.getDoneDirectory().resolve("resume.csv.1")),
+                           "Same-named file not loaded");
+
+                Path claimDir = hotFolder.getClaimDirectory();
+                hotFolder.close();
+                assertFalse(Files.exists(claimDir), "Empty claim directory not removed");
+                assertThrows(IllegalStateException.class, () -> hotFolder.drain(),
+                             "Drained after close");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testWatch() {
+        this.performTest(() -> {
+            try (SzHotFolderLoader hotFolder = this.newBuilder().settleMillis(50L).build()) {
+                hotFolder.start();
+                assertThrows(IllegalStateException.class, () -> hotFolder.start(),
+                             "Started twice");
+                assertTrue(hotFolder.isRunning(), "Not running after start");
+
+                this.land("first.csv", "F", 20);
+                long deadline = System.currentTimeMillis() + 10000L;
+                while (hotFolder.getDoneCount() < 1L && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10L);
+                }
+                assertEquals(1L, hotFolder.getDoneCount(), "Landed file not loaded");
+
+                this.land("second.csv", "S", 30);
+                while (hotFolder.getDoneCount() < 2L && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10L);
+                }
+                assertEquals(2L, hotFolder.getDoneCount(), "Second landed file not loaded");
+                assertEquals(50, this.recorder.getRecords().size(), "Unexpected record count");
+
+                hotFolder.close();
+                assertFalse(hotFolder.isRunning(), "Still running after close");
+                assertNull(hotFolder.getFailure(), "Unexpected failure");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,218 @@
+package com.senzing.sdk.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.senzing.sdk.SzBadInputException;
+import com.senzing.sdk.SzDatabaseException;
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzRedoControllerTest extends AbstractTest {
+    /**
+     * Provides an {@link SzDeadLetterSink} that collects the dead letters
+     * in memory.
+     */
+    private static class CollectingSink implements SzDeadLetterSink {
+        private final List<SzDeadLetter> deadLetters
+            = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void write(SzDeadLetter deadLetter) {
+            this.deadLetters.add(deadLetter);
+        }
+
+        @Override
+        public void close() {
+            // do nothing
+        }
+    }
+
+    @BeforeAll
+    public void initialize() {
+        this.beginTests();
+    }
+
+    @AfterAll
+    public void complete() {
+        this.endTests();
+    }
+
+    @Test
+    public void testBuilderValidation() {
+        this.performTest(() -> {
+            RecordingEngine recorder = new RecordingEngine();
+            assertThrows(IllegalStateException.class,
+                         () -> SzRedoController.newBuilder().build(),
+                         "Missing engine accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzRedoController.newBuilder().capacity(0),
+                         "Zero capacity accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzRedoController.newBuilder().targetBacklog(-1L),
+                         "Negative target backlog accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzRedoController.newBuilder().targetRatio(Double.NaN),
+                         "NaN target ratio accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzRedoController.newBuilder().maxRedoShare(1.5),
+                         "Redo share above one accepted");
+            assertThrows(IllegalStateException.class,
+                         () -> SzRedoController.newBuilder()
+                             .engine(recorder.getEngine())
+                             .minRedoShare(0.6).maxRedoShare(0.4).build(),
+                         "Minimum share above maximum accepted");
+        });
+    }
+
+    @Test
+    public void testRedoShare() {
+        this.performTest(() -> {
+            try {
+                RecordingEngine recorder = new RecordingEngine();
+                SzRedoController controller = SzRedoController.newBuilder()
+                    .engine(recorder.getEngine())
+                    .capacity(10)
+                    .targetBacklog(100L)
+                    .minRedoShare(0.1)
+                    .maxRedoShare(0.5)
+                    .sampleIntervalMillis(1L)
+                    .build();
+                assertEquals(-1L, controller.getRedoBacklog(), "Backlog sampled early");
+                assertEquals(0, controller.getRedoSlotCount(), "Unexpected initial slots");
+
+                recorder.setRedoCount(50L);
+                Thread.sleep(2L);
+                assertFalse(controller.isAboveTarget(), "Backlog above target");
+                assertEquals(50L, controller.getRedoBacklog(), "Unexpected backlog");
+                assertEquals(1, controller.getRedoSlotCount(), "Unexpected slots at minimum");
+
+                recorder.setRedoCount(150L);
+                Thread.sleep(2L);
+                assertTrue(controller.isAboveTarget(), "Backlog not above target");
+                assertEquals(0.3, controller.getRedoShare(), 0.0001, "Unexpected share");
+                assertEquals(3, controller.getRedoSlotCount(), "Unexpected proportional slots");
+
+                recorder.setRedoCount(1000L);
+                Thread.sleep(2L);
+                assertTrue(controller.isAboveTarget(), "Backlog not above target");
+                assertEquals(5, controller.getRedoSlotCount(), "Unexpected slots at maximum");
+
+                // at least one unit of capacity is always left for loading
+                SzRedoController small = SzRedoController.newBuilder()
+                    .engine(recorder.getEngine())
+                    .capacity(2).targetBacklog(0L).maxRedoShare(1.0)
+                    .build();
+                assertTrue(small.isAboveTarget(), "Backlog not above zero target");
+                assertEquals(1, small.getRedoSlotCount(), "Load capacity not preserved");
+
+                // the target ratio raises the target as records are added
+                recorder.setRedoCount(0L);
+                SzRedoController ratio = SzRedoController.newBuilder()
+                    .engine(recorder.getEngine())
+                    .capacity(2).targetBacklog(10L).targetRatio(0.5)
+                    .build();
+                assertEquals(10L, ratio.getEffectiveTarget(), "Unexpected initial target");
+                for (int index = 0; index < 100; index++) {
+                    ratio.acquireLoad().close();
+                }
+                assertEquals(100L, ratio.getAddedCount(), "Unexpected added count");
+                assertEquals(50L, ratio.getEffectiveTarget(), "Unexpected ratio target");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testAcquireLoad() {
+        this.performTest(() -> {
+            try {
+                RecordingEngine recorder = new RecordingEngine();
+                for (int index = 0; index < 5; index++) {
+                    recorder.addRedoRecord("REDO-" + index);
+                }
+                SzRedoController controller = SzRedoController.newBuilder()
+                    .engine(recorder.getEngine())
+                    .capacity(2)
+                    .targetBacklog(0L)
+                    .build();
+
+                // the acquiring thread works off the redo backlog first
+                SzRedoController.Permit permit = controller.acquireLoad();
+                assertEquals(5, recorder.getProcessedRedo().size(),
+                             "Redo not processed before load");
+                assertEquals(5L, controller.getProcessedCount(), "Unexpected processed count");
+                assertEquals(0L, controller.getRedoBacklog(), "Unexpected backlog");
+                assertEquals(1, controller.getActiveLoadCount(), "Unexpected active loads");
+                permit.close();
+                permit.close();
+                assertEquals(0, controller.getActiveLoadCount(), "Permit not released");
+                assertEquals(0, controller.getActiveRedoCount(), "Redo slot not released");
+                assertEquals(1L, controller.getAddedCount(), "Unexpected added count");
+
+                assertFalse(controller.processRedoRecord(), "Processed without backlog");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testDeadLetter() {
+        this.performTest(() -> {
+            RecordingEngine recorder = new RecordingEngine();
+            recorder.addRedoRecord("REDO-0");
+            recorder.addRedoRecord("REDO-1");
+            recorder.addRedoRecord("REDO-2");
+            recorder.failRedoRecord("REDO-1", new SzBadInputException("Simulated bad redo"));
+            recorder.failRedoRecord("REDO-2", new SzDatabaseException("Simulated failure"));
+            CollectingSink sink = new CollectingSink();
+            SzRedoController controller = SzRedoController.newBuilder()
+                .engine(recorder.getEngine())
+                .capacity(2)
+                .deadLetterSink(sink)
+                .build();
+            assertSame(sink, controller.getDeadLetterSink(), "Unexpected sink");
+            try {
+                assertTrue(controller.processRedoRecord(), "First redo not processed");
+                assertTrue(controller.processRedoRecord(), "Second redo not processed");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+            assertThrows(SzDatabaseException.class, () -> controller.processRedoRecord(),
+                         "Unrecoverable failure not thrown");
+
+            assertEquals(List.of("REDO-0"), recorder.getProcessedRedo(),
+                         "Unexpected processed redo");
+            assertEquals(2, sink.deadLetters.size(), "Unexpected dead letters");
+            assertEquals(2L, controller.getDeadLetterCount(), "Unexpected dead letter count");
+            assertEquals(2L, controller.getFailedCount(), "Unexpected failed count");
+            SzDeadLetter deadLetter = sink.deadLetters.get(0);
+            assertEquals("REDO-1", deadLetter.getRecordDefinition(), "Unexpected redo record");
+            assertEquals(SzRedoController.REDO_SOURCE_NAME, deadLetter.getSourceName(),
+                         "Unexpected source name");
+            assertEquals(SzBadInputException.class, deadLetter.getExceptionClass(),
+                         "Unexpected exception class");
+            assertEquals("REDO-2", sink.deadLetters.get(1).getRecordDefinition(),
+                         "Unrecoverable redo record not dead-lettered");
+        });
+    }
+}
@@ -0,0 +1,335 @@
+package com.senzing.sdk.load;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.senzing.sdk.SzDatabaseException;
+import com.senzing.sdk.SzDatabaseTransientException;
+import com.senzing.sdk.SzRecordKey;
+import com.senzing.sdk.SzUnknownDataSourceException;
+import com.senzing.sdk.test.AbstractTest;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzWriteAheadJournalTest extends AbstractTest {
+    private static final long AWAIT_MILLIS = 30000L;
+
+    private Path tempDir = null;
+
+    @BeforeAll
+    public void initialize() throws IOException {
+        this.beginTests();
+        this.tempDir = Files.createTempDirectory("sz-journal-");
+    }
+
+    @AfterAll
+    public void complete() throws IOException {
+        try (var stream = Files.walk(this.tempDir)) {
+            List<Path> paths = new ArrayList<>(stream.toList());
+            Collections.reverse(paths);
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+        }
+        this.endTests();
+    }
+
+    private static SzRecordKey key(int index) {
+        return SzRecordKey.of("TEST", "RECORD-" + index);
+    }
+
+    private static String definition(int index) {
+        return "{\"NAME_FULL\":\"Name " + index + "\"}";
+    }
+
+    private static class CollectingSink implements SzDeadLetterSink {
+        private final ConcurrentLinkedQueue<SzDeadLetter> deadLetters
+            = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void write(SzDeadLetter deadLetter) {
+            this.deadLetters.add(deadLetter);
+        }
+
+        @Override
+        public void close() {
+            // do nothing
+        }
+    }
+
+    @Test
+    public void testAppendAndApply() {
+        this.performTest(() -> {
+            Path directory = this.tempDir.resolve("apply");
+            RecordingEngine recorder = new RecordingEngine();
+            final int threadCount = 8;
+            final int perThread = 500;
+            try (SzWriteAheadJournal journal = SzWriteAheadJournal.newBuilder()
+                    .directory(directory)
+                    .engine(recorder.getEngine())
+                    .applierThreadCount(4)
+                    .segmentSize(16 * 1024L)
+                    .build())
+            {
+                AtomicLong maxSequence = new AtomicLong();
+                List<Thread> threads = new ArrayList<>();
+                List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+                for (int t = 0; t < threadCount; t++) {
+                    final int base = t * perThread;
+                    Thread thread = new Thread(() -> {
+                        try {
+                            for (int i = base; i < base + perThread; i++) {
+                                long sequence = journal.addRecord(key(i), definition(i));
+                                maxSequence.accumulateAndGet(sequence, Math::max);
+                                assertTrue(journal.getDurableSequence() >= sequence,
+                                           "Acknowledged before durable: " + sequence);
+                            }
+                        } catch (Throwable e) {
+                            failures.add(e);
+                        }
+                    });
+                    threads.add(thread);
+                    thread.start();
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                assertEquals(List.of(), failures, "Unexpected failures appending");
+
+                int total = threadCount * perThread;
+                assertEquals(total, maxSequence.get(), "Unexpected last sequence number");
+
+                // delete some of the records after they were added
+                long last = 0L;
+                for (int i = 0; i < total; i += 10) {
+                    last = journal.deleteRecord(key(i));
+                }
+                assertTrue(journal.awaitApplied(last, AWAIT_MILLIS),
+                           "Journal was not applied: " + journal);
+                assertNull(journal.getApplierFailure(), "Unexpected applier failure");
+                assertEquals(total + (total / 10), journal.getAppliedCount(),
+                             "Unexpected applied count");
+                assertEquals(total - (total / 10), recorder.getRecords().size(),
+                             "Unexpected number of records");
+                for (int i = 0; i < total; i++) {
+                    if (i % 10 == 0) {
+                        assertFalse(recorder.getRecords().containsKey(key(i)),
+                                    "Deleted record was present: " + i);
+                    } else {
+                        assertEquals(definition(i), recorder.getRecords().get(key(i)),
+                                     "Unexpected record definition: " + i);
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                fail("Unexpected exception", e);
+            }
+
+            // the applied segments should be removed on reopen
+            try (SzWriteAheadJournal journal = SzWriteAheadJournal.newBuilder()
+                    .directory(directory)
+                    .engine(recorder.getEngine())
+                    .build();
+                 var stream = Files.list(directory))
+            {
+                assertEquals(0L, journal.getAppliedCount(), "Operations were replayed");
+                long segmentCount = stream.filter(
+                    p -> p.getFileName().toString().endsWith(".wal")).count();
+                assertEquals(1L, segmentCount, "Applied segments were not removed");
+                assertEquals(journal.getAppliedSequence(), journal.getDurableSequence(),
+                             "Sequence numbers not restored");
+            } catch (IOException e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testReplayAfterCrash() {
+        this.performTest(() -> {
+            Path directory = this.tempDir.resolve("replay");
+            try {
+                // journal while the applier is stopped by an unrecoverable failure
+                RecordingEngine failing = new RecordingEngine();
+                failing.setHook((recordKey, definition, attempt) -> {
+                    throw new SzDatabaseException("Database is down");
+                });
+                SzWriteAheadJournal crashed = SzWriteAheadJournal.newBuilder()
+                    .directory(directory)
+                    .engine(failing.getEngine())
+                    .applierThreadCount(2)
+                    .build();
+                long last = 0L;
+                for (int i = 0; i < 100; i++) {
+                    last = crashed.addRecord(key(i), definition(i));
+                }
+                assertFalse(crashed.awaitApplied(last, AWAIT_MILLIS),
+                            "Journal applied despite the failure");
+                assertTrue(crashed.getApplierFailure() instanceof SzDatabaseException,
+                           "Unexpected applier failure: " + crashed.getApplierFailure());
+
+                // the directory cannot be shared while the instance is open
+                IOException inUse = assertThrows(IOException.class,
+                    () -> SzWriteAheadJournal.newBuilder()
+                        .directory(directory)
+                        .engine(failing.getEngine())
+                        .build(),
+                    "Journal directory in use was opened");
+                assertTrue(inUse.getMessage().contains("already in use"),
+                           "Unexpected failure: " + inUse);
+
+                // copy the journal files as a crash would leave them
+                Path recovered = this.tempDir.resolve("replay-recovered");
+                Files.createDirectories(recovered);
+                try (var stream = Files.list(directory)) {
+                    for (Path file : stream.toList()) {
+                        if (!file.getFileName().toString().equals(".lock")) {
+                            Files.copy(file, recovered.resolve(file.getFileName()));
+                        }
+                    }
+                }
+
+                // simulate a torn frame from a crash mid-write
+                Path segment;
+                try (var stream = Files.list(recovered)) {
+                    segment = stream.filter(p -> p.getFileName().toString().endsWith(".wal"))
+                        .sorted().reduce((a, b) -> b).orElseThrow();
+                }
+                try (FileChannel channel = FileChannel.open(segment, APPEND)) {
+                    channel.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 50, 1, 2 }));
+                }
+
+                // reopen the files left by the crashed instance
+                RecordingEngine recorder = new RecordingEngine();
+                try (SzWriteAheadJournal journal = SzWriteAheadJournal.newBuilder()
+                        .directory(recovered)
+                        .engine(recorder.getEngine())
+                        .applierThreadCount(2)
+                        .build())
+                {
+                    assertEquals(last, journal.getDurableSequence(),
+                                 "Unexpected durable sequence after recovery");
+                    assertTrue(journal.awaitApplied(last, AWAIT_MILLIS),
+                               "Journal was not replayed: " + journal);
+                    assertEquals(100, recorder.getRecords().size(),
+                                 "Unexpected number of replayed records");
+                    long next = journal.addRecord(key(100), definition(100));
+                    assertEquals(last + 1L, next, "Unexpected sequence after recovery");
+                    assertTrue(journal.awaitApplied(next, AWAIT_MILLIS),
+                               "Journal was not applied: " + journal);
+                }
+                crashed.close();
+
+            } catch (IOException | InterruptedException e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testFailures() {
+        this.performTest(() -> {
+            Path directory = this.tempDir.resolve("failures");
+            RecordingEngine recorder = new RecordingEngine();
+            recorder.setHook((recordKey, definition, attempt) -> {
+                int id = Integer.parseInt(recordKey.recordId().substring("RECORD-".length()));
+                if (id % 10 == 0) {
+                    throw new SzUnknownDataSourceException("Unknown data source");
+                }
+                if (id % 10 == 5 && attempt < 3) {
+                    throw new SzDatabaseTransientException("Deadlock");
+                }
+                return null;
+            });
+            CollectingSink sink = new CollectingSink();
+            try (SzWriteAheadJournal journal = SzWriteAheadJournal.newBuilder()
+                    .directory(directory)
+                    .engine(recorder.getEngine())
+                    .applierThreadCount(3)
+                    .retryDelayMillis(1L)
+                    .maxRetryDelayMillis(5L)
+                    .deadLetterSink(sink)
+                    .build())
+            {
+                long last = 0L;
+                for (int i = 0; i < 200; i++) {
+                    last = journal.addRecord(key(i), definition(i));
+                }
+                assertTrue(journal.awaitApplied(last, AWAIT_MILLIS),
+                           "Journal was not applied: " + journal);
+                assertNull(journal.getApplierFailure(), "Unexpected applier failure");
+                assertEquals(20L, journal.getFailedCount(), "Unexpected failed count");
+                assertEquals(180L, journal.getAppliedCount(), "Unexpected applied count");
+                assertEquals(20, sink.deadLetters.size(), "Unexpected dead letter count");
+                for (SzDeadLetter deadLetter : sink.deadLetters) {
+                    assertEquals(SzUnknownDataSourceException.class,
+                                 deadLetter.getExceptionClass(),
+                                 "Unexpected exception class: " + deadLetter);
+                    assertNotNull(deadLetter.getRecordDefinition(),
+                                  "Missing record definition: " + deadLetter);
+                    assertTrue(deadLetter.getSourceName().endsWith(".wal"),
+                               "Unexpected source name: " + deadLetter);
+                }
+                assertEquals(3, recorder.getAttempts(key(5)), "Unexpected attempts");
+
+            } catch (IOException | InterruptedException e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testClosed() {
+        this.performTest(() -> {
+            Path directory = this.tempDir.resolve("closed");
+            RecordingEngine recorder = new RecordingEngine();
+            try {
+                SzWriteAheadJournal journal = SzWriteAheadJournal.newBuilder()
+                    .directory(directory)
+                    .engine(recorder.getEngine())
+                    .build();
+                journal.close();
+                journal.close();
+                assertThrows(IllegalStateException.class,
+                             () -> journal.addRecord(key(1), definition(1)),
+                             "Closed journal accepted an operation");
+
+                // closing releases the journal directory
+                SzWriteAheadJournal.newBuilder()
+                    .directory(directory)
+                    .engine(recorder.getEngine())
+                    .build()
+                    .close();
+            } catch (IOException e) {
+                fail("Unexpected exception", e);
+            }
+            assertThrows(IllegalStateException.class,
+                         () -> SzWriteAheadJournal.newBuilder().directory(directory).build(),
+                         "Missing engine was not rejected");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzWriteAheadJournal.newBuilder().segmentSize(0L),
+                         "Non-positive segment size was not rejected");
+        });
+    }
+}
@@ -0,0 +1,151 @@
+package com.senzing.sdk.redo;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import com.senzing.sdk.SzEngine;
+import com.senzing.sdk.SzException;
+import com.senzing.sdk.SzFlag;
+
+/**
+ * Provides an {@link InvocationHandler} for a proxy {@link SzEngine} that
+ * serves redo records from a queue, records the redo records that are
+ * processed and optionally fails on demand, for testing the redo
+ * processing classes without the native Senzing libraries.
+ */
+class RedoEngine implements InvocationHandler {
+    /**
+     * Functional interface for deciding the outcome of processing a redo
+     * record.
+     */
+    @FunctionalInterface
+    interface ProcessHook {
+        /**
+         * Called before a redo record is recorded as processed.
+         *
+         * @param redoRecord The redo record.
+         * @param flags The flags for processing the redo record.
+         * @param attempt The one-based attempt number for the redo record.
+         *
+         * @return The INFO response to return, or <code>null</code>.
+         *
+         * @throws SzException To simulate a failure.
+         */
+        String process(String redoRecord, Set<SzFlag> flags, int attempt)
+            throws SzException;
+    }
+
+    private final Queue<String> redoQueue = new ConcurrentLinkedQueue<>();
+
+    private final List<String> processedRedo = new CopyOnWriteArrayList<>();
+
+    private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+    private final AtomicInteger getCount = new AtomicInteger(0);
+
+    private final AtomicInteger countCount = new AtomicInteger(0);
+
+    private volatile ProcessHook hook = null;
+
+    private volatile long fetchDelayNanos = 0L;
+
+    private final SzEngine engine;
+
+    RedoEngine() {
+        this.engine = (SzEngine) Proxy.newProxyInstance(
+            SzEngine.class.getClassLoader(),
+            new Class<?>[] { SzEngine.class },
+            this);
+    }
+
+    SzEngine getEngine() {
+        return this.engine;
+    }
+
+    void setHook(ProcessHook hook) {
+        this.hook = hook;
+    }
+
+    void setFetchDelayMillis(long delayMillis) {
+        this.fetchDelayNanos = TimeUnit.MILLISECONDS.toNanos(delayMillis);
+    }
+
+    void addRedoRecord(String redoRecord) {
+        this.redoQueue.add(redoRecord);
+    }
+
+    int getRedoQueueSize() {
+        return this.redoQueue.size();
+    }
+
+    List<String> getProcessedRedo() {
+        return this.processedRedo;
+    }
+
+    int getAttempts(String redoRecord) {
+        AtomicInteger count = this.attempts.get(redoRecord);
+        return (count == null) ? 0 : count.get();
+    }
+
+    int getGetCount() {
+        return this.getCount.get();
+    }
+
+    int getCountCount() {
+        return this.countCount.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.isDefault()) {
+            try {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+        switch (method.getName()) {
+            case "countRedoRecords":
+                this.countCount.incrementAndGet();
+                return (long) this.redoQueue.size();
+            case "getRedoRecord":
+                this.getCount.incrementAndGet();
+                if (this.fetchDelayNanos > 0L) {
+                    LockSupport.parkNanos(this.fetchDelayNanos);
+                }
+                return this.redoQueue.poll();
+            case "processRedoRecord":
+                {
+                    String redoRecord = (String) args[0];
+                    int attempt = this.attempts.computeIfAbsent(
+                        redoRecord, k -> new AtomicInteger(0)).incrementAndGet();
+                    ProcessHook processHook = this.hook;
+                    String info = (processHook == null) ? null
+                        : processHook.process(redoRecord, (Set<SzFlag>) args[1], attempt);
+                    this.processedRedo.add(redoRecord);
+                    return info;
+                }
+            case "toString":
+                return "RedoEngine";
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.senzing.sdk.redo;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzEntityChangeFeedTest extends AbstractTest {
+    @BeforeAll
+    public void initialize() {
+        this.beginTests();
+    }
+
+    @AfterAll
+    public void complete() {
+        this.endTests();
+    }
+
+    static String info(long... entityIds) {
+        StringBuilder sb = new StringBuilder(
+            "{\"DATA_SOURCE\":\"TEST\",\"RECORD_ID\":\"1\",\"AFFECTED_ENTITIES\":[");
+        String prefix = "";
+        for (long entityId : entityIds) {
+            sb.append(prefix).append("{\"ENTITY_ID\":").append(entityId).append('}');
+            prefix = ",";
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - deadline > 0L) {
+                return false;
+            }
+            Thread.sleep(5L);
+        }
+        return true;
+    }
+
+    static class CollectingSubscriber implements Flow.Subscriber<Long> {
+        private final List<Long> received = new CopyOnWriteArrayList<>();
+
+        private final CountDownLatch subscribed = new CountDownLatch(1);
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        private final long initialRequest;
+
+        private volatile Flow.Subscription subscription = null;
+
+        CollectingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        List<Long> getReceived() {
+            return this.received;
+        }
+
+        boolean awaitSubscribed() throws InterruptedException {
+            return this.subscribed.await(10L, TimeUnit.SECONDS);
+        }
+
+        boolean awaitCompleted() throws InterruptedException {
+            return this.completed.await(10L, TimeUnit.SECONDS);
+        }
+
+        void request(long count) {
+            this.subscription.request(count);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (this.initialRequest > 0L) {
+                subscription.request(this.initialRequest);
+            }
+            this.subscribed.countDown();
+        }
+
+        @Override
+        public void onNext(Long entityId) {
+            this.received.add(entityId);
+        }
+
+        @Override
+        public void onError(Throwable failure) {
+            this.completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed.countDown();
+        }
+    }
+
+    @Test
+    public void testBuilderValidation() {
+        this.performTest(() -> {
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzEntityChangeFeed.newBuilder().windowMillis(-1L),
+                         "Negative window accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzEntityChangeFeed.newBuilder().capacity(0),
+                         "Zero capacity accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzEntityChangeFeed.newBuilder().maxBufferCapacity(0),
+                         "Zero buffer capacity accepted");
+            assertThrows(NullPointerException.class,
+                         () -> SzEntityChangeFeed.newBuilder().executor(null),
+                         "Null executor accepted");
+
+            try (SzEntityChangeFeed feed = SzEntityChangeFeed.newBuilder().build()) {
+                assertEquals(SzEntityChangeFeed.DEFAULT_WINDOW_MILLIS, feed.getWindowMillis(),
+                             "Unexpected window");
+                assertEquals(SzEntityChangeFeed.DEFAULT_CAPACITY, feed.getCapacity(),
+                             "Unexpected capacity");
+                assertEquals(Flow.defaultBufferSize(), feed.getMaxBufferCapacity(),
+                             "Unexpected buffer capacity");
+            }
+        });
+    }
+
+    @Test
+    public void testDeduplication() {
+        this.performTest(() -> {
+            try {
+                CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+                SzEntityChangeFeed feed = SzEntityChangeFeed.newBuilder()
+                    .windowMillis(200L)
+                    .build();
+                feed.subscribe(subscriber);
+                assertTrue(subscriber.awaitSubscribed(), "Not subscribed");
+
+                assertEquals(2, feed.publish(info(1L, 2L)), "Unexpected entity count");
+                assertEquals(2, feed.publish(info(2L, 3L)), "Unexpected entity count");
+                assertEquals(0, feed.publish((CharSequence) null), "Null info published");
+                assertEquals(0, feed.publish("not json"), "Malformed info published");
+                assertEquals(1L, feed.getDeduplicatedCount(), "Unexpected deduplicated count");
+                assertEquals(3, feed.getPendingCount(), "Unexpected pending count");
+                assertTrue(subscriber.getReceived().isEmpty(), "Published before window");
+
+                assertTrue(await(() -> subscriber.getReceived().size() == 3),
+                           "Entities not published: " + feed);
+                assertEquals(List.of(1L, 2L, 3L), subscriber.getReceived(),
+                             "Unexpected published entities");
+
+                // an entity affected after it was published is published again
+                feed.publish(2L);
+                feed.close();
+                assertTrue(subscriber.awaitCompleted(), "Subscriber not completed");
+                assertEquals(List.of(1L, 2L, 3L, 2L), subscriber.getReceived(),
+                             "Held entity not published on close");
+                assertEquals(4L, feed.getPublishedCount(), "Unexpected published count");
+                assertThrows(IllegalStateException.class, () -> feed.publish(4L),
+                             "Published after close");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testBackpressure() {
+        this.performTest(() -> {
+            try {
+                CollectingSubscriber subscriber = new CollectingSubscriber(1L);
+                try (SzEntityChangeFeed feed = SzEntityChangeFeed.newBuilder()
+                        .windowMillis(0L)
+                        .capacity(4)
+                        .maxBufferCapacity(2)
+                        .build())
+                {
+                    feed.subscribe(subscriber);
+                    assertTrue(subscriber.awaitSubscribed(), "Not subscribed");
+
+                    // the publisher waits once the buffer and capacity are full
+                    AtomicBoolean finished = new AtomicBoolean(false);
+                    Thread thread = new Thread(() -> {
+                        try {
+                            for (long entityId = 1L; entityId <= 100L; entityId++) {
+                                feed.publish(entityId);
+                            }
+                            finished.set(true);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                    thread.start();
+                    thread.join(500L);
+                    assertFalse(finished.get(), "Publishing not held back");
+                    assertEquals(1, subscriber.getReceived().size(),
+                                 "Delivered beyond the request");
+
+                    subscriber.request(Long.MAX_VALUE);
+                    thread.join(10000L);
+                    assertTrue(finished.get(), "Publishing not resumed");
+                }
+                assertTrue(subscriber.awaitCompleted(), "Subscriber not completed");
+                assertEquals(100, subscriber.getReceived().size(),
+                             "Unexpected published entities");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testNoSubscribers() {
+        this.performTest(() -> {
+            try {
+                try (SzEntityChangeFeed feed = SzEntityChangeFeed.newBuilder()
+                        .windowMillis(0L)
+                        .build())
+                {
+                    feed.publish(info(1L, 2L));
+                    assertTrue(await(() -> feed.getDroppedCount() == 2L),
+                               "Entities not dropped: " + feed);
+                    assertEquals(0L, feed.getPublishedCount(), "Unexpected published count");
+                }
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,746 @@
+package com.senzing.sdk.redo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.senzing.sdk.SzBadInputException;
+import com.senzing.sdk.SzDatabaseException;
+import com.senzing.sdk.SzDatabaseTransientException;
+import com.senzing.sdk.SzFlag;
+import com.senzing.sdk.test.AbstractTest;
+
+import static org.junit.jupiter.api.TestInstance.Lifecycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SzRedoProcessorTest extends AbstractTest {
+    private Path tempDir = null;
+
+    @BeforeAll
+    public void initialize() throws IOException {
+        this.beginTests();
+        this.tempDir = Files.createTempDirectory("sz-redo-");
+    }
+
+    @AfterAll
+    public void complete() throws IOException {
+        try (var stream = Files.walk(this.tempDir)) {
+            List<Path> paths = new ArrayList<>(stream.toList());
+            Collections.reverse(paths);
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+        }
+        this.endTests();
+    }
+
+    private static long countSegments(Path directory) throws IOException {
+        try (var stream = Files.list(directory)) {
+            return stream.filter(path -> path.toString().endsWith(".spool")).count();
+        }
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - deadline > 0L) {
+                return false;
+            }
+            Thread.sleep(5L);
+        }
+        return true;
+    }
+
+    @Test
+    public void testBuilderValidation() {
+        this.performTest(() -> {
+            assertThrows(IllegalStateException.class,
+                         () -> SzRedoProcessor.newBuilder().build(),
+                         "Missing engine accepted");
+            assertThrows(NullPointerException.class,
+                         () -> SzRedoProcessor.newBuilder().engine(null),
+                         "Null engine accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzRedoProcessor.newBuilder().threadCount(0),
+                         "Zero thread count accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzRedoProcessor.newBuilder().maxRetries(-1),
+                         "Negative retries accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzRedoProcessor.newBuilder().minIdleDelayMillis(0L),
+                         "Zero idle delay accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzRedoProcessor.newBuilder().sampleIntervalMillis(-1L),
+                         "Negative sample interval accepted");
+        });
+    }
+
+    @Test
+    public void testProcess() {
+        this.performTest(() -> {
+            RedoEngine redoEngine = new RedoEngine();
+            for (int index = 0; index < 1000; index++) {
+                redoEngine.addRedoRecord("REDO-" + index);
+            }
+            redoEngine.setHook((redoRecord, flags, attempt) -> {
+                if (redoRecord.endsWith("00") && attempt < 3) {
+                    throw new SzDatabaseTransientException("Deadlock");
+                }
+                if (redoRecord.equals("REDO-999")) {
+                    throw new SzBadInputException("Bad redo record");
+                }
+                return null;
+            });
+            try (SzRedoProcessor processor = SzRedoProcessor.newBuilder()
+                    .engine(redoEngine.getEngine())
+                    .threadCount(4)
+                    .retryDelayMillis(1L)
+                    .maxRetryDelayMillis(5L)
+                    .sampleIntervalMillis(1L)
+                    .build())
+            {
+                assertEquals(-1L, processor.getRedoBacklog(), "Backlog sampled early");
+                processor.start();
+                assertThrows(IllegalStateException.class, () -> processor.start(),
+                             "Started twice");
+                assertTrue(await(() -> processor.getProcessedCount()
+                                 + processor.getFailedCount() == 1000L),
+                           "Redo records not processed: " + processor);
+                assertEquals(999L, processor.getProcessedCount(), "Unexpected processed count");
+                assertEquals(1L, processor.getFailedCount(), "Unexpected failed count");
+                assertEquals(18L, processor.getRetryCount(), "Unexpected retry count");
+                assertEquals(3, redoEngine.getAttempts("REDO-500"), "Unexpected attempts");
+
+                // the workers keep polling the empty queue with backoff
+                assertTrue(await(() -> processor.getRedoBacklog() == 0L),
+                           "Unexpected backlog: " + processor);
+                redoEngine.addRedoRecord("LATE");
+                assertTrue(await(() -> redoEngine.getProcessedRedo().contains("LATE")),
+                           "Late redo record not processed");
+                assertTrue(processor.isRunning(), "Not running");
+
+                processor.close();
+                assertFalse(processor.isRunning(), "Still running after close");
+                assertNull(processor.getFailure(), "Unexpected failure");
+                assertThrows(IllegalStateException.class, () -> processor.start(),
+                             "Started after close");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testPipeline() {
+        this.performTest(() -> {
+            RedoEngine redoEngine = new RedoEngine();
+            for (int index = 0; index < 200; index++) {
+                redoEngine.addRedoRecord("REDO-" + index);
+            }
+            redoEngine.setFetchDelayMillis(1L);
+            AtomicInteger maxPrefetched = new AtomicInteger();
+            try (SzRedoProcessor processor = SzRedoProcessor.newBuilder()
+                    .engine(redoEngine.getEngine())
+                    .threadCount(4)
+                    .build())
+            {
+                assertEquals(8, processor.getPrefetchDepth(), "Unexpected default depth");
+                redoEngine.setHook((redoRecord, flags, attempt) -> {
+                    maxPrefetched.accumulateAndGet(processor.getPrefetchedCount(), Math::max);
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10L));
+                    return null;
+                });
+                processor.start();
+                assertTrue(await(() -> processor.getProcessedCount() == 200L),
+                           "Redo records not processed: " + processor);
+                processor.close();
+
+                // fetching and processing are timed separately
+                assertEquals(200L, processor.getFetchedCount(), "Unexpected fetched count");
+                assertTrue(processor.getFetchMillis() >= 150L,
+                           "Unexpected fetch time: " + processor.getFetchMillis());
+                assertTrue(processor.getProcessMillis() >= 1500L,
+                           "Unexpected process time: " + processor.getProcessMillis());
+                assertTrue(maxPrefetched.get() <= 8,
+                           "Prefetch depth exceeded: " + maxPrefetched.get());
+                assertTrue(maxPrefetched.get() > 0, "Nothing prefetched ahead of workers");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    private static String redoRecord(String dataSource, String recordId, String action) {
+        return "{\"REASON\":\"LibFeatID[?] of FTypeID[7] went generic\","
+            + "\"DATA_SOURCE\":\"" + dataSource + "\",\"RECORD_ID\":\"" + recordId
+            + "\",\"REEVAL_ITERATION\":1,\"ENTITY_CORRUPTION_TRANSIENT\":false,"
+            + "\"DSRC_ACTION\":\"" + action + "\"}";
+    }
+
+    @Test
+    public void testParseTarget() {
+        this.performTest(() -> {
+            String target = RedoTarget.parse(redoRecord("CUSTOMERS", "1001", "X"));
+            assertEquals("RECORD:\"CUSTOMERS\"\"1001\"", target, "Unexpected record target");
+            assertEquals(target, RedoTarget.parse(
+                "{ \"DSRC_ACTION\" : \"X\", \"EXTRA\": {\"RECORD_ID\": \"2\", \"A\": [1, {}]},"
+                + " \"RECORD_ID\": \"1001\", \"DATA_SOURCE\": \"CUSTOMERS\" }"),
+                "Nested or reordered properties changed the target");
+            assertEquals("ENTITY:42", RedoTarget.parse("{\"ENTITY_ID\":42}"),
+                         "Unexpected entity target");
+            assertEquals("ENTITY:42", RedoTarget.parse("{\"RES_ENT_ID\":\"42\"}"),
+                         "Unexpected resolved entity target");
+            assertNull(RedoTarget.parse(redoRecord("CUSTOMERS", "1001", "D")),
+                       "Delete action has a target");
+            assertNull(RedoTarget.parse(
+                "{\"UMF_PROC\":{\"NAME\":\"VALIDATE\",\"PARAMS\":[]}}"),
+                "Unrecognized redo record has a target");
+            assertNull(RedoTarget.parse("{\"DATA_SOURCE\":\"CUSTOMERS\"}"),
+                       "Record ID not required");
+            assertNull(RedoTarget.parse("{\"DATA_SOURCE\":\"CUSTOMERS\",\"RECORD_ID\":\"1"),
+                       "Truncated redo record has a target");
+            assertNull(RedoTarget.parse("not json"), "Invalid JSON has a target");
+        });
+    }
+
+    @Test
+    public void testCoalescing() {
+        this.performTest(() -> {
+            RedoEngine redoEngine = new RedoEngine();
+            for (int copy = 0; copy < 10; copy++) {
+                for (int index = 0; index < 10; index++) {
+                    redoEngine.addRedoRecord(redoRecord("TEST", "R" + index, "X"));
+                }
+                redoEngine.addRedoRecord(redoRecord("TEST", "D" + copy, "D"));
+                redoEngine.addRedoRecord("{\"UMF_PROC\":{\"NAME\":\"P" + copy + "\"}}");
+            }
+            try (SzRedoProcessor processor = SzRedoProcessor.newBuilder()
+                    .engine(redoEngine.getEngine())
+                    .threadCount(2)
+                    .coalesceWindowMillis(60000L)
+                    .build())
+            {
+                assertEquals(60000L, processor.getCoalesceWindowMillis(), "Unexpected window");
+                processor.start();
+
+                // held redo records are released once the queue is empty
+                assertTrue(await(() -> processor.getProcessedCount() == 30L),
+                           "Redo records not processed: " + processor);
+                assertEquals(120L, processor.getFetchedCount(), "Unexpected fetched count");
+                assertEquals(90L, processor.getCoalescedCount(), "Unexpected coalesced count");
+                assertEquals(0, processor.getCoalescingCount(), "Redo records still held");
+                for (int index = 0; index < 10; index++) {
+                    String redoRecord = redoRecord("TEST", "R" + index, "X");
+                    assertEquals(1, redoEngine.getAttempts(redoRecord),
+                                 "Redo record not coalesced: " + redoRecord);
+                }
+
+                // a duplicate fetched after the first was released is processed
+                redoEngine.addRedoRecord(redoRecord("TEST", "R0", "X"));
+                assertTrue(await(() -> processor.getProcessedCount() == 31L),
+                           "Later duplicate not processed: " + processor);
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testScale() {
+        this.performTest(() -> {
+            RedoEngine redoEngine = new RedoEngine();
+            assertThrows(IllegalStateException.class,
+                         () -> SzRedoProcessor.newBuilder()
+                             .engine(redoEngine.getEngine())
+                             .threadCount(2).minThreadCount(3).build(),
+                         "Minimum thread count above thread count accepted");
+            SzRedoProcessor fixed = SzRedoProcessor.newBuilder()
+                .engine(redoEngine.getEngine()).threadCount(4).build();
+            assertFalse(fixed.isAutoscaling(), "Autoscaling without minimum");
+            assertEquals(4, fixed.getActiveThreadCount(), "Unexpected active workers");
+
+            SzRedoProcessor processor = SzRedoProcessor.newBuilder()
+                .engine(redoEngine.getEngine())
+                .threadCount(8)
+                .minThreadCount(1)
+                .targetDrainMillis(10000L)
+                .maxForegroundLatencyMillis(100.0)
+                .build();
+            assertTrue(processor.isAutoscaling(), "Not autoscaling");
+            assertEquals(1, processor.getActiveThreadCount(), "Unexpected initial workers");
+
+            double none = Double.NaN;
+            assertEquals(1, processor.scale(1, 0L, 0.0, none), "Scaled up without backlog");
+            assertEquals(2, processor.scale(1, 1000L, 0.0, none), "Unknown rate not doubled");
+            assertEquals(3, processor.scale(1, 300L, 10.0, none), "Unexpected drain scaling");
+            assertEquals(8, processor.scale(1, 100000L, 10.0, none), "Thread count exceeded");
+            assertEquals(7, processor.scale(8, 0L, 10.0, none), "Scaled down too quickly");
+            assertEquals(7, processor.scale(8, 300L, 10.0, none), "Scaled down too quickly");
+            assertEquals(8, processor.scale(8, 100000L, 10.0, 50.0), "Yielded below latency");
+            assertEquals(4, processor.scale(8, 100000L, 10.0, 150.0), "Did not yield");
+            assertEquals(1, processor.scale(1, 100000L, 10.0, 150.0), "Minimum not kept");
+        });
+    }
+
+    @Test
+    public void testAutoscaling() {
+        this.performTest(() -> {
+            RedoEngine redoEngine = new RedoEngine();
+            for (int index = 0; index < 400; index++) {
+                redoEngine.addRedoRecord("REDO-" + index);
+            }
+            redoEngine.setHook((redoRecord, flags, attempt) -> {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5L));
+                return null;
+            });
+            AtomicInteger maxActive = new AtomicInteger();
+            try (SzRedoProcessor processor = SzRedoProcessor.newBuilder()
+                    .engine(redoEngine.getEngine())
+                    .threadCount(4)
+                    .minThreadCount(1)
+                    .targetDrainMillis(100L)
+                    .sampleIntervalMillis(20L)
+                    .build())
+            {
+                processor.start();
+                assertTrue(await(() -> {
+                    maxActive.accumulateAndGet(processor.getActiveThreadCount(), Math::max);
+                    return processor.getProcessedCount() == 400L;
+                }), "Redo records not processed: " + processor);
+                assertEquals(4, maxActive.get(), "Workers not scaled up for backlog");
+                assertTrue(processor.getBusyCount() <= processor.getThreadCount(),
+                           "Unexpected busy workers");
+
+                // the workers scale back down once the backlog is drained
+                assertTrue(await(() -> processor.getActiveThreadCount() == 1),
+                           "Workers not scaled down: " + processor);
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testIdleBackoff() {
+        this.performTest(() -> {
+            RedoEngine redoEngine = new RedoEngine();
+            try (SzRedoProcessor processor = SzRedoProcessor.newBuilder()
+                    .engine(redoEngine.getEngine())
+                    .threadCount(2)
+                    .minIdleDelayMillis(10L)
+                    .maxIdleDelayMillis(10000L)
+                    .build())
+            {
+                processor.start();
+                Thread.sleep(500L);
+
+                // exponential backoff limits the polls of an empty queue
+                int polls = redoEngine.getGetCount();
+                assertTrue(polls > 0, "Empty queue not polled");
+                assertTrue(polls <= 2 * 10, "Empty queue polled too often: " + polls);
+
+                // closing wakes the idle workers rather than waiting
+                long start = System.nanoTime();
+                processor.close();
+                assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2L),
+                           "Close waited for the idle delay");
+                assertEquals((long) redoEngine.getGetCount(), processor.getEmptyPollCount(),
+                             "Unexpected empty poll count");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testGracefulStop() {
+        this.performTest(() -> {
+            RedoEngine redoEngine = new RedoEngine();
+            for (int index = 0; index < 10; index++) {
+                redoEngine.addRedoRecord("REDO-" + index);
+            }
+            CountDownLatch started = new CountDownLatch(1);
+            redoEngine.setHook((redoRecord, flags, attempt) -> {
+                started.countDown();
+                try {
+                    Thread.sleep(100L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            });
+            try (SzRedoProcessor processor = SzRedoProcessor.newBuilder()
+                    .engine(redoEngine.getEngine())
+                    .threadCount(1)
+                    .prefetchDepth(2)
+                    .build())
+            {
+                processor.start();
+                assertTrue(started.await(10L, TimeUnit.SECONDS), "Processing not started");
+                processor.close();
+
+                // the fetched redo records are finished and no more are taken
+                long fetched = processor.getFetchedCount();
+                assertTrue(fetched >= 1L && fetched <= 4L, "Unexpected fetched count: " + fetched);
+                assertEquals((int) fetched, redoEngine.getProcessedRedo().size(),
+                             "Fetched redo records not finished");
+                assertEquals(10 - (int) fetched, redoEngine.getRedoQueueSize(),
+                             "Redo records taken after close");
+                assertEquals(0, processor.getPrefetchedCount(), "Prefetched records abandoned");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testStopOnUnrecoverable() {
+        this.performTest(() -> {
+            RedoEngine redoEngine = new RedoEngine();
+            for (int index = 0; index < 1000; index++) {
+                redoEngine.addRedoRecord("REDO-" + index);
+            }
+            redoEngine.setHook((redoRecord, flags, attempt) -> {
+                if (redoRecord.equals("REDO-10")) {
+                    throw new SzDatabaseException("Simulated database failure");
+                }
+                return null;
+            });
+            try (SzRedoProcessor processor = SzRedoProcessor.newBuilder()
+                    .engine(redoEngine.getEngine())
+                    .threadCount(2)
+                    .build())
+            {
+                processor.start();
+                assertTrue(await(() -> !processor.isRunning()), "Workers did not stop");
+                assertTrue(processor.getFailure() instanceof SzDatabaseException,
+                           "Unexpected failure: " + processor.getFailure());
+                assertTrue(redoEngine.getRedoQueueSize() > 0, "Processing did not stop");
+
+                // the retrieved redo records that were not processed are retained
+                List<String> unprocessed = processor.getUnprocessedRedoRecords();
+                assertTrue(unprocessed.contains("REDO-10"),
+                           "Failed redo record not retained: " + unprocessed);
+                assertEquals(1000, redoEngine.getProcessedRedo().size()
+                             + redoEngine.getRedoQueueSize() + unprocessed.size(),
+                             "Retrieved redo records lost");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+
+            // with a spill directory they are spilled instead
+            redoEngine = new RedoEngine();
+            for (int index = 0; index < 1000; index++) {
+                redoEngine.addRedoRecord("REDO-" + index);
+            }
+            redoEngine.setHook((redoRecord, flags, attempt) -> {
+                if (redoRecord.equals("REDO-10")) {
+                    throw new SzDatabaseException("Simulated database failure");
+                }
+                return null;
+            });
+            LocalTime now = LocalTime.now();
+            try (SzRedoProcessor processor = SzRedoProcessor.newBuilder()
+                    .engine(redoEngine.getEngine())
+                    .threadCount(2)
+                    .coalesceWindowMillis(1000L)
+                    .spillDirectory(this.tempDir.resolve("unrecoverable"))
+                    .offPeakWindow(now.minusHours(1L), now.plusHours(1L))
+                    .build())
+            {
+                processor.start();
+                assertTrue(await(() -> !processor.isRunning()), "Workers did not stop");
+                assertTrue(processor.getUnprocessedRedoRecords().isEmpty(),
+                           "Unprocessed redo records not spilled");
+                assertTrue(processor.getSpoolSize() > 0L, "Nothing spilled");
+                assertEquals(1000L, redoEngine.getProcessedRedo().size()
+                             + redoEngine.getRedoQueueSize() + processor.getSpoolSize(),
+                             "Retrieved redo records lost");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testSpoolRecovery() {
+        this.performTest(() -> {
+            try {
+                Path directory = this.tempDir.resolve("recovery");
+                try (RedoSpool spool = new RedoSpool(directory, 32L)) {
+                    for (int index = 0; index < 5; index++) {
+                        spool.append("REDO-" + index);
+                    }
+                    assertEquals(5L, spool.size(), "Unexpected spool size");
+                    RedoSpool.Entry first = spool.next();
+                    RedoSpool.Entry second = spool.next();
+                    assertNotNull(first, "No first entry");
+                    assertNotNull(second, "No second entry");
+                    assertEquals("REDO-0", first.getRedoRecord(), "Unexpected first entry");
+                    assertEquals("REDO-1", second.getRedoRecord(), "Unexpected second entry");
+                    assertEquals(3L, spool.size(), "Unexpected spool size");
+
+                    // an acknowledgement out of order does not skip the first
+                    spool.acknowledge(second.getOrdinal());
+                }
+
+                // simulate a torn write at the end of the last segment
+                List<Path> segments;
+                try (var stream = Files.list(directory)) {
+                    segments = stream.filter(path -> path.toString().endsWith(".spool"))
+                        .sorted().toList();
+                }
+                assertTrue(segments.size() > 1, "Segments not rolled over");
+                try (FileChannel channel = FileChannel.open(
+                    segments.get(segments.size() - 1), StandardOpenOption.APPEND))
+                {
+                    channel.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 9, 1, 2 }));
+                }
+
+                try (RedoSpool spool = new RedoSpool(directory, 32L)) {
+                    assertEquals(5L, spool.size(), "Unacknowledged entries not recovered");
+                    spool.append("REDO-5");
+                    List<String> replayed = new ArrayList<>();
+                    for (RedoSpool.Entry entry = spool.next(); entry != null;
+                         entry = spool.next())
+                    {
+                        replayed.add(entry.getRedoRecord());
+                        spool.acknowledge(entry.getOrdinal());
+                    }
+                    assertEquals(List.of("REDO-0", "REDO-1", "REDO-2", "REDO-3",
+                                         "REDO-4", "REDO-5"),
+                                 replayed, "Unexpected replayed entries");
+                }
+
+                try (RedoSpool spool = new RedoSpool(directory, 32L)) {
+                    assertEquals(0L, spool.size(), "Acknowledged entries replayed");
+                    assertNull(spool.next(), "Unexpected entry");
+                }
+                assertTrue(countSegments(directory) <= 1L, "Replayed segments not deleted");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testSpill() {
+        this.performTest(() -> {
+            Path directory = this.tempDir.resolve("spill");
+            LocalTime now = LocalTime.now();
+            assertThrows(IllegalStateException.class,
+                         () -> SzRedoProcessor.newBuilder()
+                             .engine(new RedoEngine().getEngine())
+                             .spillDirectory(directory).build(),
+                         "Spill directory without off-peak window accepted");
+            assertThrows(IllegalArgumentException.class,
+                         () -> SzRedoProcessor.newBuilder().offPeakWindow(now, now),
+                         "Empty off-peak window accepted");
+
+            RedoEngine redoEngine = new RedoEngine();
+            for (int index = 0; index < 50; index++) {
+                redoEngine.addRedoRecord("REDO-" + index);
+            }
+            try {
+                // outside the off-peak window the redo records are only spilled
+                try (SzRedoProcessor processor = SzRedoProcessor.newBuilder()
+                        .engine(redoEngine.getEngine())
+                        .threadCount(2)
+                        .spillDirectory(directory)
+                        .spillSegmentSize(256L)
+                        .offPeakWindow(now.plusHours(1L), now.plusHours(2L))
+                        .build())
+                {
+                    assertFalse(processor.isOffPeak(), "Unexpectedly off-peak");
+                    processor.start();
+                    assertTrue(await(() -> processor.getSpilledCount() == 50L),
+                               "Redo records not spilled: " + processor);
+                    assertEquals(0, redoEngine.getRedoQueueSize(), "Redo queue not drained");
+                    assertEquals(50L, processor.getSpoolSize(), "Unexpected spool size");
+                    assertEquals(0L, processor.getProcessedCount(),
+                                 "Redo records processed outside off-peak window");
+                }
+                assertTrue(redoEngine.getProcessedRedo().isEmpty(),
+                           "Redo records processed outside off-peak window");
+                assertTrue(countSegments(directory) > 1L, "Segments not rolled over");
+
+                // within the off-peak window the spilled redo records are replayed
+                for (int index = 50; index < 60; index++) {
+                    redoEngine.addRedoRecord("REDO-" + index);
+                }
+                try (SzRedoProcessor processor = SzRedoProcessor.newBuilder()
+                        .engine(redoEngine.getEngine())
+                        .threadCount(2)
+                        .spillDirectory(directory)
+                        .spillSegmentSize(256L)
+                        .offPeakWindow(now.minusHours(1L), now.plusHours(1L))
+                        .build())
+                {
+                    assertTrue(processor.isOffPeak(), "Unexpectedly not off-peak");
+                    processor.start();
+                    assertTrue(await(() -> processor.getProcessedCount() == 60L),
+                               "Redo records not processed: " + processor);
+                    assertEquals(50L, processor.getReplayedCount(), "Unexpected replayed count");
+                    assertEquals(0L, processor.getSpilledCount(), "Unexpected spilled count");
+                    assertEquals(0L, processor.getSpoolSize(), "Unexpected spool size");
+                }
+                Set<String> expected = new HashSet<>();
+                for (int index = 0; index < 60; index++) {
+                    expected.add("REDO-" + index);
+                }
+                assertEquals(expected, new HashSet<>(redoEngine.getProcessedRedo()),
+                             "Unexpected processed redo records");
+                assertEquals(60, redoEngine.getProcessedRedo().size(),
+                             "Redo records processed more than once");
+                assertTrue(countSegments(directory) <= 1L, "Replayed segments not deleted");
+
+                // the checkpoint prevents replaying the redo records again
+                try (SzRedoProcessor processor = SzRedoProcessor.newBuilder()
+                        .engine(redoEngine.getEngine())
+                        .threadCount(1)
+                        .spillDirectory(directory)
+                        .offPeakWindow(now.minusHours(1L), now.plusHours(1L))
+                        .build())
+                {
+                    processor.start();
+                    assertEquals(0L, processor.getSpoolSize(), "Replayed records recovered");
+                    Thread.sleep(100L);
+                    assertEquals(0L, processor.getReplayedCount(), "Redo records replayed again");
+                }
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+
+    @Test
+    public void testChangeFeed() {
+        this.performTest(() -> {
+            RedoEngine redoEngine = new RedoEngine();
+            for (int index = 0; index < 100; index++) {
+                redoEngine.addRedoRecord("REDO-" + index);
+            }
+            AtomicInteger withoutInfo = new AtomicInteger();
+            redoEngine.setHook((redoRecord, flags, attempt) -> {
+                if (flags == null || !flags.contains(SzFlag.SZ_WITH_INFO)) {
+                    withoutInfo.incrementAndGet();
+                }
+                long index = Long.parseLong(redoRecord.substring("REDO-".length()));
+                return SzEntityChangeFeedTest.info(index % 10L);
+            });
+            SzEntityChangeFeedTest.CollectingSubscriber subscriber
+                = new SzEntityChangeFeedTest.CollectingSubscriber(Long.MAX_VALUE);
+            try (SzEntityChangeFeed feed = SzEntityChangeFeed.newBuilder()
+                    .windowMillis(60000L)
+                    .build())
+            {
+                feed.subscribe(subscriber);
+                assertTrue(subscriber.awaitSubscribed(), "Not subscribed");
+                try (SzRedoProcessor processor = SzRedoProcessor.newBuilder()
+                        .engine(redoEngine.getEngine())
+                        .threadCount(4)
+                        .changeFeed(feed)
+                        .build())
+                {
+                    assertTrue(processor.getFlags().equals(SzFlag.SZ_REDO_DEFAULT_FLAGS),
+                               "Configured flags changed");
+                    processor.start();
+                    assertTrue(await(() -> processor.getProcessedCount() == 100L),
+                               "Redo records not processed: " + processor);
+                }
+                assertEquals(0, withoutInfo.get(), "Redo processed without INFO");
+                assertEquals(10, feed.getPendingCount(), "Unexpected pending entities");
+                assertEquals(90L, feed.getDeduplicatedCount(), "Unexpected deduplicated count");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+            try {
+                assertTrue(subscriber.awaitCompleted(), "Subscriber not completed");
+            } catch (InterruptedException e) {
+                fail("Unexpected exception", e);
+            }
+            assertEquals(Set.of(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L),
+                         new HashSet<>(subscriber.getReceived()),
+                         "Unexpected changed entities");
+            assertEquals(10, subscriber.getReceived().size(), "Entities not deduplicated");
+        });
+    }
+
+    @Test
+    public void testClosedChangeFeed() {
+        this.performTest(() -> {
+            RedoEngine redoEngine = new RedoEngine();
+            for (int index = 0; index < 100; index++) {
+                redoEngine.addRedoRecord("REDO-" + index);
+            }
+            redoEngine.setHook((redoRecord, flags, attempt) -> {
+                long index = Long.parseLong(redoRecord.substring("REDO-".length()));
+                return SzEntityChangeFeedTest.info(index);
+            });
+            SzEntityChangeFeed feed = SzEntityChangeFeed.newBuilder().build();
+            feed.close();
+            try (SzRedoProcessor processor = SzRedoProcessor.newBuilder()
+                    .engine(redoEngine.getEngine())
+                    .threadCount(2)
+                    .changeFeed(feed)
+                    .build())
+            {
+                processor.start();
+                assertTrue(await(() -> !processor.isRunning()), "Workers did not stop");
+                assertTrue(processor.getFailure() instanceof IllegalStateException,
+                           "Unexpected failure: " + processor.getFailure());
+
+                // redo records that were processed are never retained
+                List<String> processed = redoEngine.getProcessedRedo();
+                List<String> unprocessed = processor.getUnprocessedRedoRecords();
+                assertFalse(processed.isEmpty(), "Nothing processed");
+                for (String redoRecord : processed) {
+                    assertFalse(unprocessed.contains(redoRecord),
+                                "Processed redo record retained: " + redoRecord);
+                }
+                assertEquals(100, processed.size() + redoEngine.getRedoQueueSize()
+                             + unprocessed.size(), "Retrieved redo records lost");
+
+            } catch (Exception e) {
+                fail("Unexpected exception", e);
+            }
+        });
+    }
+}